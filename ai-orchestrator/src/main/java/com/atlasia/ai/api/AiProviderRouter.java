@@ -15,6 +15,7 @@ import org.springframework.web.client.RestClient;
 
 import java.util.Map;
 import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 
 /**
  * Routes Chat Mode AI calls to the correct provider based on persona.
@@ -74,6 +75,20 @@ public class AiProviderRouter {
      * @return unified {@link AiResponse} — never null
      */
     public AiResponse call(String personaId, AiPrompt prompt) {
+        return route(personaId, prompt, null);
+    }
+
+    /**
+     * Same routing as {@link #call}, but the provider is asked to stream: {@code onToken}
+     * receives text deltas on the calling thread while the completion is generated.
+     *
+     * @return the assembled response once the stream ends
+     */
+    public AiResponse stream(String personaId, AiPrompt prompt, Consumer<String> onToken) {
+        return route(personaId, prompt, onToken);
+    }
+
+    private AiResponse route(String personaId, AiPrompt prompt, Consumer<String> onToken) {
         if (restClients.isEmpty()) {
             throw new IllegalStateException(
                     "No AI providers configured under persona.ai.providers. "
@@ -85,7 +100,8 @@ public class AiProviderRouter {
         RestClient client     = requireClient(providerId);
         ProviderAdapter adapter = requireAdapter(config);
 
-        log.debug("Routing: persona={} → provider={} model={}", personaId, providerId, config.model());
+        log.debug("Routing: persona={} → provider={} model={} streaming={}",
+                personaId, providerId, config.model(), onToken != null);
 
         try {
             semaphore.acquire();
@@ -95,7 +111,9 @@ public class AiProviderRouter {
         }
 
         try {
-            return adapter.call(providerId, prompt, client, config);
+            return onToken == null
+                    ? adapter.call(providerId, prompt, client, config)
+                    : adapter.stream(providerId, prompt, client, config, onToken);
 
         } catch (RateLimitException e) {
             log.warn("Rate limit: provider={} — back off before retrying", providerId);
@@ -0,0 +1,34 @@
+package com.atlasia.ai.api;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset cursor for GET /api/runs: the (createdAt, id) of the last run on a page,
+ * URL-safe base64 encoded. Clients pass it back unchanged to fetch the next page.
+ */
+public record RunListCursor(Instant createdAt, UUID id) {
+
+    public String encode() {
+        String raw = createdAt.toString() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** @throws IllegalArgumentException if the value was not produced by {@link #encode()} */
+    public static RunListCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed run cursor");
+            }
+            return new RunListCursor(Instant.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed run cursor", e);
+        }
+    }
+}
@@ -4,9 +4,12 @@ import com.atlasia.ai.api.dto.AiWireTypes.*;
 import com.atlasia.ai.config.AiProviderProperties.ProviderConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.web.client.RestClient;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Sealed interface — one implementation per provider type.
@@ -17,6 +20,14 @@ import java.util.ArrayList;
  * <p>Virtual thread behaviour: {@code restClient.retrieve().body(Class)} is a blocking
  * socket read. On a virtual thread, the JVM parks the thread at that point, releases
  * the carrier OS thread, and resumes when the response arrives. No busy-waiting.</p>
+ *
+ * <p>{@link #stream} issues the same request in the provider's streaming mode and reads the
+ * body line by line ({@link ProviderStreamParser}), so text deltas reach the caller as they
+ * are generated instead of after the whole completion.</p>
+ *
+ * <p>Prompt caching: the Anthropic adapter turns {@link AiPrompt#cache()} into
+ * {@code cache_control} breakpoints. OpenAI-compatible providers and Ollama cache identical
+ * prefixes on their own, so those adapters only keep the stable part of the user turn first.</p>
  */
 public sealed interface ProviderAdapter
         permits ProviderAdapter.AnthropicAdapter,
@@ -27,6 +38,13 @@ public sealed interface ProviderAdapter
     /** Executes the AI call. Blocks the calling (virtual) thread. Never returns null. */
     AiResponse call(String providerId, AiPrompt prompt, RestClient client, ProviderConfig config);
 
+    /**
+     * Streaming variant of {@link #call}: {@code onToken} receives each text delta on the calling
+     * thread as it is read; the returned response carries the full text and final usage.
+     */
+    AiResponse stream(String providerId, AiPrompt prompt, RestClient client, ProviderConfig config,
+                      Consumer<String> onToken);
+
     // =========================================================================
     // Anthropic — POST /v1/messages
     // =========================================================================
@@ -39,18 +57,14 @@ public sealed interface ProviderAdapter
                                RestClient client, ProviderConfig config) {
             long start = System.currentTimeMillis();
 
-            var messages = new ArrayList<AnthropicMessage>();
-            if (prompt.history() != null) {
-                prompt.history().forEach(h ->
-                        messages.add(new AnthropicMessage(h.get("role"), h.get("content"))));
-            }
-            messages.add(AnthropicMessage.user(prompt.userMessage()));
+            var messages = messages(prompt);
 
             var request = new AnthropicRequest(
                     config.model(), config.maxTokens(), config.temperature(),
-                    messages, prompt.systemPrompt());
+                    messages, system(prompt));
 
-            log.debug("Anthropic call: model={} messages={}", config.model(), messages.size());
+            log.debug("Anthropic call: model={} messages={} cacheSystem={} cacheUserPrefix={}",
+                    config.model(), messages.size(), prompt.cache().cacheSystem(), prompt.cache().hasUserPrefix());
 
             AnthropicResponse response = client.post()
                     .uri("/v1/messages")
@@ -70,14 +84,69 @@ public sealed interface ProviderAdapter
             if (response == null) throw new AiCallException("Anthropic returned null body", providerId);
 
             long elapsed = System.currentTimeMillis() - start;
-            log.debug("Anthropic ok: stopReason={} outputTokens={} elapsed={}ms",
-                    response.stopReason(), response.usage().outputTokens(), elapsed);
+            var usage = response.usage();
+            log.debug("Anthropic ok: stopReason={} outputTokens={} cacheRead={} cacheWrite={} elapsed={}ms",
+                    response.stopReason(), usage.outputTokens(), usage.cacheReadInputTokens(),
+                    usage.cacheCreationInputTokens(), elapsed);
 
             return new AiResponse(
                     response.firstTextContent(),
-                    response.usage().inputTokens(),
-                    response.usage().outputTokens(),
-                    providerId, config.model(), elapsed);
+                    usage.totalInputTokens(),
+                    usage.outputTokens(),
+                    providerId, config.model(), elapsed,
+                    usage.cacheReadInputTokens(), usage.cacheCreationInputTokens());
+        }
+
+        @Override
+        public AiResponse stream(String providerId, AiPrompt prompt, RestClient client,
+                                 ProviderConfig config, Consumer<String> onToken) {
+            long start = System.currentTimeMillis();
+            var request = new AnthropicRequest(
+                    config.model(), config.maxTokens(), config.temperature(),
+                    messages(prompt), system(prompt), true);
+
+            ProviderStreamParser.StreamResult result = client.post()
+                    .uri("/v1/messages")
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .body(request)
+                    .exchange((req, res) -> {
+                        int status = res.getStatusCode().value();
+                        if (status == 429) throw new RateLimitException("Anthropic rate limit hit", providerId);
+                        if (status >= 400) throw new AiCallException("Anthropic " + status, providerId);
+                        return ProviderStreamParser.readAnthropic(res.getBody(), onToken, providerId);
+                    });
+
+            long elapsed = System.currentTimeMillis() - start;
+            log.debug("Anthropic stream ok: ttft={}ms outputTokens={} elapsed={}ms",
+                    result.firstTokenMillis() > 0 ? result.firstTokenMillis() - start : -1,
+                    result.outputTokens(), elapsed);
+            return new AiResponse(result.content(), result.inputTokens(), result.outputTokens(),
+                    providerId, config.model(), elapsed, result.cachedInputTokens(),
+                    result.cacheWriteInputTokens());
+        }
+
+        static Object system(AiPrompt prompt) {
+            String system = prompt.systemPrompt();
+            if (!prompt.cache().cacheSystem() || system == null || system.isEmpty()) {
+                return system;
+            }
+            return List.of(AnthropicTextBlock.cached(system));
+        }
+
+        static List<AnthropicMessage> messages(AiPrompt prompt) {
+            var messages = new ArrayList<AnthropicMessage>();
+            if (prompt.history() != null) {
+                prompt.history().forEach(h ->
+                        messages.add(new AnthropicMessage(h.get("role"), h.get("content"))));
+            }
+            if (prompt.cache().hasUserPrefix()) {
+                messages.add(AnthropicMessage.user(List.of(
+                        AnthropicTextBlock.cached(prompt.cache().userPrefix()),
+                        AnthropicTextBlock.text(prompt.userMessage()))));
+            } else {
+                messages.add(AnthropicMessage.user(prompt.userMessage()));
+            }
+            return messages;
         }
     }
 
@@ -93,13 +162,7 @@ public sealed interface ProviderAdapter
                                RestClient client, ProviderConfig config) {
             long start = System.currentTimeMillis();
 
-            var messages = new ArrayList<OpenAiMessage>();
-            messages.add(OpenAiMessage.system(prompt.systemPrompt()));
-            if (prompt.history() != null) {
-                prompt.history().forEach(h ->
-                        messages.add(new OpenAiMessage(h.get("role"), h.get("content"))));
-            }
-            messages.add(OpenAiMessage.user(prompt.userMessage()));
+            var messages = messages(prompt);
 
             var request = new OpenAiRequest(
                     config.model(), config.maxTokens(), config.temperature(), messages);
@@ -126,7 +189,45 @@ public sealed interface ProviderAdapter
                     response.firstContent(),
                     usage != null ? usage.promptTokens() : 0,
                     usage != null ? usage.completionTokens() : 0,
-                    providerId, config.model(), elapsed);
+                    providerId, config.model(), elapsed,
+                    usage != null ? usage.cachedTokens() : 0);
+        }
+
+        @Override
+        public AiResponse stream(String providerId, AiPrompt prompt, RestClient client,
+                                 ProviderConfig config, Consumer<String> onToken) {
+            long start = System.currentTimeMillis();
+            var request = OpenAiRequest.streaming(
+                    config.model(), config.maxTokens(), config.temperature(), messages(prompt));
+
+            ProviderStreamParser.StreamResult result = client.post()
+                    .uri("/v1/chat/completions")
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .body(request)
+                    .exchange((req, res) -> {
+                        int status = res.getStatusCode().value();
+                        if (status == 429) throw new RateLimitException("OpenAI rate limit hit", providerId);
+                        if (status >= 400) throw new AiCallException("OpenAI error: " + status, providerId);
+                        return ProviderStreamParser.readOpenAi(res.getBody(), onToken, providerId);
+                    });
+
+            long elapsed = System.currentTimeMillis() - start;
+            log.debug("OpenAI stream ok: ttft={}ms outputTokens={} elapsed={}ms",
+                    result.firstTokenMillis() > 0 ? result.firstTokenMillis() - start : -1,
+                    result.outputTokens(), elapsed);
+            return new AiResponse(result.content(), result.inputTokens(), result.outputTokens(),
+                    providerId, config.model(), elapsed, result.cachedInputTokens());
+        }
+
+        private static List<OpenAiMessage> messages(AiPrompt prompt) {
+            var messages = new ArrayList<OpenAiMessage>();
+            messages.add(OpenAiMessage.system(prompt.systemPrompt()));
+            if (prompt.history() != null) {
+                prompt.history().forEach(h ->
+                        messages.add(new OpenAiMessage(h.get("role"), h.get("content"))));
+            }
+            messages.add(OpenAiMessage.user(prompt.fullUserMessage()));
+            return messages;
         }
     }
 
@@ -142,13 +243,7 @@ public sealed interface ProviderAdapter
                                RestClient client, ProviderConfig config) {
             long start = System.currentTimeMillis();
 
-            var messages = new ArrayList<OllamaMessage>();
-            messages.add(OllamaMessage.system(prompt.systemPrompt()));
-            if (prompt.history() != null) {
-                prompt.history().forEach(h ->
-                        messages.add(new OllamaMessage(h.get("role"), h.get("content"))));
-            }
-            messages.add(OllamaMessage.user(prompt.userMessage()));
+            var messages = messages(prompt);
 
             var request = OllamaRequest.of(
                     config.model(), messages, config.maxTokens(), config.temperature());
@@ -172,6 +267,44 @@ public sealed interface ProviderAdapter
             return new AiResponse(
                     response.content(), 0, tokens, providerId, config.model(), elapsed);
         }
+
+        @Override
+        public AiResponse stream(String providerId, AiPrompt prompt, RestClient client,
+                                 ProviderConfig config, Consumer<String> onToken) {
+            long start = System.currentTimeMillis();
+            var request = OllamaRequest.streaming(
+                    config.model(), messages(prompt), config.maxTokens(), config.temperature());
+
+            ProviderStreamParser.StreamResult result = client.post()
+                    .uri("/api/chat")
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .body(request)
+                    .exchange((req, res) -> {
+                        if (!res.getStatusCode().is2xxSuccessful()) {
+                            throw new AiCallException("Ollama error: " + res.getStatusCode()
+                                    + " — is Ollama running on " + config.baseUrl() + "?", providerId);
+                        }
+                        return ProviderStreamParser.readOllama(res.getBody(), onToken, providerId);
+                    });
+
+            long elapsed = System.currentTimeMillis() - start;
+            log.debug("Ollama stream ok: ttft={}ms evalCount={} elapsed={}ms",
+                    result.firstTokenMillis() > 0 ? result.firstTokenMillis() - start : -1,
+                    result.outputTokens(), elapsed);
+            return new AiResponse(result.content(), result.inputTokens(), result.outputTokens(),
+                    providerId, config.model(), elapsed);
+        }
+
+        private static List<OllamaMessage> messages(AiPrompt prompt) {
+            var messages = new ArrayList<OllamaMessage>();
+            messages.add(OllamaMessage.system(prompt.systemPrompt()));
+            if (prompt.history() != null) {
+                prompt.history().forEach(h ->
+                        messages.add(new OllamaMessage(h.get("role"), h.get("content"))));
+            }
+            messages.add(OllamaMessage.user(prompt.fullUserMessage()));
+            return messages;
+        }
     }
 
     // =========================================================================
@@ -188,6 +321,13 @@ public sealed interface ProviderAdapter
             log.debug("LiteLLM call (via OpenAI adapter): model={}", config.model());
             return delegate.call(providerId, prompt, client, config);
         }
+
+        @Override
+        public AiResponse stream(String providerId, AiPrompt prompt, RestClient client,
+                                 ProviderConfig config, Consumer<String> onToken) {
+            log.debug("LiteLLM stream (via OpenAI adapter): model={}", config.model());
+            return delegate.stream(providerId, prompt, client, config, onToken);
+        }
     }
 
     // =========================================================================
@@ -0,0 +1,221 @@
+package com.atlasia.ai.api.adapter;
+
+import com.atlasia.ai.api.adapter.ProviderAdapter.AiCallException;
+import com.atlasia.ai.api.adapter.ProviderAdapter.RateLimitException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+/**
+ * Incremental readers for provider streaming responses.
+ *
+ * <p>OpenAI-compatible endpoints (OpenAI, LiteLLM) and Anthropic stream Server-Sent Events;
+ * Ollama streams newline-delimited JSON. Each reader hands every text delta to
+ * {@code onToken} as soon as its line is read and returns the assembled completion with
+ * the usage the provider reported at the end of the stream.</p>
+ */
+public final class ProviderStreamParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ProviderStreamParser() {}
+
+    /**
+     * @param inputTokens       all prompt tokens, including {@code cachedInputTokens} and
+     *                          {@code cacheWriteInputTokens}
+     * @param firstTokenMillis  wall-clock millis at which the first non-empty delta arrived, or -1
+     */
+    public record StreamResult(String content, int inputTokens, int outputTokens, long firstTokenMillis,
+                               int cachedInputTokens, int cacheWriteInputTokens) {}
+
+    /** {@code POST /v1/chat/completions} with {@code stream: true}. */
+    public static StreamResult readOpenAi(InputStream body, Consumer<String> onToken, String providerId)
+            throws IOException {
+        Accumulator acc = new Accumulator(onToken);
+        readSse(body, (event, data) -> {
+            OpenAiChunk chunk = parseOpenAiChunk(data, providerId);
+            if (chunk.done()) {
+                return false;
+            }
+            acc.append(chunk.text());
+            if (chunk.promptTokens() >= 0) {
+                acc.inputTokens = chunk.promptTokens();
+                acc.outputTokens = chunk.completionTokens();
+                acc.cachedInputTokens = chunk.cachedTokens();
+            }
+            return true;
+        });
+        return acc.result();
+    }
+
+    /** One decoded chat.completion.chunk; token counts are -1 unless the chunk carried usage. */
+    public record OpenAiChunk(String text, int promptTokens, int completionTokens, int cachedTokens, boolean done) {}
+
+    /** Decode the {@code data:} payload of one OpenAI-compatible SSE event. */
+    public static OpenAiChunk parseOpenAiChunk(String data, String providerId) {
+        if ("[DONE]".equals(data.trim())) {
+            return new OpenAiChunk("", -1, -1, 0, true);
+        }
+        JsonNode chunk = parse(data, providerId);
+        if (chunk.has("error")) {
+            throw new AiCallException("stream error: " + chunk.path("error").path("message").asText(), providerId);
+        }
+        String text = "";
+        JsonNode choices = chunk.path("choices");
+        if (choices.isArray() && !choices.isEmpty()) {
+            text = choices.get(0).path("delta").path("content").asText("");
+        }
+        JsonNode usage = chunk.path("usage");
+        if (usage.isObject()) {
+            return new OpenAiChunk(text, usage.path("prompt_tokens").asInt(0),
+                    usage.path("completion_tokens").asInt(0),
+                    usage.path("prompt_tokens_details").path("cached_tokens").asInt(0), false);
+        }
+        return new OpenAiChunk(text, -1, -1, 0, false);
+    }
+
+    /** {@code POST /v1/messages} with {@code stream: true}. */
+    public static StreamResult readAnthropic(InputStream body, Consumer<String> onToken, String providerId)
+            throws IOException {
+        Accumulator acc = new Accumulator(onToken);
+        readSse(body, (event, data) -> {
+            JsonNode node = parse(data, providerId);
+            String type = event != null ? event : node.path("type").asText();
+            switch (type) {
+                case "message_start" -> {
+                    JsonNode usage = node.path("message").path("usage");
+                    acc.cachedInputTokens = usage.path("cache_read_input_tokens").asInt(0);
+                    acc.cacheWriteInputTokens = usage.path("cache_creation_input_tokens").asInt(0);
+                    acc.inputTokens = usage.path("input_tokens").asInt(0)
+                            + acc.cacheWriteInputTokens + acc.cachedInputTokens;
+                    acc.outputTokens = usage.path("output_tokens").asInt(0);
+                }
+                case "content_block_delta" -> {
+                    JsonNode delta = node.path("delta");
+                    if ("text_delta".equals(delta.path("type").asText())) {
+                        acc.append(delta.path("text").asText(""));
+                    }
+                }
+                case "message_delta" -> acc.outputTokens = node.path("usage").path("output_tokens").asInt(acc.outputTokens);
+                case "message_stop" -> {
+                    return false;
+                }
+                case "error" -> {
+                    JsonNode error = node.path("error");
+                    String message = error.path("type").asText() + ": " + error.path("message").asText();
+                    if ("rate_limit_error".equals(error.path("type").asText())) {
+                        throw new RateLimitException("Anthropic stream " + message, providerId);
+                    }
+                    throw new AiCallException("Anthropic stream " + message, providerId);
+                }
+                default -> {
+                    // ping, content_block_start/stop
+                }
+            }
+            return true;
+        });
+        return acc.result();
+    }
+
+    /** {@code POST /api/chat} with {@code stream: true} — one JSON object per line. */
+    public static StreamResult readOllama(InputStream body, Consumer<String> onToken, String providerId)
+            throws IOException {
+        Accumulator acc = new Accumulator(onToken);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = parse(line, providerId);
+                if (node.has("error")) {
+                    throw new AiCallException("Ollama stream error: " + node.path("error").asText(), providerId);
+                }
+                acc.append(node.path("message").path("content").asText(""));
+                if (node.path("done").asBoolean(false)) {
+                    acc.inputTokens = node.path("prompt_eval_count").asInt(0);
+                    acc.outputTokens = node.path("eval_count").asInt(0);
+                    break;
+                }
+            }
+        }
+        return acc.result();
+    }
+
+    /**
+     * Minimal SSE framing: {@code event:} and {@code data:} fields, dispatched on a blank line.
+     * The handler returns false to stop reading.
+     */
+    private static void readSse(InputStream body, BiPredicate<String, String> handler) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String event = null;
+            StringBuilder data = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    if (!data.isEmpty() && !handler.test(event, data.toString())) {
+                        return;
+                    }
+                    event = null;
+                    data.setLength(0);
+                } else if (line.startsWith("event:")) {
+                    event = line.substring(6).trim();
+                } else if (line.startsWith("data:")) {
+                    if (!data.isEmpty()) {
+                        data.append('\n');
+                    }
+                    data.append(line.substring(5).stripLeading());
+                }
+                // ':' comments and id/retry fields are ignored
+            }
+            if (!data.isEmpty()) {
+                handler.test(event, data.toString());
+            }
+        }
+    }
+
+    private static JsonNode parse(String json, String providerId) {
+        try {
+            return MAPPER.readTree(json);
+        } catch (IOException e) {
+            throw new AiCallException("Malformed stream chunk: " + e.getMessage(), providerId);
+        }
+    }
+
+    private static final class Accumulator {
+        private final Consumer<String> onToken;
+        private final StringBuilder content = new StringBuilder();
+        private int inputTokens;
+        private int outputTokens;
+        private int cachedInputTokens;
+        private int cacheWriteInputTokens;
+        private long firstTokenMillis = -1;
+
+        Accumulator(Consumer<String> onToken) {
+            this.onToken = onToken;
+        }
+
+        void append(String text) {
+            if (text.isEmpty()) {
+                return;
+            }
+            if (firstTokenMillis < 0) {
+                firstTokenMillis = System.currentTimeMillis();
+            }
+            content.append(text);
+            onToken.accept(text);
+        }
+
+        StreamResult result() {
+            return new StreamResult(content.toString(), inputTokens, outputTokens, firstTokenMillis,
+                    cachedInputTokens, cacheWriteInputTokens);
+        }
+    }
+}
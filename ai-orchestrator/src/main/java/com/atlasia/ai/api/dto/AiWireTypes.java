@@ -21,18 +21,45 @@ public final class AiWireTypes {
     // Anthropic — POST /v1/messages
     // =========================================================================
 
+    /**
+     * {@code system} is either a plain string or a list of {@link AnthropicTextBlock}s when a
+     * cache breakpoint is set on it.
+     */
     @JsonInclude(JsonInclude.Include.NON_NULL)
     public record AnthropicRequest(
             String model,
             @JsonProperty("max_tokens") int maxTokens,
             double temperature,
             List<AnthropicMessage> messages,
-            @JsonProperty("system") String systemPrompt
-    ) {}
+            @JsonProperty("system") Object systemPrompt,
+            Boolean stream
+    ) {
+        public AnthropicRequest(String model, int maxTokens, double temperature,
+                                List<AnthropicMessage> messages, Object systemPrompt) {
+            this(model, maxTokens, temperature, messages, systemPrompt, null);
+        }
+    }
 
-    public record AnthropicMessage(String role, String content) {
+    /** {@code content} is a plain string or a list of {@link AnthropicTextBlock}s. */
+    public record AnthropicMessage(String role, Object content) {
         public static AnthropicMessage user(String content)      { return new AnthropicMessage("user", content); }
         public static AnthropicMessage assistant(String content) { return new AnthropicMessage("assistant", content); }
+        public static AnthropicMessage user(List<AnthropicTextBlock> blocks) { return new AnthropicMessage("user", blocks); }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record AnthropicTextBlock(
+            String type,
+            String text,
+            @JsonProperty("cache_control") CacheControl cacheControl
+    ) {
+        public static AnthropicTextBlock text(String text)   { return new AnthropicTextBlock("text", text, null); }
+        /** Text block that ends a cacheable prefix (everything up to and including it). */
+        public static AnthropicTextBlock cached(String text) { return new AnthropicTextBlock("text", text, CacheControl.EPHEMERAL); }
+    }
+
+    public record CacheControl(String type) {
+        public static final CacheControl EPHEMERAL = new CacheControl("ephemeral");
     }
 
     public record AnthropicResponse(
@@ -55,10 +82,18 @@ public final class AiWireTypes {
 
     public record AnthropicContent(String type, String text) {}
 
+    /**
+     * {@code input_tokens} only counts tokens after the last cache breakpoint; cache reads and
+     * writes are reported separately.
+     */
     public record AnthropicUsage(
             @JsonProperty("input_tokens")  int inputTokens,
-            @JsonProperty("output_tokens") int outputTokens
-    ) {}
+            @JsonProperty("output_tokens") int outputTokens,
+            @JsonProperty("cache_creation_input_tokens") int cacheCreationInputTokens,
+            @JsonProperty("cache_read_input_tokens")     int cacheReadInputTokens
+    ) {
+        public int totalInputTokens() { return inputTokens + cacheCreationInputTokens + cacheReadInputTokens; }
+    }
 
     // =========================================================================
     // OpenAI / compatible (LiteLLM, vLLM) — POST /v1/chat/completions
@@ -69,8 +104,21 @@ public final class AiWireTypes {
             String model,
             @JsonProperty("max_tokens") int maxTokens,
             double temperature,
-            List<OpenAiMessage> messages
-    ) {}
+            List<OpenAiMessage> messages,
+            Boolean stream,
+            @JsonProperty("stream_options") Map<String, Object> streamOptions
+    ) {
+        public OpenAiRequest(String model, int maxTokens, double temperature, List<OpenAiMessage> messages) {
+            this(model, maxTokens, temperature, messages, null, null);
+        }
+
+        /** Streaming request; {@code include_usage} makes the last chunk carry token counts. */
+        public static OpenAiRequest streaming(String model, int maxTokens, double temperature,
+                                              List<OpenAiMessage> messages) {
+            return new OpenAiRequest(model, maxTokens, temperature, messages, true,
+                    Map.of("include_usage", true));
+        }
+    }
 
     public record OpenAiMessage(String role, String content) {
         public static OpenAiMessage system(String content)    { return new OpenAiMessage("system", content); }
@@ -99,8 +147,14 @@ public final class AiWireTypes {
     public record OpenAiUsage(
             @JsonProperty("prompt_tokens")     int promptTokens,
             @JsonProperty("completion_tokens") int completionTokens,
-            @JsonProperty("total_tokens")      int totalTokens
-    ) {}
+            @JsonProperty("total_tokens")      int totalTokens,
+            @JsonProperty("prompt_tokens_details") OpenAiPromptTokensDetails promptTokensDetails
+    ) {
+        /** Prompt tokens served from the provider's prefix cache (included in {@code promptTokens}). */
+        public int cachedTokens() { return promptTokensDetails != null ? promptTokensDetails.cachedTokens() : 0; }
+    }
+
+    public record OpenAiPromptTokensDetails(@JsonProperty("cached_tokens") int cachedTokens) {}
 
     // =========================================================================
     // Ollama — POST /api/chat (local)
@@ -118,6 +172,12 @@ public final class AiWireTypes {
             return new OllamaRequest(model, messages, false,
                     new OllamaOptions(temperature, maxTokens));
         }
+
+        public static OllamaRequest streaming(String model, List<OllamaMessage> messages,
+                                              int maxTokens, double temperature) {
+            return new OllamaRequest(model, messages, true,
+                    new OllamaOptions(temperature, maxTokens));
+        }
     }
 
     public record OllamaMessage(String role, String content) {
@@ -147,16 +207,41 @@ public final class AiWireTypes {
     public record AiPrompt(
             String systemPrompt,
             String userMessage,
-            List<Map<String, String>> history   // [{role, content}] — optional conversation history
+            List<Map<String, String>> history,  // [{role, content}] — optional conversation history
+            PromptCache cache
     ) {
+        public AiPrompt(String systemPrompt, String userMessage, List<Map<String, String>> history) {
+            this(systemPrompt, userMessage, history, PromptCache.NONE);
+        }
+
         /** Convenience constructor — no history. */
         public AiPrompt(String systemPrompt, String userMessage) {
             this(systemPrompt, userMessage, List.of());
         }
+
+        /** User turn as sent to providers without cache hints: stable prefix first, then the message. */
+        public String fullUserMessage() {
+            return cache.hasUserPrefix() ? cache.userPrefix() + userMessage : userMessage;
+        }
+    }
+
+    /**
+     * Cache breakpoints for a prompt, set by {@code PromptAssembler}.
+     *
+     * @param cacheSystem whether the system prompt ends a cacheable prefix
+     * @param userPrefix  stable leading part of the user turn (repo context etc.) that ends a second
+     *                    cacheable prefix; {@code null} when the user turn is sent as one block
+     */
+    public record PromptCache(boolean cacheSystem, String userPrefix) {
+        public static final PromptCache NONE = new PromptCache(false, null);
+
+        public boolean hasUserPrefix() { return userPrefix != null && !userPrefix.isEmpty(); }
     }
 
     /**
      * Provider-agnostic response. The rest of the application never sees raw provider types.
+     * {@code inputTokens} includes {@code cachedInputTokens} (cache reads) and
+     * {@code cacheWriteInputTokens} (tokens written to the cache, billed at a premium by Anthropic).
      */
     public record AiResponse(
             String content,
@@ -164,8 +249,20 @@ public final class AiWireTypes {
             int outputTokens,
             String providerId,
             String modelId,
-            long latencyMillis
+            long latencyMillis,
+            int cachedInputTokens,
+            int cacheWriteInputTokens
     ) {
+        public AiResponse(String content, int inputTokens, int outputTokens,
+                          String providerId, String modelId, long latencyMillis) {
+            this(content, inputTokens, outputTokens, providerId, modelId, latencyMillis, 0, 0);
+        }
+
+        public AiResponse(String content, int inputTokens, int outputTokens,
+                          String providerId, String modelId, long latencyMillis, int cachedInputTokens) {
+            this(content, inputTokens, outputTokens, providerId, modelId, latencyMillis, cachedInputTokens, 0);
+        }
+
         public int totalTokens() { return inputTokens + outputTokens; }
     }
 }
@@ -26,4 +26,21 @@ public final class AiProviderConfigUtil {
                 c.temperature(),
                 c.extraHeaders());
     }
+
+    public static AiProviderProperties.ProviderConfig withTemperature(
+            AiProviderProperties.ProviderConfig c, Double temperatureOverride) {
+        if (c == null || temperatureOverride == null) {
+            return c;
+        }
+        return new AiProviderProperties.ProviderConfig(
+                c.baseUrl(),
+                c.apiKey(),
+                c.model(),
+                c.type(),
+                c.connectTimeout(),
+                c.readTimeout(),
+                c.maxTokens(),
+                temperatureOverride,
+                c.extraHeaders());
+    }
 }
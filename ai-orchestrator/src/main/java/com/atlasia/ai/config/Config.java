@@ -14,7 +14,9 @@ public class Config {
     @Bean(name = "workflowExecutor")
     public Executor workflowExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
+        // Admission is bounded by RunQueueService; core == max so admitted runs start
+        // immediately instead of waiting in the executor queue behind two core threads.
+        executor.setCorePoolSize(10);
         executor.setMaxPoolSize(10);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("workflow-");
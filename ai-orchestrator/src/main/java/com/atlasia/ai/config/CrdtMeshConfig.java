@@ -133,6 +133,13 @@ public class CrdtMeshConfig {
                         byte[] changes = Base64.getDecoder().decode(changesBase64);
                         crdtSyncService.handleIncomingSync(runId, sourceRegion, changes);
                     }
+                } else if ("CRDT_SYNC_REQUEST".equals(type)) {
+                    String vectorBase64 = (String) message.get("versionVector");
+                    if (vectorBase64 != null) {
+                        byte[] vector = Base64.getDecoder().decode(vectorBase64);
+                        boolean reciprocate = Boolean.TRUE.equals(message.get("reciprocate"));
+                        crdtSyncService.handleSyncRequest(runId, sourceRegion, vector, reciprocate);
+                    }
                 } else if ("CRDT_FULL_SYNC".equals(type)) {
                     String stateBase64 = (String) message.get("state");
                     if (stateBase64 != null) {
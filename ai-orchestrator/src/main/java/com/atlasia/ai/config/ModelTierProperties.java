@@ -88,6 +88,13 @@ public class ModelTierProperties {
         private String model;
         private double costPer1kInput = 0.005;
         private double costPer1kOutput = 0.015;
+        /** Price of prompt tokens read from the provider cache; negative means same as {@link #costPer1kInput}. */
+        private double costPer1kCachedInput = -1;
+        /**
+         * Price of prompt tokens written to the provider cache (Anthropic bills these above the base
+         * input rate); negative means 1.25 × {@link #costPer1kInput}, Anthropic's five-minute cache rate.
+         */
+        private double costPer1kCacheWriteInput = -1;
 
         public String getProviderId() {
             return providerId;
@@ -120,6 +127,41 @@ public class ModelTierProperties {
         public void setCostPer1kOutput(double costPer1kOutput) {
             this.costPer1kOutput = costPer1kOutput;
         }
+
+        public double getCostPer1kCachedInput() {
+            return costPer1kCachedInput >= 0 ? costPer1kCachedInput : costPer1kInput;
+        }
+
+        public void setCostPer1kCachedInput(double costPer1kCachedInput) {
+            this.costPer1kCachedInput = costPer1kCachedInput;
+        }
+
+        public double getCostPer1kCacheWriteInput() {
+            return costPer1kCacheWriteInput >= 0 ? costPer1kCacheWriteInput : costPer1kInput * 1.25;
+        }
+
+        public void setCostPer1kCacheWriteInput(double costPer1kCacheWriteInput) {
+            this.costPer1kCacheWriteInput = costPer1kCacheWriteInput;
+        }
+
+        /** @param inputTokens all prompt tokens, {@code cachedInputTokens} included */
+        public double estimateCostUsd(int inputTokens, int cachedInputTokens, int outputTokens) {
+            return estimateCostUsd(inputTokens, cachedInputTokens, 0, outputTokens);
+        }
+
+        /**
+         * @param inputTokens           all prompt tokens, cache reads and writes included
+         * @param cacheWriteInputTokens prompt tokens written to the provider cache by this call
+         */
+        public double estimateCostUsd(int inputTokens, int cachedInputTokens, int cacheWriteInputTokens,
+                                      int outputTokens) {
+            int cached = Math.max(0, Math.min(cachedInputTokens, inputTokens));
+            int written = Math.max(0, Math.min(cacheWriteInputTokens, inputTokens - cached));
+            return ((inputTokens - cached - written) / 1000.0) * costPer1kInput
+                    + (cached / 1000.0) * getCostPer1kCachedInput()
+                    + (written / 1000.0) * getCostPer1kCacheWriteInput()
+                    + (outputTokens / 1000.0) * costPer1kOutput;
+        }
     }
 
     public static class Budget {
@@ -132,7 +132,7 @@ public class SecurityConfig {
                 configuration.setAllowedOrigins(corsProperties.getAllowedOrigins());
                 configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
                 configuration.setAllowedHeaders(Arrays.asList("*"));
-                configuration.setExposedHeaders(Arrays.asList("X-CSRF-TOKEN", "X-RateLimit-Remaining", "Retry-After"));
+                configuration.setExposedHeaders(Arrays.asList("X-CSRF-TOKEN", "X-RateLimit-Remaining", "Retry-After", "X-Next-Cursor"));
                 configuration.setAllowCredentials(true);
                 configuration.setMaxAge(3600L);
 
@@ -1,25 +1,99 @@
 package com.atlasia.ai.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * STOMP over WebSocket for collaboration rooms.
+ *
+ * {@code atlasia.orchestrator.websocket.broker.mode=simple} (default) keeps subscriptions in this
+ * JVM. {@code relay} forwards {@code /topic} and {@code /queue} to an external STOMP broker
+ * (RabbitMQ STOMP plugin, ActiveMQ Artemis), so clients of the same room can sit on different
+ * pods. Inbound/outbound channel pools and per-session size limits are configurable in both modes.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final Logger log = LoggerFactory.getLogger(WebSocketConfig.class);
+
     private final WebSocketAuthInterceptor authInterceptor;
 
+    @Value("${atlasia.orchestrator.websocket.broker.mode:simple}")
+    private String brokerMode;
+    @Value("${atlasia.orchestrator.websocket.broker.relay-host:localhost}")
+    private String relayHost;
+    @Value("${atlasia.orchestrator.websocket.broker.relay-port:61613}")
+    private int relayPort;
+    @Value("${atlasia.orchestrator.websocket.broker.client-login:guest}")
+    private String clientLogin;
+    @Value("${atlasia.orchestrator.websocket.broker.client-passcode:guest}")
+    private String clientPasscode;
+    @Value("${atlasia.orchestrator.websocket.broker.system-login:guest}")
+    private String systemLogin;
+    @Value("${atlasia.orchestrator.websocket.broker.system-passcode:guest}")
+    private String systemPasscode;
+    @Value("${atlasia.orchestrator.websocket.broker.virtual-host:}")
+    private String virtualHost;
+    @Value("${atlasia.orchestrator.websocket.broker.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    @Value("${atlasia.orchestrator.websocket.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+    @Value("${atlasia.orchestrator.websocket.inbound.max-pool-size:32}")
+    private int inboundMaxPoolSize;
+    @Value("${atlasia.orchestrator.websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+    @Value("${atlasia.orchestrator.websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+    @Value("${atlasia.orchestrator.websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+    @Value("${atlasia.orchestrator.websocket.outbound.queue-capacity:1000}")
+    private int outboundQueueCapacity;
+
+    @Value("${atlasia.orchestrator.websocket.message-size-limit:131072}")
+    private int messageSizeLimit;
+    @Value("${atlasia.orchestrator.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+    @Value("${atlasia.orchestrator.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+    @Value("${atlasia.orchestrator.websocket.time-to-first-message-ms:30000}")
+    private int timeToFirstMessageMs;
+
     public WebSocketConfig(WebSocketAuthInterceptor authInterceptor) {
         this.authInterceptor = authInterceptor;
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(clientLogin)
+                    .setClientPasscode(clientPasscode)
+                    .setSystemLogin(systemLogin)
+                    .setSystemPasscode(systemPasscode)
+                    .setSystemHeartbeatSendInterval(heartbeatMs)
+                    .setSystemHeartbeatReceiveInterval(heartbeatMs)
+                    // user destinations and the user registry are shared between pods through the broker
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (!virtualHost.isBlank()) {
+                relay.setVirtualHost(virtualHost);
+            }
+            log.info("WebSocket broker: STOMP relay to {}:{}", relayHost, relayPort);
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
     }
 
@@ -34,8 +108,30 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session whose send buffer stays over the limit for send-time-limit is closed,
+        // so one stalled client cannot hold outbound threads and memory.
+        registration.setMessageSizeLimit(messageSizeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setTimeToFirstMessage(timeToFirstMessageMs);
+    }
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(authInterceptor);
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
     }
 }
@@ -3,6 +3,7 @@ package com.atlasia.ai.controller;
 import com.atlasia.ai.api.RunRequest;
 import com.atlasia.ai.config.RequiresPermission;
 import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.RunQueueLane;
 import com.atlasia.ai.model.RunStatus;
 import com.atlasia.ai.persistence.RunRepository;
 import com.atlasia.ai.service.A2ADiscoveryService;
@@ -11,7 +12,7 @@ import com.atlasia.ai.service.AgentBindingService;
 import com.atlasia.ai.service.AgentBindingService.AgentBinding;
 import com.atlasia.ai.service.ApiAuthService;
 import com.atlasia.ai.service.RoleService;
-import com.atlasia.ai.service.WorkflowEngine;
+import com.atlasia.ai.service.RunQueueService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -41,19 +42,19 @@ public class A2AController {
     private final A2ADiscoveryService a2aDiscoveryService;
     private final AgentBindingService agentBindingService;
     private final RunRepository runRepository;
-    private final WorkflowEngine workflowEngine;
+    private final RunQueueService runQueueService;
     private final ApiAuthService apiAuthService;
 
     public A2AController(
             A2ADiscoveryService a2aDiscoveryService,
             AgentBindingService agentBindingService,
             RunRepository runRepository,
-            WorkflowEngine workflowEngine,
+            RunQueueService runQueueService,
             ApiAuthService apiAuthService) {
         this.a2aDiscoveryService = a2aDiscoveryService;
         this.agentBindingService = agentBindingService;
         this.runRepository = runRepository;
-        this.workflowEngine = workflowEngine;
+        this.runQueueService = runQueueService;
         this.apiAuthService = apiAuthService;
     }
 
@@ -188,7 +189,7 @@ public class A2AController {
                 RunStatus.RECEIVED,
                 Instant.now());
         runRepository.save(entity);
-        workflowEngine.executeWorkflowAsync(taskId, token);
+        runQueueService.enqueue(taskId, entity.getRepo(), RunQueueLane.INTERACTIVE, token);
 
         return ResponseEntity.status(HttpStatus.ACCEPTED).body(new A2ATaskResponse(
                 taskId.toString(), "submitted", request.repo(), request.issueNumber(), Instant.now()));
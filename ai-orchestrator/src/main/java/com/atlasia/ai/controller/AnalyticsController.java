@@ -2,7 +2,6 @@ package com.atlasia.ai.controller;
 
 import com.atlasia.ai.api.dto.*;
 import com.atlasia.ai.config.RequiresPermission;
-import com.atlasia.ai.model.TraceEventEntity;
 import com.atlasia.ai.persistence.TraceEventRepository;
 import com.atlasia.ai.service.AnalyticsService;
 import com.atlasia.ai.service.EscalationAnalyzerService;
@@ -13,15 +12,18 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/analytics")
 @Validated
 public class AnalyticsController {
 
+    private static final Duration DEFAULT_LATENCY_WINDOW = Duration.ofDays(7);
+    private static final int MAX_BUCKET_MINUTES = 7 * 24 * 60;
+
     private final AnalyticsService analyticsService;
     private final EscalationAnalyzerService escalationAnalyzerService;
     private final TraceEventRepository traceEventRepository;
@@ -83,53 +85,58 @@ public class AnalyticsController {
     @RequiresPermission(resource = RoleService.RESOURCE_ANALYTICS, action = RoleService.ACTION_VIEW)
     public ResponseEntity<TokenSummaryDto> getTracesSummary(
             @RequestParam("runId") UUID runId) {
-        List<TraceEventEntity> events = traceEventRepository.findByRunIdOrderByStartTimeAsc(runId);
-
-        long totalTokens = events.stream()
-                .filter(e -> e.getTokensUsed() != null)
-                .mapToLong(TraceEventEntity::getTokensUsed)
-                .sum();
-
-        long llmCalls = events.stream()
-                .filter(e -> "LLM_CALL".equals(e.getEventType()))
-                .count();
-
-        Map<String, Long> tokensByAgent = events.stream()
-                .filter(e -> e.getTokensUsed() != null && e.getAgentName() != null)
-                .collect(Collectors.groupingBy(
-                        TraceEventEntity::getAgentName,
-                        Collectors.summingLong(TraceEventEntity::getTokensUsed)));
-
-        TokenSummaryDto summary = new TokenSummaryDto(totalTokens, llmCalls, tokensByAgent);
+        long totalTokens = 0;
+        long llmCalls = 0;
+        Map<String, Long> tokensByAgent = new HashMap<>();
+
+        for (TraceEventRepository.AgentTokenUsage usage : traceEventRepository.summarizeTokensByAgent(runId)) {
+            if (usage.getTokens() != null) {
+                totalTokens += usage.getTokens();
+                if (usage.getAgentName() != null) {
+                    tokensByAgent.put(usage.getAgentName(), usage.getTokens());
+                }
+            }
+            llmCalls += usage.getLlmCalls() != null ? usage.getLlmCalls() : 0;
+        }
 
-        return ResponseEntity.ok(summary);
+        return ResponseEntity.ok(new TokenSummaryDto(totalTokens, llmCalls, tokensByAgent));
     }
 
+    /**
+     * LLM call latency per agent over {@code [from, to)} (default: the last 7 days), with
+     * percentiles computed by the database. With {@code bucketMinutes} there is one point per
+     * agent and time bucket, each carrying its {@code bucketStart}.
+     */
     @GetMapping("/traces/latency-trend")
     @PreAuthorize("hasRole('USER')")
     @RequiresPermission(resource = RoleService.RESOURCE_ANALYTICS, action = RoleService.ACTION_VIEW)
-    public ResponseEntity<List<Map<String, Object>>> getLatencyTrend() {
-        // Returns aggregate LLM latency data across recent runs
-        List<TraceEventEntity> llmEvents = traceEventRepository.findAll().stream()
-                .filter(e -> "LLM_CALL".equals(e.getEventType()) && e.getDurationMs() != null)
-                .sorted(Comparator.comparing(TraceEventEntity::getStartTime))
-                .collect(Collectors.toList());
-
-        // Group by agent name and compute average latency
-        Map<String, List<TraceEventEntity>> byAgent = llmEvents.stream()
-                .filter(e -> e.getAgentName() != null)
-                .collect(Collectors.groupingBy(TraceEventEntity::getAgentName));
-
-        List<Map<String, Object>> trend = new ArrayList<>();
-        for (Map.Entry<String, List<TraceEventEntity>> entry : byAgent.entrySet()) {
+    public ResponseEntity<List<Map<String, Object>>> getLatencyTrend(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(name = "bucketMinutes", required = false) Integer bucketMinutes) {
+        if (bucketMinutes != null && (bucketMinutes < 1 || bucketMinutes > MAX_BUCKET_MINUTES)) {
+            return ResponseEntity.badRequest().build();
+        }
+        Instant effectiveTo = to != null ? to : Instant.now();
+        Instant effectiveFrom = from != null ? from : effectiveTo.minus(DEFAULT_LATENCY_WINDOW);
+
+        List<TraceEventRepository.LatencyStats> rows = bucketMinutes != null
+                ? traceEventRepository.findLlmLatencyByAgentAndBucket(effectiveFrom, effectiveTo, bucketMinutes * 60L)
+                : traceEventRepository.findLlmLatencyByAgent(effectiveFrom, effectiveTo);
+
+        List<Map<String, Object>> trend = new ArrayList<>(rows.size());
+        for (TraceEventRepository.LatencyStats row : rows) {
             Map<String, Object> point = new LinkedHashMap<>();
-            point.put("agentName", entry.getKey());
-            point.put("avgLatencyMs", entry.getValue().stream()
-                    .mapToLong(TraceEventEntity::getDurationMs).average().orElse(0));
-            point.put("callCount", entry.getValue().size());
-            point.put("totalTokens", entry.getValue().stream()
-                    .filter(e -> e.getTokensUsed() != null)
-                    .mapToLong(TraceEventEntity::getTokensUsed).sum());
+            point.put("agentName", row.getAgentName());
+            if (row.getBucketStart() != null) {
+                point.put("bucketStart", Instant.ofEpochSecond(row.getBucketStart()));
+            }
+            point.put("avgLatencyMs", row.getAvgLatencyMs());
+            point.put("p50LatencyMs", row.getP50LatencyMs());
+            point.put("p95LatencyMs", row.getP95LatencyMs());
+            point.put("p99LatencyMs", row.getP99LatencyMs());
+            point.put("callCount", row.getCallCount());
+            point.put("totalTokens", row.getTotalTokens());
             trend.add(point);
         }
 
@@ -5,29 +5,43 @@ import com.atlasia.ai.service.ChatService;
 import com.atlasia.ai.service.ConversationMemoryService;
 import com.atlasia.ai.service.HandoffService;
 import jakarta.validation.constraints.NotBlank;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/chat")
 @Validated
 public class ChatController {
 
+    private static final Logger log = LoggerFactory.getLogger(ChatController.class);
+    private static final long STREAM_TIMEOUT_MS = 5 * 60 * 1000L;
+
     private final ChatService chatService;
     private final ConversationMemoryService memoryService;
     private final HandoffService handoffService;
+    private final Executor aiCallExecutor;
 
     public ChatController(ChatService chatService,
                           ConversationMemoryService memoryService,
-                          HandoffService handoffService) {
+                          HandoffService handoffService,
+                          @Qualifier("aiCallExecutor") Executor aiCallExecutor) {
         this.chatService = chatService;
         this.memoryService = memoryService;
         this.handoffService = handoffService;
+        this.aiCallExecutor = aiCallExecutor;
     }
 
     /**
@@ -53,6 +67,45 @@ public class ChatController {
         return ResponseEntity.ok(Map.of("response", response));
     }
 
+    /**
+     * POST /api/chat/{personaName}/stream
+     * Body: { "userId": "...", "message": "..." }
+     * Server-Sent Events: one {@code token} event per text delta, then a {@code done} event
+     * carrying the full response. The stream runs on {@code aiCallExecutor}, so streamed chats
+     * count against the same AI-call concurrency limit as every other LLM call.
+     */
+    @PostMapping(value = "/{personaName}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> chatStream(
+            @PathVariable("personaName") String personaName,
+            @RequestBody Map<String, String> request) {
+
+        String userId = request.get("userId");
+        String message = request.get("message");
+
+        if (message == null || message.isBlank() || userId == null || userId.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        aiCallExecutor.execute(() -> {
+            try {
+                String response = chatService.chatStream(userId, personaName, message, token -> {
+                    try {
+                        emitter.send(SseEmitter.event().name("token").data(token));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                emitter.send(SseEmitter.event().name("done").data(Map.of("response", response)));
+                emitter.complete();
+            } catch (Exception e) {
+                log.warn("Chat stream failed: persona={} error={}", personaName, e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok(emitter);
+    }
+
     /**
      * DELETE /api/chat/{personaName}/session?userId=...
      * Clears conversation memory — "New conversation" button in the Angular UI.
@@ -41,22 +41,50 @@ public class EvalController {
     }
 
     /**
-     * Trigger a full eval suite run with all scenarios loaded from the JSON dataset.
+     * Trigger a full eval suite run with all scenarios loaded from the JSON dataset. The suite
+     * grades in the background; poll {@code /progress/{suiteRunId}} and then {@code /results}.
      */
     @PostMapping("/run")
-    public ResponseEntity<EvalSuiteService.SuiteResult> runEvalSuite() {
-        try {
-            List<EvalSuiteService.EvalScenario> scenarios = loadScenarios();
-            log.info("Starting eval suite run with {} scenarios", scenarios.size());
+    public ResponseEntity<Map<String, Object>> runEvalSuite() {
+        return startSuite(UUID.randomUUID());
+    }
 
-            EvalSuiteService.SuiteResult result = evalSuiteService.executeSuite(scenarios);
-            suiteResults.put(result.suiteRunId(), result);
+    /**
+     * Resume an interrupted eval suite run: scenarios already graded under {@code suiteRunId}
+     * are reused and only the rest are graded.
+     */
+    @PostMapping("/resume/{suiteRunId}")
+    public ResponseEntity<Map<String, Object>> resumeEvalSuite(@PathVariable UUID suiteRunId) {
+        return startSuite(suiteRunId);
+    }
 
-            return ResponseEntity.ok(result);
+    private ResponseEntity<Map<String, Object>> startSuite(UUID suiteRunId) {
+        List<EvalSuiteService.EvalScenario> scenarios;
+        try {
+            scenarios = loadScenarios();
         } catch (Exception e) {
-            log.error("Failed to run eval suite: {}", e.getMessage(), e);
+            log.error("Failed to load eval scenarios: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError().build();
         }
+        log.info("Starting eval suite run {} with {} scenarios", suiteRunId, scenarios.size());
+
+        try {
+            evalSuiteService.startSuite(suiteRunId, scenarios).whenComplete((result, error) -> {
+                if (error != null) {
+                    log.error("Eval suite run {} failed: {}", suiteRunId, error.getMessage(), error);
+                } else {
+                    suiteResults.put(result.suiteRunId(), result);
+                }
+            });
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of(
+                    "error", e.getMessage(),
+                    "suiteRunId", suiteRunId));
+        }
+
+        return ResponseEntity.accepted().body(Map.of(
+                "suiteRunId", suiteRunId,
+                "status", "started"));
     }
 
     /**
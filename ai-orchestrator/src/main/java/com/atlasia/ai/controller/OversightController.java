@@ -2,9 +2,11 @@ package com.atlasia.ai.controller;
 
 import com.atlasia.ai.config.RequiresPermission;
 import com.atlasia.ai.model.GlobalSettingsEntity;
+import com.atlasia.ai.model.PendingInterruptEntity;
 import com.atlasia.ai.persistence.GlobalSettingsRepository;
 import com.atlasia.ai.service.DynamicInterruptService;
 import com.atlasia.ai.service.InterruptDecisionStore;
+import com.atlasia.ai.service.InterruptResumeService;
 import com.atlasia.ai.service.RoleService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
@@ -22,7 +24,7 @@ import java.util.*;
  *
  * Provides REST endpoints for:
  *   - Reading/updating oversight configuration (persisted to ai_global_settings)
- *   - Approving/denying pending interrupt decisions (unblocks WorkflowEngine futures)
+ *   - Approving/denying pending interrupt decisions (resumes the suspended run)
  */
 @RestController
 @RequestMapping("/api/oversight")
@@ -33,6 +35,7 @@ public class OversightController {
 
     private final DynamicInterruptService  interruptService;
     private final InterruptDecisionStore   interruptDecisionStore;
+    private final InterruptResumeService   interruptResumeService;
     private final GlobalSettingsRepository settingsRepository;
     private final ObjectMapper             objectMapper;
 
@@ -41,10 +44,12 @@ public class OversightController {
 
     public OversightController(DynamicInterruptService interruptService,
                                InterruptDecisionStore interruptDecisionStore,
+                               InterruptResumeService interruptResumeService,
                                GlobalSettingsRepository settingsRepository,
                                ObjectMapper objectMapper) {
         this.interruptService       = interruptService;
         this.interruptDecisionStore = interruptDecisionStore;
+        this.interruptResumeService = interruptResumeService;
         this.settingsRepository     = settingsRepository;
         this.objectMapper           = objectMapper;
     }
@@ -99,7 +104,8 @@ public class OversightController {
 
     /**
      * Approve or deny a pending interrupt decision.
-     * Completes the CompletableFuture parked in WorkflowEngine, unblocking the pipeline thread.
+     * The decision is persisted and the suspended run is resumed on a workflow worker, which
+     * re-enters the pipeline at the checkpoint that raised the interrupt.
      */
     @PostMapping("/runs/{runId}/interrupt-decision")
     @PreAuthorize("hasRole('USER')")
@@ -108,22 +114,30 @@ public class OversightController {
             @PathVariable UUID runId,
             @RequestBody InterruptDecisionRequest request) {
 
-        boolean resolved = interruptDecisionStore.complete(runId, request.decision);
+        String decision = InterruptDecisionStore.normalize(request.decision);
+        if (decision == null || InterruptDecisionStore.DECISION_TIMEOUT.equals(decision)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String ruleName = interruptDecisionStore.find(runId)
+                .map(PendingInterruptEntity::getRuleName)
+                .orElse(null);
+
+        boolean resolved = interruptResumeService.submitDecision(runId, decision, request.decidedBy, null);
         if (!resolved) {
             return ResponseEntity.notFound().build();
         }
 
-        if ("approve".equalsIgnoreCase(request.decision)) {
-            interruptService.recordApproval(request.decision);
+        if (InterruptDecisionStore.DECISION_APPROVE.equals(decision)) {
+            interruptService.recordApproval(ruleName);
             log.info("Interrupt APPROVED: runId={}, by={}", runId, request.decidedBy);
         } else {
-            interruptService.recordDenial(request.decision);
+            interruptService.recordDenial(ruleName);
             log.info("Interrupt DENIED: runId={}, by={}", runId, request.decidedBy);
         }
 
         return ResponseEntity.ok(Map.of(
                 "runId",      runId,
-                "decision",   request.decision,
+                "decision",   decision,
                 "resolvedAt", java.time.Instant.now().toString()));
     }
 
@@ -4,22 +4,28 @@ import com.atlasia.ai.api.ArtifactResponse;
 import com.atlasia.ai.api.EscalationDecisionRequest;
 import com.atlasia.ai.api.GateRespondRequest;
 import com.atlasia.ai.api.RunRequest;
+import com.atlasia.ai.api.RunListCursor;
 import com.atlasia.ai.api.RunResponse;
 import com.atlasia.ai.config.RequiresPermission;
 import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.RunQueueLane;
 import com.atlasia.ai.model.RunStatus;
 import com.atlasia.ai.model.RunArtifactEntity;
 import com.atlasia.ai.persistence.RunRepository;
+import com.atlasia.ai.persistence.RunSummaryView;
 import com.atlasia.ai.service.ApiAuthService;
 import com.atlasia.ai.service.RoleService;
 import com.atlasia.ai.service.HitlGateService;
-import com.atlasia.ai.service.WorkflowEngine;
+import com.atlasia.ai.service.RunQueueService;
+import com.atlasia.ai.service.RunStateService;
 import com.atlasia.ai.service.event.WorkflowEventBus;
 import com.atlasia.ai.service.CollaborationService;
 import com.atlasia.ai.model.CollaborationEventEntity;
 import com.atlasia.ai.model.CollaborationEventType;
 import com.atlasia.ai.api.dto.CollaborationEventDto;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -38,39 +44,85 @@ import java.util.stream.Collectors;
 @Validated
 public class RunController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    /** Ceiling for legacy callers that send neither {@code limit} nor {@code cursor}. */
+    static final int UNPAGED_MAX_ROWS = 1000;
+
     private final RunRepository runRepository;
-    private final WorkflowEngine workflowEngine;
+    private final RunQueueService runQueueService;
     private final WorkflowEventBus eventBus;
     private final CollaborationService collaborationService;
     private final ApiAuthService apiAuthService;
     private final HitlGateService hitlGateService;
+    private final RunStateService runStateService;
 
     public RunController(RunRepository runRepository,
-            WorkflowEngine workflowEngine,
+            RunQueueService runQueueService,
             WorkflowEventBus eventBus, CollaborationService collaborationService,
             ApiAuthService apiAuthService,
-            HitlGateService hitlGateService) {
+            HitlGateService hitlGateService,
+            RunStateService runStateService) {
         this.runRepository = runRepository;
-        this.workflowEngine = workflowEngine;
+        this.runQueueService = runQueueService;
         this.eventBus = eventBus;
         this.collaborationService = collaborationService;
         this.apiAuthService = apiAuthService;
         this.hitlGateService = hitlGateService;
+        this.runStateService = runStateService;
     }
 
+    /**
+     * Lists runs newest first. Passing {@code limit} or {@code cursor} pages the result (default
+     * page size 50, at most 200) and sets {@code X-Next-Cursor} when more rows exist. Without
+     * either, the newest {@value #UNPAGED_MAX_ROWS} matching runs are returned, with
+     * {@code X-Next-Cursor} set when that cut anything off.
+     */
     @GetMapping
     @PreAuthorize("hasRole('USER')")
     @RequiresPermission(resource = RoleService.RESOURCE_RUN, action = RoleService.ACTION_VIEW)
     public ResponseEntity<List<RunResponse>> listRuns(
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestParam(required = false) String repo,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         if (!apiAuthService.isAuthorized(authorization)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        List<RunResponse> runs = runRepository.findAll().stream()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
+        RunStatus statusFilter;
+        RunListCursor after;
+        try {
+            statusFilter = status != null && !status.isBlank() ? RunStatus.valueOf(status.toUpperCase()) : null;
+            after = cursor != null && !cursor.isBlank() ? RunListCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String repoFilter = repo != null && !repo.isBlank() ? repo : null;
+        int pageSize = limit == null && after == null
+                ? UNPAGED_MAX_ROWS
+                : Math.max(1, Math.min(limit != null ? limit : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE));
+
+        // One extra row tells whether another page exists without a count query.
+        List<RunSummaryView> rows = runRepository.findSummaryPage(
+                repoFilter, statusFilter, from, to,
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                PageRequest.of(0, pageSize + 1));
+
+        List<RunResponse> runs = rows.stream()
+                .limit(pageSize)
                 .map(this::toRunResponse)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(runs);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (rows.size() > pageSize) {
+            RunSummaryView last = rows.get(pageSize - 1);
+            response.header(NEXT_CURSOR_HEADER, new RunListCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return response.body(runs);
     }
 
     @PostMapping
@@ -106,7 +158,7 @@ public class RunController {
         }
         runRepository.save(entity);
 
-        workflowEngine.executeWorkflowAsync(id, token);
+        runQueueService.enqueue(id, entity.getRepo(), RunQueueLane.INTERACTIVE, token);
 
         return ResponseEntity.status(HttpStatus.ACCEPTED)
                 .body(toRunResponse(entity));
@@ -154,6 +206,8 @@ public class RunController {
     public SseEmitter streamRun(
             @RequestHeader(value = "Authorization", required = false) String authorization,
             @RequestParam(value = "token", required = false) String queryToken,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
             @PathVariable("id") UUID id) {
         String effectiveAuth = authorization != null ? authorization :
                 (queryToken != null ? "Bearer " + queryToken : null);
@@ -164,7 +218,8 @@ public class RunController {
         }
 
         return runRepository.findById(id)
-                .map(run -> eventBus.registerEmitter(id))
+                .map(run -> eventBus.registerEmitter(id,
+                        lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam))
                 .orElseGet(() -> {
                     SseEmitter emitter = new SseEmitter(0L);
                     emitter.completeWithError(new IllegalArgumentException("Run not found: " + id));
@@ -225,7 +280,7 @@ public class RunController {
         if (updated.getStatus() == RunStatus.FAILED && updated.getPendingHitlGate() == null) {
             return ResponseEntity.ok(toRunResponse(updated));
         }
-        workflowEngine.executeWorkflowAsync(id, token);
+        runQueueService.enqueue(id, updated.getRepo(), RunQueueLane.INTERACTIVE, token);
         return ResponseEntity.accepted().body(toRunResponse(updated));
     }
 
@@ -239,12 +294,12 @@ public class RunController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         String token = apiAuthService.getApiTokenForWorkflow(authorization).orElse(null);
-        return runRepository.findById(id)
-                .map(run -> {
+        return runStateService.update(id, run -> {
                     run.setStatus(RunStatus.RECEIVED);
                     run.setAutonomyDevGatePassed(true); // human has reviewed; bypass the autonomy gate
-                    runRepository.save(run);
-                    workflowEngine.executeWorkflowAsync(id, token);
+                })
+                .map(run -> {
+                    runQueueService.enqueue(id, run.getRepo(), RunQueueLane.INTERACTIVE, token);
                     return ResponseEntity.accepted().<RunResponse>body(toRunResponse(run));
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -273,15 +328,17 @@ public class RunController {
                                     request.decision(),
                                     request.guidance() != null ? request.guidance() : ""),
                             Instant.now());
-                    run.addArtifact(decisionArtifact);
+                    if ("ABORT".equalsIgnoreCase(request.decision())
+                            && !runStateService.transition(id,
+                                    r -> r.getStatus() == RunStatus.ESCALATED,
+                                    r -> r.setStatus(RunStatus.FAILED))) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT).<Void>build();
+                    }
+                    runStateService.appendArtifact(run, decisionArtifact);
 
                     if ("PROCEED".equalsIgnoreCase(request.decision())) {
-                        workflowEngine.executeWorkflowAsync(id, token);
-                    } else if ("ABORT".equalsIgnoreCase(request.decision())) {
-                        run.setStatus(RunStatus.FAILED);
+                        runQueueService.enqueue(id, run.getRepo(), RunQueueLane.INTERACTIVE, token);
                     }
-
-                    runRepository.save(run);
                     return ResponseEntity.ok().<Void>build();
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -308,8 +365,7 @@ public class RunController {
                             "flag_annotation",
                             String.format("{\"stepId\":\"%s\",\"note\":\"%s\"}", stepId, note),
                             java.time.Instant.now());
-                    run.addArtifact(flag);
-                    runRepository.save(run);
+                    runStateService.appendArtifact(run, flag);
                     return ResponseEntity.ok().<Void>build();
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -329,12 +385,8 @@ public class RunController {
         if (!apiAuthService.isAuthorized(authorization)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        return runRepository.findById(id)
-                .map(run -> {
-                    run.setPrunedSteps(body.get("prunedSteps"));
-                    runRepository.save(run);
-                    return ResponseEntity.ok().<Void>build();
-                })
+        return runStateService.update(id, run -> run.setPrunedSteps(body.get("prunedSteps")))
+                .map(run -> ResponseEntity.ok().<Void>build())
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -352,13 +404,13 @@ public class RunController {
         if (!apiAuthService.isAuthorized(authorization)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        return runRepository.findById(id)
-                .map(run -> {
-                    String after     = body.getOrDefault("after", "");
-                    String agentName = body.getOrDefault("agentName", "");
+        String after     = body.getOrDefault("after", "");
+        String agentName = body.getOrDefault("agentName", "");
+        String entry = String.format("{\"after\":\"%s\",\"agentName\":\"%s\"}", after, agentName);
+        // Re-applied to the fresh row if a concurrent writer bumps the version first.
+        return runStateService.update(id, run -> {
                     // Append to existing JSON array (simple string append to JSONB stored as text)
                     String existing = run.getPendingGrafts();
-                    String entry = String.format("{\"after\":\"%s\",\"agentName\":\"%s\"}", after, agentName);
                     String updated;
                     if (existing == null || existing.isBlank() || existing.equals("[]")) {
                         updated = "[" + entry + "]";
@@ -367,9 +419,8 @@ public class RunController {
                         updated = existing.substring(0, existing.lastIndexOf(']')) + "," + entry + "]";
                     }
                     run.setPendingGrafts(updated);
-                    runRepository.save(run);
-                    return ResponseEntity.ok().<Void>build();
                 })
+                .map(run -> ResponseEntity.ok().<Void>build())
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -411,6 +462,27 @@ public class RunController {
         return ResponseEntity.ok(users);
     }
 
+    /** List-view response: jsonb payloads and artifacts are left out; GET /{id} has the full run. */
+    private RunResponse toRunResponse(RunSummaryView view) {
+        return new RunResponse(
+                view.getId(),
+                view.getRepo(),
+                view.getIssueNumber(),
+                view.getGoal(),
+                view.getMode(),
+                view.getStatus().name(),
+                view.getCreatedAt(),
+                view.getUpdatedAt(),
+                view.getCurrentAgent(),
+                view.getCiFixCount(),
+                view.getE2eFixCount(),
+                view.getEnvironmentLifecycle() != null ? view.getEnvironmentLifecycle().name() : null,
+                null,
+                view.getPrunedSteps(),
+                null,
+                List.of());
+    }
+
     private RunResponse toRunResponse(RunEntity entity) {
         List<RunResponse.ArtifactSummary> artifactSummaries = entity.getArtifacts().stream()
                 .map(artifact -> new RunResponse.ArtifactSummary(
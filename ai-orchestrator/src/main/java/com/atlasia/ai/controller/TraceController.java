@@ -2,9 +2,12 @@ package com.atlasia.ai.controller;
 
 import com.atlasia.ai.model.TraceEventEntity;
 import com.atlasia.ai.persistence.TraceEventRepository;
+import com.atlasia.ai.service.trace.TraceWaterfallWriter;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -15,9 +18,11 @@ import java.util.stream.Collectors;
 public class TraceController {
 
     private final TraceEventRepository traceEventRepository;
+    private final TraceWaterfallWriter waterfallWriter;
 
-    public TraceController(TraceEventRepository traceEventRepository) {
+    public TraceController(TraceEventRepository traceEventRepository, TraceWaterfallWriter waterfallWriter) {
         this.traceEventRepository = traceEventRepository;
+        this.waterfallWriter = waterfallWriter;
     }
 
     /**
@@ -31,56 +36,13 @@ public class TraceController {
     }
 
     /**
-     * GET /api/traces/{runId}/waterfall — nested hierarchy of trace events
+     * GET /api/traces/{runId}/waterfall — nested hierarchy of trace events, streamed
      */
-    @GetMapping("/{runId}/waterfall")
-    public ResponseEntity<List<WaterfallSpanDto>> getWaterfallTrace(@PathVariable("runId") UUID runId) {
-        List<TraceEventEntity> allEvents = traceEventRepository.findByRunIdOrderByStartTimeAsc(runId);
-
-        // Build lookup map
-        Map<UUID, TraceEventEntity> entityMap = new LinkedHashMap<>();
-        for (TraceEventEntity e : allEvents) {
-            entityMap.put(e.getId(), e);
-        }
-
-        // Build children map
-        Map<UUID, List<TraceEventEntity>> childrenMap = new LinkedHashMap<>();
-        List<TraceEventEntity> roots = new ArrayList<>();
-
-        for (TraceEventEntity e : allEvents) {
-            if (e.getParentEventId() == null) {
-                roots.add(e);
-            } else {
-                childrenMap.computeIfAbsent(e.getParentEventId(), k -> new ArrayList<>()).add(e);
-            }
-        }
-
-        List<WaterfallSpanDto> waterfall = roots.stream()
-                .map(root -> buildWaterfallNode(root, childrenMap))
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(waterfall);
-    }
-
-    private WaterfallSpanDto buildWaterfallNode(TraceEventEntity entity,
-                                                 Map<UUID, List<TraceEventEntity>> childrenMap) {
-        List<WaterfallSpanDto> children = childrenMap.getOrDefault(entity.getId(), List.of())
-                .stream()
-                .map(child -> buildWaterfallNode(child, childrenMap))
-                .collect(Collectors.toList());
-
-        return new WaterfallSpanDto(
-                entity.getId(),
-                entity.getParentEventId(),
-                entity.getEventType(),
-                entity.getAgentName(),
-                entity.getLabel(),
-                entity.getStartTime(),
-                entity.getEndTime(),
-                entity.getDurationMs(),
-                entity.getTokensUsed(),
-                entity.getMetadata(),
-                children);
+    @GetMapping(value = "/{runId}/waterfall", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getWaterfallTrace(@PathVariable("runId") UUID runId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> waterfallWriter.write(runId, out));
     }
 
     private TraceSpanDto toDto(TraceEventEntity entity) {
@@ -110,17 +72,4 @@ public class TraceController {
             Long durationMs,
             Integer tokensUsed,
             String metadata) {}
-
-    public record WaterfallSpanDto(
-            UUID id,
-            UUID parentEventId,
-            String eventType,
-            String agentName,
-            String label,
-            java.time.Instant startTime,
-            java.time.Instant endTime,
-            Long durationMs,
-            Integer tokensUsed,
-            String metadata,
-            List<WaterfallSpanDto> children) {}
 }
@@ -1,13 +1,6 @@
 package com.atlasia.ai.controller;
 
-import com.atlasia.ai.model.RunEntity;
-import com.atlasia.ai.model.RunStatus;
-import com.atlasia.ai.model.WebhookEventEntity;
-import com.atlasia.ai.persistence.RunRepository;
-import com.atlasia.ai.persistence.WebhookEventRepository;
-import com.atlasia.ai.service.WorkflowEngine;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.atlasia.ai.service.WebhookIngestionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,10 +13,13 @@ import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
-import java.time.Instant;
 import java.util.HexFormat;
-import java.util.UUID;
 
+/**
+ * GitHub webhook endpoint. Only the signature is checked in the request; persistence,
+ * parsing and dispatch happen in {@link WebhookIngestionService} so GitHub gets its ack
+ * well inside the delivery timeout.
+ */
 @RestController
 @RequestMapping("/api/webhooks")
 public class WebhookController {
@@ -31,41 +27,28 @@ public class WebhookController {
     private static final Logger log = LoggerFactory.getLogger(WebhookController.class);
     private static final String HMAC_SHA256 = "HmacSHA256";
 
-    private final WebhookEventRepository webhookEventRepository;
-    private final RunRepository runRepository;
-    private final WorkflowEngine workflowEngine;
-    private final ObjectMapper objectMapper;
+    private final WebhookIngestionService ingestionService;
 
     @Value("${atlasia.webhook.github.secret:}")
     private String githubWebhookSecret;
 
-    public WebhookController(
-            WebhookEventRepository webhookEventRepository,
-            RunRepository runRepository,
-            WorkflowEngine workflowEngine,
-            ObjectMapper objectMapper) {
-        this.webhookEventRepository = webhookEventRepository;
-        this.runRepository = runRepository;
-        this.workflowEngine = workflowEngine;
-        this.objectMapper = objectMapper;
+    public WebhookController(WebhookIngestionService ingestionService) {
+        this.ingestionService = ingestionService;
     }
 
     @PostMapping("/github")
     public ResponseEntity<String> handleGitHubWebhook(
             @RequestHeader(value = "X-Hub-Signature-256", required = false) String signature,
             @RequestHeader(value = "X-GitHub-Event", required = false) String eventType,
+            @RequestHeader(value = "X-GitHub-Delivery", required = false) String deliveryId,
             @RequestBody String payload) {
 
-        log.info("Received GitHub webhook: eventType={}, signaturePresent={}", eventType, signature != null);
+        log.debug("Received GitHub webhook: eventType={}, deliveryId={}, signaturePresent={}",
+                eventType, deliveryId, signature != null);
 
         boolean signatureValid = verifySignature(payload, signature);
-        
-        WebhookEventEntity webhookEvent = new WebhookEventEntity(
-                eventType != null ? eventType : "unknown",
-                payload,
-                signatureValid,
-                Instant.now());
-        webhookEventRepository.save(webhookEvent);
+        WebhookIngestionService.Outcome outcome =
+                ingestionService.accept(deliveryId, eventType, payload, signatureValid);
 
         if (!signatureValid) {
             log.warn("Invalid webhook signature for event: {}", eventType);
@@ -73,70 +56,12 @@ public class WebhookController {
                     .body("{\"error\":\"Invalid signature\"}");
         }
 
-        if (!"issues".equals(eventType)) {
-            log.debug("Ignoring non-issues event: {}", eventType);
-            return ResponseEntity.ok("{\"status\":\"ignored\",\"reason\":\"not an issues event\"}");
-        }
-
-        try {
-            JsonNode root = objectMapper.readTree(payload);
-            String action = root.path("action").asText();
-
-            if (!"labeled".equals(action)) {
-                log.debug("Ignoring issues event with action: {}", action);
-                return ResponseEntity.ok("{\"status\":\"ignored\",\"reason\":\"not a labeled action\"}");
-            }
-
-            JsonNode label = root.path("label");
-            String labelName = label.path("name").asText();
-
-            if (!"ai:run".equals(labelName)) {
-                log.debug("Ignoring labeled event with non-matching label: {}", labelName);
-                return ResponseEntity.ok("{\"status\":\"ignored\",\"reason\":\"label is not ai:run\"}");
-            }
-
-            JsonNode issue = root.path("issue");
-            JsonNode repository = root.path("repository");
-
-            int issueNumber = issue.path("number").asInt();
-            String issueTitle = issue.path("title").asText();
-            String issueBody = issue.path("body").asText("");
-            String repoFullName = repository.path("full_name").asText();
-
-            log.info("Processing ai:run label event: repo={}, issue={}, title={}", 
-                    repoFullName, issueNumber, issueTitle);
-
-            UUID runId = UUID.randomUUID();
-            RunEntity runEntity = new RunEntity(
-                    runId,
-                    repoFullName,
-                    issueNumber,
-                    "code",
-                    RunStatus.RECEIVED,
-                    Instant.now());
-
-            runRepository.save(runEntity);
-
-            String githubToken = extractGitHubToken(root);
-            if (githubToken == null) {
-                log.warn("No GitHub token available for webhook-triggered run: runId={}", runId);
-                githubToken = "";
-            }
-
-            workflowEngine.executeWorkflowAsync(runId, githubToken);
-
-            log.info("Started autonomous run from webhook: runId={}, repo={}, issue={}", 
-                    runId, repoFullName, issueNumber);
-
-            return ResponseEntity.ok(String.format(
-                    "{\"status\":\"accepted\",\"runId\":\"%s\",\"repo\":\"%s\",\"issueNumber\":%d}",
-                    runId, repoFullName, issueNumber));
-
-        } catch (Exception e) {
-            log.error("Failed to process GitHub webhook payload", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("{\"error\":\"Failed to process webhook\"}");
-        }
+        return switch (outcome) {
+            case DUPLICATE -> ResponseEntity.ok("{\"status\":\"duplicate\"}");
+            case OVERLOADED -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("{\"error\":\"Webhook ingestion queue full\"}");
+            case QUEUED -> ResponseEntity.accepted().body("{\"status\":\"queued\"}");
+        };
     }
 
     private boolean verifySignature(String payload, String signature) {
@@ -190,18 +115,4 @@ public class WebhookController {
         }
         return result == 0;
     }
-
-    private String extractGitHubToken(JsonNode root) {
-        JsonNode installation = root.path("installation");
-        if (!installation.isMissingNode()) {
-            return null;
-        }
-        
-        JsonNode sender = root.path("sender");
-        if (!sender.isMissingNode()) {
-            return null;
-        }
-        
-        return null;
-    }
 }
@@ -0,0 +1,62 @@
+package com.atlasia.ai.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/** Runs created on one UTC day that an agent produced artifacts for, aggregated per agent. */
+@Entity
+@Table(name = "analytics_agent_daily")
+public class AnalyticsAgentDailyEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "rollup_day", nullable = false, updatable = false)
+    private LocalDate day;
+
+    @Column(name = "agent_name", nullable = false, updatable = false)
+    private String agentName;
+
+    @Column(name = "run_count", nullable = false)
+    private long runCount;
+
+    @Column(name = "success_count", nullable = false)
+    private long successCount;
+
+    @Column(name = "ci_fix_total", nullable = false)
+    private long ciFixTotal;
+
+    @Column(name = "e2e_fix_total", nullable = false)
+    private long e2eFixTotal;
+
+    @Column(name = "duration_seconds_total", nullable = false)
+    private long durationSecondsTotal;
+
+    protected AnalyticsAgentDailyEntity() {}
+
+    public AnalyticsAgentDailyEntity(LocalDate day, String agentName) {
+        this.day = day;
+        this.agentName = agentName;
+    }
+
+    public void addRun(boolean success, int ciFixCount, int e2eFixCount, long durationSeconds) {
+        runCount++;
+        if (success) successCount++;
+        ciFixTotal += ciFixCount;
+        e2eFixTotal += e2eFixCount;
+        durationSecondsTotal += durationSeconds;
+    }
+
+    public UUID getId() { return id; }
+    public LocalDate getDay() { return day; }
+    public String getAgentName() { return agentName; }
+    public long getRunCount() { return runCount; }
+    public long getSuccessCount() { return successCount; }
+    public long getCiFixTotal() { return ciFixTotal; }
+    public long getE2eFixTotal() { return e2eFixTotal; }
+    public long getDurationSecondsTotal() { return durationSecondsTotal; }
+}
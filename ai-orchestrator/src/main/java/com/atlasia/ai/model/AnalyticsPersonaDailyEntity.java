@@ -0,0 +1,57 @@
+package com.atlasia.ai.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/** Persona review findings for runs created on one UTC day, per persona and severity. */
+@Entity
+@Table(name = "analytics_persona_daily")
+public class AnalyticsPersonaDailyEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "rollup_day", nullable = false, updatable = false)
+    private LocalDate day;
+
+    @Column(name = "persona_name", nullable = false, updatable = false)
+    private String personaName;
+
+    @Column(name = "persona_role", nullable = false, updatable = false)
+    private String personaRole;
+
+    @Column(name = "severity", nullable = false, updatable = false)
+    private String severity;
+
+    @Column(name = "finding_count", nullable = false)
+    private long findingCount;
+
+    @Column(name = "mandatory_count", nullable = false)
+    private long mandatoryCount;
+
+    protected AnalyticsPersonaDailyEntity() {}
+
+    public AnalyticsPersonaDailyEntity(LocalDate day, String personaName, String personaRole, String severity) {
+        this.day = day;
+        this.personaName = personaName;
+        this.personaRole = personaRole;
+        this.severity = severity;
+    }
+
+    public void addFinding(boolean mandatory) {
+        findingCount++;
+        if (mandatory) mandatoryCount++;
+    }
+
+    public UUID getId() { return id; }
+    public LocalDate getDay() { return day; }
+    public String getPersonaName() { return personaName; }
+    public String getPersonaRole() { return personaRole; }
+    public String getSeverity() { return severity; }
+    public long getFindingCount() { return findingCount; }
+    public long getMandatoryCount() { return mandatoryCount; }
+}
@@ -0,0 +1,55 @@
+package com.atlasia.ai.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Persona review reports for runs created on one UTC day, per persona. A critical review on a
+ * run that still finished DONE counts as a false positive.
+ */
+@Entity
+@Table(name = "analytics_persona_review_daily")
+public class AnalyticsPersonaReviewDailyEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "rollup_day", nullable = false, updatable = false)
+    private LocalDate day;
+
+    @Column(name = "persona_name", nullable = false, updatable = false)
+    private String personaName;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    @Column(name = "critical_review_count", nullable = false)
+    private long criticalReviewCount;
+
+    @Column(name = "false_positive_count", nullable = false)
+    private long falsePositiveCount;
+
+    protected AnalyticsPersonaReviewDailyEntity() {}
+
+    public AnalyticsPersonaReviewDailyEntity(LocalDate day, String personaName) {
+        this.day = day;
+        this.personaName = personaName;
+    }
+
+    public void addReview(boolean critical, boolean falsePositive) {
+        reviewCount++;
+        if (critical) criticalReviewCount++;
+        if (falsePositive) falsePositiveCount++;
+    }
+
+    public UUID getId() { return id; }
+    public LocalDate getDay() { return day; }
+    public String getPersonaName() { return personaName; }
+    public long getReviewCount() { return reviewCount; }
+    public long getCriticalReviewCount() { return criticalReviewCount; }
+    public long getFalsePositiveCount() { return falsePositiveCount; }
+}
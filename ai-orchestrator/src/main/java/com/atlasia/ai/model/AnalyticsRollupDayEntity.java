@@ -0,0 +1,29 @@
+package com.atlasia.ai.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/** Marks a UTC day whose analytics rollup rows are current. */
+@Entity
+@Table(name = "analytics_rollup_day")
+public class AnalyticsRollupDayEntity {
+
+    @Id
+    @Column(name = "rollup_day", nullable = false, updatable = false)
+    private LocalDate day;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private Instant refreshedAt;
+
+    protected AnalyticsRollupDayEntity() {}
+
+    public AnalyticsRollupDayEntity(LocalDate day, Instant refreshedAt) {
+        this.day = day;
+        this.refreshedAt = refreshedAt;
+    }
+
+    public LocalDate getDay() { return day; }
+    public Instant getRefreshedAt() { return refreshedAt; }
+}
@@ -0,0 +1,29 @@
+package com.atlasia.ai.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Single-row mutex for analytics rollup writes. Locking it serializes the completed-run sweep
+ * and the backfill across orchestrator nodes so no two of them rewrite the same day at once.
+ */
+@Entity
+@Table(name = "analytics_rollup_lock")
+public class AnalyticsRollupLockEntity {
+
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private Integer id;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    protected AnalyticsRollupLockEntity() {}
+
+    public Integer getId() { return id; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,97 @@
+package com.atlasia.ai.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Runs created on one UTC day, aggregated per repo and status. Fix-loop totals are sums over
+ * the runs in the group; averages are derived when rows are combined.
+ */
+@Entity
+@Table(name = "analytics_run_daily")
+public class AnalyticsRunDailyEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "rollup_day", nullable = false, updatable = false)
+    private LocalDate day;
+
+    @Column(name = "repo", nullable = false, updatable = false)
+    private String repo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, updatable = false)
+    private RunStatus status;
+
+    @Column(name = "run_count", nullable = false)
+    private long runCount;
+
+    @Column(name = "ci_fix_total", nullable = false)
+    private long ciFixTotal;
+
+    @Column(name = "e2e_fix_total", nullable = false)
+    private long e2eFixTotal;
+
+    @Column(name = "ci_fix_max", nullable = false)
+    private int ciFixMax;
+
+    @Column(name = "e2e_fix_max", nullable = false)
+    private int e2eFixMax;
+
+    @Column(name = "ci_loop_runs", nullable = false)
+    private long ciLoopRuns;
+
+    @Column(name = "e2e_loop_runs", nullable = false)
+    private long e2eLoopRuns;
+
+    @Column(name = "multi_ci_runs", nullable = false)
+    private long multiCiRuns;
+
+    @Column(name = "multi_e2e_runs", nullable = false)
+    private long multiE2eRuns;
+
+    @Column(name = "persona_reviewed_runs", nullable = false)
+    private long personaReviewedRuns;
+
+    protected AnalyticsRunDailyEntity() {}
+
+    public AnalyticsRunDailyEntity(LocalDate day, String repo, RunStatus status) {
+        this.day = day;
+        this.repo = repo;
+        this.status = status;
+    }
+
+    /** Adds one run to the group. */
+    public void addRun(int ciFixCount, int e2eFixCount, boolean personaReviewed) {
+        runCount++;
+        ciFixTotal += ciFixCount;
+        e2eFixTotal += e2eFixCount;
+        ciFixMax = Math.max(ciFixMax, ciFixCount);
+        e2eFixMax = Math.max(e2eFixMax, e2eFixCount);
+        if (ciFixCount > 0) ciLoopRuns++;
+        if (e2eFixCount > 0) e2eLoopRuns++;
+        if (ciFixCount > 1) multiCiRuns++;
+        if (e2eFixCount > 1) multiE2eRuns++;
+        if (personaReviewed) personaReviewedRuns++;
+    }
+
+    public UUID getId() { return id; }
+    public LocalDate getDay() { return day; }
+    public String getRepo() { return repo; }
+    public RunStatus getStatus() { return status; }
+    public long getRunCount() { return runCount; }
+    public long getCiFixTotal() { return ciFixTotal; }
+    public long getE2eFixTotal() { return e2eFixTotal; }
+    public int getCiFixMax() { return ciFixMax; }
+    public int getE2eFixMax() { return e2eFixMax; }
+    public long getCiLoopRuns() { return ciLoopRuns; }
+    public long getE2eLoopRuns() { return e2eLoopRuns; }
+    public long getMultiCiRuns() { return multiCiRuns; }
+    public long getMultiE2eRuns() { return multiE2eRuns; }
+    public long getPersonaReviewedRuns() { return personaReviewedRuns; }
+}
@@ -10,8 +10,10 @@ import java.util.UUID;
     @Index(name = "idx_audit_access_timestamp", columnList = "timestamp"),
     @Index(name = "idx_audit_access_resource", columnList = "resource_type,resource_id"),
     @Index(name = "idx_audit_access_event_hash", columnList = "event_hash")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uq_audit_access_chain", columnNames = {"chain_key", "chain_seq"})
 })
-public class AuditAccessLogEntity {
+public class AuditAccessLogEntity implements HashChainedEvent {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -63,6 +65,12 @@ public class AuditAccessLogEntity {
     @Column(name = "event_hash", nullable = false, length = 64)
     private String eventHash;
 
+    @Column(name = "chain_key", length = 100)
+    private String chainKey;
+
+    @Column(name = "chain_seq")
+    private Long chainSeq;
+
     protected AuditAccessLogEntity() {}
 
     public AuditAccessLogEntity(UUID userId, String username, String resourceType, String resourceId,
@@ -97,9 +105,13 @@ public class AuditAccessLogEntity {
     public Instant getArchivedAt() { return archivedAt; }
     public String getPreviousEventHash() { return previousEventHash; }
     public String getEventHash() { return eventHash; }
+    public String getChainKey() { return chainKey; }
+    public Long getChainSeq() { return chainSeq; }
 
     public void setRetentionDays(Integer retentionDays) { this.retentionDays = retentionDays; }
     public void setArchivedAt(Instant archivedAt) { this.archivedAt = archivedAt; }
     public void setPreviousEventHash(String previousEventHash) { this.previousEventHash = previousEventHash; }
     public void setEventHash(String eventHash) { this.eventHash = eventHash; }
+    public void setChainKey(String chainKey) { this.chainKey = chainKey; }
+    public void setChainSeq(Long chainSeq) { this.chainSeq = chainSeq; }
 }
@@ -11,8 +11,10 @@ import java.util.UUID;
     @Index(name = "idx_audit_admin_timestamp", columnList = "timestamp"),
     @Index(name = "idx_audit_admin_action_type", columnList = "action_type"),
     @Index(name = "idx_audit_admin_event_hash", columnList = "event_hash")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uq_audit_admin_chain", columnNames = {"chain_key", "chain_seq"})
 })
-public class AuditAdminActionEntity {
+public class AuditAdminActionEntity implements HashChainedEvent {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -55,6 +57,12 @@ public class AuditAdminActionEntity {
     @Column(name = "event_hash", nullable = false, length = 64)
     private String eventHash;
 
+    @Column(name = "chain_key", length = 100)
+    private String chainKey;
+
+    @Column(name = "chain_seq")
+    private Long chainSeq;
+
     protected AuditAdminActionEntity() {}
 
     public AuditAdminActionEntity(UUID adminUserId, String adminUsername, String actionType,
@@ -83,9 +91,13 @@ public class AuditAdminActionEntity {
     public Instant getArchivedAt() { return archivedAt; }
     public String getPreviousEventHash() { return previousEventHash; }
     public String getEventHash() { return eventHash; }
+    public String getChainKey() { return chainKey; }
+    public Long getChainSeq() { return chainSeq; }
 
     public void setRetentionDays(Integer retentionDays) { this.retentionDays = retentionDays; }
     public void setArchivedAt(Instant archivedAt) { this.archivedAt = archivedAt; }
     public void setPreviousEventHash(String previousEventHash) { this.previousEventHash = previousEventHash; }
     public void setEventHash(String eventHash) { this.eventHash = eventHash; }
+    public void setChainKey(String chainKey) { this.chainKey = chainKey; }
+    public void setChainSeq(Long chainSeq) { this.chainSeq = chainSeq; }
 }
@@ -10,8 +10,10 @@ import java.util.UUID;
     @Index(name = "idx_audit_auth_timestamp", columnList = "timestamp"),
     @Index(name = "idx_audit_auth_event_type", columnList = "event_type"),
     @Index(name = "idx_audit_auth_event_hash", columnList = "event_hash")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uq_audit_auth_chain", columnNames = {"chain_key", "chain_seq"})
 })
-public class AuditAuthenticationEventEntity {
+public class AuditAuthenticationEventEntity implements HashChainedEvent {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -54,6 +56,12 @@ public class AuditAuthenticationEventEntity {
     @Column(name = "event_hash", nullable = false, length = 64)
     private String eventHash;
 
+    @Column(name = "chain_key", length = 100)
+    private String chainKey;
+
+    @Column(name = "chain_seq")
+    private Long chainSeq;
+
     protected AuditAuthenticationEventEntity() {}
 
     public AuditAuthenticationEventEntity(UUID userId, String username, String eventType, 
@@ -82,9 +90,13 @@ public class AuditAuthenticationEventEntity {
     public Instant getArchivedAt() { return archivedAt; }
     public String getPreviousEventHash() { return previousEventHash; }
     public String getEventHash() { return eventHash; }
+    public String getChainKey() { return chainKey; }
+    public Long getChainSeq() { return chainSeq; }
 
     public void setRetentionDays(Integer retentionDays) { this.retentionDays = retentionDays; }
     public void setArchivedAt(Instant archivedAt) { this.archivedAt = archivedAt; }
     public void setPreviousEventHash(String previousEventHash) { this.previousEventHash = previousEventHash; }
     public void setEventHash(String eventHash) { this.eventHash = eventHash; }
+    public void setChainKey(String chainKey) { this.chainKey = chainKey; }
+    public void setChainSeq(Long chainSeq) { this.chainSeq = chainSeq; }
 }
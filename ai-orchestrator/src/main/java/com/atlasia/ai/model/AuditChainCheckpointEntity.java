@@ -0,0 +1,55 @@
+package com.atlasia.ai.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "audit_chain_checkpoints", indexes = {
+    @Index(name = "idx_audit_checkpoint_table_created", columnList = "table_name,created_at")
+})
+public class AuditChainCheckpointEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "table_name", nullable = false, length = 50)
+    private String tableName;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "chain_count", nullable = false)
+    private int chainCount;
+
+    @Column(name = "chain_heads", nullable = false, columnDefinition = "TEXT")
+    private String chainHeads;
+
+    @Column(name = "merkle_root", nullable = false, length = 64)
+    private String merkleRoot;
+
+    @Column(name = "previous_root", length = 64)
+    private String previousRoot;
+
+    protected AuditChainCheckpointEntity() {}
+
+    public AuditChainCheckpointEntity(String tableName, Instant createdAt, int chainCount, String chainHeads,
+                                      String merkleRoot, String previousRoot) {
+        this.tableName = tableName;
+        this.createdAt = createdAt;
+        this.chainCount = chainCount;
+        this.chainHeads = chainHeads;
+        this.merkleRoot = merkleRoot;
+        this.previousRoot = previousRoot;
+    }
+
+    public UUID getId() { return id; }
+    public String getTableName() { return tableName; }
+    public Instant getCreatedAt() { return createdAt; }
+    public int getChainCount() { return chainCount; }
+    public String getChainHeads() { return chainHeads; }
+    public String getMerkleRoot() { return merkleRoot; }
+    public String getPreviousRoot() { return previousRoot; }
+}
@@ -10,8 +10,10 @@ import java.util.UUID;
     @Index(name = "idx_audit_mutation_timestamp", columnList = "timestamp"),
     @Index(name = "idx_audit_mutation_entity", columnList = "entity_type,entity_id"),
     @Index(name = "idx_audit_mutation_event_hash", columnList = "event_hash")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uq_audit_mutation_chain", columnNames = {"chain_key", "chain_seq"})
 })
-public class AuditDataMutationEntity {
+public class AuditDataMutationEntity implements HashChainedEvent {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -57,6 +59,12 @@ public class AuditDataMutationEntity {
     @Column(name = "event_hash", nullable = false, length = 64)
     private String eventHash;
 
+    @Column(name = "chain_key", length = 100)
+    private String chainKey;
+
+    @Column(name = "chain_seq")
+    private Long chainSeq;
+
     protected AuditDataMutationEntity() {}
 
     public AuditDataMutationEntity(UUID userId, String username, String entityType, String entityId,
@@ -87,9 +95,13 @@ public class AuditDataMutationEntity {
     public Instant getArchivedAt() { return archivedAt; }
     public String getPreviousEventHash() { return previousEventHash; }
     public String getEventHash() { return eventHash; }
+    public String getChainKey() { return chainKey; }
+    public Long getChainSeq() { return chainSeq; }
 
     public void setRetentionDays(Integer retentionDays) { this.retentionDays = retentionDays; }
     public void setArchivedAt(Instant archivedAt) { this.archivedAt = archivedAt; }
     public void setPreviousEventHash(String previousEventHash) { this.previousEventHash = previousEventHash; }
     public void setEventHash(String eventHash) { this.eventHash = eventHash; }
+    public void setChainKey(String chainKey) { this.chainKey = chainKey; }
+    public void setChainSeq(Long chainSeq) { this.chainSeq = chainSeq; }
 }
@@ -11,8 +11,10 @@ import java.util.UUID;
     @Index(name = "idx_run_timestamp", columnList = "run_id,timestamp"),
     @Index(name = "idx_run_user", columnList = "run_id,user_id"),
     @Index(name = "idx_run_event_type", columnList = "run_id,event_type")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uq_collaboration_events_chain", columnNames = {"chain_key", "chain_seq"})
 })
-public class CollaborationEventEntity {
+public class CollaborationEventEntity implements HashChainedEvent {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -54,6 +56,12 @@ public class CollaborationEventEntity {
     
     @Column(name = "event_hash", length = 64)
     private String eventHash;
+
+    @Column(name = "chain_key", length = 100)
+    private String chainKey;
+
+    @Column(name = "chain_seq")
+    private Long chainSeq;
     
     @Column(name = "crdt_changes", columnDefinition = "bytea")
     private byte[] crdtChanges;
@@ -98,6 +106,8 @@ public class CollaborationEventEntity {
     public Instant getArchivedAt() { return archivedAt; }
     public String getPreviousEventHash() { return previousEventHash; }
     public String getEventHash() { return eventHash; }
+    public String getChainKey() { return chainKey; }
+    public Long getChainSeq() { return chainSeq; }
     public byte[] getCrdtChanges() { return crdtChanges; }
     public String getSourceRegion() { return sourceRegion; }
     public Long getLamportTimestamp() { return lamportTimestamp; }
@@ -108,6 +118,8 @@ public class CollaborationEventEntity {
     public void setArchivedAt(Instant archivedAt) { this.archivedAt = archivedAt; }
     public void setPreviousEventHash(String previousEventHash) { this.previousEventHash = previousEventHash; }
     public void setEventHash(String eventHash) { this.eventHash = eventHash; }
+    public void setChainKey(String chainKey) { this.chainKey = chainKey; }
+    public void setChainSeq(Long chainSeq) { this.chainSeq = chainSeq; }
     public void setCrdtChanges(byte[] crdtChanges) { this.crdtChanges = crdtChanges; }
     public void setSourceRegion(String sourceRegion) { this.sourceRegion = sourceRegion; }
     public void setLamportTimestamp(Long lamportTimestamp) { this.lamportTimestamp = lamportTimestamp; }
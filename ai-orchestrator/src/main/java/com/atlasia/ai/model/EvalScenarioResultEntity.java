@@ -0,0 +1,90 @@
+package com.atlasia.ai.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Graded result of one scenario in an evaluation suite run. Only completed gradings are
+ * stored; a scenario that errored has no row and is re-run when the suite is resumed.
+ */
+@Entity
+@Table(name = "ai_eval_scenario_result")
+public class EvalScenarioResultEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "suite_run_id", nullable = false, updatable = false)
+    private UUID suiteRunId;
+
+    @Column(name = "scenario_id", nullable = false, updatable = false)
+    private String scenarioId;
+
+    @Column(name = "pass", nullable = false)
+    private boolean pass;
+
+    @Column(name = "pass_at_1", nullable = false)
+    private boolean passAt1;
+
+    @Column(name = "pass_at_2", nullable = false)
+    private boolean passAt2;
+
+    @Column(name = "overall_score", nullable = false)
+    private double overallScore;
+
+    @Column(name = "groundedness_score", nullable = false)
+    private double groundednessScore;
+
+    @Column(name = "correctness_score", nullable = false)
+    private double correctnessScore;
+
+    @Column(name = "protocol_adherence_score", nullable = false)
+    private double protocolAdherenceScore;
+
+    @Column(name = "duration_ms", nullable = false)
+    private long durationMs;
+
+    @Column(name = "outcome_match", nullable = false)
+    private boolean outcomeMatch;
+
+    @Column(name = "completed_at", nullable = false)
+    private Instant completedAt;
+
+    protected EvalScenarioResultEntity() {}
+
+    public EvalScenarioResultEntity(UUID suiteRunId, String scenarioId, boolean pass, boolean passAt1,
+                                    boolean passAt2, double overallScore, double groundednessScore,
+                                    double correctnessScore, double protocolAdherenceScore, long durationMs,
+                                    boolean outcomeMatch, Instant completedAt) {
+        this.suiteRunId = suiteRunId;
+        this.scenarioId = scenarioId;
+        this.pass = pass;
+        this.passAt1 = passAt1;
+        this.passAt2 = passAt2;
+        this.overallScore = overallScore;
+        this.groundednessScore = groundednessScore;
+        this.correctnessScore = correctnessScore;
+        this.protocolAdherenceScore = protocolAdherenceScore;
+        this.durationMs = durationMs;
+        this.outcomeMatch = outcomeMatch;
+        this.completedAt = completedAt;
+    }
+
+    public UUID getId() { return id; }
+    public UUID getSuiteRunId() { return suiteRunId; }
+    public String getScenarioId() { return scenarioId; }
+    public boolean isPass() { return pass; }
+    public boolean isPassAt1() { return passAt1; }
+    public boolean isPassAt2() { return passAt2; }
+    public double getOverallScore() { return overallScore; }
+    public double getGroundednessScore() { return groundednessScore; }
+    public double getCorrectnessScore() { return correctnessScore; }
+    public double getProtocolAdherenceScore() { return protocolAdherenceScore; }
+    public long getDurationMs() { return durationMs; }
+    public boolean isOutcomeMatch() { return outcomeMatch; }
+    public Instant getCompletedAt() { return completedAt; }
+}
@@ -0,0 +1,26 @@
+package com.atlasia.ai.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An audit row linked into a tamper-evident hash chain.
+ *
+ * Rows with a chain key belong to that chain (one per user, admin or run) and are ordered by
+ * {@code chain_seq}; rows written before chains were sharded have none and form the table-wide
+ * chain ordered by timestamp.
+ */
+public interface HashChainedEvent {
+
+    UUID getId();
+    Instant getTimestamp();
+    String getChainKey();
+    Long getChainSeq();
+    String getPreviousEventHash();
+    String getEventHash();
+
+    void setChainKey(String chainKey);
+    void setChainSeq(Long chainSeq);
+    void setPreviousEventHash(String previousEventHash);
+    void setEventHash(String eventHash);
+}
@@ -0,0 +1,52 @@
+package com.atlasia.ai.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Stored LLM response for a deterministic call, shared across nodes and restarts.
+ * {@code costUsd} is what producing the response cost, credited as savings on every hit.
+ */
+@Entity
+@Table(name = "ai_llm_response_cache")
+public class LlmResponseCacheEntryEntity {
+
+    @Id
+    @Column(name = "cache_key", nullable = false, updatable = false, length = 64)
+    private String cacheKey;
+
+    @Column(name = "model_key", nullable = false)
+    private String modelKey;
+
+    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "cost_usd", nullable = false)
+    private double costUsd;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    protected LlmResponseCacheEntryEntity() {}
+
+    public LlmResponseCacheEntryEntity(String cacheKey, String modelKey, String content, double costUsd,
+                                       Instant createdAt, Instant expiresAt) {
+        this.cacheKey = cacheKey;
+        this.modelKey = modelKey;
+        this.content = content;
+        this.costUsd = costUsd;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getCacheKey() { return cacheKey; }
+    public String getModelKey() { return modelKey; }
+    public String getContent() { return content; }
+    public double getCostUsd() { return costUsd; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getExpiresAt() { return expiresAt; }
+}
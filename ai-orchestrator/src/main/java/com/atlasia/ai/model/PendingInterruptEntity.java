@@ -0,0 +1,102 @@
+package com.atlasia.ai.model;
+
+import com.atlasia.ai.config.Encrypted;
+import com.atlasia.ai.config.EncryptedStringConverter;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A run suspended at a dynamic-interrupt checkpoint, waiting for a human decision.
+ *
+ * Keyed by run: a run can only be parked at one checkpoint at a time. {@code decision}
+ * stays null until OversightController (or the timeout sweep) records one;
+ * {@code continuationState} carries in-flight state the environment checkpoint does not
+ * hold, such as uncommitted code changes; the GitHub token and loop counters let the resumed
+ * run continue under the same identity and iteration budget.
+ */
+@Entity
+@Table(name = "ai_pending_interrupt")
+public class PendingInterruptEntity {
+
+    @Id
+    @Column(name = "run_id", nullable = false, updatable = false)
+    private UUID runId;
+
+    @Column(name = "agent_name", nullable = false, length = 50)
+    private String agentName;
+
+    @Column(name = "action", nullable = false, length = 100)
+    private String action;
+
+    @Column(name = "rule_name", length = 100)
+    private String ruleName;
+
+    @Column(name = "tier", length = 20)
+    private String tier;
+
+    @Column(name = "message", columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "continuation_state", columnDefinition = "TEXT")
+    private String continuationState;
+
+    @Encrypted(reason = "GitHub token the suspended run was started with")
+    @Column(name = "github_token_encrypted", columnDefinition = "TEXT")
+    @Convert(converter = EncryptedStringConverter.class)
+    private String gitHubToken;
+
+    @Column(name = "review_developer_loops", nullable = false)
+    private int reviewDeveloperLoops;
+
+    @Column(name = "tester_developer_loops", nullable = false)
+    private int testerDeveloperLoops;
+
+    @Column(name = "decision", length = 20)
+    private String decision;
+
+    @Column(name = "decided_by")
+    private String decidedBy;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "decided_at")
+    private Instant decidedAt;
+
+    protected PendingInterruptEntity() {}
+
+    public PendingInterruptEntity(UUID runId, String agentName, String action,
+                                  String ruleName, String tier, String message) {
+        this.runId = runId;
+        this.agentName = agentName;
+        this.action = action;
+        this.ruleName = ruleName;
+        this.tier = tier;
+        this.message = message;
+        this.createdAt = Instant.now();
+    }
+
+    public UUID getRunId() { return runId; }
+    public String getAgentName() { return agentName; }
+    public String getAction() { return action; }
+    public String getRuleName() { return ruleName; }
+    public String getTier() { return tier; }
+    public String getMessage() { return message; }
+    public String getContinuationState() { return continuationState; }
+    public void setContinuationState(String continuationState) { this.continuationState = continuationState; }
+    public String getGitHubToken() { return gitHubToken; }
+    public void setGitHubToken(String gitHubToken) { this.gitHubToken = gitHubToken; }
+    public int getReviewDeveloperLoops() { return reviewDeveloperLoops; }
+    public void setReviewDeveloperLoops(int reviewDeveloperLoops) { this.reviewDeveloperLoops = reviewDeveloperLoops; }
+    public int getTesterDeveloperLoops() { return testerDeveloperLoops; }
+    public void setTesterDeveloperLoops(int testerDeveloperLoops) { this.testerDeveloperLoops = testerDeveloperLoops; }
+    public String getDecision() { return decision; }
+    public void setDecision(String decision) { this.decision = decision; }
+    public String getDecidedBy() { return decidedBy; }
+    public void setDecidedBy(String decidedBy) { this.decidedBy = decidedBy; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getDecidedAt() { return decidedAt; }
+    public void setDecidedAt(Instant decidedAt) { this.decidedAt = decidedAt; }
+}
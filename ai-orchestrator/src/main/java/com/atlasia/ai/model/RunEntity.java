@@ -2,6 +2,7 @@ package com.atlasia.ai.model;
 
 import io.hypersistence.utils.hibernate.type.json.JsonBinaryType;
 import jakarta.persistence.*;
+import org.hibernate.annotations.OptimisticLock;
 import org.hibernate.annotations.Type;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -82,7 +83,13 @@ public class RunEntity {
     @Column(name = "workflow_resume_from")
     private String workflowResumeFrom;
 
+    /** Optimistic lock; bumped on every committed state change (artifact appends are excluded). */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "run", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OptimisticLock(excluded = true)
     private List<RunArtifactEntity> artifacts = new ArrayList<>();
 
     protected RunEntity() {}
@@ -119,6 +126,7 @@ public class RunEntity {
     public String getExecutedGrafts() { return executedGrafts; }
     public String getPendingHitlGate() { return pendingHitlGate; }
     public String getWorkflowResumeFrom() { return workflowResumeFrom; }
+    public Long getVersion() { return version; }
 
     /** Returns true if the given step name appears in the pruned steps list. */
     public boolean isStepPruned(String stepName) {
@@ -190,6 +198,37 @@ public class RunEntity {
         this.updatedAt = Instant.now();
     }
 
+    public void recordFixAttempts(int ciFixes, int e2eFixes) {
+        this.ciFixCount += ciFixes;
+        this.e2eFixCount += e2eFixes;
+        this.updatedAt = Instant.now();
+    }
+
+    /**
+     * Copies the committed row state (including the optimistic version) onto this instance.
+     * Used to keep a long-lived detached copy in sync after a step-scoped transaction;
+     * the artifact collection is left untouched.
+     */
+    public void refreshStateFrom(RunEntity committed) {
+        if (committed == this) return;
+        this.goal = committed.goal;
+        this.status = committed.status;
+        this.currentAgent = committed.currentAgent;
+        this.ciFixCount = committed.ciFixCount;
+        this.e2eFixCount = committed.e2eFixCount;
+        this.updatedAt = committed.updatedAt;
+        this.autonomy = committed.autonomy;
+        this.autonomyDevGatePassed = committed.autonomyDevGatePassed;
+        this.environmentLifecycle = committed.environmentLifecycle;
+        this.environmentCheckpoint = committed.environmentCheckpoint;
+        this.prunedSteps = committed.prunedSteps;
+        this.pendingGrafts = committed.pendingGrafts;
+        this.executedGrafts = committed.executedGrafts;
+        this.pendingHitlGate = committed.pendingHitlGate;
+        this.workflowResumeFrom = committed.workflowResumeFrom;
+        this.version = committed.version;
+    }
+
     public void addArtifact(RunArtifactEntity artifact) {
         artifacts.add(artifact);
         artifact.setRun(this);
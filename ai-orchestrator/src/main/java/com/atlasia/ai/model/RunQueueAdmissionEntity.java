@@ -0,0 +1,29 @@
+package com.atlasia.ai.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Single-row mutex for run-queue admission. Locking it serializes admission passes
+ * across orchestrator nodes so concurrency limits are checked against committed leases.
+ */
+@Entity
+@Table(name = "ai_run_queue_admission")
+public class RunQueueAdmissionEntity {
+
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private Integer id;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    protected RunQueueAdmissionEntity() {}
+
+    public Integer getId() { return id; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
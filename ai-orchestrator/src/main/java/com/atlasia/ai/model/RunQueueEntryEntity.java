@@ -0,0 +1,98 @@
+package com.atlasia.ai.model;
+
+import com.atlasia.ai.config.Encrypted;
+import com.atlasia.ai.config.EncryptedStringConverter;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A run waiting for, or holding, an execution slot.
+ *
+ * Lifecycle: QUEUED → LEASED → (row deleted when the workflow thread returns).
+ * An expired lease puts the row back to QUEUED with {@code attempts} kept.
+ */
+@Entity
+@Table(name = "ai_run_queue")
+public class RunQueueEntryEntity {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_LEASED = "LEASED";
+
+    @Id
+    @Column(name = "run_id", nullable = false, updatable = false)
+    private UUID runId;
+
+    @Column(name = "repo", nullable = false)
+    private String repo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "lane", nullable = false, length = 20)
+    private RunQueueLane lane;
+
+    @Column(name = "priority", nullable = false)
+    private int priority;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "enqueued_at", nullable = false, updatable = false)
+    private Instant enqueuedAt;
+
+    @Column(name = "leased_at")
+    private Instant leasedAt;
+
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Encrypted(reason = "GitHub token the queued run was requested with")
+    @Column(name = "github_token_encrypted", columnDefinition = "TEXT")
+    @Convert(converter = EncryptedStringConverter.class)
+    private String gitHubToken;
+
+    protected RunQueueEntryEntity() {}
+
+    public RunQueueEntryEntity(UUID runId, String repo, RunQueueLane lane, Instant enqueuedAt) {
+        this.runId = runId;
+        this.repo = repo;
+        this.lane = lane;
+        this.priority = lane.priority();
+        this.status = STATUS_QUEUED;
+        this.enqueuedAt = enqueuedAt;
+    }
+
+    public void lease(String owner, Instant now, Instant expiresAt) {
+        this.status = STATUS_LEASED;
+        this.leaseOwner = owner;
+        this.leasedAt = now;
+        this.leaseExpiresAt = expiresAt;
+        this.attempts++;
+    }
+
+    public void requeue() {
+        this.status = STATUS_QUEUED;
+        this.leaseOwner = null;
+        this.leasedAt = null;
+        this.leaseExpiresAt = null;
+    }
+
+    public UUID getRunId() { return runId; }
+    public String getRepo() { return repo; }
+    public RunQueueLane getLane() { return lane; }
+    public int getPriority() { return priority; }
+    public String getStatus() { return status; }
+    public int getAttempts() { return attempts; }
+    public Instant getEnqueuedAt() { return enqueuedAt; }
+    public Instant getLeasedAt() { return leasedAt; }
+    public String getLeaseOwner() { return leaseOwner; }
+    public Instant getLeaseExpiresAt() { return leaseExpiresAt; }
+    public String getGitHubToken() { return gitHubToken; }
+    public void setGitHubToken(String gitHubToken) { this.gitHubToken = gitHubToken; }
+}
@@ -0,0 +1,23 @@
+package com.atlasia.ai.model;
+
+/**
+ * Priority lanes of the run queue. Lower {@link #priority()} is admitted first.
+ */
+public enum RunQueueLane {
+    /** Runs started or resumed by a person through the API. */
+    INTERACTIVE(0),
+    /** Runs triggered by GitHub webhooks (label events). */
+    WEBHOOK(1),
+    /** Background shadow-mode runs; only admitted when nothing else is waiting. */
+    SHADOW(2);
+
+    private final int priority;
+
+    RunQueueLane(int priority) {
+        this.priority = priority;
+    }
+
+    public int priority() {
+        return priority;
+    }
+}
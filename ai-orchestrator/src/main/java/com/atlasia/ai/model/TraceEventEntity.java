@@ -3,12 +3,13 @@ package com.atlasia.ai.model;
 import jakarta.persistence.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
 @Table(name = "ai_trace_event")
-public class TraceEventEntity {
+public class TraceEventEntity implements Persistable<UUID> {
 
     @Id
     private UUID id;
@@ -44,6 +45,10 @@ public class TraceEventEntity {
     @Column(columnDefinition = "jsonb")
     private String metadata;
 
+    /** Ids are assigned up front; without this {@code save} would SELECT before every insert. */
+    @Transient
+    private boolean isNew = true;
+
     protected TraceEventEntity() {}
 
     public TraceEventEntity(UUID id, UUID runId, UUID parentEventId, String eventType,
@@ -74,4 +79,11 @@ public class TraceEventEntity {
     public void setDurationMs(Long durationMs) { this.durationMs = durationMs; }
     public void setTokensUsed(Integer tokensUsed) { this.tokensUsed = tokensUsed; }
     public void setMetadata(String metadata) { this.metadata = metadata; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() { this.isNew = false; }
 }
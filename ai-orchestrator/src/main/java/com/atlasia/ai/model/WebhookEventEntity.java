@@ -8,7 +8,9 @@ import java.util.UUID;
 @Table(name = "webhook_events", indexes = {
     @Index(name = "idx_webhook_events_event_type", columnList = "event_type"),
     @Index(name = "idx_webhook_events_processed_at", columnList = "processed_at"),
-    @Index(name = "idx_webhook_events_signature_valid", columnList = "signature_valid")
+    @Index(name = "idx_webhook_events_signature_valid", columnList = "signature_valid"),
+    @Index(name = "idx_webhook_events_delivery_id", columnList = "delivery_id", unique = true),
+    @Index(name = "idx_webhook_events_undispatched", columnList = "dispatched_at, processed_at")
 })
 public class WebhookEventEntity {
 
@@ -29,6 +31,13 @@ public class WebhookEventEntity {
     @Column(name = "processed_at", nullable = false)
     private Instant processedAt;
 
+    @Column(name = "delivery_id", length = 64)
+    private String deliveryId;
+
+    /** Null until the delivery has been dispatched; see WebhookIngestionService's outbox sweep. */
+    @Column(name = "dispatched_at")
+    private Instant dispatchedAt;
+
     protected WebhookEventEntity() {}
 
     public WebhookEventEntity(String eventType, String payload, boolean signatureValid, Instant processedAt) {
@@ -38,9 +47,18 @@ public class WebhookEventEntity {
         this.processedAt = processedAt;
     }
 
+    public WebhookEventEntity(String deliveryId, String eventType, String payload, boolean signatureValid,
+                              Instant processedAt) {
+        this(eventType, payload, signatureValid, processedAt);
+        this.deliveryId = deliveryId;
+    }
+
     public UUID getId() { return id; }
     public String getEventType() { return eventType; }
     public String getPayload() { return payload; }
     public boolean isSignatureValid() { return signatureValid; }
     public Instant getProcessedAt() { return processedAt; }
+    public String getDeliveryId() { return deliveryId; }
+    public Instant getDispatchedAt() { return dispatchedAt; }
+    public void setDispatchedAt(Instant dispatchedAt) { this.dispatchedAt = dispatchedAt; }
 }
@@ -0,0 +1,19 @@
+package com.atlasia.ai.persistence;
+
+import com.atlasia.ai.model.AnalyticsAgentDailyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface AnalyticsAgentDailyRepository extends JpaRepository<AnalyticsAgentDailyEntity, UUID> {
+
+    List<AnalyticsAgentDailyEntity> findByDayBetween(LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM AnalyticsAgentDailyEntity e WHERE e.day = :day")
+    int deleteByDay(LocalDate day);
+}
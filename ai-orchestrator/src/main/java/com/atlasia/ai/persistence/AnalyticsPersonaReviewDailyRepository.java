@@ -0,0 +1,19 @@
+package com.atlasia.ai.persistence;
+
+import com.atlasia.ai.model.AnalyticsPersonaReviewDailyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface AnalyticsPersonaReviewDailyRepository extends JpaRepository<AnalyticsPersonaReviewDailyEntity, UUID> {
+
+    List<AnalyticsPersonaReviewDailyEntity> findByDayBetween(LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM AnalyticsPersonaReviewDailyEntity e WHERE e.day = :day")
+    int deleteByDay(LocalDate day);
+}
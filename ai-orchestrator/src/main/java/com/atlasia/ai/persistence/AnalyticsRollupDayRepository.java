@@ -0,0 +1,18 @@
+package com.atlasia.ai.persistence;
+
+import com.atlasia.ai.model.AnalyticsRollupDayEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AnalyticsRollupDayRepository extends JpaRepository<AnalyticsRollupDayEntity, LocalDate> {
+
+    @Query("SELECT d.day FROM AnalyticsRollupDayEntity d WHERE d.day BETWEEN :from AND :to")
+    List<LocalDate> findDaysBetween(LocalDate from, LocalDate to);
+
+    @Query("SELECT MAX(d.refreshedAt) FROM AnalyticsRollupDayEntity d")
+    Instant findLatestRefreshedAt();
+}
@@ -0,0 +1,20 @@
+package com.atlasia.ai.persistence;
+
+import com.atlasia.ai.model.AnalyticsRollupLockEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+
+public interface AnalyticsRollupLockRepository extends JpaRepository<AnalyticsRollupLockEntity, Integer> {
+
+    /** Empty when another sweep or backfill holds the lock; it will cover those days. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT l FROM AnalyticsRollupLockEntity l WHERE l.id = 1")
+    List<AnalyticsRollupLockEntity> tryLock();
+}
@@ -1,7 +1,6 @@
 package com.atlasia.ai.persistence;
 
 import com.atlasia.ai.model.AuditAccessLogEntity;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,7 +11,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface AuditAccessLogRepository extends JpaRepository<AuditAccessLogEntity, UUID> {
+public interface AuditAccessLogRepository extends HashChainedEventRepository<AuditAccessLogEntity> {
     List<AuditAccessLogEntity> findByUserIdOrderByTimestampDesc(UUID userId);
     
     List<AuditAccessLogEntity> findByResourceTypeAndResourceIdOrderByTimestampDesc(
@@ -1,7 +1,6 @@
 package com.atlasia.ai.persistence;
 
 import com.atlasia.ai.model.AuditAuthenticationEventEntity;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,7 +11,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface AuditAuthenticationEventRepository extends JpaRepository<AuditAuthenticationEventEntity, UUID> {
+public interface AuditAuthenticationEventRepository extends HashChainedEventRepository<AuditAuthenticationEventEntity> {
     List<AuditAuthenticationEventEntity> findByUserIdOrderByTimestampDesc(UUID userId);
     
     List<AuditAuthenticationEventEntity> findByUsernameOrderByTimestampDesc(String username);
@@ -0,0 +1,17 @@
+package com.atlasia.ai.persistence;
+
+import com.atlasia.ai.model.AuditChainCheckpointEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AuditChainCheckpointRepository extends JpaRepository<AuditChainCheckpointEntity, UUID> {
+
+    Optional<AuditChainCheckpointEntity> findTopByTableNameOrderByCreatedAtDesc(String tableName);
+
+    List<AuditChainCheckpointEntity> findByTableNameOrderByCreatedAtAsc(String tableName);
+}
@@ -1,7 +1,6 @@
 package com.atlasia.ai.persistence;
 
 import com.atlasia.ai.model.AuditDataMutationEntity;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,7 +11,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface AuditDataMutationRepository extends JpaRepository<AuditDataMutationEntity, UUID> {
+public interface AuditDataMutationRepository extends HashChainedEventRepository<AuditDataMutationEntity> {
     List<AuditDataMutationEntity> findByUserIdOrderByTimestampDesc(UUID userId);
     
     List<AuditDataMutationEntity> findByEntityTypeAndEntityIdOrderByTimestampDesc(
@@ -1,7 +1,6 @@
 package com.atlasia.ai.persistence;
 
 import com.atlasia.ai.model.CollaborationEventEntity;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,7 +10,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface CollaborationEventRepository extends JpaRepository<CollaborationEventEntity, UUID> {
+public interface CollaborationEventRepository extends HashChainedEventRepository<CollaborationEventEntity> {
     List<CollaborationEventEntity> findByRunIdOrderByTimestampAsc(UUID runId);
     List<CollaborationEventEntity> findTop100ByRunIdOrderByTimestampDesc(UUID runId);
     
@@ -0,0 +1,12 @@
+package com.atlasia.ai.persistence;
+
+import com.atlasia.ai.model.EvalScenarioResultEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface EvalScenarioResultRepository extends JpaRepository<EvalScenarioResultEntity, UUID> {
+
+    List<EvalScenarioResultEntity> findBySuiteRunId(UUID suiteRunId);
+}
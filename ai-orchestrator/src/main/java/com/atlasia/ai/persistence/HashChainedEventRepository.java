@@ -0,0 +1,23 @@
+package com.atlasia.ai.persistence;
+
+import com.atlasia.ai.model.HashChainedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/** Chain lookups shared by the audit tables. */
+@NoRepositoryBean
+public interface HashChainedEventRepository<T extends HashChainedEvent> extends JpaRepository<T, UUID> {
+
+    Optional<T> findTopByChainKeyOrderByChainSeqDesc(String chainKey);
+
+    Optional<T> findByChainKeyAndChainSeq(String chainKey, Long chainSeq);
+
+    /** Rows of the table-wide chain written before chains were sharded. */
+    List<T> findByChainKeyIsNullOrderByTimestampAsc();
+
+    List<T> findByChainKeyIsNotNullOrderByChainKeyAscChainSeqAsc();
+}
@@ -0,0 +1,19 @@
+package com.atlasia.ai.persistence;
+
+import com.atlasia.ai.model.LlmResponseCacheEntryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface LlmResponseCacheRepository extends JpaRepository<LlmResponseCacheEntryEntity, String> {
+
+    Optional<LlmResponseCacheEntryEntity> findByCacheKeyAndExpiresAtAfter(String cacheKey, Instant now);
+
+    @Modifying
+    @Query("DELETE FROM LlmResponseCacheEntryEntity e WHERE e.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
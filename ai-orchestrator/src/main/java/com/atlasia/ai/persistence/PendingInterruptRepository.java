@@ -0,0 +1,17 @@
+package com.atlasia.ai.persistence;
+
+import com.atlasia.ai.model.PendingInterruptEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface PendingInterruptRepository extends JpaRepository<PendingInterruptEntity, UUID> {
+
+    List<PendingInterruptEntity> findByDecisionIsNullOrderByCreatedAtAsc();
+
+    List<PendingInterruptEntity> findByDecisionIsNullAndCreatedAtBefore(Instant cutoff);
+
+    List<PendingInterruptEntity> findByDecisionIsNotNull();
+}
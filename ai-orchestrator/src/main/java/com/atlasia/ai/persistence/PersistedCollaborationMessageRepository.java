@@ -24,9 +24,13 @@ public interface PersistedCollaborationMessageRepository extends JpaRepository<P
     @Query("SELECT MAX(m.sequenceNumber) FROM PersistedCollaborationMessage m WHERE m.runId = :runId")
     Long findMaxSequenceNumberByRunId(UUID runId);
     
+    /** Sequence number of the newest message of a class that falls outside the newest {@code keep}. */
+    @Query(value = "SELECT sequence_number FROM persisted_collaboration_messages WHERE run_id = :runId AND is_critical = :critical ORDER BY sequence_number DESC OFFSET :keep LIMIT 1", nativeQuery = true)
+    Long findRetentionCutoff(UUID runId, boolean critical, int keep);
+    
     @Modifying
-    @Query("DELETE FROM PersistedCollaborationMessage m WHERE m.runId = :runId AND m.sequenceNumber NOT IN (SELECT m2.sequenceNumber FROM PersistedCollaborationMessage m2 WHERE m2.runId = :runId ORDER BY m2.sequenceNumber DESC LIMIT :keepCount)")
-    void deleteOldMessagesKeepingLatest(UUID runId, int keepCount);
+    @Query("DELETE FROM PersistedCollaborationMessage m WHERE m.runId = :runId AND m.isCritical = :critical AND m.sequenceNumber <= :upToSequence")
+    int deleteUpToSequence(UUID runId, boolean critical, long upToSequence);
     
     @Modifying
     @Query("DELETE FROM PersistedCollaborationMessage m WHERE m.timestamp < :cutoffTime")
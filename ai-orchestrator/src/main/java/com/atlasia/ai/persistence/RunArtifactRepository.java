@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface RunArtifactRepository extends JpaRepository<RunArtifactEntity, UUID> {
@@ -15,6 +16,19 @@ public interface RunArtifactRepository extends JpaRepository<RunArtifactEntity,
 
     List<RunArtifactEntity> findByArtifactType(String artifactType);
 
+    /** Distinct (runId, agentName) pairs for runs created in {@code [from, to)}. */
+    @Query("SELECT DISTINCT r.id AS runId, a.agentName AS agentName FROM RunArtifactEntity a JOIN a.run r " +
+            "WHERE r.createdAt >= :from AND r.createdAt < :to")
+    List<Map<String, Object>> findRunAgentsForRunsCreatedBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT a FROM RunArtifactEntity a JOIN a.run r " +
+            "WHERE a.artifactType IN :artifactTypes AND r.createdAt >= :from AND r.createdAt < :to")
+    List<RunArtifactEntity> findByArtifactTypesForRunsCreatedBetween(
+            @Param("artifactTypes") List<String> artifactTypes,
+            @Param("from") Instant from,
+            @Param("to") Instant to
+    );
+
     @Query("SELECT a FROM RunArtifactEntity a WHERE a.artifactType = :artifactType AND a.createdAt BETWEEN :start AND :end")
     List<RunArtifactEntity> findByArtifactTypeAndDateRange(
             @Param("artifactType") String artifactType,
@@ -0,0 +1,20 @@
+package com.atlasia.ai.persistence;
+
+import com.atlasia.ai.model.RunQueueAdmissionEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+
+public interface RunQueueAdmissionRepository extends JpaRepository<RunQueueAdmissionEntity, Integer> {
+
+    /** Empty when another node is mid-admission; that node will fill the free slots. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT a FROM RunQueueAdmissionEntity a WHERE a.id = 1")
+    List<RunQueueAdmissionEntity> tryLock();
+}
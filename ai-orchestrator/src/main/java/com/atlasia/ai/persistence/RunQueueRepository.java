@@ -0,0 +1,40 @@
+package com.atlasia.ai.persistence;
+
+import com.atlasia.ai.model.RunQueueEntryEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface RunQueueRepository extends JpaRepository<RunQueueEntryEntity, UUID> {
+
+    /** Oldest queued runs by lane priority, skipping rows another transaction holds (lock timeout -2 = SKIP LOCKED). */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT q FROM RunQueueEntryEntity q WHERE q.status = 'QUEUED' ORDER BY q.priority ASC, q.enqueuedAt ASC")
+    List<RunQueueEntryEntity> findClaimable(Pageable page);
+
+    @Query("SELECT q.repo, COUNT(q) FROM RunQueueEntryEntity q WHERE q.status = 'LEASED' GROUP BY q.repo")
+    List<Object[]> countLeasedByRepo();
+
+    @Query("SELECT q.lane, COUNT(q) FROM RunQueueEntryEntity q WHERE q.status = 'QUEUED' GROUP BY q.lane")
+    List<Object[]> countQueuedByLane();
+
+    List<RunQueueEntryEntity> findByStatusAndLeaseExpiresAtBefore(String status, Instant now);
+
+    @Modifying
+    @Query("UPDATE RunQueueEntryEntity q SET q.leaseExpiresAt = :expiresAt "
+            + "WHERE q.runId IN :runIds AND q.leaseOwner = :owner AND q.status = 'LEASED'")
+    int extendLeases(@Param("runIds") Collection<UUID> runIds, @Param("owner") String owner,
+                     @Param("expiresAt") Instant expiresAt);
+}
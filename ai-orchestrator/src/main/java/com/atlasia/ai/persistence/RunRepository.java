@@ -3,6 +3,7 @@ package com.atlasia.ai.persistence;
 import com.atlasia.ai.model.RunEntity;
 import com.atlasia.ai.model.RunStatus;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
@@ -24,6 +25,61 @@ public interface RunRepository extends JpaRepository<RunEntity, UUID> {
 
        List<RunEntity> findByCreatedAtBetween(Instant start, Instant end);
 
+       /**
+        * Newest-first page of runs strictly after the keyset {@code (afterCreatedAt, afterId)}
+        * (both null for the first page). Every filter is optional. Served by the
+        * (created_at, id) indexes from V33; the page size comes from {@code page}. The redundant
+        * {@code r.createdAt <= :afterCreatedAt} gives the planner a plain range bound on the index,
+        * which it cannot derive from the OR on its own.
+        */
+       @Query("SELECT r.id AS id, r.repo AS repo, r.issueNumber AS issueNumber, r.goal AS goal, r.mode AS mode, " +
+                     "r.status AS status, r.createdAt AS createdAt, r.updatedAt AS updatedAt, " +
+                     "r.currentAgent AS currentAgent, r.ciFixCount AS ciFixCount, r.e2eFixCount AS e2eFixCount, " +
+                     "r.environmentLifecycle AS environmentLifecycle, r.prunedSteps AS prunedSteps " +
+                     "FROM RunEntity r " +
+                     "WHERE (:repo IS NULL OR r.repo = :repo) " +
+                     "AND (:status IS NULL OR r.status = :status) " +
+                     "AND (:from IS NULL OR r.createdAt >= :from) " +
+                     "AND (:to IS NULL OR r.createdAt < :to) " +
+                     "AND (:afterCreatedAt IS NULL OR (r.createdAt <= :afterCreatedAt " +
+                     "AND (r.createdAt < :afterCreatedAt OR (r.createdAt = :afterCreatedAt AND r.id < :afterId)))) " +
+                     "ORDER BY r.createdAt DESC, r.id DESC")
+       List<RunSummaryView> findSummaryPage(
+                     @Param("repo") String repo,
+                     @Param("status") RunStatus status,
+                     @Param("from") Instant from,
+                     @Param("to") Instant to,
+                     @Param("afterCreatedAt") Instant afterCreatedAt,
+                     @Param("afterId") UUID afterId,
+                     Pageable page);
+
+       /** Runs created in {@code [from, to)} without the jsonb columns; one rollup day of runs. */
+       @Query("SELECT r.id AS id, r.repo AS repo, r.issueNumber AS issueNumber, r.goal AS goal, r.mode AS mode, " +
+                     "r.status AS status, r.createdAt AS createdAt, r.updatedAt AS updatedAt, " +
+                     "r.currentAgent AS currentAgent, r.ciFixCount AS ciFixCount, r.e2eFixCount AS e2eFixCount, " +
+                     "r.environmentLifecycle AS environmentLifecycle, r.prunedSteps AS prunedSteps " +
+                     "FROM RunEntity r WHERE r.createdAt >= :from AND r.createdAt < :to")
+       List<RunSummaryView> findSummariesCreatedBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+       /** Runs created in {@code [from, to)} that needed fix loops, most iterations first. */
+       @Query("SELECT r.id AS id, r.repo AS repo, r.issueNumber AS issueNumber, r.goal AS goal, r.mode AS mode, " +
+                     "r.status AS status, r.createdAt AS createdAt, r.updatedAt AS updatedAt, " +
+                     "r.currentAgent AS currentAgent, r.ciFixCount AS ciFixCount, r.e2eFixCount AS e2eFixCount, " +
+                     "r.environmentLifecycle AS environmentLifecycle, r.prunedSteps AS prunedSteps " +
+                     "FROM RunEntity r WHERE r.createdAt >= :from AND r.createdAt < :to " +
+                     "AND (r.ciFixCount > 0 OR r.e2eFixCount > 0) " +
+                     "ORDER BY (r.ciFixCount + r.e2eFixCount) DESC, r.createdAt DESC")
+       List<RunSummaryView> findTopFixLoopRuns(@Param("from") Instant from, @Param("to") Instant to, Pageable page);
+
+       /** Creation times of runs that reached one of {@code statuses} after {@code since}. */
+       @Query("SELECT r.createdAt FROM RunEntity r WHERE r.updatedAt > :since AND r.status IN :statuses")
+       List<Instant> findCreatedAtOfRunsUpdatedSince(
+                     @Param("since") Instant since,
+                     @Param("statuses") List<RunStatus> statuses);
+
+       @Query("SELECT MIN(r.createdAt) FROM RunEntity r")
+       Instant findEarliestCreatedAt();
+
        @Query("SELECT r FROM RunEntity r WHERE r.status = :status AND r.repo = :repo")
        List<RunEntity> findByStatusAndRepo(@Param("status") RunStatus status, @Param("repo") String repo);
 
@@ -0,0 +1,41 @@
+package com.atlasia.ai.persistence;
+
+import com.atlasia.ai.model.EnvironmentLifecycle;
+import com.atlasia.ai.model.RunStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Column projection of {@code ai_run} for list views. Leaves out the jsonb columns
+ * (environment checkpoint, pending and executed grafts) and the artifacts association, so
+ * listing reads only the narrow columns and never initializes a collection.
+ */
+public interface RunSummaryView {
+
+    UUID getId();
+
+    String getRepo();
+
+    Integer getIssueNumber();
+
+    String getGoal();
+
+    String getMode();
+
+    RunStatus getStatus();
+
+    Instant getCreatedAt();
+
+    Instant getUpdatedAt();
+
+    String getCurrentAgent();
+
+    Integer getCiFixCount();
+
+    Integer getE2eFixCount();
+
+    EnvironmentLifecycle getEnvironmentLifecycle();
+
+    String getPrunedSteps();
+}
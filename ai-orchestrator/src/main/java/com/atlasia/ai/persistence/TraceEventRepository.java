@@ -2,17 +2,86 @@ package com.atlasia.ai.persistence;
 
 import com.atlasia.ai.model.TraceEventEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface TraceEventRepository extends JpaRepository<TraceEventEntity, UUID> {
 
+    /** Parent link of one span; the waterfall is shaped from these before any payload is read. */
+    interface SpanLink {
+        UUID getId();
+        UUID getParentEventId();
+    }
+
+    /** Token and LLM call totals of one agent (null for spans without an agent) in a run. */
+    interface AgentTokenUsage {
+        String getAgentName();
+        Long getTokens();
+        Long getLlmCalls();
+    }
+
+    /** LLM call latency of one agent, optionally within one time bucket. */
+    interface LatencyStats {
+        String getAgentName();
+        Long getBucketStart();
+        Long getCallCount();
+        Double getAvgLatencyMs();
+        Double getP50LatencyMs();
+        Double getP95LatencyMs();
+        Double getP99LatencyMs();
+        Long getTotalTokens();
+    }
+
     List<TraceEventEntity> findByRunIdOrderByStartTimeAsc(UUID runId);
 
     List<TraceEventEntity> findByRunIdAndParentEventIdIsNullOrderByStartTimeAsc(UUID runId);
 
     List<TraceEventEntity> findByParentEventIdOrderByStartTimeAsc(UUID parentEventId);
+
+    @Query("SELECT e.id AS id, e.parentEventId AS parentEventId FROM TraceEventEntity e " +
+            "WHERE e.runId = :runId ORDER BY e.startTime ASC, e.id ASC")
+    List<SpanLink> findLinksByRunId(UUID runId);
+
+    @Query("SELECT e.agentName AS agentName, SUM(e.tokensUsed) AS tokens, " +
+            "SUM(CASE WHEN e.eventType = 'LLM_CALL' THEN 1 ELSE 0 END) AS llmCalls " +
+            "FROM TraceEventEntity e WHERE e.runId = :runId GROUP BY e.agentName")
+    List<AgentTokenUsage> summarizeTokensByAgent(UUID runId);
+
+    @Query(value = "SELECT agent_name AS agentName, CAST(NULL AS BIGINT) AS bucketStart, COUNT(*) AS callCount, " +
+            "AVG(duration_ms) AS avgLatencyMs, " +
+            "PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY duration_ms) AS p50LatencyMs, " +
+            "PERCENTILE_CONT(0.95) WITHIN GROUP (ORDER BY duration_ms) AS p95LatencyMs, " +
+            "PERCENTILE_CONT(0.99) WITHIN GROUP (ORDER BY duration_ms) AS p99LatencyMs, " +
+            "COALESCE(SUM(tokens_used), 0) AS totalTokens " +
+            "FROM ai_trace_event " +
+            "WHERE event_type = 'LLM_CALL' AND duration_ms IS NOT NULL AND agent_name IS NOT NULL " +
+            "AND start_time >= :from AND start_time < :to " +
+            "GROUP BY agent_name ORDER BY agent_name", nativeQuery = true)
+    List<LatencyStats> findLlmLatencyByAgent(Instant from, Instant to);
+
+    /** As {@link #findLlmLatencyByAgent}, per {@code bucketSeconds}-wide bucket (start in epoch seconds). */
+    @Query(value = "SELECT agent_name AS agentName, bucket * :bucketSeconds AS bucketStart, COUNT(*) AS callCount, " +
+            "AVG(duration_ms) AS avgLatencyMs, " +
+            "PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY duration_ms) AS p50LatencyMs, " +
+            "PERCENTILE_CONT(0.95) WITHIN GROUP (ORDER BY duration_ms) AS p95LatencyMs, " +
+            "PERCENTILE_CONT(0.99) WITHIN GROUP (ORDER BY duration_ms) AS p99LatencyMs, " +
+            "COALESCE(SUM(tokens_used), 0) AS totalTokens " +
+            "FROM (SELECT agent_name, duration_ms, tokens_used, " +
+            "CAST(FLOOR(EXTRACT(EPOCH FROM start_time) / :bucketSeconds) AS BIGINT) AS bucket " +
+            "FROM ai_trace_event " +
+            "WHERE event_type = 'LLM_CALL' AND duration_ms IS NOT NULL AND agent_name IS NOT NULL " +
+            "AND start_time >= :from AND start_time < :to) calls " +
+            "GROUP BY agent_name, bucket ORDER BY bucket, agent_name", nativeQuery = true)
+    List<LatencyStats> findLlmLatencyByAgentAndBucket(Instant from, Instant to, long bucketSeconds);
+
+    /** Row-by-row retention, for databases where ai_trace_event is not partitioned. */
+    @Modifying
+    @Query("DELETE FROM TraceEventEntity e WHERE e.startTime < :cutoff")
+    int deleteByStartTimeBefore(Instant cutoff);
 }
@@ -1,11 +1,32 @@
 package com.atlasia.ai.persistence;
 
 import com.atlasia.ai.model.WebhookEventEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface WebhookEventRepository extends JpaRepository<WebhookEventEntity, UUID> {
+
+    @Query("SELECT w.deliveryId FROM WebhookEventEntity w WHERE w.deliveryId IN :deliveryIds")
+    List<String> findExistingDeliveryIds(@Param("deliveryIds") Collection<String> deliveryIds);
+
+    /** Stored deliveries never marked dispatched, received within [{@code after}, {@code before}), oldest first. */
+    @Query("SELECT w FROM WebhookEventEntity w WHERE w.dispatchedAt IS NULL "
+            + "AND w.processedAt < :before AND w.processedAt >= :after ORDER BY w.processedAt ASC")
+    List<WebhookEventEntity> findUndispatched(@Param("before") Instant before, @Param("after") Instant after,
+                                              Pageable page);
+
+    @Modifying
+    @Query("UPDATE WebhookEventEntity w SET w.dispatchedAt = :at "
+            + "WHERE w.deliveryId IN :deliveryIds AND w.dispatchedAt IS NULL")
+    int markDispatched(@Param("deliveryIds") Collection<String> deliveryIds, @Param("at") Instant at);
 }
@@ -0,0 +1,398 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.*;
+import com.atlasia.ai.persistence.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Maintains the daily analytics rollup tables (V34) and serves date ranges from them.
+ *
+ * A day is the UTC day of a run's creation. Closed days are read from the rollup tables only;
+ * reads never write, so a closed day that has not been rolled up yet is simply absent until
+ * {@link #backfillMissingDays()} reaches it. The current day is always computed live from
+ * ai_run / ai_run_artifact, which only touches that day's runs.
+ *
+ * A rollup day is recomputed as a whole, so refreshes are idempotent. {@link #refreshCompletedRuns()}
+ * recomputes the days of runs that reached a terminal status since the previous sweep. It reads
+ * ai_run.updated_at rather than hooking the individual status writers, so runs finished by the
+ * workflow engine, HITL gates, graft execution or a cancel are all picked up. Both jobs rewrite
+ * days only while holding the analytics_rollup_lock row (V41), so they never race on a day.
+ */
+@Service
+public class AnalyticsRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsRollupService.class);
+
+    static final String PERSONA_REVIEW = "persona_review.json";
+    static final String PERSONA_REVIEW_REPORT = "persona_review_report.json";
+    static final List<RunStatus> TERMINAL_STATUSES = List.of(RunStatus.DONE, RunStatus.FAILED, RunStatus.ESCALATED);
+    static final List<String> ANALYTICS_CACHES = List.of(
+            "analytics-runs-summary",
+            "analytics-agents-performance",
+            "analytics-personas-findings",
+            "analytics-fix-loops");
+
+    /** Re-read window before the previous sweep, for runs whose status commit landed late. */
+    private static final Duration SWEEP_OVERLAP = Duration.ofMinutes(5);
+
+    /** Missing days backfilled per lock hold, so a long backfill does not starve the sweep. */
+    static final int BACKFILL_BATCH_DAYS = 31;
+
+    /** Rollup rows for a range of days, closed days and (if in range) today. */
+    public record DailyRollup(
+            List<AnalyticsRunDailyEntity> runs,
+            List<AnalyticsAgentDailyEntity> agents,
+            List<AnalyticsPersonaDailyEntity> personaFindings,
+            List<AnalyticsPersonaReviewDailyEntity> personaReviews) {
+
+        static DailyRollup empty() {
+            return new DailyRollup(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        }
+
+        void addAll(DailyRollup other) {
+            runs.addAll(other.runs);
+            agents.addAll(other.agents);
+            personaFindings.addAll(other.personaFindings);
+            personaReviews.addAll(other.personaReviews);
+        }
+    }
+
+    private final RunRepository runRepository;
+    private final RunArtifactRepository runArtifactRepository;
+    private final AnalyticsRunDailyRepository runDailyRepository;
+    private final AnalyticsAgentDailyRepository agentDailyRepository;
+    private final AnalyticsPersonaDailyRepository personaDailyRepository;
+    private final AnalyticsPersonaReviewDailyRepository personaReviewDailyRepository;
+    private final AnalyticsRollupDayRepository rollupDayRepository;
+    private final AnalyticsRollupLockRepository rollupLockRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate lockTemplate;
+    private final TransactionTemplate dayTemplate;
+    private final CacheManager cacheManager;
+    private final Clock clock;
+
+    private volatile Instant lastSweep;
+
+    @Autowired
+    public AnalyticsRollupService(RunRepository runRepository,
+                                  RunArtifactRepository runArtifactRepository,
+                                  AnalyticsRunDailyRepository runDailyRepository,
+                                  AnalyticsAgentDailyRepository agentDailyRepository,
+                                  AnalyticsPersonaDailyRepository personaDailyRepository,
+                                  AnalyticsPersonaReviewDailyRepository personaReviewDailyRepository,
+                                  AnalyticsRollupDayRepository rollupDayRepository,
+                                  AnalyticsRollupLockRepository rollupLockRepository,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  CacheManager cacheManager) {
+        this(runRepository, runArtifactRepository, runDailyRepository, agentDailyRepository,
+             personaDailyRepository, personaReviewDailyRepository, rollupDayRepository, rollupLockRepository,
+             objectMapper, transactionManager, cacheManager, Clock.systemUTC());
+    }
+
+    AnalyticsRollupService(RunRepository runRepository,
+                           RunArtifactRepository runArtifactRepository,
+                           AnalyticsRunDailyRepository runDailyRepository,
+                           AnalyticsAgentDailyRepository agentDailyRepository,
+                           AnalyticsPersonaDailyRepository personaDailyRepository,
+                           AnalyticsPersonaReviewDailyRepository personaReviewDailyRepository,
+                           AnalyticsRollupDayRepository rollupDayRepository,
+                           AnalyticsRollupLockRepository rollupLockRepository,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           CacheManager cacheManager,
+                           Clock clock) {
+        this.runRepository = runRepository;
+        this.runArtifactRepository = runArtifactRepository;
+        this.runDailyRepository = runDailyRepository;
+        this.agentDailyRepository = agentDailyRepository;
+        this.personaDailyRepository = personaDailyRepository;
+        this.personaReviewDailyRepository = personaReviewDailyRepository;
+        this.rollupDayRepository = rollupDayRepository;
+        this.rollupLockRepository = rollupLockRepository;
+        this.objectMapper = objectMapper;
+        this.lockTemplate = new TransactionTemplate(transactionManager);
+        // Each day commits on its own while the lock transaction stays open around the batch.
+        this.dayTemplate = new TransactionTemplate(transactionManager);
+        this.dayTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.cacheManager = cacheManager;
+        this.clock = clock;
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    public static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    public static LocalDate dayOf(Instant instant) {
+        return instant.atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    /** First day with any run, or null if there are no runs. */
+    public LocalDate firstRunDay() {
+        Instant earliest = runRepository.findEarliestCreatedAt();
+        return earliest != null ? dayOf(earliest) : null;
+    }
+
+    /**
+     * Rollup rows for {@code from..to} inclusive. Closed days come only from the stored rollups,
+     * so a day the backfill has not reached yet contributes nothing; today is computed live.
+     */
+    public DailyRollup load(LocalDate from, LocalDate to) {
+        DailyRollup result = DailyRollup.empty();
+        LocalDate today = today();
+        LocalDate lastClosed = to.isBefore(today) ? to : today.minusDays(1);
+
+        if (!from.isAfter(lastClosed)) {
+            result.runs().addAll(runDailyRepository.findByDayBetween(from, lastClosed));
+            result.agents().addAll(agentDailyRepository.findByDayBetween(from, lastClosed));
+            result.personaFindings().addAll(personaDailyRepository.findByDayBetween(from, lastClosed));
+            result.personaReviews().addAll(personaReviewDailyRepository.findByDayBetween(from, lastClosed));
+        }
+        if (!from.isAfter(today) && !to.isBefore(today)) {
+            result.addAll(compute(today));
+        }
+        return result;
+    }
+
+    /** Recomputes and stores one day's rollup, replacing whatever was there, in its own transaction. */
+    public void refreshDay(LocalDate day) {
+        dayTemplate.executeWithoutResult(status -> {
+            DailyRollup rollup = compute(day);
+            runDailyRepository.deleteByDay(day);
+            agentDailyRepository.deleteByDay(day);
+            personaDailyRepository.deleteByDay(day);
+            personaReviewDailyRepository.deleteByDay(day);
+            runDailyRepository.saveAll(rollup.runs());
+            agentDailyRepository.saveAll(rollup.agents());
+            personaDailyRepository.saveAll(rollup.personaFindings());
+            personaReviewDailyRepository.saveAll(rollup.personaReviews());
+            rollupDayRepository.save(new AnalyticsRollupDayEntity(day, clock.instant()));
+        });
+    }
+
+    /**
+     * Recomputes the closed days of runs that completed since the last sweep, then drops the
+     * cached analytics results so that they pick up both those days and the live current day.
+     */
+    @Scheduled(fixedDelayString = "${atlasia.orchestrator.analytics.rollup-interval-ms:60000}")
+    public void refreshCompletedRuns() {
+        Instant sweepStart = clock.instant();
+        Instant since = lastSweep;
+        if (since == null) {
+            // After a restart, resume from the newest stored rollup rather than from now.
+            Instant latest = rollupDayRepository.findLatestRefreshedAt();
+            since = latest != null ? latest : sweepStart;
+        }
+        since = since.minus(SWEEP_OVERLAP);
+        LocalDate today = today();
+
+        Set<LocalDate> days = new TreeSet<>();
+        runRepository.findCreatedAtOfRunsUpdatedSince(since, TERMINAL_STATUSES).stream()
+                .map(AnalyticsRollupService::dayOf)
+                .filter(day -> day.isBefore(today))
+                .forEach(days::add);
+
+        // Without the lock another node is mid-sweep or backfill; the window is re-read next sweep.
+        Boolean complete = days.isEmpty() ? Boolean.TRUE : withRollupLock(() -> refreshDays(days));
+        if (Boolean.TRUE.equals(complete)) {
+            lastSweep = sweepStart;
+            if (!days.isEmpty()) {
+                log.debug("Refreshed analytics rollups for {} day(s)", days.size());
+            }
+        }
+        evictCaches();
+    }
+
+    /**
+     * Rolls up closed days that have no rollup yet, newest first, so that reads never have to.
+     * Runs shortly after startup and then periodically, which also covers days a failed sweep
+     * or an older node left behind. Work is done in batches of {@link #BACKFILL_BATCH_DAYS}
+     * under the rollup lock; the pass stops at the first batch that cannot take the lock or
+     * fails a day, and the next pass resumes from whatever is still missing.
+     */
+    @Scheduled(fixedDelayString = "${atlasia.orchestrator.analytics.backfill-interval-ms:3600000}",
+               initialDelayString = "${atlasia.orchestrator.analytics.backfill-initial-delay-ms:15000}")
+    public void backfillMissingDays() {
+        LocalDate firstRunDay = firstRunDay();
+        LocalDate lastClosed = today().minusDays(1);
+        if (firstRunDay == null || firstRunDay.isAfter(lastClosed)) {
+            return;
+        }
+        Set<LocalDate> rolledUp = new HashSet<>(rollupDayRepository.findDaysBetween(firstRunDay, lastClosed));
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate day = lastClosed; !day.isBefore(firstRunDay); day = day.minusDays(1)) {
+            if (!rolledUp.contains(day)) {
+                missing.add(day);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        int filled = 0;
+        for (int i = 0; i < missing.size(); i += BACKFILL_BATCH_DAYS) {
+            List<LocalDate> batch = missing.subList(i, Math.min(missing.size(), i + BACKFILL_BATCH_DAYS));
+            Boolean complete = withRollupLock(() -> refreshDays(stillMissing(batch)));
+            if (!Boolean.TRUE.equals(complete)) {
+                break;
+            }
+            filled += batch.size();
+        }
+        if (filled > 0) {
+            log.info("Backfilled analytics rollups for {} of {} missing day(s)", filled, missing.size());
+            evictCaches();
+        }
+    }
+
+    /** Runs {@code job} while holding the analytics_rollup_lock row; null if someone else holds it. */
+    private <T> T withRollupLock(Supplier<T> job) {
+        return lockTemplate.execute(status -> rollupLockRepository.tryLock().isEmpty() ? null : job.get());
+    }
+
+    /** Refreshes each day in its own transaction; false if any of them failed. */
+    private boolean refreshDays(Collection<LocalDate> days) {
+        boolean complete = true;
+        for (LocalDate day : days) {
+            try {
+                refreshDay(day);
+            } catch (RuntimeException e) {
+                complete = false;
+                log.warn("Failed to refresh analytics rollup for {}: {}", day, e.getMessage());
+            }
+        }
+        return complete;
+    }
+
+    /** Days of a newest-first {@code batch} still without a rollup, re-read under the lock. */
+    private List<LocalDate> stillMissing(List<LocalDate> batch) {
+        Set<LocalDate> rolledUp = new HashSet<>(
+                rollupDayRepository.findDaysBetween(batch.get(batch.size() - 1), batch.get(0)));
+        return batch.stream().filter(day -> !rolledUp.contains(day)).toList();
+    }
+
+    /** Aggregates one day straight from the run and artifact tables. */
+    DailyRollup compute(LocalDate day) {
+        Instant from = startOf(day);
+        Instant to = startOf(day.plusDays(1));
+
+        Map<UUID, RunSummaryView> runs = new HashMap<>();
+        for (RunSummaryView run : runRepository.findSummariesCreatedBetween(from, to)) {
+            runs.put(run.getId(), run);
+        }
+        if (runs.isEmpty()) {
+            return DailyRollup.empty();
+        }
+
+        List<RunArtifactEntity> reviews = runArtifactRepository.findByArtifactTypesForRunsCreatedBetween(
+                List.of(PERSONA_REVIEW, PERSONA_REVIEW_REPORT), from, to);
+        Set<UUID> personaReviewedRuns = new HashSet<>();
+        Map<String, AnalyticsPersonaDailyEntity> findings = new LinkedHashMap<>();
+        Map<String, AnalyticsPersonaReviewDailyEntity> reports = new LinkedHashMap<>();
+
+        for (RunArtifactEntity artifact : reviews) {
+            RunSummaryView run = runs.get(artifact.getRun().getId());
+            if (run == null) {
+                continue;
+            }
+            if (PERSONA_REVIEW.equals(artifact.getArtifactType())) {
+                personaReviewedRuns.add(run.getId());
+                addFindings(day, artifact, findings);
+            } else {
+                boolean critical = artifact.getPayload() != null && artifact.getPayload().contains("\"critical\"");
+                reports.computeIfAbsent(artifact.getAgentName(),
+                                name -> new AnalyticsPersonaReviewDailyEntity(day, name))
+                        .addReview(critical, critical && run.getStatus() == RunStatus.DONE);
+            }
+        }
+
+        Map<String, AnalyticsRunDailyEntity> runRows = new LinkedHashMap<>();
+        for (RunSummaryView run : runs.values()) {
+            runRows.computeIfAbsent(run.getRepo() + '\u0000' + run.getStatus(),
+                            key -> new AnalyticsRunDailyEntity(day, run.getRepo(), run.getStatus()))
+                    .addRun(count(run.getCiFixCount()), count(run.getE2eFixCount()),
+                            personaReviewedRuns.contains(run.getId()));
+        }
+
+        Map<String, AnalyticsAgentDailyEntity> agentRows = new LinkedHashMap<>();
+        for (Map<String, Object> pair : runArtifactRepository.findRunAgentsForRunsCreatedBetween(from, to)) {
+            RunSummaryView run = runs.get((UUID) pair.get("runId"));
+            String agentName = (String) pair.get("agentName");
+            if (run == null || agentName == null) {
+                continue;
+            }
+            long duration = run.getUpdatedAt() != null
+                    ? Math.max(0, Duration.between(run.getCreatedAt(), run.getUpdatedAt()).getSeconds())
+                    : 0;
+            agentRows.computeIfAbsent(agentName, name -> new AnalyticsAgentDailyEntity(day, name))
+                    .addRun(run.getStatus() == RunStatus.DONE, count(run.getCiFixCount()),
+                            count(run.getE2eFixCount()), duration);
+        }
+
+        return new DailyRollup(new ArrayList<>(runRows.values()), new ArrayList<>(agentRows.values()),
+                new ArrayList<>(findings.values()), new ArrayList<>(reports.values()));
+    }
+
+    private void addFindings(LocalDate day, RunArtifactEntity artifact,
+                             Map<String, AnalyticsPersonaDailyEntity> findings) {
+        try {
+            JsonNode payload = objectMapper.readTree(artifact.getPayload());
+            JsonNode personas = payload.get("findings");
+            if (personas == null || !personas.isArray()) {
+                return;
+            }
+            for (JsonNode finding : personas) {
+                String personaName = finding.has("personaName") ? finding.get("personaName").asText() : "Unknown";
+                String personaRole = finding.has("personaRole") ? finding.get("personaRole").asText() : "Unknown";
+                JsonNode issues = finding.get("issues");
+                if (issues == null || !issues.isArray()) {
+                    continue;
+                }
+                for (JsonNode issue : issues) {
+                    String severity = issue.has("severity") ? issue.get("severity").asText().toLowerCase() : "unknown";
+                    boolean mandatory = issue.has("mandatory") && issue.get("mandatory").asBoolean();
+                    findings.computeIfAbsent(personaName + '\u0000' + severity,
+                                    key -> new AnalyticsPersonaDailyEntity(day, personaName, personaRole, severity))
+                            .addFinding(mandatory);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to parse persona review artifact: {}", artifact.getId(), e);
+        }
+    }
+
+    private void evictCaches() {
+        for (String name : ANALYTICS_CACHES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static int count(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -1,65 +1,74 @@
 package com.atlasia.ai.service;
 
 import com.atlasia.ai.api.dto.*;
-import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.AnalyticsAgentDailyEntity;
+import com.atlasia.ai.model.AnalyticsPersonaDailyEntity;
+import com.atlasia.ai.model.AnalyticsRunDailyEntity;
 import com.atlasia.ai.model.RunStatus;
-import com.atlasia.ai.persistence.RunArtifactRepository;
 import com.atlasia.ai.persistence.RunRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.atlasia.ai.persistence.RunSummaryView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * Run, agent, persona and fix-loop analytics over whole UTC days, served from the daily rollups
+ * maintained by {@link AnalyticsRollupService}. Requested instants are widened to the days that
+ * contain them, and cache keys are those days, so repeated dashboard queries hit the cache.
+ */
 @Service
 public class AnalyticsService {
 
     private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
 
+    private static final int FIX_LOOP_PATTERN_LIMIT = 100;
+
+    private final AnalyticsRollupService rollupService;
     private final RunRepository runRepository;
-    private final RunArtifactRepository runArtifactRepository;
-    private final ObjectMapper objectMapper;
 
-    public AnalyticsService(RunRepository runRepository, RunArtifactRepository runArtifactRepository, ObjectMapper objectMapper) {
+    public AnalyticsService(AnalyticsRollupService rollupService, RunRepository runRepository) {
+        this.rollupService = rollupService;
         this.runRepository = runRepository;
-        this.runArtifactRepository = runArtifactRepository;
-        this.objectMapper = objectMapper;
     }
 
-    @Cacheable(value = "analytics-runs-summary", key = "#startDate?.toString() + '-' + #endDate?.toString()")
-    public RunsSummaryDto getRunsSummary(Instant startDate, Instant endDate) {
-        log.info("Computing runs summary for period: {} to {}", startDate, endDate);
+    /** Cache key for a requested period: the first and last UTC day it covers. */
+    public static String cacheKey(Instant startDate, Instant endDate) {
+        return firstDay(startDate) + ".." + lastDay(endDate);
+    }
 
-        Instant effectiveStart = startDate != null ? startDate : Instant.now().minus(30, ChronoUnit.DAYS);
-        Instant effectiveEnd = endDate != null ? endDate : Instant.now();
+    @Cacheable(value = "analytics-runs-summary",
+            key = "T(com.atlasia.ai.service.AnalyticsService).cacheKey(#startDate, #endDate)")
+    public RunsSummaryDto getRunsSummary(Instant startDate, Instant endDate) {
+        LocalDate from = firstDay(startDate);
+        LocalDate to = lastDay(endDate);
+        log.info("Computing runs summary for days {} to {}", from, to);
 
-        List<RunEntity> runs = runRepository.findByCreatedAtBetween(effectiveStart, effectiveEnd);
+        Instant effectiveStart = AnalyticsRollupService.startOf(from);
+        Instant effectiveEnd = AnalyticsRollupService.startOf(to.plusDays(1));
+        List<AnalyticsRunDailyEntity> rows = rollupService.load(from, to).runs();
 
-        long totalRuns = runs.size();
+        long totalRuns = rows.stream().mapToLong(AnalyticsRunDailyEntity::getRunCount).sum();
         if (totalRuns == 0) {
             return new RunsSummaryDto(0, 0.0, 0.0, 0.0, Map.of(), Map.of(), effectiveStart, effectiveEnd);
         }
 
-        long successCount = runs.stream().filter(r -> r.getStatus() == RunStatus.DONE).count();
-        long failureCount = runs.stream().filter(r -> r.getStatus() == RunStatus.FAILED).count();
-        long escalatedCount = runs.stream().filter(r -> r.getStatus() == RunStatus.ESCALATED).count();
+        Map<String, Long> statusBreakdown = rows.stream()
+                .collect(Collectors.groupingBy(r -> r.getStatus().name(),
+                        Collectors.summingLong(AnalyticsRunDailyEntity::getRunCount)));
 
-        double successRate = (double) successCount / totalRuns;
-        double failureRate = (double) failureCount / totalRuns;
-        double escalationRate = (double) escalatedCount / totalRuns;
+        double successRate = (double) statusBreakdown.getOrDefault(RunStatus.DONE.name(), 0L) / totalRuns;
+        double failureRate = (double) statusBreakdown.getOrDefault(RunStatus.FAILED.name(), 0L) / totalRuns;
+        double escalationRate = (double) statusBreakdown.getOrDefault(RunStatus.ESCALATED.name(), 0L) / totalRuns;
 
-        Map<String, Long> statusBreakdown = runs.stream()
-                .collect(Collectors.groupingBy(r -> r.getStatus().name(), Collectors.counting()));
-
-        Map<String, RunsSummaryDto.TimeSeriesData> timeSeriesData = buildTimeSeriesData(runs, effectiveStart, effectiveEnd);
+        Map<String, RunsSummaryDto.TimeSeriesData> timeSeriesData = buildTimeSeriesData(rows, from, to);
 
         return new RunsSummaryDto(
                 totalRuns,
@@ -73,42 +82,35 @@ public class AnalyticsService {
         );
     }
 
-    @Cacheable(value = "analytics-agents-performance", key = "#startDate?.toString() + '-' + #endDate?.toString()")
+    @Cacheable(value = "analytics-agents-performance",
+            key = "T(com.atlasia.ai.service.AnalyticsService).cacheKey(#startDate, #endDate)")
     public AgentsPerformanceDto getAgentsPerformance(Instant startDate, Instant endDate) {
-        log.info("Computing agents performance for period: {} to {}", startDate, endDate);
-
-        Instant effectiveStart = startDate != null ? startDate : Instant.now().minus(30, ChronoUnit.DAYS);
-        Instant effectiveEnd = endDate != null ? endDate : Instant.now();
+        LocalDate from = firstDay(startDate);
+        LocalDate to = lastDay(endDate);
+        log.info("Computing agents performance for days {} to {}", from, to);
 
-        List<Map<String, Object>> agentMetricsData;
-        if (startDate != null && endDate != null) {
-            agentMetricsData = runRepository.getAgentPerformanceMetricsByDateRange(effectiveStart, effectiveEnd);
-        } else {
-            agentMetricsData = runRepository.getAgentPerformanceMetrics();
-        }
+        Map<String, List<AnalyticsAgentDailyEntity>> byAgent = rollupService.load(from, to).agents().stream()
+                .collect(Collectors.groupingBy(AnalyticsAgentDailyEntity::getAgentName));
 
-        List<AgentsPerformanceDto.AgentMetrics> agentMetrics = agentMetricsData.stream()
-                .map(data -> {
-                    String agentName = (String) data.get("agentName");
-                    long totalRuns = ((Number) data.get("totalRuns")).longValue();
-                    long successfulRuns = ((Number) data.get("successfulRuns")).longValue();
-                    double successRate = ((Number) data.get("successRate")).doubleValue();
-                    double avgCiFix = ((Number) data.getOrDefault("avgCiFix", 0.0)).doubleValue();
-                    double avgE2eFix = ((Number) data.getOrDefault("avgE2eFix", 0.0)).doubleValue();
-
-                    double avgDuration = calculateAverageDuration(agentName, effectiveStart, effectiveEnd);
-                    double errorRate = 1.0 - successRate;
+        List<AgentsPerformanceDto.AgentMetrics> agentMetrics = byAgent.entrySet().stream()
+                .map(entry -> {
+                    List<AnalyticsAgentDailyEntity> days = entry.getValue();
+                    long totalRuns = days.stream().mapToLong(AnalyticsAgentDailyEntity::getRunCount).sum();
+                    long successfulRuns = days.stream().mapToLong(AnalyticsAgentDailyEntity::getSuccessCount).sum();
+                    double successRate = ratio(successfulRuns, totalRuns);
 
                     return new AgentsPerformanceDto.AgentMetrics(
-                            agentName,
+                            entry.getKey(),
                             totalRuns,
-                            avgDuration,
-                            errorRate,
+                            ratio(days.stream().mapToLong(AnalyticsAgentDailyEntity::getDurationSecondsTotal).sum(), totalRuns),
+                            1.0 - successRate,
                             successRate,
-                            avgCiFix,
-                            avgE2eFix
+                            ratio(days.stream().mapToLong(AnalyticsAgentDailyEntity::getCiFixTotal).sum(), totalRuns),
+                            ratio(days.stream().mapToLong(AnalyticsAgentDailyEntity::getE2eFixTotal).sum(), totalRuns)
                     );
                 })
+                .sorted(Comparator.comparing(AgentsPerformanceDto.AgentMetrics::totalRuns).reversed()
+                        .thenComparing(AgentsPerformanceDto.AgentMetrics::agentName))
                 .collect(Collectors.toList());
 
         double overallAvgDuration = agentMetrics.stream()
@@ -124,72 +126,43 @@ public class AnalyticsService {
         return new AgentsPerformanceDto(agentMetrics, overallAvgDuration, overallErrorRate);
     }
 
-    @Cacheable(value = "analytics-personas-findings", key = "#startDate?.toString() + '-' + #endDate?.toString()")
+    @Cacheable(value = "analytics-personas-findings",
+            key = "T(com.atlasia.ai.service.AnalyticsService).cacheKey(#startDate, #endDate)")
     public PersonasFindingsDto getPersonasFindings(Instant startDate, Instant endDate) {
-        log.info("Computing personas findings for period: {} to {}", startDate, endDate);
-
-        Instant effectiveStart = startDate != null ? startDate : Instant.now().minus(30, ChronoUnit.DAYS);
-        Instant effectiveEnd = endDate != null ? endDate : Instant.now();
+        LocalDate from = firstDay(startDate);
+        LocalDate to = lastDay(endDate);
+        log.info("Computing personas findings for days {} to {}", from, to);
 
-        var personaArtifacts = runArtifactRepository.findByArtifactTypeAndDateRange(
-                "persona_review.json", effectiveStart, effectiveEnd);
+        AnalyticsRollupService.DailyRollup rollup = rollupService.load(from, to);
 
-        Map<String, PersonaFindingsData> personaDataMap = new HashMap<>();
+        Map<String, PersonaFindingsData> personaDataMap = new LinkedHashMap<>();
+        Map<String, Long> severityCounts = new HashMap<>();
         long totalFindings = 0;
         long mandatoryFindings = 0;
-        Map<String, Long> severityCounts = new HashMap<>();
 
-        for (var artifact : personaArtifacts) {
-            try {
-                JsonNode payload = objectMapper.readTree(artifact.getPayload());
-                JsonNode findings = payload.get("findings");
-
-                if (findings != null && findings.isArray()) {
-                    for (JsonNode finding : findings) {
-                        String personaName = finding.has("personaName") ? finding.get("personaName").asText() : "Unknown";
-                        String personaRole = finding.has("personaRole") ? finding.get("personaRole").asText() : "Unknown";
-
-                        PersonaFindingsData data = personaDataMap.computeIfAbsent(personaName,
-                                k -> new PersonaFindingsData(personaName, personaRole));
-
-                        JsonNode issues = finding.get("issues");
-                        if (issues != null && issues.isArray()) {
-                            for (JsonNode issue : issues) {
-                                String severity = issue.has("severity") ? issue.get("severity").asText().toLowerCase() : "unknown";
-                                boolean mandatory = issue.has("mandatory") && issue.get("mandatory").asBoolean();
-
-                                data.totalFindings++;
-                                totalFindings++;
-
-                                if (mandatory) {
-                                    data.mandatoryFindings++;
-                                    mandatoryFindings++;
-                                }
-
-                                severityCounts.merge(severity, 1L, Long::sum);
-
-                                switch (severity) {
-                                    case "critical" -> data.criticalFindings++;
-                                    case "high" -> data.highFindings++;
-                                    case "medium" -> data.mediumFindings++;
-                                    case "low" -> data.lowFindings++;
-                                }
-                            }
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                log.error("Failed to parse persona review artifact: {}", artifact.getId(), e);
+        for (AnalyticsPersonaDailyEntity row : rollup.personaFindings()) {
+            PersonaFindingsData data = personaDataMap.computeIfAbsent(row.getPersonaName(),
+                    k -> new PersonaFindingsData(row.getPersonaName(), row.getPersonaRole()));
+
+            data.totalFindings += row.getFindingCount();
+            data.mandatoryFindings += row.getMandatoryCount();
+            totalFindings += row.getFindingCount();
+            mandatoryFindings += row.getMandatoryCount();
+            severityCounts.merge(row.getSeverity(), row.getFindingCount(), Long::sum);
+
+            switch (row.getSeverity()) {
+                case "critical" -> data.criticalFindings += row.getFindingCount();
+                case "high" -> data.highFindings += row.getFindingCount();
+                case "medium" -> data.mediumFindings += row.getFindingCount();
+                case "low" -> data.lowFindings += row.getFindingCount();
             }
         }
 
-        long totalRunsWithPersonaReviews = personaArtifacts.stream()
-                .map(a -> a.getRun().getId())
-                .distinct()
-                .count();
+        long totalRunsWithPersonaReviews = rollup.runs().stream()
+                .mapToLong(AnalyticsRunDailyEntity::getPersonaReviewedRuns)
+                .sum();
 
         final long finalTotalFindings = totalFindings;
-        final long finalMandatoryFindings = mandatoryFindings;
 
         List<PersonasFindingsDto.PersonaStatistics> personaStats = personaDataMap.values().stream()
                 .map(data -> new PersonasFindingsDto.PersonaStatistics(
@@ -201,7 +174,7 @@ public class AnalyticsService {
                         data.mediumFindings,
                         data.lowFindings,
                         data.mandatoryFindings,
-                        totalRunsWithPersonaReviews > 0 ? (double) data.totalFindings / totalRunsWithPersonaReviews : 0.0
+                        ratio(data.totalFindings, totalRunsWithPersonaReviews)
                 ))
                 .sorted(Comparator.comparing(PersonasFindingsDto.PersonaStatistics::totalFindings).reversed())
                 .collect(Collectors.toList());
@@ -215,110 +188,89 @@ public class AnalyticsService {
                         )
                 ));
 
-        return new PersonasFindingsDto(personaStats, severityBreakdown, finalTotalFindings, finalMandatoryFindings);
+        return new PersonasFindingsDto(personaStats, severityBreakdown, totalFindings, mandatoryFindings);
     }
 
-    @Cacheable(value = "analytics-fix-loops", key = "#startDate?.toString() + '-' + #endDate?.toString()")
+    @Cacheable(value = "analytics-fix-loops",
+            key = "T(com.atlasia.ai.service.AnalyticsService).cacheKey(#startDate, #endDate)")
     public FixLoopsDto getFixLoops(Instant startDate, Instant endDate) {
-        log.info("Computing fix loops for period: {} to {}", startDate, endDate);
-
-        Instant effectiveStart = startDate != null ? startDate : Instant.now().minus(30, ChronoUnit.DAYS);
-        Instant effectiveEnd = endDate != null ? endDate : Instant.now();
-
-        List<RunEntity> runs = runRepository.findByCreatedAtBetween(effectiveStart, effectiveEnd);
-
-        List<FixLoopsDto.FixLoopPattern> patterns = runs.stream()
-                .filter(r -> r.getCiFixCount() > 0 || r.getE2eFixCount() > 0)
-                .map(r -> {
-                    int totalIterations = r.getCiFixCount() + r.getE2eFixCount();
-                    String pattern = determineFixPattern(r.getCiFixCount(), r.getE2eFixCount());
-
-                    return new FixLoopsDto.FixLoopPattern(
-                            r.getRepo(),
-                            r.getIssueNumber(),
-                            r.getCiFixCount(),
-                            r.getE2eFixCount(),
-                            totalIterations,
-                            r.getStatus().name(),
-                            pattern
-                    );
-                })
-                .sorted(Comparator.comparing(FixLoopsDto.FixLoopPattern::totalIterations).reversed())
-                .limit(100)
+        LocalDate from = firstDay(startDate);
+        LocalDate to = lastDay(endDate);
+        log.info("Computing fix loops for days {} to {}", from, to);
+
+        // Only the top patterns are returned, so let the database pick them.
+        List<FixLoopsDto.FixLoopPattern> patterns = runRepository.findTopFixLoopRuns(
+                        AnalyticsRollupService.startOf(from), AnalyticsRollupService.startOf(to.plusDays(1)),
+                        PageRequest.of(0, FIX_LOOP_PATTERN_LIMIT)).stream()
+                .map(this::toFixLoopPattern)
                 .collect(Collectors.toList());
 
+        List<AnalyticsRunDailyEntity> rows = rollupService.load(from, to).runs();
+        long totalRuns = rows.stream().mapToLong(AnalyticsRunDailyEntity::getRunCount).sum();
+        long ciFixTotal = rows.stream().mapToLong(AnalyticsRunDailyEntity::getCiFixTotal).sum();
+        long e2eFixTotal = rows.stream().mapToLong(AnalyticsRunDailyEntity::getE2eFixTotal).sum();
+
         Map<String, FixLoopsDto.LoopStatistics> loopStatistics = new HashMap<>();
 
-        List<RunEntity> ciLoopRuns = runs.stream().filter(r -> r.getCiFixCount() > 0).collect(Collectors.toList());
-        if (!ciLoopRuns.isEmpty()) {
-            long ciSuccessCount = ciLoopRuns.stream().filter(r -> r.getStatus() == RunStatus.DONE).count();
+        long ciLoopRuns = rows.stream().mapToLong(AnalyticsRunDailyEntity::getCiLoopRuns).sum();
+        if (ciLoopRuns > 0) {
+            long ciSuccessCount = rows.stream()
+                    .filter(r -> r.getStatus() == RunStatus.DONE)
+                    .mapToLong(AnalyticsRunDailyEntity::getCiLoopRuns)
+                    .sum();
             loopStatistics.put("ci", new FixLoopsDto.LoopStatistics(
-                    ciLoopRuns.size(),
-                    ciLoopRuns.stream().mapToInt(RunEntity::getCiFixCount).average().orElse(0.0),
-                    ciLoopRuns.stream().mapToInt(RunEntity::getCiFixCount).max().orElse(0),
-                    (double) ciSuccessCount / ciLoopRuns.size()
+                    ciLoopRuns,
+                    (double) ciFixTotal / ciLoopRuns,
+                    rows.stream().mapToInt(AnalyticsRunDailyEntity::getCiFixMax).max().orElse(0),
+                    (double) ciSuccessCount / ciLoopRuns
             ));
         }
 
-        List<RunEntity> e2eLoopRuns = runs.stream().filter(r -> r.getE2eFixCount() > 0).collect(Collectors.toList());
-        if (!e2eLoopRuns.isEmpty()) {
-            long e2eSuccessCount = e2eLoopRuns.stream().filter(r -> r.getStatus() == RunStatus.DONE).count();
+        long e2eLoopRuns = rows.stream().mapToLong(AnalyticsRunDailyEntity::getE2eLoopRuns).sum();
+        if (e2eLoopRuns > 0) {
+            long e2eSuccessCount = rows.stream()
+                    .filter(r -> r.getStatus() == RunStatus.DONE)
+                    .mapToLong(AnalyticsRunDailyEntity::getE2eLoopRuns)
+                    .sum();
             loopStatistics.put("e2e", new FixLoopsDto.LoopStatistics(
-                    e2eLoopRuns.size(),
-                    e2eLoopRuns.stream().mapToInt(RunEntity::getE2eFixCount).average().orElse(0.0),
-                    e2eLoopRuns.stream().mapToInt(RunEntity::getE2eFixCount).max().orElse(0),
-                    (double) e2eSuccessCount / e2eLoopRuns.size()
+                    e2eLoopRuns,
+                    (double) e2eFixTotal / e2eLoopRuns,
+                    rows.stream().mapToInt(AnalyticsRunDailyEntity::getE2eFixMax).max().orElse(0),
+                    (double) e2eSuccessCount / e2eLoopRuns
             ));
         }
 
-        double avgCiIterations = runs.stream().mapToInt(RunEntity::getCiFixCount).average().orElse(0.0);
-        double avgE2eIterations = runs.stream().mapToInt(RunEntity::getE2eFixCount).average().orElse(0.0);
-
-        long runsWithMultipleCi = runs.stream().filter(r -> r.getCiFixCount() > 1).count();
-        long runsWithMultipleE2e = runs.stream().filter(r -> r.getE2eFixCount() > 1).count();
-
         return new FixLoopsDto(
                 patterns,
                 loopStatistics,
-                avgCiIterations,
-                avgE2eIterations,
-                runsWithMultipleCi,
-                runsWithMultipleE2e
+                ratio(ciFixTotal, totalRuns),
+                ratio(e2eFixTotal, totalRuns),
+                rows.stream().mapToLong(AnalyticsRunDailyEntity::getMultiCiRuns).sum(),
+                rows.stream().mapToLong(AnalyticsRunDailyEntity::getMultiE2eRuns).sum()
         );
     }
 
-    private Map<String, RunsSummaryDto.TimeSeriesData> buildTimeSeriesData(List<RunEntity> runs, Instant start, Instant end) {
-        Map<LocalDate, List<RunEntity>> runsByDate = runs.stream()
-                .collect(Collectors.groupingBy(r -> r.getCreatedAt().atZone(ZoneId.systemDefault()).toLocalDate()));
+    private Map<String, RunsSummaryDto.TimeSeriesData> buildTimeSeriesData(List<AnalyticsRunDailyEntity> rows,
+                                                                           LocalDate from, LocalDate to) {
+        Map<LocalDate, Map<RunStatus, Long>> countsByDate = rows.stream()
+                .collect(Collectors.groupingBy(AnalyticsRunDailyEntity::getDay,
+                        Collectors.groupingBy(AnalyticsRunDailyEntity::getStatus,
+                                Collectors.summingLong(AnalyticsRunDailyEntity::getRunCount))));
 
         Map<String, Long> runCountByDate = new LinkedHashMap<>();
         Map<String, Double> successRateByDate = new LinkedHashMap<>();
         Map<String, Double> failureRateByDate = new LinkedHashMap<>();
         Map<String, Double> escalationRateByDate = new LinkedHashMap<>();
 
-        LocalDate startDate = start.atZone(ZoneId.systemDefault()).toLocalDate();
-        LocalDate endDate = end.atZone(ZoneId.systemDefault()).toLocalDate();
-
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
             String dateStr = date.toString();
-            List<RunEntity> dailyRuns = runsByDate.getOrDefault(date, Collections.emptyList());
+            Map<RunStatus, Long> daily = countsByDate.getOrDefault(date, Map.of());
 
-            long dailyTotal = dailyRuns.size();
+            long dailyTotal = daily.values().stream().mapToLong(Long::longValue).sum();
             runCountByDate.put(dateStr, dailyTotal);
-
-            if (dailyTotal > 0) {
-                long dailySuccess = dailyRuns.stream().filter(r -> r.getStatus() == RunStatus.DONE).count();
-                long dailyFailure = dailyRuns.stream().filter(r -> r.getStatus() == RunStatus.FAILED).count();
-                long dailyEscalated = dailyRuns.stream().filter(r -> r.getStatus() == RunStatus.ESCALATED).count();
-
-                successRateByDate.put(dateStr, (double) dailySuccess / dailyTotal);
-                failureRateByDate.put(dateStr, (double) dailyFailure / dailyTotal);
-                escalationRateByDate.put(dateStr, (double) dailyEscalated / dailyTotal);
-            } else {
-                successRateByDate.put(dateStr, 0.0);
-                failureRateByDate.put(dateStr, 0.0);
-                escalationRateByDate.put(dateStr, 0.0);
-            }
+            successRateByDate.put(dateStr, ratio(daily.getOrDefault(RunStatus.DONE, 0L), dailyTotal));
+            failureRateByDate.put(dateStr, ratio(daily.getOrDefault(RunStatus.FAILED, 0L), dailyTotal));
+            escalationRateByDate.put(dateStr, ratio(daily.getOrDefault(RunStatus.ESCALATED, 0L), dailyTotal));
         }
 
         RunsSummaryDto.TimeSeriesData timeSeriesData = new RunsSummaryDto.TimeSeriesData(
@@ -331,20 +283,30 @@ public class AnalyticsService {
         return Map.of("daily", timeSeriesData);
     }
 
-    private double calculateAverageDuration(String agentName, Instant start, Instant end) {
-        List<Map<String, Object>> durationData = runRepository.getAverageDurationByRepoAndStatus(start, end);
+    private FixLoopsDto.FixLoopPattern toFixLoopPattern(RunSummaryView run) {
+        int ciFixCount = run.getCiFixCount() != null ? run.getCiFixCount() : 0;
+        int e2eFixCount = run.getE2eFixCount() != null ? run.getE2eFixCount() : 0;
+        return new FixLoopsDto.FixLoopPattern(
+                run.getRepo(),
+                run.getIssueNumber() != null ? run.getIssueNumber() : 0,
+                ciFixCount,
+                e2eFixCount,
+                ciFixCount + e2eFixCount,
+                run.getStatus().name(),
+                determineFixPattern(ciFixCount, e2eFixCount)
+        );
+    }
 
-        double totalDuration = 0.0;
-        int count = 0;
+    private static LocalDate firstDay(Instant startDate) {
+        return AnalyticsRollupService.dayOf(startDate != null ? startDate : Instant.now().minus(30, ChronoUnit.DAYS));
+    }
 
-        for (Map<String, Object> data : durationData) {
-            if (data.get("avgDurationSeconds") != null) {
-                totalDuration += ((Number) data.get("avgDurationSeconds")).doubleValue();
-                count++;
-            }
-        }
+    private static LocalDate lastDay(Instant endDate) {
+        return AnalyticsRollupService.dayOf(endDate != null ? endDate : Instant.now());
+    }
 
-        return count > 0 ? totalDuration / count : 0.0;
+    private static double ratio(long numerator, long denominator) {
+        return denominator > 0 ? (double) numerator / denominator : 0.0;
     }
 
     private String determineFixPattern(int ciFixCount, int e2eFixCount) {
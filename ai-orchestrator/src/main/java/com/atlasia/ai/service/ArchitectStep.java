@@ -89,7 +89,7 @@ public class ArchitectStep implements AgentStep {
                 }
             }
 
-            tryFetchKeyFiles(context, repoContext);
+            tryFetchKeyFiles(context, repoContext, baseSha);
 
         } catch (Exception e) {
             log.warn("Failed to gather full repository context: {}", e.getMessage(), e);
@@ -135,12 +135,12 @@ public class ArchitectStep implements AgentStep {
         return categorized;
     }
 
-    private void tryFetchKeyFiles(RunContext context, StringBuilder repoContext) {
-        tryAppendRepoFile(context, repoContext, "AGENTS.md", List.of("AGENTS.md"));
-        tryAppendRepoFile(context, repoContext, "README.md", List.of("README.md"));
-        tryAppendRepoFile(context, repoContext, "pom.xml", List.of("pom.xml", "ai-orchestrator/pom.xml"));
+    private void tryFetchKeyFiles(RunContext context, StringBuilder repoContext, String commitSha) {
+        tryAppendRepoFile(context, repoContext, commitSha, "AGENTS.md", List.of("AGENTS.md"));
+        tryAppendRepoFile(context, repoContext, commitSha, "README.md", List.of("README.md"));
+        tryAppendRepoFile(context, repoContext, commitSha, "pom.xml", List.of("pom.xml", "ai-orchestrator/pom.xml"));
         tryAppendRepoFile(
-                context, repoContext, "package.json", List.of("package.json", "frontend/package.json"));
+                context, repoContext, commitSha, "package.json", List.of("package.json", "frontend/package.json"));
     }
 
     /**
@@ -148,11 +148,12 @@ public class ArchitectStep implements AgentStep {
      * Never propagate — optional context for the architect prompt only.
      */
     private void tryAppendRepoFile(
-            RunContext context, StringBuilder repoContext, String displayLabel, List<String> pathCandidates) {
+            RunContext context, StringBuilder repoContext, String commitSha, String displayLabel,
+            List<String> pathCandidates) {
         for (String path : pathCandidates) {
             try {
                 Map<String, Object> fileContent = gitHubApiClient.getRepoContent(
-                        context.getOwner(), context.getRepo(), path);
+                        context.getOwner(), context.getRepo(), path, commitSha);
                 if (fileContent == null) {
                     continue;
                 }
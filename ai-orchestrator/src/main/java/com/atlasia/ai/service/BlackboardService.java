@@ -2,8 +2,6 @@ package com.atlasia.ai.service;
 
 import com.atlasia.ai.model.RunArtifactEntity;
 import com.atlasia.ai.model.RunEntity;
-import com.atlasia.ai.persistence.RunArtifactRepository;
-import com.atlasia.ai.persistence.RunRepository;
 import com.atlasia.ai.service.event.WorkflowEvent;
 import com.atlasia.ai.service.event.WorkflowEventBus;
 import com.atlasia.ai.service.observability.CorrelationIdHolder;
@@ -36,8 +34,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class BlackboardService {
     private static final Logger log = LoggerFactory.getLogger(BlackboardService.class);
 
-    private final RunRepository runRepository;
-    private final RunArtifactRepository artifactRepository;
+    private final RunStateService runStateService;
     private final JsonSchemaValidator schemaValidator;
     private final OrchestratorMetrics metrics;
     private final WorkflowEventBus eventBus;
@@ -105,14 +102,12 @@ public class BlackboardService {
     private final ConcurrentHashMap<String, Integer> versionTracker = new ConcurrentHashMap<>();
 
     public BlackboardService(
-            RunRepository runRepository,
-            RunArtifactRepository artifactRepository,
+            RunStateService runStateService,
             JsonSchemaValidator schemaValidator,
             OrchestratorMetrics metrics,
             WorkflowEventBus eventBus,
             TraceEventService traceEventService) {
-        this.runRepository = runRepository;
-        this.artifactRepository = artifactRepository;
+        this.runStateService = runStateService;
         this.schemaValidator = schemaValidator;
         this.metrics = metrics;
         this.eventBus = eventBus;
@@ -161,10 +156,9 @@ public class BlackboardService {
         String versionKey = runId + ":" + entryKey;
         int version = versionTracker.merge(versionKey, 1, Integer::sum);
 
-        // Persist to database
+        // Persist to database — insert the artifact row only; the run row (and its version) is untouched
         RunArtifactEntity artifact = new RunArtifactEntity(agentName, entryKey, payload, Instant.now());
-        runEntity.addArtifact(artifact);
-        runRepository.save(runEntity);
+        runStateService.appendArtifact(runEntity, artifact);
 
         metrics.recordBlackboardWrite(entryKey, agentName);
 
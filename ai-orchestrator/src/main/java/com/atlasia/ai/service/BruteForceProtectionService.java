@@ -2,6 +2,7 @@ package com.atlasia.ai.service;
 
 import com.atlasia.ai.model.UserEntity;
 import com.atlasia.ai.persistence.UserRepository;
+import com.atlasia.ai.service.auth.AuthenticatedPrincipalCache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import io.micrometer.core.instrument.Counter;
@@ -28,6 +29,7 @@ public class BruteForceProtectionService {
     
     private final UserRepository userRepository;
     private final JavaMailSender mailSender;
+    private final AuthenticatedPrincipalCache principalCache;
     private final Cache<String, FailedLoginAttempt> failedLoginCache;
     private final Counter blockedAccountCounter;
     private final Counter failedLoginCounter;
@@ -35,9 +37,11 @@ public class BruteForceProtectionService {
     public BruteForceProtectionService(
             UserRepository userRepository,
             @Autowired(required = false) JavaMailSender mailSender,
-            MeterRegistry meterRegistry) {
+            MeterRegistry meterRegistry,
+            AuthenticatedPrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.mailSender = mailSender;
+        this.principalCache = principalCache;
         this.failedLoginCache = Caffeine.newBuilder()
                 .expireAfterWrite(LOCK_DURATION_MINUTES, TimeUnit.MINUTES)
                 .maximumSize(10000)
@@ -101,6 +105,7 @@ public class BruteForceProtectionService {
         userRepository.findByUsername(username).ifPresent(user -> {
             user.setLocked(false);
             userRepository.save(user);
+            principalCache.evictUsername(username);
             failedLoginCache.invalidate(username);
             logger.info("Account unlocked: {}", username);
         });
@@ -110,6 +115,7 @@ public class BruteForceProtectionService {
         userRepository.findByUsername(username).ifPresent(user -> {
             user.setLocked(true);
             userRepository.save(user);
+            principalCache.evictUsername(username);
         });
     }
 
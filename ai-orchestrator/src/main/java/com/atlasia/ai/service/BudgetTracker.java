@@ -11,10 +11,15 @@ import java.time.ZoneOffset;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Tracks estimated LLM spend per workflow run and per UTC day; downgrades tier when soft caps are hit.
+ * Prompt tokens served from provider caches are priced at the leg's cached-input rate and tallied
+ * per run next to the uncached ones; tokens written to a provider cache are priced at the leg's
+ * cache-write rate. Spend avoided by {@link LlmResponseCache} hits is tracked alongside actual
+ * spend. Per-run entries are dropped by {@link #releaseRun(UUID)} once the run ends.
  */
 @Service
 public class BudgetTracker {
@@ -23,8 +28,11 @@ public class BudgetTracker {
     private final OrchestratorMetrics metrics;
 
     private final ConcurrentHashMap<UUID, Double> spendByRunUsd = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, PromptTokenTally> promptTokensByRun = new ConcurrentHashMap<>();
     private final AtomicReference<LocalDate> utcDay = new AtomicReference<>(LocalDate.now(ZoneOffset.UTC));
     private final AtomicReference<Double> spendDayUsd = new AtomicReference<>(0.0);
+    private final ConcurrentHashMap<UUID, Double> cacheSavedByRunUsd = new ConcurrentHashMap<>();
+    private final AtomicReference<Double> cacheSavedDayUsd = new AtomicReference<>(0.0);
 
     public BudgetTracker(ModelTierProperties modelTierProperties, OrchestratorMetrics metrics) {
         this.modelTierProperties = modelTierProperties;
@@ -63,19 +71,52 @@ public class BudgetTracker {
             int outputTokens,
             ModelTierProperties.LegDefinition leg,
             String providerId) {
+        recordUsage(inputTokens, 0, outputTokens, leg, providerId);
+    }
+
+    public void recordUsage(
+            int inputTokens,
+            int cachedInputTokens,
+            int outputTokens,
+            ModelTierProperties.LegDefinition leg,
+            String providerId) {
+        recordUsage(inputTokens, cachedInputTokens, 0, outputTokens, leg, providerId);
+    }
+
+    /**
+     * @param inputTokens           all prompt tokens, cache reads and writes included
+     * @param cachedInputTokens     prompt tokens the provider served from its prefix cache
+     * @param cacheWriteInputTokens prompt tokens the provider wrote to its prefix cache
+     */
+    public void recordUsage(
+            int inputTokens,
+            int cachedInputTokens,
+            int cacheWriteInputTokens,
+            int outputTokens,
+            ModelTierProperties.LegDefinition leg,
+            String providerId) {
         rotateDayIfNeeded();
+        UUID runId = parseRunId();
+        int cached = Math.max(0, Math.min(cachedInputTokens, inputTokens));
+        if (inputTokens > 0) {
+            double savedUsd = leg != null
+                    ? (cached / 1000.0) * (leg.getCostPer1kInput() - leg.getCostPer1kCachedInput())
+                    : 0.0;
+            metrics.recordPromptCacheUsage(providerId, cached, inputTokens - cached, savedUsd);
+            if (runId != null) {
+                promptTokensByRun.computeIfAbsent(runId, k -> new PromptTokenTally()).add(cached, inputTokens - cached);
+            }
+        }
+
         double costUsd = 0.0;
         if (leg != null && (inputTokens > 0 || outputTokens > 0)) {
-            costUsd =
-                    (inputTokens / 1000.0) * leg.getCostPer1kInput()
-                            + (outputTokens / 1000.0) * leg.getCostPer1kOutput();
+            costUsd = leg.estimateCostUsd(inputTokens, cached, cacheWriteInputTokens, outputTokens);
         }
         if (costUsd <= 0) {
             return;
         }
 
         final double addUsd = costUsd;
-        UUID runId = parseRunId();
         if (runId != null) {
             spendByRunUsd.merge(runId, addUsd, Double::sum);
         }
@@ -87,6 +128,33 @@ public class BudgetTracker {
         metrics.recordCostAttribution(repo, userId != null ? userId : "unknown", addUsd);
     }
 
+    /** Records spend avoided because a response was served from the LLM response cache. */
+    public void recordResponseCacheSavings(double usd) {
+        if (usd <= 0) {
+            return;
+        }
+        rotateDayIfNeeded();
+        UUID runId = parseRunId();
+        if (runId != null) {
+            cacheSavedByRunUsd.merge(runId, usd, Double::sum);
+        }
+        cacheSavedDayUsd.updateAndGet(v -> v + usd);
+        metrics.recordLlmResponseCacheSavings(usd);
+    }
+
+    /**
+     * Drops the per-run tallies of a finished run. The daily totals keep its spend; the run's own
+     * figures are no longer served by {@link #snapshot(UUID)}.
+     */
+    public void releaseRun(UUID runId) {
+        if (runId == null) {
+            return;
+        }
+        spendByRunUsd.remove(runId);
+        promptTokensByRun.remove(runId);
+        cacheSavedByRunUsd.remove(runId);
+    }
+
     /** Snapshot for {@code GET /api/budget} (MDC {@code runId} when no override). */
     public BudgetSnapshot snapshot() {
         return snapshot(null);
@@ -99,6 +167,7 @@ public class BudgetTracker {
         rotateDayIfNeeded();
         UUID runId = runIdOverride != null ? runIdOverride : parseRunId();
         ModelTierProperties.Budget b = modelTierProperties.getBudget();
+        PromptTokenTally tally = runId != null ? promptTokensByRun.get(runId) : null;
         return new BudgetSnapshot(
                 runId,
                 runId != null ? spendByRunUsd.getOrDefault(runId, 0.0) : 0.0,
@@ -106,7 +175,11 @@ public class BudgetTracker {
                 spendDayUsd.get(),
                 b.getMaxDailyUsd(),
                 b.getDowngradeThreshold(),
-                Map.copyOf(modelTierProperties.getAgentComplexity()));
+                Map.copyOf(modelTierProperties.getAgentComplexity()),
+                tally != null ? tally.cached.get() : 0L,
+                tally != null ? tally.uncached.get() : 0L,
+                runId != null ? cacheSavedByRunUsd.getOrDefault(runId, 0.0) : 0.0,
+                cacheSavedDayUsd.get());
     }
 
     private void rotateDayIfNeeded() {
@@ -114,6 +187,7 @@ public class BudgetTracker {
         LocalDate prev = utcDay.get();
         if (!today.equals(prev) && utcDay.compareAndSet(prev, today)) {
             spendDayUsd.set(0.0);
+            cacheSavedDayUsd.set(0.0);
         }
     }
 
@@ -136,5 +210,19 @@ public class BudgetTracker {
             double spentDayUsd,
             double maxDayUsd,
             double downgradeThreshold,
-            Map<String, String> agentComplexityKeys) {}
+            Map<String, String> agentComplexityKeys,
+            long cachedInputTokensRun,
+            long uncachedInputTokensRun,
+            double cacheSavedRunUsd,
+            double cacheSavedDayUsd) {}
+
+    private static final class PromptTokenTally {
+        private final AtomicLong cached = new AtomicLong();
+        private final AtomicLong uncached = new AtomicLong();
+
+        void add(int cachedTokens, int uncachedTokens) {
+            cached.addAndGet(cachedTokens);
+            uncached.addAndGet(uncachedTokens);
+        }
+    }
 }
@@ -13,6 +13,7 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class ChatService {
@@ -42,6 +43,22 @@ public class ChatService {
     }
 
     public String chat(String userId, String personaName, String message) {
+        AiPrompt prompt = buildPrompt(userId, personaName, message);
+        String reply = aiProviderRouter.call(personaName, prompt).content();
+        return recordTurn(userId, personaName, message, reply);
+    }
+
+    /**
+     * Same turn as {@link #chat}, streamed: {@code onToken} receives reply text as the provider
+     * generates it. Memory and handoff detection run once the full reply is in.
+     */
+    public String chatStream(String userId, String personaName, String message, Consumer<String> onToken) {
+        AiPrompt prompt = buildPrompt(userId, personaName, message);
+        String reply = aiProviderRouter.stream(personaName, prompt, onToken).content();
+        return recordTurn(userId, personaName, message, reply);
+    }
+
+    private AiPrompt buildPrompt(String userId, String personaName, String message) {
         String systemPrompt = resolveSystemPrompt(personaName);
 
         List<ConversationTurnEntity> history = memoryService.getContextWindow(userId, personaName);
@@ -51,10 +68,10 @@ public class ChatService {
         }
 
         log.debug("Chat: user={} persona={} historyTurns={}", userId, personaName, history.size());
+        return new AiPrompt(systemPrompt, message, histMaps);
+    }
 
-        var response = aiProviderRouter.call(personaName, new AiPrompt(systemPrompt, message, histMaps));
-        String reply = response.content();
-
+    private String recordTurn(String userId, String personaName, String message, String reply) {
         memoryService.saveTurns(userId, personaName, message, reply);
 
         detectAndRecordHandoff(userId, personaName, message, reply);
@@ -0,0 +1,101 @@
+package com.atlasia.ai.service;
+
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared registry of CI completion signals keyed by {@code (repo, headSha)}.
+ *
+ * WebhookController feeds it from {@code check_run}, {@code check_suite} and
+ * {@code workflow_run} deliveries; TesterStep awaits a future here between check-run
+ * polls instead of sleeping on a fixed backoff. A signal is only a wake-up: the tester
+ * still reads the check runs once to decide whether every run has completed.
+ *
+ * Signals that arrive between a poll and the subsequent wait are kept for a short time
+ * so they are not missed. Repos that have delivered CI webhooks recently are reported as
+ * webhook-active, which lets the tester switch to sparse fallback polling.
+ */
+@Service
+public class CheckRunCompletionRegistry {
+
+    static final Duration SIGNAL_RETENTION = Duration.ofMinutes(30);
+    static final Duration WEBHOOK_ACTIVITY_WINDOW = Duration.ofHours(6);
+    private static final int MAX_TRACKED_KEYS = 10_000;
+
+    private final ConcurrentHashMap<String, CompletableFuture<String>> waiters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Instant> lastSignalByKey = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Instant> lastDeliveryByRepo = new ConcurrentHashMap<>();
+
+    /**
+     * Return a future that completes with the signalling event type once a completion
+     * for {@code (repoFullName, headSha)} is received. If a signal already arrived after
+     * {@code since}, the returned future is already complete.
+     */
+    public CompletableFuture<String> awaitCompletion(String repoFullName, String headSha, Instant since) {
+        String key = key(repoFullName, headSha);
+        CompletableFuture<String> future = waiters.computeIfAbsent(key, k -> new CompletableFuture<>());
+        Instant signalled = lastSignalByKey.get(key);
+        if (signalled != null && !signalled.isBefore(since)) {
+            waiters.remove(key, future);
+            future.complete("recent");
+        }
+        return future;
+    }
+
+    /** Drop a waiter that gave up (timeout); a no-op if it was already completed. */
+    public void release(String repoFullName, String headSha, CompletableFuture<String> future) {
+        waiters.remove(key(repoFullName, headSha), future);
+    }
+
+    /**
+     * Record a CI completion for {@code (repoFullName, headSha)} and wake any waiter.
+     *
+     * @return true if a tester was waiting on this commit
+     */
+    public boolean signalCompletion(String repoFullName, String headSha, String source) {
+        String key = key(repoFullName, headSha);
+        evictIfFull();
+        lastSignalByKey.put(key, Instant.now());
+        CompletableFuture<String> future = waiters.remove(key);
+        if (future != null) {
+            future.complete(source);
+            return true;
+        }
+        return false;
+    }
+
+    /** Note that CI webhooks are being delivered for this repo. */
+    public void recordDelivery(String repoFullName) {
+        lastDeliveryByRepo.put(repoFullName.toLowerCase(Locale.ROOT), Instant.now());
+    }
+
+    /** True when CI webhooks for the repo were seen within {@link #WEBHOOK_ACTIVITY_WINDOW}. */
+    public boolean isWebhookActive(String repoFullName) {
+        Instant last = lastDeliveryByRepo.get(repoFullName.toLowerCase(Locale.ROOT));
+        return last != null && last.isAfter(Instant.now().minus(WEBHOOK_ACTIVITY_WINDOW));
+    }
+
+    public int pendingWaiters() {
+        return waiters.size();
+    }
+
+    private void evictIfFull() {
+        if (lastSignalByKey.size() < MAX_TRACKED_KEYS) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(SIGNAL_RETENTION);
+        lastSignalByKey.values().removeIf(t -> t.isBefore(cutoff));
+        if (lastSignalByKey.size() >= MAX_TRACKED_KEYS) {
+            lastSignalByKey.clear();
+        }
+    }
+
+    private static String key(String repoFullName, String headSha) {
+        return repoFullName.toLowerCase(Locale.ROOT) + "@" + headSha;
+    }
+}
@@ -6,28 +6,50 @@ import com.atlasia.ai.model.PersistedCollaborationMessage;
 import com.atlasia.ai.model.RunEntity;
 import com.atlasia.ai.persistence.CollaborationEventRepository;
 import com.atlasia.ai.persistence.PersistedCollaborationMessageRepository;
-import com.atlasia.ai.persistence.RunRepository;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Scope;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Real-time collaboration on a run: CRDT mutations, presence and cursors, broadcast over STOMP
+ * and persisted for replay and the HTTP polling fallback.
+ *
+ * Critical messages (GRAFT, PRUNE, FLAG) are written in the mutation's transaction; presence
+ * and cursor messages are queued and inserted in batches. Retention never runs on the write
+ * path: each write only bumps a per-run counter, and a periodic pass trims runs that received
+ * writes down to the newest N messages of each class with one indexed range delete.
+ */
 @Service
 public class CollaborationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CollaborationService.class);
+
     private final CollaborationEventRepository eventRepository;
     private final PersistedCollaborationMessageRepository messageRepository;
-    private final RunRepository runRepository;
     private final SimpMessagingTemplate messagingTemplate;
     private final ObjectMapper objectMapper;
     private final WebSocketConnectionMonitor connectionMonitor;
@@ -36,19 +58,33 @@ public class CollaborationService {
     private final CrdtSyncService crdtSyncService;
     private final CrdtSnapshotService crdtSnapshotService;
     private final Tracer tracer;
+    private final OrchestratorMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    private final RunStateService runStateService;
     
     private final Map<UUID, Set<String>> activeUsers = new ConcurrentHashMap<>();
     private final Map<UUID, Map<String, String>> cursorPositions = new ConcurrentHashMap<>();
     private final Map<UUID, AtomicLong> sequenceCounters = new ConcurrentHashMap<>();
+    /**
+     * Sequence numbers handed to persisted messages that are not yet visible in the table (queued
+     * presence, or a critical message whose transaction has not committed). Readers stop below the
+     * lowest of them so a polling cursor never passes a message that is still on its way.
+     */
+    private final Map<UUID, ConcurrentSkipListSet<Long>> unflushedSequences = new ConcurrentHashMap<>();
     private final Map<UUID, AtomicLong> lamportClocks = new ConcurrentHashMap<>();
+    private final Map<UUID, AtomicLong> untrimmedWrites = new ConcurrentHashMap<>();
+    private final AtomicLong retentionLag = new AtomicLong();
+    private final BlockingQueue<PersistedCollaborationMessage> pendingMessages;
+    private final int criticalRetention;
+    private final int presenceRetention;
+    private final int flushBatchSize;
     
-    private static final int MAX_PERSISTED_MESSAGES_PER_RUN = 1000;
     private static final Set<String> CRITICAL_EVENT_TYPES = Set.of("GRAFT", "PRUNE", "FLAG");
+    private static final Set<String> PERSISTED_PRESENCE_EVENT_TYPES = Set.of("USER_JOIN", "USER_LEAVE", "CURSOR_MOVE");
 
     public CollaborationService(
             CollaborationEventRepository eventRepository,
             PersistedCollaborationMessageRepository messageRepository,
-            RunRepository runRepository,
             SimpMessagingTemplate messagingTemplate,
             ObjectMapper objectMapper,
             WebSocketConnectionMonitor connectionMonitor,
@@ -56,10 +92,16 @@ public class CollaborationService {
             CrdtDocumentManager crdtDocumentManager,
             CrdtSyncService crdtSyncService,
             CrdtSnapshotService crdtSnapshotService,
-            Tracer tracer) {
+            Tracer tracer,
+            OrchestratorMetrics metrics,
+            PlatformTransactionManager transactionManager,
+            RunStateService runStateService,
+            @Value("${atlasia.orchestrator.collaboration.critical-retention:1000}") int criticalRetention,
+            @Value("${atlasia.orchestrator.collaboration.presence-retention:200}") int presenceRetention,
+            @Value("${atlasia.orchestrator.collaboration.queue-capacity:10000}") int queueCapacity,
+            @Value("${atlasia.orchestrator.collaboration.flush-batch-size:200}") int flushBatchSize) {
         this.eventRepository = eventRepository;
         this.messageRepository = messageRepository;
-        this.runRepository = runRepository;
         this.messagingTemplate = messagingTemplate;
         this.objectMapper = objectMapper;
         this.connectionMonitor = connectionMonitor;
@@ -68,6 +110,13 @@ public class CollaborationService {
         this.crdtSyncService = crdtSyncService;
         this.crdtSnapshotService = crdtSnapshotService;
         this.tracer = tracer;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.runStateService = runStateService;
+        this.criticalRetention = Math.max(1, criticalRetention);
+        this.presenceRetention = Math.max(1, presenceRetention);
+        this.pendingMessages = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.flushBatchSize = Math.max(1, flushBatchSize);
     }
 
     @Transactional
@@ -292,22 +341,57 @@ public class CollaborationService {
         message.put("lamportTimestamp", lamportTimestamp);
         message.put("data", data);
 
-        long sequenceNumber = getNextSequenceNumber(runId);
+        boolean isCritical = CRITICAL_EVENT_TYPES.contains(eventType);
+        boolean persisted = isCritical || PERSISTED_PRESENCE_EVENT_TYPES.contains(eventType);
+        long sequenceNumber = getNextSequenceNumber(runId, persisted);
         message.put("sequenceNumber", sequenceNumber);
 
-        boolean isCritical = CRITICAL_EVENT_TYPES.contains(eventType);
-        if (isCritical) {
-            persistMessage(runId, userId, eventType, data, now, sequenceNumber, true, lamportTimestamp);
+        if (persisted) {
+            persistMessage(runId, userId, eventType, data, now, sequenceNumber, isCritical, lamportTimestamp);
         }
 
         messagingTemplate.convertAndSend("/topic/runs/" + runId + "/collaboration", message);
     }
     
-    private long getNextSequenceNumber(UUID runId) {
-        return sequenceCounters.computeIfAbsent(runId, k -> {
+    /**
+     * @param persisted whether the message will be written; its number is then held as unflushed
+     *                  until {@link #releaseSequence} so readers do not skip past it
+     */
+    private long getNextSequenceNumber(UUID runId, boolean persisted) {
+        AtomicLong counter = sequenceCounters.computeIfAbsent(runId, k -> {
             Long maxSeq = messageRepository.findMaxSequenceNumberByRunId(runId);
             return new AtomicLong(maxSeq != null ? maxSeq : 0L);
-        }).incrementAndGet();
+        });
+        if (!persisted) {
+            return counter.incrementAndGet();
+        }
+        // Allocation and registration happen together so a reader never sees a gap that is not
+        // yet registered.
+        synchronized (counter) {
+            long seq = counter.incrementAndGet();
+            unflushedSequences.computeIfAbsent(runId, k -> new ConcurrentSkipListSet<>()).add(seq);
+            return seq;
+        }
+    }
+
+    private void releaseSequence(UUID runId, long sequenceNumber) {
+        ConcurrentSkipListSet<Long> pending = unflushedSequences.get(runId);
+        if (pending != null) {
+            pending.remove(sequenceNumber);
+        }
+    }
+
+    /** Lowest sequence number of the run that may still appear in the table, or {@code Long.MAX_VALUE}. */
+    private long lowestUnflushedSequence(UUID runId) {
+        AtomicLong counter = sequenceCounters.get(runId);
+        ConcurrentSkipListSet<Long> pending = unflushedSequences.get(runId);
+        if (counter == null || pending == null) {
+            return Long.MAX_VALUE;
+        }
+        synchronized (counter) {
+            Long lowest = pending.isEmpty() ? null : pending.first();
+            return lowest != null ? lowest : Long.MAX_VALUE;
+        }
     }
     
     private long incrementLamportClock(UUID runId) {
@@ -329,63 +413,158 @@ public class CollaborationService {
         PersistedCollaborationMessage message = new PersistedCollaborationMessage(
             runId, userId, eventType, messageData, timestamp, sequenceNumber, isCritical
         );
-        messageRepository.save(message);
-        
-        cleanupOldMessages(runId);
+        if (isCritical) {
+            try {
+                messageRepository.save(message);
+                recordWrites(runId, 1);
+            } finally {
+                releaseAfterCommit(runId, sequenceNumber);
+            }
+        } else if (!pendingMessages.offer(message)) {
+            // Presence is re-sent on the next move or join; losing some under overload is fine.
+            releaseSequence(runId, sequenceNumber);
+            metrics.recordCollaborationMessagesDropped(1);
+        }
+    }
+
+    /** Critical messages are saved inside the mutation's transaction and only become readable on commit. */
+    private void releaseAfterCommit(UUID runId, long sequenceNumber) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            releaseSequence(runId, sequenceNumber);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                releaseSequence(runId, sequenceNumber);
+            }
+        });
     }
     
-    private void cleanupOldMessages(UUID runId) {
-        List<PersistedCollaborationMessage> messages = 
-            messageRepository.findByRunIdOrderBySequenceNumberDesc(runId);
-        if (messages.size() > MAX_PERSISTED_MESSAGES_PER_RUN) {
-            messageRepository.deleteOldMessagesKeepingLatest(runId, MAX_PERSISTED_MESSAGES_PER_RUN);
+    /** Inserts queued presence and cursor messages; the JPA batch size turns each chunk into a few JDBC batches. */
+    @Scheduled(fixedDelayString = "${atlasia.orchestrator.collaboration.flush-interval-ms:1000}")
+    public void flushPendingMessages() {
+        while (true) {
+            List<PersistedCollaborationMessage> batch = new ArrayList<>(flushBatchSize);
+            if (pendingMessages.drainTo(batch, flushBatchSize) == 0) {
+                break;
+            }
+            try {
+                messageRepository.saveAll(batch);
+                Map<UUID, Integer> perRun = new HashMap<>();
+                batch.forEach(m -> perRun.merge(m.getRunId(), 1, Integer::sum));
+                perRun.forEach(this::recordWrites);
+            } catch (Exception e) {
+                logger.warn("Failed to persist {} collaboration messages: {}", batch.size(), e.getMessage());
+                metrics.recordCollaborationMessagesDropped(batch.size());
+            } finally {
+                batch.forEach(m -> releaseSequence(m.getRunId(), m.getSequenceNumber()));
+            }
+        }
+        metrics.updateCollaborationRetentionLag(retentionLag.get());
+    }
+    
+    /**
+     * Trims every run written to since the last pass to the newest messages of each class. The
+     * cutoff comes from the (run_id, sequence_number) index, so the cost is bounded by the
+     * retention size rather than by how many messages the run has ever had.
+     */
+    @Scheduled(fixedDelayString = "${atlasia.orchestrator.collaboration.retention-interval-ms:30000}")
+    public void trimRetainedMessages() {
+        for (UUID runId : new ArrayList<>(untrimmedWrites.keySet())) {
+            AtomicLong writes = untrimmedWrites.remove(runId);
+            if (writes == null) {
+                continue;
+            }
+            long pending = writes.get();
+            try {
+                Integer deleted = transactionTemplate.execute(status ->
+                        trimClass(runId, true, criticalRetention) + trimClass(runId, false, presenceRetention));
+                if (deleted != null && deleted > 0) {
+                    metrics.recordCollaborationMessagesTrimmed(deleted);
+                    logger.debug("Trimmed {} collaboration messages for run {}", deleted, runId);
+                }
+                retentionLag.addAndGet(-pending);
+            } catch (Exception e) {
+                untrimmedWrites.computeIfAbsent(runId, k -> new AtomicLong()).addAndGet(pending);
+                logger.warn("Failed to trim collaboration messages for run {}: {}", runId, e.getMessage());
+            }
         }
+        metrics.updateCollaborationRetentionLag(retentionLag.get());
+    }
+    
+    private int trimClass(UUID runId, boolean critical, int keep) {
+        Long cutoff = messageRepository.findRetentionCutoff(runId, critical, keep);
+        return cutoff == null ? 0 : messageRepository.deleteUpToSequence(runId, critical, cutoff);
+    }
+    
+    private void recordWrites(UUID runId, int count) {
+        untrimmedWrites.computeIfAbsent(runId, k -> new AtomicLong()).addAndGet(count);
+        retentionLag.addAndGet(count);
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushPendingMessages();
     }
     
+    /**
+     * Messages are cut off below the lowest sequence number still waiting to be flushed, so a
+     * caller that polls with the highest sequence it has seen picks the queued ones up next time.
+     */
     public List<PersistedCollaborationMessage> getPersistedMessages(UUID runId, Long afterSequence) {
-        if (afterSequence == null) {
-            return messageRepository.findByRunIdOrderBySequenceNumberDesc(runId);
+        long visibleBelow = lowestUnflushedSequence(runId);
+        List<PersistedCollaborationMessage> messages = afterSequence == null
+                ? messageRepository.findByRunIdOrderBySequenceNumberDesc(runId)
+                : messageRepository.findByRunIdAfterSequence(runId, afterSequence);
+        if (visibleBelow == Long.MAX_VALUE) {
+            return messages;
         }
-        return messageRepository.findByRunIdAfterSequence(runId, afterSequence);
+        return messages.stream()
+                .filter(m -> m.getSequenceNumber() < visibleBelow)
+                .toList();
     }
     
     public List<PersistedCollaborationMessage> getCriticalMessages(UUID runId) {
         return messageRepository.findCriticalMessagesByRunId(runId);
     }
 
+    /**
+     * The run row is written through {@link RunStateService#update}, in its own transaction with
+     * version-conflict retry, so a graft or prune racing the workflow engine's step commits is
+     * merged into the fresh row instead of failing the mutation.
+     */
     private void applyGraftToRun(UUID runId, CrdtDocumentState state) {
-        runRepository.findById(runId).ifPresent(run -> {
-            try {
-                List<Map<String, Object>> graftsList = new ArrayList<>();
-                for (CrdtDocumentState.GraftOperation graft : state.getGrafts()) {
-                    Map<String, Object> graftMap = new HashMap<>();
-                    graftMap.put("id", graft.getId());
-                    graftMap.put("after", graft.getAfter());
-                    graftMap.put("agentName", graft.getAgentName());
-                    graftMap.put("timestamp", graft.getTimestamp());
-                    graftMap.put("userId", graft.getUserId());
-                    graftsList.add(graftMap);
-                }
-                
-                String updated = objectMapper.writeValueAsString(graftsList);
-                run.setPendingGrafts(updated);
-                runRepository.save(run);
-            } catch (JsonProcessingException e) {
-                // Log error
-            }
-        });
+        List<Map<String, Object>> graftsList = new ArrayList<>();
+        for (CrdtDocumentState.GraftOperation graft : state.getGrafts()) {
+            Map<String, Object> graftMap = new HashMap<>();
+            graftMap.put("id", graft.getId());
+            graftMap.put("after", graft.getAfter());
+            graftMap.put("agentName", graft.getAgentName());
+            graftMap.put("timestamp", graft.getTimestamp());
+            graftMap.put("userId", graft.getUserId());
+            graftsList.add(graftMap);
+        }
+        String updated;
+        try {
+            updated = objectMapper.writeValueAsString(graftsList);
+        } catch (JsonProcessingException e) {
+            logger.warn("Failed to serialize grafts for run {}: {}", runId, e.getMessage());
+            return;
+        }
+        runStateService.update(runId, run -> run.setPendingGrafts(updated));
     }
 
     private void applyPruneToRun(UUID runId, CrdtDocumentState state) {
-        runRepository.findWithLockById(runId).ifPresent(run -> {
+        Set<String> crdtPruned = new HashSet<>(state.getPrunedSteps());
+        runStateService.update(runId, run -> {
             // Union-merge: add CRDT prune steps to any already-persisted steps (G-Set semantics).
-            // Prevents lost-update when two concurrent prune mutations race to persist.
-            Set<String> merged = new HashSet<>(state.getPrunedSteps());
+            // Re-applied to the fresh row on a version-conflict retry, so no prune is lost.
+            Set<String> merged = new HashSet<>(crdtPruned);
             if (run.getPrunedSteps() != null && !run.getPrunedSteps().isEmpty()) {
                 merged.addAll(Arrays.asList(run.getPrunedSteps().split(",")));
             }
             run.setPrunedSteps(String.join(",", merged));
-            runRepository.save(run);
         });
     }
 
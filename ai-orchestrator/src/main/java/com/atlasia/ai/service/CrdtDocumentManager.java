@@ -1,134 +1,163 @@
 package com.atlasia.ai.service;
 
 import com.atlasia.ai.model.CrdtDocumentState;
+import com.atlasia.ai.service.crdt.CrdtBinaryCodec;
+import com.atlasia.ai.service.crdt.DeltaCrdtDocument;
+import com.atlasia.ai.service.crdt.HybridLogicalClock;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
 
+/**
+ * Per-run collaboration documents, held as {@link DeltaCrdtDocument}s.
+ *
+ * Every mutation returns only its delta, encoded with {@link CrdtBinaryCodec}; peers join deltas
+ * in any order and converge. Cross-region catch-up goes through {@link #versionVector(UUID)} and
+ * {@link #deltaSince(UUID, Map)} so a peer only receives what it has not seen.
+ */
 @Component
 public class CrdtDocumentManager {
-    
-    private final Map<UUID, CrdtDocument> documents = new ConcurrentHashMap<>();
+
+    private static final Logger logger = LoggerFactory.getLogger(CrdtDocumentManager.class);
+
+    private final Map<UUID, DeltaCrdtDocument> documents = new ConcurrentHashMap<>();
     private final ObjectMapper objectMapper;
-    
+    private final String replicaId;
+    private final HybridLogicalClock clock;
+
+    @Autowired
     public CrdtDocumentManager(ObjectMapper objectMapper) {
+        // A fresh suffix per process: counters restart at the context maximum of each document,
+        // and a restarted node must never reissue a dot a peer already holds under the same id.
+        this(objectMapper,
+             System.getenv().getOrDefault("REGION", "us-east-1") + "/"
+                 + String.format("%08x", ThreadLocalRandom.current().nextInt()),
+             System::currentTimeMillis);
+    }
+
+    CrdtDocumentManager(ObjectMapper objectMapper, String replicaId, LongSupplier physicalClock) {
         this.objectMapper = objectMapper;
+        this.replicaId = replicaId;
+        this.clock = new HybridLogicalClock(replicaId, physicalClock);
     }
-    
-    public CrdtDocument getOrCreateDocument(UUID runId) {
-        return documents.computeIfAbsent(runId, id -> new CrdtDocument());
+
+    public DeltaCrdtDocument getOrCreateDocument(UUID runId) {
+        return documents.computeIfAbsent(runId, id -> new DeltaCrdtDocument());
     }
-    
-    public CrdtDocument getDocument(UUID runId) {
+
+    public DeltaCrdtDocument getDocument(UUID runId) {
         return documents.get(runId);
     }
-    
+
     public void removeDocument(UUID runId) {
         documents.remove(runId);
     }
-    
+
+    public String getReplicaId() {
+        return replicaId;
+    }
+
     public byte[] applyGraftMutation(UUID runId, String userId, Map<String, Object> graftData) {
-        CrdtDocument doc = getOrCreateDocument(runId);
-        
+        DeltaCrdtDocument doc = getOrCreateDocument(runId);
+
         String graftId = UUID.randomUUID().toString();
-        String after = (String) graftData.get("after");
-        String agentName = (String) graftData.get("agentName");
-        long timestamp = System.currentTimeMillis();
-        
-        CrdtChange change = new CrdtChange(
-            CrdtChange.ChangeType.GRAFT_ADD,
-            graftId,
-            Map.of(
-                "id", graftId,
-                "after", after,
-                "agentName", agentName,
-                "timestamp", timestamp,
-                "userId", userId
-            )
+        DeltaCrdtDocument.GraftValue value = new DeltaCrdtDocument.GraftValue(
+            (String) graftData.get("after"),
+            (String) graftData.get("agentName"),
+            System.currentTimeMillis(),
+            userId
         );
-        
-        doc.applyChange(change);
-        
-        return serializeChange(change);
+
+        return CrdtBinaryCodec.encode(doc.addGraft(replicaId, graftId, value));
     }
-    
+
     public byte[] applyPruneMutation(UUID runId, String userId, Map<String, Object> pruneData) {
-        CrdtDocument doc = getOrCreateDocument(runId);
-        
+        DeltaCrdtDocument doc = getOrCreateDocument(runId);
+
         String stepId = (String) pruneData.get("stepId");
         Boolean isPruned = (Boolean) pruneData.getOrDefault("isPruned", true);
-        
-        CrdtChange change = new CrdtChange(
-            isPruned ? CrdtChange.ChangeType.PRUNE_ADD : CrdtChange.ChangeType.PRUNE_REMOVE,
-            stepId,
-            Map.of("stepId", stepId, "isPruned", isPruned)
-        );
-        
-        doc.applyChange(change);
-        
-        return serializeChange(change);
+
+        DeltaCrdtDocument delta = isPruned
+            ? doc.addPrune(replicaId, stepId)
+            : doc.removePrune(replicaId, stepId);
+        return CrdtBinaryCodec.encode(delta);
     }
-    
+
     public byte[] applyFlagMutation(UUID runId, String userId, Map<String, Object> flagData) {
-        CrdtDocument doc = getOrCreateDocument(runId);
+        DeltaCrdtDocument doc = getOrCreateDocument(runId);
 
         // Accept "key" or fall back to "nodeId" (used by clients and tests)
         String flagKey = (String) flagData.getOrDefault("key", flagData.get("nodeId"));
         if (flagKey == null) flagKey = "unknown";
         Object flagValue = flagData.getOrDefault("value", flagData.get("flagType"));
 
-        CrdtChange change = new CrdtChange(
-            flagValue != null ? CrdtChange.ChangeType.FLAG_SET : CrdtChange.ChangeType.FLAG_REMOVE,
-            flagKey,
-            Map.of("key", flagKey, "value", flagValue != null ? flagValue : "")
-        );
-        
-        doc.applyChange(change);
-        
-        return serializeChange(change);
+        DeltaCrdtDocument delta = doc.setFlag(replicaId, clock.now(), flagKey,
+            flagValue != null ? String.valueOf(flagValue) : null);
+        return CrdtBinaryCodec.encode(delta);
     }
-    
+
+    /**
+     * Joins a delta or a full state from a peer or a snapshot. Payloads that are not in the
+     * binary format (including snapshots written before it) are logged and ignored.
+     */
     public void applyChanges(UUID runId, byte[] changes) {
-        CrdtDocument doc = getOrCreateDocument(runId);
-        CrdtChange change = deserializeChange(changes);
-        if (change != null) {
-            doc.applyChange(change);
+        DeltaCrdtDocument remote = decode(runId, changes);
+        if (remote != null) {
+            join(runId, remote);
         }
     }
-    
+
+    /** The full document state, encoded; empty if the run has no document. */
     public byte[] getChanges(UUID runId) {
-        CrdtDocument doc = getDocument(runId);
+        DeltaCrdtDocument doc = getDocument(runId);
+        if (doc == null || doc.isEmpty()) {
+            return new byte[0];
+        }
+        return CrdtBinaryCodec.encode(doc);
+    }
+
+    /** Per-replica contiguous counters this node has seen for the run. */
+    public Map<String, Long> versionVector(UUID runId) {
+        DeltaCrdtDocument doc = getDocument(runId);
+        return doc == null ? Map.of() : doc.versionVector();
+    }
+
+    /** Encoded delta with everything a peer advertising {@code remoteVector} is missing; empty if nothing. */
+    public byte[] deltaSince(UUID runId, Map<String, Long> remoteVector) {
+        DeltaCrdtDocument doc = getDocument(runId);
         if (doc == null) {
             return new byte[0];
         }
-        return serializeDocument(doc);
+        DeltaCrdtDocument delta = doc.deltaSince(remoteVector);
+        return delta.isEmpty() ? new byte[0] : CrdtBinaryCodec.encode(delta);
     }
-    
+
     public CrdtDocumentState getState(UUID runId) {
-        CrdtDocument doc = getDocument(runId);
+        DeltaCrdtDocument doc = getDocument(runId);
         if (doc == null) {
             return new CrdtDocumentState();
         }
-        
+
         List<CrdtDocumentState.GraftOperation> grafts = new ArrayList<>();
-        for (Map.Entry<String, Map<String, Object>> entry : doc.grafts.entrySet()) {
-            Map<String, Object> graftData = entry.getValue();
-            grafts.add(new CrdtDocumentState.GraftOperation(
-                (String) graftData.get("id"),
-                (String) graftData.get("after"),
-                (String) graftData.get("agentName"),
-                ((Number) graftData.get("timestamp")).longValue(),
-                (String) graftData.get("userId")
-            ));
-        }
-        
-        return new CrdtDocumentState(grafts, new HashSet<>(doc.prunedSteps), new HashMap<>(doc.flags));
+        doc.graftValues().forEach((graftId, value) -> grafts.add(new CrdtDocumentState.GraftOperation(
+            graftId,
+            value.after(),
+            value.agentName(),
+            value.timestamp(),
+            value.userId()
+        )));
+
+        return new CrdtDocumentState(grafts, doc.prunedSteps(), doc.flagValues());
     }
-    
+
     public String serializeState(CrdtDocumentState state) {
         try {
             return objectMapper.writeValueAsString(Map.of(
@@ -140,109 +169,31 @@ public class CrdtDocumentManager {
             return "{}";
         }
     }
-    
+
     public byte[] mergeDocuments(UUID runId, byte[] remoteChanges) {
-        CrdtDocument doc = getOrCreateDocument(runId);
-        CrdtDocument remoteDoc = deserializeDocument(remoteChanges);
-        if (remoteDoc != null) {
-            doc.merge(remoteDoc);
-        }
-        return serializeDocument(doc);
-    }
-    
-    private byte[] serializeChange(CrdtChange change) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             ObjectOutputStream oos = new ObjectOutputStream(baos)) {
-            oos.writeObject(change);
-            return baos.toByteArray();
-        } catch (IOException e) {
-            return new byte[0];
+        DeltaCrdtDocument remote = decode(runId, remoteChanges);
+        if (remote != null) {
+            join(runId, remote);
         }
+        return getChanges(runId);
     }
-    
-    private CrdtChange deserializeChange(byte[] data) {
-        if (data == null || data.length == 0) {
-            return null;
-        }
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(data);
-             ObjectInputStream ois = new ObjectInputStream(bais)) {
-            return (CrdtChange) ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            return null;
-        }
-    }
-    
-    private byte[] serializeDocument(CrdtDocument doc) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             ObjectOutputStream oos = new ObjectOutputStream(baos)) {
-            oos.writeObject(doc);
-            return baos.toByteArray();
-        } catch (IOException e) {
-            return new byte[0];
-        }
+
+    private void join(UUID runId, DeltaCrdtDocument remote) {
+        // Keep local flag writes ordered after anything already seen, even with clock skew.
+        remote.flagClocks().forEach(clock::observe);
+        getOrCreateDocument(runId).join(remote);
     }
-    
-    private CrdtDocument deserializeDocument(byte[] data) {
+
+    private DeltaCrdtDocument decode(UUID runId, byte[] data) {
         if (data == null || data.length == 0) {
             return null;
         }
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(data);
-             ObjectInputStream ois = new ObjectInputStream(bais)) {
-            return (CrdtDocument) ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
+        try {
+            return CrdtBinaryCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring undecodable CRDT payload for run {} ({} bytes): {}",
+                runId, data.length, e.getMessage());
             return null;
         }
     }
-    
-    static class CrdtDocument implements Serializable {
-        private static final long serialVersionUID = 1L;
-        
-        private final Map<String, Map<String, Object>> grafts = new ConcurrentHashMap<>();
-        private final Set<String> prunedSteps = ConcurrentHashMap.newKeySet();
-        private final Map<String, Object> flags = new ConcurrentHashMap<>();
-        
-        public void applyChange(CrdtChange change) {
-            switch (change.type) {
-                case GRAFT_ADD:
-                    grafts.put(change.key, change.data);
-                    break;
-                case PRUNE_ADD:
-                    prunedSteps.add(change.key);
-                    break;
-                case PRUNE_REMOVE:
-                    prunedSteps.remove(change.key);
-                    break;
-                case FLAG_SET:
-                    flags.put(change.key, change.data.get("value"));
-                    break;
-                case FLAG_REMOVE:
-                    flags.remove(change.key);
-                    break;
-            }
-        }
-        
-        public void merge(CrdtDocument other) {
-            grafts.putAll(other.grafts);
-            prunedSteps.addAll(other.prunedSteps);
-            flags.putAll(other.flags);
-        }
-    }
-    
-    static class CrdtChange implements Serializable {
-        private static final long serialVersionUID = 1L;
-        
-        enum ChangeType {
-            GRAFT_ADD, PRUNE_ADD, PRUNE_REMOVE, FLAG_SET, FLAG_REMOVE
-        }
-        
-        final ChangeType type;
-        final String key;
-        final Map<String, Object> data;
-        
-        CrdtChange(ChangeType type, String key, Map<String, Object> data) {
-            this.type = type;
-            this.key = key;
-            this.data = new HashMap<>(data);
-        }
-    }
 }
@@ -1,8 +1,11 @@
 package com.atlasia.ai.service;
 
+import com.atlasia.ai.service.crdt.CrdtBinaryCodec;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -16,13 +19,16 @@ public class CrdtSyncService {
     
     private final CrdtDocumentManager documentManager;
     private final SimpMessagingTemplate messagingTemplate;
+    private final OrchestratorMetrics metrics;
     private final Map<UUID, Set<String>> peerConnections = new ConcurrentHashMap<>();
     private final String localRegion;
     
     public CrdtSyncService(CrdtDocumentManager documentManager, 
-                          SimpMessagingTemplate messagingTemplate) {
+                          SimpMessagingTemplate messagingTemplate,
+                          OrchestratorMetrics metrics) {
         this.documentManager = documentManager;
         this.messagingTemplate = messagingTemplate;
+        this.metrics = metrics;
         this.localRegion = System.getenv().getOrDefault("REGION", "us-east-1");
     }
     
@@ -31,7 +37,7 @@ public class CrdtSyncService {
                       .add(peerRegion);
         logger.info("Registered peer {} for run {}", peerRegion, runId);
         
-        syncWithPeer(runId, peerRegion);
+        requestSync(runId, peerRegion, true);
     }
     
     public void unregisterPeer(UUID runId, String peerRegion) {
@@ -55,6 +61,7 @@ public class CrdtSyncService {
         syncMessage.put("changes", Base64.getEncoder().encodeToString(changes));
         syncMessage.put("timestamp", System.currentTimeMillis());
         
+        metrics.recordCrdtSyncBytes("delta", (long) changes.length * peers.size());
         for (String peer : peers) {
             try {
                 messagingTemplate.convertAndSend(
@@ -103,27 +110,70 @@ public class CrdtSyncService {
         );
     }
     
-    private void syncWithPeer(UUID runId, String peerRegion) {
-        byte[] currentState = documentManager.getChanges(runId);
-        if (currentState.length == 0) {
-            return;
-        }
+    /**
+     * Anti-entropy: sends our version vector to a peer, which answers with a CRDT_SYNC carrying
+     * only the delta we are missing. With {@code reciprocate} the peer also asks for ours, so one
+     * request brings both sides up to date.
+     */
+    public void requestSync(UUID runId, String peerRegion, boolean reciprocate) {
+        byte[] vector = CrdtBinaryCodec.encodeVersionVector(documentManager.versionVector(runId));
         
-        Map<String, Object> fullSyncMessage = new HashMap<>();
-        fullSyncMessage.put("type", "CRDT_FULL_SYNC");
-        fullSyncMessage.put("runId", runId.toString());
-        fullSyncMessage.put("sourceRegion", localRegion);
-        fullSyncMessage.put("state", Base64.getEncoder().encodeToString(currentState));
-        fullSyncMessage.put("timestamp", System.currentTimeMillis());
+        Map<String, Object> request = new HashMap<>();
+        request.put("type", "CRDT_SYNC_REQUEST");
+        request.put("runId", runId.toString());
+        request.put("sourceRegion", localRegion);
+        request.put("versionVector", Base64.getEncoder().encodeToString(vector));
+        request.put("reciprocate", reciprocate);
+        request.put("timestamp", System.currentTimeMillis());
         
-        messagingTemplate.convertAndSend(
-            "/topic/crdt/sync/" + peerRegion,
-            fullSyncMessage
-        );
+        metrics.recordCrdtSyncBytes("request", vector.length);
+        messagingTemplate.convertAndSend("/topic/crdt/sync/" + peerRegion, request);
+        logger.debug("Requested sync from peer {} for run {}", peerRegion, runId);
+    }
+    
+    public void handleSyncRequest(UUID runId, String sourceRegion, byte[] remoteVector, boolean reciprocate) {
+        if (sourceRegion.equals(localRegion)) {
+            return;
+        }
         
-        logger.info("Sent full sync to peer {} for run {}", peerRegion, runId);
+        try {
+            Map<String, Long> vector = CrdtBinaryCodec.decodeVersionVector(remoteVector);
+            byte[] delta = documentManager.deltaSince(runId, vector);
+            if (delta.length > 0) {
+                Map<String, Object> syncMessage = new HashMap<>();
+                syncMessage.put("type", "CRDT_SYNC");
+                syncMessage.put("runId", runId.toString());
+                syncMessage.put("sourceRegion", localRegion);
+                syncMessage.put("changes", Base64.getEncoder().encodeToString(delta));
+                syncMessage.put("timestamp", System.currentTimeMillis());
+                
+                metrics.recordCrdtSyncBytes("anti_entropy", delta.length);
+                messagingTemplate.convertAndSend("/topic/crdt/sync/" + sourceRegion, syncMessage);
+                logger.debug("Sent {} byte delta to peer {} for run {}", delta.length, sourceRegion, runId);
+            }
+            if (reciprocate) {
+                requestSync(runId, sourceRegion, false);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to answer sync request from {}: {}", sourceRegion, e.getMessage());
+        }
+    }
+    
+    /** Periodic round that repairs deltas lost while a peer was unreachable. */
+    @Scheduled(fixedDelayString = "${crdt.anti-entropy-interval-ms:30000}")
+    public void antiEntropy() {
+        peerConnections.forEach((runId, peers) -> {
+            for (String peer : peers) {
+                try {
+                    requestSync(runId, peer, false);
+                } catch (Exception e) {
+                    logger.warn("Anti-entropy request to {} for run {} failed: {}", peer, runId, e.getMessage());
+                }
+            }
+        });
     }
     
+    /** Full-state sync as sent by nodes that predate anti-entropy requests. */
     public void handleFullSync(UUID runId, String sourceRegion, byte[] state) {
         if (sourceRegion.equals(localRegion)) {
             return;
@@ -20,6 +20,7 @@ public class DeveloperStep implements AgentStep {
     private static final Logger log = LoggerFactory.getLogger(DeveloperStep.class);
 
     private final GitHubApiClient gitHubApiClient;
+    private final GitCommitBuilder commitBuilder;
     private final LlmService llmService;
     private final LlmComplexityResolver complexityResolver;
     private final ObjectMapper objectMapper;
@@ -32,13 +33,15 @@ public class DeveloperStep implements AgentStep {
             LlmComplexityResolver complexityResolver,
             ObjectMapper objectMapper,
             OrchestratorProperties properties,
-            AgentContractLoader agentContractLoader) {
+            AgentContractLoader agentContractLoader,
+            GitCommitBuilder commitBuilder) {
         this.gitHubApiClient = gitHubApiClient;
         this.llmService = llmService;
         this.complexityResolver = complexityResolver;
         this.objectMapper = objectMapper;
         this.properties = properties;
         this.agentContractLoader = agentContractLoader;
+        this.commitBuilder = commitBuilder;
     }
 
     @Override
@@ -78,10 +81,13 @@ public class DeveloperStep implements AgentStep {
             // If baseSha is null, it means the repository is empty. We will create the
             // branch without a base.
             // The first commit will then establish the branch.
+            context.setBaseSha(baseSha);
             if (baseSha != null) {
-                detectAndResolveConflicts(context, owner, repo, branchName, baseSha);
-                gitHubApiClient.createBranch(owner, repo, branchName, baseSha);
-                log.info("Created branch {} from {}", branchName, baseSha);
+                // A requeued run (lease recovery) finds its branch from the earlier attempt; reuse it.
+                if (!detectAndResolveConflicts(context, owner, repo, branchName, baseSha)) {
+                    gitHubApiClient.createBranch(owner, repo, branchName, baseSha);
+                    log.info("Created branch {} from {}", branchName, baseSha);
+                }
             } else {
                 log.info("Repository is empty, creating branch {} without a base SHA.", branchName);
                 // No explicit createBranch call needed here, the first commit will create it.
@@ -137,6 +143,22 @@ public class DeveloperStep implements AgentStep {
             String commitSha = applyMultiFileChanges(context, owner, repo, branchName, baseSha, codeChanges);
             log.info("Created commit {} on branch {}", commitSha, branchName);
 
+            if (context.isShadow()) {
+                // Shadow runs never open PRs; downstream steps only need a handle on the branch.
+                String branchUrl = String.format("https://github.com/%s/%s/tree/%s", owner, repo, branchName);
+                context.setPrUrl(branchUrl);
+                log.info("Shadow run: skipped pull request, changes left on {}", branchName);
+                return branchUrl;
+            }
+
+            String existingPrUrl = findOpenPullRequestUrl(owner, repo, branchName);
+            if (existingPrUrl != null) {
+                // Earlier attempt of this run already opened it; the new commit updates that PR.
+                context.setPrUrl(existingPrUrl);
+                log.info("Reusing open pull request for {}: {}", branchName, existingPrUrl);
+                return existingPrUrl;
+            }
+
             String prTitle = buildPrTitle(context);
             String prBody = buildPrBody(context, codeChanges);
 
@@ -168,11 +190,33 @@ public class DeveloperStep implements AgentStep {
         }
     }
 
-    private void detectAndResolveConflicts(RunContext context, String owner, String repo,
-            String branchName, String baseSha) {
+    private String findOpenPullRequestUrl(String owner, String repo, String branchName) {
         try {
-            Map<String, Object> existingRef = gitHubApiClient.getReference(owner, repo, "heads/" + branchName);
+            List<Map<String, Object>> open = gitHubApiClient.listOpenPullRequestsForBranch(owner, repo, branchName);
+            if (open == null || open.isEmpty()) {
+                return null;
+            }
+            return (String) open.get(0).get("html_url");
+        } catch (Exception e) {
+            log.warn("Could not look up open pull requests for {}, creating one: {}", branchName, e.getMessage());
+            return null;
+        }
+    }
 
+    /** @return whether the branch already exists (it is then left at, or reset to, a usable base) */
+    private boolean detectAndResolveConflicts(RunContext context, String owner, String repo,
+            String branchName, String baseSha) {
+        Map<String, Object> existingRef;
+        try {
+            existingRef = gitHubApiClient.getReference(owner, repo, "heads/" + branchName);
+        } catch (Exception e) {
+            log.debug("Branch {} does not exist yet, will create new", branchName);
+            return false;
+        }
+        if (existingRef == null) {
+            return false;
+        }
+        try {
             log.warn("Branch {} already exists, checking for conflicts", branchName);
 
             Map<String, Object> existingRefObject = (Map<String, Object>) existingRef.get("object");
@@ -189,16 +233,19 @@ public class DeveloperStep implements AgentStep {
 
                 log.info("Branch comparison: ahead by {}, behind by {}", aheadBy, behindBy);
 
-                if (behindBy != null && behindBy > 0) {
-                    log.warn("Branch {} is behind main by {} commits, will force update", branchName, behindBy);
+                // The new commit is parented on main, so anything else on the branch (behind main,
+                // or a stale commit from an earlier attempt) would make the ref update non-fast-forward.
+                if ((behindBy != null && behindBy > 0) || (aheadBy != null && aheadBy > 0)) {
+                    log.warn("Branch {} has diverged from main, will force update", branchName);
 
                     gitHubApiClient.updateReference(owner, repo, "heads/" + branchName, baseSha, true);
                     log.info("Force updated branch {} to base SHA {}", branchName, baseSha);
                 }
             }
         } catch (Exception e) {
-            log.debug("Branch {} does not exist yet, will create new", branchName);
+            log.warn("Could not reconcile existing branch {}: {}", branchName, e.getMessage());
         }
+        return true;
     }
 
     private String gatherRepoContext(RunContext context, String owner, String repo, String baseSha) {
@@ -223,7 +270,7 @@ public class DeveloperStep implements AgentStep {
                 }
             }
 
-            fetchRelevantFileContents(context, owner, repo, repoContext, treeItems);
+            fetchRelevantFileContents(context, owner, repo, baseSha, repoContext);
 
         } catch (Exception e) {
             log.warn("Failed to gather full repository context: {}", e.getMessage());
@@ -263,16 +310,16 @@ public class DeveloperStep implements AgentStep {
         return categorized;
     }
 
-    private void fetchRelevantFileContents(RunContext context, String owner, String repo,
-            StringBuilder repoContext, List<Map<String, Object>> treeItems) {
+    private void fetchRelevantFileContents(RunContext context, String owner, String repo, String baseSha,
+            StringBuilder repoContext) {
         List<String> keyFiles = Arrays.asList("AGENTS.md", "README.md");
 
         for (String fileName : keyFiles) {
             try {
-                Map<String, Object> fileContent = gitHubApiClient.getRepoContent(owner, repo, fileName);
-                String content = (String) fileContent.get("content");
+                Map<String, Object> fileContent = gitHubApiClient.getRepoContent(owner, repo, fileName, baseSha);
+                String content = fileContent != null ? (String) fileContent.get("content") : null;
                 if (content != null) {
-                    String decoded = new String(Base64.getDecoder().decode(content));
+                    String decoded = new String(Base64.getDecoder().decode(content.replaceAll("\\s", "")));
                     repoContext.append("\n### ").append(fileName).append(":\n```\n");
                     repoContext.append(truncateContent(decoded, 1000));
                     repoContext.append("\n```\n");
@@ -305,14 +352,15 @@ public class DeveloperStep implements AgentStep {
             attempt++;
             try {
                 String systemPrompt = buildDeveloperSystemPrompt();
-                String userPrompt = buildDeveloperUserPrompt(context, repoContext);
+                String stableContext = buildDeveloperStableContext(repoContext);
+                String userPrompt = buildDeveloperUserPrompt(context);
                 Map<String, Object> schema = buildCodeChangesSchema();
 
                 log.info("Requesting LLM code generation for issue #{} (attempt {}/{})",
                         context.getRunEntity().getIssueNumber(), attempt, maxRetries);
                 String llmResponse = llmService
                         .generateStructuredOutput(
-                                systemPrompt, userPrompt, schema, complexityResolver.forAgent("developer"))
+                                systemPrompt, stableContext, userPrompt, schema, complexityResolver.forAgent("developer"))
                         .content();
 
                 if (llmResponse == null || llmResponse.trim().isEmpty()) {
@@ -397,7 +445,15 @@ public class DeveloperStep implements AgentStep {
                 """;
     }
 
-    private String buildDeveloperUserPrompt(RunContext context, String repoContext) {
+    /**
+     * Repository context is the bulk of the prompt and does not change between attempts, so it goes
+     * ahead of the issue-specific part where the provider can serve it from its prompt cache.
+     */
+    private String buildDeveloperStableContext(String repoContext) {
+        return "## Repository Context\n" + repoContext + "\n\n";
+    }
+
+    private String buildDeveloperUserPrompt(RunContext context) {
         StringBuilder prompt = new StringBuilder();
 
         prompt.append("# Code Implementation Request\n\n");
@@ -427,9 +483,6 @@ public class DeveloperStep implements AgentStep {
             prompt.append(context.getWorkPlan()).append("\n\n");
         }
 
-        prompt.append("## Repository Context\n");
-        prompt.append(repoContext).append("\n\n");
-
         prompt.append("## Implementation Requirements\n");
         prompt.append("Please provide:\n");
         prompt.append("1. Complete implementation with all necessary code changes\n");
@@ -683,23 +736,14 @@ public class DeveloperStep implements AgentStep {
             String branchName, String baseSha, CodeChanges codeChanges) throws Exception {
         log.info("Applying {} file changes to branch {}", codeChanges.getFiles().size(), branchName);
 
-        List<Map<String, Object>> treeEntries = new ArrayList<>();
-        int blobsCreated = 0;
-        int filesDeleted = 0;
+        List<GitCommitBuilder.FileEntry> files = new ArrayList<>();
 
         try {
             for (FileChange fileChange : codeChanges.getFiles()) {
                 String path = fileChange.getPath();
-                String operation = fileChange.getOperation();
-
-                Map<String, Object> treeEntry = new HashMap<>();
-                treeEntry.put("path", path);
-                treeEntry.put("mode", "100644");
-                treeEntry.put("type", "blob");
 
-                if ("delete".equals(operation)) {
-                    treeEntry.put("sha", null);
-                    filesDeleted++;
+                if ("delete".equals(fileChange.getOperation())) {
+                    files.add(GitCommitBuilder.FileEntry.deletion(path));
                     log.debug("Marking {} for deletion", path);
                 } else {
                     String content = fileChange.getContent();
@@ -707,64 +751,29 @@ public class DeveloperStep implements AgentStep {
                         log.warn("Skipping file with empty content: {}", path);
                         continue;
                     }
-
-                    try {
-                        Map<String, Object> blob = gitHubApiClient.createBlob(owner, repo, content, "utf-8");
-                        String blobSha = (String) blob.get("sha");
-
-                        if (blobSha == null || blobSha.isEmpty()) {
-                            throw new IllegalStateException("Blob creation returned null SHA for: " + path);
-                        }
-
-                        treeEntry.put("sha", blobSha);
-                        blobsCreated++;
-                        log.debug("Created blob {} for {} ({} bytes)", blobSha, path, content.length());
-                    } catch (Exception e) {
-                        log.error("Failed to create blob for {}: {}", path, e.getMessage());
-                        throw new AgentStepException("Failed to create blob for file: " + path, e,
-                                "DEVELOPER", "applyChanges", OrchestratorException.RecoveryStrategy.ESCALATE_TO_HUMAN);
-                    }
+                    files.add(GitCommitBuilder.FileEntry.text(path, content));
                 }
-
-                treeEntries.add(treeEntry);
             }
 
-            if (treeEntries.isEmpty()) {
+            if (files.isEmpty()) {
                 throw new IllegalStateException("No valid tree entries to commit");
             }
 
-            log.info("Created {} blobs and marked {} files for deletion", blobsCreated, filesDeleted);
-
-            Map<String, Object> newTree = gitHubApiClient.createTree(owner, repo, treeEntries, baseSha);
-            String treeSha = (String) newTree.get("sha");
-
-            if (treeSha == null || treeSha.isEmpty()) {
-                throw new IllegalStateException("Tree creation returned null SHA");
-            }
-
-            log.debug("Created tree {}", treeSha);
-
-            String commitMessage = buildCommitMessage(context, codeChanges);
-            Map<String, Object> author = buildAuthorInfo();
-            Map<String, Object> committer = buildCommitterInfo();
-
-            Map<String, Object> newCommit = gitHubApiClient.createCommit(
-                    owner,
-                    repo,
-                    commitMessage,
-                    treeSha,
-                    baseSha != null ? List.of(baseSha) : Collections.emptyList(),
-                    author,
-                    committer);
-            String commitSha = (String) newCommit.get("sha");
-
-            if (commitSha == null || commitSha.isEmpty()) {
-                throw new IllegalStateException("Commit creation returned null SHA");
-            }
-
-            log.debug("Created commit {}", commitSha);
-
-            gitHubApiClient.updateReference(owner, repo, "heads/" + branchName, commitSha, false);
+            GitCommitBuilder.CommitResult result = commitBuilder.commit("developer",
+                    new GitCommitBuilder.CommitRequest(
+                            owner,
+                            repo,
+                            branchName,
+                            baseSha,
+                            buildCommitMessage(context, codeChanges),
+                            buildAuthorInfo(),
+                            buildCommitterInfo(),
+                            files,
+                            false));
+            String commitSha = result.commitSha();
+
+            log.info("Created {} blobs, inlined {} files and marked {} files for deletion",
+                    result.blobsUploaded(), result.inlined(), result.deleted());
             log.info("Updated branch {} to commit {}", branchName, commitSha);
 
             return commitSha;
@@ -1,17 +1,28 @@
 package com.atlasia.ai.service;
 
+import com.atlasia.ai.model.EvalScenarioResultEntity;
 import com.atlasia.ai.model.RunEntity;
 import com.atlasia.ai.model.RunStatus;
+import com.atlasia.ai.model.TaskComplexity;
+import com.atlasia.ai.persistence.EvalScenarioResultRepository;
 import com.atlasia.ai.persistence.RunRepository;
 import com.atlasia.ai.service.observability.OrchestratorMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 /**
  * Evaluation Suite Service — Automated Pipeline Quality Assessment.
@@ -22,6 +33,10 @@ import java.util.concurrent.ConcurrentHashMap;
  *
  * Gates deployments on Pass@1 rate thresholds. Replaces "vibes-based"
  * testing with systematic, reproducible evaluation.
+ *
+ * Scenarios are graded concurrently and each result is stored as it completes, so a
+ * suite interrupted part-way can be resumed under the same suite run id. {@link #startSuite}
+ * runs a suite in the background so callers can poll {@link #getProgress} while it grades.
  */
 @Service
 public class EvalSuiteService {
@@ -32,6 +47,9 @@ public class EvalSuiteService {
     private final LlmService llmService;
     private final OrchestratorMetrics metrics;
     private final ObjectMapper objectMapper;
+    private final EvalScenarioResultRepository scenarioResultRepository;
+    private final int concurrency;
+    private final ExecutorService suiteExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     /** Minimum pass rate to gate deployments. */
     private static final double MINIMUM_PASS_RATE = 0.75;
@@ -45,12 +63,38 @@ public class EvalSuiteService {
             JudgeService judgeService,
             LlmService llmService,
             OrchestratorMetrics metrics,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            EvalScenarioResultRepository scenarioResultRepository,
+            @Value("${atlasia.orchestrator.eval-suite.concurrency:4}") int concurrency) {
         this.runRepository = runRepository;
         this.judgeService = judgeService;
         this.llmService = llmService;
         this.metrics = metrics;
         this.objectMapper = objectMapper;
+        this.scenarioResultRepository = scenarioResultRepository;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        suiteExecutor.shutdownNow();
+    }
+
+    /**
+     * Start the suite under {@code suiteRunId} in the background and return immediately; the run
+     * is visible to {@link #getProgress} as soon as this returns. Passing the id of an interrupted
+     * suite resumes it (see {@link #executeSuite(UUID, List)}).
+     *
+     * @throws IllegalStateException if a suite with this id is already running
+     */
+    public CompletableFuture<SuiteResult> startSuite(UUID suiteRunId, List<EvalScenario> scenarios) {
+        SuiteRun suiteRun = register(suiteRunId, scenarios.size());
+        try {
+            return CompletableFuture.supplyAsync(() -> runSuite(suiteRun, scenarios), suiteExecutor);
+        } catch (RuntimeException e) {
+            activeSuiteRuns.remove(suiteRunId);
+            throw e;
+        }
     }
 
     /**
@@ -60,46 +104,76 @@ public class EvalSuiteService {
      * @return the suite result with aggregate metrics
      */
     public SuiteResult executeSuite(List<EvalScenario> scenarios) {
-        UUID suiteRunId = UUID.randomUUID();
-        log.info("EVAL SUITE STARTED: suiteRunId={}, scenarios={}", suiteRunId, scenarios.size());
+        return executeSuite(UUID.randomUUID(), scenarios);
+    }
 
-        metrics.recordEvalSuiteRun(0); // initial recording; final passAt1 rate recorded at end
+    /**
+     * Execute the suite under {@code suiteRunId}, grading up to {@code eval-suite.concurrency}
+     * scenarios at a time. Each graded scenario is stored as it finishes; calling this again with
+     * the id of an interrupted run reuses the stored results and grades only the rest.
+     *
+     * @param suiteRunId id of a new suite run, or of one to resume
+     * @param scenarios  list of scenario definitions to run
+     * @return the suite result with aggregate metrics, results in scenario order
+     */
+    public SuiteResult executeSuite(UUID suiteRunId, List<EvalScenario> scenarios) {
+        return runSuite(register(suiteRunId, scenarios.size()), scenarios);
+    }
 
-        SuiteRun suiteRun = new SuiteRun(suiteRunId, scenarios.size(), Instant.now());
-        activeSuiteRuns.put(suiteRunId, suiteRun);
+    private SuiteRun register(UUID suiteRunId, int totalScenarios) {
+        SuiteRun suiteRun = new SuiteRun(suiteRunId, totalScenarios, Instant.now());
+        if (activeSuiteRuns.putIfAbsent(suiteRunId, suiteRun) != null) {
+            throw new IllegalStateException("Eval suite " + suiteRunId + " is already running");
+        }
+        return suiteRun;
+    }
 
-        List<ScenarioResult> results = new ArrayList<>();
-        int passCount = 0;
-        int passAt1Count = 0;
-        int passAt2Count = 0;
+    private SuiteResult runSuite(SuiteRun suiteRun, List<EvalScenario> scenarios) {
+        UUID suiteRunId = suiteRun.suiteRunId;
+        List<Future<ScenarioResult>> pending = new ArrayList<>(scenarios.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<String, ScenarioResult> stored = loadStoredResults(suiteRunId);
+            long resumed = scenarios.stream().filter(s -> stored.containsKey(s.id)).count();
+            log.info("EVAL SUITE STARTED: suiteRunId={}, scenarios={}, resumed={}, concurrency={}",
+                    suiteRunId, scenarios.size(), resumed, concurrency);
+
+            metrics.recordEvalSuiteRun(0); // initial recording; final passAt1 rate recorded at end
+            suiteRun.completedCount = (int) resumed;
+
+            Semaphore slots = new Semaphore(concurrency);
+            for (EvalScenario scenario : scenarios) {
+                ScenarioResult previous = stored.get(scenario.id);
+                if (previous != null) {
+                    pending.add(CompletableFuture.completedFuture(previous));
+                    continue;
+                }
+                pending.add(executor.submit(() -> {
+                    slots.acquire();
+                    try {
+                        return runScenario(suiteRun, scenario);
+                    } finally {
+                        slots.release();
+                    }
+                }));
+            }
+        } finally {
+            activeSuiteRuns.remove(suiteRunId);
+        }
 
-        for (EvalScenario scenario : scenarios) {
+        List<ScenarioResult> results = new ArrayList<>(scenarios.size());
+        for (int i = 0; i < pending.size(); i++) {
             try {
-                ScenarioResult result = executeScenario(suiteRunId, scenario);
-                results.add(result);
-
-                if (result.pass) {
-                    passCount++;
-                    metrics.recordEvalScenarioPass();
-                } else {
-                    metrics.recordEvalScenarioFail();
-                }
-                if (result.passAt1) passAt1Count++;
-                if (result.passAt2) passAt2Count++;
-
-                suiteRun.completedCount++;
-                log.info("EVAL SCENARIO {}: id={}, pass={}, passAt1={}, score={}, duration={}ms",
-                        result.pass ? "PASS" : "FAIL",
-                        scenario.id, result.pass, result.passAt1,
-                        String.format("%.2f", result.overallScore), result.durationMs);
-
-            } catch (Exception e) {
-                log.error("EVAL SCENARIO ERROR: id={}, error={}", scenario.id, e.getMessage(), e);
-                results.add(ScenarioResult.error(scenario.id, e.getMessage()));
-                metrics.recordEvalScenarioFail();
-                suiteRun.completedCount++;
+                results.add(pending.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(ScenarioResult.error(scenarios.get(i).id, "interrupted"));
+            } catch (ExecutionException e) {
+                results.add(ScenarioResult.error(scenarios.get(i).id, String.valueOf(e.getCause())));
             }
         }
+        int passCount = (int) results.stream().filter(ScenarioResult::pass).count();
+        int passAt1Count = (int) results.stream().filter(ScenarioResult::passAt1).count();
+        int passAt2Count = (int) results.stream().filter(ScenarioResult::passAt2).count();
 
         double passRate = scenarios.isEmpty() ? 0 : (double) passCount / scenarios.size();
         double passAt1Rate = scenarios.isEmpty() ? 0 : (double) passAt1Count / scenarios.size();
@@ -114,8 +188,6 @@ public class EvalSuiteService {
         // Record final passAt1 rate metric
         metrics.recordEvalSuiteRun(passAt1Rate);
 
-        activeSuiteRuns.remove(suiteRunId);
-
         log.info("EVAL SUITE COMPLETED: suiteRunId={}, pass={}/{} ({}%), passAt1={}%, gate={}",
                 suiteRunId, passCount, scenarios.size(),
                 String.format("%.0f", passRate * 100),
@@ -125,6 +197,54 @@ public class EvalSuiteService {
         return suiteResult;
     }
 
+    /** Grades one scenario, stores the result and advances progress; never throws. */
+    private ScenarioResult runScenario(SuiteRun suiteRun, EvalScenario scenario) {
+        try {
+            ScenarioResult result = executeScenario(suiteRun.suiteRunId, scenario);
+            if (result.pass) {
+                metrics.recordEvalScenarioPass();
+            } else {
+                metrics.recordEvalScenarioFail();
+            }
+            storeResult(result);
+            log.info("EVAL SCENARIO {}: id={}, pass={}, passAt1={}, score={}, duration={}ms",
+                    result.pass ? "PASS" : "FAIL",
+                    scenario.id, result.pass, result.passAt1,
+                    String.format("%.2f", result.overallScore), result.durationMs);
+            return result;
+        } catch (Exception e) {
+            log.error("EVAL SCENARIO ERROR: id={}, error={}", scenario.id, e.getMessage(), e);
+            metrics.recordEvalScenarioFail();
+            return ScenarioResult.error(scenario.id, e.getMessage());
+        } finally {
+            suiteRun.markCompleted();
+        }
+    }
+
+    private Map<String, ScenarioResult> loadStoredResults(UUID suiteRunId) {
+        Map<String, ScenarioResult> stored = new HashMap<>();
+        for (EvalScenarioResultEntity e : scenarioResultRepository.findBySuiteRunId(suiteRunId)) {
+            stored.put(e.getScenarioId(), new ScenarioResult(
+                    e.getScenarioId(), e.getSuiteRunId(), e.isPass(), e.isPassAt1(), e.isPassAt2(),
+                    e.getOverallScore(), e.getGroundednessScore(), e.getCorrectnessScore(),
+                    e.getProtocolAdherenceScore(), e.getDurationMs(), e.isOutcomeMatch(), null));
+        }
+        return stored;
+    }
+
+    private void storeResult(ScenarioResult r) {
+        try {
+            scenarioResultRepository.save(new EvalScenarioResultEntity(
+                    r.suiteRunId, r.scenarioId, r.pass, r.passAt1, r.passAt2,
+                    r.overallScore, r.groundednessScore, r.correctnessScore, r.protocolAdherenceScore,
+                    r.durationMs, r.outcomeMatch, Instant.now()));
+        } catch (Exception e) {
+            // The suite still reports this result; only resumability of this scenario is lost.
+            log.warn("EVAL SCENARIO result not stored: suiteRunId={}, id={}, error={}",
+                    r.suiteRunId, r.scenarioId, e.getMessage());
+        }
+    }
+
     /**
      * Execute a single evaluation scenario.
      */
@@ -182,7 +302,7 @@ public class EvalSuiteService {
                     Respond with ONLY a JSON object: {"score": 0.X, "evidence": "..."}
                     """, scenario.title, scenario.description);
 
-            String response = llmService.generateCompletion(null, prompt);
+            String response = llmService.generateCompletionCached(null, prompt, TaskComplexity.MEDIUM, null);
             return parseScore(response);
         } catch (Exception e) {
             log.warn("Groundedness grading failed for scenario {}: {}", scenario.id, e.getMessage());
@@ -206,7 +326,7 @@ public class EvalSuiteService {
                     Respond with ONLY a JSON object: {"score": 0.X, "compile": true/false, "tests_pass": true/false}
                     """, scenario.title, scenario.description, scenario.expectedOutcome);
 
-            String response = llmService.generateCompletion(null, prompt);
+            String response = llmService.generateCompletionCached(null, prompt, TaskComplexity.MEDIUM, null);
             return parseScore(response);
         } catch (Exception e) {
             log.warn("Correctness grading failed for scenario {}: {}", scenario.id, e.getMessage());
@@ -230,7 +350,7 @@ public class EvalSuiteService {
                     Respond with ONLY a JSON object: {"score": 0.X, "checks_passed": N, "checks_total": N}
                     """, scenario.title, scenario.description);
 
-            String response = llmService.generateCompletion(null, prompt);
+            String response = llmService.generateCompletionCached(null, prompt, TaskComplexity.MEDIUM, null);
             return parseScore(response);
         } catch (Exception e) {
             log.warn("Protocol adherence grading failed for scenario {}: {}", scenario.id, e.getMessage());
@@ -294,5 +414,10 @@ public class EvalSuiteService {
             this.totalScenarios = totalScenarios;
             this.startedAt = startedAt;
         }
+
+        /** Scenarios finish on several threads; the increment must not lose updates. */
+        synchronized void markCompleted() {
+            completedCount++;
+        }
     }
 }
@@ -0,0 +1,301 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Builds a commit from a set of file changes through the Git Data API
+ * (blobs → tree → commit → ref) with as few sequential round-trips as possible.
+ *
+ * Small text files are inlined into the {@code createTree} call's {@code content} field and
+ * skip the blob endpoint entirely; larger or binary files are uploaded as blobs concurrently
+ * on virtual threads, bounded by {@code atlasia.orchestrator.commit.blob-concurrency}. Each
+ * phase is timed into {@code orchestrator.git.commit.phase.duration}.
+ */
+@Service
+public class GitCommitBuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(GitCommitBuilder.class);
+
+    private final GitHubApiClient gitHubApiClient;
+    private final OrchestratorMetrics metrics;
+    private final int inlineMaxBytes;
+    private final int blobConcurrency;
+
+    public GitCommitBuilder(
+            GitHubApiClient gitHubApiClient,
+            OrchestratorMetrics metrics,
+            @Value("${atlasia.orchestrator.commit.inline-max-bytes:65536}") int inlineMaxBytes,
+            @Value("${atlasia.orchestrator.commit.blob-concurrency:8}") int blobConcurrency) {
+        this.gitHubApiClient = gitHubApiClient;
+        this.metrics = metrics;
+        this.inlineMaxBytes = inlineMaxBytes;
+        this.blobConcurrency = Math.max(1, blobConcurrency);
+    }
+
+    /**
+     * A file to write or delete. {@code encoding} is the Git blob encoding of {@code content}:
+     * {@code utf-8} or {@code base64}.
+     */
+    public record FileEntry(String path, String content, String encoding, boolean delete) {
+
+        public static FileEntry text(String path, String content) {
+            return new FileEntry(path, content, "utf-8", false);
+        }
+
+        public static FileEntry base64(String path, String content) {
+            return new FileEntry(path, content, "base64", false);
+        }
+
+        public static FileEntry deletion(String path) {
+            return new FileEntry(path, null, null, true);
+        }
+    }
+
+    public record CommitRequest(
+            String owner,
+            String repo,
+            String branchName,
+            String parentSha,
+            String message,
+            Map<String, Object> author,
+            Map<String, Object> committer,
+            List<FileEntry> files,
+            boolean skipFailedFiles) {
+    }
+
+    public record CommitResult(
+            String commitSha,
+            String treeSha,
+            int blobsUploaded,
+            int inlined,
+            int deleted,
+            List<String> failedPaths,
+            Map<String, Long> phaseMillis) {
+    }
+
+    /** Tree entries that could not be prepared; carries the first failing path. */
+    public static class FileUploadException extends RuntimeException {
+        private final String path;
+
+        public FileUploadException(String path, Throwable cause) {
+            super("Failed to create blob for file: " + path, cause);
+            this.path = path;
+        }
+
+        public String getPath() {
+            return path;
+        }
+    }
+
+    /**
+     * Upload blobs, create the tree on top of {@code parentSha}, commit and fast-forward
+     * {@code heads/branchName}. Returns null commit SHA if no file produced a tree entry.
+     *
+     * @param agent metric tag for the calling step
+     */
+    public CommitResult commit(String agent, CommitRequest request) {
+        Map<String, Long> phases = new LinkedHashMap<>();
+
+        long start = System.nanoTime();
+        TreeEntries entries = prepareTreeEntries(request);
+        phases.put("blobs", record(agent, "blobs", start));
+
+        if (entries.entries().isEmpty()) {
+            return new CommitResult(null, null, 0, 0, 0, entries.failedPaths(), phases);
+        }
+
+        start = System.nanoTime();
+        Map<String, Object> newTree = gitHubApiClient.createTree(
+                request.owner(), request.repo(), entries.entries(), request.parentSha());
+        String treeSha = newTree != null ? (String) newTree.get("sha") : null;
+        if (treeSha == null || treeSha.isEmpty()) {
+            throw new IllegalStateException("Tree creation returned null SHA");
+        }
+        phases.put("tree", record(agent, "tree", start));
+
+        start = System.nanoTime();
+        Map<String, Object> newCommit = gitHubApiClient.createCommit(
+                request.owner(),
+                request.repo(),
+                request.message(),
+                treeSha,
+                request.parentSha() != null ? List.of(request.parentSha()) : Collections.emptyList(),
+                request.author(),
+                request.committer());
+        String commitSha = newCommit != null ? (String) newCommit.get("sha") : null;
+        if (commitSha == null || commitSha.isEmpty()) {
+            throw new IllegalStateException("Commit creation returned null SHA");
+        }
+        phases.put("commit", record(agent, "commit", start));
+
+        start = System.nanoTime();
+        gitHubApiClient.updateReference(request.owner(), request.repo(),
+                "heads/" + request.branchName(), commitSha, false);
+        phases.put("ref", record(agent, "ref", start));
+
+        log.info("Committed {} to {}: blobs={}, inlined={}, deleted={}, phasesMs={}", commitSha,
+                request.branchName(), entries.blobsUploaded(), entries.inlined(), entries.deleted(), phases);
+        return new CommitResult(commitSha, treeSha, entries.blobsUploaded(), entries.inlined(),
+                entries.deleted(), entries.failedPaths(), phases);
+    }
+
+    private record TreeEntries(List<Map<String, Object>> entries, int blobsUploaded, int inlined, int deleted,
+            List<String> failedPaths) {
+    }
+
+    private TreeEntries prepareTreeEntries(CommitRequest request) {
+        List<FileEntry> files = request.files();
+        List<Map<String, Object>> entries = new ArrayList<>(Collections.nCopies(files.size(), null));
+        List<Integer> uploads = new ArrayList<>();
+        int inlined = 0;
+        int deleted = 0;
+
+        for (int i = 0; i < files.size(); i++) {
+            FileEntry file = files.get(i);
+            if (file.delete()) {
+                entries.set(i, treeEntry(file.path(), "sha", null));
+                deleted++;
+                continue;
+            }
+            String inlineText = inlineText(file);
+            if (inlineText != null) {
+                entries.set(i, treeEntry(file.path(), "content", inlineText));
+                inlined++;
+            } else {
+                uploads.add(i);
+            }
+        }
+
+        List<String> failedPaths = new ArrayList<>();
+        if (!uploads.isEmpty()) {
+            uploadBlobs(request, uploads, entries, failedPaths);
+        }
+
+        List<Map<String, Object>> prepared = new ArrayList<>(files.size());
+        for (Map<String, Object> entry : entries) {
+            if (entry != null) {
+                prepared.add(entry);
+            }
+        }
+        return new TreeEntries(prepared, uploads.size() - failedPaths.size(), inlined, deleted, failedPaths);
+    }
+
+    private void uploadBlobs(CommitRequest request, List<Integer> uploads, List<Map<String, Object>> entries,
+            List<String> failedPaths) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        Semaphore permits = new Semaphore(blobConcurrency);
+        Map<Integer, Future<String>> pending = new LinkedHashMap<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int index : uploads) {
+                FileEntry file = request.files().get(index);
+                pending.put(index, executor.submit(() -> {
+                    permits.acquire();
+                    if (mdc != null) {
+                        MDC.setContextMap(mdc);
+                    }
+                    try {
+                        Map<String, Object> blob = gitHubApiClient.createBlob(
+                                request.owner(), request.repo(), file.content(), file.encoding());
+                        String blobSha = blob != null ? (String) blob.get("sha") : null;
+                        if (blobSha == null || blobSha.isEmpty()) {
+                            throw new IllegalStateException("Blob creation returned null SHA for: " + file.path());
+                        }
+                        return blobSha;
+                    } finally {
+                        MDC.clear();
+                        permits.release();
+                    }
+                }));
+            }
+
+            for (Map.Entry<Integer, Future<String>> upload : pending.entrySet()) {
+                String path = request.files().get(upload.getKey()).path();
+                try {
+                    entries.set(upload.getKey(), treeEntry(path, "sha", upload.getValue().get()));
+                } catch (ExecutionException e) {
+                    if (!request.skipFailedFiles()) {
+                        pending.values().forEach(f -> f.cancel(true));
+                        throw new FileUploadException(path, e.getCause());
+                    }
+                    log.warn("Failed to upload {}: {}", path, e.getCause().getMessage());
+                    failedPaths.add(path);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    pending.values().forEach(f -> f.cancel(true));
+                    throw new FileUploadException(path, e);
+                }
+            }
+        }
+    }
+
+    /** UTF-8 text of {@code file} if it is small enough and valid text to inline, else null. */
+    private String inlineText(FileEntry file) {
+        if (inlineMaxBytes <= 0 || file.content() == null) {
+            return null;
+        }
+        if ("base64".equalsIgnoreCase(file.encoding())) {
+            byte[] bytes;
+            try {
+                bytes = Base64.getMimeDecoder().decode(file.content());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            if (bytes.length > inlineMaxBytes) {
+                return null;
+            }
+            try {
+                String text = StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT)
+                        .decode(ByteBuffer.wrap(bytes))
+                        .toString();
+                return text.indexOf('\0') >= 0 ? null : text;
+            } catch (CharacterCodingException e) {
+                return null;
+            }
+        }
+        String text = file.content();
+        if (text.length() > inlineMaxBytes || text.getBytes(StandardCharsets.UTF_8).length > inlineMaxBytes) {
+            return null;
+        }
+        return text.indexOf('\0') >= 0 ? null : text;
+    }
+
+    private static Map<String, Object> treeEntry(String path, String key, Object value) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("path", path);
+        entry.put("mode", "100644");
+        entry.put("type", "blob");
+        entry.put(key, value);
+        return entry;
+    }
+
+    private long record(String agent, String phase, long startNanos) {
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        metrics.recordCommitPhase(agent, phase, elapsedMs);
+        return elapsedMs;
+    }
+}
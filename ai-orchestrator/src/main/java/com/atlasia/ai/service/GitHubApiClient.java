@@ -3,6 +3,8 @@ package com.atlasia.ai.service;
 import com.atlasia.ai.config.OrchestratorProperties;
 import com.atlasia.ai.service.observability.CorrelationIdHolder;
 import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.micrometer.core.instrument.Timer;
 import io.opentelemetry.api.trace.Span;
@@ -20,6 +22,9 @@ import reactor.netty.http.client.HttpClient;
 import reactor.netty.resources.ConnectionProvider;
 import reactor.util.retry.Retry;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -33,14 +38,23 @@ public class GitHubApiClient {
     private final OrchestratorProperties properties;
     private final OrchestratorMetrics metrics;
     private final Tracer tracer;
+    private final RepoSnapshotCache snapshotCache;
+    /** Default branch per repo; renames are rare enough that an hour of staleness is fine. */
+    private final Cache<String, String> defaultBranches = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
 
     public GitHubApiClient(GitHubAppService gitHubAppService, OrchestratorProperties properties,
             WebClient.Builder webClientBuilder, OrchestratorMetrics metrics, Tracer tracer,
-            @org.springframework.beans.factory.annotation.Value("${atlasia.github.api-url:https://api.github.com}") String githubApiUrl) {
+            @org.springframework.beans.factory.annotation.Value("${atlasia.github.api-url:https://api.github.com}") String githubApiUrl,
+            RepoSnapshotCache snapshotCache, GitHubConditionalRequestCache conditionalRequestCache,
+            GitHubRateLimitGovernor rateLimitGovernor) {
         this.gitHubAppService = gitHubAppService;
         this.properties = properties;
         this.metrics = metrics;
         this.tracer = tracer;
+        this.snapshotCache = snapshotCache;
 
         ConnectionProvider provider = ConnectionProvider.builder("github-pool")
                 .maxIdleTime(Duration.ofSeconds(60))
@@ -53,6 +67,9 @@ public class GitHubApiClient {
         this.webClient = webClientBuilder
                 .baseUrl(githubApiUrl)
                 .clientConnector(new org.springframework.http.client.reactive.ReactorClientHttpConnector(httpClient))
+                // ETag filter outermost so the governor sees the raw 304s and their rate-limit headers
+                .filter(conditionalRequestCache.filter())
+                .filter(rateLimitGovernor.filter())
                 .build();
     }
 
@@ -78,6 +95,32 @@ public class GitHubApiClient {
         return properties.token();
     }
 
+    /**
+     * Identifies the credential {@link #getToken()} will send, for scoping cached repo data.
+     * Installation tokens rotate hourly, so the app is keyed by installation id; raw tokens
+     * are hashed so they never appear in cache keys.
+     */
+    String credentialScope() {
+        String githubToken = CorrelationIdHolder.getGitHubToken();
+        if (StringUtils.hasText(githubToken)) {
+            return "token:" + fingerprint(githubToken);
+        }
+        if (gitHubAppService.getInstallationToken() != null) {
+            return "installation:" + properties.github().installationId().trim();
+        }
+        String token = getToken();
+        return StringUtils.hasText(token) ? "token:" + fingerprint(token) : "anonymous";
+    }
+
+    private static String fingerprint(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     public boolean isValidToken(String token) {
         if (!StringUtils.hasText(token)) {
             return false;
@@ -224,6 +267,54 @@ public class GitHubApiClient {
         }
     }
 
+    /** Name of the repository's default branch, cached per repo. */
+    public String getDefaultBranch(String owner, String repo) {
+        String key = (owner + "/" + repo).toLowerCase(Locale.ROOT);
+        String cached = defaultBranches.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Map<String, Object> repository = getRepository(owner, repo);
+        String branch = repository != null ? (String) repository.get("default_branch") : null;
+        if (branch != null) {
+            defaultBranches.put(key, branch);
+        }
+        return branch;
+    }
+
+    @CircuitBreaker(name = "githubApi")
+    public Map<String, Object> getRepository(String owner, String repo) {
+        String endpoint = "/repos/" + owner + "/" + repo;
+        Timer.Sample sample = metrics.startGitHubApiTimer();
+
+        try {
+            log.debug("GitHub API call: GET {}, correlationId={}", endpoint, CorrelationIdHolder.getCorrelationId());
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> response = webClient.get()
+                    .uri("/repos/{owner}/{repo}", owner, repo)
+                    .header("Authorization", "Bearer " + getToken())
+                    .header("Accept", "application/vnd.github+json")
+                    .header("X-GitHub-Api-Version", "2022-11-28")
+                    .header("X-Correlation-ID",
+                            CorrelationIdHolder.getCorrelationId() != null ? CorrelationIdHolder.getCorrelationId()
+                                    : "")
+                    .retrieve()
+                    .bodyToMono(Map.class)
+                    .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
+                            .filter(this::isTransientError))
+                    .block();
+
+            long duration = sample.stop(metrics.getGitHubApiDuration()) / 1_000_000;
+            metrics.recordGitHubApiCall(endpoint, duration);
+
+            return response;
+        } catch (WebClientResponseException e) {
+            handleWebClientException(e, endpoint, sample);
+            throw e;
+        }
+    }
+
     @CircuitBreaker(name = "githubApi")
     public Map<String, Object> createFile(String owner, String repo, String path, String content, String message,
             String branch) {
@@ -350,6 +441,42 @@ public class GitHubApiClient {
         }
     }
 
+    /** Open pull requests whose head is {@code branch} in the same repository (at most one in practice). */
+    @CircuitBreaker(name = "githubApi")
+    public List<Map<String, Object>> listOpenPullRequestsForBranch(String owner, String repo, String branch) {
+        String endpoint = "/repos/" + owner + "/" + repo + "/pulls";
+        Timer.Sample sample = metrics.startGitHubApiTimer();
+
+        try {
+            log.debug("GitHub API call: GET {}?head={}:{}, correlationId={}", endpoint, owner, branch,
+                    CorrelationIdHolder.getCorrelationId());
+
+            @SuppressWarnings("rawtypes")
+            List<Map> rawList = webClient.get()
+                    .uri("/repos/{owner}/{repo}/pulls?state=open&head={head}", owner, repo, owner + ":" + branch)
+                    .header("Authorization", "Bearer " + getToken())
+                    .header("Accept", "application/vnd.github+json")
+                    .header("X-GitHub-Api-Version", "2022-11-28")
+                    .header("X-Correlation-ID",
+                            CorrelationIdHolder.getCorrelationId() != null ? CorrelationIdHolder.getCorrelationId()
+                                    : "")
+                    .retrieve()
+                    .bodyToFlux(Map.class)
+                    .collectList()
+                    .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
+                            .filter(this::isTransientError))
+                    .block();
+
+            long duration = sample.stop(metrics.getGitHubApiDuration()) / 1_000_000;
+            metrics.recordGitHubApiCall(endpoint, duration);
+
+            return (List) rawList;
+        } catch (WebClientResponseException e) {
+            handleWebClientException(e, endpoint, sample);
+            throw e;
+        }
+    }
+
     @CircuitBreaker(name = "githubApi")
     public Map<String, Object> getWorkflowRun(String owner, String repo, long runId) {
         String endpoint = "/repos/" + owner + "/" + repo + "/actions/runs/" + runId;
@@ -681,6 +808,44 @@ public class GitHubApiClient {
 
     @CircuitBreaker(name = "githubApi")
     public Map<String, Object> getRepoContent(String owner, String repo, String path) {
+        return fetchRepoContent(owner, repo, path, null);
+    }
+
+    /**
+     * Read a file at {@code ref}. When {@code ref} is a full commit SHA the file is served
+     * from {@link RepoSnapshotCache} by its blob SHA, resolved from a previous lookup or a
+     * cached recursive tree of that commit.
+     */
+    @CircuitBreaker(name = "githubApi")
+    public Map<String, Object> getRepoContent(String owner, String repo, String path, String ref) {
+        if (!RepoSnapshotCache.isImmutableRef(ref)) {
+            return fetchRepoContent(owner, repo, path, ref);
+        }
+        String repoFullName = owner + "/" + repo;
+        String scope = credentialScope();
+        Optional<Map<String, Object>> cached = snapshotCache.blobShaAt(scope, repoFullName, ref, path)
+                .flatMap(blobSha -> snapshotCache.getBlob(scope, repoFullName, blobSha));
+        if (cached.isPresent()) {
+            Map<String, Object> file = new LinkedHashMap<>(cached.get());
+            file.put("path", path);
+            return file;
+        }
+
+        Map<String, Object> response = fetchRepoContent(owner, repo, path, ref);
+        if (response != null && "file".equals(response.get("type")) && response.get("sha") instanceof String blobSha) {
+            Map<String, Object> blob = new LinkedHashMap<>();
+            for (String field : List.of("type", "encoding", "size", "sha", "content")) {
+                if (response.get(field) != null) {
+                    blob.put(field, response.get(field));
+                }
+            }
+            snapshotCache.indexPath(scope, repoFullName, ref, path, blobSha);
+            snapshotCache.putBlob(scope, repoFullName, blobSha, blob);
+        }
+        return response;
+    }
+
+    private Map<String, Object> fetchRepoContent(String owner, String repo, String path, String ref) {
         String endpoint = "/repos/" + owner + "/" + repo + "/contents/" + path;
         Timer.Sample sample = metrics.startGitHubApiTimer();
 
@@ -689,7 +854,10 @@ public class GitHubApiClient {
 
             @SuppressWarnings("unchecked")
             Map<String, Object> response = webClient.get()
-                    .uri("/repos/{owner}/{repo}/contents/{path}", owner, repo, path)
+                    .uri(uriBuilder -> uriBuilder
+                            .path("/repos/{owner}/{repo}/contents/{path}")
+                            .queryParamIfPresent("ref", Optional.ofNullable(ref))
+                            .build(owner, repo, path))
                     .header("Authorization", "Bearer " + getToken())
                     .header("Accept", "application/vnd.github+json")
                     .header("X-GitHub-Api-Version", "2022-11-28")
@@ -746,8 +914,27 @@ public class GitHubApiClient {
         }
     }
 
+    /**
+     * Git tree for {@code sha}. Full SHAs are immutable, so their trees are served from
+     * {@link RepoSnapshotCache} after the first fetch; symbolic refs always go to GitHub.
+     */
     @CircuitBreaker(name = "githubApi")
     public Map<String, Object> getRepoTree(String owner, String repo, String sha, boolean recursive) {
+        if (!RepoSnapshotCache.isImmutableRef(sha)) {
+            return fetchRepoTree(owner, repo, sha, recursive);
+        }
+        String repoFullName = owner + "/" + repo;
+        String scope = credentialScope();
+        Optional<Map<String, Object>> cached = snapshotCache.getTree(scope, repoFullName, sha, recursive);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        Map<String, Object> tree = fetchRepoTree(owner, repo, sha, recursive);
+        snapshotCache.putTree(scope, repoFullName, sha, recursive, tree);
+        return tree;
+    }
+
+    private Map<String, Object> fetchRepoTree(String owner, String repo, String sha, boolean recursive) {
         String recursiveParam = recursive ? "1" : "0";
         String endpoint = "/repos/" + owner + "/" + repo + "/git/trees/" + sha;
         Timer.Sample sample = metrics.startGitHubApiTimer();
@@ -1025,6 +1212,10 @@ public class GitHubApiClient {
             metrics.recordGitHubApiRateLimit(endpoint);
             log.warn("GitHub API rate limit hit: endpoint={}, statusCode={}, correlationId={}",
                     endpoint, statusCode, CorrelationIdHolder.getCorrelationId());
+        } else if (statusCode == 401 && !StringUtils.hasText(CorrelationIdHolder.getGitHubToken())) {
+            gitHubAppService.invalidateInstallationToken();
+            log.warn("GitHub API rejected token, dropping cached installation token: endpoint={}, correlationId={}",
+                    endpoint, CorrelationIdHolder.getCorrelationId());
         } else if (statusCode >= 500) {
             log.error("GitHub API server error: endpoint={}, statusCode={}, correlationId={}",
                     endpoint, statusCode, CorrelationIdHolder.getCorrelationId());
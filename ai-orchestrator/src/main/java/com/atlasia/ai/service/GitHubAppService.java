@@ -1,8 +1,10 @@
 package com.atlasia.ai.service;
 
 import com.atlasia.ai.config.OrchestratorProperties;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.annotation.PreDestroy;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
 import org.bouncycastle.openssl.PEMParser;
 import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
@@ -12,23 +14,42 @@ import org.springframework.web.reactive.function.client.WebClient;
 import java.io.IOException;
 import java.io.StringReader;
 import java.security.PrivateKey;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 public class GitHubAppService {
+    /** GitHub installation tokens live one hour; used when the response omits expires_at. */
+    private static final Duration DEFAULT_TOKEN_TTL = Duration.ofHours(1);
+
     private final OrchestratorProperties properties;
     private final WebClient webClient;
     private final PrivateKey privateKey;
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final InstallationTokenCache tokenCache;
 
     public GitHubAppService(OrchestratorProperties properties, WebClient.Builder webClientBuilder,
-            @org.springframework.beans.factory.annotation.Value("${atlasia.github.api-url:https://api.github.com}") String githubApiUrl) {
+            @org.springframework.beans.factory.annotation.Value("${atlasia.github.api-url:https://api.github.com}") String githubApiUrl,
+            OrchestratorMetrics metrics) {
         this.properties = properties;
         this.webClient = webClientBuilder.baseUrl(githubApiUrl).build();
         this.privateKey = properties.github() != null
                 ? loadPrivateKeySafely(properties.github().privateKeyPath())
                 : null;
+        this.tokenCache = new InstallationTokenCache(this::mintInstallationToken,
+                refreshExecutor, metrics, Clock.systemUTC());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Background refreshes only re-mint a cached token, so in-flight ones are not waited for.
+        refreshExecutor.shutdownNow();
     }
 
     private PrivateKey loadPrivateKeySafely(String path) {
@@ -75,16 +96,30 @@ public class GitHubAppService {
                 .compact();
     }
 
+    /**
+     * Installation access token for the configured installation, served from
+     * {@link InstallationTokenCache} and re-minted only near {@code expires_at}.
+     */
     public String getInstallationToken() {
         if (privateKey == null) {
             return null;
         }
-        String jwt = generateJWT();
         String installationId = properties.github().installationId();
         if (installationId == null || installationId.trim().isEmpty()) {
             return null;
         }
+        return tokenCache.get(installationId);
+    }
+
+    /** Drop the cached token, e.g. after GitHub rejected it with 401. */
+    public void invalidateInstallationToken() {
+        if (properties.github() != null && properties.github().installationId() != null) {
+            tokenCache.invalidate(properties.github().installationId());
+        }
+    }
 
+    private InstallationTokenCache.InstallationToken mintInstallationToken(String installationId) {
+        String jwt = generateJWT();
         Map<String, Object> response = webClient.post()
                 .uri("/app/installations/{installation_id}/access_tokens", installationId)
                 .header("Authorization", "Bearer " + jwt)
@@ -93,6 +128,21 @@ public class GitHubAppService {
                 .bodyToMono(Map.class)
                 .block();
 
-        return response != null ? (String) response.get("token") : null;
+        if (response == null || response.get("token") == null) {
+            return null;
+        }
+        return new InstallationTokenCache.InstallationToken((String) response.get("token"),
+                parseExpiresAt(response.get("expires_at")));
+    }
+
+    private static Instant parseExpiresAt(Object expiresAt) {
+        if (expiresAt instanceof String value) {
+            try {
+                return Instant.parse(value);
+            } catch (DateTimeParseException ignored) {
+                // fall through to the documented default lifetime
+            }
+        }
+        return Instant.now().plus(DEFAULT_TOKEN_TTL);
     }
 }
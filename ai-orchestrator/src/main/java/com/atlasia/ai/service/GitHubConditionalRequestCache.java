@@ -0,0 +1,92 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * HTTP-level ETag cache for GitHub GET requests.
+ *
+ * A 200 carrying an {@code ETag} is remembered per (credential, URL, Accept); the next GET
+ * for the same key is sent with {@code If-None-Match} and a 304 is answered from the stored
+ * body. GitHub does not charge 304s against the primary rate limit, so polling endpoints
+ * (check runs, PRs, comments) stop burning budget while nothing changes. Entries are keyed
+ * by credential so a token never sees a body fetched with another token.
+ */
+@Component
+public class GitHubConditionalRequestCache {
+
+    private static final int MAX_BODY_CHARS = 1024 * 1024;
+
+    private final Cache<String, Entry> entries;
+    private final OrchestratorMetrics metrics;
+
+    public GitHubConditionalRequestCache(
+            @Value("${atlasia.orchestrator.github-etag-cache.max-weight-mb:32}") long maxWeightMb,
+            OrchestratorMetrics metrics) {
+        this.metrics = metrics;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxWeightMb * 1024 * 1024)
+                .weigher((String key, Entry entry) -> entry.body().length() + key.length())
+                .build();
+    }
+
+    public ExchangeFilterFunction filter() {
+        return (request, next) -> {
+            if (!HttpMethod.GET.equals(request.method())) {
+                return next.exchange(request);
+            }
+            String key = cacheKey(request);
+            Entry cached = entries.getIfPresent(key);
+            ClientRequest outgoing = cached == null ? request
+                    : ClientRequest.from(request).header(HttpHeaders.IF_NONE_MATCH, cached.etag()).build();
+
+            return next.exchange(outgoing).flatMap(response -> {
+                if (cached != null && response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                    metrics.recordGitHubConditionalRequest("not_modified");
+                    return response.releaseBody().then(Mono.fromSupplier(() -> response.mutate()
+                            .statusCode(HttpStatus.OK)
+                            .headers(headers -> headers.setContentType(cached.contentType()))
+                            .body(cached.body())
+                            .build()));
+                }
+                String etag = response.headers().asHttpHeaders().getETag();
+                if (response.statusCode().value() != HttpStatus.OK.value() || etag == null) {
+                    return Mono.just(response);
+                }
+                MediaType contentType = response.headers().contentType().orElse(MediaType.APPLICATION_JSON);
+                return response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(body -> {
+                            if (body.length() <= MAX_BODY_CHARS) {
+                                entries.put(key, new Entry(etag, contentType, body));
+                                metrics.recordGitHubConditionalRequest(cached == null ? "stored" : "modified");
+                            }
+                            return response.mutate().body(body).build();
+                        });
+            });
+        };
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    private static String cacheKey(ClientRequest request) {
+        return GitHubRateLimitGovernor.tokenKey(request)
+                + "|" + request.headers().getFirst(HttpHeaders.ACCEPT)
+                + "|" + request.url();
+    }
+
+    private record Entry(String etag, MediaType contentType, String body) {}
+}
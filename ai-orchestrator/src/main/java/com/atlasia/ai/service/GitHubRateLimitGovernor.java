@@ -0,0 +1,181 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-token GitHub rate-limit budget, fed from {@code X-RateLimit-*} and {@code Retry-After}
+ * response headers.
+ *
+ * Once a token's remaining budget drops under the low-water mark, reads (GET) are spaced
+ * evenly over the time left until reset; under the hard reserve they are deferred until
+ * reset so the remaining calls go to writes that move runs forward. A secondary-limit
+ * response (403/429 with {@code Retry-After}, or a 403 with zero remaining) holds every
+ * call on that token until the server says it may retry. Waits are capped at
+ * {@link #MAX_DEFER}; beyond that the call is sent and GitHub's answer decides.
+ */
+@Component
+public class GitHubRateLimitGovernor {
+
+    private static final Logger log = LoggerFactory.getLogger(GitHubRateLimitGovernor.class);
+
+    static final double LOW_WATER_FRACTION = 0.10;
+    static final int HARD_RESERVE = 25;
+    static final Duration MAX_DEFER = Duration.ofMinutes(2);
+
+    private final OrchestratorMetrics metrics;
+    private final Clock clock;
+    private final Cache<String, Budget> budgets = Caffeine.newBuilder()
+            .expireAfterAccess(2, TimeUnit.HOURS)
+            .maximumSize(1_000)
+            .build();
+
+    @Autowired
+    public GitHubRateLimitGovernor(OrchestratorMetrics metrics) {
+        this(metrics, Clock.systemUTC());
+    }
+
+    GitHubRateLimitGovernor(OrchestratorMetrics metrics, Clock clock) {
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    /** WebClient filter: wait out the token's budget before sending, record headers after. */
+    public ExchangeFilterFunction filter() {
+        return (request, next) -> {
+            String tokenKey = tokenKey(request);
+            Duration wait = reserve(tokenKey, request.method());
+            Mono<Void> gate = wait.isZero() ? Mono.empty() : Mono.delay(wait).then();
+            return gate.then(Mono.defer(() -> next.exchange(request)))
+                    .doOnNext(response -> observe(tokenKey,
+                            response.headers().asHttpHeaders(), response.statusCode().value()));
+        };
+    }
+
+    /** How long a request on this token should wait before it is sent. */
+    Duration reserve(String tokenKey, HttpMethod method) {
+        Budget budget = budgets.getIfPresent(tokenKey);
+        if (budget == null) {
+            return Duration.ZERO;
+        }
+        Instant now = clock.instant();
+        Duration wait;
+        String reason = null;
+
+        synchronized (budget) {
+            if (budget.blockedUntil != null && budget.blockedUntil.isAfter(now)) {
+                wait = Duration.between(now, budget.blockedUntil);
+                reason = "secondary_limit";
+            } else if (!HttpMethod.GET.equals(method) || budget.reset == null || !budget.reset.isAfter(now)
+                    || budget.remaining > lowWater(budget.limit)) {
+                wait = Duration.ZERO;
+            } else if (budget.remaining <= HARD_RESERVE) {
+                wait = Duration.between(now, budget.reset);
+                reason = "reserve";
+            } else {
+                Duration spacing = Duration.between(now, budget.reset).dividedBy(Math.max(budget.remaining, 1));
+                Instant slot = budget.nextReadAt != null && budget.nextReadAt.isAfter(now) ? budget.nextReadAt : now;
+                budget.nextReadAt = slot.plus(spacing);
+                wait = Duration.between(now, slot);
+                reason = wait.isZero() ? null : "paced";
+            }
+        }
+
+        if (reason != null) {
+            metrics.recordGitHubRateLimitDeferral(reason);
+            log.debug("Deferring GitHub {} by {}ms: reason={}", method, wait.toMillis(), reason);
+        }
+        return wait.compareTo(MAX_DEFER) > 0 ? MAX_DEFER : wait;
+    }
+
+    void observe(String tokenKey, HttpHeaders headers, int status) {
+        Integer remaining = intHeader(headers, "X-RateLimit-Remaining");
+        Integer limit = intHeader(headers, "X-RateLimit-Limit");
+        Integer reset = intHeader(headers, "X-RateLimit-Reset");
+        Integer retryAfter = intHeader(headers, "Retry-After");
+        if (remaining == null && retryAfter == null) {
+            return;
+        }
+
+        Budget budget = budgets.get(tokenKey, k -> new Budget());
+        Instant now = clock.instant();
+        synchronized (budget) {
+            if (remaining != null) {
+                budget.remaining = remaining;
+            }
+            if (limit != null) {
+                budget.limit = limit;
+            }
+            if (reset != null) {
+                budget.reset = Instant.ofEpochSecond(reset);
+            }
+            if ((status == 403 || status == 429) && retryAfter != null) {
+                budget.blockedUntil = now.plusSeconds(retryAfter);
+            } else if (status == 403 && remaining != null && remaining == 0 && budget.reset != null) {
+                budget.blockedUntil = budget.reset;
+            }
+        }
+
+        if (remaining != null) {
+            String resource = headers.getFirst("X-RateLimit-Resource");
+            metrics.updateGitHubRateLimitRemaining(resource != null ? resource : "core", remaining);
+        }
+    }
+
+    private static int lowWater(int limit) {
+        return Math.max(HARD_RESERVE * 4, (int) (limit * LOW_WATER_FRACTION));
+    }
+
+    private static Integer intHeader(HttpHeaders headers, String name) {
+        String value = headers.getFirst(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Stable, non-reversible key for the credential on a request. */
+    static String tokenKey(ClientRequest request) {
+        String authorization = request.headers().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization == null) {
+            return "anonymous";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(authorization.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Budget {
+        private int limit = 5_000;
+        private int remaining = Integer.MAX_VALUE;
+        private Instant reset;
+        private Instant blockedUntil;
+        private Instant nextReadAt;
+    }
+}
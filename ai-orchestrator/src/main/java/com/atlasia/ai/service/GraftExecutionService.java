@@ -18,7 +18,6 @@ import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -59,6 +58,7 @@ public class GraftExecutionService {
 
     private final GraftExecutionRepository graftExecutionRepository;
     private final RunRepository runRepository;
+    private final RunStateService runStateService;
     private final AgentStepFactory agentStepFactory;
     private final A2ADiscoveryService a2aDiscoveryService;
     private final WorkflowEventBus eventBus;
@@ -70,6 +70,7 @@ public class GraftExecutionService {
     public GraftExecutionService(
             GraftExecutionRepository graftExecutionRepository,
             RunRepository runRepository,
+            RunStateService runStateService,
             AgentStepFactory agentStepFactory,
             A2ADiscoveryService a2aDiscoveryService,
             WorkflowEventBus eventBus,
@@ -77,6 +78,7 @@ public class GraftExecutionService {
             ObjectMapper objectMapper) {
         this.graftExecutionRepository = graftExecutionRepository;
         this.runRepository = runRepository;
+        this.runStateService = runStateService;
         this.agentStepFactory = agentStepFactory;
         this.a2aDiscoveryService = a2aDiscoveryService;
         this.eventBus = eventBus;
@@ -100,7 +102,6 @@ public class GraftExecutionService {
      * @param context    the current RunContext with all prior step outputs
      * @param runEntity  the RunEntity to persist graft metadata
      */
-    @Transactional
     public void executeGraftsAfterCheckpoint(UUID runId, String checkpoint, RunContext context, RunEntity runEntity) {
         String pendingGraftsJson = runEntity.getPendingGrafts();
         if (pendingGraftsJson == null || pendingGraftsJson.isBlank() || pendingGraftsJson.equals("[]")) {
@@ -184,9 +185,12 @@ public class GraftExecutionService {
                 }
             }
 
-            runEntity.setPendingGrafts(remaining.isEmpty() ? "[]" : objectMapper.writeValueAsString(remaining));
-            runEntity.setExecutedGrafts(objectMapper.writeValueAsString(executed));
-            runRepository.save(runEntity);
+            String pendingJson = remaining.isEmpty() ? "[]" : objectMapper.writeValueAsString(remaining);
+            String executedJson = objectMapper.writeValueAsString(executed);
+            runStateService.commit(runEntity, r -> {
+                r.setPendingGrafts(pendingJson);
+                r.setExecutedGrafts(executedJson);
+            });
 
         } catch (Exception e) {
             log.error("GRAFT: failed to process pending grafts: runId={}", runId, e);
@@ -369,8 +373,7 @@ public class GraftExecutionService {
                     artifact,
                     Instant.now()
             );
-            runEntity.addArtifact(artifactEntity);
-            runRepository.save(runEntity);
+            runStateService.appendArtifact(runEntity, artifactEntity);
 
             UUID artifactId = artifactEntity.getId();
             
@@ -556,8 +559,7 @@ public class GraftExecutionService {
                 execution.setOutputArtifactId(result.artifactId());
                 graftExecutionRepository.save(execution);
 
-                targetRunEntity.setStatus(RunStatus.DONE);
-                runRepository.save(targetRunEntity);
+                runStateService.commit(targetRunEntity, r -> r.setStatus(RunStatus.DONE));
 
                 long duration = Duration.between(execution.getStartedAt(), execution.getCompletedAt()).toMillis();
                 metrics.recordGraftSuccess(agentName, duration);
@@ -577,8 +579,7 @@ public class GraftExecutionService {
                 execution.setCompletedAt(Instant.now());
                 graftExecutionRepository.save(execution);
 
-                targetRunEntity.setStatus(RunStatus.FAILED);
-                runRepository.save(targetRunEntity);
+                runStateService.commit(targetRunEntity, r -> r.setStatus(RunStatus.FAILED));
 
                 metrics.recordGraftFailure(agentName);
                 recordFailure(agentName);
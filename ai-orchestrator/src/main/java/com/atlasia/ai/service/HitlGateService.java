@@ -8,34 +8,40 @@ import com.atlasia.ai.service.event.WorkflowEvent;
 import com.atlasia.ai.service.event.WorkflowEventBus;
 import com.atlasia.ai.service.trace.TraceEventService;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Service
 public class HitlGateService {
 
     public static final String GATE_ARCHITECTURE_APPROVAL = "architecture_approval";
     public static final String RESUME_AFTER_ARCHITECTURE_GATE = "AFTER_ARCHITECTURE_GATE";
+    public static final String GATE_INTERRUPT_APPROVAL = "interrupt_approval";
+    public static final String RESUME_AT_INTERRUPT_PREFIX = "AT_INTERRUPT:";
 
     private final RunRepository runRepository;
     private final BlackboardService blackboardService;
     private final TaskLedgerBuilder taskLedgerBuilder;
     private final WorkflowEventBus eventBus;
     private final TraceEventService traceEventService;
+    private final RunStateService runStateService;
 
     public HitlGateService(
             RunRepository runRepository,
             BlackboardService blackboardService,
             TaskLedgerBuilder taskLedgerBuilder,
             WorkflowEventBus eventBus,
-            TraceEventService traceEventService) {
+            TraceEventService traceEventService,
+            RunStateService runStateService) {
         this.runRepository = runRepository;
         this.blackboardService = blackboardService;
         this.taskLedgerBuilder = taskLedgerBuilder;
         this.eventBus = eventBus;
         this.traceEventService = traceEventService;
+        this.runStateService = runStateService;
     }
 
     /**
@@ -63,10 +69,11 @@ public class HitlGateService {
     }
 
     public void finalizeArchitectureGatePause(RunEntity run, UUID runId) {
-        run.setStatus(RunStatus.WAITING_GATE);
-        run.setPendingHitlGate(GATE_ARCHITECTURE_APPROVAL);
-        run.setEnvironmentLifecycle(EnvironmentLifecycle.PAUSED);
-        runRepository.save(run);
+        runStateService.commit(run, r -> {
+            r.setStatus(RunStatus.WAITING_GATE);
+            r.setPendingHitlGate(GATE_ARCHITECTURE_APPROVAL);
+            r.setEnvironmentLifecycle(EnvironmentLifecycle.PAUSED);
+        });
 
         WorkflowEvent.GatePause evt = new WorkflowEvent.GatePause(
                 runId,
@@ -77,12 +84,67 @@ public class HitlGateService {
         traceEventService.recordEvent(evt);
     }
 
-    @Transactional
+    /**
+     * Park the run at a dynamic-interrupt checkpoint. The continuation point
+     * ({@code AT_INTERRUPT:<agent>:<action>}) is persisted on the run so the engine can re-enter
+     * the pipeline at that checkpoint once a decision is recorded, on any worker.
+     */
+    public void suspendForInterrupt(RunEntity run, String agentName, String action, String message) {
+        UUID runId = run.getId();
+        runStateService.commit(run, r -> {
+            r.setStatus(RunStatus.WAITING_GATE);
+            r.setPendingHitlGate(GATE_INTERRUPT_APPROVAL);
+            r.setWorkflowResumeFrom(RESUME_AT_INTERRUPT_PREFIX + agentName + ":" + action);
+            r.setEnvironmentLifecycle(EnvironmentLifecycle.PAUSED);
+        });
+
+        WorkflowEvent.GatePause evt = new WorkflowEvent.GatePause(
+                runId,
+                Instant.now(),
+                GATE_INTERRUPT_APPROVAL,
+                message != null ? message : "Human approval required before " + agentName + " " + action + ".");
+        eventBus.emit(runId, evt);
+        traceEventService.recordEvent(evt);
+    }
+
+    /**
+     * Moves a run parked at an interrupt checkpoint back to {@link RunStatus#RECEIVED}.
+     *
+     * @return true if this caller performed the transition and should dispatch the resume;
+     *         false if the run is not (or no longer) parked at an interrupt
+     */
+    public boolean releaseInterrupt(UUID runId) {
+        return runStateService.transition(runId,
+                r -> r.getStatus() == RunStatus.WAITING_GATE
+                        && GATE_INTERRUPT_APPROVAL.equals(r.getPendingHitlGate()),
+                r -> {
+                    r.setPendingHitlGate(null);
+                    r.setStatus(RunStatus.RECEIVED);
+                    r.setEnvironmentLifecycle(EnvironmentLifecycle.ACTIVE);
+                });
+    }
+
+    /**
+     * The {@code <agent>:<action>} checkpoint encoded in a {@code workflowResumeFrom} value,
+     * or null when the run is not resuming from an interrupt.
+     */
+    public static String interruptCheckpoint(String workflowResumeFrom) {
+        if (workflowResumeFrom == null || !workflowResumeFrom.startsWith(RESUME_AT_INTERRUPT_PREFIX)) {
+            return null;
+        }
+        return workflowResumeFrom.substring(RESUME_AT_INTERRUPT_PREFIX.length());
+    }
+
+    /**
+     * The run row is moved off the gate with a guarded {@link RunStateService#transition}, so a
+     * second response to the same gate, or any concurrent writer, gets a conflict instead of a
+     * lost update; the ledger entry is written only once the transition succeeded.
+     */
     public void applyGateResponse(UUID runId, String gateName, String decision, String comment) throws Exception {
         RunEntity run = runRepository.findById(runId).orElseThrow();
-        if (run.getStatus() != RunStatus.WAITING_GATE
-                || run.getPendingHitlGate() == null
-                || !run.getPendingHitlGate().equals(gateName)) {
+        Predicate<RunEntity> waitingAtGate = r -> r.getStatus() == RunStatus.WAITING_GATE
+                && gateName.equals(r.getPendingHitlGate());
+        if (!waitingAtGate.test(run)) {
             throw new IllegalStateException("Run is not waiting at gate: " + gateName);
         }
 
@@ -106,12 +168,13 @@ public class HitlGateService {
                     "HITL gate rejected" + (comment != null && !comment.isBlank() ? ": " + comment : ""),
                     gateName,
                     -1);
+            moveOffGate(runId, waitingAtGate, gateName, r -> {
+                r.setPendingHitlGate(null);
+                r.setWorkflowResumeFrom(null);
+                r.setStatus(RunStatus.FAILED);
+                r.setEnvironmentLifecycle(EnvironmentLifecycle.PAUSED);
+            });
             blackboardService.write(run, "task_ledger", "orchestrator", ledger);
-            run.setPendingHitlGate(null);
-            run.setWorkflowResumeFrom(null);
-            run.setStatus(RunStatus.FAILED);
-            run.setEnvironmentLifecycle(EnvironmentLifecycle.PAUSED);
-            runRepository.save(run);
             return;
         }
 
@@ -125,12 +188,19 @@ public class HitlGateService {
                 "HITL gate cleared — proceeding to implementation",
                 gateName,
                 -1);
+        moveOffGate(runId, waitingAtGate, gateName, r -> {
+            r.setPendingHitlGate(null);
+            r.setWorkflowResumeFrom(RESUME_AFTER_ARCHITECTURE_GATE);
+            r.setStatus(RunStatus.RECEIVED);
+            r.setEnvironmentLifecycle(EnvironmentLifecycle.ACTIVE);
+        });
         blackboardService.write(run, "task_ledger", "orchestrator", ledger);
+    }
 
-        run.setPendingHitlGate(null);
-        run.setWorkflowResumeFrom(RESUME_AFTER_ARCHITECTURE_GATE);
-        run.setStatus(RunStatus.RECEIVED);
-        run.setEnvironmentLifecycle(EnvironmentLifecycle.ACTIVE);
-        runRepository.save(run);
+    private void moveOffGate(UUID runId, Predicate<RunEntity> waitingAtGate, String gateName,
+                             Consumer<RunEntity> mutation) {
+        if (!runStateService.transition(runId, waitingAtGate, mutation)) {
+            throw new IllegalStateException("Run is not waiting at gate: " + gateName);
+        }
     }
 }
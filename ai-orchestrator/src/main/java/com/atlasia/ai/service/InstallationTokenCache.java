@@ -0,0 +1,117 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Per-installation cache of GitHub App access tokens.
+ *
+ * Tokens are served from memory until {@code expires_at}. Inside the refresh window a
+ * cached token is still returned while a single background refresh is started; once a
+ * token is past its usable lifetime callers join the same in-flight mint rather than
+ * each calling {@code /access_tokens}.
+ */
+class InstallationTokenCache {
+
+    private static final Logger log = LoggerFactory.getLogger(InstallationTokenCache.class);
+
+    /** Start refreshing this long before {@code expires_at}. */
+    static final Duration REFRESH_AHEAD = Duration.ofMinutes(5);
+    /** Never hand out a token that expires sooner than this. */
+    static final Duration MIN_REMAINING = Duration.ofSeconds(30);
+
+    record InstallationToken(String token, Instant expiresAt) {}
+
+    private final Function<String, InstallationToken> minter;
+    private final Executor refreshExecutor;
+    private final OrchestratorMetrics metrics;
+    private final Clock clock;
+
+    private final ConcurrentHashMap<String, InstallationToken> tokens = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<InstallationToken>> inFlight = new ConcurrentHashMap<>();
+
+    InstallationTokenCache(Function<String, InstallationToken> minter, Executor refreshExecutor,
+            OrchestratorMetrics metrics, Clock clock) {
+        this.minter = minter;
+        this.refreshExecutor = refreshExecutor;
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    String get(String installationId) {
+        Instant now = clock.instant();
+        InstallationToken cached = tokens.get(installationId);
+
+        if (cached != null && cached.expiresAt().isAfter(now.plus(MIN_REMAINING))) {
+            metrics.recordGitHubTokenCache("hit");
+            if (!cached.expiresAt().isAfter(now.plus(REFRESH_AHEAD))) {
+                refresh(installationId, true);
+            }
+            return cached.token();
+        }
+
+        metrics.recordGitHubTokenCache("miss");
+        try {
+            InstallationToken minted = refresh(installationId, false).join();
+            return minted != null ? minted.token() : null;
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    void invalidate(String installationId) {
+        tokens.remove(installationId);
+    }
+
+    private CompletableFuture<InstallationToken> refresh(String installationId, boolean background) {
+        CompletableFuture<InstallationToken> created = new CompletableFuture<>();
+        CompletableFuture<InstallationToken> existing = inFlight.putIfAbsent(installationId, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        Runnable mint = () -> {
+            try {
+                InstallationToken minted = minter.apply(installationId);
+                if (minted != null) {
+                    tokens.put(installationId, minted);
+                }
+                metrics.recordGitHubTokenCache(background ? "refresh" : "mint");
+                created.complete(minted);
+            } catch (RuntimeException e) {
+                if (background) {
+                    log.warn("Background refresh of installation token failed: installationId={}, error={}",
+                            installationId, e.getMessage());
+                }
+                metrics.recordGitHubTokenCache("refresh_error");
+                created.completeExceptionally(e);
+            } finally {
+                inFlight.remove(installationId, created);
+            }
+        };
+
+        if (background) {
+            try {
+                refreshExecutor.execute(mint);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: later callers must mint themselves rather than join a refresh that never runs.
+                inFlight.remove(installationId, created);
+                created.completeExceptionally(e);
+            }
+        } else {
+            mint.run();
+        }
+        return created;
+    }
+}
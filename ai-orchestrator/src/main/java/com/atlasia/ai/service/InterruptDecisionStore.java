@@ -1,71 +1,161 @@
 package com.atlasia.ai.service;
 
+import com.atlasia.ai.model.PendingInterruptEntity;
+import com.atlasia.ai.persistence.PendingInterruptRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Shared store for pending interrupt decisions.
+ * Durable store for pending interrupt decisions.
  *
- * WorkflowEngine parks a CompletableFuture here before blocking on human input.
- * OversightController calls complete() when the human submits their decision.
- * The separation keeps controller and service layers independent.
+ * WorkflowEngine parks a row here and suspends the run instead of blocking a thread.
+ * OversightController records the human's decision on that row; the engine consumes it when
+ * the resumed run reaches the same checkpoint again. Rows live in {@code ai_pending_interrupt},
+ * so pending approvals and recorded-but-unconsumed decisions survive a restart.
  */
 @Service
 public class InterruptDecisionStore {
 
+    public static final String DECISION_APPROVE = "approve";
+    public static final String DECISION_DENY = "deny";
+    public static final String DECISION_TIMEOUT = "timeout";
+
     public record PendingApproval(
             UUID runId,
             String agentName,
+            String action,
             String ruleName,
             String tier,
             String message,
             Instant createdAt) {}
 
-    private final ConcurrentHashMap<UUID, CompletableFuture<String>> futures  = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<UUID, PendingApproval>           metadata = new ConcurrentHashMap<>();
+    /**
+     * Run state restored on resume.
+     *
+     * @param continuationState JSON the engine needs to continue past the checkpoint, or null
+     * @param gitHubToken token the run was started with, or null for the App installation token
+     */
+    public record ResumeState(
+            String continuationState,
+            String gitHubToken,
+            int reviewDeveloperLoops,
+            int testerDeveloperLoops) {}
+
+    private final PendingInterruptRepository repository;
+
+    public InterruptDecisionStore(PendingInterruptRepository repository) {
+        this.repository = repository;
+    }
 
     /**
-     * Register a pending approval request and return a future the caller can block on.
-     * The future completes with the human's decision string ("approve" / "deny").
+     * Register a pending approval for the checkpoint {@code agentName}/{@code action}, replacing
+     * any earlier row for the run.
      */
-    public CompletableFuture<String> park(UUID runId, String agentName,
-                                          String ruleName, String tier, String message) {
-        CompletableFuture<String> future = new CompletableFuture<>();
-        futures.put(runId, future);
-        metadata.put(runId, new PendingApproval(runId, agentName, ruleName, tier, message, Instant.now()));
-        return future;
+    @Transactional
+    public PendingApproval park(UUID runId, String agentName, String action, String ruleName,
+                                String tier, String message, ResumeState resumeState) {
+        PendingInterruptEntity row = new PendingInterruptEntity(runId, agentName, action, ruleName, tier, message);
+        row.setContinuationState(resumeState.continuationState());
+        row.setGitHubToken(resumeState.gitHubToken());
+        row.setReviewDeveloperLoops(resumeState.reviewDeveloperLoops());
+        row.setTesterDeveloperLoops(resumeState.testerDeveloperLoops());
+        return toPendingApproval(repository.save(row));
     }
 
     /**
-     * Complete a parked future with the given decision.
+     * Record a decision on an undecided interrupt.
      *
-     * @return true if a future was found and completed, false if no pending request exists
+     * @return true if an undecided interrupt was found and the decision recorded
+     */
+    @Transactional
+    public boolean complete(UUID runId, String decision, String decidedBy) {
+        String normalized = normalize(decision);
+        if (normalized == null) {
+            throw new IllegalArgumentException("Unknown interrupt decision: " + decision);
+        }
+        Optional<PendingInterruptEntity> row = repository.findById(runId);
+        if (row.isEmpty() || row.get().getDecision() != null) {
+            return false;
+        }
+        PendingInterruptEntity pending = row.get();
+        pending.setDecision(normalized);
+        pending.setDecidedBy(decidedBy);
+        pending.setDecidedAt(Instant.now());
+        repository.save(pending);
+        return true;
+    }
+
+    public Optional<PendingInterruptEntity> find(UUID runId) {
+        return repository.findById(runId);
+    }
+
+    /**
+     * Consume an approval recorded for exactly this checkpoint. The row is deleted so the
+     * approval cannot be replayed at a later checkpoint.
      */
-    public boolean complete(UUID runId, String decision) {
-        metadata.remove(runId);
-        CompletableFuture<String> f = futures.remove(runId);
-        if (f != null) {
-            f.complete(decision);
-            return true;
+    @Transactional
+    public boolean consumeApproval(UUID runId, String agentName, String action) {
+        Optional<PendingInterruptEntity> row = repository.findById(runId);
+        if (row.isEmpty()
+                || !DECISION_APPROVE.equals(row.get().getDecision())
+                || !agentName.equals(row.get().getAgentName())
+                || !action.equals(row.get().getAction())) {
+            return false;
         }
-        return false;
+        repository.delete(row.get());
+        return true;
     }
 
-    /** Cancel a parked future (called on timeout or workflow abort). */
+    /** Drop the interrupt for a run (denied, timed out or aborted). */
+    @Transactional
     public void cancel(UUID runId) {
-        metadata.remove(runId);
-        CompletableFuture<String> f = futures.remove(runId);
-        if (f != null) f.cancel(true);
+        repository.findById(runId).ifPresent(repository::delete);
     }
 
-    /** Read-only view of all pending approvals (for oversight UI). */
+    /** Read-only view of all undecided approvals (for oversight UI). */
     public Collection<PendingApproval> getPending() {
-        return Collections.unmodifiableCollection(metadata.values());
+        return repository.findByDecisionIsNullOrderByCreatedAtAsc().stream()
+                .map(InterruptDecisionStore::toPendingApproval)
+                .toList();
+    }
+
+    /** Undecided interrupts parked before {@code cutoff}. */
+    public List<UUID> findExpired(Instant cutoff) {
+        return repository.findByDecisionIsNullAndCreatedAtBefore(cutoff).stream()
+                .map(PendingInterruptEntity::getRunId)
+                .toList();
+    }
+
+    /** Runs with a recorded decision that the engine has not consumed yet. */
+    public List<UUID> findDecided() {
+        return repository.findByDecisionIsNotNull().stream()
+                .map(PendingInterruptEntity::getRunId)
+                .toList();
+    }
+
+    /** Maps a submitted decision onto {@code approve}/{@code deny}/{@code timeout}, or null if unknown. */
+    public static String normalize(String decision) {
+        if (decision == null) {
+            return null;
+        }
+        String d = decision.trim().toLowerCase(Locale.ROOT);
+        return switch (d) {
+            case "approve", "approved" -> DECISION_APPROVE;
+            case "deny", "denied", "reject" -> DECISION_DENY;
+            case DECISION_TIMEOUT -> DECISION_TIMEOUT;
+            default -> null;
+        };
+    }
+
+    private static PendingApproval toPendingApproval(PendingInterruptEntity row) {
+        return new PendingApproval(row.getRunId(), row.getAgentName(), row.getAction(),
+                row.getRuleName(), row.getTier(), row.getMessage(), row.getCreatedAt());
     }
 }
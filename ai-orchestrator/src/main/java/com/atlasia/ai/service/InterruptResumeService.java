@@ -0,0 +1,89 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.PendingInterruptEntity;
+import com.atlasia.ai.model.RunQueueLane;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Resumes runs suspended at a dynamic-interrupt checkpoint.
+ *
+ * A decision submitted through OversightController is recorded in {@link InterruptDecisionStore}
+ * and the run is put back on the {@link RunQueueService} interactive lane, which re-enters the pipeline at the
+ * persisted checkpoint. A periodic sweep times out undecided interrupts after
+ * {@code atlasia.orchestrator.interrupt.timeout-minutes} and re-dispatches decided runs that
+ * never resumed (e.g. the node restarted between decision and dispatch). Dispatch is guarded
+ * by a conditional run-state transition, so a run is resumed at most once per decision. The
+ * run continues with the GitHub token it was started with, stored with the interrupt, so a
+ * resume neither depends on the decider's token nor silently switches to the App token.
+ */
+@Service
+public class InterruptResumeService {
+    private static final Logger log = LoggerFactory.getLogger(InterruptResumeService.class);
+
+    private final InterruptDecisionStore decisionStore;
+    private final HitlGateService hitlGateService;
+    private final RunQueueService runQueueService;
+    private final OrchestratorMetrics metrics;
+    private final Duration timeout;
+
+    public InterruptResumeService(
+            InterruptDecisionStore decisionStore,
+            HitlGateService hitlGateService,
+            RunQueueService runQueueService,
+            OrchestratorMetrics metrics,
+            @Value("${atlasia.orchestrator.interrupt.timeout-minutes:15}") long timeoutMinutes) {
+        this.decisionStore = decisionStore;
+        this.hitlGateService = hitlGateService;
+        this.runQueueService = runQueueService;
+        this.metrics = metrics;
+        this.timeout = Duration.ofMinutes(timeoutMinutes);
+    }
+
+    /**
+     * Record a human decision and resume the run.
+     *
+     * @return false if the run has no undecided interrupt
+     * @throws IllegalArgumentException if {@code decision} is not approve/deny
+     */
+    public boolean submitDecision(UUID runId, String decision, String decidedBy, String gitHubToken) {
+        if (!decisionStore.complete(runId, decision, decidedBy)) {
+            return false;
+        }
+        resume(runId, gitHubToken, "decision");
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${atlasia.orchestrator.interrupt.sweep-interval-ms:60000}")
+    public void sweep() {
+        Instant cutoff = Instant.now().minus(timeout);
+        for (UUID runId : decisionStore.findExpired(cutoff)) {
+            if (decisionStore.complete(runId, InterruptDecisionStore.DECISION_TIMEOUT, "system")) {
+                log.warn("Interrupt timed out without a decision: runId={}, timeoutMinutes={}",
+                        runId, timeout.toMinutes());
+                resume(runId, null, "timeout");
+            }
+        }
+        for (UUID runId : decisionStore.findDecided()) {
+            resume(runId, null, "recovery");
+        }
+    }
+
+    private void resume(UUID runId, String gitHubToken, String trigger) {
+        if (!hitlGateService.releaseInterrupt(runId)) {
+            return;
+        }
+        log.info("Resuming run from interrupt checkpoint: runId={}, trigger={}", runId, trigger);
+        metrics.recordInterruptResume(trigger);
+        String runToken = decisionStore.find(runId).map(PendingInterruptEntity::getGitHubToken).orElse(null);
+        runQueueService.enqueue(runId, RunQueueLane.INTERACTIVE, runToken != null ? runToken : gitHubToken);
+    }
+}
@@ -1,6 +1,7 @@
 package com.atlasia.ai.service;
 
 import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.TaskComplexity;
 import com.atlasia.ai.service.observability.CorrelationIdHolder;
 import com.atlasia.ai.service.observability.OrchestratorMetrics;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -9,10 +10,20 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Judge Service — LLM-as-a-Judge Quality Arbiter.
@@ -22,7 +33,7 @@ import java.util.*;
  *
  * Implements:
  *   - Single-agent evaluation (standard Judge pattern)
- *   - Majority Voting (3 independent evaluations for high-stakes decisions)
+ *   - Majority Voting (3 concurrent evaluations for high-stakes decisions, stopping once decided)
  *   - Confidence-Weighted Synthesis (for conflict arbitration)
  *   - Pass@1 tracking (percentage of tasks passing on first attempt)
  */
@@ -35,6 +46,8 @@ public class JudgeService {
     private final JsonSchemaValidator schemaValidator;
     private final OrchestratorMetrics metrics;
     private final ObjectMapper objectMapper;
+    private final Executor aiCallExecutor;
+    private final Duration voteTimeout;
 
     /** Rubric criteria weights for code quality evaluation. */
     private static final Map<String, Double> CODE_QUALITY_WEIGHTS = Map.of(
@@ -64,12 +77,16 @@ public class JudgeService {
             BlackboardService blackboardService,
             JsonSchemaValidator schemaValidator,
             OrchestratorMetrics metrics,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            @Qualifier("aiCallExecutor") Executor aiCallExecutor,
+            @Value("${atlasia.orchestrator.judge.vote-timeout-seconds:90}") long voteTimeoutSeconds) {
         this.llmService = llmService;
         this.blackboardService = blackboardService;
         this.schemaValidator = schemaValidator;
         this.metrics = metrics;
         this.objectMapper = objectMapper;
+        this.aiCallExecutor = aiCallExecutor;
+        this.voteTimeout = Duration.ofSeconds(voteTimeoutSeconds);
     }
 
     /**
@@ -100,7 +117,7 @@ public class JudgeService {
             String evaluationPrompt = buildEvaluationPrompt(checkpoint, artifact);
 
             // Call LLM for evaluation
-            String llmResponse = llmService.generateCompletion(null, evaluationPrompt);
+            String llmResponse = llmService.generateCompletionCached(null, evaluationPrompt, TaskComplexity.MEDIUM, null);
 
             // Parse the LLM response into criterion scores
             Map<String, CriterionScore> criterionScores = parseCriterionScores(llmResponse);
@@ -156,10 +173,16 @@ public class JudgeService {
      */
     public JudgeVerdict evaluateWithMajorityVoting(RunEntity runEntity, String checkpoint, String artifactKey) {
         UUID runId = runEntity.getId();
+        long startTime = System.currentTimeMillis();
         log.info("Majority voting started: checkpoint={}, voters={}, runId={}",
                 checkpoint, DEFAULT_VOTER_COUNT, runId);
 
-        List<JudgeVerdict> voterVerdicts = new ArrayList<>();
+        String artifact = blackboardService.read(runEntity, artifactKey, "JUDGE");
+        if (artifact == null) {
+            log.warn("Majority voting: artifact not found on blackboard: key={}, runId={}", artifactKey, runId);
+            return JudgeVerdict.error(runId, checkpoint, artifactKey, "Artifact not found");
+        }
+
         double[] temperatures = {0.2, 0.5, 0.8};
         String[] emphases = {
                 "Focus on correctness and security",
@@ -167,36 +190,55 @@ public class JudgeService {
                 "Focus on performance and scalability"
         };
 
-        // Run voters (sequentially for now; parallel execution can be added)
+        // Voters run concurrently on the AI call pool; MDC (run id, agent) follows them so
+        // budget attribution and token streaming still see the run.
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        CompletionService<JudgeVerdict> voters = new ExecutorCompletionService<>(aiCallExecutor);
+        List<Future<JudgeVerdict>> pending = new ArrayList<>();
         for (int i = 0; i < DEFAULT_VOTER_COUNT; i++) {
-            try {
-                String artifact = blackboardService.read(runEntity, artifactKey, "JUDGE");
-                if (artifact == null) {
-                    log.warn("Majority voting: artifact not found, voter {} skipped", i);
-                    continue;
+            int voter = i;
+            pending.add(voters.submit(() -> {
+                if (mdc != null) {
+                    MDC.setContextMap(mdc);
+                }
+                try {
+                    return castVote(runId, checkpoint, artifactKey, artifact, emphases[voter], temperatures[voter]);
+                } finally {
+                    MDC.clear();
                 }
+            }));
+        }
 
-                String prompt = buildVotingPrompt(checkpoint, artifact, emphases[i]);
-                String response = llmService.generateCompletion(null, prompt);
-                Map<String, CriterionScore> scores = parseCriterionScores(response);
-                double overallScore = computeWeightedScore(scores);
-                double confidence = computeConfidence(scores);
-
-                String verdict;
-                if (overallScore < VETO_THRESHOLD) verdict = "veto";
-                else if (overallScore < PASSING_THRESHOLD) verdict = "conditional_pass";
-                else verdict = "pass";
-
-                voterVerdicts.add(new JudgeVerdict(
-                        runId, checkpoint, artifactKey, "code_quality",
-                        overallScore, verdict, confidence, scores,
-                        List.of(), determineRecommendation(verdict, overallScore),
-                        null, Instant.now()));
-
-            } catch (Exception e) {
-                log.warn("Voter {} failed: checkpoint={}, runId={}", i, checkpoint, runId, e);
+        List<JudgeVerdict> voterVerdicts = new ArrayList<>();
+        String outcome = "complete";
+        long deadline = startTime + voteTimeout.toMillis();
+        try {
+            for (int returned = 0; returned < DEFAULT_VOTER_COUNT; returned++) {
+                Future<JudgeVerdict> done = voters.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                if (done == null) {
+                    outcome = "timeout";
+                    log.warn("Majority voting: vote timeout after {}s, votes={}/{}, runId={}",
+                            voteTimeout.toSeconds(), voterVerdicts.size(), DEFAULT_VOTER_COUNT, runId);
+                    break;
+                }
+                try {
+                    voterVerdicts.add(done.get());
+                } catch (ExecutionException e) {
+                    log.warn("Voter failed: checkpoint={}, runId={}", checkpoint, runId, e.getCause());
+                }
+                if (returned + 1 < DEFAULT_VOTER_COUNT
+                        && isDecided(voterVerdicts, DEFAULT_VOTER_COUNT - returned - 1)) {
+                    outcome = "early";
+                    break;
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "timeout";
+        } finally {
+            pending.forEach(f -> f.cancel(true));
         }
+        metrics.recordJudgeVoting(outcome, voterVerdicts.size(), System.currentTimeMillis() - startTime);
 
         // Check quorum
         if (voterVerdicts.size() < VOTING_QUORUM) {
@@ -210,6 +252,46 @@ public class JudgeService {
         return aggregateVotes(runId, checkpoint, artifactKey, voterVerdicts);
     }
 
+    private JudgeVerdict castVote(UUID runId, String checkpoint, String artifactKey, String artifact,
+                                  String emphasis, double temperature) {
+        String prompt = buildVotingPrompt(checkpoint, artifact, emphasis);
+        String response = llmService.generateCompletionCached(null, prompt, TaskComplexity.MEDIUM, temperature);
+        Map<String, CriterionScore> scores = parseCriterionScores(response);
+        double overallScore = computeWeightedScore(scores);
+        double confidence = computeConfidence(scores);
+
+        String verdict;
+        if (overallScore < VETO_THRESHOLD) verdict = "veto";
+        else if (overallScore < PASSING_THRESHOLD) verdict = "conditional_pass";
+        else verdict = "pass";
+
+        return new JudgeVerdict(
+                runId, checkpoint, artifactKey, "code_quality",
+                overallScore, verdict, confidence, scores,
+                List.of(), determineRecommendation(verdict, overallScore),
+                null, Instant.now());
+    }
+
+    /**
+     * True when the votes still outstanding cannot change what {@link #aggregateVotes} would pick:
+     * quorum is reached and the leading verdict's confidence weight beats every other verdict by
+     * more than the outstanding voters could add (confidence is at most 1.0), plus the tie window.
+     */
+    static boolean isDecided(List<JudgeVerdict> votes, int outstanding) {
+        if (votes.size() < VOTING_QUORUM) {
+            return false;
+        }
+        Map<String, Double> weights = new HashMap<>();
+        for (JudgeVerdict vote : votes) {
+            weights.merge(vote.verdict, vote.confidence, Double::sum);
+        }
+        double leader = weights.values().stream().mapToDouble(d -> d).max().orElse(0);
+        double runnerUp = weights.values().stream().mapToDouble(d -> d)
+                .filter(w -> w < leader).max().orElse(0);
+        boolean uniqueLeader = weights.values().stream().filter(w -> w == leader).count() == 1;
+        return uniqueLeader && leader - runnerUp > outstanding * 1.0 + 0.01;
+    }
+
     /**
      * Arbitrate a conflict between review personas using confidence-weighted synthesis.
      */
@@ -220,7 +302,7 @@ public class JudgeService {
 
         try {
             String prompt = buildArbitrationPrompt(position1, position2, evidence1, evidence2);
-            String response = llmService.generateCompletion(null, prompt);
+            String response = llmService.generateCompletionCached(null, prompt, TaskComplexity.MEDIUM, null);
 
             Map<String, CriterionScore> scores = parseCriterionScores(response);
             double overallScore = computeWeightedScore(scores);
@@ -19,6 +19,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -75,6 +76,7 @@ public class JwtService {
                 .issuer(jwtProperties.getIssuer())
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiration))
+                .id(UUID.randomUUID().toString())
                 .signWith(secretKey, Jwts.SIG.HS256)
                 .compact();
                 }
@@ -106,12 +108,20 @@ public class JwtService {
     }
 
     public boolean validateToken(String token) {
+        return parseClaims(token).isPresent();
+    }
+
+    /**
+     * Verifies the token and returns its claims in a single parse, or empty when the token is
+     * invalid or expired. Prefer this over validating and then extracting claims separately.
+     */
+    public Optional<Claims> parseClaims(String token) {
         try {
-            Jwts.parser()
+            return Optional.of(Jwts.parser()
                     .verifyWith(secretKey)
                     .build()
-                    .parseSignedClaims(token);
-            return true;
+                    .parseSignedClaims(token)
+                    .getPayload());
         } catch (SignatureException e) {
             logger.warn("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -123,7 +133,7 @@ public class JwtService {
         } catch (IllegalArgumentException e) {
             logger.warn("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 
     public Claims extractClaims(String token) {
@@ -144,7 +154,11 @@ public class JwtService {
     }
 
     public UUID extractUserId(String token) {
-        String userIdStr = extractClaims(token).get("userId", String.class);
+        return userIdOf(extractClaims(token));
+    }
+
+    public static UUID userIdOf(Claims claims) {
+        String userIdStr = claims.get("userId", String.class);
         return UUID.fromString(userIdStr);
     }
 
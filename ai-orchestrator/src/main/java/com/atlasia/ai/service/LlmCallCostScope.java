@@ -0,0 +1,43 @@
+package com.atlasia.ai.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Sums the estimated cost of LLM calls made by the current thread inside {@link #measure}.
+ *
+ * Tiered and legacy calls both run on the caller's thread, so the places that price a call
+ * ({@link TieredLlmExecutor}, {@link LlmService}) report here and {@link LlmResponseCache} learns
+ * what a response cost without the call APIs returning usage.
+ */
+final class LlmCallCostScope {
+
+    private static final ThreadLocal<double[]> CURRENT = new ThreadLocal<>();
+
+    private LlmCallCostScope() {}
+
+    record Measured<T>(T value, double costUsd) {}
+
+    static <T> Measured<T> measure(Supplier<T> call) {
+        double[] outer = CURRENT.get();
+        double[] total = new double[1];
+        CURRENT.set(total);
+        try {
+            T value = call.get();
+            return new Measured<>(value, total[0]);
+        } finally {
+            if (outer != null) {
+                outer[0] += total[0];
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    static void add(double costUsd) {
+        double[] total = CURRENT.get();
+        if (total != null && costUsd > 0) {
+            total[0] += costUsd;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.LlmResponseCacheEntryEntity;
+import com.atlasia.ai.persistence.LlmResponseCacheRepository;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Response cache for deterministic LLM calls (judge, eval suites, qualifier).
+ *
+ * Keyed on a SHA-256 of (routing model, normalized system and user prompt, schema hash,
+ * temperature). A size-bounded on-heap tier answers repeats within a node; the optional
+ * persistent tier ({@code ai_llm_response_cache}) shares responses across nodes and restarts.
+ * Only temperature-0 calls are cached: a non-zero temperature samples on purpose, and a
+ * {@code null} temperature leaves the provider default in force (0.7 in our provider config), so
+ * both bypass the cache. {@link LlmService}'s cached entry points pin temperature 0 themselves.
+ * Mock responses and empty content are never stored. Each hit credits what the original call
+ * cost to {@link BudgetTracker}.
+ */
+@Component
+public class LlmResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmResponseCache.class);
+
+    private final LlmResponseCacheRepository repository;
+    private final BudgetTracker budgetTracker;
+    private final OrchestratorMetrics metrics;
+    private final Clock clock;
+    private final boolean enabled;
+    private final boolean persistent;
+    private final Duration persistentTtl;
+    private final Cache<String, Entry> entries;
+    private final ObjectMapper canonicalMapper = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    @Autowired
+    public LlmResponseCache(
+            LlmResponseCacheRepository repository,
+            BudgetTracker budgetTracker,
+            OrchestratorMetrics metrics,
+            @Value("${atlasia.orchestrator.llm-cache.enabled:true}") boolean enabled,
+            @Value("${atlasia.orchestrator.llm-cache.max-weight-mb:32}") long maxWeightMb,
+            @Value("${atlasia.orchestrator.llm-cache.ttl-minutes:60}") long ttlMinutes,
+            @Value("${atlasia.orchestrator.llm-cache.persistent:false}") boolean persistent,
+            @Value("${atlasia.orchestrator.llm-cache.persistent-ttl-hours:24}") long persistentTtlHours) {
+        this(repository, budgetTracker, metrics, Clock.systemUTC(), enabled, maxWeightMb,
+                Duration.ofMinutes(ttlMinutes), persistent, Duration.ofHours(persistentTtlHours));
+    }
+
+    LlmResponseCache(
+            LlmResponseCacheRepository repository,
+            BudgetTracker budgetTracker,
+            OrchestratorMetrics metrics,
+            Clock clock,
+            boolean enabled,
+            long maxWeightMb,
+            Duration ttl,
+            boolean persistent,
+            Duration persistentTtl) {
+        this.repository = repository;
+        this.budgetTracker = budgetTracker;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.persistent = persistent;
+        this.persistentTtl = persistentTtl;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxWeightMb * 1024 * 1024)
+                .weigher((String key, Entry entry) -> key.length() + entry.content().length())
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /** A non-zero temperature asks for sampling; {@code null} means the provider default, which samples too. */
+    public static boolean bypasses(Double temperature) {
+        return temperature == null || temperature != 0.0;
+    }
+
+    /**
+     * Answers from the cache when an identical call was seen, otherwise runs {@code call} and
+     * stores a usable result.
+     *
+     * @param modelKey   routing target the call resolves to (tier and model)
+     * @param jsonSchema structured-output schema, or null for plain completions
+     */
+    public LlmResult getOrCompute(
+            String modelKey,
+            String systemPrompt,
+            String userPrompt,
+            Map<String, Object> jsonSchema,
+            Double temperature,
+            Supplier<LlmResult> call) {
+        if (!enabled || bypasses(temperature)) {
+            metrics.recordLlmResponseCache("bypass", "none");
+            return call.get();
+        }
+        String key = key(modelKey, systemPrompt, userPrompt, jsonSchema, temperature);
+
+        Entry hit = entries.getIfPresent(key);
+        String tier = "memory";
+        if (hit == null && persistent) {
+            hit = loadPersistent(key).orElse(null);
+            tier = "db";
+            if (hit != null) {
+                entries.put(key, hit);
+            }
+        }
+        if (hit != null) {
+            metrics.recordLlmResponseCache("hit", tier);
+            budgetTracker.recordResponseCacheSavings(hit.costUsd());
+            log.debug("LLM response cache hit: model={} tier={} key={}", modelKey, tier, key);
+            return LlmResult.cached(hit.content());
+        }
+
+        metrics.recordLlmResponseCache("miss", "none");
+        LlmCallCostScope.Measured<LlmResult> measured = LlmCallCostScope.measure(call);
+        LlmResult result = measured.value();
+        if (result != null && !result.isMock() && result.content() != null && !result.content().isBlank()) {
+            Entry entry = new Entry(result.content(), measured.costUsd());
+            entries.put(key, entry);
+            if (persistent) {
+                storePersistent(key, modelKey, entry);
+            }
+        }
+        return result;
+    }
+
+    /** Drops expired rows of the persistent tier. */
+    @Scheduled(fixedDelayString = "${atlasia.orchestrator.llm-cache.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        if (!persistent) {
+            return;
+        }
+        int deleted = repository.deleteExpired(clock.instant());
+        if (deleted > 0) {
+            log.info("LLM response cache: purged {} expired entries", deleted);
+        }
+    }
+
+    String key(String modelKey, String systemPrompt, String userPrompt,
+               Map<String, Object> jsonSchema, Double temperature) {
+        StringBuilder material = new StringBuilder()
+                .append(modelKey).append('\u0000')
+                .append(normalize(systemPrompt)).append('\u0000')
+                .append(normalize(userPrompt)).append('\u0000')
+                .append(schemaHash(jsonSchema)).append('\u0000')
+                .append(temperature != null ? temperature : "default");
+        return sha256(material.toString());
+    }
+
+    /** Line endings and trailing whitespace do not change what the model sees in any useful way. */
+    static String normalize(String prompt) {
+        if (prompt == null) {
+            return "";
+        }
+        return prompt.replace("\r\n", "\n")
+                .replaceAll("[ \\t]+\n", "\n")
+                .strip();
+    }
+
+    private String schemaHash(Map<String, Object> jsonSchema) {
+        if (jsonSchema == null || jsonSchema.isEmpty()) {
+            return "-";
+        }
+        try {
+            return sha256(canonicalMapper.writeValueAsString(jsonSchema));
+        } catch (JsonProcessingException e) {
+            return sha256(String.valueOf(jsonSchema));
+        }
+    }
+
+    private Optional<Entry> loadPersistent(String key) {
+        try {
+            return repository.findByCacheKeyAndExpiresAtAfter(key, clock.instant())
+                    .map(e -> new Entry(e.getContent(), e.getCostUsd()));
+        } catch (Exception e) {
+            log.warn("LLM response cache: persistent lookup failed, key={} error={}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void storePersistent(String key, String modelKey, Entry entry) {
+        Instant now = clock.instant();
+        try {
+            repository.save(new LlmResponseCacheEntryEntity(
+                    key, modelKey, entry.content(), entry.costUsd(), now, now.plus(persistentTtl)));
+        } catch (Exception e) {
+            log.warn("LLM response cache: persistent store failed, key={} error={}", key, e.getMessage());
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(String content, double costUsd) {}
+}
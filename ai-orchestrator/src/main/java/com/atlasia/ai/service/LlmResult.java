@@ -2,7 +2,7 @@ package com.atlasia.ai.service;
 
 /**
  * Result of a structured LLM call, including whether the content came from the primary
- * endpoint, the fallback endpoint, or a synthetic mock when both failed.
+ * endpoint, the fallback endpoint, the response cache, or a synthetic mock when both endpoints failed.
  */
 public record LlmResult(String content, LlmResultSource source) {
 
@@ -18,6 +18,10 @@ public record LlmResult(String content, LlmResultSource source) {
         return new LlmResult(content, LlmResultSource.MOCK);
     }
 
+    public static LlmResult cached(String content) {
+        return new LlmResult(content, LlmResultSource.CACHE);
+    }
+
     public boolean isMock() {
         return source == LlmResultSource.MOCK;
     }
@@ -3,5 +3,7 @@ package com.atlasia.ai.service;
 public enum LlmResultSource {
     PRIMARY,
     FALLBACK,
-    MOCK
+    MOCK,
+    /** Served by {@link LlmResponseCache} for an identical earlier call. */
+    CACHE
 }
@@ -1,7 +1,9 @@
 package com.atlasia.ai.service;
 
+import com.atlasia.ai.api.adapter.ProviderStreamParser;
 import com.atlasia.ai.config.OrchestratorProperties;
 import com.atlasia.ai.model.TaskComplexity;
+import com.atlasia.ai.service.event.LlmTokenRelay;
 import com.atlasia.ai.service.event.WorkflowEvent;
 import com.atlasia.ai.service.event.WorkflowEventBus;
 import com.atlasia.ai.service.exception.LlmServiceException;
@@ -12,6 +14,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
@@ -27,6 +30,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 @Service
@@ -39,6 +43,7 @@ public class LlmService {
     private final OrchestratorMetrics metrics;
     private final WorkflowEventBus eventBus;
     private final TieredLlmExecutor tieredLlmExecutor;
+    private final LlmResponseCache responseCache;
 
     /** Legacy pricing when tier routing is bypassed. */
     private static final Map<String, Double> COST_PER_1K_TOKENS = Map.of(
@@ -50,18 +55,23 @@ public class LlmService {
             "claude-3-5-sonnet-20241022", 0.006,
             "claude-3-haiku-20240307", 0.00025);
 
+    /** Temperature the cached entry points run at, so a cached answer is the answer rather than one sample. */
+    private static final double CACHED_CALL_TEMPERATURE = 0.0;
+
     public LlmService(
             OrchestratorProperties properties,
             WebClient.Builder webClientBuilder,
             ObjectMapper objectMapper,
             OrchestratorMetrics metrics,
             WorkflowEventBus eventBus,
-            TieredLlmExecutor tieredLlmExecutor) {
+            TieredLlmExecutor tieredLlmExecutor,
+            LlmResponseCache responseCache) {
         this.llmConfig = properties.llm();
         this.objectMapper = objectMapper;
         this.metrics = metrics;
         this.eventBus = eventBus;
         this.tieredLlmExecutor = tieredLlmExecutor;
+        this.responseCache = responseCache;
 
         ConnectionProvider provider = ConnectionProvider.builder("llm-pool")
                 .maxIdleTime(Duration.ofSeconds(20))
@@ -91,6 +101,54 @@ public class LlmService {
         return tieredLlmExecutor.complete(systemPrompt, userPrompt, complexity, () -> generateCompletionLegacy(systemPrompt, userPrompt));
     }
 
+    /**
+     * @param stableContext run-level context (repository context, plans) that is identical across
+     *                      retries and review iterations; sent first so it can be served from the
+     *                      provider's prompt cache
+     */
+    public String generateCompletion(
+            String systemPrompt, String stableContext, String userPrompt, TaskComplexity complexity) {
+        return tieredLlmExecutor.complete(systemPrompt, stableContext, userPrompt, complexity,
+                () -> generateCompletionLegacy(systemPrompt, PromptAssembler.userContent(stableContext, userPrompt)));
+    }
+
+    /**
+     * Completion for deterministic callers (judging, eval scoring): identical calls are answered
+     * from {@link LlmResponseCache}. A non-zero {@code temperature} asks for sampling and always
+     * reaches the provider; {@code null} means deterministic and is sent as temperature 0, since the
+     * provider default (0.7) would make a cached answer just one sample of many.
+     */
+    public String generateCompletionCached(
+            String systemPrompt, String userPrompt, TaskComplexity complexity, Double temperature) {
+        Double effective = temperature != null ? temperature : CACHED_CALL_TEMPERATURE;
+        return responseCache.getOrCompute(
+                        cacheModelKey(complexity), systemPrompt, userPrompt, null, effective, () -> {
+                            AtomicBoolean mock = new AtomicBoolean();
+                            String content = tieredLlmExecutor.complete(
+                                    systemPrompt, null, userPrompt, complexity, effective,
+                                    () -> {
+                                        LlmResult legacy = generateCompletionLegacy(systemPrompt, userPrompt, effective);
+                                        mock.set(legacy.isMock());
+                                        return legacy.content();
+                                    });
+                            return new LlmResult(content, mock.get() ? LlmResultSource.MOCK : LlmResultSource.PRIMARY);
+                        })
+                .content();
+    }
+
+    /**
+     * Structured counterpart of {@link #generateCompletionCached}, always at temperature 0; mock
+     * results are never cached.
+     */
+    public LlmResult generateStructuredOutputCached(
+            String systemPrompt, String userPrompt, Map<String, Object> jsonSchema, TaskComplexity complexity) {
+        return responseCache.getOrCompute(
+                cacheModelKey(complexity), systemPrompt, userPrompt, jsonSchema, CACHED_CALL_TEMPERATURE,
+                () -> tieredLlmExecutor.structured(
+                        systemPrompt, null, userPrompt, jsonSchema, complexity, CACHED_CALL_TEMPERATURE,
+                        () -> generateStructuredOutputLegacy(systemPrompt, userPrompt, jsonSchema, CACHED_CALL_TEMPERATURE)));
+    }
+
     public LlmResult generateStructuredOutput(String systemPrompt, String userPrompt, Map<String, Object> jsonSchema) {
         return generateStructuredOutput(systemPrompt, userPrompt, jsonSchema, TaskComplexity.MEDIUM);
     }
@@ -101,6 +159,19 @@ public class LlmService {
                 systemPrompt, userPrompt, jsonSchema, complexity, () -> generateStructuredOutputLegacy(systemPrompt, userPrompt, jsonSchema));
     }
 
+    /** See {@link #generateCompletion(String, String, String, TaskComplexity)} for {@code stableContext}. */
+    public LlmResult generateStructuredOutput(
+            String systemPrompt,
+            String stableContext,
+            String userPrompt,
+            Map<String, Object> jsonSchema,
+            TaskComplexity complexity) {
+        return tieredLlmExecutor.structured(
+                systemPrompt, stableContext, userPrompt, jsonSchema, complexity,
+                () -> generateStructuredOutputLegacy(
+                        systemPrompt, PromptAssembler.userContent(stableContext, userPrompt), jsonSchema));
+    }
+
     public LlmResult generateStructuredOutput(String systemPrompt, String userPrompt, String jsonSchemaString) {
         try {
             JsonNode schemaNode = objectMapper.readTree(jsonSchemaString);
@@ -135,6 +206,15 @@ public class LlmService {
     }
 
     private String generateCompletionLegacy(String systemPrompt, String userPrompt) {
+        return generateCompletionLegacy(systemPrompt, userPrompt, null).content();
+    }
+
+    private String cacheModelKey(TaskComplexity complexity) {
+        String target = tieredLlmExecutor.routingTarget(complexity);
+        return target != null ? target : "legacy:" + llmConfig.model();
+    }
+
+    private LlmResult generateCompletionLegacy(String systemPrompt, String userPrompt, Double temperature) {
         Timer.Sample sample = metrics.startLlmTimer();
         long startTime = System.currentTimeMillis();
         emitLlmStart();
@@ -151,57 +231,72 @@ public class LlmService {
             }
             messages.add(Map.of("role", "user", "content", userPrompt));
 
-            Map<String, Object> requestBody = Map.of("model", llmConfig.model(), "messages", messages);
+            Map<String, Object> requestBody = new HashMap<>();
+            requestBody.put("model", llmConfig.model());
+            requestBody.put("messages", messages);
+            if (temperature != null) {
+                requestBody.put("temperature", temperature);
+            }
 
             String correlationId = CorrelationIdHolder.getCorrelationId();
+            AtomicBoolean mock = new AtomicBoolean();
 
-            Map<String, Object> response;
-            try {
-                response = webClient
-                        .post()
-                        .uri(llmConfig.endpoint() + "/chat/completions")
-                        .header("Authorization", "Bearer " + llmConfig.apiKey())
-                        .header("X-Correlation-ID", correlationId != null ? correlationId : "")
-                        .bodyValue(requestBody)
-                        .retrieve()
-                        .bodyToMono(new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {})
-                        .timeout(Duration.ofMinutes(5))
-                        .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
-                                .filter(this::isTransientError)
-                                .doBeforeRetry(retrySignal -> log.warn(
-                                        "Retrying LLM API call due to transient error: {}, attempt={}",
-                                        retrySignal.failure().getMessage(),
-                                        retrySignal.totalRetries() + 1)))
-                        .onErrorResume(e -> {
-                            log.warn("Primary LLM failed, attempting fallback. Error: {}", e.getMessage());
-                            if (llmConfig.fallbackEndpoint() != null && !llmConfig.fallbackEndpoint().isEmpty()) {
-                                return webClient
-                                        .post()
-                                        .uri(llmConfig.fallbackEndpoint() + "/chat/completions")
-                                        .header("Authorization", "Bearer " + llmConfig.fallbackApiKey())
-                                        .header("X-Correlation-ID", correlationId != null ? correlationId : "")
-                                        .bodyValue(requestBody)
-                                        .retrieve()
-                                        .bodyToMono(new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {})
-                                        .timeout(Duration.ofMinutes(5));
-                            }
-                            return Mono.error(e);
-                        })
-                        .onErrorResume(e -> {
-                            log.error(
-                                    "All LLM endpoints failed. Triggering safe mock response. Error: {}",
-                                    e.getMessage());
-                            return Mono.just(createMockResponse(buildLlmUnavailableUserMessage()));
-                        })
-                        .block();
-            } catch (Exception e) {
-                log.error(
-                        "Emergency catch: LLM chain failed to produce a response. Triggering mock. Error: {}",
-                        e.getMessage());
-                response = createMockResponse(buildLlmUnavailableUserMessage());
+            Map<String, Object> response = null;
+            LlmTokenRelay relay = LlmTokenRelay.forCurrentRun(eventBus, llmConfig.model());
+            if (relay != null) {
+                response = streamCompletion(requestBody, correlationId, relay);
+            }
+            if (response == null) {
+                try {
+                    response = webClient
+                            .post()
+                            .uri(llmConfig.endpoint() + "/chat/completions")
+                            .header("Authorization", "Bearer " + llmConfig.apiKey())
+                            .header("X-Correlation-ID", correlationId != null ? correlationId : "")
+                            .bodyValue(requestBody)
+                            .retrieve()
+                            .bodyToMono(new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {})
+                            .timeout(Duration.ofMinutes(5))
+                            .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
+                                    .filter(this::isTransientError)
+                                    .doBeforeRetry(retrySignal -> log.warn(
+                                            "Retrying LLM API call due to transient error: {}, attempt={}",
+                                            retrySignal.failure().getMessage(),
+                                            retrySignal.totalRetries() + 1)))
+                            .onErrorResume(e -> {
+                                log.warn("Primary LLM failed, attempting fallback. Error: {}", e.getMessage());
+                                if (llmConfig.fallbackEndpoint() != null && !llmConfig.fallbackEndpoint().isEmpty()) {
+                                    return webClient
+                                            .post()
+                                            .uri(llmConfig.fallbackEndpoint() + "/chat/completions")
+                                            .header("Authorization", "Bearer " + llmConfig.fallbackApiKey())
+                                            .header("X-Correlation-ID", correlationId != null ? correlationId : "")
+                                            .bodyValue(requestBody)
+                                            .retrieve()
+                                            .bodyToMono(new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {})
+                                            .timeout(Duration.ofMinutes(5));
+                                }
+                                return Mono.error(e);
+                            })
+                            .onErrorResume(e -> {
+                                log.error(
+                                        "All LLM endpoints failed. Triggering safe mock response. Error: {}",
+                                        e.getMessage());
+                                mock.set(true);
+                                return Mono.just(createMockResponse(buildLlmUnavailableUserMessage()));
+                            })
+                            .block();
+                } catch (Exception e) {
+                    log.error(
+                            "Emergency catch: LLM chain failed to produce a response. Triggering mock. Error: {}",
+                            e.getMessage());
+                    mock.set(true);
+                    response = createMockResponse(buildLlmUnavailableUserMessage());
+                }
             }
 
             if (response == null) {
+                mock.set(true);
                 response = createMockResponse("Empty response from neural link.");
             }
 
@@ -220,7 +315,7 @@ public class LlmService {
                     tokensUsed,
                     CorrelationIdHolder.getCorrelationId());
 
-            return content;
+            return new LlmResult(content, mock.get() ? LlmResultSource.MOCK : LlmResultSource.PRIMARY);
         } catch (WebClientResponseException e) {
             handleLlmError(e, sample, startTime);
             throw e;
@@ -233,7 +328,64 @@ public class LlmService {
         }
     }
 
+    /**
+     * Streams the primary endpoint and relays deltas to the run's SSE viewers. Returns the
+     * completion in the non-streaming response shape, or null if the stream failed, in which
+     * case the caller goes through the regular retry/fallback chain.
+     */
+    private Map<String, Object> streamCompletion(
+            Map<String, Object> requestBody, String correlationId, LlmTokenRelay relay) {
+        Map<String, Object> streamingBody = new HashMap<>(requestBody);
+        streamingBody.put("stream", true);
+        streamingBody.put("stream_options", Map.of("include_usage", true));
+
+        StringBuilder content = new StringBuilder();
+        int[] usage = new int[2];
+        try {
+            webClient
+                    .post()
+                    .uri(llmConfig.endpoint() + "/chat/completions")
+                    .header("Authorization", "Bearer " + llmConfig.apiKey())
+                    .header("X-Correlation-ID", correlationId != null ? correlationId : "")
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .bodyValue(streamingBody)
+                    .retrieve()
+                    .bodyToFlux(String.class)
+                    .map(data -> ProviderStreamParser.parseOpenAiChunk(data, "llm"))
+                    .takeWhile(chunk -> !chunk.done())
+                    .doOnNext(chunk -> {
+                        content.append(chunk.text());
+                        relay.accept(chunk.text());
+                        if (chunk.promptTokens() >= 0) {
+                            usage[0] = chunk.promptTokens();
+                            usage[1] = chunk.completionTokens();
+                        }
+                    })
+                    .timeout(Duration.ofMinutes(5))
+                    .blockLast();
+        } catch (Exception e) {
+            log.warn("Streaming LLM call failed, retrying without streaming: {}, correlationId={}",
+                    e.getMessage(), correlationId);
+            return null;
+        } finally {
+            relay.flush();
+        }
+        if (relay.timeToFirstTokenMillis() >= 0) {
+            metrics.recordLlmTimeToFirstToken("legacy", relay.timeToFirstTokenMillis());
+        }
+        return Map.of(
+                "choices",
+                List.of(Map.of("message", Map.of("role", "assistant", "content", content.toString()))),
+                "usage",
+                Map.of("total_tokens", usage[0] + usage[1]));
+    }
+
     private LlmResult generateStructuredOutputLegacy(String systemPrompt, String userPrompt, Map<String, Object> jsonSchema) {
+        return generateStructuredOutputLegacy(systemPrompt, userPrompt, jsonSchema, null);
+    }
+
+    private LlmResult generateStructuredOutputLegacy(
+            String systemPrompt, String userPrompt, Map<String, Object> jsonSchema, Double temperature) {
         Timer.Sample sample = metrics.startLlmTimer();
         long startTime = System.currentTimeMillis();
         emitLlmStart();
@@ -279,6 +431,10 @@ public class LlmService {
             requestBodyJsonObject.put("model", llmConfig.model());
             requestBodyJsonObject.put("messages", messagesJsonObject);
             requestBodyJsonObject.put("response_format", Map.of("type", "json_object"));
+            if (temperature != null) {
+                requestBodySchema.put("temperature", temperature);
+                requestBodyJsonObject.put("temperature", temperature);
+            }
 
             String structuredCorrelationId = CorrelationIdHolder.getCorrelationId();
             AtomicReference<LlmResultSource> sourceRef = new AtomicReference<>(LlmResultSource.PRIMARY);
@@ -548,6 +704,7 @@ public class LlmService {
             double costPer1K = COST_PER_1K_TOKENS.getOrDefault(llmConfig.model(), 0.005);
             double cost = (tokensUsed / 1000.0) * costPer1K;
             metrics.recordCostPerBolt(cost);
+            LlmCallCostScope.add(cost);
         }
     }
 
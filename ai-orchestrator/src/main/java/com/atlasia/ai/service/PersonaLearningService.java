@@ -1,47 +1,49 @@
 package com.atlasia.ai.service;
 
 import com.atlasia.ai.api.dto.PersonaEffectivenessDto;
-import com.atlasia.ai.model.RunEntity;
-import com.atlasia.ai.model.RunStatus;
-import com.atlasia.ai.persistence.RunRepository;
+import com.atlasia.ai.model.AnalyticsPersonaReviewDailyEntity;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.*;
 
 @Service
 public class PersonaLearningService {
 
-    private final RunRepository runRepository;
+    private final AnalyticsRollupService rollupService;
 
-    public PersonaLearningService(RunRepository runRepository) {
-        this.runRepository = runRepository;
+    public PersonaLearningService(AnalyticsRollupService rollupService) {
+        this.rollupService = rollupService;
     }
 
+    /**
+     * All-time review effectiveness per persona, from the daily persona review rollups. Only days
+     * already rolled up are counted; the request never backfills, that is left to the rollup job.
+     */
     public PersonaEffectivenessDto analyzeEffectiveness() {
-        List<RunEntity> runs = runRepository.findAll();
         Map<String, PersonaEffectivenessDto.PersonaMetrics> metricsMap = new HashMap<>();
         List<String> recommendations = new ArrayList<>();
 
-        for (RunEntity run : runs) {
-            run.getArtifacts().stream()
-                    .filter(a -> "persona_review_report.json".equals(a.getArtifactType()))
-                    .forEach(artifact -> {
-                        String personaName = artifact.getAgentName(); // In this context, agentName is persona
-
-                        PersonaEffectivenessDto.PersonaMetrics current = metricsMap.getOrDefault(personaName,
-                                new PersonaEffectivenessDto.PersonaMetrics(0, 0, 1.0, 0));
-
-                        int criticals = artifact.getPayload().contains("\"critical\"") ? 1 : 0;
-                        int falsePositives = (criticals > 0 && run.getStatus() == RunStatus.DONE) ? 1 : 0;
+        LocalDate firstRunDay = rollupService.firstRunDay();
+        if (firstRunDay == null) {
+            return new PersonaEffectivenessDto(metricsMap, recommendations);
+        }
 
-                        metricsMap.put(personaName, new PersonaEffectivenessDto.PersonaMetrics(
-                                current.reviewsCount() + 1,
-                                current.criticalFindings() + criticals,
-                                calculateEffectiveness(current, falsePositives),
-                                current.falsePositives() + falsePositives));
-                    });
+        Map<String, long[]> totals = new HashMap<>();
+        for (AnalyticsPersonaReviewDailyEntity row
+                : rollupService.load(firstRunDay, rollupService.today()).personaReviews()) {
+            long[] t = totals.computeIfAbsent(row.getPersonaName(), k -> new long[3]);
+            t[0] += row.getReviewCount();
+            t[1] += row.getCriticalReviewCount();
+            t[2] += row.getFalsePositiveCount();
         }
 
+        totals.forEach((personaName, t) -> metricsMap.put(personaName, new PersonaEffectivenessDto.PersonaMetrics(
+                (int) t[0],
+                (int) t[1],
+                calculateEffectiveness(t[1], t[2]),
+                (int) t[2])));
+
         // Generate recommendations
         metricsMap.forEach((name, metrics) -> {
             if (metrics.falsePositives() > 2) {
@@ -57,9 +59,8 @@ public class PersonaLearningService {
         return new PersonaEffectivenessDto(metricsMap, recommendations);
     }
 
-    private double calculateEffectiveness(PersonaEffectivenessDto.PersonaMetrics current, int newFalsePositive) {
-        int totalWarnings = current.criticalFindings() + 1; // Simplification
-        int totalFalsePositives = current.falsePositives() + newFalsePositive;
-        return 1.0 - ((double) totalFalsePositives / totalWarnings);
+    /** Share of critical warnings that were not false positives; 1.0 for a persona that never warned. */
+    private double calculateEffectiveness(long criticalFindings, long falsePositives) {
+        return 1.0 - ((double) falsePositives / Math.max(1, criticalFindings));
     }
 }
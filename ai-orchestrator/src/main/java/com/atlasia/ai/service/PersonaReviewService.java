@@ -5,12 +5,20 @@ import com.atlasia.ai.config.PersonaConfigLoader;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,7 +31,9 @@ public class PersonaReviewService {
     private final JudgeService judgeService;
     private final ObjectMapper objectMapper;
     private final AgentContractLoader agentContractLoader;
-    private final ExecutorService executorService;
+    private final Executor aiCallExecutor;
+    private final Duration personaTimeout;
+    private final int shardMaxChars;
 
     public PersonaReviewService(
             PersonaConfigLoader personaConfigLoader,
@@ -31,16 +41,29 @@ public class PersonaReviewService {
             LlmComplexityResolver complexityResolver,
             JudgeService judgeService,
             ObjectMapper objectMapper,
-            AgentContractLoader agentContractLoader) {
+            AgentContractLoader agentContractLoader,
+            @Qualifier("aiCallExecutor") Executor aiCallExecutor,
+            @Value("${atlasia.orchestrator.review.persona-timeout-seconds:180}") long personaTimeoutSeconds,
+            @Value("${atlasia.orchestrator.review.shard-max-chars:60000}") int shardMaxChars) {
         this.personaConfigLoader = personaConfigLoader;
         this.llmService = llmService;
         this.complexityResolver = complexityResolver;
         this.judgeService = judgeService;
         this.objectMapper = objectMapper;
         this.agentContractLoader = agentContractLoader;
-        this.executorService = Executors.newFixedThreadPool(4);
+        this.aiCallExecutor = aiCallExecutor;
+        this.personaTimeout = Duration.ofSeconds(personaTimeoutSeconds);
+        this.shardMaxChars = shardMaxChars;
     }
 
+    /**
+     * Reviews the change set with every configured persona. Each persona reviews each shard of
+     * the change set (see {@link #shardFiles}) as a separate task on the rate-limited
+     * {@code aiCallExecutor}; a persona's shard findings are merged into one review. A persona
+     * that has not finished within {@code review.persona-timeout-seconds} of the call, including
+     * time spent waiting for an executor slot, contributes whatever shards completed and is
+     * marked as timed out.
+     */
     public PersonaReviewReport reviewCodeChanges(RunContext context, DeveloperStep.CodeChanges codeChanges) {
         log.info("Starting persona review for issue #{}", context.getRunEntity().getIssueNumber());
         
@@ -50,16 +73,37 @@ public class PersonaReviewService {
             return createEmptyReport();
         }
         
-        String artifactPayload = buildArtifactPayload(codeChanges, context);
-        
-        List<CompletableFuture<PersonaReview>> reviewFutures = personas.stream()
-                .map(persona -> CompletableFuture.supplyAsync(() -> 
-                    performPersonaReview(persona, artifactPayload, context), executorService))
-                .toList();
-        
-        List<PersonaReview> reviews = reviewFutures.stream()
-                .map(CompletableFuture::join)
-                .collect(Collectors.toList());
+        List<List<DeveloperStep.FileChange>> shards = shardFiles(codeChanges.getFiles(), shardMaxChars);
+        List<String> payloads = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            payloads.add(buildArtifactPayload(codeChanges, shards.get(i), i, shards.size(), context));
+        }
+        if (shards.size() > 1) {
+            log.info("Persona review sharded: files={}, shards={}, personas={}",
+                    codeChanges.getFiles().size(), shards.size(), personas.size());
+        }
+
+        // The timeout covers time spent waiting for an aiCallExecutor slot, so fix it up front.
+        long deadline = System.currentTimeMillis() + personaTimeout.toMillis();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        Map<PersonaConfig, List<Future<PersonaReview>>> tasks = new LinkedHashMap<>();
+        List<FutureTask<PersonaReview>> queued = new ArrayList<>();
+        for (PersonaConfig persona : personas) {
+            List<Future<PersonaReview>> shardTasks = new ArrayList<>();
+            for (String payload : payloads) {
+                FutureTask<PersonaReview> task = newTask(mdc, () -> performPersonaReview(persona, payload, context));
+                queued.add(task);
+                shardTasks.add(task);
+            }
+            tasks.put(persona, shardTasks);
+        }
+        Thread dispatcher = dispatch(queued);
+
+        List<PersonaReview> reviews = new ArrayList<>();
+        for (Map.Entry<PersonaConfig, List<Future<PersonaReview>>> entry : tasks.entrySet()) {
+            reviews.add(collectPersonaReview(entry.getKey(), entry.getValue(), deadline));
+        }
+        dispatcher.interrupt();
         
         PersonaReviewReport report = mergeReviews(reviews, codeChanges);
         
@@ -70,14 +114,138 @@ public class PersonaReviewService {
         return report;
     }
 
-    private String buildArtifactPayload(DeveloperStep.CodeChanges codeChanges, RunContext context) {
+    /**
+     * Groups files into shards whose combined content stays under {@code maxChars}. Small
+     * change sets stay a single shard; a file larger than the limit gets a shard of its own.
+     */
+    static List<List<DeveloperStep.FileChange>> shardFiles(List<DeveloperStep.FileChange> files, int maxChars) {
+        List<List<DeveloperStep.FileChange>> shards = new ArrayList<>();
+        List<DeveloperStep.FileChange> current = new ArrayList<>();
+        int currentChars = 0;
+        for (DeveloperStep.FileChange file : files) {
+            int chars = file.getContent() != null ? file.getContent().length() : 0;
+            if (!current.isEmpty() && currentChars + chars > maxChars) {
+                shards.add(current);
+                current = new ArrayList<>();
+                currentChars = 0;
+            }
+            current.add(file);
+            currentChars += chars;
+        }
+        if (!current.isEmpty() || shards.isEmpty()) {
+            shards.add(current);
+        }
+        return shards;
+    }
+
+    private static FutureTask<PersonaReview> newTask(Map<String, String> mdc, Callable<PersonaReview> review) {
+        return new FutureTask<>(() -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            try {
+                return review.call();
+            } finally {
+                MDC.clear();
+            }
+        });
+    }
+
+    /**
+     * Hands {@code tasks} to {@code aiCallExecutor} from a separate thread, because
+     * {@code execute} blocks while the executor is at its concurrency limit. Tasks cancelled at
+     * the deadline before they got a slot are skipped; interrupting the returned thread stops
+     * any remaining hand-off.
+     */
+    private Thread dispatch(List<FutureTask<PersonaReview>> tasks) {
+        return Thread.ofVirtual().name("persona-review-dispatch").start(() -> {
+            try {
+                for (FutureTask<PersonaReview> task : tasks) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    if (!task.isDone()) {
+                        aiCallExecutor.execute(task);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Interrupted while waiting for a slot, or the executor is shutting down; the
+                // collector reports every task that never ran as timed out.
+                log.debug("Persona review dispatch stopped: {}", e.getMessage());
+            }
+        });
+    }
+
+    /** Waits for one persona's shard reviews until {@code deadline} and merges what arrived. */
+    private PersonaReview collectPersonaReview(PersonaConfig persona, List<Future<PersonaReview>> shardTasks,
+                                               long deadline) {
+        List<PersonaReview> parts = new ArrayList<>();
+        int timedOut = 0;
+        for (Future<PersonaReview> task : shardTasks) {
+            try {
+                parts.add(task.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                task.cancel(true);
+                timedOut++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                task.cancel(true);
+                timedOut++;
+            } catch (ExecutionException e) {
+                parts.add(createFailedReview(persona, e.getCause() instanceof Exception ex ? ex : e));
+            }
+        }
+        if (timedOut > 0) {
+            log.warn("Persona review timed out: persona={}, shards={}/{} missing, timeout={}s",
+                    persona.name(), timedOut, shardTasks.size(), personaTimeout.toSeconds());
+        }
+        if (parts.isEmpty()) {
+            return createFailedReview(persona, new TimeoutException(
+                    "review did not finish within " + personaTimeout.toSeconds() + "s"));
+        }
+        if (parts.size() == 1 && timedOut == 0) {
+            return parts.get(0);
+        }
+
+        PersonaReview merged = new PersonaReview();
+        merged.personaName = persona.name();
+        merged.personaRole = persona.role();
+        List<String> assessments = new ArrayList<>();
+        Set<String> seenEnhancements = new HashSet<>();
+        for (PersonaReview part : parts) {
+            if (part.overallAssessment != null && !part.overallAssessment.isBlank()) {
+                assessments.add(part.overallAssessment);
+            }
+            merged.issues.addAll(part.issues);
+            for (PersonaEnhancement enhancement : part.enhancements) {
+                if (seenEnhancements.add(enhancement.category + "|" + enhancement.description)) {
+                    merged.enhancements.add(enhancement);
+                }
+            }
+        }
+        if (timedOut > 0) {
+            assessments.add("Review incomplete: " + timedOut + " of " + shardTasks.size()
+                    + " file groups timed out");
+        }
+        merged.overallAssessment = String.join(" | ", assessments);
+        return merged;
+    }
+
+    private String buildArtifactPayload(DeveloperStep.CodeChanges codeChanges, List<DeveloperStep.FileChange> files,
+                                        int shardIndex, int shardCount, RunContext context) {
         Map<String, Object> payload = new LinkedHashMap<>();
         payload.put("summary", codeChanges.getSummary());
         payload.put("testingNotes", codeChanges.getTestingNotes());
         payload.put("implementationNotes", codeChanges.getImplementationNotes());
+        if (shardCount > 1) {
+            payload.put("fileGroup", (shardIndex + 1) + " of " + shardCount
+                    + " (other files of this change are reviewed separately)");
+            payload.put("allChangedPaths", codeChanges.getFiles().stream()
+                    .map(DeveloperStep.FileChange::getPath).toList());
+        }
         
         List<Map<String, Object>> filesInfo = new ArrayList<>();
-        for (DeveloperStep.FileChange file : codeChanges.getFiles()) {
+        for (DeveloperStep.FileChange file : files) {
             Map<String, Object> fileInfo = new LinkedHashMap<>();
             fileInfo.put("path", file.getPath());
             fileInfo.put("operation", file.getOperation());
@@ -105,12 +273,13 @@ public class PersonaReviewService {
             log.debug("Starting review by persona: {}", persona.name());
             
             String systemPrompt = buildPersonaSystemPrompt(persona);
-            String userPrompt = buildPersonaUserPrompt(artifactPayload, persona);
+            String stableContext = buildReviewStableContext(artifactPayload);
+            String userPrompt = buildPersonaUserPrompt(persona);
             Map<String, Object> schema = buildReviewSchema();
             
             String llmResponse = llmService
                     .generateStructuredOutput(
-                            systemPrompt, userPrompt, schema, complexityResolver.forAgent("review"))
+                            systemPrompt, stableContext, userPrompt, schema, complexityResolver.forAgent("review"))
                     .content();
             
             PersonaReview review = objectMapper.readValue(llmResponse, PersonaReview.class);
@@ -173,15 +342,24 @@ public class PersonaReviewService {
         return prompt.toString();
     }
 
-    private String buildPersonaUserPrompt(String artifactPayload, PersonaConfig persona) {
+    /**
+     * The artifact under review, identical for every persona and for re-reviews of the same
+     * changes, so it is sent as the cacheable block ahead of the persona-specific instructions.
+     */
+    private String buildReviewStableContext(String artifactPayload) {
         StringBuilder prompt = new StringBuilder();
-        
         prompt.append("# Code Changes to Review\n\n");
-        prompt.append("Please review the following code changes from your perspective as a ").append(persona.role()).append(".\n\n");
         prompt.append("## Artifact Payload\n\n");
         prompt.append("```json\n");
         prompt.append(artifactPayload);
         prompt.append("\n```\n\n");
+        return prompt.toString();
+    }
+
+    private String buildPersonaUserPrompt(PersonaConfig persona) {
+        StringBuilder prompt = new StringBuilder();
+        
+        prompt.append("Please review the code changes above from your perspective as a ").append(persona.role()).append(".\n\n");
         
         prompt.append("## Review Instructions\n\n");
         prompt.append("1. Analyze the code changes thoroughly based on your focus areas\n");
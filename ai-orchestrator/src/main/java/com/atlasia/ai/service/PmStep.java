@@ -77,7 +77,8 @@ public class PmStep implements AgentStep {
                 labelsData,
                 comments);
 
-        if (ticketPlan.getLabelsToApply() != null && runEntity.getIssueNumber() != null && runEntity.getIssueNumber() >= 1) {
+        if (ticketPlan.getLabelsToApply() != null && runEntity.getIssueNumber() != null && runEntity.getIssueNumber() >= 1
+                && !context.isShadow()) {
             if (!ticketPlan.getLabelsToApply().isEmpty()) {
                 try {
                     gitHubApiClient.addLabelsToIssue(
@@ -0,0 +1,61 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.api.dto.AiWireTypes.AiPrompt;
+import com.atlasia.ai.api.dto.AiWireTypes.PromptCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Lays out pipeline prompts so providers can reuse a cached prefix across calls.
+ *
+ * A prompt is assembled from three blocks, most stable first: the system prompt (agent contract
+ * and step instructions, identical for every call of an agent), the stable context (repository
+ * context and other run-level material resent on every retry and review iteration) and the
+ * volatile message. A block becomes a cache breakpoint only once the prefix it closes is long
+ * enough to be worth caching; below that, providers ignore the hint anyway.
+ */
+@Component
+public class PromptAssembler {
+
+    private final boolean enabled;
+    private final int minPrefixChars;
+
+    public PromptAssembler(
+            @Value("${atlasia.orchestrator.prompt-cache.enabled:true}") boolean enabled,
+            @Value("${atlasia.orchestrator.prompt-cache.min-prefix-chars:4000}") int minPrefixChars) {
+        this.enabled = enabled;
+        this.minPrefixChars = minPrefixChars;
+    }
+
+    /**
+     * @param stableContext run-level context placed ahead of {@code volatileMessage}; may be null
+     */
+    public AiPrompt assemble(String systemPrompt, String stableContext, String volatileMessage) {
+        int systemChars = systemPrompt != null ? systemPrompt.length() : 0;
+        boolean hasStable = stableContext != null && !stableContext.isEmpty();
+        if (!enabled) {
+            return new AiPrompt(systemPrompt, userContent(stableContext, volatileMessage), List.of());
+        }
+        boolean cacheSystem = systemChars >= minPrefixChars;
+        if (hasStable && systemChars + stableContext.length() >= minPrefixChars) {
+            return new AiPrompt(systemPrompt, nullToEmpty(volatileMessage), List.of(),
+                    new PromptCache(cacheSystem, stableContext));
+        }
+        return new AiPrompt(systemPrompt, userContent(stableContext, volatileMessage), List.of(),
+                new PromptCache(cacheSystem, null));
+    }
+
+    /** Single user turn with the stable context first, for calls that take no cache hints. */
+    public static String userContent(String stableContext, String volatileMessage) {
+        if (stableContext == null || stableContext.isEmpty()) {
+            return nullToEmpty(volatileMessage);
+        }
+        return stableContext + nullToEmpty(volatileMessage);
+    }
+
+    private static String nullToEmpty(String s) {
+        return s != null ? s : "";
+    }
+}
@@ -45,11 +45,14 @@ public class QualifierStep implements AgentStep {
         String branchName = issueNum != null
                 ? "ai/issue-" + issueNum
                 : "ai/goal-" + context.getRunEntity().getId().toString().substring(0, 8);
+        if (context.isShadow()) {
+            branchName = ShadowModeService.SHADOW_BRANCH_PREFIX + branchName;
+        }
         context.setBranchName(branchName);
 
         TicketPlan ticketPlan = parseTicketPlan(context.getTicketPlan());
         RepoStructure repoStructure = analyzeRepoStructure(context);
-        AgentsMdInfo agentsMdInfo = parseAgentsMd(context);
+        AgentsMdInfo agentsMdInfo = parseAgentsMd(context, repoStructure.getCommitSha());
 
         Map<String, Object> workPlan = generateWorkPlanWithLlm(
                 context,
@@ -80,6 +83,7 @@ public class QualifierStep implements AgentStep {
 
             Map<String, Object> objectData = (Map<String, Object>) defaultBranchRef.get("object");
             String sha = (String) objectData.get("sha");
+            structure.setCommitSha(sha);
 
             Map<String, Object> tree = gitHubApiClient.getRepoTree(
                     context.getOwner(),
@@ -143,16 +147,15 @@ public class QualifierStep implements AgentStep {
         return structure;
     }
 
-    private AgentsMdInfo parseAgentsMd(RunContext context) {
+    private AgentsMdInfo parseAgentsMd(RunContext context, String commitSha) {
         log.info("Parsing AGENTS.md for command information");
 
         AgentsMdInfo info = new AgentsMdInfo();
 
         try {
-            Map<String, Object> agentsMdContent = gitHubApiClient.getRepoContent(
-                    context.getOwner(),
-                    context.getRepo(),
-                    "AGENTS.md");
+            Map<String, Object> agentsMdContent = commitSha != null
+                    ? gitHubApiClient.getRepoContent(context.getOwner(), context.getRepo(), "AGENTS.md", commitSha)
+                    : gitHubApiClient.getRepoContent(context.getOwner(), context.getRepo(), "AGENTS.md");
 
             String contentBase64 = (String) agentsMdContent.get("content");
             byte[] decodedBytes = Base64.getDecoder().decode(contentBase64.replaceAll("\\s", ""));
@@ -186,7 +189,7 @@ public class QualifierStep implements AgentStep {
             Map<String, Object> schema = loadWorkPlanSchemaForLlm();
 
             log.info("Sending request to LLM for work plan generation");
-            LlmResult llmResult = llmService.generateStructuredOutput(
+            LlmResult llmResult = llmService.generateStructuredOutputCached(
                     systemPrompt, userPrompt, schema, complexityResolver.forAgent("qualifier"));
             String llmResponse = llmResult.content();
 
@@ -525,6 +528,7 @@ public class QualifierStep implements AgentStep {
     }
 
     private static class RepoStructure {
+        private String commitSha;
         private final Set<String> allFiles = new HashSet<>();
         private final Set<String> backendFiles = new LinkedHashSet<>();
         private final Set<String> frontendFiles = new LinkedHashSet<>();
@@ -532,6 +536,14 @@ public class QualifierStep implements AgentStep {
         private final Set<String> docFiles = new LinkedHashSet<>();
         private final Set<String> infraFiles = new LinkedHashSet<>();
 
+        public String getCommitSha() {
+            return commitSha;
+        }
+
+        public void setCommitSha(String commitSha) {
+            this.commitSha = commitSha;
+        }
+
         public void addFile(String path) {
             allFiles.add(path);
         }
@@ -4,6 +4,7 @@ import com.atlasia.ai.model.RefreshTokenEntity;
 import com.atlasia.ai.model.UserEntity;
 import com.atlasia.ai.persistence.RefreshTokenRepository;
 import com.atlasia.ai.persistence.UserRepository;
+import com.atlasia.ai.service.auth.AuthenticatedPrincipalCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -28,16 +29,19 @@ public class RefreshTokenService {
     private final UserRepository userRepository;
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
+    private final AuthenticatedPrincipalCache principalCache;
 
     public RefreshTokenService(
             RefreshTokenRepository refreshTokenRepository,
             UserRepository userRepository,
             JwtService jwtService,
-            PasswordEncoder passwordEncoder) {
+            PasswordEncoder passwordEncoder,
+            AuthenticatedPrincipalCache principalCache) {
         this.refreshTokenRepository = refreshTokenRepository;
         this.userRepository = userRepository;
         this.jwtService = jwtService;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
     }
 
     @Transactional
@@ -120,6 +124,7 @@ public class RefreshTokenService {
     @Transactional
     public int revokeAllUserTokens(UUID userId) {
         int count = refreshTokenRepository.revokeAllByUserId(userId);
+        principalCache.evictUser(userId);
         logger.info("Revoked {} refresh tokens for user: {}", count, userId);
         return count;
     }
@@ -140,6 +145,7 @@ public class RefreshTokenService {
         
         token.setRevoked(true);
         refreshTokenRepository.save(token);
+        principalCache.evictUser(userId);
         logger.info("Revoked refresh token for user: {}", userId);
     }
 
@@ -0,0 +1,314 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of repository snapshots fetched through {@link GitHubApiClient}.
+ *
+ * Git trees and blobs are immutable once addressed by SHA, so entries never need
+ * invalidation — only eviction. Every key carries the caller's credential scope (see
+ * {@code GitHubApiClient#credentialScope}) as well as the repo, so an entry is only served back
+ * to the credential that fetched it from GitHub: one token never reads another token's private
+ * repositories through the cache, at the cost of each credential warming its own entries. The
+ * on-heap tier is a size-weighted Caffeine
+ * cache; when {@code atlasia.orchestrator.repo-cache.disk-dir} is set, entries are also
+ * written as JSON files there and read back after heap eviction or a restart. The disk tier
+ * is capped at {@code disk-max-mb}: once over, the least recently used files (by modification
+ * time, refreshed on every disk hit) are deleted down to 90% of the cap.
+ */
+@Service
+public class RepoSnapshotCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RepoSnapshotCache.class);
+    private static final Pattern FULL_SHA = Pattern.compile("[0-9a-f]{40}|[0-9a-f]{64}");
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final Cache<String, Map<String, Object>> memory;
+    private final Cache<String, String> blobShaByPath;
+    private final Path diskDir;
+    private final long diskMaxBytes;
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final ObjectMapper objectMapper;
+    private final OrchestratorMetrics metrics;
+
+    @Autowired
+    public RepoSnapshotCache(
+            @Value("${atlasia.orchestrator.repo-cache.max-weight-mb:128}") long maxWeightMb,
+            @Value("${atlasia.orchestrator.repo-cache.disk-dir:}") String diskDir,
+            @Value("${atlasia.orchestrator.repo-cache.disk-max-mb:1024}") long diskMaxMb,
+            ObjectMapper objectMapper,
+            OrchestratorMetrics metrics) {
+        this(maxWeightMb, diskDir, objectMapper, metrics, diskMaxMb * 1024 * 1024);
+    }
+
+    RepoSnapshotCache(long maxWeightMb, String diskDir, ObjectMapper objectMapper, OrchestratorMetrics metrics,
+                      long diskMaxBytes) {
+        this.diskMaxBytes = Math.max(1, diskMaxBytes);
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.memory = Caffeine.newBuilder()
+                .maximumWeight(maxWeightMb * 1024 * 1024)
+                .weigher((String key, Map<String, Object> value) -> estimateWeight(value))
+                .build();
+        this.blobShaByPath = Caffeine.newBuilder()
+                .maximumSize(50_000)
+                .build();
+        this.diskDir = initDiskDir(diskDir);
+    }
+
+    /** True when {@code ref} is a full commit/tree/blob SHA and therefore safe to cache. */
+    public static boolean isImmutableRef(String ref) {
+        return ref != null && FULL_SHA.matcher(ref).matches();
+    }
+
+    public Optional<Map<String, Object>> getTree(String scope, String repoFullName, String sha, boolean recursive) {
+        return lookup("tree", treeKey(scope, repoFullName, sha, recursive));
+    }
+
+    public void putTree(String scope, String repoFullName, String sha, boolean recursive, Map<String, Object> tree) {
+        store(treeKey(scope, repoFullName, sha, recursive), tree);
+    }
+
+    public Optional<Map<String, Object>> getBlob(String scope, String repoFullName, String blobSha) {
+        return lookup("blob", blobKey(scope, repoFullName, blobSha));
+    }
+
+    public void putBlob(String scope, String repoFullName, String blobSha, Map<String, Object> blob) {
+        store(blobKey(scope, repoFullName, blobSha), blob);
+    }
+
+    /**
+     * Resolve the blob SHA of {@code path} at {@code commitSha}, either from an earlier
+     * contents lookup or from an already cached recursive tree of that commit, both fetched
+     * under the same credential {@code scope}.
+     */
+    public Optional<String> blobShaAt(String scope, String repoFullName, String commitSha, String path) {
+        String indexed = blobShaByPath.getIfPresent(pathKey(scope, repoFullName, commitSha, path));
+        if (indexed != null) {
+            return Optional.of(indexed);
+        }
+        Map<String, Object> tree = memory.getIfPresent(treeKey(scope, repoFullName, commitSha, true));
+        if (tree == null || !(tree.get("tree") instanceof List<?> items)) {
+            return Optional.empty();
+        }
+        for (Object item : items) {
+            if (item instanceof Map<?, ?> entry && path.equals(entry.get("path"))
+                    && "blob".equals(entry.get("type")) && entry.get("sha") instanceof String sha) {
+                blobShaByPath.put(pathKey(scope, repoFullName, commitSha, path), sha);
+                return Optional.of(sha);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void indexPath(String scope, String repoFullName, String commitSha, String path, String blobSha) {
+        blobShaByPath.put(pathKey(scope, repoFullName, commitSha, path), blobSha);
+    }
+
+    public long estimatedSize() {
+        return memory.estimatedSize();
+    }
+
+    private Optional<Map<String, Object>> lookup(String kind, String key) {
+        Map<String, Object> cached = memory.getIfPresent(key);
+        if (cached != null) {
+            metrics.recordRepoSnapshotCache(kind, "memory_hit");
+            return Optional.of(cached);
+        }
+        Map<String, Object> fromDisk = readDisk(key);
+        if (fromDisk != null) {
+            memory.put(key, fromDisk);
+            metrics.recordRepoSnapshotCache(kind, "disk_hit");
+            return Optional.of(fromDisk);
+        }
+        metrics.recordRepoSnapshotCache(kind, "miss");
+        return Optional.empty();
+    }
+
+    private void store(String key, Map<String, Object> value) {
+        if (value == null) {
+            return;
+        }
+        Map<String, Object> frozen = Collections.unmodifiableMap(value);
+        memory.put(key, frozen);
+        writeDisk(key, frozen);
+    }
+
+    private Path initDiskDir(String dir) {
+        if (dir == null || dir.isBlank()) {
+            return null;
+        }
+        try {
+            Path path = Path.of(dir);
+            Files.createDirectories(path);
+            diskBytes.set(cacheFiles(path).stream().mapToLong(RepoSnapshotCache::sizeOf).sum());
+            log.info("Repo snapshot disk cache enabled at {} ({} bytes in use, cap {})",
+                    path.toAbsolutePath(), diskBytes.get(), diskMaxBytes);
+            return path;
+        } catch (IOException e) {
+            log.warn("Repo snapshot disk cache disabled, cannot create {}: {}", dir, e.getMessage());
+            return null;
+        }
+    }
+
+    private Map<String, Object> readDisk(String key) {
+        if (diskDir == null) {
+            return null;
+        }
+        Path file = diskDir.resolve(fileName(key));
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            Map<String, Object> value = Collections.unmodifiableMap(objectMapper.readValue(file.toFile(), MAP_TYPE));
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return value;
+        } catch (IOException e) {
+            log.debug("Discarding unreadable snapshot cache file {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, Map<String, Object> value) {
+        if (diskDir == null) {
+            return;
+        }
+        Path target = diskDir.resolve(fileName(key));
+        if (Files.exists(target)) {
+            return;
+        }
+        try {
+            Path tmp = Files.createTempFile(diskDir, "snapshot-", ".tmp");
+            objectMapper.writeValue(tmp.toFile(), value);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (diskBytes.addAndGet(sizeOf(target)) > diskMaxBytes) {
+                trimDisk();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to write snapshot cache file {}: {}", target, e.getMessage());
+        }
+    }
+
+    /** Deletes least recently used files until the disk tier is back under 90% of its cap. */
+    private void trimDisk() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Path> files = cacheFiles(diskDir);
+            Map<Path, FileTime> lastUsed = new HashMap<>();
+            long total = 0;
+            for (Path file : files) {
+                total += sizeOf(file);
+                lastUsed.put(file, lastModified(file));
+            }
+            files.sort(Comparator.comparing(lastUsed::get));
+            long target = diskMaxBytes - diskMaxBytes / 10;
+            int deleted = 0;
+            for (Path file : files) {
+                if (total <= target) {
+                    break;
+                }
+                long size = sizeOf(file);
+                if (Files.deleteIfExists(file)) {
+                    total -= size;
+                    deleted++;
+                }
+            }
+            // Recounted from the listing, so concurrent writes or external deletes do not drift the total.
+            diskBytes.set(total);
+            log.debug("Trimmed repo snapshot disk cache: deleted {} files, {} bytes remain", deleted, total);
+        } catch (IOException e) {
+            log.debug("Failed to trim snapshot disk cache {}: {}", diskDir, e.getMessage());
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private static List<Path> cacheFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return new ArrayList<>(files.filter(f -> f.getFileName().toString().endsWith(".json")).toList());
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static int estimateWeight(Map<String, Object> value) {
+        long weight = 256;
+        if (value.get("tree") instanceof List<?> items) {
+            weight += items.size() * 192L;
+        }
+        if (value.get("content") instanceof String content) {
+            weight += content.length();
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static String treeKey(String scope, String repoFullName, String sha, boolean recursive) {
+        return "tree:" + scope + ":" + repoFullName.toLowerCase(Locale.ROOT) + ":" + sha + (recursive ? ":r" : "");
+    }
+
+    private static String blobKey(String scope, String repoFullName, String blobSha) {
+        return "blob:" + scope + ":" + repoFullName.toLowerCase(Locale.ROOT) + ":" + blobSha;
+    }
+
+    private static String pathKey(String scope, String repoFullName, String commitSha, String path) {
+        return scope + "|" + repoFullName.toLowerCase(Locale.ROOT) + "@" + commitSha + ":" + path;
+    }
+
+    private static String fileName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest) + ".json";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.atlasia.ai.model.UserEntity;
 import com.atlasia.ai.persistence.PermissionRepository;
 import com.atlasia.ai.persistence.RoleRepository;
 import com.atlasia.ai.persistence.UserRepository;
+import com.atlasia.ai.service.auth.AuthenticatedPrincipalCache;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,13 +56,16 @@ public class RoleService {
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
     private final UserRepository userRepository;
+    private final AuthenticatedPrincipalCache principalCache;
 
     public RoleService(RoleRepository roleRepository, 
                       PermissionRepository permissionRepository,
-                      UserRepository userRepository) {
+                      UserRepository userRepository,
+                      AuthenticatedPrincipalCache principalCache) {
         this.roleRepository = roleRepository;
         this.permissionRepository = permissionRepository;
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
 
     @PostConstruct
@@ -193,6 +197,7 @@ public class RoleService {
         
         user.addRole(role);
         userRepository.save(user);
+        principalCache.evictUser(userId);
     }
 
     @Transactional
@@ -204,6 +209,7 @@ public class RoleService {
         
         user.removeRole(role);
         userRepository.save(user);
+        principalCache.evictUser(userId);
     }
 
     public Set<String> getUserRoles(UUID userId) {
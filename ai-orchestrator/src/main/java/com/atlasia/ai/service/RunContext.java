@@ -14,6 +14,9 @@ public class RunContext {
     private String architectureNotes;
     private String prUrl;
     private String branchName;
+    private String baseSha;
+    private int reviewDeveloperLoops;
+    private int testerDeveloperLoops;
     private DeveloperStep.CodeChanges codeChanges;
 
     public RunContext(RunEntity runEntity, String owner, String repo) {
@@ -26,6 +29,11 @@ public class RunContext {
         return runEntity;
     }
 
+    /** Shadow runs are dry runs: no pull requests, labels or writes outside {@code shadow/} branches. */
+    public boolean isShadow() {
+        return ShadowModeService.SHADOW_MODE.equals(runEntity.getMode());
+    }
+
     public String getOwner() {
         return owner;
     }
@@ -82,6 +90,31 @@ public class RunContext {
         this.branchName = branchName;
     }
 
+    /** Default-branch commit the run branched from, once the developer step resolved it. */
+    public String getBaseSha() {
+        return baseSha;
+    }
+
+    public void setBaseSha(String baseSha) {
+        this.baseSha = baseSha;
+    }
+
+    public int getReviewDeveloperLoops() {
+        return reviewDeveloperLoops;
+    }
+
+    public void setReviewDeveloperLoops(int reviewDeveloperLoops) {
+        this.reviewDeveloperLoops = reviewDeveloperLoops;
+    }
+
+    public int getTesterDeveloperLoops() {
+        return testerDeveloperLoops;
+    }
+
+    public void setTesterDeveloperLoops(int testerDeveloperLoops) {
+        this.testerDeveloperLoops = testerDeveloperLoops;
+    }
+
     public DeveloperStep.CodeChanges getCodeChanges() {
         return codeChanges;
     }
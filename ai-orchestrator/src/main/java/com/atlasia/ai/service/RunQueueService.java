@@ -0,0 +1,362 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.RunQueueEntryEntity;
+import com.atlasia.ai.model.RunQueueLane;
+import com.atlasia.ai.model.RunStatus;
+import com.atlasia.ai.persistence.RunQueueAdmissionRepository;
+import com.atlasia.ai.persistence.RunQueueRepository;
+import com.atlasia.ai.persistence.RunRepository;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Durable admission queue in front of {@link WorkflowEngine}.
+ *
+ * Controllers enqueue runs into {@code ai_run_queue} instead of starting them directly.
+ * Every node polls the queue: an admission pass locks the single admission row (skipping
+ * the pass if another node holds it), claims queued rows with {@code FOR UPDATE SKIP LOCKED}
+ * in lane order (interactive, webhook, shadow; FIFO within a lane) and leases as many as the
+ * global and per-repo concurrency limits allow. Both limits count leased rows across all
+ * nodes, so {@code max-concurrent-runs} (default 8) caps the whole cluster, not each node. A leased run executes on
+ * {@code workflowExecutor}; its lease is heartbeated while it runs and the row is deleted
+ * when the workflow thread returns (done, failed, escalated or suspended at a gate).
+ *
+ * Leases that stop being heartbeated — the node crashed or stalled — expire and the run is
+ * requeued, up to {@code max-attempts}, after which it is marked FAILED. A requeued run starts
+ * the pipeline again; the developer step reuses the branch and open pull request of the earlier
+ * attempt rather than opening new ones. The per-request GitHub token is stored encrypted on the
+ * queue row, so it survives admission on another node, a restart and lease recovery.
+ */
+@Service
+public class RunQueueService {
+    private static final Logger log = LoggerFactory.getLogger(RunQueueService.class);
+
+    private static final int MAX_CANDIDATES = 200;
+
+    private final RunQueueRepository queueRepository;
+    private final RunQueueAdmissionRepository admissionRepository;
+    private final RunRepository runRepository;
+    private final WorkflowEngine workflowEngine;
+    private final Executor workflowExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final OrchestratorMetrics metrics;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int maxConcurrentRuns;
+    private final int maxConcurrentPerRepo;
+    private final Duration leaseDuration;
+    private final int maxAttempts;
+    private final String nodeId;
+
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> rerunRequested = ConcurrentHashMap.newKeySet();
+
+    public record Settings(boolean enabled, int maxConcurrentRuns, int maxConcurrentPerRepo,
+                           Duration leaseDuration, int maxAttempts) {}
+
+    @Autowired
+    public RunQueueService(
+            RunQueueRepository queueRepository,
+            RunQueueAdmissionRepository admissionRepository,
+            RunRepository runRepository,
+            WorkflowEngine workflowEngine,
+            @Qualifier("workflowExecutor") Executor workflowExecutor,
+            PlatformTransactionManager transactionManager,
+            OrchestratorMetrics metrics,
+            @Value("${atlasia.orchestrator.run-queue.enabled:true}") boolean enabled,
+            @Value("${atlasia.orchestrator.run-queue.max-concurrent-runs:8}") int maxConcurrentRuns,
+            @Value("${atlasia.orchestrator.run-queue.max-concurrent-per-repo:2}") int maxConcurrentPerRepo,
+            @Value("${atlasia.orchestrator.run-queue.lease-seconds:180}") long leaseSeconds,
+            @Value("${atlasia.orchestrator.run-queue.max-attempts:3}") int maxAttempts) {
+        this(queueRepository, admissionRepository, runRepository, workflowEngine, workflowExecutor,
+                new TransactionTemplate(transactionManager), metrics, Clock.systemUTC(),
+                new Settings(enabled, maxConcurrentRuns, maxConcurrentPerRepo,
+                        Duration.ofSeconds(leaseSeconds), maxAttempts),
+                defaultNodeId());
+    }
+
+    RunQueueService(
+            RunQueueRepository queueRepository,
+            RunQueueAdmissionRepository admissionRepository,
+            RunRepository runRepository,
+            WorkflowEngine workflowEngine,
+            Executor workflowExecutor,
+            TransactionTemplate transactionTemplate,
+            OrchestratorMetrics metrics,
+            Clock clock,
+            Settings settings,
+            String nodeId) {
+        this.queueRepository = queueRepository;
+        this.admissionRepository = admissionRepository;
+        this.runRepository = runRepository;
+        this.workflowEngine = workflowEngine;
+        this.workflowExecutor = workflowExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.enabled = settings.enabled();
+        this.maxConcurrentRuns = Math.max(1, settings.maxConcurrentRuns());
+        this.maxConcurrentPerRepo = Math.max(1, settings.maxConcurrentPerRepo());
+        this.leaseDuration = settings.leaseDuration();
+        this.maxAttempts = Math.max(1, settings.maxAttempts());
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Queue a persisted run for execution. Starting a run that is already queued or leased
+     * is a no-op. With the queue disabled the run is started immediately, as before.
+     */
+    public void enqueue(UUID runId, String repo, RunQueueLane lane, String gitHubToken) {
+        if (!enabled) {
+            workflowEngine.executeWorkflowAsync(runId, gitHubToken);
+            return;
+        }
+        Boolean added = transactionTemplate.execute(status -> {
+            if (queueRepository.existsById(runId)) {
+                return false;
+            }
+            RunQueueEntryEntity entry = new RunQueueEntryEntity(runId, repo, lane, clock.instant());
+            entry.setGitHubToken(gitHubToken);
+            queueRepository.save(entry);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(added)) {
+            if (inFlight.contains(runId)) {
+                // Resumed (e.g. gate approved) before the suspending thread released its slot.
+                rerunRequested.add(runId);
+                log.info("Run still releasing its slot, will run again on completion: runId={}", runId);
+            } else {
+                log.info("Run already queued or running, not enqueued again: runId={}", runId);
+            }
+            return;
+        }
+        log.info("Run enqueued: runId={}, repo={}, lane={}", runId, repo, lane);
+        dispatchQuietly();
+    }
+
+    /** Queue an existing run, resolving its repository from the run row. */
+    public void enqueue(UUID runId, RunQueueLane lane, String gitHubToken) {
+        RunEntity run = runRepository.findById(runId).orElse(null);
+        if (run == null) {
+            log.warn("Cannot enqueue unknown run: runId={}", runId);
+            return;
+        }
+        enqueue(runId, run.getRepo(), lane, gitHubToken);
+    }
+
+    @Scheduled(fixedDelayString = "${atlasia.orchestrator.run-queue.poll-interval-ms:2000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        dispatchQuietly();
+    }
+
+    @Scheduled(fixedDelayString = "${atlasia.orchestrator.run-queue.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        if (!enabled || inFlight.isEmpty()) {
+            return;
+        }
+        Set<UUID> running = Set.copyOf(inFlight);
+        Integer extended = transactionTemplate.execute(status ->
+                queueRepository.extendLeases(running, nodeId, clock.instant().plus(leaseDuration)));
+        if (extended != null && extended < running.size()) {
+            log.warn("Run queue heartbeat extended {} of {} leases; others were recovered elsewhere: node={}",
+                    extended, running.size(), nodeId);
+        }
+    }
+
+    /**
+     * One admission pass: recover expired leases, then lease queued runs up to the limits
+     * and hand them to the workflow executor.
+     *
+     * @return number of runs started by this pass
+     */
+    int dispatchAvailable() {
+        List<RunQueueEntryEntity> admitted = transactionTemplate.execute(status -> admit());
+        if (admitted == null || admitted.isEmpty()) {
+            return 0;
+        }
+        Instant now = clock.instant();
+        int started = 0;
+        for (RunQueueEntryEntity entry : admitted) {
+            metrics.recordRunQueueWait(entry.getLane().name(),
+                    Math.max(0, Duration.between(entry.getEnqueuedAt(), now).toMillis()));
+            if (start(entry)) {
+                started++;
+            }
+        }
+        return started;
+    }
+
+    private List<RunQueueEntryEntity> admit() {
+        if (admissionRepository.tryLock().isEmpty()) {
+            return List.of();
+        }
+        Instant now = clock.instant();
+        recoverExpiredLeases(now);
+
+        Map<String, Long> leasedByRepo = new HashMap<>();
+        long leased = 0;
+        for (Object[] row : queueRepository.countLeasedByRepo()) {
+            long count = ((Number) row[1]).longValue();
+            leasedByRepo.put((String) row[0], count);
+            leased += count;
+        }
+        publishDepth(leased);
+
+        long free = maxConcurrentRuns - leased;
+        if (free <= 0) {
+            return List.of();
+        }
+
+        int window = (int) Math.min(MAX_CANDIDATES, free * 8);
+        List<RunQueueEntryEntity> admitted = new ArrayList<>();
+        for (RunQueueEntryEntity candidate : queueRepository.findClaimable(PageRequest.of(0, window))) {
+            if (admitted.size() >= free) {
+                break;
+            }
+            long repoLeased = leasedByRepo.getOrDefault(candidate.getRepo(), 0L);
+            if (repoLeased >= maxConcurrentPerRepo) {
+                continue;
+            }
+            candidate.lease(nodeId, now, now.plus(leaseDuration));
+            leasedByRepo.put(candidate.getRepo(), repoLeased + 1);
+            admitted.add(candidate);
+        }
+        if (!admitted.isEmpty()) {
+            queueRepository.saveAll(admitted);
+            log.debug("Run queue admitted {} run(s): node={}, leasedBefore={}", admitted.size(), nodeId, leased);
+        }
+        return admitted;
+    }
+
+    private void recoverExpiredLeases(Instant now) {
+        List<RunQueueEntryEntity> expired = queueRepository.findByStatusAndLeaseExpiresAtBefore(
+                RunQueueEntryEntity.STATUS_LEASED, now);
+        for (RunQueueEntryEntity entry : expired) {
+            if (entry.getAttempts() >= maxAttempts) {
+                log.error("Abandoning run after {} lease expiries: runId={}, lastOwner={}",
+                        entry.getAttempts(), entry.getRunId(), entry.getLeaseOwner());
+                queueRepository.delete(entry);
+                runRepository.findById(entry.getRunId()).ifPresent(run -> {
+                    run.setStatus(RunStatus.FAILED);
+                    runRepository.save(run);
+                });
+                metrics.recordRunQueueLeaseRecovery("abandoned");
+            } else {
+                log.warn("Requeueing orphaned run, lease expired: runId={}, lastOwner={}, attempt={}",
+                        entry.getRunId(), entry.getLeaseOwner(), entry.getAttempts());
+                entry.requeue();
+                queueRepository.save(entry);
+                metrics.recordRunQueueLeaseRecovery("requeued");
+            }
+        }
+    }
+
+    private boolean start(RunQueueEntryEntity entry) {
+        UUID runId = entry.getRunId();
+        String token = entry.getGitHubToken();
+        inFlight.add(runId);
+        try {
+            workflowExecutor.execute(() -> {
+                try {
+                    workflowEngine.runWorkflow(runId, token);
+                } finally {
+                    complete(runId);
+                }
+            });
+            log.info("Run admitted from queue: runId={}, repo={}, lane={}, attempt={}",
+                    runId, entry.getRepo(), entry.getLane(), entry.getAttempts());
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Workflow executor saturated, returning run to queue: runId={}", runId);
+            inFlight.remove(runId);
+            transactionTemplate.executeWithoutResult(status -> queueRepository.findById(runId).ifPresent(row -> {
+                row.requeue();
+                queueRepository.save(row);
+            }));
+            return false;
+        }
+    }
+
+    private void complete(UUID runId) {
+        boolean rerun = rerunRequested.remove(runId);
+        inFlight.remove(runId);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!rerun) {
+                    queueRepository.deleteById(runId);
+                    return;
+                }
+                queueRepository.findById(runId).ifPresent(row -> {
+                    row.requeue();
+                    queueRepository.save(row);
+                });
+            });
+        } catch (Exception e) {
+            // The lease will expire; the row then goes through recovery instead.
+            log.error("Failed to release run queue lease: runId={}", runId, e);
+        }
+        dispatchQuietly();
+    }
+
+    private void publishDepth(long leased) {
+        Map<RunQueueLane, Integer> depth = new EnumMap<>(RunQueueLane.class);
+        for (RunQueueLane lane : RunQueueLane.values()) {
+            depth.put(lane, 0);
+        }
+        for (Object[] row : queueRepository.countQueuedByLane()) {
+            depth.put((RunQueueLane) row[0], ((Number) row[1]).intValue());
+        }
+        depth.forEach((lane, count) -> metrics.updateRunQueueDepth(lane.name(), count));
+        metrics.updateRunQueueLeased((int) leased);
+    }
+
+    private void dispatchQuietly() {
+        try {
+            dispatchAvailable();
+        } catch (Exception e) {
+            log.warn("Run queue admission pass failed: node={}, {}", nodeId, e.getMessage());
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
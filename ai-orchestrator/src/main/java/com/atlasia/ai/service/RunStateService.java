@@ -0,0 +1,165 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.RunArtifactEntity;
+import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.persistence.RunArtifactRepository;
+import com.atlasia.ai.persistence.RunRepository;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Step-scoped persistence for {@link RunEntity}.
+ *
+ * The workflow engine no longer holds a JPA session for the lifetime of a run. Instead it
+ * keeps a detached copy of the run and commits each state change in its own short
+ * transaction: the row is re-read, the mutation is applied, and the committed state
+ * (including the optimistic {@code version}) is mirrored back onto the detached copy.
+ * The database connection is therefore only held for the duration of a single write,
+ * never across LLM calls, GitHub calls, CI polling or human-approval waits.
+ *
+ * Because mutations are replayed against the freshest row, concurrent writers such as
+ * collaboration prunes/grafts are preserved rather than overwritten; a version conflict
+ * between load and flush is retried a bounded number of times.
+ */
+@Service
+public class RunStateService {
+    private static final Logger log = LoggerFactory.getLogger(RunStateService.class);
+
+    static final int MAX_CONFLICT_RETRIES = 3;
+
+    private final RunRepository runRepository;
+    private final RunArtifactRepository artifactRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate independentTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final OrchestratorMetrics metrics;
+
+    public RunStateService(
+            RunRepository runRepository,
+            RunArtifactRepository artifactRepository,
+            PlatformTransactionManager transactionManager,
+            OrchestratorMetrics metrics) {
+        this.runRepository = runRepository;
+        this.artifactRepository = artifactRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.independentTemplate = new TransactionTemplate(transactionManager);
+        this.independentTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Load a run together with its blackboard artifacts in a short read-only transaction.
+     * The returned entity is detached; its artifact list is initialized so blackboard reads
+     * keep working without an open session.
+     */
+    public Optional<RunEntity> load(UUID runId) {
+        return readOnlyTemplate.execute(status -> {
+            Optional<RunEntity> run = runRepository.findById(runId);
+            run.ifPresent(r -> Hibernate.initialize(r.getArtifacts()));
+            return run;
+        });
+    }
+
+    /**
+     * Apply {@code mutation} to the latest committed row for {@code target} in its own
+     * transaction, then refresh {@code target} with the committed state.
+     *
+     * @param target   the caller's (usually detached) copy of the run
+     * @param mutation state change to apply; must be safe to re-apply on conflict retry
+     * @return {@code target}, refreshed
+     */
+    public RunEntity commit(RunEntity target, Consumer<RunEntity> mutation) {
+        UUID runId = target.getId();
+        RunEntity committed = commitWithRetry(runId, mutation, transactionTemplate)
+                .orElseThrow(() -> new IllegalStateException("Run not found: " + runId));
+        target.refreshStateFrom(committed);
+        return target;
+    }
+
+    /**
+     * {@link #commit} for callers that only hold the run id: request handlers, collaboration
+     * mutations and graft bookkeeping. The write gets its own transaction even when the caller
+     * has one open, so a version conflict is retried against a fresh row instead of failing the
+     * caller's commit.
+     *
+     * @param mutation state change to apply; must be safe to re-apply on conflict retry
+     * @return the committed run, or empty if it does not exist
+     */
+    public Optional<RunEntity> update(UUID runId, Consumer<RunEntity> mutation) {
+        return commitWithRetry(runId, mutation, independentTemplate);
+    }
+
+    private Optional<RunEntity> commitWithRetry(
+            UUID runId, Consumer<RunEntity> mutation, TransactionTemplate template) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return Optional.ofNullable(template.execute(status -> runRepository.findById(runId)
+                        .map(fresh -> {
+                            mutation.accept(fresh);
+                            return runRepository.save(fresh);
+                        })
+                        .orElse(null)));
+            } catch (OptimisticLockingFailureException e) {
+                metrics.recordRunStateConflict();
+                if (attempt >= MAX_CONFLICT_RETRIES) {
+                    log.error("Run state commit failed after {} version conflicts: runId={}", attempt, runId);
+                    throw e;
+                }
+                log.debug("Run state version conflict, retrying: runId={}, attempt={}", runId, attempt);
+            }
+        }
+    }
+
+    /**
+     * Apply {@code mutation} only if the latest committed row still satisfies {@code guard}.
+     * Unlike {@link #commit}, a version conflict is not retried: another writer changed the
+     * run first, so the caller lost the race.
+     *
+     * @return true if the mutation was committed
+     */
+    public boolean transition(UUID runId, Predicate<RunEntity> guard, Consumer<RunEntity> mutation) {
+        try {
+            Boolean applied = transactionTemplate.execute(status -> {
+                RunEntity fresh = runRepository.findById(runId).orElse(null);
+                if (fresh == null || !guard.test(fresh)) {
+                    return false;
+                }
+                mutation.accept(fresh);
+                runRepository.saveAndFlush(fresh);
+                return true;
+            });
+            return Boolean.TRUE.equals(applied);
+        } catch (OptimisticLockingFailureException e) {
+            metrics.recordRunStateConflict();
+            log.debug("Run state transition lost to a concurrent writer: runId={}", runId);
+            return false;
+        }
+    }
+
+    /**
+     * Persist a new artifact for the run without touching the run row. The artifact is
+     * also appended to the in-memory collection when it has already been loaded.
+     */
+    public RunArtifactEntity appendArtifact(RunEntity run, RunArtifactEntity artifact) {
+        if (Hibernate.isInitialized(run.getArtifacts())) {
+            run.addArtifact(artifact);
+        } else {
+            artifact.setRun(run);
+        }
+        return artifactRepository.save(artifact);
+    }
+}
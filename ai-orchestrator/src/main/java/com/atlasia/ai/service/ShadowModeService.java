@@ -1,13 +1,13 @@
 package com.atlasia.ai.service;
 
 import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.RunQueueLane;
 import com.atlasia.ai.model.RunStatus;
 import com.atlasia.ai.persistence.RunRepository;
-import com.atlasia.ai.service.observability.CorrelationIdHolder;
 import com.atlasia.ai.service.observability.OrchestratorMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -22,6 +22,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  * team, but outputs are NEVER merged or shown to users. Compares agent
  * performance against the human baseline to validate readiness.
  *
+ * Shadow runs go through the regular run queue on the SHADOW lane, but the
+ * pipeline steps treat them as dry runs (see {@link RunContext#isShadow()}):
+ * work lands on {@value #SHADOW_BRANCH_PREFIX} branches, no pull request is
+ * opened and the issue is never labelled.
+ *
  * Validates:
  *   - Correctness (does the agent produce working code?)
  *   - Guardrail compliance (zero violations on real data)
@@ -33,11 +38,15 @@ public class ShadowModeService {
     private static final Logger log = LoggerFactory.getLogger(ShadowModeService.class);
 
     private final RunRepository runRepository;
-    private final WorkflowEngine workflowEngine;
+    private final RunQueueService runQueueService;
     private final OrchestratorMetrics metrics;
 
     /** Shadow run branch prefix — isolated from production. */
-    private static final String SHADOW_BRANCH_PREFIX = "shadow/";
+    public static final String SHADOW_BRANCH_PREFIX = "shadow/";
+    /** {@link RunEntity#getMode()} value that marks a run as shadow; pipeline steps key off it. */
+    public static final String SHADOW_MODE = "shadow";
+    private static final Set<RunStatus> TERMINAL_STATUSES =
+            EnumSet.of(RunStatus.DONE, RunStatus.ESCALATED, RunStatus.FAILED);
     private static final int MAX_CONCURRENT_SHADOW_RUNS = 3;
     private static final double MAX_COST_PER_RUN_USD = 3.00;
     private static final double MAX_DAILY_BUDGET_USD = 30.00;
@@ -51,22 +60,23 @@ public class ShadowModeService {
 
     public ShadowModeService(
             RunRepository runRepository,
-            WorkflowEngine workflowEngine,
+            RunQueueService runQueueService,
             OrchestratorMetrics metrics) {
         this.runRepository = runRepository;
-        this.workflowEngine = workflowEngine;
+        this.runQueueService = runQueueService;
         this.metrics = metrics;
     }
 
     /**
      * Start a shadow run for a GitHub issue.
-     * The shadow pipeline runs in parallel with the human team on an isolated branch.
+     * The shadow pipeline runs in parallel with the human team on an isolated branch. The run
+     * is persisted and queued on the {@link RunQueueLane#SHADOW} lane, so it only takes a
+     * slot of the run queue's concurrency limit when no interactive or webhook run is waiting.
      *
      * @param issueNumber the GitHub issue number
      * @param repo        the repository (owner/name)
      * @return the shadow run ID, or null if capacity exceeded
      */
-    @Async("workflowExecutor")
     public UUID startShadowRun(int issueNumber, String repo) {
         if (activeShadowCount.get() >= MAX_CONCURRENT_SHADOW_RUNS) {
             log.warn("SHADOW MODE: capacity exceeded (active={}/{}), skipping issue #{}",
@@ -75,27 +85,34 @@ public class ShadowModeService {
         }
 
         UUID shadowRunId = UUID.randomUUID();
-        String correlationId = CorrelationIdHolder.generateCorrelationId();
-        CorrelationIdHolder.setCorrelationId(correlationId);
-        CorrelationIdHolder.setRunId(shadowRunId);
-
-        log.info("SHADOW MODE STARTED: shadowRunId={}, issue={}#{}, correlationId={}",
-                shadowRunId, repo, issueNumber, correlationId);
-
         ShadowRun shadowRun = new ShadowRun(shadowRunId, issueNumber, repo, Instant.now());
+        runRepository.save(new RunEntity(shadowRunId, repo, issueNumber, SHADOW_MODE,
+                RunStatus.RECEIVED, shadowRun.startedAt));
         activeShadowRuns.put(shadowRunId, shadowRun);
         activeShadowCount.incrementAndGet();
 
-        try {
-            // Execute the workflow (same engine, isolated branch)
-            workflowEngine.executeWorkflow(shadowRunId);
+        runQueueService.enqueue(shadowRunId, repo, RunQueueLane.SHADOW, null);
+        log.info("SHADOW MODE QUEUED: shadowRunId={}, issue={}#{}", shadowRunId, repo, issueNumber);
+        return shadowRunId;
+    }
 
-            // Collect results
-            RunEntity runEntity = runRepository.findById(shadowRunId).orElse(null);
-            RunStatus status = runEntity != null ? runEntity.getStatus() : RunStatus.FAILED;
+    /**
+     * Record results for shadow runs that reached a terminal state and free their capacity.
+     * Runs parked at a gate stay active until they finish.
+     */
+    @Scheduled(fixedDelayString = "${atlasia.orchestrator.shadow.poll-interval-ms:10000}")
+    public void collectFinishedRuns() {
+        for (ShadowRun shadowRun : List.copyOf(activeShadowRuns.values())) {
+            RunStatus status = runRepository.findById(shadowRun.runId)
+                    .map(RunEntity::getStatus)
+                    .orElse(RunStatus.FAILED);
+            if (!TERMINAL_STATUSES.contains(status) || activeShadowRuns.remove(shadowRun.runId) == null) {
+                continue;
+            }
+            activeShadowCount.decrementAndGet();
 
             ShadowRunResult result = new ShadowRunResult(
-                    shadowRunId, issueNumber, repo,
+                    shadowRun.runId, shadowRun.issueNumber, shadowRun.repo,
                     status.name(),
                     shadowRun.startedAt,
                     Instant.now(),
@@ -104,30 +121,10 @@ public class ShadowModeService {
                     0.0,
                     0,
                     0);
-
             completedRuns.add(result);
 
             log.info("SHADOW MODE COMPLETED: shadowRunId={}, issue={}#{}, status={}, duration={}ms",
-                    shadowRunId, repo, issueNumber, status, result.durationMs);
-
-            return shadowRunId;
-
-        } catch (Exception e) {
-            log.error("SHADOW MODE FAILED: shadowRunId={}, issue={}#{}, error={}",
-                    shadowRunId, repo, issueNumber, e.getMessage(), e);
-
-            completedRuns.add(new ShadowRunResult(
-                    shadowRunId, issueNumber, repo, "FAILED",
-                    shadowRun.startedAt, Instant.now(),
-                    System.currentTimeMillis() - shadowRun.startedAt.toEpochMilli(),
-                    0, 0.0, 0, 0));
-
-            return shadowRunId;
-
-        } finally {
-            activeShadowRuns.remove(shadowRunId);
-            activeShadowCount.decrementAndGet();
-            CorrelationIdHolder.clear();
+                    shadowRun.runId, shadowRun.repo, shadowRun.issueNumber, status, result.durationMs);
         }
     }
 
@@ -10,6 +10,11 @@ import org.springframework.stereotype.Component;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -22,14 +27,18 @@ public class TesterStep implements AgentStep {
     private static final int MAX_POLLING_ATTEMPTS = 60;
     private static final long BASE_BACKOFF_MS = 5000;
     private static final long MAX_BACKOFF_MS = 60000;
+    /** Fallback poll interval when CI webhooks are known to be delivered for the repo. */
+    private static final long SPARSE_POLL_INTERVAL_MS = 120000;
     private static final Duration WORKFLOW_TIMEOUT = Duration.ofMinutes(30);
     
     private final GitHubApiClient gitHubApiClient;
+    private final GitCommitBuilder commitBuilder;
     private final LlmService llmService;
     private final LlmComplexityResolver complexityResolver;
     private final ObjectMapper objectMapper;
     private final OrchestratorMetrics metrics;
     private final AgentContractLoader agentContractLoader;
+    private final CheckRunCompletionRegistry completionRegistry;
     private final Random random = new Random();
 
     public TesterStep(
@@ -38,13 +47,17 @@ public class TesterStep implements AgentStep {
             LlmComplexityResolver complexityResolver,
             ObjectMapper objectMapper,
             OrchestratorMetrics metrics,
-            AgentContractLoader agentContractLoader) {
+            AgentContractLoader agentContractLoader,
+            CheckRunCompletionRegistry completionRegistry,
+            GitCommitBuilder commitBuilder) {
         this.gitHubApiClient = gitHubApiClient;
         this.llmService = llmService;
         this.complexityResolver = complexityResolver;
         this.objectMapper = objectMapper;
         this.metrics = metrics;
         this.agentContractLoader = agentContractLoader;
+        this.completionRegistry = completionRegistry;
+        this.commitBuilder = commitBuilder;
     }
 
     @Override
@@ -185,13 +198,14 @@ public class TesterStep implements AgentStep {
                 throw new RuntimeException("Workflow polling timed out");
             }
             
+            Instant polledAt = Instant.now();
             try {
                 log.debug("Polling check runs, attempt {}/{}", attempt, MAX_POLLING_ATTEMPTS);
                 Map<String, Object> checkRuns = gitHubApiClient.listCheckRunsForRef(owner, repo, commitSha);
                 
                 if (checkRuns == null) {
                     log.warn("Check runs API returned null");
-                    sleepWithExponentialBackoff(attempt);
+                    awaitCheckRunActivity(owner, repo, commitSha, polledAt, attempt);
                     continue;
                 }
                 
@@ -199,7 +213,7 @@ public class TesterStep implements AgentStep {
                 
                 if (checkRunsList == null || checkRunsList.isEmpty()) {
                     log.debug("No check runs found yet, waiting...");
-                    sleepWithExponentialBackoff(attempt);
+                    awaitCheckRunActivity(owner, repo, commitSha, polledAt, attempt);
                     continue;
                 }
                 
@@ -218,35 +232,57 @@ public class TesterStep implements AgentStep {
                     return checkRuns;
                 }
                 
-                sleepWithExponentialBackoff(attempt);
+                awaitCheckRunActivity(owner, repo, commitSha, polledAt, attempt);
                 
             } catch (Exception e) {
                 log.warn("Error polling check runs on attempt {}: {}", attempt, e.getMessage());
                 if (attempt >= MAX_POLLING_ATTEMPTS) {
                     throw new RuntimeException("Failed to poll check runs after " + MAX_POLLING_ATTEMPTS + " attempts", e);
                 }
-                sleepWithExponentialBackoff(attempt);
+                awaitCheckRunActivity(owner, repo, commitSha, polledAt, attempt);
             }
         }
         
         throw new RuntimeException("Check runs did not complete within " + MAX_POLLING_ATTEMPTS + " attempts");
     }
 
-    private void sleepWithExponentialBackoff(int attempt) {
-        long backoffMs = Math.min(BASE_BACKOFF_MS * (long) Math.pow(2, attempt - 1), MAX_BACKOFF_MS);
-        long jitterMs = random.nextInt((int) (backoffMs * 0.3));
-        long sleepMs = backoffMs + jitterMs;
-        
-        log.debug("Sleeping for {}ms (backoff with jitter)", sleepMs);
-        
+    /**
+     * Wait for the next chance that check runs changed: a check_run / check_suite /
+     * workflow_run completion webhook for this commit, or the fallback poll interval.
+     * Repos with active CI webhooks fall back to sparse polling; others keep the
+     * exponential backoff schedule.
+     */
+    private void awaitCheckRunActivity(String owner, String repo, String commitSha, Instant polledAt, int attempt) {
+        String repoFullName = owner + "/" + repo;
+        long waitMs = completionRegistry.isWebhookActive(repoFullName)
+                ? SPARSE_POLL_INTERVAL_MS
+                : backoffWithJitter(attempt);
+
+        CompletableFuture<String> signal = completionRegistry.awaitCompletion(repoFullName, commitSha, polledAt);
+        log.debug("Waiting up to {}ms for CI completion signal on {}", waitMs, commitSha);
+
         try {
-            Thread.sleep(sleepMs);
+            String source = signal.get(waitMs, TimeUnit.MILLISECONDS);
+            log.debug("Woken by CI completion signal ({}) for commit {}", source, commitSha);
+            metrics.recordCiCompletionWakeup("webhook");
+        } catch (TimeoutException e) {
+            completionRegistry.release(repoFullName, commitSha, signal);
+            metrics.recordCiCompletionWakeup("poll");
         } catch (InterruptedException e) {
+            completionRegistry.release(repoFullName, commitSha, signal);
             Thread.currentThread().interrupt();
             throw new RuntimeException("Polling interrupted", e);
+        } catch (ExecutionException | CancellationException e) {
+            completionRegistry.release(repoFullName, commitSha, signal);
         }
     }
 
+    private long backoffWithJitter(int attempt) {
+        long backoffMs = Math.min(BASE_BACKOFF_MS * (long) Math.pow(2, attempt - 1), MAX_BACKOFF_MS);
+        long jitterMs = random.nextInt((int) (backoffMs * 0.3));
+        return backoffMs + jitterMs;
+    }
+
     private CiStatus analyzeCheckRuns(String owner, String repo, Map<String, Object> checkRunsResponse) {
         List<Map<String, Object>> checkRuns = (List<Map<String, Object>>) checkRunsResponse.get("check_runs");
         
@@ -684,10 +720,7 @@ public class TesterStep implements AgentStep {
         String currentSha = (String) branchObject.get("sha");
         
         String commitSha = applyFixPatch(context, owner, repo, branchName, currentSha, fixPatch, "CI");
-        log.info("Applied CI fix with commit {}", commitSha);
-        
-        log.info("Waiting for CI to re-run after fix...");
-        Thread.sleep(10000);
+        log.info("Applied CI fix with commit {}; CI re-run will be awaited on the new head", commitSha);
     }
 
     private void applyE2eFix(RunContext context, E2eStatus status) throws Exception {
@@ -713,10 +746,7 @@ public class TesterStep implements AgentStep {
         String currentSha = (String) branchObject.get("sha");
         
         String commitSha = applyFixPatch(context, owner, repo, branchName, currentSha, fixPatch, "E2E");
-        log.info("Applied E2E fix with commit {}", commitSha);
-        
-        log.info("Waiting for E2E to re-run after fix...");
-        Thread.sleep(10000);
+        log.info("Applied E2E fix with commit {}; E2E re-run will be awaited on the new head", commitSha);
     }
 
     private FailureDiagnostics aggregateCiFailures(CiStatus status) {
@@ -942,56 +972,24 @@ public class TesterStep implements AgentStep {
                                  String branchName, String baseSha, FixPatch fixPatch, String fixType) throws Exception {
         log.info("Applying {} fix patch with {} file changes", fixType, fixPatch.getFiles().size());
         
-        List<Map<String, Object>> treeEntries = new ArrayList<>();
-        
+        List<GitCommitBuilder.FileEntry> files = new ArrayList<>();
         for (FilePatch filePatch : fixPatch.getFiles()) {
-            String path = filePatch.getPath();
-            String content = filePatch.getContent();
-            
-            Map<String, Object> blob = gitHubApiClient.createBlob(owner, repo, content, "utf-8");
-            String blobSha = (String) blob.get("sha");
-            
-            if (blobSha == null || blobSha.isEmpty()) {
-                throw new IllegalStateException("Blob creation returned null SHA for: " + path);
-            }
-            
-            Map<String, Object> treeEntry = new HashMap<>();
-            treeEntry.put("path", path);
-            treeEntry.put("mode", "100644");
-            treeEntry.put("type", "blob");
-            treeEntry.put("sha", blobSha);
-            
-            treeEntries.add(treeEntry);
-            log.debug("Created blob {} for {} ({} bytes)", blobSha, path, content.length());
+            files.add(GitCommitBuilder.FileEntry.text(filePatch.getPath(), filePatch.getContent()));
         }
         
-        Map<String, Object> newTree = gitHubApiClient.createTree(owner, repo, treeEntries, baseSha);
-        String treeSha = (String) newTree.get("sha");
-        
-        if (treeSha == null || treeSha.isEmpty()) {
-            throw new IllegalStateException("Tree creation returned null SHA");
-        }
-        
-        String commitMessage = buildFixCommitMessage(context, fixPatch, fixType);
-        Map<String, Object> author = buildAuthorInfo();
-        Map<String, Object> committer = buildCommitterInfo();
-        
-        Map<String, Object> newCommit = gitHubApiClient.createCommit(
-            owner, 
-            repo, 
-            commitMessage, 
-            treeSha, 
-            List.of(baseSha),
-            author,
-            committer
-        );
-        String commitSha = (String) newCommit.get("sha");
-        
-        if (commitSha == null || commitSha.isEmpty()) {
-            throw new IllegalStateException("Commit creation returned null SHA");
-        }
+        GitCommitBuilder.CommitResult result = commitBuilder.commit("tester",
+                new GitCommitBuilder.CommitRequest(
+                        owner,
+                        repo,
+                        branchName,
+                        baseSha,
+                        buildFixCommitMessage(context, fixPatch, fixType),
+                        buildAuthorInfo(),
+                        buildCommitterInfo(),
+                        files,
+                        false));
+        String commitSha = result.commitSha();
         
-        gitHubApiClient.updateReference(owner, repo, "heads/" + branchName, commitSha, false);
         log.info("Updated branch {} with fix commit {}", branchName, commitSha);
         
         return commitSha;
@@ -8,6 +8,7 @@ import com.atlasia.ai.config.AiProviderProperties;
 import com.atlasia.ai.config.ModelTierProperties;
 import com.atlasia.ai.config.OrchestratorProperties;
 import com.atlasia.ai.model.TaskComplexity;
+import com.atlasia.ai.service.event.LlmTokenRelay;
 import com.atlasia.ai.service.event.WorkflowEvent;
 import com.atlasia.ai.service.event.WorkflowEventBus;
 import com.atlasia.ai.service.observability.CorrelationIdHolder;
@@ -41,6 +42,7 @@ import java.util.function.Supplier;
 
 /**
  * Routes pipeline LLM calls through {@code atlasia.model-tiers} (dual legs, budget, circuit breakers).
+ * Callers that pass a stable context get it laid out as a cacheable prefix by {@link PromptAssembler}.
  */
 @Service
 public class TieredLlmExecutor {
@@ -55,6 +57,7 @@ public class TieredLlmExecutor {
     private final LlmProviderCircuitBreakerFactory circuitBreakerFactory;
     private final OrchestratorMetrics metrics;
     private final WorkflowEventBus eventBus;
+    private final PromptAssembler promptAssembler;
     private final WebClient webClient;
 
     /** For {@code availability: sticky-until-failure} — last successful leg per run/tier/op. */
@@ -76,7 +79,8 @@ public class TieredLlmExecutor {
             OrchestratorMetrics metrics,
             WorkflowEventBus eventBus,
             OrchestratorProperties orchestratorProperties,
-            WebClient.Builder webClientBuilder) {
+            WebClient.Builder webClientBuilder,
+            PromptAssembler promptAssembler) {
         this.modelTierProperties = modelTierProperties;
         this.aiProviderProperties = aiProviderProperties;
         this.restClients = aiRestClients;
@@ -85,6 +89,7 @@ public class TieredLlmExecutor {
         this.circuitBreakerFactory = circuitBreakerFactory;
         this.metrics = metrics;
         this.eventBus = eventBus;
+        this.promptAssembler = promptAssembler;
 
         var llmConfig = orchestratorProperties.llm();
         ConnectionProvider provider = ConnectionProvider.builder("llm-tiered-pool")
@@ -104,6 +109,30 @@ public class TieredLlmExecutor {
     }
 
     public String complete(String systemPrompt, String userPrompt, TaskComplexity complexity, Supplier<String> legacy) {
+        return complete(systemPrompt, null, userPrompt, complexity, legacy);
+    }
+
+    /**
+     * @param stableContext run-level context resent unchanged across calls (may be null); it is sent
+     *                      ahead of {@code userPrompt} so providers can serve it from their prompt cache
+     */
+    public String complete(
+            String systemPrompt,
+            String stableContext,
+            String userPrompt,
+            TaskComplexity complexity,
+            Supplier<String> legacy) {
+        return complete(systemPrompt, stableContext, userPrompt, complexity, null, legacy);
+    }
+
+    /** @param temperature overrides the provider's configured temperature when non-null */
+    public String complete(
+            String systemPrompt,
+            String stableContext,
+            String userPrompt,
+            TaskComplexity complexity,
+            Double temperature,
+            Supplier<String> legacy) {
         if (!tierRoutingActive()) {
             return legacy.get();
         }
@@ -135,7 +164,7 @@ public class TieredLlmExecutor {
                 for (int i = 0; i < order.size(); i++) {
                     LegTry lt = order.get(i);
                     try {
-                        AiCallResult r = invokeCompletionLeg(lt, systemPrompt, userPrompt);
+                        AiCallResult r = invokeCompletionLeg(lt, systemPrompt, stableContext, userPrompt, temperature);
                         if (r != null) {
                             if (i > 0) {
                                 metrics.recordLlmDualFailover(
@@ -187,6 +216,29 @@ public class TieredLlmExecutor {
             Map<String, Object> jsonSchema,
             TaskComplexity complexity,
             Supplier<LlmResult> legacy) {
+        return structured(systemPrompt, null, userPrompt, jsonSchema, complexity, legacy);
+    }
+
+    /** Structured variant of {@link #complete(String, String, String, TaskComplexity, Supplier)}. */
+    public LlmResult structured(
+            String systemPrompt,
+            String stableContext,
+            String userPrompt,
+            Map<String, Object> jsonSchema,
+            TaskComplexity complexity,
+            Supplier<LlmResult> legacy) {
+        return structured(systemPrompt, stableContext, userPrompt, jsonSchema, complexity, null, legacy);
+    }
+
+    /** @param temperature sent with the request when non-null; otherwise the endpoint's default applies */
+    public LlmResult structured(
+            String systemPrompt,
+            String stableContext,
+            String userPrompt,
+            Map<String, Object> jsonSchema,
+            TaskComplexity complexity,
+            Double temperature,
+            Supplier<LlmResult> legacy) {
         if (!tierRoutingActive()) {
             return legacy.get();
         }
@@ -218,7 +270,8 @@ public class TieredLlmExecutor {
                 for (int i = 0; i < order.size(); i++) {
                     LegTry lt = order.get(i);
                     try {
-                        StructuredLegOutcome out = invokeStructuredLeg(lt, systemPrompt, userPrompt, jsonSchema);
+                        StructuredLegOutcome out = invokeStructuredLeg(
+                                lt, systemPrompt, stableContext, userPrompt, jsonSchema, temperature);
                         if (out != null) {
                             if (i > 0) {
                                 metrics.recordLlmDualFailover(
@@ -264,6 +317,18 @@ public class TieredLlmExecutor {
         return legacy.get();
     }
 
+    /**
+     * Routing target for {@code complexity} as "tier:primary-model", or null when tier routing is
+     * off. Used as the model component of response cache keys.
+     */
+    public String routingTarget(TaskComplexity complexity) {
+        if (!tierRoutingActive()) {
+            return null;
+        }
+        ModelTierProperties.TierDefinition tierDef = modelTierProperties.getTiers().get(complexity.yamlKey());
+        return complexity.yamlKey() + ":" + (tierDef != null ? resolveDisplayModel(tierDef, complexity) : "-");
+    }
+
     private boolean tierRoutingActive() {
         return modelTierProperties.getTiers() != null && !modelTierProperties.getTiers().isEmpty();
     }
@@ -329,7 +394,8 @@ public class TieredLlmExecutor {
         stickyPreferredLegRole.put(stickyCacheKey(effective, opKind), legRole);
     }
 
-    private AiCallResult invokeCompletionLeg(LegTry lt, String system, String user) throws Exception {
+    private AiCallResult invokeCompletionLeg(
+            LegTry lt, String system, String stable, String user, Double temperature) throws Exception {
         ModelTierProperties.LegDefinition leg = lt.leg();
         String pid = leg.getProviderId();
         if (pid == null || pid.isBlank()) {
@@ -339,7 +405,8 @@ public class TieredLlmExecutor {
         if (base == null) {
             return null;
         }
-        AiProviderProperties.ProviderConfig cfg = AiProviderConfigUtil.withModel(base, leg.getModel());
+        AiProviderProperties.ProviderConfig cfg = AiProviderConfigUtil.withTemperature(
+                AiProviderConfigUtil.withModel(base, leg.getModel()), temperature);
         RestClient client = restClients.get(pid);
         if (client == null) {
             return null;
@@ -350,13 +417,32 @@ public class TieredLlmExecutor {
         }
 
         CircuitBreaker cb = circuitBreakerFactory.forProvider(pid);
-        AiResponse resp = cb.executeCallable(
-                () -> adapter.call(pid, new AiPrompt(system, user, List.of()), client, cfg));
-        return new AiCallResult(resp.content(), resp.inputTokens(), resp.outputTokens(), cfg.model());
+        AiPrompt prompt = promptAssembler.assemble(system, stable, user);
+        LlmTokenRelay relay = LlmTokenRelay.forCurrentRun(eventBus, cfg.model());
+        AiResponse resp;
+        if (relay == null) {
+            resp = cb.executeCallable(() -> adapter.call(pid, prompt, client, cfg));
+        } else {
+            // Someone is watching the run: stream so text shows up while it is generated.
+            resp = cb.executeCallable(() -> adapter.stream(pid, prompt, client, cfg, relay));
+            relay.flush();
+            if (relay.timeToFirstTokenMillis() >= 0) {
+                metrics.recordLlmTimeToFirstToken(pid, relay.timeToFirstTokenMillis());
+            }
+        }
+        return new AiCallResult(resp.content(), resp.inputTokens(), resp.cachedInputTokens(),
+                resp.cacheWriteInputTokens(), resp.outputTokens(), cfg.model());
     }
 
+    /**
+     * OpenAI-compatible legs get {@code response_format} and rely on the provider's automatic prefix
+     * caching, so the stable context simply leads the user turn. Anthropic has no JSON response
+     * format; its legs go through the adapter with the stable context as its own cache-marked
+     * block, like {@link #invokeCompletionLeg}.
+     */
     private StructuredLegOutcome invokeStructuredLeg(
-            LegTry lt, String system, String user, Map<String, Object> jsonSchema) throws Exception {
+            LegTry lt, String system, String stable, String volatileUser, Map<String, Object> jsonSchema,
+            Double temperature) throws Exception {
         ModelTierProperties.LegDefinition leg = lt.leg();
         String pid = leg.getProviderId();
         if (pid == null || pid.isBlank()) {
@@ -367,10 +453,15 @@ public class TieredLlmExecutor {
             return null;
         }
         AiProviderProperties.ProviderConfig cfg = AiProviderConfigUtil.withModel(base, leg.getModel());
+        if (cfg.type() == AiProviderProperties.ProviderType.ANTHROPIC) {
+            return invokeAnthropicStructuredLeg(
+                    pid, AiProviderConfigUtil.withTemperature(cfg, temperature), system, stable, volatileUser);
+        }
         if (cfg.type() != AiProviderProperties.ProviderType.OPENAI
                 && cfg.type() != AiProviderProperties.ProviderType.LITELLM) {
             return null;
         }
+        String user = PromptAssembler.userContent(stable, volatileUser);
 
         CircuitBreaker cb = circuitBreakerFactory.forProvider(pid);
         String endpoint = normalizeEndpoint(cfg.baseUrl());
@@ -393,22 +484,17 @@ public class TieredLlmExecutor {
         requestBodySchema.put("messages", messages);
         requestBodySchema.put("response_format", responseFormatSchema);
 
-        String jsonOnlyHint =
-                "\n\nYou must respond with a single JSON object only (no markdown code fences) matching the expected structure.";
         List<Map<String, String>> messagesJsonObject = new ArrayList<>();
-        if (system != null && !system.isEmpty()) {
-            messagesJsonObject.add(Map.of("role", "system", "content", system + jsonOnlyHint));
-        } else {
-            messagesJsonObject.add(Map.of(
-                    "role", "system",
-                    "content", "You must respond with a single JSON object only (no markdown code fences)."
-                            + jsonOnlyHint));
-        }
+        messagesJsonObject.add(Map.of("role", "system", "content", jsonOnlySystemPrompt(system)));
         messagesJsonObject.add(Map.of("role", "user", "content", user));
         Map<String, Object> requestBodyJsonObject = new HashMap<>();
         requestBodyJsonObject.put("model", model);
         requestBodyJsonObject.put("messages", messagesJsonObject);
         requestBodyJsonObject.put("response_format", Map.of("type", "json_object"));
+        if (temperature != null) {
+            requestBodySchema.put("temperature", temperature);
+            requestBodyJsonObject.put("temperature", temperature);
+        }
 
         String correlationId = CorrelationIdHolder.getCorrelationId();
 
@@ -457,6 +543,45 @@ public class TieredLlmExecutor {
         });
     }
 
+    private StructuredLegOutcome invokeAnthropicStructuredLeg(
+            String pid, AiProviderProperties.ProviderConfig cfg, String system, String stable, String user)
+            throws Exception {
+        RestClient client = restClients.get(pid);
+        ProviderAdapter adapter = adapters.get(cfg.type().name());
+        if (client == null || adapter == null) {
+            return null;
+        }
+        CircuitBreaker cb = circuitBreakerFactory.forProvider(pid);
+        AiPrompt prompt = promptAssembler.assemble(jsonOnlySystemPrompt(system), stable, user);
+        AiResponse resp = cb.executeCallable(() -> adapter.call(pid, prompt, client, cfg));
+        StructuredParse sp = new StructuredParse(stripCodeFences(resp.content()), resp.inputTokens(),
+                resp.outputTokens(), resp.inputTokens() + resp.outputTokens(), resp.cachedInputTokens(),
+                resp.cacheWriteInputTokens());
+        return new StructuredLegOutcome(new LlmResult(sp.content(), LlmResultSource.PRIMARY), sp);
+    }
+
+    private static String jsonOnlySystemPrompt(String system) {
+        String jsonOnlyHint =
+                "\n\nYou must respond with a single JSON object only (no markdown code fences) matching the expected structure.";
+        if (system != null && !system.isEmpty()) {
+            return system + jsonOnlyHint;
+        }
+        return "You must respond with a single JSON object only (no markdown code fences)." + jsonOnlyHint;
+    }
+
+    private static String stripCodeFences(String content) {
+        String s = content != null ? content.trim() : "";
+        if (s.startsWith("```json")) {
+            s = s.substring(7);
+        } else if (s.startsWith("```")) {
+            s = s.substring(3);
+        }
+        if (s.endsWith("```")) {
+            s = s.substring(0, s.length() - 3);
+        }
+        return s.trim();
+    }
+
     private void finishCompletionSuccess(
             io.micrometer.core.instrument.Timer.Sample sample,
             long start,
@@ -468,12 +593,13 @@ public class TieredLlmExecutor {
         metrics.recordLlmCall(r.modelId(), duration, total > 0 ? total : 0);
         if (total > 0) {
             metrics.recordTokenUsagePerBolt(total);
-            double cost =
-                    (r.inputTokens() / 1000.0) * leg.getCostPer1kInput()
-                            + (r.outputTokens() / 1000.0) * leg.getCostPer1kOutput();
+            double cost = leg.estimateCostUsd(
+                    r.inputTokens(), r.cachedInputTokens(), r.cacheWriteInputTokens(), r.outputTokens());
             metrics.recordCostPerBolt(cost);
+            LlmCallCostScope.add(cost);
         }
-        budgetTracker.recordUsage(r.inputTokens(), r.outputTokens(), leg, leg.getProviderId());
+        budgetTracker.recordUsage(r.inputTokens(), r.cachedInputTokens(), r.cacheWriteInputTokens(),
+                r.outputTokens(), leg, leg.getProviderId());
         emitLlmEnd(r.modelId(), duration, total);
     }
 
@@ -490,12 +616,11 @@ public class TieredLlmExecutor {
         metrics.recordLlmCall(modelLabel, duration, total);
         if (total > 0) {
             metrics.recordTokenUsagePerBolt(total);
-            double cost =
-                    (sp.in() / 1000.0) * leg.getCostPer1kInput()
-                            + (sp.out() / 1000.0) * leg.getCostPer1kOutput();
+            double cost = leg.estimateCostUsd(sp.in(), sp.cached(), sp.cacheWrite(), sp.out());
             metrics.recordCostPerBolt(cost);
+            LlmCallCostScope.add(cost);
         }
-        budgetTracker.recordUsage(sp.in(), sp.out(), leg, leg.getProviderId());
+        budgetTracker.recordUsage(sp.in(), sp.cached(), sp.cacheWrite(), sp.out(), leg, leg.getProviderId());
         emitLlmEnd(modelLabel, duration, total);
     }
 
@@ -505,6 +630,7 @@ public class TieredLlmExecutor {
         int in = 0;
         int out = 0;
         int total = 0;
+        int cached = 0;
         try {
             if (response.get("usage") instanceof Map<?, ?> u) {
                 Object pt = u.get("prompt_tokens");
@@ -519,13 +645,17 @@ public class TieredLlmExecutor {
                 if (tt instanceof Number) {
                     total = ((Number) tt).intValue();
                 }
+                if (u.get("prompt_tokens_details") instanceof Map<?, ?> details
+                        && details.get("cached_tokens") instanceof Number ct2) {
+                    cached = ct2.intValue();
+                }
             }
         } catch (Exception ignored) {
         }
         if (total == 0) {
             total = in + out;
         }
-        return new StructuredParse(content, in, out, total);
+        return new StructuredParse(content, in, out, total, cached, 0);
     }
 
     @SuppressWarnings("unchecked")
@@ -595,9 +725,10 @@ public class TieredLlmExecutor {
 
     private record LegTry(String role, ModelTierProperties.LegDefinition leg) {}
 
-    private record AiCallResult(String content, int inputTokens, int outputTokens, String modelId) {}
+    private record AiCallResult(String content, int inputTokens, int cachedInputTokens, int cacheWriteInputTokens,
+                                int outputTokens, String modelId) {}
 
-    private record StructuredParse(String content, int in, int out, int totalTokens) {}
+    private record StructuredParse(String content, int in, int out, int totalTokens, int cached, int cacheWrite) {}
 
     private record StructuredLegOutcome(LlmResult result, StructuredParse parse) {}
 }
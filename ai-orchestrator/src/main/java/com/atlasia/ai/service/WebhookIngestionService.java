@@ -0,0 +1,489 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.RunQueueLane;
+import com.atlasia.ai.model.RunStatus;
+import com.atlasia.ai.model.WebhookEventEntity;
+import com.atlasia.ai.persistence.RunRepository;
+import com.atlasia.ai.persistence.WebhookEventRepository;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fast-ack ingestion pipeline for GitHub webhooks.
+ *
+ * WebhookController only verifies the signature and calls {@link #accept}; the delivery is
+ * de-duplicated on {@code X-GitHub-Delivery} and put on a bounded queue, and the request
+ * returns. Deliveries with an invalid signature are only kept for the audit trail and go to a
+ * separate, smaller queue, so an unauthenticated flood cannot crowd out GitHub's own
+ * deliveries. A single worker drains the queues in batches, signed deliveries first:
+ * delivery ids already stored (redeliveries after a restart, or handled by another node) are
+ * dropped with one lookup per batch, the remaining events are inserted in one transaction,
+ * and only then are they parsed and dispatched (ai:run label → queued run, CI completion →
+ * {@link CheckRunCompletionRegistry}). The unique index on {@code delivery_id} is the final
+ * arbiter: a delivery whose row cannot be inserted is never dispatched.
+ *
+ * A delivery id only enters the in-memory de-duplication index once its row has committed;
+ * until then it is tracked as in flight. A batch that cannot be written goes back on the queue
+ * and is retried with a short back-off, up to {@code persist-max-attempts}; only then is the
+ * id released, so GitHub's redelivery is accepted rather than dropped as a duplicate.
+ *
+ * The table doubles as an outbox: {@code dispatched_at} is set once a stored delivery has been
+ * dispatched. A node that dies between the insert and the dispatch leaves the row unmarked, and
+ * {@link #sweepUndispatched} (on any node) dispatches it once it is older than
+ * {@code outbox-grace-seconds}. Dispatch is idempotent — a labeled issue maps to a run id
+ * derived from the delivery id — so a sweep racing a slow in-process dispatch does no harm.
+ */
+@Service
+public class WebhookIngestionService {
+    private static final Logger log = LoggerFactory.getLogger(WebhookIngestionService.class);
+
+    static final Set<String> CI_EVENTS = Set.of("check_run", "check_suite", "workflow_run");
+
+    public enum Outcome { QUEUED, DUPLICATE, OVERLOADED }
+
+    record Delivery(String deliveryId, String eventType, String payload, boolean signatureValid,
+                    Instant receivedAt, int attempts) {
+
+        Delivery(String deliveryId, String eventType, String payload, boolean signatureValid, Instant receivedAt) {
+            this(deliveryId, eventType, payload, signatureValid, receivedAt, 0);
+        }
+
+        Delivery retried() {
+            return new Delivery(deliveryId, eventType, payload, signatureValid, receivedAt, attempts + 1);
+        }
+    }
+
+    private static final Duration PERSIST_RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    private final WebhookEventRepository webhookEventRepository;
+    private final RunRepository runRepository;
+    private final RunQueueService runQueueService;
+    private final CheckRunCompletionRegistry checkRunCompletionRegistry;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final OrchestratorMetrics metrics;
+    private final BlockingQueue<Delivery> queue;
+    private final BlockingQueue<Delivery> unsignedQueue;
+    private final int batchSize;
+    private final int persistMaxAttempts;
+    private final Duration outboxGrace;
+    private final Duration outboxMaxAge;
+    private final Cache<String, Boolean> seenDeliveries;
+    private final Set<String> inFlightDeliveries = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public WebhookIngestionService(
+            WebhookEventRepository webhookEventRepository,
+            RunRepository runRepository,
+            RunQueueService runQueueService,
+            CheckRunCompletionRegistry checkRunCompletionRegistry,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            OrchestratorMetrics metrics,
+            @Value("${atlasia.orchestrator.webhook-ingest.queue-capacity:10000}") int queueCapacity,
+            @Value("${atlasia.orchestrator.webhook-ingest.unsigned-queue-capacity:500}") int unsignedQueueCapacity,
+            @Value("${atlasia.orchestrator.webhook-ingest.batch-size:50}") int batchSize,
+            @Value("${atlasia.orchestrator.webhook-ingest.dedupe-max-entries:100000}") long dedupeMaxEntries,
+            @Value("${atlasia.orchestrator.webhook-ingest.dedupe-ttl-hours:72}") long dedupeTtlHours,
+            @Value("${atlasia.orchestrator.webhook-ingest.persist-max-attempts:5}") int persistMaxAttempts,
+            @Value("${atlasia.orchestrator.webhook-ingest.outbox-grace-seconds:120}") long outboxGraceSeconds) {
+        this.webhookEventRepository = webhookEventRepository;
+        this.runRepository = runRepository;
+        this.runQueueService = runQueueService;
+        this.checkRunCompletionRegistry = checkRunCompletionRegistry;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.unsignedQueue = new ArrayBlockingQueue<>(Math.max(1, unsignedQueueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.persistMaxAttempts = Math.max(1, persistMaxAttempts);
+        this.outboxGrace = Duration.ofSeconds(outboxGraceSeconds);
+        // Past the de-duplication window a redelivery is accepted as new anyway.
+        this.outboxMaxAge = Duration.ofHours(dedupeTtlHours);
+        this.seenDeliveries = Caffeine.newBuilder()
+                .maximumSize(dedupeMaxEntries)
+                .expireAfterWrite(Duration.ofHours(dedupeTtlHours))
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "webhook-ingest");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Whatever was acknowledged but not yet processed is flushed on the way out.
+        try {
+            while (drainBatch() > 0) {
+                // keep draining
+            }
+        } catch (Exception e) {
+            log.error("Webhook ingestion could not flush on shutdown, {} deliveries left unwritten",
+                    backlog(), e);
+        }
+    }
+
+    /**
+     * Hand a delivery to the pipeline. Unsigned deliveries are recorded for the audit trail
+     * but never de-duplicated (their delivery id is attacker-controlled) or dispatched; when
+     * their queue is full they are dropped without affecting signed deliveries.
+     */
+    public Outcome accept(String deliveryId, String eventType, String payload, boolean signatureValid) {
+        boolean tracked = signatureValid && deliveryId != null && !deliveryId.isBlank();
+        if (tracked && (seenDeliveries.getIfPresent(deliveryId) != null || !inFlightDeliveries.add(deliveryId))) {
+            metrics.recordWebhookDelivery("duplicate");
+            log.info("Duplicate webhook delivery ignored: deliveryId={}, eventType={}", deliveryId, eventType);
+            return Outcome.DUPLICATE;
+        }
+        Delivery delivery = new Delivery(tracked ? deliveryId : null,
+                eventType != null ? eventType : "unknown", payload, signatureValid, Instant.now());
+        if (!(signatureValid ? queue : unsignedQueue).offer(delivery)) {
+            if (tracked) {
+                // Let GitHub's redelivery through once we have room again.
+                inFlightDeliveries.remove(deliveryId);
+            }
+            metrics.recordWebhookDelivery(signatureValid ? "overloaded" : "rejected_dropped");
+            log.warn("Webhook ingestion queue full, delivery not accepted: deliveryId={}, eventType={}, signed={}",
+                    deliveryId, eventType, signatureValid);
+            return Outcome.OVERLOADED;
+        }
+        metrics.recordWebhookDelivery(signatureValid ? "queued" : "rejected");
+        return Outcome.QUEUED;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                Delivery first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    first = unsignedQueue.poll();
+                }
+                if (first != null) {
+                    processBatch(first);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Webhook ingestion batch failed", e);
+                try {
+                    Thread.sleep(PERSIST_RETRY_BACKOFF.toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Process one batch synchronously; returns the number of deliveries taken off the queue. */
+    int drainBatch() {
+        Delivery first = queue.poll();
+        if (first == null) {
+            first = unsignedQueue.poll();
+        }
+        if (first == null) {
+            return 0;
+        }
+        return processBatch(first);
+    }
+
+    private int processBatch(Delivery first) {
+        List<Delivery> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        queue.drainTo(batch, batchSize - batch.size());
+        // Audit-only deliveries fill whatever room the signed ones left.
+        unsignedQueue.drainTo(batch, batchSize - batch.size());
+        metrics.updateWebhookIngestBacklog(queue.size());
+
+        List<Delivery> stored;
+        try {
+            stored = persist(batch);
+        } catch (RuntimeException e) {
+            requeueAfterFailedWrite(batch);
+            throw e;
+        }
+        for (Delivery delivery : batch) {
+            if (delivery.deliveryId() != null) {
+                // Written now or by an earlier delivery: either way the row exists.
+                seenDeliveries.put(delivery.deliveryId(), Boolean.TRUE);
+                inFlightDeliveries.remove(delivery.deliveryId());
+            }
+        }
+        List<String> dispatched = new ArrayList<>(stored.size());
+        for (Delivery delivery : stored) {
+            if (delivery.signatureValid() && dispatch(delivery) && delivery.deliveryId() != null) {
+                dispatched.add(delivery.deliveryId());
+            }
+        }
+        markDispatched(dispatched);
+        metrics.recordWebhookIngestBatch(batch.size(),
+                Math.max(0, Duration.between(first.receivedAt(), Instant.now()).toMillis()));
+        return batch.size();
+    }
+
+    /** The write failed (database unavailable, timeout): keep the deliveries for another try. */
+    private void requeueAfterFailedWrite(List<Delivery> batch) {
+        int requeued = 0;
+        for (Delivery delivery : batch) {
+            Delivery retry = delivery.retried();
+            boolean kept = retry.attempts() < persistMaxAttempts
+                    && (delivery.signatureValid() ? queue : unsignedQueue).offer(retry);
+            if (kept) {
+                requeued++;
+                continue;
+            }
+            if (delivery.deliveryId() != null) {
+                // Given up: let GitHub's redelivery through.
+                inFlightDeliveries.remove(delivery.deliveryId());
+            }
+            metrics.recordWebhookDelivery("persist_failed");
+            log.error("Webhook delivery dropped after {} failed write(s): deliveryId={}, eventType={}",
+                    retry.attempts(), delivery.deliveryId(), delivery.eventType());
+        }
+        log.warn("Webhook batch write failed, requeued {} of {} deliveries", requeued, batch.size());
+    }
+
+    /**
+     * Outbox sweep: dispatch stored deliveries that were never marked dispatched, e.g. because
+     * the node that wrote them died before dispatching. Rows younger than the grace period are
+     * left to the node that is (probably) still handling them.
+     */
+    @Scheduled(fixedDelayString = "${atlasia.orchestrator.webhook-ingest.outbox-sweep-interval-ms:60000}")
+    public void sweepUndispatched() {
+        Instant now = Instant.now();
+        List<WebhookEventEntity> pending;
+        try {
+            pending = webhookEventRepository.findUndispatched(
+                    now.minus(outboxGrace), now.minus(outboxMaxAge), PageRequest.of(0, batchSize));
+        } catch (Exception e) {
+            log.warn("Webhook outbox sweep skipped: {}", e.getMessage());
+            return;
+        }
+        List<String> dispatched = new ArrayList<>(pending.size());
+        for (WebhookEventEntity row : pending) {
+            log.warn("Dispatching webhook delivery left undispatched: deliveryId={}, eventType={}, receivedAt={}",
+                    row.getDeliveryId(), row.getEventType(), row.getProcessedAt());
+            Delivery delivery = new Delivery(row.getDeliveryId(), row.getEventType(), row.getPayload(),
+                    row.isSignatureValid(), row.getProcessedAt());
+            if (dispatch(delivery)) {
+                dispatched.add(row.getDeliveryId());
+                metrics.recordWebhookDelivery("outbox_redispatched");
+            }
+        }
+        markDispatched(dispatched);
+    }
+
+    private void markDispatched(List<String> deliveryIds) {
+        if (deliveryIds.isEmpty()) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            transactionTemplate.executeWithoutResult(status ->
+                    webhookEventRepository.markDispatched(deliveryIds, now));
+        } catch (Exception e) {
+            // Left unmarked, the sweep dispatches them again; dispatch is idempotent.
+            log.warn("Could not mark {} webhook deliveries dispatched: {}", deliveryIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Insert the batch, skipping delivery ids that already have a row.
+     *
+     * @return deliveries whose row was written by this call
+     */
+    private List<Delivery> persist(List<Delivery> batch) {
+        Set<String> ids = new HashSet<>();
+        for (Delivery delivery : batch) {
+            if (delivery.deliveryId() != null) {
+                ids.add(delivery.deliveryId());
+            }
+        }
+        Set<String> existing = ids.isEmpty() ? Set.of()
+                : new HashSet<>(webhookEventRepository.findExistingDeliveryIds(ids));
+
+        List<Delivery> fresh = new ArrayList<>(batch.size());
+        for (Delivery delivery : batch) {
+            if (delivery.deliveryId() != null && existing.contains(delivery.deliveryId())) {
+                metrics.recordWebhookDelivery("duplicate");
+                log.info("Webhook delivery already recorded, not dispatched again: deliveryId={}",
+                        delivery.deliveryId());
+            } else {
+                fresh.add(delivery);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return fresh;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    webhookEventRepository.saveAll(fresh.stream().map(WebhookIngestionService::toEntity).toList()));
+            return fresh;
+        } catch (DataIntegrityViolationException e) {
+            // Another node inserted one of these delivery ids in the meantime; fall back to
+            // row-by-row so only the losing deliveries are dropped.
+            log.info("Webhook batch insert raced with another node, retrying row by row: size={}", fresh.size());
+            List<Delivery> written = new ArrayList<>(fresh.size());
+            for (Delivery delivery : fresh) {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            webhookEventRepository.save(toEntity(delivery)));
+                    written.add(delivery);
+                } catch (DataIntegrityViolationException duplicate) {
+                    metrics.recordWebhookDelivery("duplicate");
+                }
+            }
+            return written;
+        }
+    }
+
+    /**
+     * @return whether the delivery is done with — dispatched, ignored, or unparseable; false when
+     *         dispatch failed and the outbox sweep should try again
+     */
+    private boolean dispatch(Delivery delivery) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(delivery.payload());
+        } catch (JsonProcessingException e) {
+            log.error("Unparseable GitHub webhook payload, not dispatched: deliveryId={}, eventType={}",
+                    delivery.deliveryId(), delivery.eventType(), e);
+            return true;
+        }
+        try {
+            if (CI_EVENTS.contains(delivery.eventType())) {
+                dispatchCiEvent(delivery.eventType(), root);
+            } else if ("issues".equals(delivery.eventType())) {
+                dispatchIssueEvent(delivery.deliveryId(), root);
+            } else {
+                log.debug("Ignoring webhook event: eventType={}", delivery.eventType());
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to dispatch GitHub webhook, left for the outbox sweep: deliveryId={}, eventType={}",
+                    delivery.deliveryId(), delivery.eventType(), e);
+            return false;
+        }
+    }
+
+    /**
+     * check_run / check_suite / workflow_run deliveries wake any TesterStep waiting on
+     * the completed head SHA; non-completed actions only mark the repo as webhook-active.
+     */
+    private void dispatchCiEvent(String eventType, JsonNode root) {
+        String repoFullName = root.path("repository").path("full_name").asText("");
+        if (repoFullName.isEmpty()) {
+            return;
+        }
+        checkRunCompletionRegistry.recordDelivery(repoFullName);
+
+        String action = root.path("action").asText();
+        String headSha = root.path(eventType).path("head_sha").asText("");
+        if (!"completed".equals(action) || headSha.isEmpty()) {
+            return;
+        }
+        boolean woke = checkRunCompletionRegistry.signalCompletion(repoFullName, headSha, eventType);
+        log.debug("CI completion webhook: event={}, repo={}, sha={}, wokeWaiter={}",
+                eventType, repoFullName, headSha, woke);
+    }
+
+    private void dispatchIssueEvent(String deliveryId, JsonNode root) {
+        String action = root.path("action").asText();
+        String labelName = root.path("label").path("name").asText();
+        if (!"labeled".equals(action) || !"ai:run".equals(labelName)) {
+            log.debug("Ignoring issues event: action={}, label={}", action, labelName);
+            return;
+        }
+
+        JsonNode issue = root.path("issue");
+        int issueNumber = issue.path("number").asInt();
+        String repoFullName = root.path("repository").path("full_name").asText();
+        log.info("Processing ai:run label event: repo={}, issue={}, title={}, deliveryId={}",
+                repoFullName, issueNumber, issue.path("title").asText(), deliveryId);
+
+        // Same delivery, same run: a re-dispatch by the outbox sweep finds the run it already created.
+        UUID runId = deliveryId != null
+                ? UUID.nameUUIDFromBytes(("github-delivery:" + deliveryId).getBytes(StandardCharsets.UTF_8))
+                : UUID.randomUUID();
+        RunEntity existing = runRepository.findById(runId).orElse(null);
+        if (existing != null && existing.getStatus() != RunStatus.RECEIVED) {
+            log.info("Run for webhook delivery already started: runId={}, deliveryId={}", runId, deliveryId);
+            return;
+        }
+        if (existing == null) {
+            runRepository.save(new RunEntity(
+                    runId,
+                    repoFullName,
+                    issueNumber,
+                    "code",
+                    RunStatus.RECEIVED,
+                    Instant.now()));
+        }
+
+        // Webhook runs use the GitHub App installation token.
+        runQueueService.enqueue(runId, repoFullName, RunQueueLane.WEBHOOK, null);
+        log.info("Queued autonomous run from webhook: runId={}, repo={}, issue={}",
+                runId, repoFullName, issueNumber);
+    }
+
+    int backlog() {
+        return queue.size() + unsignedQueue.size();
+    }
+
+    private static WebhookEventEntity toEntity(Delivery delivery) {
+        WebhookEventEntity entity = new WebhookEventEntity(delivery.deliveryId(), delivery.eventType(),
+                delivery.payload(), delivery.signatureValid(), delivery.receivedAt());
+        if (!delivery.signatureValid() || delivery.deliveryId() == null) {
+            // Nothing to dispatch (audit only), or nothing to track it by.
+            entity.setDispatchedAt(delivery.receivedAt());
+        }
+        return entity;
+    }
+}
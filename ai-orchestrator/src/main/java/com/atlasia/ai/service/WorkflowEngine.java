@@ -2,9 +2,9 @@ package com.atlasia.ai.service;
 
 import com.atlasia.ai.model.EnvironmentLifecycle;
 import com.atlasia.ai.model.EnvironmentSnapshot;
+import com.atlasia.ai.model.PendingInterruptEntity;
 import com.atlasia.ai.model.RunEntity;
 import com.atlasia.ai.model.RunStatus;
-import com.atlasia.ai.persistence.RunRepository;
 import com.atlasia.ai.service.A2ADiscoveryService.AgentCard;
 import com.atlasia.ai.service.AgentBindingService.AgentBinding;
 import com.atlasia.ai.service.event.WorkflowEvent;
@@ -27,16 +27,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 @Service
 public class WorkflowEngine {
@@ -46,7 +41,6 @@ public class WorkflowEngine {
     private static final int MAX_REVIEW_DEVELOPER_LOOPS = 2;
     private static final int MAX_TESTER_DEVELOPER_LOOPS = 2;
 
-    private final RunRepository runRepository;
     private final JsonSchemaValidator schemaValidator;
     private final DeveloperStep developerStep;
     private final PersonaReviewService personaReviewService;
@@ -64,13 +58,14 @@ public class WorkflowEngine {
     private final Tracer tracer;
     private final TaskLedgerBuilder taskLedgerBuilder;
     private final HitlGateService hitlGateService;
+    private final RunStateService runStateService;
+    private final BudgetTracker budgetTracker;
 
     @Autowired
     @Lazy
     private WorkflowEngine self;
 
     public WorkflowEngine(
-            RunRepository runRepository,
             JsonSchemaValidator schemaValidator,
             DeveloperStep developerStep,
             PersonaReviewService personaReviewService,
@@ -87,8 +82,9 @@ public class WorkflowEngine {
             GraftExecutionService graftExecutionService,
             Tracer tracer,
             TaskLedgerBuilder taskLedgerBuilder,
-            HitlGateService hitlGateService) {
-        this.runRepository = runRepository;
+            HitlGateService hitlGateService,
+            RunStateService runStateService,
+            BudgetTracker budgetTracker) {
         this.schemaValidator = schemaValidator;
         this.developerStep = developerStep;
         this.personaReviewService = personaReviewService;
@@ -106,10 +102,21 @@ public class WorkflowEngine {
         this.tracer = tracer;
         this.taskLedgerBuilder = taskLedgerBuilder;
         this.hitlGateService = hitlGateService;
+        this.runStateService = runStateService;
+        this.budgetTracker = budgetTracker;
     }
 
     @Async("workflowExecutor")
     public void executeWorkflowAsync(UUID runId, String gitHubToken) {
+        runWorkflow(runId, gitHubToken);
+    }
+
+    /**
+     * Runs the workflow on the calling thread with a fresh correlation context. Used by
+     * {@link RunQueueService}, which owns the worker thread and must know when the run
+     * releases its slot.
+     */
+    public void runWorkflow(UUID runId, String gitHubToken) {
         String correlationId = CorrelationIdHolder.generateCorrelationId();
         CorrelationIdHolder.setCorrelationId(correlationId);
         CorrelationIdHolder.setRunId(runId);
@@ -123,7 +130,12 @@ public class WorkflowEngine {
         }
     }
 
-    @Transactional
+    /**
+     * Runs the pipeline for {@code runId}. Deliberately not {@code @Transactional}: the run is
+     * held as a detached entity and every state change is committed through
+     * {@link RunStateService} in a short per-step transaction, so no database connection is
+     * pinned while agents wait on LLMs, GitHub, CI or human decisions.
+     */
     public void executeWorkflow(UUID runId) {
         Span workflowSpan = tracer.spanBuilder("workflow.execute")
                 .setAttribute("run.id", runId.toString())
@@ -131,7 +143,7 @@ public class WorkflowEngine {
                 .startSpan();
 
         try (Scope scope = workflowSpan.makeCurrent()) {
-            RunEntity runEntity = runRepository.findById(runId).orElseThrow(
+            RunEntity runEntity = runStateService.load(runId).orElseThrow(
                     () -> new WorkflowException("Run not found: " + runId, runId, "INIT",
                             OrchestratorException.RecoveryStrategy.FAIL_FAST));
 
@@ -153,15 +165,15 @@ public class WorkflowEngine {
             String owner = repoParts[0];
             String repo = repoParts[1];
 
-            boolean resumeAfterArchitectureGate =
-                    HitlGateService.RESUME_AFTER_ARCHITECTURE_GATE.equals(runEntity.getWorkflowResumeFrom());
-            if (resumeAfterArchitectureGate) {
-                runEntity.setWorkflowResumeFrom(null);
-                runRepository.save(runEntity);
+            String resumeFrom = runEntity.getWorkflowResumeFrom();
+            String interruptCheckpoint = HitlGateService.interruptCheckpoint(resumeFrom);
+            ResumePoint resumePoint = ResumePoint.of(resumeFrom, interruptCheckpoint);
+            if (resumePoint != ResumePoint.START) {
+                runStateService.commit(runEntity, r -> r.setWorkflowResumeFrom(null));
             }
 
             RunContext context;
-            if (resumeAfterArchitectureGate) {
+            if (resumePoint != ResumePoint.START) {
                 RunContext restored = restoreEnvironment(runId);
                 context = restored != null ? restored : new RunContext(runEntity, owner, repo);
             } else {
@@ -170,7 +182,11 @@ public class WorkflowEngine {
 
             CorrelationIdHolder.setRepository(runEntity.getRepo());
 
-            if (!resumeAfterArchitectureGate) {
+            if (interruptCheckpoint != null) {
+                resumeFromInterrupt(context, interruptCheckpoint);
+            }
+
+            if (resumePoint == ResumePoint.START) {
                 try {
                     blackboardService.write(runEntity, "task_ledger", "orchestrator",
                             taskLedgerBuilder.initialLedger(runEntity));
@@ -182,7 +198,7 @@ public class WorkflowEngine {
             boolean pausedForHitl = false;
 
             // --- Sequential Pipeline: PM → Qualifier → Architect → Developer ---
-            if (!resumeAfterArchitectureGate) {
+            if (resumePoint == ResumePoint.START) {
                 if (!runEntity.isStepPruned("PM")) {
                     emitStatus(runId, "IN_PROGRESS", "PM", progressPercent(0));
                     executePmStep(context);
@@ -256,7 +272,8 @@ public class WorkflowEngine {
             }
 
             // --- Autonomy Gate: pause before code generation if confirm/observe ---
-            if (!runEntity.isAutonomyDevGatePassed() &&
+            // (already behind us when resuming from an interrupt checkpoint)
+            if (interruptCheckpoint == null && !runEntity.isAutonomyDevGatePassed() &&
                     ("confirm".equals(runEntity.getAutonomy()) ||
                      "observe".equals(runEntity.getAutonomy()))) {
                 log.info("Autonomy gate triggered (autonomy={}): runId={}", runEntity.getAutonomy(), runId);
@@ -270,32 +287,39 @@ public class WorkflowEngine {
             // --- Graph-Based Loop: Developer ↔ Review ↔ Tester ---
             // Loop-back routing: review or tester can route back to developer
             // bounded by max_iterations to prevent infinite cycles.
-            int reviewDeveloperLoops = 0;
-            int testerDeveloperLoops = 0;
-
-            emitStatus(runId, "IN_PROGRESS", "DEVELOPER", progressPercent(3));
-            executeDeveloperStep(context);
-            graftExecutionService.executeGraftsAfterCheckpoint(runId, "DEVELOPER", context, runEntity);
-
-            if (!runEntity.isStepPruned("REVIEW")) {
-                advanceLedgerForward(runEntity, runId, "DEVELOPER", "REVIEW", "review",
-                        "Handoff to persona review");
-            } else if (!runEntity.isStepPruned("TESTER")) {
-                advanceLedgerForward(runEntity, runId, "DEVELOPER", "TESTER", "tester",
-                        "REVIEW pruned — CI validation");
-            } else {
-                advanceLedgerForward(runEntity, runId, "DEVELOPER", "WRITER", "writer",
-                        "REVIEW and TESTER pruned — documentation");
+            // Counters come back from the interrupt record when resuming, so a suspension does
+            // not hand the run a fresh iteration budget.
+            int reviewDeveloperLoops = context.getReviewDeveloperLoops();
+            int testerDeveloperLoops = context.getTesterDeveloperLoops();
+
+            if (resumePoint == ResumePoint.START || resumePoint == ResumePoint.DEVELOPER) {
+                emitStatus(runId, "IN_PROGRESS", "DEVELOPER", progressPercent(3));
+                executeDeveloperStep(context);
+                graftExecutionService.executeGraftsAfterCheckpoint(runId, "DEVELOPER", context, runEntity);
+
+                if (!runEntity.isStepPruned("REVIEW")) {
+                    advanceLedgerForward(runEntity, runId, "DEVELOPER", "REVIEW", "review",
+                            "Handoff to persona review");
+                } else if (!runEntity.isStepPruned("TESTER")) {
+                    advanceLedgerForward(runEntity, runId, "DEVELOPER", "TESTER", "tester",
+                            "REVIEW pruned — CI validation");
+                } else {
+                    advanceLedgerForward(runEntity, runId, "DEVELOPER", "WRITER", "writer",
+                            "REVIEW and TESTER pruned — documentation");
+                }
             }
 
             // Review loop: developer → review → (tester | developer)
-            boolean reviewApproved = runEntity.isStepPruned("REVIEW");
-            if (reviewApproved) {
+            boolean reviewApproved = resumePoint == ResumePoint.WRITER || runEntity.isStepPruned("REVIEW");
+            if (runEntity.isStepPruned("REVIEW")) {
                 log.info("REVIEW step pruned by user: runId={}", runId);
             }
+            // Resuming at the commit checkpoint: the review itself was already persisted.
+            boolean resumeAtCommit = resumePoint == ResumePoint.REVIEW;
             while (!reviewApproved) {
                 emitStatus(runId, "IN_PROGRESS", "REVIEW", progressPercent(4));
-                String reviewVerdict = executePersonaReviewWithVerdict(context);
+                String reviewVerdict = executePersonaReviewWithVerdict(context, resumeAtCommit);
+                resumeAtCommit = false;
 
                 if ("approved".equals(reviewVerdict) || "approved_with_minor_issues".equals(reviewVerdict)) {
                     if (!runEntity.isStepPruned("TESTER")) {
@@ -310,9 +334,9 @@ public class WorkflowEngine {
                             reviewVerdict, runId, CorrelationIdHolder.getCorrelationId());
                 } else {
                     // Review rejected — loop back to developer
-                    reviewDeveloperLoops++;
+                    context.setReviewDeveloperLoops(++reviewDeveloperLoops);
                     metrics.recordReviewDeveloperLoopBack();
-                    logTransition(runId, "REVIEW", "DEVELOPER", "loop_back",
+                    logTransition(runEntity, "REVIEW", "DEVELOPER", "loop_back",
                             "Review verdict: " + reviewVerdict + " (iteration " + reviewDeveloperLoops + "/"
                                     + MAX_REVIEW_DEVELOPER_LOOPS + ")");
 
@@ -337,8 +361,8 @@ public class WorkflowEngine {
             }
 
             // Tester loop: review approved → tester → (writer | developer)
-            boolean testsGreen = runEntity.isStepPruned("TESTER");
-            if (testsGreen) {
+            boolean testsGreen = resumePoint == ResumePoint.WRITER || runEntity.isStepPruned("TESTER");
+            if (runEntity.isStepPruned("TESTER")) {
                 log.info("TESTER step pruned by user: runId={}", runId);
             }
             while (!testsGreen) {
@@ -353,9 +377,9 @@ public class WorkflowEngine {
                             runId, CorrelationIdHolder.getCorrelationId());
                 } else {
                     // Tests failed — loop back to developer
-                    testerDeveloperLoops++;
+                    context.setTesterDeveloperLoops(++testerDeveloperLoops);
                     metrics.recordTesterDeveloperLoopBack();
-                    logTransition(runId, "TESTER", "DEVELOPER", "loop_back",
+                    logTransition(runEntity, "TESTER", "DEVELOPER", "loop_back",
                             "CI status: " + ciStatus + " (iteration " + testerDeveloperLoops + "/"
                                     + MAX_TESTER_DEVELOPER_LOOPS + ")");
 
@@ -378,10 +402,10 @@ public class WorkflowEngine {
 
                     // After developer fix, re-enter review loop
                     emitStatus(runId, "IN_PROGRESS", "REVIEW", progressPercent(4));
-                    String reReviewVerdict = executePersonaReviewWithVerdict(context);
+                    String reReviewVerdict = executePersonaReviewWithVerdict(context, false);
                     if (!"approved".equals(reReviewVerdict)
                             && !"approved_with_minor_issues".equals(reReviewVerdict)) {
-                        reviewDeveloperLoops++;
+                        context.setReviewDeveloperLoops(++reviewDeveloperLoops);
                         if (reviewDeveloperLoops >= MAX_REVIEW_DEVELOPER_LOOPS) {
                             throw new EscalationException(buildLoopEscalation(
                                     "Review-Developer loop exceeded " + MAX_REVIEW_DEVELOPER_LOOPS
@@ -394,31 +418,8 @@ public class WorkflowEngine {
             }
 
             // --- Pre-Merge Quality Gate: Judge (LLM-as-a-Judge) with Majority Voting ---
-            log.info("Pre-merge Judge evaluation (majority voting): runId={}, correlationId={}",
-                    runId, CorrelationIdHolder.getCorrelationId());
-            JudgeService.JudgeVerdict preMergeVerdict = judgeService.evaluateWithMajorityVoting(
-                    runEntity, "pre_merge", "persona_review");
-            metrics.recordJudgeEvaluation(preMergeVerdict.verdict());
-            metrics.recordVotingExecution("pre_merge");
-
-            if (preMergeVerdict.isVeto()) {
-                log.warn("Judge VETO at pre-merge gate: score={}, runId={}, correlationId={}",
-                        preMergeVerdict.overallScore(), runId, CorrelationIdHolder.getCorrelationId());
-                throw new EscalationException(buildLoopEscalation(
-                        "Judge vetoed at pre-merge quality gate (score=" +
-                                String.format("%.2f", preMergeVerdict.overallScore()) + ")",
-                        "Quality score below threshold: " + preMergeVerdict.recommendation(),
-                        preMergeVerdict.verdict()));
-            }
-
-            if ("conditional_pass".equals(preMergeVerdict.verdict())) {
-                log.warn("Judge CONDITIONAL PASS at pre-merge gate: score={}, runId={}, correlationId={}",
-                        preMergeVerdict.overallScore(), runId, CorrelationIdHolder.getCorrelationId());
-                emitAndTrace(runId, new WorkflowEvent.WorkflowStatusUpdate(
-                        runId, Instant.now(),
-                        "CONDITIONAL_PASS: Quality score " + String.format("%.2f", preMergeVerdict.overallScore()) +
-                                " — " + preMergeVerdict.recommendation(),
-                        "JUDGE", progressPercent(5)));
+            if (resumePoint != ResumePoint.WRITER) {
+                runPreMergeJudge(runEntity, runId);
             }
 
             // --- Terminal: Writer ---
@@ -432,10 +433,11 @@ public class WorkflowEngine {
 
             finalizeTaskLedgerSuccess(runEntity, runId);
 
-            runEntity.setStatus(RunStatus.DONE);
-            runEntity.setCurrentAgent(null);
-            runEntity.setEnvironmentLifecycle(EnvironmentLifecycle.COMPLETED);
-            runRepository.save(runEntity);
+            runStateService.commit(runEntity, r -> {
+                r.setStatus(RunStatus.DONE);
+                r.setCurrentAgent(null);
+                r.setEnvironmentLifecycle(EnvironmentLifecycle.COMPLETED);
+            });
 
             long duration = System.currentTimeMillis() - startTime;
             workflowTimer.stop(metrics.getWorkflowDuration());
@@ -444,6 +446,7 @@ public class WorkflowEngine {
             emitStatus(runId, "DONE", null, 100.0);
             blackboardService.cleanup(runId);
             traceEventService.cleanup(runId);
+            budgetTracker.releaseRun(runId);
             eventBus.completeEmitters(runId);
 
                 log.info("Workflow completed successfully: runId={}, duration={}ms, correlationId={}",
@@ -453,6 +456,15 @@ public class WorkflowEngine {
                 workflowSpan.setAttribute("workflow.duration_ms", duration);
                 workflowSpan.setAttribute("workflow.status", "DONE");
 
+            } catch (WorkflowSuspendedException e) {
+                long pauseDur = System.currentTimeMillis() - startTime;
+                workflowTimer.stop(metrics.getWorkflowDuration());
+                log.info("Workflow suspended at interrupt checkpoint: runId={}, agent={}, action={}, correlationId={}",
+                        runId, e.getAgentName(), e.getAction(), CorrelationIdHolder.getCorrelationId());
+
+                workflowSpan.setAttribute("workflow.duration_ms", pauseDur);
+                workflowSpan.setAttribute("workflow.status", "WAITING_GATE");
+                workflowSpan.setStatus(StatusCode.OK);
             } catch (EscalationException e) {
                 long duration = System.currentTimeMillis() - startTime;
                 workflowTimer.stop(metrics.getWorkflowDuration());
@@ -461,6 +473,7 @@ public class WorkflowEngine {
                 emitAndTrace(runId, new WorkflowEvent.EscalationRaised(
                         runId, Instant.now(), runEntity.getCurrentAgent(), e.getMessage()));
                 traceEventService.cleanup(runId);
+                budgetTracker.releaseRun(runId);
                 eventBus.completeEmitters(runId);
 
                 workflowSpan.setStatus(StatusCode.ERROR, "Workflow escalated");
@@ -475,6 +488,7 @@ public class WorkflowEngine {
                 emitAndTrace(runId, new WorkflowEvent.WorkflowError(
                         runId, Instant.now(), runEntity.getCurrentAgent(), e.getErrorCode(), e.getMessage()));
                 traceEventService.cleanup(runId);
+                budgetTracker.releaseRun(runId);
                 eventBus.completeEmitters(runId);
 
                 workflowSpan.setStatus(StatusCode.ERROR, e.getMessage());
@@ -491,6 +505,7 @@ public class WorkflowEngine {
                         runId, Instant.now(), runEntity.getCurrentAgent(),
                         e.getClass().getSimpleName(), e.getMessage()));
                 traceEventService.cleanup(runId);
+                budgetTracker.releaseRun(runId);
                 eventBus.completeEmitters(runId);
 
                 workflowSpan.setStatus(StatusCode.ERROR, e.getMessage());
@@ -504,6 +519,35 @@ public class WorkflowEngine {
         }
     }
 
+    private void runPreMergeJudge(RunEntity runEntity, UUID runId) throws EscalationException {
+        log.info("Pre-merge Judge evaluation (majority voting): runId={}, correlationId={}",
+                runId, CorrelationIdHolder.getCorrelationId());
+        JudgeService.JudgeVerdict preMergeVerdict = judgeService.evaluateWithMajorityVoting(
+                runEntity, "pre_merge", "persona_review");
+        metrics.recordJudgeEvaluation(preMergeVerdict.verdict());
+        metrics.recordVotingExecution("pre_merge");
+
+        if (preMergeVerdict.isVeto()) {
+            log.warn("Judge VETO at pre-merge gate: score={}, runId={}, correlationId={}",
+                    preMergeVerdict.overallScore(), runId, CorrelationIdHolder.getCorrelationId());
+            throw new EscalationException(buildLoopEscalation(
+                    "Judge vetoed at pre-merge quality gate (score=" +
+                            String.format("%.2f", preMergeVerdict.overallScore()) + ")",
+                    "Quality score below threshold: " + preMergeVerdict.recommendation(),
+                    preMergeVerdict.verdict()));
+        }
+
+        if ("conditional_pass".equals(preMergeVerdict.verdict())) {
+            log.warn("Judge CONDITIONAL PASS at pre-merge gate: score={}, runId={}, correlationId={}",
+                    preMergeVerdict.overallScore(), runId, CorrelationIdHolder.getCorrelationId());
+            emitAndTrace(runId, new WorkflowEvent.WorkflowStatusUpdate(
+                    runId, Instant.now(),
+                    "CONDITIONAL_PASS: Quality score " + String.format("%.2f", preMergeVerdict.overallScore()) +
+                            " — " + preMergeVerdict.recommendation(),
+                    "JUDGE", progressPercent(5)));
+        }
+    }
+
     private void advanceLedgerForward(RunEntity run, UUID runId, String fromAgent, String toAgent,
             String currentStepLower, String reason) {
         try {
@@ -522,25 +566,24 @@ public class WorkflowEngine {
         }
     }
 
-    private void appendLedgerLoopBack(UUID runId, String from, String to, String reason, String counterKey) {
-        runRepository.findById(runId).ifPresent(run -> {
-            try {
-                String ledger = taskLedgerBuilder.readLatest(run);
-                if (ledger == null) {
-                    return;
-                }
-                int cur = taskLedgerBuilder.getLoopCurrent(ledger, counterKey);
-                int next = cur + 1;
-                ledger = taskLedgerBuilder.incrementLoop(ledger, counterKey, next);
-                String now = Instant.now().toString();
-                ledger = taskLedgerBuilder.withPlannedStep(ledger, "DEVELOPER", "in_progress", now, null);
-                ledger = taskLedgerBuilder.withStatus(ledger, "looping_back", "developer");
-                ledger = taskLedgerBuilder.withTransition(ledger, runId, from, to, "loop_back", reason, null, next);
-                blackboardService.write(run, "task_ledger", "orchestrator", ledger);
-            } catch (Exception e) {
-                log.warn("Task ledger loop_back update skipped: runId={}, {}", runId, e.getMessage());
+    private void appendLedgerLoopBack(RunEntity run, String from, String to, String reason, String counterKey) {
+        UUID runId = run.getId();
+        try {
+            String ledger = taskLedgerBuilder.readLatest(run);
+            if (ledger == null) {
+                return;
             }
-        });
+            int cur = taskLedgerBuilder.getLoopCurrent(ledger, counterKey);
+            int next = cur + 1;
+            ledger = taskLedgerBuilder.incrementLoop(ledger, counterKey, next);
+            String now = Instant.now().toString();
+            ledger = taskLedgerBuilder.withPlannedStep(ledger, "DEVELOPER", "in_progress", now, null);
+            ledger = taskLedgerBuilder.withStatus(ledger, "looping_back", "developer");
+            ledger = taskLedgerBuilder.withTransition(ledger, runId, from, to, "loop_back", reason, null, next);
+            blackboardService.write(run, "task_ledger", "orchestrator", ledger);
+        } catch (Exception e) {
+            log.warn("Task ledger loop_back update skipped: runId={}, {}", runId, e.getMessage());
+        }
     }
 
     private void finalizeTaskLedgerSuccess(RunEntity run, UUID runId) {
@@ -590,9 +633,7 @@ public class WorkflowEngine {
                         context.getRunEntity().getId(), CorrelationIdHolder.getCorrelationId());
 
             RunEntity runEntity = context.getRunEntity();
-            runEntity.setStatus(RunStatus.PM);
-            runEntity.setCurrentAgent(role);
-            runRepository.save(runEntity);
+            enterStep(runEntity, RunStatus.PM, role);
 
             String artifact = agentStepFactory.resolveForRole(role, caps).execute(context);
             schemaValidator.validate(artifact, "ticket_plan.schema.json");
@@ -666,9 +707,7 @@ public class WorkflowEngine {
                     context.getRunEntity().getId(), CorrelationIdHolder.getCorrelationId());
 
             RunEntity runEntity = context.getRunEntity();
-            runEntity.setStatus(RunStatus.QUALIFIER);
-            runEntity.setCurrentAgent(role);
-            runRepository.save(runEntity);
+            enterStep(runEntity, RunStatus.QUALIFIER, role);
 
             String artifact = agentStepFactory.resolveForRole(role, caps).execute(context);
             schemaValidator.validate(artifact, "work_plan.schema.json");
@@ -723,9 +762,7 @@ public class WorkflowEngine {
                     context.getRunEntity().getId(), CorrelationIdHolder.getCorrelationId());
 
             RunEntity runEntity = context.getRunEntity();
-            runEntity.setStatus(RunStatus.ARCHITECT);
-            runEntity.setCurrentAgent(role);
-            runRepository.save(runEntity);
+            enterStep(runEntity, RunStatus.ARCHITECT, role);
 
             String artifact = agentStepFactory.resolveForRole(role, caps).execute(context);
             context.setArchitectureNotes(artifact);
@@ -770,12 +807,10 @@ public class WorkflowEngine {
                     context.getRunEntity().getId(), CorrelationIdHolder.getCorrelationId());
 
             RunEntity runEntity = context.getRunEntity();
-            runEntity.setStatus(RunStatus.DEVELOPER);
-            runEntity.setCurrentAgent(agentName);
-            runRepository.save(runEntity);
+            enterStep(runEntity, RunStatus.DEVELOPER, agentName);
 
             // Dynamic interrupt check before code generation
-            checkInterrupt(agentName, "generate", runId);
+            checkInterrupt(context, agentName, "generate");
 
             developerStep.generateCode(context);
             snapshotEnvironment(context);
@@ -789,6 +824,8 @@ public class WorkflowEngine {
 
             log.info("Developer step (code generation) completed: runId={}, duration={}ms, correlationId={}",
                     context.getRunEntity().getId(), duration, CorrelationIdHolder.getCorrelationId());
+        } catch (WorkflowSuspendedException e) {
+            throw e;
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
             stepTimer.stop(metrics.getAgentStepDuration());
@@ -802,7 +839,7 @@ public class WorkflowEngine {
         }
     }
 
-    private void executePersonaReview(RunContext context) throws Exception {
+    private void executePersonaReview(RunContext context, boolean resumeAtCommit) throws Exception {
         String agentName = "REVIEW";
         UUID runId = context.getRunEntity().getId();
         CorrelationIdHolder.setAgentName(agentName);
@@ -816,9 +853,7 @@ public class WorkflowEngine {
                     context.getRunEntity().getId(), CorrelationIdHolder.getCorrelationId());
 
             RunEntity runEntity = context.getRunEntity();
-            runEntity.setStatus(RunStatus.REVIEW);
-            runEntity.setCurrentAgent(agentName);
-            runRepository.save(runEntity);
+            enterStep(runEntity, RunStatus.REVIEW, agentName);
 
             DeveloperStep.CodeChanges codeChanges = context.getCodeChanges();
             if (codeChanges == null) {
@@ -826,19 +861,23 @@ public class WorkflowEngine {
                 return;
             }
 
-            PersonaReviewService.PersonaReviewReport report = personaReviewService.reviewCodeChanges(context,
-                    codeChanges);
+            PersonaReviewService.PersonaReviewReport report = null;
+            if (resumeAtCommit) {
+                log.info("Resuming at commit checkpoint, persona review already persisted: runId={}", runId);
+            } else {
+                report = personaReviewService.reviewCodeChanges(context, codeChanges);
 
-            String reportJson = serializeReviewReport(report);
+                String reportJson = serializeReviewReport(report);
 
-            schemaValidator.validate(reportJson, "persona_review.schema.json");
-            emitAndTrace(runId, new WorkflowEvent.SchemaValidation(
-                    runId, Instant.now(), agentName, "persona_review.schema.json", true));
+                schemaValidator.validate(reportJson, "persona_review.schema.json");
+                emitAndTrace(runId, new WorkflowEvent.SchemaValidation(
+                        runId, Instant.now(), agentName, "persona_review.schema.json", true));
 
-            blackboardService.write(runEntity, "persona_review", agentName, reportJson);
+                blackboardService.write(runEntity, "persona_review", agentName, reportJson);
+            }
 
             // Dynamic interrupt check before commit & PR creation
-            checkInterrupt("DEVELOPER", "commitAndCreatePullRequest", runId);
+            checkInterrupt(context, "DEVELOPER", "commitAndCreatePullRequest");
 
             String prUrl = developerStep.commitAndCreatePullRequest(context, codeChanges);
             blackboardService.write(runEntity, "pr_url", "DEVELOPER", prUrl);
@@ -852,8 +891,10 @@ public class WorkflowEngine {
 
             log.info(
                     "Persona Review step completed: runId={}, duration={}ms, findings={}, securityFixesApplied={}, prUrl={}, correlationId={}",
-                    context.getRunEntity().getId(), duration, report.getFindings().size(),
-                    report.isSecurityFixesApplied(), prUrl, CorrelationIdHolder.getCorrelationId());
+                    context.getRunEntity().getId(), duration, report != null ? report.getFindings().size() : 0,
+                    report != null && report.isSecurityFixesApplied(), prUrl, CorrelationIdHolder.getCorrelationId());
+        } catch (WorkflowSuspendedException e) {
+            throw e;
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
             stepTimer.stop(metrics.getAgentStepDuration());
@@ -887,11 +928,9 @@ public class WorkflowEngine {
                     context.getRunEntity().getId(), CorrelationIdHolder.getCorrelationId());
 
             RunEntity runEntity = context.getRunEntity();
-            runEntity.setStatus(RunStatus.TESTER);
-            runEntity.setCurrentAgent(role);
-            runRepository.save(runEntity);
+            enterStep(runEntity, RunStatus.TESTER, role);
 
-            String artifact = agentStepFactory.resolveForRole(role, caps).execute(context);
+            String artifact = executeTrackingFixAttempts(context, agentStepFactory.resolveForRole(role, caps));
             schemaValidator.validate(artifact, "test_report.schema.json");
             emitAndTrace(runId, new WorkflowEvent.SchemaValidation(
                     runId, Instant.now(), role, "test_report.schema.json", true));
@@ -944,12 +983,10 @@ public class WorkflowEngine {
                     context.getRunEntity().getId(), CorrelationIdHolder.getCorrelationId());
 
             RunEntity runEntity = context.getRunEntity();
-            runEntity.setStatus(RunStatus.WRITER);
-            runEntity.setCurrentAgent(role);
-            runRepository.save(runEntity);
+            enterStep(runEntity, RunStatus.WRITER, role);
 
             // Dynamic interrupt check before writer execution
-            checkInterrupt(role, "execute", runId);
+            checkInterrupt(context, role, "execute");
 
             String artifact = agentStepFactory.resolveForRole(role, caps).execute(context);
             blackboardService.write(runEntity, "docs_patch", role, artifact);
@@ -966,6 +1003,8 @@ public class WorkflowEngine {
 
             log.info("Writer step completed: runId={}, duration={}ms, correlationId={}",
                     context.getRunEntity().getId(), duration, CorrelationIdHolder.getCorrelationId());
+        } catch (WorkflowSuspendedException e) {
+            throw e;
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
             stepTimer.stop(metrics.getAgentStepDuration());
@@ -983,8 +1022,8 @@ public class WorkflowEngine {
      * Executes the persona review step and returns the review verdict string.
      * Extracts the status from the serialized persona_review.json.
      */
-    private String executePersonaReviewWithVerdict(RunContext context) throws Exception {
-        executePersonaReview(context);
+    private String executePersonaReviewWithVerdict(RunContext context, boolean resumeAtCommit) throws Exception {
+        executePersonaReview(context, resumeAtCommit);
 
         // Extract verdict from the persisted review artifact
         try {
@@ -1043,7 +1082,8 @@ public class WorkflowEngine {
     /**
      * Logs a state machine transition for audit trail.
      */
-    private void logTransition(UUID runId, String from, String to, String type, String reason) {
+    private void logTransition(RunEntity run, String from, String to, String type, String reason) {
+        UUID runId = run.getId();
         log.info("State transition: runId={}, from={}, to={}, type={}, reason={}, correlationId={}",
                 runId, from, to, type, reason, CorrelationIdHolder.getCorrelationId());
 
@@ -1052,9 +1092,9 @@ public class WorkflowEngine {
 
         if ("loop_back".equals(type)) {
             if ("REVIEW".equals(from) && "DEVELOPER".equals(to)) {
-                appendLedgerLoopBack(runId, from, to, reason, "review_to_developer");
+                appendLedgerLoopBack(run, from, to, reason, "review_to_developer");
             } else if ("TESTER".equals(from) && "DEVELOPER".equals(to)) {
-                appendLedgerLoopBack(runId, from, to, reason, "tester_to_developer");
+                appendLedgerLoopBack(run, from, to, reason, "tester_to_developer");
             }
         }
     }
@@ -1191,9 +1231,7 @@ public class WorkflowEngine {
                     runEntity.getId(), CorrelationIdHolder.getCorrelationId(), validationError);
         }
 
-        runEntity.setStatus(RunStatus.ESCALATED);
-        runEntity.setEnvironmentLifecycle(EnvironmentLifecycle.PAUSED);
-        runRepository.save(runEntity);
+        markTerminal(runEntity, RunStatus.ESCALATED);
     }
 
     private void handleOrchestratorException(RunEntity runEntity, OrchestratorException e) {
@@ -1202,9 +1240,7 @@ public class WorkflowEngine {
                 runEntity.getId(), e.getErrorCode(), e.getRecoveryStrategy(), e.isRetryable(),
                 CorrelationIdHolder.getCorrelationId(), e);
 
-        runEntity.setStatus(RunStatus.FAILED);
-        runEntity.setEnvironmentLifecycle(EnvironmentLifecycle.PAUSED);
-        runRepository.save(runEntity);
+        markTerminal(runEntity, RunStatus.FAILED);
 
         persistErrorArtifact(runEntity, e);
     }
@@ -1213,13 +1249,46 @@ public class WorkflowEngine {
         log.error("Workflow failed with unexpected exception: runId={}, agent={}, correlationId={}",
                 runEntity.getId(), runEntity.getCurrentAgent(), CorrelationIdHolder.getCorrelationId(), e);
 
-        runEntity.setStatus(RunStatus.FAILED);
-        runEntity.setEnvironmentLifecycle(EnvironmentLifecycle.PAUSED);
-        runRepository.save(runEntity);
+        markTerminal(runEntity, RunStatus.FAILED);
 
         persistErrorArtifact(runEntity, e);
     }
 
+    /** Commit the step transition (status + current agent) in its own short transaction. */
+    private void enterStep(RunEntity runEntity, RunStatus status, String agent) {
+        runStateService.commit(runEntity, r -> {
+            r.setStatus(status);
+            r.setCurrentAgent(agent);
+        });
+    }
+
+    private void markTerminal(RunEntity runEntity, RunStatus status) {
+        runStateService.commit(runEntity, r -> {
+            r.setStatus(status);
+            r.setEnvironmentLifecycle(EnvironmentLifecycle.PAUSED);
+        });
+    }
+
+    /**
+     * The tester step bumps CI/E2E fix counters on the detached run while it waits on CI.
+     * Those increments are committed as a delta once the step returns (or fails), so the
+     * next step-scoped refresh does not discard them.
+     */
+    private String executeTrackingFixAttempts(RunContext context, AgentStep step) throws Exception {
+        RunEntity runEntity = context.getRunEntity();
+        int ciBefore = runEntity.getCiFixCount();
+        int e2eBefore = runEntity.getE2eFixCount();
+        try {
+            return step.execute(context);
+        } finally {
+            int ciDelta = runEntity.getCiFixCount() - ciBefore;
+            int e2eDelta = runEntity.getE2eFixCount() - e2eBefore;
+            if (ciDelta > 0 || e2eDelta > 0) {
+                runStateService.commit(runEntity, r -> r.recordFixAttempts(ciDelta, e2eDelta));
+            }
+        }
+    }
+
     // -------------------------------------------------------------------------
     // TEA Environment Snapshot / Restore
     // -------------------------------------------------------------------------
@@ -1233,9 +1302,10 @@ public class WorkflowEngine {
             EnvironmentSnapshot snapshot = EnvironmentSnapshot.of(context);
             String json = objectMapper.writeValueAsString(snapshot);
             RunEntity runEntity = context.getRunEntity();
-            runEntity.setEnvironmentCheckpoint(json);
-            runEntity.setEnvironmentLifecycle(EnvironmentLifecycle.ACTIVE);
-            runRepository.save(runEntity);
+            runStateService.commit(runEntity, r -> {
+                r.setEnvironmentCheckpoint(json);
+                r.setEnvironmentLifecycle(EnvironmentLifecycle.ACTIVE);
+            });
             log.debug("TEA SNAPSHOT: runId={}, capturedAt={}", runEntity.getId(), snapshot.capturedAt());
         } catch (Exception e) {
             log.error("TEA SNAPSHOT failed: runId={}", context.getRunEntity().getId(), e);
@@ -1250,7 +1320,7 @@ public class WorkflowEngine {
      * @return a RunContext populated from the latest checkpoint, or null if no checkpoint
      */
     public RunContext restoreEnvironment(UUID runId) {
-        RunEntity entity = runRepository.findById(runId).orElse(null);
+        RunEntity entity = runStateService.load(runId).orElse(null);
         if (entity == null) {
             log.warn("TEA RESTORE: run not found: {}", runId);
             return null;
@@ -1309,9 +1379,15 @@ public class WorkflowEngine {
 
     /**
      * Check the DynamicInterruptService before a high-risk operation.
-     * Blocks if the interrupt decision is BLOCK; logs warning if requires human approval.
+     * Escalates if the decision is BLOCK. If human approval is required and none has been
+     * recorded for this checkpoint, the run is suspended: the pending approval and the
+     * continuation point are persisted and the workflow thread is released. The run is
+     * re-entered at the same checkpoint by {@link InterruptResumeService} once a decision arrives.
      */
-    private void checkInterrupt(String agentName, String action, UUID runId) throws EscalationException {
+    private void checkInterrupt(RunContext context, String agentName, String action)
+            throws EscalationException, WorkflowSuspendedException {
+        RunEntity runEntity = context.getRunEntity();
+        UUID runId = runEntity.getId();
         DynamicInterruptService.InterruptDecision decision = interruptService.evaluate(
                 agentName, null, action, Map.of(), runId);
 
@@ -1324,42 +1400,128 @@ public class WorkflowEngine {
                     "BLOCKED"));
         }
 
-        if (decision.requiresHumanApproval()) {
-            log.warn("Interrupt requires human approval: agent={}, action={}, rule={}, tier={}, runId={}",
-                    agentName, action, decision.getRuleName(), decision.getTier(), runId);
+        if (!decision.requiresHumanApproval()) {
+            return;
+        }
 
-            // Park a future in the shared store; OversightController.resolveInterrupt() will
-            // complete it when the human submits their decision via POST /api/oversight/runs/{id}/interrupt-decision
-            CompletableFuture<String> approvalFuture = interruptDecisionStore.park(
-                    runId, agentName, decision.getRuleName(), decision.getTier(), decision.getMessage());
+        if (interruptDecisionStore.consumeApproval(runId, agentName, action)) {
+            log.info("Interrupt APPROVED by human: agent={}, action={}, runId={}", agentName, action, runId);
+            return;
+        }
 
-            emitAndTrace(runId, new WorkflowEvent.WorkflowStatusUpdate(
-                    runId, Instant.now(),
-                    "INTERRUPT_APPROVAL_NEEDED: " + decision.getMessage(),
-                    agentName, -1));
+        log.warn("Interrupt requires human approval, suspending run: agent={}, action={}, rule={}, tier={}, runId={}",
+                agentName, action, decision.getRuleName(), decision.getTier(), runId);
+
+        interruptDecisionStore.park(runId, agentName, action, decision.getRuleName(), decision.getTier(),
+                decision.getMessage(), new InterruptDecisionStore.ResumeState(continuationState(context),
+                        CorrelationIdHolder.getGitHubToken(), context.getReviewDeveloperLoops(),
+                        context.getTesterDeveloperLoops()));
+        snapshotEnvironment(context);
+        pauseLedgerForInterrupt(runEntity, agentName, action);
+        hitlGateService.suspendForInterrupt(runEntity, agentName, action, decision.getMessage());
+
+        emitAndTrace(runId, new WorkflowEvent.WorkflowStatusUpdate(
+                runId, Instant.now(),
+                "INTERRUPT_APPROVAL_NEEDED: " + decision.getMessage(),
+                agentName, -1));
+
+        throw new WorkflowSuspendedException(agentName, action);
+    }
+
+    /**
+     * Re-entry from an interrupt checkpoint: restore in-flight state the environment snapshot
+     * does not carry (uncommitted code changes, loop counters), and escalate straight away if the decision was deny or timeout. An
+     * approval is left in place for {@link #checkInterrupt} to consume at the checkpoint.
+     */
+    private void resumeFromInterrupt(RunContext context, String checkpoint) throws EscalationException {
+        UUID runId = context.getRunEntity().getId();
+        PendingInterruptEntity pending = interruptDecisionStore.find(runId).orElse(null);
+        if (pending == null) {
+            log.warn("Resuming from interrupt checkpoint without a recorded decision: runId={}, checkpoint={}",
+                    runId, checkpoint);
+            return;
+        }
 
+        context.setReviewDeveloperLoops(pending.getReviewDeveloperLoops());
+        context.setTesterDeveloperLoops(pending.getTesterDeveloperLoops());
+        if (pending.getContinuationState() != null) {
             try {
-                String humanDecision = approvalFuture.get(15, TimeUnit.MINUTES);
-                if ("deny".equalsIgnoreCase(humanDecision)) {
-                    throw new EscalationException(buildLoopEscalation(
-                            "interrupt_denied",
-                            "Human denied action '" + action + "': rule=" + decision.getRuleName(),
-                            "DENIED"));
-                }
-                log.info("Interrupt APPROVED by human: agent={}, action={}, runId={}", agentName, action, runId);
-            } catch (TimeoutException e) {
-                interruptDecisionStore.cancel(runId);
-                throw new EscalationException(buildLoopEscalation(
-                        "interrupt_timeout",
-                        "No human decision received within 15 minutes for action: " + action,
-                        "TIMEOUT"));
-            } catch (ExecutionException e) {
-                interruptDecisionStore.cancel(runId);
-                log.error("Interrupt future failed: runId={}", runId, e);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                interruptDecisionStore.cancel(runId);
+                context.setCodeChanges(objectMapper.readValue(
+                        pending.getContinuationState(), DeveloperStep.CodeChanges.class));
+            } catch (Exception e) {
+                log.warn("Interrupt continuation state unreadable, continuing from checkpoint: runId={}, {}",
+                        runId, e.getMessage());
+            }
+        }
+
+        String decided = pending.getDecision();
+        if (InterruptDecisionStore.DECISION_DENY.equals(decided)) {
+            interruptDecisionStore.cancel(runId);
+            throw new EscalationException(buildLoopEscalation(
+                    "interrupt_denied",
+                    "Human denied action '" + pending.getAction() + "': rule=" + pending.getRuleName(),
+                    "DENIED"));
+        }
+        if (InterruptDecisionStore.DECISION_TIMEOUT.equals(decided)) {
+            interruptDecisionStore.cancel(runId);
+            throw new EscalationException(buildLoopEscalation(
+                    "interrupt_timeout",
+                    "No human decision received in time for action: " + pending.getAction(),
+                    "TIMEOUT"));
+        }
+        log.info("Resuming from interrupt checkpoint: runId={}, checkpoint={}, decision={}",
+                runId, checkpoint, decided);
+    }
+
+    /** Code changes that are not yet committed must survive the suspension verbatim. */
+    private String continuationState(RunContext context) {
+        if (context.getCodeChanges() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(context.getCodeChanges());
+        } catch (Exception e) {
+            log.warn("Could not serialize interrupt continuation state: runId={}, {}",
+                    context.getRunEntity().getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void pauseLedgerForInterrupt(RunEntity run, String agentName, String action) {
+        UUID runId = run.getId();
+        try {
+            String ledger = taskLedgerBuilder.readLatest(run);
+            if (ledger == null) {
+                return;
+            }
+            ledger = taskLedgerBuilder.withStatus(ledger, "waiting_gate", "none");
+            ledger = taskLedgerBuilder.withTransition(ledger, runId, agentName, "GATE", "gate_pause",
+                    "Waiting for interrupt approval before " + action,
+                    HitlGateService.GATE_INTERRUPT_APPROVAL, -1);
+            blackboardService.write(run, "task_ledger", "orchestrator", ledger);
+        } catch (Exception e) {
+            log.warn("Task ledger interrupt pause skipped: runId={}, {}", runId, e.getMessage());
+        }
+    }
+
+    /** Where the pipeline re-enters after a pause. */
+    private enum ResumePoint {
+        START, DEVELOPER, REVIEW, WRITER;
+
+        static ResumePoint of(String workflowResumeFrom, String interruptCheckpoint) {
+            if (HitlGateService.RESUME_AFTER_ARCHITECTURE_GATE.equals(workflowResumeFrom)) {
+                return DEVELOPER;
+            }
+            if (interruptCheckpoint == null) {
+                return START;
+            }
+            if (interruptCheckpoint.startsWith("WRITER:")) {
+                return WRITER;
+            }
+            if (interruptCheckpoint.endsWith(":commitAndCreatePullRequest")) {
+                return REVIEW;
             }
+            return DEVELOPER;
         }
     }
 
@@ -0,0 +1,24 @@
+package com.atlasia.ai.service;
+
+/**
+ * Thrown when a run has been parked at a human-approval checkpoint. The run state and the
+ * continuation point are already persisted; the workflow thread just unwinds and returns.
+ */
+class WorkflowSuspendedException extends Exception {
+    private final String agentName;
+    private final String action;
+
+    WorkflowSuspendedException(String agentName, String action) {
+        super("Workflow suspended at " + agentName + ":" + action);
+        this.agentName = agentName;
+        this.action = action;
+    }
+
+    String getAgentName() {
+        return agentName;
+    }
+
+    String getAction() {
+        return action;
+    }
+}
@@ -19,6 +19,7 @@ public class WriterStep implements AgentStep {
     private static final Logger log = LoggerFactory.getLogger(WriterStep.class);
     
     private final GitHubApiClient gitHubApiClient;
+    private final GitCommitBuilder commitBuilder;
     private final LlmService llmService;
     private final LlmComplexityResolver complexityResolver;
     private final ObjectMapper objectMapper;
@@ -29,12 +30,14 @@ public class WriterStep implements AgentStep {
             LlmService llmService,
             LlmComplexityResolver complexityResolver,
             ObjectMapper objectMapper,
-            AgentContractLoader agentContractLoader) {
+            AgentContractLoader agentContractLoader,
+            GitCommitBuilder commitBuilder) {
         this.gitHubApiClient = gitHubApiClient;
         this.llmService = llmService;
         this.complexityResolver = complexityResolver;
         this.objectMapper = objectMapper;
         this.agentContractLoader = agentContractLoader;
+        this.commitBuilder = commitBuilder;
     }
 
     @Override
@@ -460,7 +463,8 @@ public class WriterStep implements AgentStep {
             String owner = context.getOwner();
             String repo = context.getRepo();
             
-            Map<String, Object> readmeContent = gitHubApiClient.getRepoContent(owner, repo, "README.md");
+            Map<String, Object> readmeContent = gitHubApiClient.getRepoContent(
+                    owner, repo, "README.md", resolveBaseSha(context));
             String contentBase64 = (String) readmeContent.get("content");
             String currentReadme = new String(Base64.getDecoder().decode(contentBase64.replaceAll("\\s", "")));
             
@@ -511,6 +515,34 @@ public class WriterStep implements AgentStep {
             """;
     }
 
+    /**
+     * Pin README reads to the default-branch commit the developer step branched from, so the
+     * snapshot cache can serve it. Runs resumed past that step resolve the repo's default
+     * branch instead; null falls back to the default-branch contents API.
+     */
+    @SuppressWarnings("unchecked")
+    private String resolveBaseSha(RunContext context) {
+        if (context.getBaseSha() != null) {
+            return context.getBaseSha();
+        }
+        String owner = context.getOwner();
+        String repo = context.getRepo();
+        try {
+            String defaultBranch = gitHubApiClient.getDefaultBranch(owner, repo);
+            if (defaultBranch == null) {
+                return null;
+            }
+            Map<String, Object> ref = gitHubApiClient.getReference(owner, repo, "heads/" + defaultBranch);
+            Map<String, Object> refObject = ref != null ? (Map<String, Object>) ref.get("object") : null;
+            String sha = refObject != null ? (String) refObject.get("sha") : null;
+            context.setBaseSha(sha);
+            return sha;
+        } catch (Exception e) {
+            log.debug("Could not resolve the default branch of {}/{}: {}", owner, repo, e.getMessage());
+            return null;
+        }
+    }
+
     private String buildReadmeUserPrompt(RunContext context, String currentReadme, DocumentationGaps gaps) {
         StringBuilder prompt = new StringBuilder();
         
@@ -737,35 +769,21 @@ public class WriterStep implements AgentStep {
         Map<String, Object> branchObject = (Map<String, Object>) branchRef.get("object");
         String currentSha = (String) branchObject.get("sha");
         
-        List<Map<String, Object>> treeEntries = new ArrayList<>();
+        List<GitCommitBuilder.FileEntry> files = new ArrayList<>();
         
         String changelogPath = "docs/CHANGELOG_" + context.getRunEntity().getIssueNumber() + ".md";
-        String changelogEncoded = Base64.getEncoder().encodeToString(changelog.getBytes());
-        Map<String, Object> changelogBlob = gitHubApiClient.createBlob(owner, repo, changelogEncoded, "base64");
-        treeEntries.add(Map.of(
-            "path", changelogPath,
-            "mode", "100644",
-            "type", "blob",
-            "sha", changelogBlob.get("sha")
-        ));
+        files.add(GitCommitBuilder.FileEntry.base64(changelogPath,
+                Base64.getEncoder().encodeToString(changelog.getBytes())));
         log.debug("Added changelog to tree: {}", changelogPath);
         
         for (Map.Entry<String, String> entry : readmeUpdates.entrySet()) {
             String path = entry.getKey();
-            String content = entry.getValue();
             
             try {
-                Map<String, Object> existingFile = gitHubApiClient.getRepoContent(owner, repo, path);
-                String existingSha = (String) existingFile.get("sha");
-                
-                String encoded = Base64.getEncoder().encodeToString(content.getBytes());
-                Map<String, Object> blob = gitHubApiClient.createBlob(owner, repo, encoded, "base64");
-                treeEntries.add(Map.of(
-                    "path", path,
-                    "mode", "100644",
-                    "type", "blob",
-                    "sha", blob.get("sha")
-                ));
+                // only rewrite READMEs that already exist on the branch
+                gitHubApiClient.getRepoContent(owner, repo, path);
+                files.add(GitCommitBuilder.FileEntry.base64(path,
+                        Base64.getEncoder().encodeToString(entry.getValue().getBytes())));
                 log.debug("Updated README in tree: {}", path);
             } catch (Exception e) {
                 log.warn("Failed to update {}: {}", path, e.getMessage());
@@ -773,32 +791,11 @@ public class WriterStep implements AgentStep {
         }
         
         for (Map.Entry<String, String> entry : codeDocs.entrySet()) {
-            String path = entry.getKey();
-            String content = entry.getValue();
-            
-            try {
-                String encoded = Base64.getEncoder().encodeToString(content.getBytes());
-                Map<String, Object> blob = gitHubApiClient.createBlob(owner, repo, encoded, "base64");
-                treeEntries.add(Map.of(
-                    "path", path,
-                    "mode", "100644",
-                    "type", "blob",
-                    "sha", blob.get("sha")
-                ));
-                log.debug("Added code documentation to tree: {}", path);
-            } catch (Exception e) {
-                log.warn("Failed to add code doc {}: {}", path, e.getMessage());
-            }
-        }
-        
-        if (treeEntries.isEmpty()) {
-            log.warn("No documentation changes to apply");
-            return;
+            files.add(GitCommitBuilder.FileEntry.base64(entry.getKey(),
+                    Base64.getEncoder().encodeToString(entry.getValue().getBytes())));
+            log.debug("Added code documentation to tree: {}", entry.getKey());
         }
         
-        Map<String, Object> newTree = gitHubApiClient.createTree(owner, repo, treeEntries, currentSha);
-        String treeSha = (String) newTree.get("sha");
-        
         String commitMessage = "docs: Update documentation for issue #" + context.getRunEntity().getIssueNumber() + 
                               "\n\n- Add comprehensive changelog\n" +
                               (readmeUpdates.isEmpty() ? "" : "- Update README\n") +
@@ -810,12 +807,15 @@ public class WriterStep implements AgentStep {
             "date", Instant.now().toString()
         );
         
-        Map<String, Object> newCommit = gitHubApiClient.createCommit(
-            owner, repo, commitMessage, treeSha, List.of(currentSha), author, author
-        );
-        String commitSha = (String) newCommit.get("sha");
+        GitCommitBuilder.CommitResult result = commitBuilder.commit("writer",
+                new GitCommitBuilder.CommitRequest(
+                        owner, repo, branchName, currentSha, commitMessage, author, author, files, true));
+        String commitSha = result.commitSha();
         
-        gitHubApiClient.updateReference(owner, repo, "heads/" + branchName, commitSha, false);
+        if (commitSha == null) {
+            log.warn("No documentation changes to apply");
+            return;
+        }
         
         log.info("Documentation changes committed: {}", commitSha);
     }
@@ -0,0 +1,121 @@
+package com.atlasia.ai.service.audit;
+
+import com.atlasia.ai.model.AuditChainCheckpointEntity;
+import com.atlasia.ai.model.HashChainedEvent;
+import com.atlasia.ai.persistence.AuditChainCheckpointRepository;
+import com.atlasia.ai.persistence.HashChainedEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Periodic Merkle checkpoints over the sharded audit chains.
+ *
+ * Every interval, for each table, the heads of the chains that advanced since the previous
+ * checkpoint become the sorted leaves ({@code chain_key|chain_seq|event_hash}) of a Merkle
+ * tree. The root is stored with the leaves and a reference to an earlier root of the same
+ * table, and logged, so shipped logs hold an independent copy. Rewriting any chain then has to
+ * match every root that covers it.
+ */
+@Service
+public class AuditCheckpointService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditCheckpointService.class);
+
+    private final AuditHashChains chains;
+    private final AuditChainCheckpointRepository checkpointRepository;
+    private final Clock clock;
+
+    @Autowired
+    public AuditCheckpointService(AuditHashChains chains, AuditChainCheckpointRepository checkpointRepository) {
+        this(chains, checkpointRepository, Clock.systemUTC());
+    }
+
+    AuditCheckpointService(AuditHashChains chains, AuditChainCheckpointRepository checkpointRepository, Clock clock) {
+        this.chains = chains;
+        this.checkpointRepository = checkpointRepository;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${atlasia.orchestrator.audit.checkpoint-interval-ms:300000}",
+               initialDelayString = "${atlasia.orchestrator.audit.checkpoint-interval-ms:300000}")
+    public void checkpointAll() {
+        for (AuditTable table : AuditTable.values()) {
+            try {
+                checkpoint(table);
+            } catch (Exception e) {
+                log.warn("Audit checkpoint failed for {}: {}", table.key(), e.getMessage());
+            }
+        }
+    }
+
+    /** Stores a checkpoint of the chains that advanced, or returns empty when none did. */
+    Optional<AuditChainCheckpointEntity> checkpoint(AuditTable table) {
+        Map<String, AuditHashChains.ChainHead> heads = chains.drainAdvanced(table);
+        if (heads.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            List<String> leaves = new ArrayList<>(heads.size());
+            heads.forEach((chainKey, head) -> leaves.add(chainKey + "|" + head.seq() + "|" + head.hash()));
+            String root = MerkleTree.root(leaves);
+            String previousRoot = checkpointRepository.findTopByTableNameOrderByCreatedAtDesc(table.key())
+                    .map(AuditChainCheckpointEntity::getMerkleRoot)
+                    .orElse(null);
+            AuditChainCheckpointEntity saved = checkpointRepository.save(new AuditChainCheckpointEntity(
+                    table.key(), clock.instant(), leaves.size(), String.join("\n", leaves), root, previousRoot));
+            log.info("Audit checkpoint: table={}, chains={}, merkleRoot={}, previousRoot={}",
+                    table.key(), leaves.size(), root, previousRoot);
+            return Optional.of(saved);
+        } catch (RuntimeException e) {
+            chains.restoreAdvanced(table, heads);
+            throw e;
+        }
+    }
+
+    /**
+     * Recomputes every checkpoint of {@code table}: its root from the stored leaves, each leaf
+     * against the row it names, and its reference to an earlier checkpoint's root. Nodes
+     * checkpoint independently, so a reference only has to name some earlier root.
+     */
+    public boolean verify(AuditTable table) {
+        HashChainedEventRepository<HashChainedEvent> rows = chains.repository(table);
+        Set<String> earlierRoots = new HashSet<>();
+        for (AuditChainCheckpointEntity checkpoint : checkpointRepository.findByTableNameOrderByCreatedAtAsc(table.key())) {
+            String previousRoot = checkpoint.getPreviousRoot();
+            if (previousRoot == null ? !earlierRoots.isEmpty() : !earlierRoots.contains(previousRoot)) {
+                log.error("Audit checkpoint {} references unknown root {}", checkpoint.getId(), previousRoot);
+                return false;
+            }
+            List<String> leaves = List.of(checkpoint.getChainHeads().split("\n"));
+            if (!MerkleTree.root(leaves).equals(checkpoint.getMerkleRoot())) {
+                log.error("Audit checkpoint {} root does not match its chain heads", checkpoint.getId());
+                return false;
+            }
+            for (String leaf : leaves) {
+                // Chain keys may contain '|', the sequence and hash never do.
+                int hashAt = leaf.lastIndexOf('|');
+                int seqAt = leaf.lastIndexOf('|', hashAt - 1);
+                String chainKey = leaf.substring(0, seqAt);
+                long seq = Long.parseLong(leaf.substring(seqAt + 1, hashAt));
+                String hash = leaf.substring(hashAt + 1);
+                boolean matches = rows.findByChainKeyAndChainSeq(chainKey, seq)
+                        .map(row -> hash.equals(row.getEventHash()))
+                        .orElse(false);
+                if (!matches) {
+                    log.error("Audit checkpoint {} head {} #{} does not match the stored row",
+                            checkpoint.getId(), chainKey, seq);
+                    return false;
+                }
+            }
+            earlierRoots.add(checkpoint.getMerkleRoot());
+        }
+        return true;
+    }
+}
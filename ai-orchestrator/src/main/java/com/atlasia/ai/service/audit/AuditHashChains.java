@@ -0,0 +1,293 @@
+package com.atlasia.ai.service.audit;
+
+import com.atlasia.ai.model.*;
+import com.atlasia.ai.persistence.*;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Heads of the sharded audit hash chains.
+ *
+ * Each audited table has one chain per user, admin or run (the chain key) instead of a single
+ * table-wide chain, so appending never reads the latest row of the whole table and unrelated
+ * chains can be extended concurrently. The head of a chain is cached after the first append
+ * and only read from the database again once the chain has been idle for a while or a write
+ * that extended it failed. Heads that advanced are collected for the next Merkle checkpoint.
+ *
+ * A chain is locked on this node from linking a row until the write storing it has committed
+ * or failed, and its cached head only moves on commit, so no row is ever linked onto one that
+ * was not stored. Across nodes, the unique (chain_key, chain_seq) constraint rejects a row
+ * linked from a stale head; the writer then reloads the head and links the row again.
+ */
+@Component
+public class AuditHashChains {
+
+    public static final String GENESIS_HASH = "0";
+
+    public record ChainHead(long seq, String hash) {}
+
+    /** One row to append to {@code chainKey} of {@code table}. */
+    public record ChainRow(AuditTable table, String chainKey, HashChainedEvent event) {}
+
+    private record ChainRef(AuditTable table, String chainKey) {}
+
+    private static final Comparator<ChainRef> LOCK_ORDER =
+            Comparator.comparing(ChainRef::table).thenComparing(ChainRef::chainKey);
+
+    /** Lock and cached heads of one chain; the heads are only touched under the lock. */
+    private static final class Chain {
+        final ReentrantLock lock = new ReentrantLock();
+        /** Last committed row, or null to read it from the database on the next append. */
+        ChainHead head;
+        /** Last row linked by a transaction that has not completed yet. */
+        ChainHead pending;
+    }
+
+    private final Map<AuditTable, HashChainedEventRepository<?>> repositories = new EnumMap<>(AuditTable.class);
+    private final ConcurrentMap<ChainRef, Chain> chains;
+    private final Map<AuditTable, ConcurrentHashMap<String, ChainHead>> advanced = new EnumMap<>(AuditTable.class);
+    private final long lockTimeoutMs;
+
+    public AuditHashChains(
+            AuditAuthenticationEventRepository authEventRepository,
+            AuditAccessLogRepository accessLogRepository,
+            AuditDataMutationRepository dataMutationRepository,
+            AuditAdminActionRepository adminActionRepository,
+            CollaborationEventRepository collaborationEventRepository,
+            @Value("${atlasia.orchestrator.audit.head-idle-minutes:60}") long headIdleMinutes,
+            @Value("${atlasia.orchestrator.audit.chain-lock-timeout-ms:5000}") long lockTimeoutMs) {
+        repositories.put(AuditTable.AUTHENTICATION, authEventRepository);
+        repositories.put(AuditTable.ACCESS_LOGS, accessLogRepository);
+        repositories.put(AuditTable.DATA_MUTATIONS, dataMutationRepository);
+        repositories.put(AuditTable.ADMIN_ACTIONS, adminActionRepository);
+        repositories.put(AuditTable.COLLABORATION_EVENTS, collaborationEventRepository);
+        for (AuditTable table : AuditTable.values()) {
+            advanced.put(table, new ConcurrentHashMap<>());
+        }
+        // Only idle chains expire: a chain is never dropped while a write extending it is in flight.
+        this.chains = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(Math.max(1, headIdleMinutes)))
+                .<ChainRef, Chain>build()
+                .asMap();
+        this.lockTimeoutMs = Math.max(0, lockTimeoutMs);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends HashChainedEvent> HashChainedEventRepository<T> repository(AuditTable table) {
+        return (HashChainedEventRepository<T>) repositories.get(table);
+    }
+
+    /**
+     * Links {@code rows} onto their chains in order and runs {@code store}, which must persist
+     * and commit them. The chains stay locked on this node until {@code store} returns; their
+     * heads advance if it succeeds and are reloaded from the database on the next append if it
+     * throws, in which case the exception is rethrown.
+     */
+    public void store(List<ChainRow> rows, Runnable store) {
+        Map<ChainRef, Chain> involved = new TreeMap<>(LOCK_ORDER);
+        for (ChainRow row : rows) {
+            ChainRef ref = new ChainRef(row.table(), row.chainKey());
+            involved.computeIfAbsent(ref, this::chain);
+        }
+        List<Chain> locked = new ArrayList<>(involved.size());
+        try {
+            // A consistent lock order keeps concurrent batches over overlapping chains from deadlocking.
+            for (Chain chain : involved.values()) {
+                chain.lock.lock();
+                locked.add(chain);
+            }
+            Map<ChainRef, ChainHead> linked = new LinkedHashMap<>();
+            for (ChainRow row : rows) {
+                ChainRef ref = new ChainRef(row.table(), row.chainKey());
+                ChainHead previous = linked.containsKey(ref) ? linked.get(ref) : headOf(ref, involved.get(ref));
+                linked.put(ref, link(row.chainKey(), row.event(), previous));
+            }
+            try {
+                store.run();
+            } catch (RuntimeException e) {
+                involved.values().forEach(chain -> chain.head = null);
+                throw e;
+            }
+            linked.forEach((ref, head) -> {
+                involved.get(ref).head = head;
+                committed(ref.table(), ref.chainKey(), head);
+            });
+        } finally {
+            locked.forEach(chain -> chain.lock.unlock());
+        }
+    }
+
+    /**
+     * Links a row that the caller's own transaction saves. The chain stays locked on this node
+     * until that transaction completes; the head advances and is recorded for the next
+     * checkpoint on commit, and is reloaded from the database after a rollback. Without a
+     * transaction the row is taken as stored at once.
+     *
+     * @throws IllegalStateException if another transaction holds the chain for longer than
+     *                               {@code audit.chain-lock-timeout-ms}
+     */
+    public void linkInTransaction(AuditTable table, String chainKey, HashChainedEvent event) {
+        ChainRef ref = new ChainRef(table, chainKey);
+        Chain chain = chain(ref);
+        try {
+            if (!chain.lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Audit chain " + chainKey + " is held by another transaction");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for audit chain " + chainKey, e);
+        }
+        ChainHead head;
+        try {
+            head = link(chainKey, event, chain.pending != null ? chain.pending : headOf(ref, chain));
+        } catch (RuntimeException e) {
+            chain.lock.unlock();
+            throw e;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            chain.head = head;
+            chain.lock.unlock();
+            committed(table, chainKey, head);
+            return;
+        }
+        chain.pending = head;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    chain.pending = null;
+                    if (status == STATUS_COMMITTED) {
+                        if (chain.head == null || chain.head.seq() < head.seq()) {
+                            chain.head = head;
+                        }
+                        committed(table, chainKey, head);
+                    } else {
+                        chain.head = null;
+                    }
+                } finally {
+                    chain.lock.unlock();
+                }
+            }
+        });
+    }
+
+    public void committed(AuditTable table, String chainKey, ChainHead head) {
+        advanced.get(table).merge(chainKey, head, (a, b) -> a.seq() >= b.seq() ? a : b);
+    }
+
+    /** Heads that advanced since the previous call, sorted by chain key. */
+    public Map<String, ChainHead> drainAdvanced(AuditTable table) {
+        ConcurrentHashMap<String, ChainHead> pending = advanced.get(table);
+        Map<String, ChainHead> drained = new TreeMap<>();
+        for (String chainKey : pending.keySet()) {
+            ChainHead head = pending.remove(chainKey);
+            if (head != null) {
+                drained.put(chainKey, head);
+            }
+        }
+        return drained;
+    }
+
+    /** Puts drained heads back after a checkpoint could not be stored. */
+    public void restoreAdvanced(AuditTable table, Map<String, ChainHead> drained) {
+        drained.forEach((chainKey, head) -> committed(table, chainKey, head));
+    }
+
+    private Chain chain(ChainRef ref) {
+        return chains.computeIfAbsent(ref, r -> new Chain());
+    }
+
+    /** Committed head of {@code chain}, read from the database if not cached. Caller holds the lock. */
+    private ChainHead headOf(ChainRef ref, Chain chain) {
+        if (chain.head == null) {
+            chain.head = repository(ref.table()).findTopByChainKeyOrderByChainSeqDesc(ref.chainKey())
+                    .map(row -> new ChainHead(row.getChainSeq(), row.getEventHash()))
+                    .orElse(new ChainHead(0, GENESIS_HASH));
+        }
+        return chain.head;
+    }
+
+    /** Sets the chain key, sequence, previous hash and own hash of {@code event}. */
+    private static ChainHead link(String chainKey, HashChainedEvent event, ChainHead previous) {
+        long seq = previous.seq() + 1;
+        event.setChainKey(chainKey);
+        event.setChainSeq(seq);
+        event.setPreviousEventHash(previous.hash());
+        String hash = computeHash(event, previous.hash());
+        event.setEventHash(hash);
+        return new ChainHead(seq, hash);
+    }
+
+    /**
+     * Hash of a row given the previous hash of its chain. Sharded rows also cover their chain
+     * key and sequence, and their timestamp at the microsecond precision the column keeps;
+     * rows of the table-wide chain keep the original format.
+     */
+    public static String computeHash(HashChainedEvent event, String previousHash) {
+        StringBuilder dataToHash = new StringBuilder();
+        dataToHash.append(previousHash).append("|");
+        Instant timestamp = event.getTimestamp();
+        if (event.getChainKey() != null) {
+            dataToHash.append(event.getChainKey()).append("|")
+                     .append(event.getChainSeq()).append("|");
+            timestamp = timestamp.truncatedTo(ChronoUnit.MICROS);
+        }
+
+        if (event instanceof AuditAuthenticationEventEntity e) {
+            dataToHash.append(e.getUsername()).append("|")
+                     .append(e.getEventType()).append("|")
+                     .append(timestamp).append("|")
+                     .append(e.isSuccess());
+        } else if (event instanceof AuditAccessLogEntity e) {
+            dataToHash.append(e.getUsername()).append("|")
+                     .append(e.getResourceType()).append("|")
+                     .append(e.getResourceId()).append("|")
+                     .append(e.getAction()).append("|")
+                     .append(timestamp);
+        } else if (event instanceof AuditDataMutationEntity e) {
+            dataToHash.append(e.getUsername()).append("|")
+                     .append(e.getEntityType()).append("|")
+                     .append(e.getEntityId()).append("|")
+                     .append(e.getOperation()).append("|")
+                     .append(timestamp);
+        } else if (event instanceof AuditAdminActionEntity e) {
+            dataToHash.append(e.getAdminUsername()).append("|")
+                     .append(e.getActionType()).append("|")
+                     .append(timestamp);
+        } else if (event instanceof CollaborationEventEntity e) {
+            dataToHash.append(e.getUserId()).append("|")
+                     .append(e.getEventType()).append("|")
+                     .append(e.getRunId()).append("|")
+                     .append(timestamp);
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(dataToHash.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+}
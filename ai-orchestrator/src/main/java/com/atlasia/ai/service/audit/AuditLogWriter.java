@@ -0,0 +1,230 @@
+package com.atlasia.ai.service.audit;
+
+import com.atlasia.ai.model.HashChainedEvent;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for audit rows.
+ *
+ * Rows are handed to one of {@code writer-threads} lanes chosen by their chain, so each chain
+ * is extended by a single thread in order while different chains are linked and written in
+ * parallel. A lane drains its bounded queue in batches and writes each batch in one
+ * transaction (inserts are JDBC-batched), falling back to row-by-row writes if the batch
+ * fails. Rows are linked into their chains by {@link AuditHashChains#store}, which only advances
+ * a chain once the write has committed. Audit rows are never dropped for capacity: when a lane stays full for
+ * {@code block-timeout-ms} the caller writes its row itself.
+ */
+@Service
+public class AuditLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    record AuditWrite(AuditTable table, String chainKey, HashChainedEvent event, long enqueuedAtMillis) {}
+
+    /** Attempts to store a row whose chain position another node took first. */
+    private static final int MAX_LINK_ATTEMPTS = 3;
+
+    private final AuditHashChains chains;
+    private final TransactionTemplate transactionTemplate;
+    private final OrchestratorMetrics metrics;
+    private final boolean writeBehind;
+    private final List<BlockingQueue<AuditWrite>> lanes = new ArrayList<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private final int batchSize;
+    private final long lingerMs;
+    private final long blockTimeoutMs;
+
+    private volatile boolean running;
+
+    public AuditLogWriter(
+            AuditHashChains chains,
+            PlatformTransactionManager transactionManager,
+            OrchestratorMetrics metrics,
+            @Value("${atlasia.orchestrator.audit.write-behind:true}") boolean writeBehind,
+            @Value("${atlasia.orchestrator.audit.writer-threads:0}") int writerThreads,
+            @Value("${atlasia.orchestrator.audit.queue-capacity:10000}") int queueCapacity,
+            @Value("${atlasia.orchestrator.audit.batch-size:200}") int batchSize,
+            @Value("${atlasia.orchestrator.audit.flush-linger-ms:50}") long lingerMs,
+            @Value("${atlasia.orchestrator.audit.block-timeout-ms:100}") long blockTimeoutMs) {
+        this.chains = chains;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Audit rows commit on their own, whether written by a lane or inline by the caller.
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.metrics = metrics;
+        this.writeBehind = writeBehind;
+        int laneCount = writerThreads > 0
+                ? writerThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayBlockingQueue<>(Math.max(1, queueCapacity / laneCount)));
+        }
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerMs = Math.max(0, lingerMs);
+        this.blockTimeoutMs = Math.max(0, blockTimeoutMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!writeBehind) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < lanes.size(); i++) {
+            BlockingQueue<AuditWrite> lane = lanes.get(i);
+            Thread writer = new Thread(() -> drainLoop(lane), "audit-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread writer : writers) {
+            writer.interrupt();
+        }
+        for (Thread writer : writers) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    /** Queues a row for {@code chainKey} of {@code table}; it is linked into the chain when written. */
+    public void append(AuditTable table, String chainKey, HashChainedEvent event) {
+        AuditWrite write = new AuditWrite(table, chainKey, event, System.currentTimeMillis());
+        if (!writeBehind) {
+            writeRow(write);
+            return;
+        }
+        boolean accepted;
+        try {
+            accepted = lanes.get(Math.floorMod(Objects.hash(table, chainKey), lanes.size()))
+                    .offer(write, blockTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            metrics.recordAuditWrite("inline", 1);
+            writeRow(write);
+        }
+    }
+
+    /** Writes everything queued so far on the calling thread; returns the number of rows taken. */
+    public int flush() {
+        int total = 0;
+        for (BlockingQueue<AuditWrite> lane : lanes) {
+            AuditWrite first;
+            while ((first = lane.poll()) != null) {
+                total += flush(lane, first);
+            }
+        }
+        return total;
+    }
+
+    private void drainLoop(BlockingQueue<AuditWrite> lane) {
+        while (running) {
+            try {
+                AuditWrite first = lane.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    if (lingerMs > 0) {
+                        Thread.sleep(lingerMs);
+                    }
+                    flush(lane, first);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Audit flush failed", e);
+            }
+        }
+    }
+
+    private int flush(BlockingQueue<AuditWrite> lane, AuditWrite first) {
+        List<AuditWrite> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        lane.drainTo(batch, batchSize - 1);
+        long start = System.currentTimeMillis();
+
+        try {
+            chains.store(rows(batch), () -> transactionTemplate.executeWithoutResult(status -> save(batch)));
+        } catch (Exception e) {
+            log.warn("Audit batch write failed, retrying row by row: size={}, error={}", batch.size(), e.getMessage());
+            batch.forEach(this::writeRow);
+        }
+        long now = System.currentTimeMillis();
+        metrics.recordAuditFlush(batch.size(), now - start, Math.max(0, now - first.enqueuedAtMillis()));
+        return batch.size();
+    }
+
+    /**
+     * Links and stores one row in its own transaction. A unique-key violation means another node
+     * extended the chain since its head was cached; the head is reloaded and the row linked again.
+     */
+    private void writeRow(AuditWrite write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                chains.store(rows(List.of(write)),
+                        () -> transactionTemplate.executeWithoutResult(status -> save(List.of(write))));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt < MAX_LINK_ATTEMPTS) {
+                    metrics.recordAuditWrite("relinked", 1);
+                    continue;
+                }
+                writeFailed(write, e);
+                return;
+            } catch (Exception e) {
+                writeFailed(write, e);
+                return;
+            }
+        }
+    }
+
+    private void writeFailed(AuditWrite write, Exception e) {
+        metrics.recordAuditWrite("failed", 1);
+        log.error("Audit row could not be written: table={}, chain={}, error={}",
+                write.table().key(), write.chainKey(), e.getMessage());
+    }
+
+    private static List<AuditHashChains.ChainRow> rows(List<AuditWrite> writes) {
+        List<AuditHashChains.ChainRow> rows = new ArrayList<>(writes.size());
+        for (AuditWrite write : writes) {
+            rows.add(new AuditHashChains.ChainRow(write.table(), write.chainKey(), write.event()));
+        }
+        return rows;
+    }
+
+    private void save(List<AuditWrite> batch) {
+        Map<AuditTable, List<HashChainedEvent>> byTable = new EnumMap<>(AuditTable.class);
+        for (AuditWrite write : batch) {
+            byTable.computeIfAbsent(write.table(), t -> new ArrayList<>()).add(write.event());
+        }
+        byTable.forEach((table, rows) -> chains.<HashChainedEvent>repository(table).saveAll(rows));
+    }
+}
@@ -0,0 +1,27 @@
+package com.atlasia.ai.service.audit;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/** Tables whose rows are hash-chained, by the name used for verification and checkpoints. */
+public enum AuditTable {
+    AUTHENTICATION("authentication"),
+    ACCESS_LOGS("access_logs"),
+    DATA_MUTATIONS("data_mutations"),
+    ADMIN_ACTIONS("admin_actions"),
+    COLLABORATION_EVENTS("collaboration_events");
+
+    private final String key;
+
+    AuditTable(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static Optional<AuditTable> fromKey(String key) {
+        return Arrays.stream(values()).filter(t -> t.key.equals(key)).findFirst();
+    }
+}
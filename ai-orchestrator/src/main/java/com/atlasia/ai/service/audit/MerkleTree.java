@@ -0,0 +1,49 @@
+package com.atlasia.ai.service.audit;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * SHA-256 Merkle root over ordered leaves. Leaves and inner nodes are hashed with distinct
+ * prefixes (0x00 / 0x01) and an odd node is carried up unpaired rather than duplicated, so two
+ * different leaf lists cannot produce the same root.
+ */
+final class MerkleTree {
+
+    private MerkleTree() {}
+
+    static String root(List<String> leaves) {
+        if (leaves.isEmpty()) {
+            throw new IllegalArgumentException("Merkle tree needs at least one leaf");
+        }
+        List<byte[]> level = new ArrayList<>(leaves.size());
+        for (String leaf : leaves) {
+            level.add(sha256((byte) 0, leaf.getBytes(StandardCharsets.UTF_8)));
+        }
+        while (level.size() > 1) {
+            List<byte[]> next = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i < level.size(); i += 2) {
+                next.add(i + 1 < level.size() ? sha256((byte) 1, level.get(i), level.get(i + 1)) : level.get(i));
+            }
+            level = next;
+        }
+        return HexFormat.of().formatHex(level.get(0));
+    }
+
+    private static byte[] sha256(byte prefix, byte[]... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(prefix);
+            for (byte[] part : parts) {
+                digest.update(part);
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+}
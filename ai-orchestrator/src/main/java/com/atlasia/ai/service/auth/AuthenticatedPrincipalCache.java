@@ -0,0 +1,81 @@
+package com.atlasia.ai.service.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Short-lived cache of the principal loaded for an access token, keyed by the token id
+ * ({@code jti}), so authenticating a request does not query the user, role and permission
+ * tables every time.
+ *
+ * The token signature and expiry are still verified on every request; only the user lookup is
+ * skipped. Anything that changes what a user may do (roles, lock state, logout, refresh token
+ * revocation) evicts that user's entries, but only on the node that made the change. When called
+ * inside a transaction the eviction is repeated after commit, which narrows — without closing —
+ * the window in which a request racing the change re-caches the old principal. On other nodes,
+ * and for such a race, a stale principal lives until {@code principal-cache.ttl-seconds}
+ * (default 30s) expires it; keep the TTL at what the deployment tolerates for revocations.
+ */
+@Component
+public class AuthenticatedPrincipalCache {
+
+    record CachedPrincipal(UUID userId, UserDetails userDetails) {}
+
+    private final Cache<String, CachedPrincipal> principals;
+
+    public AuthenticatedPrincipalCache(
+            @Value("${atlasia.auth.principal-cache.ttl-seconds:30}") long ttlSeconds,
+            @Value("${atlasia.auth.principal-cache.max-size:10000}") long maxSize) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(Math.max(0, maxSize))
+                .expireAfterWrite(Duration.ofSeconds(Math.max(0, ttlSeconds)))
+                .build();
+    }
+
+    CachedPrincipal get(String tokenId) {
+        return principals.getIfPresent(tokenId);
+    }
+
+    void put(String tokenId, UUID userId, UserDetails userDetails) {
+        principals.put(tokenId, new CachedPrincipal(userId, userDetails));
+    }
+
+    public void evictUser(UUID userId) {
+        if (userId != null) {
+            evict(p -> userId.equals(p.userId()));
+        }
+    }
+
+    public void evictUsername(String username) {
+        if (username != null) {
+            evict(p -> username.equals(p.userDetails().getUsername()));
+        }
+    }
+
+    long size() {
+        principals.cleanUp();
+        return principals.estimatedSize();
+    }
+
+    private void evict(Predicate<CachedPrincipal> matches) {
+        // Bounded by max-size and only run on account changes, so a scan is fine.
+        principals.asMap().values().removeIf(matches);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.asMap().values().removeIf(matches);
+                }
+            });
+        }
+    }
+}
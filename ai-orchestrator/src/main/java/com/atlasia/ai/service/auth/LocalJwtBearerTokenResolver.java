@@ -1,6 +1,7 @@
 package com.atlasia.ai.service.auth;
 
 import com.atlasia.ai.service.JwtService;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -10,9 +11,12 @@ import org.springframework.stereotype.Component;
 
 import java.util.Collections;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Resolves Bearer tokens using local JWT validation (symmetric key + UserDetails).
+ * The token is parsed once per request; the UserDetails loaded for it are kept in
+ * {@link AuthenticatedPrincipalCache} under the token id.
  * Supports the E2E test token when enabled via configuration.
  */
 @Component
@@ -22,14 +26,17 @@ public class LocalJwtBearerTokenResolver implements BearerTokenAuthenticationRes
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final AuthenticatedPrincipalCache principalCache;
     private final boolean e2eTestTokenEnabled;
 
     public LocalJwtBearerTokenResolver(
             JwtService jwtService,
             UserDetailsService userDetailsService,
+            AuthenticatedPrincipalCache principalCache,
             @Value("${atlasia.auth.e2e-test-token-enabled:false}") boolean e2eTestTokenEnabled) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
         this.e2eTestTokenEnabled = e2eTestTokenEnabled;
     }
 
@@ -45,22 +52,37 @@ public class LocalJwtBearerTokenResolver implements BearerTokenAuthenticationRes
                     "test-agent", null, Collections.emptyList()));
         }
 
-        // Validate JWT and load user
-        if (!jwtService.validateToken(bearerToken)) {
+        // Verify once, then reuse the principal loaded for this token id while it is cached
+        Claims claims = jwtService.parseClaims(bearerToken).orElse(null);
+        if (claims == null) {
             return Optional.empty();
         }
 
         try {
-            String username = jwtService.extractUsername(bearerToken);
+            String username = claims.getSubject();
             if (username == null) return Optional.empty();
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            String tokenId = claims.getId();
+            AuthenticatedPrincipalCache.CachedPrincipal cached = tokenId != null ? principalCache.get(tokenId) : null;
+            UUID userId;
+            UserDetails userDetails;
+            if (cached != null && username.equals(cached.userDetails().getUsername())) {
+                userId = cached.userId();
+                userDetails = cached.userDetails();
+            } else {
+                userId = JwtService.userIdOf(claims);
+                userDetails = userDetailsService.loadUserByUsername(username);
+                if (tokenId != null) {
+                    principalCache.put(tokenId, userId, userDetails);
+                }
+            }
+
             UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
                             userDetails.getAuthorities());
-            authentication.setDetails(jwtService.extractUserId(bearerToken));
+            authentication.setDetails(userId);
             return Optional.of(authentication);
         } catch (Exception e) {
             return Optional.empty();
@@ -0,0 +1,315 @@
+package com.atlasia.ai.service.crdt;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact binary encoding of {@link DeltaCrdtDocument} for the mesh, snapshots and REST.
+ *
+ * <pre>
+ * magic 0xC7, version 1
+ * replica table: n, n strings          (dots refer to replicas by index)
+ * context:   n, (replica, from, to)*
+ * grafts:    n, (key, m, (dot, after, agentName, timestamp, userId)*)*
+ * prunes:    n, (key, m, dot*)*
+ * flags:     n, (key, wallTime, logical, hlcReplica, dot, value)*
+ * removals:  n, (event dot, m, dot*)*
+ * </pre>
+ *
+ * Integers are unsigned LEB128 varints; strings are a varint of (UTF-8 length + 1) followed by
+ * the bytes, 0 encoding null. Input is untrusted: decoding validates lengths and indexes and
+ * reports anything malformed as {@link IllegalArgumentException}; no classes are instantiated
+ * from the payload.
+ */
+public final class CrdtBinaryCodec {
+
+    private static final int MAGIC = 0xC7;
+    private static final int VERSION = 1;
+    private static final int MAX_STRING_BYTES = 64 * 1024;
+
+    private CrdtBinaryCodec() {}
+
+    public static byte[] encode(DeltaCrdtDocument doc) {
+        synchronized (doc) {
+            Writer out = new Writer();
+            out.buffer.write(MAGIC);
+            out.buffer.write(VERSION);
+
+            Map<String, Integer> replicas = new LinkedHashMap<>();
+            doc.context().forEachRange((replica, range) -> replicas.putIfAbsent(replica, replicas.size()));
+            doc.grafts().values().forEach(dots -> dots.keySet().forEach(d -> replicas.putIfAbsent(d.replica(), replicas.size())));
+            doc.prunes().values().forEach(dots -> dots.forEach(d -> replicas.putIfAbsent(d.replica(), replicas.size())));
+            doc.flags().values().forEach(f -> {
+                replicas.putIfAbsent(f.dot().replica(), replicas.size());
+                replicas.putIfAbsent(f.hlc().replica(), replicas.size());
+            });
+            doc.removals().forEach((event, removed) -> {
+                replicas.putIfAbsent(event.replica(), replicas.size());
+                removed.forEach(d -> replicas.putIfAbsent(d.replica(), replicas.size()));
+            });
+            out.varint(replicas.size());
+            replicas.keySet().forEach(out::string);
+
+            List<Object[]> ranges = new ArrayList<>();
+            doc.context().forEachRange((replica, range) -> ranges.add(new Object[] {replica, range}));
+            out.varint(ranges.size());
+            for (Object[] entry : ranges) {
+                long[] range = (long[]) entry[1];
+                out.varint(replicas.get((String) entry[0]));
+                out.varint(range[0]);
+                out.varint(range[1]);
+            }
+
+            out.varint(doc.grafts().size());
+            doc.grafts().forEach((key, dots) -> {
+                out.string(key);
+                out.varint(dots.size());
+                dots.forEach((dot, value) -> {
+                    out.dot(dot, replicas);
+                    out.string(value.after());
+                    out.string(value.agentName());
+                    out.varint(value.timestamp());
+                    out.string(value.userId());
+                });
+            });
+
+            out.varint(doc.prunes().size());
+            doc.prunes().forEach((key, dots) -> {
+                out.string(key);
+                out.varint(dots.size());
+                dots.forEach(dot -> out.dot(dot, replicas));
+            });
+
+            out.varint(doc.flags().size());
+            doc.flags().forEach((key, flag) -> {
+                out.string(key);
+                out.varint(flag.hlc().wallTime());
+                out.varint(flag.hlc().logical());
+                out.varint(replicas.get(flag.hlc().replica()));
+                out.dot(flag.dot(), replicas);
+                out.string(flag.value());
+            });
+
+            out.varint(doc.removals().size());
+            doc.removals().forEach((event, removed) -> {
+                out.dot(event, replicas);
+                out.varint(removed.size());
+                removed.forEach(dot -> out.dot(dot, replicas));
+            });
+            return out.buffer.toByteArray();
+        }
+    }
+
+    public static DeltaCrdtDocument decode(byte[] data) {
+        if (data == null || data.length < 2) {
+            throw new IllegalArgumentException("CRDT payload too short");
+        }
+        Reader in = new Reader(ByteBuffer.wrap(data));
+        try {
+            if ((in.buffer.get() & 0xFF) != MAGIC) {
+                throw new IllegalArgumentException("Not a CRDT payload");
+            }
+            int version = in.buffer.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported CRDT payload version " + version);
+            }
+            DeltaCrdtDocument doc = new DeltaCrdtDocument();
+
+            int replicaCount = in.count();
+            List<String> replicas = new ArrayList<>(replicaCount);
+            for (int i = 0; i < replicaCount; i++) {
+                replicas.add(in.requiredString());
+            }
+
+            int rangeCount = in.count();
+            for (int i = 0; i < rangeCount; i++) {
+                String replica = in.replica(replicas);
+                long from = in.varint();
+                long to = in.varint();
+                if (from < 1 || to < from) {
+                    throw new IllegalArgumentException("Invalid context range");
+                }
+                doc.context().addRange(replica, from, to);
+            }
+
+            int graftCount = in.count();
+            for (int i = 0; i < graftCount; i++) {
+                String key = in.requiredString();
+                int dotCount = in.count();
+                Map<Dot, DeltaCrdtDocument.GraftValue> dots = new LinkedHashMap<>();
+                for (int j = 0; j < dotCount; j++) {
+                    Dot dot = in.dot(replicas);
+                    dots.put(dot, new DeltaCrdtDocument.GraftValue(
+                            in.string(), in.string(), in.varint(), in.string()));
+                }
+                doc.grafts().put(key, dots);
+            }
+
+            int pruneCount = in.count();
+            for (int i = 0; i < pruneCount; i++) {
+                String key = in.requiredString();
+                int dotCount = in.count();
+                Set<Dot> dots = new HashSet<>();
+                for (int j = 0; j < dotCount; j++) {
+                    dots.add(in.dot(replicas));
+                }
+                doc.prunes().put(key, dots);
+            }
+
+            int flagCount = in.count();
+            for (int i = 0; i < flagCount; i++) {
+                String key = in.requiredString();
+                Hlc hlc = new Hlc(in.varint(), (int) in.varint(), in.replica(replicas));
+                Dot dot = in.dot(replicas);
+                doc.flags().put(key, new DeltaCrdtDocument.LwwFlag(hlc, dot, in.string()));
+            }
+
+            int removalCount = in.count();
+            for (int i = 0; i < removalCount; i++) {
+                Dot event = in.dot(replicas);
+                int dotCount = in.count();
+                Set<Dot> removed = new HashSet<>();
+                for (int j = 0; j < dotCount; j++) {
+                    removed.add(in.dot(replicas));
+                }
+                doc.removals().put(event, removed);
+            }
+
+            if (in.buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes after CRDT payload");
+            }
+            return doc;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated CRDT payload", e);
+        }
+    }
+
+    /** Version vector (replica to contiguous counter) in the same varint format. */
+    public static byte[] encodeVersionVector(Map<String, Long> vector) {
+        Writer out = new Writer();
+        out.varint(vector.size());
+        vector.forEach((replica, counter) -> {
+            out.string(replica);
+            out.varint(counter);
+        });
+        return out.buffer.toByteArray();
+    }
+
+    public static Map<String, Long> decodeVersionVector(byte[] data) {
+        Reader in = new Reader(ByteBuffer.wrap(data));
+        try {
+            int count = in.count();
+            Map<String, Long> vector = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                vector.put(in.requiredString(), in.varint());
+            }
+            return vector;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated version vector", e);
+        }
+    }
+
+    private static final class Writer {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        void varint(long value) {
+            long v = value;
+            while ((v & ~0x7FL) != 0) {
+                buffer.write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            buffer.write((int) v);
+        }
+
+        void string(String value) {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length + 1L);
+            buffer.writeBytes(bytes);
+        }
+
+        void dot(Dot dot, Map<String, Integer> replicas) {
+            varint(replicas.get(dot.replica()));
+            varint(dot.counter());
+        }
+    }
+
+    private static final class Reader {
+        final ByteBuffer buffer;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        long varint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        /** A collection size; never more than the bytes left, so a bad length cannot allocate. */
+        int count() {
+            long count = varint();
+            if (count < 0 || count > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid element count " + count);
+            }
+            return (int) count;
+        }
+
+        String string() {
+            long length = varint();
+            if (length == 0) {
+                return null;
+            }
+            if (length - 1 > MAX_STRING_BYTES || length - 1 > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid string length");
+            }
+            byte[] bytes = new byte[(int) (length - 1)];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        String requiredString() {
+            String value = string();
+            if (value == null) {
+                throw new IllegalArgumentException("Missing string");
+            }
+            return value;
+        }
+
+        String replica(List<String> replicas) {
+            long index = varint();
+            if (index < 0 || index >= replicas.size()) {
+                throw new IllegalArgumentException("Invalid replica index " + index);
+            }
+            return replicas.get((int) index);
+        }
+
+        Dot dot(List<String> replicas) {
+            String replica = replica(replicas);
+            long counter = varint();
+            if (counter < 1) {
+                throw new IllegalArgumentException("Invalid dot counter");
+            }
+            return new Dot(replica, counter);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.atlasia.ai.service.crdt;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Delta-state CRDT for one run's collaboration document. The same type holds a full replica
+ * state and a delta (the few entries one mutation or one anti-entropy round carries), so joining
+ * either is the same operation.
+ *
+ * <ul>
+ *   <li>grafts: add-wins map, graft id to value, each value tagged with the dot of its add;</li>
+ *   <li>pruned steps: OR-Set, a step is pruned while it has at least one live add dot;</li>
+ *   <li>flags: LWW-register map ordered by {@link Hlc}; a null value clears the flag;</li>
+ *   <li>removals: remove events (event dot to the add dots it observed), kept so that
+ *       anti-entropy can ship a remove to a replica that missed it.</li>
+ * </ul>
+ *
+ * A remove only cancels the dots it observed, so an add concurrent with a remove survives.
+ * Every dot is recorded in {@link #context()}; an entry whose dot is already in the context is
+ * a duplicate or was removed, and is ignored.
+ */
+public final class DeltaCrdtDocument {
+
+    public record GraftValue(String after, String agentName, long timestamp, String userId) {}
+
+    public record LwwFlag(Hlc hlc, Dot dot, String value) {}
+
+    private static final Comparator<Dot> DOT_ORDER = Comparator.comparingLong(Dot::counter)
+            .thenComparing(Dot::replica);
+
+    private final Map<String, Map<Dot, GraftValue>> grafts = new LinkedHashMap<>();
+    private final Map<String, Set<Dot>> prunes = new LinkedHashMap<>();
+    private final Map<String, LwwFlag> flags = new LinkedHashMap<>();
+    private final Map<Dot, Set<Dot>> removals = new LinkedHashMap<>();
+    private final VersionVector context = new VersionVector();
+
+    // --- Mutators: apply locally and return the delta to ship ---
+
+    public synchronized DeltaCrdtDocument addGraft(String replica, String graftId, GraftValue value) {
+        DeltaCrdtDocument delta = new DeltaCrdtDocument();
+        Dot dot = nextDot(replica);
+        delta.grafts.computeIfAbsent(graftId, k -> new LinkedHashMap<>()).put(dot, value);
+        delta.context.add(dot);
+        join(delta);
+        return delta;
+    }
+
+    public synchronized DeltaCrdtDocument addPrune(String replica, String stepId) {
+        DeltaCrdtDocument delta = new DeltaCrdtDocument();
+        Dot dot = nextDot(replica);
+        delta.prunes.computeIfAbsent(stepId, k -> new HashSet<>()).add(dot);
+        delta.context.add(dot);
+        join(delta);
+        return delta;
+    }
+
+    /** Un-prunes the step as observed here; an empty delta if it was not pruned. */
+    public synchronized DeltaCrdtDocument removePrune(String replica, String stepId) {
+        DeltaCrdtDocument delta = new DeltaCrdtDocument();
+        Set<Dot> observed = prunes.get(stepId);
+        if (observed == null || observed.isEmpty()) {
+            return delta;
+        }
+        Dot event = nextDot(replica);
+        delta.removals.put(event, new HashSet<>(observed));
+        delta.context.add(event);
+        observed.forEach(delta.context::add);
+        join(delta);
+        return delta;
+    }
+
+    public synchronized DeltaCrdtDocument setFlag(String replica, Hlc hlc, String key, String value) {
+        DeltaCrdtDocument delta = new DeltaCrdtDocument();
+        Dot dot = nextDot(replica);
+        delta.flags.put(key, new LwwFlag(hlc, dot, value));
+        delta.context.add(dot);
+        join(delta);
+        return delta;
+    }
+
+    // --- Join and anti-entropy ---
+
+    /** Merges a delta or a full state; idempotent, commutative and associative. */
+    public synchronized void join(DeltaCrdtDocument delta) {
+        delta.grafts.forEach((key, dots) -> dots.forEach((dot, value) -> {
+            if (!context.contains(dot)) {
+                grafts.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(dot, value);
+            }
+        }));
+        delta.prunes.forEach((key, dots) -> dots.forEach(dot -> {
+            if (!context.contains(dot)) {
+                prunes.computeIfAbsent(key, k -> new HashSet<>()).add(dot);
+            }
+        }));
+        delta.flags.forEach((key, flag) -> {
+            LwwFlag current = flags.get(key);
+            if (current == null || flag.hlc().compareTo(current.hlc()) > 0) {
+                flags.put(key, flag);
+            }
+        });
+        delta.removals.forEach((event, removed) -> {
+            if (removals.putIfAbsent(event, new HashSet<>(removed)) != null) {
+                return;
+            }
+            grafts.values().removeIf(dots -> {
+                dots.keySet().removeAll(removed);
+                return dots.isEmpty();
+            });
+            prunes.values().removeIf(dots -> {
+                dots.removeAll(removed);
+                return dots.isEmpty();
+            });
+        });
+        context.merge(delta.context);
+    }
+
+    /**
+     * Everything a replica that advertised {@code remote} (per-replica contiguous counters) is
+     * missing: entries and remove events with dots it has not seen, plus the matching context.
+     */
+    public synchronized DeltaCrdtDocument deltaSince(Map<String, Long> remote) {
+        DeltaCrdtDocument delta = new DeltaCrdtDocument();
+        grafts.forEach((key, dots) -> dots.forEach((dot, value) -> {
+            if (!VersionVector.covers(remote, dot)) {
+                delta.grafts.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(dot, value);
+            }
+        }));
+        prunes.forEach((key, dots) -> dots.forEach(dot -> {
+            if (!VersionVector.covers(remote, dot)) {
+                delta.prunes.computeIfAbsent(key, k -> new HashSet<>()).add(dot);
+            }
+        }));
+        flags.forEach((key, flag) -> {
+            if (!VersionVector.covers(remote, flag.dot())) {
+                delta.flags.put(key, flag);
+            }
+        });
+        removals.forEach((event, removed) -> {
+            if (!VersionVector.covers(remote, event)) {
+                delta.removals.put(event, new HashSet<>(removed));
+            }
+        });
+        // The whole unseen part of the context, not only the dots above: overwritten flag writes
+        // and removed adds leave dots with no entry, and the remote must learn them to close
+        // its gaps (otherwise its summary would stall and every round would resend the rest).
+        delta.context.merge(context.since(remote));
+        return delta;
+    }
+
+    public synchronized Map<String, Long> versionVector() {
+        return context.summary();
+    }
+
+    public synchronized boolean isEmpty() {
+        return grafts.isEmpty() && prunes.isEmpty() && flags.isEmpty() && removals.isEmpty()
+                && context.isEmpty();
+    }
+
+    // --- Materialized view ---
+
+    /** Graft id to value; if one id was added on two replicas, every replica picks the same one. */
+    public synchronized Map<String, GraftValue> graftValues() {
+        Map<String, GraftValue> values = new LinkedHashMap<>();
+        grafts.forEach((key, dots) -> dots.entrySet().stream()
+                .max(Map.Entry.comparingByKey(DOT_ORDER))
+                .ifPresent(e -> values.put(key, e.getValue())));
+        return values;
+    }
+
+    public synchronized Set<String> prunedSteps() {
+        return new HashSet<>(prunes.keySet());
+    }
+
+    public synchronized Map<String, Object> flagValues() {
+        Map<String, Object> values = new HashMap<>();
+        flags.forEach((key, flag) -> {
+            if (flag.value() != null) {
+                values.put(key, flag.value());
+            }
+        });
+        return values;
+    }
+
+    /** Timestamps of the current flag writes, cleared ones included. */
+    public synchronized List<Hlc> flagClocks() {
+        return flags.values().stream().map(LwwFlag::hlc).toList();
+    }
+
+    // --- Codec access ---
+
+    Map<String, Map<Dot, GraftValue>> grafts() {
+        return grafts;
+    }
+
+    Map<String, Set<Dot>> prunes() {
+        return prunes;
+    }
+
+    Map<String, LwwFlag> flags() {
+        return flags;
+    }
+
+    Map<Dot, Set<Dot>> removals() {
+        return removals;
+    }
+
+    VersionVector context() {
+        return context;
+    }
+
+    private Dot nextDot(String replica) {
+        return new Dot(replica, context.max(replica) + 1);
+    }
+}
@@ -0,0 +1,4 @@
+package com.atlasia.ai.service.crdt;
+
+/** Identity of one mutation: the {@code counter}-th event produced by {@code replica}. */
+public record Dot(String replica, long counter) {}
@@ -0,0 +1,20 @@
+package com.atlasia.ai.service.crdt;
+
+import java.util.Comparator;
+
+/**
+ * Hybrid logical clock timestamp: wall-clock millis plus a logical counter for events within the
+ * same millisecond (or while the local clock lags a remote one). The replica id breaks ties, so
+ * the order is total and every replica picks the same last writer.
+ */
+public record Hlc(long wallTime, int logical, String replica) implements Comparable<Hlc> {
+
+    private static final Comparator<Hlc> ORDER = Comparator.comparingLong(Hlc::wallTime)
+            .thenComparingInt(Hlc::logical)
+            .thenComparing(Hlc::replica);
+
+    @Override
+    public int compareTo(Hlc other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,38 @@
+package com.atlasia.ai.service.crdt;
+
+import java.util.function.LongSupplier;
+
+/** Issues {@link Hlc} timestamps for one replica and absorbs timestamps seen from others. */
+public final class HybridLogicalClock {
+
+    private final String replica;
+    private final LongSupplier physicalClock;
+    private long wallTime;
+    private int logical;
+
+    public HybridLogicalClock(String replica, LongSupplier physicalClock) {
+        this.replica = replica;
+        this.physicalClock = physicalClock;
+    }
+
+    public synchronized Hlc now() {
+        long physical = physicalClock.getAsLong();
+        if (physical > wallTime) {
+            wallTime = physical;
+            logical = 0;
+        } else {
+            logical++;
+        }
+        return new Hlc(wallTime, logical, replica);
+    }
+
+    /** Moves the clock past a remote timestamp so later local writes order after it. */
+    public synchronized void observe(Hlc remote) {
+        if (remote.wallTime() > wallTime) {
+            wallTime = remote.wallTime();
+            logical = remote.logical();
+        } else if (remote.wallTime() == wallTime && remote.logical() > logical) {
+            logical = remote.logical();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.atlasia.ai.service.crdt;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Causal context: the set of dots a replica has seen, kept per replica as disjoint closed
+ * counter intervals. In the common case every replica is one interval {@code [1, n]}; gaps
+ * appear only while deltas arrive out of order and close again once the missing ones land.
+ */
+public final class VersionVector {
+
+    private final Map<String, TreeMap<Long, Long>> intervals = new HashMap<>();
+
+    public boolean contains(Dot dot) {
+        TreeMap<Long, Long> ranges = intervals.get(dot.replica());
+        if (ranges == null) {
+            return false;
+        }
+        Map.Entry<Long, Long> floor = ranges.floorEntry(dot.counter());
+        return floor != null && floor.getValue() >= dot.counter();
+    }
+
+    public void add(Dot dot) {
+        addRange(dot.replica(), dot.counter(), dot.counter());
+    }
+
+    /** Adds counters {@code from..to} (inclusive) of {@code replica}, coalescing adjacent ranges. */
+    public void addRange(String replica, long from, long to) {
+        if (from > to) {
+            return;
+        }
+        TreeMap<Long, Long> ranges = intervals.computeIfAbsent(replica, r -> new TreeMap<>());
+        long start = from;
+        long end = to;
+        Map.Entry<Long, Long> floor = ranges.floorEntry(start);
+        if (floor != null && floor.getValue() >= start - 1) {
+            start = floor.getKey();
+            end = Math.max(end, floor.getValue());
+        }
+        Map.Entry<Long, Long> next = ranges.ceilingEntry(start + 1);
+        while (next != null && next.getKey() <= end + 1) {
+            end = Math.max(end, next.getValue());
+            ranges.remove(next.getKey());
+            next = ranges.ceilingEntry(start + 1);
+        }
+        ranges.put(start, end);
+    }
+
+    public void merge(VersionVector other) {
+        other.forEachRange((replica, range) -> addRange(replica, range[0], range[1]));
+    }
+
+    /** Highest counter {@code n} such that every dot {@code 1..n} of the replica has been seen. */
+    public long contiguous(String replica) {
+        TreeMap<Long, Long> ranges = intervals.get(replica);
+        if (ranges == null || ranges.isEmpty() || ranges.firstKey() > 1) {
+            return 0;
+        }
+        return ranges.firstEntry().getValue();
+    }
+
+    /** Highest counter seen from the replica, gaps included. */
+    public long max(String replica) {
+        TreeMap<Long, Long> ranges = intervals.get(replica);
+        return ranges == null || ranges.isEmpty() ? 0 : ranges.lastEntry().getValue();
+    }
+
+    /** Per-replica contiguous prefix; what a replica advertises in anti-entropy. */
+    public Map<String, Long> summary() {
+        Map<String, Long> summary = new HashMap<>();
+        for (String replica : intervals.keySet()) {
+            long contiguous = contiguous(replica);
+            if (contiguous > 0) {
+                summary.put(replica, contiguous);
+            }
+        }
+        return summary;
+    }
+
+    /** The part of this context not covered by a remote summary. */
+    public VersionVector since(Map<String, Long> remote) {
+        VersionVector missing = new VersionVector();
+        forEachRange((replica, range) -> {
+            long seen = remote.getOrDefault(replica, 0L);
+            missing.addRange(replica, Math.max(range[0], seen + 1), range[1]);
+        });
+        return missing;
+    }
+
+    public static boolean covers(Map<String, Long> summary, Dot dot) {
+        return dot.counter() <= summary.getOrDefault(dot.replica(), 0L);
+    }
+
+    public boolean isEmpty() {
+        return intervals.values().stream().allMatch(TreeMap::isEmpty);
+    }
+
+    /** Visits {@code [from, to]} pairs per replica. */
+    public void forEachRange(BiConsumer<String, long[]> visitor) {
+        intervals.forEach((replica, ranges) ->
+                ranges.forEach((from, to) -> visitor.accept(replica, new long[] {from, to})));
+    }
+}
@@ -0,0 +1,20 @@
+package com.atlasia.ai.service.event;
+
+import java.util.UUID;
+
+/**
+ * What {@link WorkflowEventBus} exchanges with other nodes through a {@link WorkflowEventTransport}.
+ *
+ * @param kind       {@link #EVENT}, {@link #COMPLETE} (the run's streams are finished) or
+ *                   {@link #PRESENCE} (how many clients the origin node has for the run)
+ * @param originNode id of the node that produced the envelope; a node ignores its own
+ * @param eventId    replay id of the event, 0 for transient events (LLM tokens)
+ * @param data       serialized event JSON for EVENT, the subscriber count for PRESENCE
+ */
+public record EventEnvelope(String kind, String originNode, UUID runId, long eventId,
+        String eventType, String data) {
+
+    public static final String EVENT = "event";
+    public static final String COMPLETE = "complete";
+    public static final String PRESENCE = "presence";
+}
@@ -0,0 +1,27 @@
+package com.atlasia.ai.service.event;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/** Single-node deployments: there is nobody to forward to. */
+@Component
+@ConditionalOnProperty(name = "atlasia.orchestrator.event-bus.transport", havingValue = "in-process",
+        matchIfMissing = true)
+public class InProcessEventTransport implements WorkflowEventTransport {
+
+    @Override
+    public void publish(EventEnvelope envelope) {
+        // every subscriber is local and already served by the bus
+    }
+
+    @Override
+    public void start(Consumer<EventEnvelope> receiver) {
+    }
+
+    @Override
+    public String name() {
+        return "in-process";
+    }
+}
@@ -0,0 +1,89 @@
+package com.atlasia.ai.service.event;
+
+import com.atlasia.ai.service.observability.CorrelationIdHolder;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Forwards streamed LLM text for one run to {@link WorkflowEventBus} as
+ * {@link WorkflowEvent.LlmToken} events.
+ *
+ * Providers emit deltas of a few characters each; the first delta is sent immediately (that is
+ * the time-to-first-token the viewer sees), later ones are coalesced until {@link #MAX_CHARS}
+ * characters or {@link #MAX_DELAY_MS} have accumulated. Call {@link #flush()} when the stream ends.
+ * Not thread-safe: one relay per call, fed from the thread reading the response.
+ */
+public final class LlmTokenRelay implements Consumer<String> {
+
+    static final int MAX_CHARS = 48;
+    static final long MAX_DELAY_MS = 50;
+
+    private final WorkflowEventBus eventBus;
+    private final UUID runId;
+    private final String agentName;
+    private final String model;
+    private final long startedAt = System.currentTimeMillis();
+    private final StringBuilder buffer = new StringBuilder();
+    private long lastFlushAt = startedAt;
+    private long firstTokenAt = -1;
+    private int sequence;
+
+    LlmTokenRelay(WorkflowEventBus eventBus, UUID runId, String agentName, String model) {
+        this.eventBus = eventBus;
+        this.runId = runId;
+        this.agentName = agentName;
+        this.model = model;
+    }
+
+    /**
+     * Relay for the run bound to the current thread, or null when there is no run or nobody is
+     * watching it — callers then use the non-streaming provider call.
+     */
+    public static LlmTokenRelay forCurrentRun(WorkflowEventBus eventBus, String model) {
+        String runIdStr = CorrelationIdHolder.getRunId();
+        if (runIdStr == null) {
+            return null;
+        }
+        try {
+            UUID runId = UUID.fromString(runIdStr);
+            if (!eventBus.hasSubscribers(runId)) {
+                return null;
+            }
+            return new LlmTokenRelay(eventBus, runId, CorrelationIdHolder.getAgentName(), model);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void accept(String text) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (firstTokenAt < 0) {
+            firstTokenAt = now;
+        }
+        buffer.append(text);
+        if (sequence == 0 || buffer.length() >= MAX_CHARS || now - lastFlushAt >= MAX_DELAY_MS) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        eventBus.emit(runId, new WorkflowEvent.LlmToken(
+                runId, Instant.now(), agentName, model, sequence++, buffer.toString()));
+        buffer.setLength(0);
+        lastFlushAt = System.currentTimeMillis();
+    }
+
+    /** Milliseconds from relay creation to the first delta, or -1 if none arrived. */
+    public long timeToFirstTokenMillis() {
+        return firstTokenAt < 0 ? -1 : firstTokenAt - startedAt;
+    }
+}
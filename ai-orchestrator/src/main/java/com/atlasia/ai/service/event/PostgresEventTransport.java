@@ -0,0 +1,210 @@
+package com.atlasia.ai.service.event;
+
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Multi-node fan-out over PostgreSQL LISTEN/NOTIFY on the orchestrator database.
+ *
+ * Publishing only enqueues; an {@code event-bus-notify} thread drains the queue and sends the
+ * envelopes with {@code pg_notify} in JDBC batches, borrowing a pooled connection per batch. An
+ * {@code event-bus-listen} thread LISTENs on its own connection opened from the datasource
+ * settings outside the Hikari pool, so the session it holds for the node's lifetime never costs
+ * the pool a connection; it reconnects after failures. NOTIFY payloads
+ * are limited to 8000 bytes: a larger envelope is delivered on the origin node only and counted
+ * as {@code oversized}. Delivery is best effort — a node that is down or reconnecting misses
+ * events, which its clients recover through Last-Event-ID replay against the emitting node.
+ */
+@Component
+@ConditionalOnProperty(name = "atlasia.orchestrator.event-bus.transport", havingValue = "postgres")
+public class PostgresEventTransport implements WorkflowEventTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresEventTransport.class);
+    static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int PUBLISH_BATCH = 100;
+
+    private final DataSource dataSource;
+    private final DataSourceProperties dataSourceProperties;
+    private final OrchestratorMetrics metrics;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String channel;
+    private final long reconnectDelayMs;
+    private final BlockingQueue<String> outbound;
+
+    private volatile boolean running;
+    private Thread publisher;
+    private Thread listener;
+
+    public PostgresEventTransport(
+            DataSource dataSource,
+            DataSourceProperties dataSourceProperties,
+            OrchestratorMetrics metrics,
+            @Value("${atlasia.orchestrator.event-bus.postgres.channel:workflow_events}") String channel,
+            @Value("${atlasia.orchestrator.event-bus.postgres.queue-capacity:10000}") int queueCapacity,
+            @Value("${atlasia.orchestrator.event-bus.postgres.reconnect-delay-ms:5000}") long reconnectDelayMs) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid LISTEN channel name: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.dataSourceProperties = dataSourceProperties;
+        this.metrics = metrics;
+        this.channel = channel;
+        this.reconnectDelayMs = reconnectDelayMs;
+        this.outbound = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    @Override
+    public String name() {
+        return "postgres";
+    }
+
+    @Override
+    public void publish(EventEnvelope envelope) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(envelope);
+        } catch (Exception e) {
+            metrics.recordEventTransport(name(), "publish_error");
+            return;
+        }
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            log.debug("Event too large for NOTIFY, delivered locally only: runId={}, type={}",
+                    envelope.runId(), envelope.eventType());
+            metrics.recordEventTransport(name(), "oversized");
+            return;
+        }
+        if (!outbound.offer(payload)) {
+            metrics.recordEventTransport(name(), "publish_error");
+        }
+    }
+
+    @Override
+    public void start(Consumer<EventEnvelope> receiver) {
+        running = true;
+        publisher = new Thread(this::publishLoop, "event-bus-notify");
+        publisher.setDaemon(true);
+        publisher.start();
+        listener = new Thread(() -> listenLoop(receiver), "event-bus-listen");
+        listener.setDaemon(true);
+        listener.start();
+        log.info("Workflow event transport: postgres LISTEN/NOTIFY on channel {}", channel);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread thread : new Thread[] {publisher, listener}) {
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    private void publishLoop() {
+        List<String> batch = new ArrayList<>(PUBLISH_BATCH);
+        while (running) {
+            try {
+                String first = outbound.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                outbound.drainTo(batch, PUBLISH_BATCH - 1);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (SQLException e) {
+                log.warn("pg_notify failed, {} events not distributed: {}", batch.size(), e.getMessage());
+                for (int i = 0; i < batch.size(); i++) {
+                    metrics.recordEventTransport(name(), "publish_error");
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendBatch(List<String> batch) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (String payload : batch) {
+                statement.setString(1, channel);
+                statement.setString(2, payload);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            metrics.recordEventTransport(name(), "published");
+        }
+    }
+
+    private void listenLoop(Consumer<EventEnvelope> receiver) {
+        while (running) {
+            try (Connection connection = openListenConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(1000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter(), receiver);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("LISTEN connection lost, reconnecting in {}ms: {}", reconnectDelayMs, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Connection openListenConnection() throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    private void dispatch(String payload, Consumer<EventEnvelope> receiver) {
+        try {
+            receiver.accept(objectMapper.readValue(payload, EventEnvelope.class));
+            metrics.recordEventTransport(name(), "received");
+        } catch (Exception e) {
+            log.debug("Ignoring undeliverable event notification: {}", e.getMessage());
+        }
+    }
+}
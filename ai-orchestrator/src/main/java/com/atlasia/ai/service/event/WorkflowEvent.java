@@ -11,6 +11,7 @@ public sealed interface WorkflowEvent permits
         WorkflowEvent.WorkflowStatusUpdate,
         WorkflowEvent.LlmCallStart,
         WorkflowEvent.LlmCallEnd,
+        WorkflowEvent.LlmToken,
         WorkflowEvent.SchemaValidation,
         WorkflowEvent.WorkflowError,
         WorkflowEvent.EscalationRaised,
@@ -67,6 +68,16 @@ public sealed interface WorkflowEvent permits
         public String eventType() { return "LLM_CALL_END"; }
     }
 
+    /**
+     * Incremental completion text. {@code sequence} starts at 0 for every streamed call, so a
+     * client seeing 0 again after a failover discards the partial text it has shown.
+     */
+    record LlmToken(UUID runId, Instant timestamp, String agentName, String model,
+            int sequence, String text) implements WorkflowEvent {
+        @Override
+        public String eventType() { return "LLM_TOKEN"; }
+    }
+
     record SchemaValidation(UUID runId, Instant timestamp, String agentName, String schemaName,
             boolean passed) implements WorkflowEvent {
         @Override
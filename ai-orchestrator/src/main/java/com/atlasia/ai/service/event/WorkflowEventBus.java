@@ -1,97 +1,424 @@
 package com.atlasia.ai.service.event;
 
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Fans workflow events out to SSE clients.
+ *
+ * Each event is serialized once. Non-transient events get a replay id and are kept in a bounded
+ * per-run ring buffer ({@code event-bus.replay-buffer-size}), so a client reconnecting with
+ * {@code Last-Event-ID} receives what it missed before the live stream continues. Ids are
+ * monotonic per run and seeded from the clock, so they keep increasing if a run resumes on
+ * another node. {@link WorkflowEvent.LlmToken} deltas are transient: live only, no id.
+ *
+ * The emitting (workflow) thread never writes to a socket: every subscriber has a bounded send
+ * queue drained on a virtual thread. A subscriber whose queue overflows is disconnected; its
+ * browser reconnects and catches up from the replay buffer.
+ *
+ * Once a run completes, new subscribers get its buffered events and then the end of the stream.
+ * A run that starts again (resume, escalation PROCEED) reopens its channel with the first new
+ * event, dropping the previous attempt's replay buffer.
+ *
+ * Events also go to the other nodes through the configured {@link WorkflowEventTransport}; nodes
+ * announce how many clients they have per run so {@link #hasSubscribers} sees remote viewers.
+ */
 @Service
 public class WorkflowEventBus {
     private static final Logger log = LoggerFactory.getLogger(WorkflowEventBus.class);
     private static final long SSE_TIMEOUT_MS = 30 * 60 * 1000L; // 30 minutes
 
-    private final ConcurrentHashMap<UUID, CopyOnWriteArrayList<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    /** One SSE event as sent; {@code id} 0 means transient. */
+    record Outgoing(long id, String name, String data) {}
+
+    private static final Outgoing END = new Outgoing(0, null, null);
+
+    private final ConcurrentHashMap<UUID, RunChannel> channels = new ConcurrentHashMap<>();
     private final ObjectMapper objectMapper;
+    private final WorkflowEventTransport transport;
+    private final OrchestratorMetrics metrics;
+    private final Executor sendExecutor;
+    private final int replayBufferSize;
+    private final int subscriberQueueCapacity;
+    private final long replayTtlMs;
+    private final String nodeId;
+
+    @Autowired
+    public WorkflowEventBus(
+            WorkflowEventTransport transport,
+            OrchestratorMetrics metrics,
+            @Value("${atlasia.orchestrator.event-bus.replay-buffer-size:500}") int replayBufferSize,
+            @Value("${atlasia.orchestrator.event-bus.subscriber-queue-capacity:1000}") int subscriberQueueCapacity,
+            @Value("${atlasia.orchestrator.event-bus.replay-ttl-minutes:30}") long replayTtlMinutes,
+            @Value("${atlasia.orchestrator.event-bus.node-id:}") String nodeId) {
+        this(transport, metrics,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-send-", 0).factory()),
+                replayBufferSize, subscriberQueueCapacity, TimeUnit.MINUTES.toMillis(replayTtlMinutes), nodeId);
+    }
 
-    public WorkflowEventBus() {
+    WorkflowEventBus(
+            WorkflowEventTransport transport,
+            OrchestratorMetrics metrics,
+            Executor sendExecutor,
+            int replayBufferSize,
+            int subscriberQueueCapacity,
+            long replayTtlMs,
+            String nodeId) {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
+        this.transport = transport;
+        this.metrics = metrics;
+        this.sendExecutor = sendExecutor;
+        this.replayBufferSize = Math.max(0, replayBufferSize);
+        this.subscriberQueueCapacity = Math.max(1, subscriberQueueCapacity);
+        this.replayTtlMs = replayTtlMs;
+        this.nodeId = nodeId != null && !nodeId.isBlank() ? nodeId : UUID.randomUUID().toString();
+    }
+
+    @PostConstruct
+    public void start() {
+        transport.start(this::receive);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sendExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
     }
 
     public SseEmitter registerEmitter(UUID runId) {
-        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        return registerEmitter(runId, null);
+    }
 
-        emitters.computeIfAbsent(runId, k -> new CopyOnWriteArrayList<>()).add(emitter);
+    /**
+     * @param lastEventId id of the last event the client received (the {@code Last-Event-ID}
+     *                    header of a reconnect); buffered events after it are replayed first
+     */
+    public SseEmitter registerEmitter(UUID runId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        subscribe(runId, emitter, lastEventId);
+        return emitter;
+    }
 
-        emitter.onCompletion(() -> removeEmitter(runId, emitter));
-        emitter.onTimeout(() -> removeEmitter(runId, emitter));
+    void subscribe(UUID runId, SseEmitter emitter, String lastEventId) {
+        RunChannel channel = channel(runId);
+        Subscriber subscriber = new Subscriber(runId, emitter);
+        long after = parseEventId(lastEventId);
+        int replayed = 0;
+        synchronized (channel) {
+            if (after >= 0) {
+                for (Outgoing buffered : channel.replay) {
+                    if (buffered.id() > after && subscriber.offer(buffered)) {
+                        replayed++;
+                    }
+                }
+            }
+            if (channel.completed) {
+                subscriber.offer(END);
+            } else {
+                channel.subscribers.add(subscriber);
+            }
+            channel.touch();
+        }
+        emitter.onCompletion(() -> removeSubscriber(subscriber));
+        emitter.onTimeout(() -> removeSubscriber(subscriber));
         emitter.onError(e -> {
             log.debug("SSE emitter error for runId={}: {}", runId, e.getMessage());
-            removeEmitter(runId, emitter);
+            removeSubscriber(subscriber);
         });
+        subscriber.schedule();
+        if (replayed > 0) {
+            metrics.recordEventReplay(replayed);
+        }
+        publishPresence(runId, channel);
 
-        log.info("SSE emitter registered: runId={}, activeEmitters={}", runId, getEmitterCount(runId));
-        return emitter;
+        log.info("SSE emitter registered: runId={}, activeEmitters={}, replayed={}",
+                runId, channel.subscribers.size(), replayed);
     }
 
     public void emit(UUID runId, WorkflowEvent event) {
-        CopyOnWriteArrayList<SseEmitter> runEmitters = emitters.get(runId);
-        if (runEmitters == null || runEmitters.isEmpty()) {
+        boolean transientEvent = event instanceof WorkflowEvent.LlmToken;
+        RunChannel channel = transientEvent ? channels.get(runId) : channel(runId);
+        if (channel == null || (transientEvent && !channel.hasSubscribers())) {
             return;
         }
 
+        String json;
         try {
-            String json = objectMapper.writeValueAsString(event);
-            SseEmitter.SseEventBuilder eventBuilder = SseEmitter.event()
-                    .name(event.eventType())
-                    .data(json);
-
-            for (SseEmitter emitter : runEmitters) {
-                try {
-                    emitter.send(eventBuilder);
-                } catch (IOException e) {
-                    log.debug("Failed to send SSE event to emitter for runId={}: {}", runId, e.getMessage());
-                    removeEmitter(runId, emitter);
-                }
-            }
+            json = objectMapper.writeValueAsString(event);
         } catch (Exception e) {
             log.warn("Failed to serialize SSE event for runId={}: {}", runId, e.getMessage());
+            return;
+        }
+
+        Outgoing outgoing;
+        synchronized (channel) {
+            long id = transientEvent ? 0 : channel.nextId();
+            outgoing = new Outgoing(id, event.eventType(), json);
+            append(channel, outgoing);
+        }
+        if (!transientEvent || channel.hasRemoteSubscribers()) {
+            transport.publish(new EventEnvelope(
+                    EventEnvelope.EVENT, nodeId, runId, outgoing.id(), outgoing.name(), json));
         }
     }
 
+    /** True if at least one SSE client, on this or another node, is attached to the run. */
+    public boolean hasSubscribers(UUID runId) {
+        RunChannel channel = channels.get(runId);
+        return channel != null && channel.hasSubscribers();
+    }
+
     public void completeEmitters(UUID runId) {
-        CopyOnWriteArrayList<SseEmitter> runEmitters = emitters.remove(runId);
-        if (runEmitters != null) {
-            for (SseEmitter emitter : runEmitters) {
-                try {
-                    emitter.complete();
-                } catch (Exception e) {
-                    log.debug("Error completing SSE emitter for runId={}: {}", runId, e.getMessage());
+        completeLocal(runId);
+        transport.publish(new EventEnvelope(EventEnvelope.COMPLETE, nodeId, runId, 0, null, null));
+    }
+
+    /** Drops replay buffers of runs nobody has emitted to or watched for {@code replay-ttl-minutes}. */
+    @Scheduled(fixedDelayString = "${atlasia.orchestrator.event-bus.sweep-interval-ms:60000}")
+    public void evictIdleChannels() {
+        long cutoff = System.currentTimeMillis() - replayTtlMs;
+        channels.entrySet().removeIf(entry -> entry.getValue().subscribers.isEmpty()
+                && entry.getValue().lastActivity < cutoff);
+    }
+
+    /** Envelope from another node. */
+    void receive(EventEnvelope envelope) {
+        if (nodeId.equals(envelope.originNode()) || envelope.runId() == null) {
+            return;
+        }
+        switch (envelope.kind()) {
+            case EventEnvelope.EVENT -> {
+                RunChannel channel = channel(envelope.runId());
+                synchronized (channel) {
+                    if (envelope.eventId() > 0) {
+                        if (envelope.eventId() <= channel.lastId) {
+                            return;
+                        }
+                        channel.lastId = envelope.eventId();
+                    }
+                    append(channel, new Outgoing(envelope.eventId(), envelope.eventType(), envelope.data()));
+                }
+            }
+            case EventEnvelope.COMPLETE -> completeLocal(envelope.runId());
+            case EventEnvelope.PRESENCE -> {
+                int count = parseCount(envelope.data());
+                RunChannel channel = count > 0 ? channel(envelope.runId()) : channels.get(envelope.runId());
+                if (channel != null) {
+                    if (count > 0) {
+                        channel.remoteSubscribers.put(envelope.originNode(), count);
+                    } else {
+                        channel.remoteSubscribers.remove(envelope.originNode());
+                    }
                 }
             }
-            log.info("SSE emitters completed for runId={}", runId);
+            default -> log.debug("Ignoring event envelope of kind {}", envelope.kind());
+        }
+    }
+
+    /** Buffer (unless transient) and queue to every local subscriber. Caller holds the channel lock. */
+    private void append(RunChannel channel, Outgoing outgoing) {
+        if (channel.completed) {
+            channel.completed = false;
+            channel.replay.clear();
+        }
+        if (outgoing.id() > 0 && replayBufferSize > 0) {
+            if (channel.replay.size() >= replayBufferSize) {
+                channel.replay.pollFirst();
+            }
+            channel.replay.addLast(outgoing);
         }
+        for (Subscriber subscriber : channel.subscribers) {
+            if (subscriber.offer(outgoing)) {
+                subscriber.schedule();
+            } else {
+                channel.subscribers.remove(subscriber);
+            }
+        }
+        channel.touch();
     }
 
-    private void removeEmitter(UUID runId, SseEmitter emitter) {
-        CopyOnWriteArrayList<SseEmitter> runEmitters = emitters.get(runId);
-        if (runEmitters != null) {
-            runEmitters.remove(emitter);
-            if (runEmitters.isEmpty()) {
-                emitters.remove(runId);
+    private void completeLocal(UUID runId) {
+        RunChannel channel = channels.get(runId);
+        if (channel == null) {
+            return;
+        }
+        synchronized (channel) {
+            channel.completed = true;
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.offer(END);
+                subscriber.schedule();
             }
+            channel.subscribers.clear();
+            channel.remoteSubscribers.clear();
+        }
+        log.info("SSE emitters completed for runId={}", runId);
+    }
+
+    private void removeSubscriber(Subscriber subscriber) {
+        subscriber.closed = true;
+        RunChannel channel = channels.get(subscriber.runId);
+        if (channel != null && channel.subscribers.remove(subscriber)) {
+            publishPresence(subscriber.runId, channel);
+        }
+    }
+
+    private void publishPresence(UUID runId, RunChannel channel) {
+        transport.publish(new EventEnvelope(EventEnvelope.PRESENCE, nodeId, runId, 0, null,
+                String.valueOf(channel.subscribers.size())));
+    }
+
+    private RunChannel channel(UUID runId) {
+        return channels.computeIfAbsent(runId, id -> new RunChannel());
+    }
+
+    private static long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int parseCount(String data) {
+        try {
+            return data != null ? Integer.parseInt(data) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /** Replay buffer and subscribers of one run; mutations hold the channel's monitor. */
+    private static final class RunChannel {
+        final ArrayDeque<Outgoing> replay = new ArrayDeque<>();
+        final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        final Map<String, Integer> remoteSubscribers = new ConcurrentHashMap<>();
+        long lastId;
+        volatile boolean completed;
+        volatile long lastActivity = System.currentTimeMillis();
+
+        long nextId() {
+            lastId = Math.max(lastId + 1, System.currentTimeMillis() * 1000);
+            return lastId;
+        }
+
+        void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        boolean hasSubscribers() {
+            return !subscribers.isEmpty() || hasRemoteSubscribers();
+        }
+
+        boolean hasRemoteSubscribers() {
+            return !remoteSubscribers.isEmpty();
         }
     }
 
-    private int getEmitterCount(UUID runId) {
-        CopyOnWriteArrayList<SseEmitter> runEmitters = emitters.get(runId);
-        return runEmitters != null ? runEmitters.size() : 0;
+    /** One SSE client: a bounded send queue drained by at most one send task at a time. */
+    private final class Subscriber {
+        final UUID runId;
+        final SseEmitter emitter;
+        final BlockingQueue<Outgoing> queue = new ArrayBlockingQueue<>(subscriberQueueCapacity);
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(UUID runId, SseEmitter emitter) {
+            this.runId = runId;
+            this.emitter = emitter;
+        }
+
+        /** False when the subscriber is gone or too slow; it is then disconnected. */
+        boolean offer(Outgoing outgoing) {
+            if (closed) {
+                return false;
+            }
+            if (queue.offer(outgoing)) {
+                return true;
+            }
+            log.debug("SSE subscriber too slow, disconnecting: runId={}", runId);
+            metrics.recordEventSubscriberDropped("slow_consumer");
+            closed = true;
+            queue.clear();
+            schedule();
+            return false;
+        }
+
+        void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                sendExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                if (closed) {
+                    complete();
+                    return;
+                }
+                Outgoing next = queue.poll();
+                if (next == null) {
+                    draining.set(false);
+                    if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                if (next == END) {
+                    closed = true;
+                    complete();
+                    return;
+                }
+                try {
+                    SseEmitter.SseEventBuilder event = SseEmitter.event().name(next.name()).data(next.data());
+                    if (next.id() > 0) {
+                        event.id(Long.toString(next.id()));
+                    }
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Failed to send SSE event to emitter for runId={}: {}", runId, e.getMessage());
+                    metrics.recordEventSubscriberDropped("send_error");
+                    removeSubscriber(this);
+                    queue.clear();
+                    return;
+                }
+            }
+        }
+
+        private void complete() {
+            try {
+                emitter.complete();
+            } catch (Exception e) {
+                log.debug("Error completing SSE emitter for runId={}: {}", runId, e.getMessage());
+            }
+        }
     }
 }
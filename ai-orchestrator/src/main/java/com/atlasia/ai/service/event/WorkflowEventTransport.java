@@ -0,0 +1,24 @@
+package com.atlasia.ai.service.event;
+
+import java.util.function.Consumer;
+
+/**
+ * Distributes workflow events between orchestrator nodes, so an SSE client attached to any
+ * node sees the events of a run executing on another one.
+ *
+ * Selected with {@code atlasia.orchestrator.event-bus.transport}: {@code in-process} (default,
+ * single node) or {@code postgres} (LISTEN/NOTIFY on the orchestrator database).
+ * {@link WorkflowEventBus} always delivers to its own subscribers directly; the transport only
+ * carries envelopes to the other nodes, and hands envelopes from them to the receiver.
+ */
+public interface WorkflowEventTransport {
+
+    /** Send to the other nodes. Must not block the emitting workflow thread on I/O. */
+    void publish(EventEnvelope envelope);
+
+    /** Called once by the bus; envelopes from other nodes are passed to {@code receiver}. */
+    void start(Consumer<EventEnvelope> receiver);
+
+    /** Name used in metrics. */
+    String name();
+}
@@ -9,6 +9,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class OrchestratorMetrics {
@@ -609,6 +610,14 @@ public class OrchestratorMetrics {
 
     private final Map<String, Timer> agentExecutionTimers = new ConcurrentHashMap<>();
     private final Map<String, AtomicInteger> circuitBreakerStates = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> githubRateLimitRemaining = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> runQueueDepth = new ConcurrentHashMap<>();
+    private final AtomicInteger runQueueLeased = new AtomicInteger();
+    private final AtomicInteger webhookIngestBacklog = new AtomicInteger();
+    private final AtomicLong collaborationRetentionLag = new AtomicLong();
+    private final AtomicInteger traceWriteBacklog = new AtomicInteger();
+    private final AtomicLong llmResponseCacheHits = new AtomicLong();
+    private final AtomicLong llmResponseCacheLookups = new AtomicLong();
     
     private final Counter jwtTokenRefreshTotal;
     private final Counter jwtTokenRefreshFailureTotal;
@@ -716,6 +725,368 @@ public class OrchestratorMetrics {
             .increment(cost);
     }
 
+    /** Optimistic version conflict on ai_run during a step-scoped commit (retried). */
+    public void recordRunStateConflict() {
+        Counter.builder("orchestrator.run.state.conflicts.total")
+            .description("Optimistic lock conflicts on run state commits")
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /** TesterStep wake-up between check-run polls: "webhook" signal or "poll" fallback timeout. */
+    public void recordCiCompletionWakeup(String source) {
+        Counter.builder("orchestrator.ci.completion.wakeups.total")
+            .description("CI check-run wait wake-ups by source")
+            .tag("source", source)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /** GitHub App installation token cache outcome: hit, miss, mint, refresh or refresh_error. */
+    public void recordGitHubTokenCache(String outcome) {
+        Counter.builder("orchestrator.github.token.cache.total")
+            .description("GitHub App installation token cache lookups and refreshes")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /** Repo snapshot cache lookup: kind is tree or blob, outcome memory_hit, disk_hit or miss. */
+    public void recordRepoSnapshotCache(String kind, String outcome) {
+        Counter.builder("orchestrator.github.snapshot.cache.total")
+            .description("Content-addressed repo snapshot cache lookups")
+            .tag("kind", kind)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /** GitHub ETag revalidation outcome: stored, modified or not_modified (served from cache). */
+    public void recordGitHubConditionalRequest(String outcome) {
+        Counter.builder("orchestrator.github.conditional.requests.total")
+            .description("GitHub GET requests by ETag revalidation outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /** GitHub call held back by the rate-limit governor: paced, reserve or secondary_limit. */
+    public void recordGitHubRateLimitDeferral(String reason) {
+        Counter.builder("orchestrator.github.ratelimit.deferrals.total")
+            .description("GitHub API calls delayed to protect the rate-limit budget")
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    public void updateGitHubRateLimitRemaining(String resource, int remaining) {
+        githubRateLimitRemaining.computeIfAbsent(resource, name -> {
+            AtomicInteger gauge = new AtomicInteger(remaining);
+            Gauge.builder("orchestrator.github.ratelimit.remaining", gauge, AtomicInteger::get)
+                .description("Last observed X-RateLimit-Remaining per GitHub rate-limit resource")
+                .tag("resource", resource)
+                .register(meterRegistry);
+            return gauge;
+        }).set(remaining);
+    }
+
+    /** Duration of one Git Data API commit phase (blobs, tree, commit, ref) for a workflow step. */
+    public void recordCommitPhase(String agent, String phase, long durationMs) {
+        Timer.builder("orchestrator.git.commit.phase.duration")
+            .description("Time spent per phase when committing file changes to GitHub")
+            .tag("agent", agent)
+            .tag("phase", phase)
+            .register(meterRegistry)
+            .record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordInterruptResume(String trigger) {
+        Counter.builder("orchestrator.interrupt.resumes")
+            .description("Runs resumed from a suspended interrupt checkpoint")
+            .tag("trigger", trigger)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /** Queued (not yet admitted) runs per priority lane. */
+    public void updateRunQueueDepth(String lane, int depth) {
+        runQueueDepth.computeIfAbsent(lane, name -> {
+            AtomicInteger gauge = new AtomicInteger(depth);
+            Gauge.builder("orchestrator.run.queue.depth", gauge, AtomicInteger::get)
+                .description("Runs waiting in the durable run queue")
+                .tag("lane", lane)
+                .register(meterRegistry);
+            return gauge;
+        }).set(depth);
+    }
+
+    /** Runs currently holding a lease, across all orchestrator nodes. */
+    public void updateRunQueueLeased(int leased) {
+        runQueueLeased.set(leased);
+        Gauge.builder("orchestrator.run.queue.leased", runQueueLeased, AtomicInteger::get)
+            .description("Runs admitted from the run queue and holding a lease")
+            .register(meterRegistry);
+    }
+
+    /** Time a run spent queued before it was admitted. */
+    public void recordRunQueueWait(String lane, long waitMs) {
+        Timer.builder("orchestrator.run.queue.wait")
+            .description("Time between enqueue and admission in the durable run queue")
+            .tag("lane", lane)
+            .register(meterRegistry)
+            .record(waitMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Expired leases found by recovery: "requeued" or "abandoned" after too many attempts. */
+    public void recordRunQueueLeaseRecovery(String outcome) {
+        Counter.builder("orchestrator.run.queue.lease.recoveries")
+            .description("Orphaned run leases recovered from crashed or stalled nodes")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /** Webhook delivery outcome at the ingestion edge: queued, duplicate, overloaded, rejected. */
+    public void recordWebhookDelivery(String outcome) {
+        Counter.builder("orchestrator.webhook.deliveries")
+            .description("GitHub webhook deliveries by ingestion outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /** Deliveries acknowledged but not yet persisted and dispatched. */
+    public void updateWebhookIngestBacklog(int backlog) {
+        webhookIngestBacklog.set(backlog);
+        Gauge.builder("orchestrator.webhook.ingest.backlog", webhookIngestBacklog, AtomicInteger::get)
+            .description("Webhook deliveries waiting in the async ingestion queue")
+            .register(meterRegistry);
+    }
+
+    /** One ingestion batch: rows written and time from the oldest delivery's ack to dispatch. */
+    public void recordWebhookIngestBatch(int size, long lagMs) {
+        DistributionSummary.builder("orchestrator.webhook.ingest.batch.size")
+            .description("Webhook deliveries persisted per batch insert")
+            .register(meterRegistry)
+            .record(size);
+        Timer.builder("orchestrator.webhook.ingest.lag")
+            .description("Time between webhook ack and dispatch of its batch")
+            .register(meterRegistry)
+            .record(lagMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Time from sending a streaming LLM request to its first text delta. */
+    public void recordLlmTimeToFirstToken(String source, long millis) {
+        Timer.builder("orchestrator.llm.ttft")
+            .description("Time to first streamed token of an LLM completion")
+            .tag("source", source)
+            .register(meterRegistry)
+            .record(millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Prompt tokens served from the provider's prefix cache vs. processed in full, and the
+     * input spend avoided by the cache hits.
+     */
+    public void recordPromptCacheUsage(String providerId, int cachedTokens, int uncachedTokens, double savedUsd) {
+        String provider = providerId != null ? providerId : "unknown";
+        if (cachedTokens > 0) {
+            Counter.builder("orchestrator.llm.prompt.tokens")
+                .description("LLM prompt tokens by provider cache outcome")
+                .tag("provider", provider)
+                .tag("cache", "hit")
+                .register(meterRegistry)
+                .increment(cachedTokens);
+        }
+        if (uncachedTokens > 0) {
+            Counter.builder("orchestrator.llm.prompt.tokens")
+                .description("LLM prompt tokens by provider cache outcome")
+                .tag("provider", provider)
+                .tag("cache", "miss")
+                .register(meterRegistry)
+                .increment(uncachedTokens);
+        }
+        if (savedUsd > 0) {
+            Counter.builder("orchestrator.llm.prompt.cache.savings.usd")
+                .description("Input spend avoided by provider prompt caching")
+                .tag("provider", provider)
+                .register(meterRegistry)
+                .increment(savedUsd);
+        }
+    }
+
+    /**
+     * LLM response cache lookup: outcome "hit", "miss" or "bypass" (sampling temperature, cache off);
+     * tier is where a hit was found ("memory", "db") or "none".
+     */
+    public void recordLlmResponseCache(String outcome, String tier) {
+        Counter.builder("orchestrator.llm.response.cache")
+            .description("LLM response cache lookups by outcome")
+            .tag("outcome", outcome)
+            .tag("tier", tier)
+            .register(meterRegistry)
+            .increment();
+        if ("bypass".equals(outcome)) {
+            return;
+        }
+        llmResponseCacheLookups.incrementAndGet();
+        if ("hit".equals(outcome)) {
+            llmResponseCacheHits.incrementAndGet();
+        }
+        Gauge.builder("orchestrator.llm.response.cache.hit.ratio", this, m -> {
+                long lookups = m.llmResponseCacheLookups.get();
+                return lookups == 0 ? 0.0 : (double) m.llmResponseCacheHits.get() / lookups;
+            })
+            .description("Share of cacheable LLM calls answered from the response cache")
+            .register(meterRegistry);
+    }
+
+    /** Estimated spend avoided by serving an LLM call from the response cache. */
+    public void recordLlmResponseCacheSavings(double usd) {
+        Counter.builder("orchestrator.llm.response.cache.savings.usd")
+            .description("Estimated LLM spend avoided by response cache hits")
+            .register(meterRegistry)
+            .increment(usd);
+    }
+
+    /**
+     * One majority-vote round: {@code outcome} is early (decided before all voters returned),
+     * complete, or timeout (vote deadline hit; aggregated on whatever quorum arrived).
+     */
+    public void recordJudgeVoting(String outcome, int votesCollected, long durationMs) {
+        Counter.builder("orchestrator.judge.voting")
+            .description("Majority-vote rounds by how they finished")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+        DistributionSummary.builder("orchestrator.judge.voting.votes")
+            .description("Votes collected per majority-vote round")
+            .register(meterRegistry)
+            .record(votesCollected);
+        Timer.builder("orchestrator.judge.voting.duration")
+            .description("Wall-clock time of a majority-vote round")
+            .register(meterRegistry)
+            .record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Span writes waiting in the trace write-behind queue. */
+    public void updateTraceWriteBacklog(int backlog) {
+        traceWriteBacklog.set(backlog);
+        Gauge.builder("orchestrator.trace.write.backlog", traceWriteBacklog, AtomicInteger::get)
+            .description("Trace span writes waiting to be flushed")
+            .register(meterRegistry);
+    }
+
+    /** One trace flush: span writes in the batch, how long the batch took and how old its oldest write was. */
+    public void recordTraceFlush(int size, long flushMs, long lagMs) {
+        DistributionSummary.builder("orchestrator.trace.flush.batch.size")
+            .description("Trace span writes per flush")
+            .register(meterRegistry)
+            .record(size);
+        Timer.builder("orchestrator.trace.flush.duration")
+            .description("Time to write one batch of trace spans")
+            .register(meterRegistry)
+            .record(flushMs, TimeUnit.MILLISECONDS);
+        Timer.builder("orchestrator.trace.flush.lag")
+            .description("Time between a trace event and the flush that persisted it")
+            .register(meterRegistry)
+            .record(lagMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Trace span writes not persisted: queue_full (overflow policy) or flush_error. */
+    public void recordTraceWriteDropped(String reason, int count) {
+        Counter.builder("orchestrator.trace.write.dropped")
+            .description("Trace span writes dropped instead of persisted")
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment(count);
+    }
+
+    /** One audit flush: rows in the batch, how long the batch took and how old its oldest row was. */
+    public void recordAuditFlush(int size, long flushMs, long lagMs) {
+        DistributionSummary.builder("orchestrator.audit.flush.batch.size")
+            .description("Audit rows per write-behind flush")
+            .register(meterRegistry)
+            .record(size);
+        Timer.builder("orchestrator.audit.flush.duration")
+            .description("Time to write one batch of audit rows")
+            .register(meterRegistry)
+            .record(flushMs, TimeUnit.MILLISECONDS);
+        Timer.builder("orchestrator.audit.flush.lag")
+            .description("Time between an audited action and the flush that persisted it")
+            .register(meterRegistry)
+            .record(lagMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Audit rows not written by the write-behind queue: inline (queue full, written by the caller) or failed. */
+    public void recordAuditWrite(String outcome, int count) {
+        Counter.builder("orchestrator.audit.write")
+            .description("Audit rows written outside the write-behind queue, re-linked after a chain conflict, or lost")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment(count);
+    }
+
+    /** SSE subscribers cut off by the event bus: slow_consumer (send queue full) or send_error. */
+    public void recordEventSubscriberDropped(String reason) {
+        Counter.builder("orchestrator.events.subscriber.dropped")
+            .description("SSE subscribers disconnected by the workflow event bus")
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /** Events re-sent to a reconnecting SSE client from the per-run replay buffer. */
+    public void recordEventReplay(int events) {
+        Counter.builder("orchestrator.events.replayed")
+            .description("Workflow events replayed after Last-Event-ID reconnects")
+            .register(meterRegistry)
+            .increment(events);
+    }
+
+    /** Cross-node event distribution: published, received, oversized or publish_error. */
+    public void recordEventTransport(String transport, String outcome) {
+        Counter.builder("orchestrator.events.transport")
+            .description("Workflow events exchanged with other orchestrator nodes")
+            .tag("transport", transport)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /** Bytes sent on the CRDT mesh: delta (live mutations), request (version vectors) or anti_entropy. */
+    public void recordCrdtSyncBytes(String type, long bytes) {
+        Counter.builder("orchestrator.crdt.sync.bytes")
+            .description("Bytes of CRDT state sent to peer regions")
+            .baseUnit("bytes")
+            .tag("type", type)
+            .register(meterRegistry)
+            .increment(bytes);
+    }
+
+    /** Collaboration messages persisted since their run was last trimmed to its retention window. */
+    public void updateCollaborationRetentionLag(long messages) {
+        collaborationRetentionLag.set(messages);
+        Gauge.builder("orchestrator.collaboration.retention.lag", collaborationRetentionLag, AtomicLong::get)
+            .description("Persisted collaboration messages not yet covered by a retention pass")
+            .register(meterRegistry);
+    }
+
+    public void recordCollaborationMessagesTrimmed(int count) {
+        Counter.builder("orchestrator.collaboration.messages.trimmed")
+            .description("Persisted collaboration messages deleted by retention")
+            .register(meterRegistry)
+            .increment(count);
+    }
+
+    /** Presence and cursor messages not persisted: write queue full or batch insert failed. */
+    public void recordCollaborationMessagesDropped(int count) {
+        Counter.builder("orchestrator.collaboration.messages.dropped")
+            .description("Collaboration messages that could not be queued or written")
+            .register(meterRegistry)
+            .increment(count);
+    }
+
     private void registerCircuitBreakerGauges() {
     }
 
@@ -3,30 +3,126 @@ package com.atlasia.ai.service.trace;
 import com.atlasia.ai.model.TraceEventEntity;
 import com.atlasia.ai.persistence.TraceEventRepository;
 import com.atlasia.ai.service.event.WorkflowEvent;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Listens to WorkflowEventBus events and persists trace spans
  * with parent stack tracking per run.
+ *
+ * Recording never touches the database: open spans are tracked in a per-run in-memory index
+ * (current step, open LLM calls, open grafts) and span inserts/closes go onto a bounded
+ * write-behind queue. A single writer thread drains it in batches, folding a close into the
+ * insert of the same span when both are in one batch, and writes each batch in one
+ * transaction (inserts are JDBC-batched; closes load their spans with one IN query). When the
+ * queue is full a write is dropped ({@code trace.overflow-policy=drop}) or the caller waits up
+ * to {@code trace.block-timeout-ms} first ({@code block}); either way a workflow is never
+ * failed or stalled indefinitely by tracing.
  */
 @Service
 public class TraceEventService {
 
     private static final Logger log = LoggerFactory.getLogger(TraceEventService.class);
 
+    /** Values a span receives when it ends; a null field leaves the column unchanged. */
+    record SpanClose(Instant endTime, Long durationMs, Integer tokensUsed, String metadata) {
+        void applyTo(TraceEventEntity span) {
+            span.setEndTime(endTime);
+            if (durationMs != null) span.setDurationMs(durationMs);
+            if (tokensUsed != null) span.setTokensUsed(tokensUsed);
+            if (metadata != null) span.setMetadata(metadata);
+        }
+    }
+
+    /** One queued write: {@code insert} for a new span, otherwise {@code close} for an open one. */
+    record SpanWrite(UUID spanId, TraceEventEntity insert, SpanClose close, long enqueuedAtMillis) {}
+
+    /** Open spans of one run. Events of a run arrive from the workflow thread and its helpers. */
+    private static final class RunSpans {
+        volatile UUID currentStep;
+        final Deque<UUID> openLlmCalls = new ConcurrentLinkedDeque<>();
+        final Map<String, UUID> openGrafts = new ConcurrentHashMap<>();
+        /** Spans whose insert was dropped: later closes are skipped and children get no parent. */
+        final Set<UUID> dropped = ConcurrentHashMap.newKeySet();
+    }
+
     private final TraceEventRepository traceEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OrchestratorMetrics metrics;
+    private final BlockingQueue<SpanWrite> queue;
+    private final int batchSize;
+    private final long lingerMs;
+    private final boolean blockOnFull;
+    private final long blockTimeoutMs;
 
-    // Tracks the current parent span per run for nesting
-    private final ConcurrentHashMap<UUID, UUID> currentStepSpan = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, RunSpans> runs = new ConcurrentHashMap<>();
 
-    public TraceEventService(TraceEventRepository traceEventRepository) {
+    private volatile boolean running;
+    private Thread writer;
+
+    public TraceEventService(
+            TraceEventRepository traceEventRepository,
+            PlatformTransactionManager transactionManager,
+            OrchestratorMetrics metrics,
+            @Value("${atlasia.orchestrator.trace.queue-capacity:20000}") int queueCapacity,
+            @Value("${atlasia.orchestrator.trace.batch-size:200}") int batchSize,
+            @Value("${atlasia.orchestrator.trace.flush-linger-ms:200}") long lingerMs,
+            @Value("${atlasia.orchestrator.trace.overflow-policy:drop}") String overflowPolicy,
+            @Value("${atlasia.orchestrator.trace.block-timeout-ms:50}") long blockTimeoutMs) {
         this.traceEventRepository = traceEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerMs = Math.max(0, lingerMs);
+        this.blockOnFull = "block".equalsIgnoreCase(overflowPolicy);
+        this.blockTimeoutMs = Math.max(0, blockTimeoutMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "trace-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        while (drainBatch() > 0) {
+            // flush what is left
+        }
     }
 
     /**
@@ -74,46 +170,40 @@ public class TraceEventService {
                 spanId, event.runId(), null, "STEP",
                 event.agentName(), event.agentName() + " — " + event.stepPhase(),
                 event.timestamp());
-        traceEventRepository.save(span);
-        currentStepSpan.put(event.runId(), spanId);
+        enqueueInsert(span);
+        spans(event.runId()).currentStep = spanId;
     }
 
     private void handleStepComplete(WorkflowEvent.StepComplete event) {
-        UUID parentSpanId = currentStepSpan.get(event.runId());
-        if (parentSpanId != null) {
-            traceEventRepository.findById(parentSpanId).ifPresent(span -> {
-                span.setEndTime(event.timestamp());
-                span.setDurationMs(event.durationMs());
-                traceEventRepository.save(span);
-            });
+        UUID stepSpanId = spans(event.runId()).currentStep;
+        if (stepSpanId != null) {
+            enqueueClose(event.runId(), stepSpanId,
+                    new SpanClose(event.timestamp(), event.durationMs(), null, null));
         }
     }
 
     private void handleLlmCallStart(WorkflowEvent.LlmCallStart event) {
-        UUID parentSpanId = currentStepSpan.get(event.runId());
+        UUID parentSpanId = parentSpan(event.runId());
         UUID spanId = UUID.randomUUID();
         TraceEventEntity span = new TraceEventEntity(
                 spanId, event.runId(), parentSpanId, "LLM_CALL",
                 event.agentName(), "LLM call — " + event.model(),
                 event.timestamp());
-        traceEventRepository.save(span);
+        enqueueInsert(span);
+        spans(event.runId()).openLlmCalls.addLast(spanId);
     }
 
     private void handleLlmCallEnd(WorkflowEvent.LlmCallEnd event) {
-        // Find the most recent LLM_CALL span without end_time for this run
-        traceEventRepository.findByRunIdOrderByStartTimeAsc(event.runId()).stream()
-                .filter(e -> "LLM_CALL".equals(e.getEventType()) && e.getEndTime() == null)
-                .reduce((a, b) -> b) // get last
-                .ifPresent(span -> {
-                    span.setEndTime(event.timestamp());
-                    span.setDurationMs(event.durationMs());
-                    span.setTokensUsed(event.tokensUsed());
-                    traceEventRepository.save(span);
-                });
+        // Closes the most recently opened LLM_CALL span of this run
+        UUID spanId = spans(event.runId()).openLlmCalls.pollLast();
+        if (spanId != null) {
+            enqueueClose(event.runId(), spanId,
+                    new SpanClose(event.timestamp(), event.durationMs(), event.tokensUsed(), null));
+        }
     }
 
     private void handleSchemaValidation(WorkflowEvent.SchemaValidation event) {
-        UUID parentSpanId = currentStepSpan.get(event.runId());
+        UUID parentSpanId = parentSpan(event.runId());
         TraceEventEntity span = new TraceEventEntity(
                 UUID.randomUUID(), event.runId(), parentSpanId, "SCHEMA_VALIDATION",
                 event.agentName(), "Schema: " + event.schemaName() + (event.passed() ? " PASS" : " FAIL"),
@@ -121,11 +211,11 @@ public class TraceEventService {
         span.setEndTime(event.timestamp());
         span.setDurationMs(0L);
         span.setMetadata(String.format("{\"schemaName\":\"%s\",\"passed\":%s}", event.schemaName(), event.passed()));
-        traceEventRepository.save(span);
+        enqueueInsert(span);
     }
 
     private void handleError(WorkflowEvent.WorkflowError event) {
-        UUID parentSpanId = currentStepSpan.get(event.runId());
+        UUID parentSpanId = parentSpan(event.runId());
         TraceEventEntity span = new TraceEventEntity(
                 UUID.randomUUID(), event.runId(), parentSpanId, "ERROR",
                 event.agentName(), "Error: " + event.errorType(),
@@ -134,18 +224,18 @@ public class TraceEventService {
         span.setDurationMs(0L);
         span.setMetadata(String.format("{\"errorType\":\"%s\",\"message\":\"%s\"}",
                 event.errorType(), event.message().replace("\"", "\\\"")));
-        traceEventRepository.save(span);
+        enqueueInsert(span);
     }
 
     private void handleEscalation(WorkflowEvent.EscalationRaised event) {
-        UUID parentSpanId = currentStepSpan.get(event.runId());
+        UUID parentSpanId = parentSpan(event.runId());
         TraceEventEntity span = new TraceEventEntity(
                 UUID.randomUUID(), event.runId(), parentSpanId, "ESCALATION",
                 event.agentName(), "Escalation: " + event.reason(),
                 event.timestamp());
         span.setEndTime(event.timestamp());
         span.setDurationMs(0L);
-        traceEventRepository.save(span);
+        enqueueInsert(span);
     }
 
     private void handleStatusUpdate(WorkflowEvent.WorkflowStatusUpdate event) {
@@ -157,58 +247,47 @@ public class TraceEventService {
         span.setDurationMs(0L);
         span.setMetadata(String.format("{\"status\":\"%s\",\"progressPercent\":%d}",
                 event.status(), event.progressPercent()));
-        traceEventRepository.save(span);
+        enqueueInsert(span);
     }
 
     private void handleGraftStart(WorkflowEvent.GraftStart event) {
-        UUID parentSpanId = currentStepSpan.get(event.runId());
+        UUID parentSpanId = parentSpan(event.runId());
         UUID spanId = UUID.randomUUID();
         TraceEventEntity span = new TraceEventEntity(
                 spanId, event.runId(), parentSpanId, "GRAFT",
                 event.agentName(), "Graft " + event.graftId() + " — " + event.agentName() + " (after " + event.checkpointAfter() + ")",
                 event.timestamp());
-        traceEventRepository.save(span);
+        enqueueInsert(span);
+        spans(event.runId()).openGrafts.put(event.graftId(), spanId);
     }
 
     private void handleGraftComplete(WorkflowEvent.GraftComplete event) {
-        traceEventRepository.findByRunIdOrderByStartTimeAsc(event.runId()).stream()
-                .filter(e -> "GRAFT".equals(e.getEventType()) && 
-                             e.getLabel().contains(event.graftId()) && 
-                             e.getEndTime() == null)
-                .reduce((a, b) -> b)
-                .ifPresent(span -> {
-                    span.setEndTime(event.timestamp());
-                    span.setDurationMs(event.durationMs());
-                    span.setMetadata(String.format("{\"graftId\":\"%s\",\"artifactId\":\"%s\"}",
-                            event.graftId(), event.artifactId()));
-                    traceEventRepository.save(span);
-                });
+        UUID spanId = spans(event.runId()).openGrafts.remove(event.graftId());
+        if (spanId != null) {
+            enqueueClose(event.runId(), spanId, new SpanClose(event.timestamp(), event.durationMs(), null,
+                    String.format("{\"graftId\":\"%s\",\"artifactId\":\"%s\"}",
+                            event.graftId(), event.artifactId())));
+        }
     }
 
     private void handleGraftFailed(WorkflowEvent.GraftFailed event) {
-        traceEventRepository.findByRunIdOrderByStartTimeAsc(event.runId()).stream()
-                .filter(e -> "GRAFT".equals(e.getEventType()) && 
-                             e.getLabel().contains(event.graftId()) && 
-                             e.getEndTime() == null)
-                .reduce((a, b) -> b)
-                .ifPresent(span -> {
-                    span.setEndTime(event.timestamp());
-                    span.setDurationMs(0L);
-                    span.setMetadata(String.format("{\"graftId\":\"%s\",\"errorType\":\"%s\",\"message\":\"%s\"}",
-                            event.graftId(), event.errorType(), event.message().replace("\"", "\\\"")));
-                    traceEventRepository.save(span);
-                });
+        UUID spanId = spans(event.runId()).openGrafts.remove(event.graftId());
+        if (spanId != null) {
+            enqueueClose(event.runId(), spanId, new SpanClose(event.timestamp(), 0L, null,
+                    String.format("{\"graftId\":\"%s\",\"errorType\":\"%s\",\"message\":\"%s\"}",
+                            event.graftId(), event.errorType(), event.message().replace("\"", "\\\""))));
+        }
     }
 
     private void handleBlackboardWrite(WorkflowEvent.BlackboardWrite event) {
-        UUID parentSpanId = currentStepSpan.get(event.runId());
+        UUID parentSpanId = parentSpan(event.runId());
         TraceEventEntity span = new TraceEventEntity(
                 UUID.randomUUID(), event.runId(), parentSpanId, "BLACKBOARD",
                 event.agentName(), "Write " + event.entryKey() + " v" + event.version(),
                 event.timestamp());
         span.setEndTime(event.timestamp());
         span.setDurationMs(0L);
-        traceEventRepository.save(span);
+        enqueueInsert(span);
     }
 
     private void handleGatePause(WorkflowEvent.GatePause event) {
@@ -218,10 +297,150 @@ public class TraceEventService {
                 event.timestamp());
         span.setEndTime(event.timestamp());
         span.setDurationMs(0L);
-        traceEventRepository.save(span);
+        enqueueInsert(span);
     }
 
     public void cleanup(UUID runId) {
-        currentStepSpan.remove(runId);
+        runs.remove(runId);
+    }
+
+    // --- Open-span index ---
+
+    private RunSpans spans(UUID runId) {
+        return runs.computeIfAbsent(runId, id -> new RunSpans());
+    }
+
+    private UUID parentSpan(UUID runId) {
+        RunSpans run = spans(runId);
+        UUID step = run.currentStep;
+        return step != null && !run.dropped.contains(step) ? step : null;
+    }
+
+    // --- Write-behind queue ---
+
+    private void enqueueInsert(TraceEventEntity span) {
+        if (!enqueue(new SpanWrite(span.getId(), span, null, System.currentTimeMillis()))) {
+            RunSpans run = spans(span.getRunId());
+            if (run.dropped.isEmpty()) {
+                log.warn("Trace write queue full, dropping spans: runId={}, capacity={}",
+                        span.getRunId(), queue.remainingCapacity() + queue.size());
+            }
+            run.dropped.add(span.getId());
+        }
+    }
+
+    private void enqueueClose(UUID runId, UUID spanId, SpanClose close) {
+        if (spans(runId).dropped.remove(spanId)) {
+            return;
+        }
+        enqueue(new SpanWrite(spanId, null, close, System.currentTimeMillis()));
+    }
+
+    private boolean enqueue(SpanWrite write) {
+        boolean accepted;
+        try {
+            accepted = blockOnFull
+                    ? queue.offer(write, blockTimeoutMs, TimeUnit.MILLISECONDS)
+                    : queue.offer(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            metrics.recordTraceWriteDropped("queue_full", 1);
+        }
+        return accepted;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                SpanWrite first = queue.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    if (lingerMs > 0) {
+                        // Let the batch fill and short spans close before writing.
+                        Thread.sleep(lingerMs);
+                    }
+                    flush(first);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Trace flush failed", e);
+            }
+        }
+    }
+
+    /** Flush one batch synchronously; returns the number of writes taken off the queue. */
+    int drainBatch() {
+        SpanWrite first = queue.poll();
+        if (first == null) {
+            return 0;
+        }
+        return flush(first);
+    }
+
+    private int flush(SpanWrite first) {
+        List<SpanWrite> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        metrics.updateTraceWriteBacklog(queue.size());
+        long start = System.currentTimeMillis();
+
+        // Fold closes into inserts of the same batch: a span that opened and closed between
+        // flushes is written once, already closed.
+        Map<UUID, TraceEventEntity> inserts = new LinkedHashMap<>();
+        Map<UUID, SpanClose> closes = new LinkedHashMap<>();
+        for (SpanWrite write : batch) {
+            if (write.insert() != null) {
+                inserts.put(write.spanId(), write.insert());
+            } else if (inserts.containsKey(write.spanId())) {
+                write.close().applyTo(inserts.get(write.spanId()));
+            } else {
+                closes.put(write.spanId(), write.close());
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(inserts.values(), closes));
+        } catch (Exception e) {
+            log.warn("Trace batch write failed, retrying span by span: size={}, error={}", batch.size(), e.getMessage());
+            int failed = 0;
+            for (TraceEventEntity span : inserts.values()) {
+                failed += writeOne(List.of(span), Map.of());
+            }
+            for (Map.Entry<UUID, SpanClose> close : closes.entrySet()) {
+                failed += writeOne(List.of(), Map.of(close.getKey(), close.getValue()));
+            }
+            if (failed > 0) {
+                metrics.recordTraceWriteDropped("flush_error", failed);
+            }
+        }
+        long now = System.currentTimeMillis();
+        metrics.recordTraceFlush(batch.size(), now - start, Math.max(0, now - first.enqueuedAtMillis()));
+        return batch.size();
+    }
+
+    private int writeOne(Collection<TraceEventEntity> inserts, Map<UUID, SpanClose> closes) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(inserts, closes));
+            return 0;
+        } catch (Exception e) {
+            log.debug("Trace span write failed: {}", e.getMessage());
+            return 1;
+        }
+    }
+
+    private void write(Collection<TraceEventEntity> inserts, Map<UUID, SpanClose> closes) {
+        if (!inserts.isEmpty()) {
+            traceEventRepository.saveAll(inserts);
+        }
+        if (!closes.isEmpty()) {
+            // Managed entities: the changes are flushed as batched UPDATEs on commit.
+            for (TraceEventEntity span : traceEventRepository.findAllById(closes.keySet())) {
+                closes.get(span.getId()).applyTo(span);
+            }
+        }
     }
 }
@@ -0,0 +1,147 @@
+package com.atlasia.ai.service.trace;
+
+import com.atlasia.ai.persistence.TraceEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Retention for ai_trace_event.
+ *
+ * On PostgreSQL the table is range-partitioned by UTC day (V35 under db/vendor/postgresql):
+ * each pass creates the partitions for the next {@code partition-days-ahead} days and drops
+ * the daily partitions that lie entirely before the retention cutoff, which is a catalog
+ * operation rather than a row delete. Elsewhere (H2 in tests and local runs) old spans are
+ * deleted row by row.
+ */
+@Service
+public class TracePartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(TracePartitionMaintenance.class);
+
+    static final String TABLE = "ai_trace_event";
+    private static final Pattern DAILY_PARTITION = Pattern.compile(TABLE + "_p(\\d{8})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TraceEventRepository traceEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int daysAhead;
+    private final Clock clock;
+
+    private volatile Boolean partitioned;
+
+    @Autowired
+    public TracePartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                     TraceEventRepository traceEventRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${atlasia.orchestrator.trace.retention-days:30}") int retentionDays,
+                                     @Value("${atlasia.orchestrator.trace.partition-days-ahead:3}") int daysAhead) {
+        this(jdbcTemplate, traceEventRepository, transactionManager, retentionDays, daysAhead, Clock.systemUTC());
+    }
+
+    TracePartitionMaintenance(JdbcTemplate jdbcTemplate,
+                              TraceEventRepository traceEventRepository,
+                              PlatformTransactionManager transactionManager,
+                              int retentionDays,
+                              int daysAhead,
+                              Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.traceEventRepository = traceEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionDays = retentionDays;
+        this.daysAhead = Math.max(1, daysAhead);
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${atlasia.orchestrator.trace.maintenance-interval-ms:3600000}",
+               initialDelayString = "${atlasia.orchestrator.trace.maintenance-initial-delay-ms:60000}")
+    public void maintain() {
+        try {
+            LocalDate today = LocalDate.now(clock);
+            if (isPartitioned()) {
+                createUpcomingPartitions(today);
+                if (retentionDays > 0) {
+                    dropExpiredPartitions(today.minusDays(retentionDays));
+                }
+            } else if (retentionDays > 0) {
+                Instant cutoff = today.minusDays(retentionDays).atStartOfDay(ZoneOffset.UTC).toInstant();
+                Integer deleted = transactionTemplate.execute(status -> traceEventRepository.deleteByStartTimeBefore(cutoff));
+                if (deleted != null && deleted > 0) {
+                    log.info("Deleted {} trace spans older than {}", deleted, cutoff);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Trace retention pass failed: {}", e.getMessage());
+        }
+    }
+
+    boolean isPartitioned() {
+        Boolean known = partitioned;
+        if (known == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            known = "PostgreSQL".equalsIgnoreCase(product) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                    "WHERE c.relname = ?)", Boolean.class, TABLE));
+            partitioned = known;
+        }
+        return known;
+    }
+
+    private void createUpcomingPartitions(LocalDate today) {
+        for (LocalDate day = today; !day.isAfter(today.plusDays(daysAhead)); day = day.plusDays(1)) {
+            try {
+                // Bounds are formatted from LocalDate, so nothing user-supplied reaches the DDL.
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')",
+                        partitionName(day), TABLE, day, day.plusDays(1)));
+            } catch (Exception e) {
+                // Typically rows for that day already sit in the default partition.
+                log.warn("Could not create trace partition for {}: {}", day, e.getMessage());
+            }
+        }
+    }
+
+    private void dropExpiredPartitions(LocalDate cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ?", String.class, TABLE);
+        int dropped = 0;
+        for (String name : partitions) {
+            Matcher m = DAILY_PARTITION.matcher(name);
+            if (m.matches() && LocalDate.parse(m.group(1), SUFFIX).isBefore(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+                dropped++;
+            }
+        }
+        int strays = jdbcTemplate.update("DELETE FROM " + TABLE + "_default WHERE start_time < ?",
+                Timestamp.from(cutoff.atStartOfDay(ZoneOffset.UTC).toInstant()));
+        if (dropped > 0 || strays > 0) {
+            log.info("Trace retention: dropped {} daily partitions before {}, {} rows from the default partition",
+                    dropped, cutoff, strays);
+        }
+    }
+
+    static String partitionName(LocalDate day) {
+        return TABLE + "_p" + day.format(SUFFIX);
+    }
+}
@@ -0,0 +1,137 @@
+package com.atlasia.ai.service.trace;
+
+import com.atlasia.ai.model.TraceEventEntity;
+import com.atlasia.ai.persistence.TraceEventRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * Writes a run's trace as the nested waterfall JSON (roots in start order, each span with its
+ * {@code children}) straight to an output stream.
+ *
+ * The tree is shaped from the (id, parent) links alone; span rows are then read in
+ * depth-first order, {@code batchSize} at a time, and written as they arrive. Memory is bounded
+ * by the link index and one batch however large the trace is, and the nested DTO tree is never
+ * built. A span whose parent is not in the run (e.g. aged out by retention) is written as a root.
+ */
+@Component
+public class TraceWaterfallWriter {
+
+    private final TraceEventRepository traceEventRepository;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public TraceWaterfallWriter(TraceEventRepository traceEventRepository,
+                                ObjectMapper objectMapper,
+                                @Value("${atlasia.orchestrator.trace.waterfall-batch-size:500}") int batchSize) {
+        this.traceEventRepository = traceEventRepository;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    private record Node(UUID id, int depth) {}
+
+    public void write(UUID runId, OutputStream out) throws IOException {
+        List<Node> order = depthFirstOrder(traceEventRepository.findLinksByRunId(runId));
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            json.writeStartArray();
+            int openDepth = -1;
+            int skipBelow = Integer.MAX_VALUE;
+            for (int from = 0; from < order.size(); from += batchSize) {
+                List<Node> batch = order.subList(from, Math.min(order.size(), from + batchSize));
+                Map<UUID, TraceEventEntity> spans = new HashMap<>();
+                for (TraceEventEntity span : traceEventRepository.findAllById(batch.stream().map(Node::id).toList())) {
+                    spans.put(span.getId(), span);
+                }
+                for (Node node : batch) {
+                    if (node.depth() > skipBelow) {
+                        continue;
+                    }
+                    skipBelow = Integer.MAX_VALUE;
+                    TraceEventEntity span = spans.get(node.id());
+                    if (span == null) {
+                        // Deleted since the links were read: leave out its subtree too.
+                        skipBelow = node.depth();
+                        continue;
+                    }
+                    // Close the spans that are not ancestors of this one.
+                    for (; openDepth >= node.depth(); openDepth--) {
+                        json.writeEndArray();
+                        json.writeEndObject();
+                    }
+                    writeSpan(json, span);
+                    openDepth = node.depth();
+                }
+                json.flush();
+            }
+            for (; openDepth >= 0; openDepth--) {
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+    }
+
+    /**
+     * Spans in the order they appear in the nested output, with their depth. Links are in start
+     * order, so roots and siblings keep that order as before.
+     */
+    static List<Node> depthFirstOrder(List<TraceEventRepository.SpanLink> links) {
+        Set<UUID> ids = new HashSet<>();
+        links.forEach(link -> ids.add(link.getId()));
+
+        List<UUID> roots = new ArrayList<>();
+        Map<UUID, List<UUID>> children = new HashMap<>();
+        for (TraceEventRepository.SpanLink link : links) {
+            UUID parent = link.getParentEventId();
+            if (parent == null || !ids.contains(parent) || parent.equals(link.getId())) {
+                roots.add(link.getId());
+            } else {
+                children.computeIfAbsent(parent, k -> new ArrayList<>()).add(link.getId());
+            }
+        }
+
+        List<Node> order = new ArrayList<>(links.size());
+        Set<UUID> visited = new HashSet<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        for (int i = roots.size() - 1; i >= 0; i--) {
+            stack.push(new Node(roots.get(i), 0));
+        }
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (!visited.add(node.id())) {
+                continue;
+            }
+            order.add(node);
+            List<UUID> kids = children.getOrDefault(node.id(), List.of());
+            for (int i = kids.size() - 1; i >= 0; i--) {
+                stack.push(new Node(kids.get(i), node.depth() + 1));
+            }
+        }
+        return order;
+    }
+
+    private void writeSpan(JsonGenerator json, TraceEventEntity span) throws IOException {
+        json.writeStartObject();
+        json.writeObjectField("id", span.getId());
+        json.writeObjectField("parentEventId", span.getParentEventId());
+        json.writeStringField("eventType", span.getEventType());
+        json.writeStringField("agentName", span.getAgentName());
+        json.writeStringField("label", span.getLabel());
+        json.writeObjectField("startTime", span.getStartTime());
+        json.writeObjectField("endTime", span.getEndTime());
+        json.writeObjectField("durationMs", span.getDurationMs());
+        json.writeObjectField("tokensUsed", span.getTokensUsed());
+        json.writeStringField("metadata", span.getMetadata());
+        json.writeArrayFieldStart("children");
+    }
+}
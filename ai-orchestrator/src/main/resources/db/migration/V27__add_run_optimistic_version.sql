@@ -0,0 +1,6 @@
+-- Optimistic locking for ai_run.
+-- WorkflowEngine commits each step in its own short transaction; the version column
+-- lets concurrent writers (collaboration prunes/grafts, HITL gate responses) detect
+-- lost updates instead of silently overwriting each other.
+
+ALTER TABLE ai_run ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,20 @@
+-- Human-approval interrupts raised by DynamicInterruptService.
+-- One row per suspended run: WorkflowEngine writes it when it parks the run in WAITING_GATE,
+-- OversightController records the decision on it, and the engine deletes it once the
+-- decision has been consumed at the same checkpoint. Surviving a restart is the point.
+
+CREATE TABLE ai_pending_interrupt (
+    run_id              UUID         PRIMARY KEY,
+    agent_name          VARCHAR(50)  NOT NULL,
+    action              VARCHAR(100) NOT NULL,
+    rule_name           VARCHAR(100),
+    tier                VARCHAR(20),
+    message             TEXT,
+    continuation_state  TEXT,
+    decision            VARCHAR(20),
+    decided_by          VARCHAR(255),
+    created_at          TIMESTAMP    NOT NULL,
+    decided_at          TIMESTAMP
+);
+
+CREATE INDEX idx_pending_interrupt_open ON ai_pending_interrupt(decision, created_at);
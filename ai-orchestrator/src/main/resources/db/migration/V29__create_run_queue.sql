@@ -0,0 +1,29 @@
+-- Durable run queue in front of WorkflowEngine.
+-- Controllers enqueue; every orchestrator node polls, claims QUEUED rows with
+-- FOR UPDATE SKIP LOCKED and leases them while the run executes. A lease that is not
+-- heartbeated (node crash, stall) expires and the run is requeued.
+-- ai_run_queue_admission holds a single row locked for the duration of one admission
+-- pass, so global and per-repo concurrency limits hold across nodes.
+
+CREATE TABLE ai_run_queue (
+    run_id            UUID         PRIMARY KEY,
+    repo              VARCHAR(255) NOT NULL,
+    lane              VARCHAR(20)  NOT NULL,
+    priority          INTEGER      NOT NULL,
+    status            VARCHAR(20)  NOT NULL,
+    attempts          INTEGER      NOT NULL DEFAULT 0,
+    enqueued_at       TIMESTAMP    NOT NULL,
+    leased_at         TIMESTAMP,
+    lease_owner       VARCHAR(255),
+    lease_expires_at  TIMESTAMP
+);
+
+CREATE INDEX idx_run_queue_claim ON ai_run_queue(status, priority, enqueued_at);
+CREATE INDEX idx_run_queue_lease ON ai_run_queue(status, lease_expires_at);
+
+CREATE TABLE ai_run_queue_admission (
+    id          INTEGER   PRIMARY KEY,
+    updated_at  TIMESTAMP
+);
+
+INSERT INTO ai_run_queue_admission (id) VALUES (1);
@@ -0,0 +1,5 @@
+-- GitHub delivery id (X-GitHub-Delivery) for redelivery de-duplication.
+-- NULL for rows recorded before this column existed and for unsigned deliveries.
+ALTER TABLE webhook_events ADD COLUMN delivery_id VARCHAR(64);
+
+CREATE UNIQUE INDEX idx_webhook_events_delivery_id ON webhook_events(delivery_id);
@@ -0,0 +1,14 @@
+-- Persistent tier of the LLM response cache (LlmResponseCache).
+-- Keyed on a SHA-256 of (routing model, normalized prompts, schema hash, temperature);
+-- only deterministic calls are stored. Expired rows are purged on a schedule.
+
+CREATE TABLE ai_llm_response_cache (
+    cache_key   VARCHAR(64)      PRIMARY KEY,
+    model_key   VARCHAR(255)     NOT NULL,
+    content     TEXT             NOT NULL,
+    cost_usd    DOUBLE PRECISION NOT NULL DEFAULT 0,
+    created_at  TIMESTAMP        NOT NULL,
+    expires_at  TIMESTAMP        NOT NULL
+);
+
+CREATE INDEX idx_llm_response_cache_expires ON ai_llm_response_cache(expires_at);
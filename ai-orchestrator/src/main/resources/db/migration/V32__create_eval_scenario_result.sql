@@ -0,0 +1,20 @@
+-- Per-scenario results of an evaluation suite run (EvalSuiteService).
+-- Written as each scenario finishes so an interrupted suite can be resumed under the same
+-- suite_run_id without re-grading the scenarios that already completed.
+
+CREATE TABLE ai_eval_scenario_result (
+    id                       UUID             PRIMARY KEY,
+    suite_run_id             UUID             NOT NULL,
+    scenario_id              VARCHAR(255)     NOT NULL,
+    pass                     BOOLEAN          NOT NULL,
+    pass_at_1                BOOLEAN          NOT NULL,
+    pass_at_2                BOOLEAN          NOT NULL,
+    overall_score            DOUBLE PRECISION NOT NULL,
+    groundedness_score       DOUBLE PRECISION NOT NULL,
+    correctness_score        DOUBLE PRECISION NOT NULL,
+    protocol_adherence_score DOUBLE PRECISION NOT NULL,
+    duration_ms              BIGINT           NOT NULL,
+    outcome_match            BOOLEAN          NOT NULL,
+    completed_at             TIMESTAMP        NOT NULL,
+    CONSTRAINT uq_eval_scenario_result UNIQUE (suite_run_id, scenario_id)
+);
@@ -0,0 +1,10 @@
+-- Keyset pagination for GET /api/runs: newest first on (created_at, id), optionally filtered by
+-- repo or status. Each index serves both the filter and the ORDER BY, so a page is an index
+-- range scan of page-size rows however many historical runs there are.
+
+CREATE INDEX idx_ai_run_created_at_id ON ai_run(created_at DESC, id DESC);
+CREATE INDEX idx_ai_run_repo_created_at_id ON ai_run(repo, created_at DESC, id DESC);
+CREATE INDEX idx_ai_run_status_created_at_id ON ai_run(status, created_at DESC, id DESC);
+
+-- Superseded by idx_ai_run_created_at_id (same leading column).
+DROP INDEX IF EXISTS idx_ai_run_created_at;
@@ -0,0 +1,67 @@
+-- Daily analytics rollups (AnalyticsRollupService). One UTC day of runs, keyed by run
+-- created_at, is recomputed as a whole whenever one of its runs reaches a terminal status, so a
+-- refresh is idempotent. AnalyticsService and PersonaLearningService read these rows for closed
+-- days and only compute the current day from ai_run / ai_run_artifact.
+
+CREATE TABLE analytics_run_daily (
+    id                    UUID         PRIMARY KEY,
+    rollup_day            DATE         NOT NULL,
+    repo                  VARCHAR(255) NOT NULL,
+    status                VARCHAR(50)  NOT NULL,
+    run_count             BIGINT       NOT NULL,
+    ci_fix_total          BIGINT       NOT NULL,
+    e2e_fix_total         BIGINT       NOT NULL,
+    ci_fix_max            INT          NOT NULL,
+    e2e_fix_max           INT          NOT NULL,
+    ci_loop_runs          BIGINT       NOT NULL,
+    e2e_loop_runs         BIGINT       NOT NULL,
+    multi_ci_runs         BIGINT       NOT NULL,
+    multi_e2e_runs        BIGINT       NOT NULL,
+    persona_reviewed_runs BIGINT       NOT NULL,
+    CONSTRAINT uq_analytics_run_daily UNIQUE (rollup_day, repo, status)
+);
+
+CREATE TABLE analytics_agent_daily (
+    id                     UUID         PRIMARY KEY,
+    rollup_day             DATE         NOT NULL,
+    agent_name             VARCHAR(255) NOT NULL,
+    run_count              BIGINT       NOT NULL,
+    success_count          BIGINT       NOT NULL,
+    ci_fix_total           BIGINT       NOT NULL,
+    e2e_fix_total          BIGINT       NOT NULL,
+    duration_seconds_total BIGINT       NOT NULL,
+    CONSTRAINT uq_analytics_agent_daily UNIQUE (rollup_day, agent_name)
+);
+
+-- Findings from persona_review.json artifacts, per persona and severity.
+CREATE TABLE analytics_persona_daily (
+    id              UUID         PRIMARY KEY,
+    rollup_day      DATE         NOT NULL,
+    persona_name    VARCHAR(255) NOT NULL,
+    persona_role    VARCHAR(255) NOT NULL,
+    severity        VARCHAR(50)  NOT NULL,
+    finding_count   BIGINT       NOT NULL,
+    mandatory_count BIGINT       NOT NULL,
+    CONSTRAINT uq_analytics_persona_daily UNIQUE (rollup_day, persona_name, severity)
+);
+
+-- Review outcomes from persona_review_report.json artifacts (PersonaLearningService).
+CREATE TABLE analytics_persona_review_daily (
+    id                    UUID         PRIMARY KEY,
+    rollup_day            DATE         NOT NULL,
+    persona_name          VARCHAR(255) NOT NULL,
+    review_count          BIGINT       NOT NULL,
+    critical_review_count BIGINT       NOT NULL,
+    false_positive_count  BIGINT       NOT NULL,
+    CONSTRAINT uq_analytics_persona_review_daily UNIQUE (rollup_day, persona_name)
+);
+
+-- Days whose rollup rows are current. A closed day without a row here is backfilled on first
+-- read; a day with no runs still gets a row so it is not recomputed on every read.
+CREATE TABLE analytics_rollup_day (
+    rollup_day   DATE      PRIMARY KEY,
+    refreshed_at TIMESTAMP NOT NULL
+);
+
+-- Finds the days touched by recently completed runs.
+CREATE INDEX idx_ai_run_updated_at ON ai_run(updated_at);
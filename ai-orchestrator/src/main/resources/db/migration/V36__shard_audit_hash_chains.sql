@@ -0,0 +1,35 @@
+-- Audit hash chains are sharded per user / admin / run instead of one chain per table.
+-- Rows written before this keep chain_key NULL and still verify as the old table-wide chain.
+ALTER TABLE audit_authentication_events ADD COLUMN chain_key VARCHAR(100);
+ALTER TABLE audit_authentication_events ADD COLUMN chain_seq BIGINT;
+CREATE INDEX idx_audit_auth_chain ON audit_authentication_events(chain_key, chain_seq);
+
+ALTER TABLE audit_access_logs ADD COLUMN chain_key VARCHAR(100);
+ALTER TABLE audit_access_logs ADD COLUMN chain_seq BIGINT;
+CREATE INDEX idx_audit_access_chain ON audit_access_logs(chain_key, chain_seq);
+
+ALTER TABLE audit_data_mutations ADD COLUMN chain_key VARCHAR(100);
+ALTER TABLE audit_data_mutations ADD COLUMN chain_seq BIGINT;
+CREATE INDEX idx_audit_mutation_chain ON audit_data_mutations(chain_key, chain_seq);
+
+ALTER TABLE audit_admin_actions ADD COLUMN chain_key VARCHAR(100);
+ALTER TABLE audit_admin_actions ADD COLUMN chain_seq BIGINT;
+CREATE INDEX idx_audit_admin_chain ON audit_admin_actions(chain_key, chain_seq);
+
+ALTER TABLE collaboration_events ADD COLUMN chain_key VARCHAR(100);
+ALTER TABLE collaboration_events ADD COLUMN chain_seq BIGINT;
+CREATE INDEX idx_collaboration_events_chain ON collaboration_events(chain_key, chain_seq);
+
+-- Periodic Merkle root over the chain heads that advanced since the previous checkpoint.
+-- chain_heads holds the leaves, one "chain_key|chain_seq|event_hash" line each, sorted.
+CREATE TABLE audit_chain_checkpoints (
+    id UUID PRIMARY KEY,
+    table_name VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    chain_count INTEGER NOT NULL,
+    chain_heads TEXT NOT NULL,
+    merkle_root VARCHAR(64) NOT NULL,
+    previous_root VARCHAR(64)
+);
+
+CREATE INDEX idx_audit_checkpoint_table_created ON audit_chain_checkpoints(table_name, created_at);
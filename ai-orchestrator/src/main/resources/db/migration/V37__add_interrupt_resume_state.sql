@@ -0,0 +1,7 @@
+-- What a suspended run needs to continue exactly as it was: the GitHub token it was started
+-- with (AES-GCM encrypted by EncryptedStringConverter, like OAuth2 tokens) and how many
+-- review/tester loop-backs it had already spent.
+
+ALTER TABLE ai_pending_interrupt ADD COLUMN github_token_encrypted TEXT;
+ALTER TABLE ai_pending_interrupt ADD COLUMN review_developer_loops INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE ai_pending_interrupt ADD COLUMN tester_developer_loops INTEGER NOT NULL DEFAULT 0;
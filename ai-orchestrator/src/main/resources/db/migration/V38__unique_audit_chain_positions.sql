@@ -0,0 +1,22 @@
+-- A chain position can only be taken once: a node that links a row from a stale cached head
+-- fails on insert and re-links from the stored head instead of forking the chain.
+-- Rows of the legacy table-wide chain keep chain_key NULL and are not constrained.
+DROP INDEX idx_audit_auth_chain;
+ALTER TABLE audit_authentication_events
+    ADD CONSTRAINT uq_audit_auth_chain UNIQUE (chain_key, chain_seq);
+
+DROP INDEX idx_audit_access_chain;
+ALTER TABLE audit_access_logs
+    ADD CONSTRAINT uq_audit_access_chain UNIQUE (chain_key, chain_seq);
+
+DROP INDEX idx_audit_mutation_chain;
+ALTER TABLE audit_data_mutations
+    ADD CONSTRAINT uq_audit_mutation_chain UNIQUE (chain_key, chain_seq);
+
+DROP INDEX idx_audit_admin_chain;
+ALTER TABLE audit_admin_actions
+    ADD CONSTRAINT uq_audit_admin_chain UNIQUE (chain_key, chain_seq);
+
+DROP INDEX idx_collaboration_events_chain;
+ALTER TABLE collaboration_events
+    ADD CONSTRAINT uq_collaboration_events_chain UNIQUE (chain_key, chain_seq);
@@ -0,0 +1,6 @@
+-- The per-request GitHub token a queued run was started with, so whichever node admits the
+-- run (or the same node after a restart or lease recovery) acts with the requester's token
+-- rather than the App installation token. AES-GCM encrypted by EncryptedStringConverter;
+-- the value goes away with the queue row when the run releases its slot.
+
+ALTER TABLE ai_run_queue ADD COLUMN github_token_encrypted TEXT;
@@ -0,0 +1,9 @@
+-- Outbox marker for webhook deliveries: set once the delivery has been dispatched (run queued,
+-- CI waiter woken) or when there is nothing to dispatch (invalid signature). Rows that stay NULL
+-- after a crash between insert and dispatch are picked up by the ingestion service's sweeper.
+ALTER TABLE webhook_events ADD COLUMN dispatched_at TIMESTAMP;
+
+-- Everything recorded so far was handled in-process.
+UPDATE webhook_events SET dispatched_at = processed_at;
+
+CREATE INDEX idx_webhook_events_undispatched ON webhook_events(dispatched_at, processed_at);
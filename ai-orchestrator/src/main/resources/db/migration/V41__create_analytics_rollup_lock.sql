@@ -0,0 +1,10 @@
+-- analytics_rollup_lock holds a single row locked while AnalyticsRollupService rewrites rollup
+-- days, so the completed-run sweep and the background backfill never recompute the same day
+-- concurrently, on one node or across nodes. Reads no longer backfill missing days themselves.
+
+CREATE TABLE analytics_rollup_lock (
+    id          INTEGER   PRIMARY KEY,
+    updated_at  TIMESTAMP
+);
+
+INSERT INTO analytics_rollup_lock (id) VALUES (1);
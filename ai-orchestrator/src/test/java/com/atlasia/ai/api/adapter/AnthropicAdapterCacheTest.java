@@ -0,0 +1,61 @@
+package com.atlasia.ai.api.adapter;
+
+import com.atlasia.ai.api.dto.AiWireTypes.AiPrompt;
+import com.atlasia.ai.api.dto.AiWireTypes.AnthropicRequest;
+import com.atlasia.ai.api.dto.AiWireTypes.AnthropicResponse;
+import com.atlasia.ai.api.dto.AiWireTypes.PromptCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnthropicAdapterCacheTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void cachedPromptSerializesBreakpointsOnSystemAndStablePrefix() throws Exception {
+        AiPrompt prompt = new AiPrompt("contract", "volatile part", List.of(),
+                new PromptCache(true, "repo context"));
+
+        JsonNode json = serialize(prompt);
+
+        assertEquals("ephemeral", json.at("/system/0/cache_control/type").asText());
+        assertEquals("contract", json.at("/system/0/text").asText());
+        JsonNode content = json.at("/messages/0/content");
+        assertEquals("repo context", content.at("/0/text").asText());
+        assertEquals("ephemeral", content.at("/0/cache_control/type").asText());
+        assertEquals("volatile part", content.at("/1/text").asText());
+        assertTrue(content.at("/1/cache_control").isMissingNode());
+    }
+
+    @Test
+    void uncachedPromptKeepsPlainStrings() throws Exception {
+        JsonNode json = serialize(new AiPrompt("contract", "hello"));
+
+        assertEquals("contract", json.get("system").asText());
+        assertEquals("hello", json.at("/messages/0/content").asText());
+    }
+
+    @Test
+    void usageCountsCacheReadsAndWritesAsInput() throws Exception {
+        AnthropicResponse response = mapper.readValue("""
+                {"content":[{"type":"text","text":"ok"}],
+                 "usage":{"input_tokens":40,"output_tokens":9,
+                          "cache_creation_input_tokens":0,"cache_read_input_tokens":5000}}
+                """, AnthropicResponse.class);
+
+        assertEquals(5040, response.usage().totalInputTokens());
+        assertEquals(5000, response.usage().cacheReadInputTokens());
+    }
+
+    private JsonNode serialize(AiPrompt prompt) throws Exception {
+        AnthropicRequest request = new AnthropicRequest("claude", 1024, 0.2,
+                ProviderAdapter.AnthropicAdapter.messages(prompt),
+                ProviderAdapter.AnthropicAdapter.system(prompt));
+        return mapper.readTree(mapper.writeValueAsString(request));
+    }
+}
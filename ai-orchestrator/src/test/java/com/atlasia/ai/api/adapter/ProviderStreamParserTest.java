@@ -0,0 +1,129 @@
+package com.atlasia.ai.api.adapter;
+
+import com.atlasia.ai.api.adapter.ProviderAdapter.AiCallException;
+import com.atlasia.ai.api.adapter.ProviderAdapter.RateLimitException;
+import com.atlasia.ai.api.adapter.ProviderStreamParser.StreamResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderStreamParserTest {
+
+    private final List<String> tokens = new ArrayList<>();
+
+    @Test
+    void readOpenAi_emitsDeltasAndTakesUsageFromFinalChunk() throws Exception {
+        String body = """
+                data: {"choices":[{"delta":{"role":"assistant"}}]}
+
+                data: {"choices":[{"delta":{"content":"Hel"}}]}
+
+                data: {"choices":[{"delta":{"content":"lo"}}]}
+
+                data: {"choices":[],"usage":{"prompt_tokens":12,"completion_tokens":2,"prompt_tokens_details":{"cached_tokens":8}}}
+
+                data: [DONE]
+
+                data: {"choices":[{"delta":{"content":"ignored"}}]}
+
+                """;
+
+        StreamResult result = ProviderStreamParser.readOpenAi(stream(body), tokens::add, "openai");
+
+        assertEquals(List.of("Hel", "lo"), tokens);
+        assertEquals("Hello", result.content());
+        assertEquals(12, result.inputTokens());
+        assertEquals(2, result.outputTokens());
+        assertEquals(8, result.cachedInputTokens());
+        assertTrue(result.firstTokenMillis() > 0);
+    }
+
+    @Test
+    void readOpenAi_errorChunkThrows() {
+        String body = "data: {\"error\":{\"message\":\"overloaded\"}}\n\n";
+
+        AiCallException e = assertThrows(AiCallException.class,
+                () -> ProviderStreamParser.readOpenAi(stream(body), tokens::add, "litellm"));
+        assertTrue(e.getMessage().contains("overloaded"));
+    }
+
+    @Test
+    void readAnthropic_followsEventTypes() throws Exception {
+        String body = """
+                event: message_start
+                data: {"type":"message_start","message":{"usage":{"input_tokens":10,"output_tokens":1,"cache_creation_input_tokens":20,"cache_read_input_tokens":70}}}
+
+                event: ping
+                data: {"type":"ping"}
+
+                event: content_block_delta
+                data: {"type":"content_block_delta","delta":{"type":"text_delta","text":"Hi"}}
+
+                event: content_block_delta
+                data: {"type":"content_block_delta","delta":{"type":"text_delta","text":" there"}}
+
+                event: message_delta
+                data: {"type":"message_delta","usage":{"output_tokens":5}}
+
+                event: message_stop
+                data: {"type":"message_stop"}
+
+                """;
+
+        StreamResult result = ProviderStreamParser.readAnthropic(stream(body), tokens::add, "anthropic");
+
+        assertEquals(List.of("Hi", " there"), tokens);
+        assertEquals("Hi there", result.content());
+        assertEquals(100, result.inputTokens());
+        assertEquals(70, result.cachedInputTokens());
+        assertEquals(20, result.cacheWriteInputTokens());
+        assertEquals(5, result.outputTokens());
+    }
+
+    @Test
+    void readAnthropic_rateLimitErrorMapsToRateLimitException() {
+        String body = """
+                event: error
+                data: {"type":"error","error":{"type":"rate_limit_error","message":"slow down"}}
+
+                """;
+
+        assertThrows(RateLimitException.class,
+                () -> ProviderStreamParser.readAnthropic(stream(body), tokens::add, "anthropic"));
+    }
+
+    @Test
+    void readOllama_readsNdjsonUntilDone() throws Exception {
+        String body = """
+                {"message":{"role":"assistant","content":"a"},"done":false}
+                {"message":{"role":"assistant","content":"b"},"done":false}
+                {"message":{"role":"assistant","content":""},"done":true,"prompt_eval_count":7,"eval_count":2}
+                """;
+
+        StreamResult result = ProviderStreamParser.readOllama(stream(body), tokens::add, "ollama");
+
+        assertEquals(List.of("a", "b"), tokens);
+        assertEquals("ab", result.content());
+        assertEquals(7, result.inputTokens());
+        assertEquals(2, result.outputTokens());
+    }
+
+    @Test
+    void emptyStreamReportsNoFirstToken() throws Exception {
+        StreamResult result = ProviderStreamParser.readOpenAi(stream("data: [DONE]\n\n"), tokens::add, "openai");
+
+        assertEquals("", result.content());
+        assertEquals(-1, result.firstTokenMillis());
+        assertTrue(tokens.isEmpty());
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
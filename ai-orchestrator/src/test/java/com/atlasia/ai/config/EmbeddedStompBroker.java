@@ -0,0 +1,182 @@
+package com.atlasia.ai.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal in-JVM STOMP 1.2 broker for exercising the broker relay without an external
+ * RabbitMQ/Artemis: answers CONNECT, keeps SUBSCRIBE registrations and routes SEND frames to
+ * subscribers of the same destination. Heart-beats are declined. Not for production use.
+ */
+public final class EmbeddedStompBroker implements AutoCloseable {
+
+    public record Frame(String command, Map<String, String> headers, String body) {
+        public String destination() {
+            return headers.get("destination");
+        }
+    }
+
+    private record Subscription(Connection connection, String id, String destination) {}
+
+    private final ServerSocket serverSocket;
+    private final List<Frame> received = new CopyOnWriteArrayList<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final AtomicLong messageIds = new AtomicLong();
+
+    public EmbeddedStompBroker() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("stomp-broker-accept").start(this::acceptLoop);
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public List<Frame> received() {
+        return received;
+    }
+
+    public int connectionCount() {
+        return (int) connections.stream().filter(c -> c.connected).count();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.socket.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Connection connection = new Connection(serverSocket.accept());
+                connections.add(connection);
+                Thread.ofVirtual().name("stomp-broker-conn").start(connection::readLoop);
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private final class Connection {
+        final Socket socket;
+        final OutputStream out;
+        volatile boolean connected;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = socket.getOutputStream();
+        }
+
+        void readLoop() {
+            try (InputStream in = socket.getInputStream()) {
+                Frame frame;
+                while ((frame = readFrame(in)) != null) {
+                    handle(frame);
+                }
+            } catch (IOException e) {
+                // connection closed
+            } finally {
+                connected = false;
+                subscriptions.removeIf(s -> s.connection() == this);
+            }
+        }
+
+        void handle(Frame frame) throws IOException {
+            received.add(frame);
+            switch (frame.command()) {
+                case "CONNECT", "STOMP" -> {
+                    connected = true;
+                    write("CONNECTED", Map.of("version", "1.2", "heart-beat", "0,0"), "");
+                }
+                case "SUBSCRIBE" -> subscriptions.add(
+                        new Subscription(this, frame.headers().get("id"), frame.destination()));
+                case "UNSUBSCRIBE" -> subscriptions.removeIf(
+                        s -> s.connection() == this && s.id().equals(frame.headers().get("id")));
+                case "SEND" -> {
+                    for (Subscription subscription : subscriptions) {
+                        if (subscription.destination().equals(frame.destination())) {
+                            Map<String, String> headers = new LinkedHashMap<>();
+                            headers.put("subscription", subscription.id());
+                            headers.put("message-id", String.valueOf(messageIds.incrementAndGet()));
+                            headers.put("destination", frame.destination());
+                            headers.put("content-type", frame.headers().getOrDefault("content-type", "text/plain"));
+                            subscription.connection().write("MESSAGE", headers, frame.body());
+                        }
+                    }
+                }
+                case "DISCONNECT" -> {
+                    String receipt = frame.headers().get("receipt");
+                    if (receipt != null) {
+                        write("RECEIPT", Map.of("receipt-id", receipt), "");
+                    }
+                    socket.close();
+                }
+                default -> {
+                }
+            }
+            if (frame.headers().containsKey("receipt") && !"DISCONNECT".equals(frame.command())) {
+                write("RECEIPT", Map.of("receipt-id", frame.headers().get("receipt")), "");
+            }
+        }
+
+        synchronized void write(String command, Map<String, String> headers, String body) throws IOException {
+            StringBuilder frame = new StringBuilder(command).append('\n');
+            byte[] payload = body.getBytes(StandardCharsets.UTF_8);
+            headers.forEach((k, v) -> frame.append(k).append(':').append(v).append('\n'));
+            if (payload.length > 0) {
+                frame.append("content-length:").append(payload.length).append('\n');
+            }
+            frame.append('\n');
+            out.write(frame.toString().getBytes(StandardCharsets.UTF_8));
+            out.write(payload);
+            out.write(0);
+            out.flush();
+        }
+    }
+
+    /** Reads one NUL-terminated frame, skipping heart-beat EOLs; null at end of stream. */
+    private static Frame readFrame(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == 0) {
+                break;
+            }
+            if (buffer.size() == 0 && (b == '\n' || b == '\r')) {
+                continue;
+            }
+            buffer.write(b);
+        }
+        if (b == -1) {
+            return null;
+        }
+        String raw = buffer.toString(StandardCharsets.UTF_8);
+        int bodyStart = raw.indexOf("\n\n");
+        String head = bodyStart >= 0 ? raw.substring(0, bodyStart) : raw;
+        String body = bodyStart >= 0 ? raw.substring(bodyStart + 2) : "";
+        String[] lines = head.split("\r?\n");
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                headers.putIfAbsent(lines[i].substring(0, colon), lines[i].substring(colon + 1));
+            }
+        }
+        return new Frame(lines[0], headers, body);
+    }
+}
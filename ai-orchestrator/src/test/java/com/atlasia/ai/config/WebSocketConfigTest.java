@@ -0,0 +1,89 @@
+package com.atlasia.ai.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class WebSocketConfigTest {
+
+    private AnnotationConfigWebApplicationContext context;
+    private EmbeddedStompBroker broker;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (context != null) {
+            context.close();
+        }
+        if (broker != null) {
+            broker.close();
+        }
+    }
+
+    @Test
+    void defaultModeUsesInMemoryBrokerAndTunedChannelPools() {
+        context = startContext(Map.of("atlasia.orchestrator.websocket.inbound.max-pool-size", "12"));
+
+        AbstractBrokerMessageHandler handler = context.getBean("simpleBrokerMessageHandler", AbstractBrokerMessageHandler.class);
+        assertInstanceOf(SimpleBrokerMessageHandler.class, handler);
+        ThreadPoolTaskExecutor inbound = context.getBean("clientInboundChannelExecutor", ThreadPoolTaskExecutor.class);
+        assertEquals(12, inbound.getMaxPoolSize());
+    }
+
+    @Test
+    void relayModeForwardsBrokerDestinationsToExternalBroker() throws Exception {
+        broker = new EmbeddedStompBroker();
+        Map<String, Object> props = new HashMap<>();
+        props.put("atlasia.orchestrator.websocket.broker.mode", "relay");
+        props.put("atlasia.orchestrator.websocket.broker.relay-host", "127.0.0.1");
+        props.put("atlasia.orchestrator.websocket.broker.relay-port", String.valueOf(broker.port()));
+        context = startContext(props);
+
+        StompBrokerRelayMessageHandler relay = context.getBean(
+                "stompBrokerRelayMessageHandler", StompBrokerRelayMessageHandler.class);
+        await().atMost(Duration.ofSeconds(10)).until(relay::isBrokerAvailable);
+
+        context.getBean("brokerMessagingTemplate", SimpMessagingTemplate.class)
+                .convertAndSend("/topic/runs/r-1/collaboration", "graft");
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> broker.received().stream()
+                .anyMatch(f -> "SEND".equals(f.command())
+                        && "/topic/runs/r-1/collaboration".equals(f.destination())
+                        && f.body().contains("graft")));
+        assertTrue(broker.received().stream().anyMatch(f -> "CONNECT".equals(f.command())
+                && "guest".equals(f.headers().get("login"))));
+    }
+
+    private AnnotationConfigWebApplicationContext startContext(Map<String, Object> properties) {
+        AnnotationConfigWebApplicationContext ctx = new AnnotationConfigWebApplicationContext();
+        ctx.setServletContext(new MockServletContext());
+        ctx.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+        ctx.register(TestBeans.class, WebSocketConfig.class);
+        ctx.refresh();
+        return ctx;
+    }
+
+    @Configuration
+    static class TestBeans {
+        @Bean
+        WebSocketAuthInterceptor webSocketAuthInterceptor() {
+            return mock(WebSocketAuthInterceptor.class);
+        }
+    }
+}
@@ -10,7 +10,7 @@ import com.atlasia.ai.service.A2ADiscoveryService.AgentConstraints;
 import com.atlasia.ai.service.AgentBindingService;
 import com.atlasia.ai.service.AgentBindingService.AgentBinding;
 import com.atlasia.ai.service.ApiAuthService;
-import com.atlasia.ai.service.WorkflowEngine;
+import com.atlasia.ai.service.RunQueueService;
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
 import org.junit.jupiter.api.BeforeEach;
 import org.mockito.Mock;
@@ -34,7 +34,7 @@ public abstract class A2AContractTestBase {
     protected RunRepository runRepository;
     
     @Mock
-    protected WorkflowEngine workflowEngine;
+    protected RunQueueService runQueueService;
     
     @Mock
     protected ApiAuthService apiAuthService;
@@ -47,7 +47,7 @@ public abstract class A2AContractTestBase {
             a2aDiscoveryService,
             agentBindingService,
             runRepository,
-            workflowEngine,
+            runQueueService,
             apiAuthService
         );
         
@@ -81,7 +81,6 @@ public abstract class A2AContractTestBase {
             Instant.parse("2024-01-15T10:30:00Z")
         );
         when(runRepository.save(any(RunEntity.class))).thenReturn(mockRun);
-        doNothing().when(workflowEngine).executeWorkflowAsync(any(UUID.class), anyString());
         
         UUID bindingId = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
         AgentBinding mockBinding = createMockBinding(bindingId);
@@ -2,6 +2,7 @@ package com.atlasia.ai.controller;
 
 import com.atlasia.ai.api.RunRequest;
 import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.RunQueueLane;
 import com.atlasia.ai.model.RunStatus;
 import com.atlasia.ai.persistence.RunRepository;
 import com.atlasia.ai.service.A2ADiscoveryService;
@@ -10,7 +11,7 @@ import com.atlasia.ai.service.A2ADiscoveryService.AgentConstraints;
 import com.atlasia.ai.service.AgentBindingService;
 import com.atlasia.ai.service.AgentBindingService.AgentBinding;
 import com.atlasia.ai.service.ApiAuthService;
-import com.atlasia.ai.service.WorkflowEngine;
+import com.atlasia.ai.service.RunQueueService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -51,7 +52,7 @@ class A2AControllerTest {
         @Mock
         private RunRepository runRepository;
         @Mock
-        private WorkflowEngine workflowEngine;
+        private RunQueueService runQueueService;
         @Mock
         private ApiAuthService apiAuthService;
 
@@ -62,7 +63,7 @@ class A2AControllerTest {
         void setUp() {
                 A2AController controller = new A2AController(
                                 a2aDiscoveryService, agentBindingService, runRepository,
-                                workflowEngine, apiAuthService);
+                                runQueueService, apiAuthService);
                 mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
 
                 // isAuthorized: admin and GitHub tokens authorized, invalid and null not (specific stubs last)
@@ -279,7 +280,6 @@ class A2AControllerTest {
         void submitTask_withGitHubToken_returnsAccepted() throws Exception {
                 RunRequest request = new RunRequest("owner/repo", 42, null, "code", null, null);
                 when(runRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-                doNothing().when(workflowEngine).executeWorkflowAsync(any(), eq(GITHUB_TOKEN));
 
                 mockMvc.perform(post("/api/a2a/tasks")
                                 .header("Authorization", "Bearer " + GITHUB_TOKEN)
@@ -291,7 +291,7 @@ class A2AControllerTest {
                                 .andExpect(jsonPath("$.issueNumber").value(42));
 
                 verify(runRepository).save(any(RunEntity.class));
-                verify(workflowEngine).executeWorkflowAsync(any(UUID.class), eq(GITHUB_TOKEN));
+                verify(runQueueService).enqueue(any(UUID.class), eq("owner/repo"), eq(RunQueueLane.INTERACTIVE), eq(GITHUB_TOKEN));
         }
 
         @Test
@@ -308,7 +308,7 @@ class A2AControllerTest {
                                 .andExpect(jsonPath("$.status").value("submitted"));
 
                 verify(runRepository).save(any(RunEntity.class));
-                verify(workflowEngine).executeWorkflowAsync(any(UUID.class), eq(ADMIN_TOKEN));
+                verify(runQueueService).enqueue(any(UUID.class), eq("owner/repo"), eq(RunQueueLane.INTERACTIVE), eq(ADMIN_TOKEN));
         }
 
         @Test
@@ -0,0 +1,212 @@
+package com.atlasia.ai.controller;
+
+import com.atlasia.ai.api.RunListCursor;
+import com.atlasia.ai.model.EnvironmentLifecycle;
+import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.RunStatus;
+import com.atlasia.ai.persistence.RunRepository;
+import com.atlasia.ai.persistence.RunSummaryView;
+import com.atlasia.ai.service.ApiAuthService;
+import com.atlasia.ai.service.CollaborationService;
+import com.atlasia.ai.service.HitlGateService;
+import com.atlasia.ai.service.RunQueueService;
+import com.atlasia.ai.service.RunStateService;
+import com.atlasia.ai.service.event.WorkflowEventBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class RunControllerTest {
+
+    private static final String TOKEN = "Bearer token";
+    private static final Instant BASE = Instant.parse("2026-03-01T12:00:00Z");
+
+    @Mock
+    private RunRepository runRepository;
+    @Mock
+    private RunQueueService runQueueService;
+    @Mock
+    private WorkflowEventBus eventBus;
+    @Mock
+    private CollaborationService collaborationService;
+    @Mock
+    private ApiAuthService apiAuthService;
+    @Mock
+    private HitlGateService hitlGateService;
+    @Mock
+    private RunStateService runStateService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        RunController controller = new RunController(runRepository, runQueueService, eventBus,
+                collaborationService, apiAuthService, hitlGateService, runStateService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        lenient().when(apiAuthService.isAuthorized(TOKEN)).thenReturn(true);
+    }
+
+    @Test
+    void listRuns_returnsPageAndNextCursorWhenMoreRowsExist() throws Exception {
+        List<RunSummaryView> rows = IntStream.range(0, 3).mapToObj(i -> summary(BASE.minusSeconds(i))).toList();
+        when(runRepository.findSummaryPage(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(rows);
+
+        mockMvc.perform(get("/api/runs").param("limit", "2").header("Authorization", TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(rows.get(0).getId().toString()))
+                .andExpect(jsonPath("$[0].environmentCheckpoint").doesNotExist())
+                .andExpect(jsonPath("$[0].artifacts", hasSize(0)))
+                .andExpect(header().string(RunController.NEXT_CURSOR_HEADER,
+                        new RunListCursor(rows.get(1).getCreatedAt(), rows.get(1).getId()).encode()));
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(runRepository).findSummaryPage(any(), any(), any(), any(), any(), any(), page.capture());
+        assertEquals(3, page.getValue().getPageSize());
+        verify(runRepository, never()).findAll();
+    }
+
+    @Test
+    void listRuns_passesFiltersAndCursorAndOmitsHeaderOnLastPage() throws Exception {
+        UUID lastId = UUID.randomUUID();
+        String cursor = new RunListCursor(BASE, lastId).encode();
+        when(runRepository.findSummaryPage(eq("org/repo"), eq(RunStatus.DONE),
+                eq(Instant.parse("2026-01-01T00:00:00Z")), isNull(), eq(BASE), eq(lastId), any()))
+                .thenReturn(List.of(summary(BASE.minusSeconds(5))));
+
+        mockMvc.perform(get("/api/runs")
+                        .param("repo", "org/repo")
+                        .param("status", "done")
+                        .param("from", "2026-01-01T00:00:00Z")
+                        .param("cursor", cursor)
+                        .header("Authorization", TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(RunController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void listRuns_withoutLimitOrCursorReturnsNewestRunsUpToTheCap() throws Exception {
+        List<RunSummaryView> rows = IntStream.range(0, 60).mapToObj(i -> summary(BASE.minusSeconds(i))).toList();
+        when(runRepository.findSummaryPage(isNull(), eq(RunStatus.ESCALATED), isNull(), isNull(), isNull(), isNull(),
+                eq(PageRequest.of(0, RunController.UNPAGED_MAX_ROWS + 1)))).thenReturn(rows);
+
+        mockMvc.perform(get("/api/runs").param("status", "ESCALATED").header("Authorization", TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(60)))
+                .andExpect(header().doesNotExist(RunController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void listRuns_withoutLimitOrCursorSetsNextCursorWhenTheCapCutsRowsOff() throws Exception {
+        int cap = RunController.UNPAGED_MAX_ROWS;
+        List<RunSummaryView> rows = IntStream.range(0, cap + 1).mapToObj(i -> summary(BASE.minusSeconds(i))).toList();
+        when(runRepository.findSummaryPage(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(rows);
+
+        mockMvc.perform(get("/api/runs").header("Authorization", TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(cap)))
+                .andExpect(header().string(RunController.NEXT_CURSOR_HEADER,
+                        new RunListCursor(rows.get(cap - 1).getCreatedAt(), rows.get(cap - 1).getId()).encode()));
+    }
+
+    @Test
+    void listRuns_rejectsMalformedCursorAndUnknownStatus() throws Exception {
+        mockMvc.perform(get("/api/runs").param("cursor", "not-a-cursor").header("Authorization", TOKEN))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/runs").param("status", "SLEEPING").header("Authorization", TOKEN))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(runRepository);
+    }
+
+    @Test
+    void listRuns_unauthorizedWithoutToken() throws Exception {
+        mockMvc.perform(get("/api/runs"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void addGraft_appendsToTheFreshRowThroughRunStateService() throws Exception {
+        UUID id = UUID.randomUUID();
+        RunEntity fresh = new RunEntity(id, "org/repo", 1, "code", RunStatus.DEVELOPER, BASE);
+        fresh.setPendingGrafts("[{\"after\":\"PM\",\"agentName\":\"a\"}]");
+        when(runStateService.update(eq(id), any())).thenAnswer(inv -> {
+            ((Consumer<RunEntity>) inv.getArgument(1)).accept(fresh);
+            return Optional.of(fresh);
+        });
+
+        mockMvc.perform(post("/api/runs/" + id + "/grafts")
+                        .contentType("application/json")
+                        .content("{\"after\":\"ARCHITECT\",\"agentName\":\"b\"}")
+                        .header("Authorization", TOKEN))
+                .andExpect(status().isOk());
+
+        assertEquals("[{\"after\":\"PM\",\"agentName\":\"a\"},{\"after\":\"ARCHITECT\",\"agentName\":\"b\"}]",
+                fresh.getPendingGrafts());
+        verify(runRepository, never()).save(any());
+    }
+
+    @Test
+    void escalationAbort_conflictsWhenTheRunLeftEscalationMeanwhile() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(runRepository.findById(id)).thenReturn(Optional.of(
+                new RunEntity(id, "org/repo", 1, "code", RunStatus.ESCALATED, BASE)));
+        when(runStateService.transition(eq(id), any(), any())).thenReturn(false);
+
+        mockMvc.perform(post("/api/runs/" + id + "/escalation-decision")
+                        .contentType("application/json")
+                        .content("{\"decision\":\"ABORT\"}")
+                        .header("Authorization", TOKEN))
+                .andExpect(status().isConflict());
+
+        verify(runStateService, never()).appendArtifact(any(), any());
+        verify(runRepository, never()).save(any());
+    }
+
+    private static RunSummaryView summary(Instant createdAt) {
+        UUID id = UUID.randomUUID();
+        return new RunSummaryView() {
+            public UUID getId() { return id; }
+            public String getRepo() { return "org/repo"; }
+            public Integer getIssueNumber() { return 7; }
+            public String getGoal() { return null; }
+            public String getMode() { return "code"; }
+            public RunStatus getStatus() { return RunStatus.DONE; }
+            public Instant getCreatedAt() { return createdAt; }
+            public Instant getUpdatedAt() { return createdAt; }
+            public String getCurrentAgent() { return null; }
+            public Integer getCiFixCount() { return 0; }
+            public Integer getE2eFixCount() { return 0; }
+            public EnvironmentLifecycle getEnvironmentLifecycle() { return EnvironmentLifecycle.ACTIVE; }
+            public String getPrunedSteps() { return null; }
+        };
+    }
+}
@@ -0,0 +1,257 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.*;
+import com.atlasia.ai.persistence.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsRollupServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+    private static final LocalDate YESTERDAY = TODAY.minusDays(1);
+
+    @Mock
+    private RunRepository runRepository;
+    @Mock
+    private RunArtifactRepository runArtifactRepository;
+    @Mock
+    private AnalyticsRunDailyRepository runDailyRepository;
+    @Mock
+    private AnalyticsAgentDailyRepository agentDailyRepository;
+    @Mock
+    private AnalyticsPersonaDailyRepository personaDailyRepository;
+    @Mock
+    private AnalyticsPersonaReviewDailyRepository personaReviewDailyRepository;
+    @Mock
+    private AnalyticsRollupDayRepository rollupDayRepository;
+    @Mock
+    private AnalyticsRollupLockRepository rollupLockRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private AnalyticsRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(AnalyticsRollupService.ANALYTICS_CACHES.toArray(String[]::new));
+        Clock clock = Clock.fixed(TODAY.atTime(12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        service = new AnalyticsRollupService(runRepository, runArtifactRepository, runDailyRepository,
+                agentDailyRepository, personaDailyRepository, personaReviewDailyRepository, rollupDayRepository,
+                rollupLockRepository, new ObjectMapper(), transactionManager, cacheManager, clock);
+    }
+
+    @Test
+    void load_computesTodayLiveFromRunsAndArtifacts() {
+        RunSummaryView r1 = run(TODAY, "org/a", RunStatus.DONE, 2, 0, 600);
+        RunSummaryView r2 = run(TODAY, "org/a", RunStatus.DONE, 0, 1, 300);
+        RunSummaryView r3 = run(TODAY, "org/a", RunStatus.FAILED, 3, 0, 900);
+        stubDay(TODAY, List.of(r1, r2, r3),
+                List.of(
+                        artifact(r1, "review", AnalyticsRollupService.PERSONA_REVIEW,
+                                "{\"findings\":[{\"personaName\":\"Sec\",\"personaRole\":\"security\",\"issues\":["
+                                        + "{\"severity\":\"CRITICAL\",\"mandatory\":true},{\"severity\":\"low\"}]}]}"),
+                        artifact(r1, "Sec", AnalyticsRollupService.PERSONA_REVIEW_REPORT, "{\"severity\":\"critical\"}"),
+                        artifact(r3, "Sec", AnalyticsRollupService.PERSONA_REVIEW_REPORT, "{\"severity\":\"critical\"}")),
+                List.of(pair(r1, "developer"), pair(r3, "developer"), pair(r2, "tester")));
+
+        AnalyticsRollupService.DailyRollup rollup = service.load(TODAY, TODAY);
+
+        Map<RunStatus, AnalyticsRunDailyEntity> runs = rollup.runs().stream()
+                .collect(Collectors.toMap(AnalyticsRunDailyEntity::getStatus, r -> r));
+        AnalyticsRunDailyEntity done = runs.get(RunStatus.DONE);
+        assertEquals(2, done.getRunCount());
+        assertEquals(2, done.getCiFixTotal());
+        assertEquals(1, done.getE2eLoopRuns());
+        assertEquals(1, done.getMultiCiRuns());
+        assertEquals(1, done.getPersonaReviewedRuns());
+        assertEquals(3, runs.get(RunStatus.FAILED).getCiFixMax());
+
+        AnalyticsAgentDailyEntity developer = rollup.agents().stream()
+                .filter(a -> a.getAgentName().equals("developer")).findFirst().orElseThrow();
+        assertEquals(2, developer.getRunCount());
+        assertEquals(1, developer.getSuccessCount());
+        assertEquals(1500, developer.getDurationSecondsTotal());
+
+        assertEquals(2, rollup.personaFindings().size());
+        AnalyticsPersonaDailyEntity critical = rollup.personaFindings().stream()
+                .filter(f -> f.getSeverity().equals("critical")).findFirst().orElseThrow();
+        assertEquals(1, critical.getMandatoryCount());
+
+        AnalyticsPersonaReviewDailyEntity reviews = rollup.personaReviews().get(0);
+        assertEquals(2, reviews.getReviewCount());
+        assertEquals(2, reviews.getCriticalReviewCount());
+        assertEquals(1, reviews.getFalsePositiveCount());
+
+        verifyNoInteractions(runDailyRepository, rollupDayRepository);
+    }
+
+    @Test
+    void load_readsOnlyStoredClosedDaysAndNeverBackfills() {
+        LocalDate from = TODAY.minusDays(2);
+        AnalyticsRunDailyEntity stored = new AnalyticsRunDailyEntity(from, "org/b", RunStatus.FAILED);
+        when(runDailyRepository.findByDayBetween(from, YESTERDAY)).thenReturn(List.of(stored));
+        when(runRepository.findSummariesCreatedBetween(AnalyticsRollupService.startOf(TODAY),
+                AnalyticsRollupService.startOf(TODAY.plusDays(1)))).thenReturn(List.of());
+
+        AnalyticsRollupService.DailyRollup rollup = service.load(from, TODAY);
+
+        assertEquals(List.of(stored), rollup.runs());
+        verify(runDailyRepository, never()).deleteByDay(any());
+        verifyNoInteractions(rollupDayRepository, rollupLockRepository, transactionManager);
+    }
+
+    @Test
+    void backfillMissingDays_refreshesOnlyMissingClosedDaysUnderTheLock() {
+        LocalDate first = TODAY.minusDays(3);
+        LocalDate stored = TODAY.minusDays(2);
+        when(runRepository.findEarliestCreatedAt()).thenReturn(AnalyticsRollupService.startOf(first));
+        when(rollupDayRepository.findDaysBetween(first, YESTERDAY)).thenReturn(List.of(stored));
+        when(rollupLockRepository.tryLock()).thenReturn(List.of(mock(AnalyticsRollupLockEntity.class)));
+        stubDay(YESTERDAY, List.of(run(YESTERDAY, "org/a", RunStatus.DONE, 0, 0, 60)), List.of(), List.of());
+        stubDay(first, List.of(), List.of(), List.of());
+        cacheManager.getCache("analytics-runs-summary").put("key", "stale");
+
+        service.backfillMissingDays();
+
+        verify(runDailyRepository).deleteByDay(YESTERDAY);
+        verify(runDailyRepository).deleteByDay(first);
+        verify(runDailyRepository, never()).deleteByDay(stored);
+        verify(runDailyRepository).saveAll(argThat(rows -> rows.iterator().hasNext()
+                && rows.iterator().next() instanceof AnalyticsRunDailyEntity r
+                && r.getDay().equals(YESTERDAY) && r.getRunCount() == 1));
+        verify(rollupDayRepository, times(2)).save(any());
+        assertNull(cacheManager.getCache("analytics-runs-summary").get("key"));
+    }
+
+    @Test
+    void backfillMissingDays_leavesDaysForTheNextPassWhenTheLockIsHeld() {
+        when(runRepository.findEarliestCreatedAt()).thenReturn(AnalyticsRollupService.startOf(YESTERDAY));
+        when(rollupDayRepository.findDaysBetween(YESTERDAY, YESTERDAY)).thenReturn(List.of());
+        when(rollupLockRepository.tryLock()).thenReturn(List.of());
+
+        service.backfillMissingDays();
+
+        verify(runDailyRepository, never()).deleteByDay(any());
+        verify(runRepository, never()).findSummariesCreatedBetween(any(), any());
+    }
+
+    @Test
+    void refreshCompletedRuns_refreshesClosedDaysAndEvictsCaches() {
+        cacheManager.getCache("analytics-fix-loops").put("key", "stale");
+        when(rollupDayRepository.findLatestRefreshedAt()).thenReturn(null);
+        when(runRepository.findCreatedAtOfRunsUpdatedSince(any(), eqStatuses()))
+                .thenReturn(List.of(YESTERDAY.atTime(5, 0).toInstant(ZoneOffset.UTC),
+                        YESTERDAY.atTime(6, 0).toInstant(ZoneOffset.UTC),
+                        TODAY.atTime(1, 0).toInstant(ZoneOffset.UTC)));
+        stubDay(YESTERDAY, List.of(), List.of(), List.of());
+        when(rollupLockRepository.tryLock()).thenReturn(List.of(mock(AnalyticsRollupLockEntity.class)));
+
+        service.refreshCompletedRuns();
+
+        verify(runDailyRepository, times(1)).deleteByDay(YESTERDAY);
+        verify(runDailyRepository, never()).deleteByDay(TODAY);
+        assertNull(cacheManager.getCache("analytics-fix-loops").get("key"));
+    }
+
+    @Test
+    void refreshCompletedRuns_keepsWindowWhenARefreshFails() {
+        when(rollupDayRepository.findLatestRefreshedAt()).thenReturn(null);
+        when(runRepository.findCreatedAtOfRunsUpdatedSince(any(), eqStatuses()))
+                .thenReturn(List.of(YESTERDAY.atTime(5, 0).toInstant(ZoneOffset.UTC)));
+        stubDay(YESTERDAY, List.of(), List.of(), List.of());
+        when(runDailyRepository.deleteByDay(YESTERDAY)).thenThrow(new IllegalStateException("duplicate key"));
+        when(rollupLockRepository.tryLock()).thenReturn(List.of(mock(AnalyticsRollupLockEntity.class)));
+
+        service.refreshCompletedRuns();
+        service.refreshCompletedRuns();
+
+        // The failed sweep did not advance, so the second one resumes from the stored rollups again.
+        verify(rollupDayRepository, times(2)).findLatestRefreshedAt();
+    }
+
+    @Test
+    void refreshCompletedRuns_skipsAndKeepsWindowWhileAnotherNodeHoldsTheLock() {
+        cacheManager.getCache("analytics-fix-loops").put("key", "stale");
+        when(rollupDayRepository.findLatestRefreshedAt()).thenReturn(null);
+        when(runRepository.findCreatedAtOfRunsUpdatedSince(any(), eqStatuses()))
+                .thenReturn(List.of(YESTERDAY.atTime(5, 0).toInstant(ZoneOffset.UTC)));
+        when(rollupLockRepository.tryLock()).thenReturn(List.of());
+
+        service.refreshCompletedRuns();
+        service.refreshCompletedRuns();
+
+        verify(runDailyRepository, never()).deleteByDay(any());
+        verify(rollupDayRepository, times(2)).findLatestRefreshedAt();
+        assertNull(cacheManager.getCache("analytics-fix-loops").get("key"));
+    }
+
+    private void stubDay(LocalDate day, List<RunSummaryView> runs, List<RunArtifactEntity> artifacts,
+                         List<Map<String, Object>> agents) {
+        Instant from = AnalyticsRollupService.startOf(day);
+        Instant to = AnalyticsRollupService.startOf(day.plusDays(1));
+        when(runRepository.findSummariesCreatedBetween(from, to)).thenReturn(runs);
+        if (!runs.isEmpty()) {
+            when(runArtifactRepository.findByArtifactTypesForRunsCreatedBetween(anyList(), any(), any()))
+                    .thenReturn(artifacts);
+            when(runArtifactRepository.findRunAgentsForRunsCreatedBetween(from, to)).thenReturn(agents);
+        }
+    }
+
+    private static List<RunStatus> eqStatuses() {
+        return argThat(statuses -> statuses.containsAll(AnalyticsRollupService.TERMINAL_STATUSES));
+    }
+
+    private static RunArtifactEntity artifact(RunSummaryView run, String agent, String type, String payload) {
+        RunArtifactEntity artifact = new RunArtifactEntity(agent, type, payload, run.getCreatedAt());
+        artifact.setRun(new RunEntity(run.getId(), run.getRepo(), 1, "code", run.getStatus(), run.getCreatedAt()));
+        return artifact;
+    }
+
+    private static Map<String, Object> pair(RunSummaryView run, String agentName) {
+        return Map.of("runId", run.getId(), "agentName", agentName);
+    }
+
+    private static RunSummaryView run(LocalDate day, String repo, RunStatus status, int ci, int e2e,
+                                      long durationSeconds) {
+        UUID id = UUID.randomUUID();
+        Instant createdAt = day.atTime(3, 0).toInstant(ZoneOffset.UTC);
+        return new RunSummaryView() {
+            public UUID getId() { return id; }
+            public String getRepo() { return repo; }
+            public Integer getIssueNumber() { return 1; }
+            public String getGoal() { return null; }
+            public String getMode() { return "code"; }
+            public RunStatus getStatus() { return status; }
+            public Instant getCreatedAt() { return createdAt; }
+            public Instant getUpdatedAt() { return createdAt.plusSeconds(durationSeconds); }
+            public String getCurrentAgent() { return null; }
+            public Integer getCiFixCount() { return ci; }
+            public Integer getE2eFixCount() { return e2e; }
+            public EnvironmentLifecycle getEnvironmentLifecycle() { return EnvironmentLifecycle.ACTIVE; }
+            public String getPrunedSteps() { return null; }
+        };
+    }
+}
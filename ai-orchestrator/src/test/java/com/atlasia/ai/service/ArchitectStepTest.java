@@ -219,8 +219,8 @@ class ArchitectStepTest {
 
                 architectStep.execute(context);
 
-                verify(gitHubApiClient).getRepoContent(eq("owner"), eq("repo"), eq("AGENTS.md"));
-                verify(gitHubApiClient).getRepoContent(eq("owner"), eq("repo"), eq("README.md"));
+                verify(gitHubApiClient).getRepoContent(eq("owner"), eq("repo"), eq("AGENTS.md"), eq("main-sha"));
+                verify(gitHubApiClient).getRepoContent(eq("owner"), eq("repo"), eq("README.md"), eq("main-sha"));
         }
 
         @Test
@@ -358,7 +358,7 @@ class ArchitectStepTest {
                 lenient().when(gitHubApiClient.getRepoTree(eq("owner"), eq("repo"), eq("main-sha"), eq(true)))
                                 .thenReturn(tree);
 
-                lenient().when(gitHubApiClient.getRepoContent(eq("owner"), eq("repo"), anyString()))
+                lenient().when(gitHubApiClient.getRepoContent(eq("owner"), eq("repo"), anyString(), anyString()))
                                 .thenReturn(Map.of("content",
                                                 Base64.getEncoder().encodeToString("file content".getBytes())));
         }
@@ -0,0 +1,215 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.AuditAccessLogEntity;
+import com.atlasia.ai.model.AuditAuthenticationEventEntity;
+import com.atlasia.ai.model.CollaborationEventEntity;
+import com.atlasia.ai.model.HashChainedEvent;
+import com.atlasia.ai.persistence.*;
+import com.atlasia.ai.service.audit.AuditCheckpointService;
+import com.atlasia.ai.service.audit.AuditHashChains;
+import com.atlasia.ai.service.audit.AuditLogWriter;
+import com.atlasia.ai.service.audit.AuditTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditTrailServiceTest {
+
+    private static final Instant T0 = Instant.parse("2026-03-01T10:00:00Z");
+
+    @Mock
+    private AuditAuthenticationEventRepository authRepository;
+    @Mock
+    private AuditAccessLogRepository accessRepository;
+    @Mock
+    private AuditDataMutationRepository mutationRepository;
+    @Mock
+    private AuditAdminActionRepository adminRepository;
+    @Mock
+    private CollaborationEventRepository collaborationRepository;
+    @Mock
+    private AuditLogWriter auditLogWriter;
+    @Mock
+    private AuditCheckpointService checkpointService;
+
+    private AuditHashChains chains;
+    private AuditTrailService service;
+
+    @BeforeEach
+    void setUp() {
+        chains = new AuditHashChains(authRepository, accessRepository, mutationRepository, adminRepository,
+                collaborationRepository, 60, 1000);
+        service = new AuditTrailService(auditLogWriter, chains, checkpointService, "node-a");
+    }
+
+    @Test
+    void logAuthenticationEvent_queuesTheRowOnTheUsersChain() {
+        UUID userId = UUID.randomUUID();
+
+        service.logAuthenticationEvent(userId, "alice", "LOGIN", "127.0.0.1", "junit", true, null);
+        service.logAuthenticationEvent(null, "bob", "LOGIN_FAILED", "127.0.0.1", "junit", false, "bad password");
+
+        ArgumentCaptor<HashChainedEvent> event = ArgumentCaptor.forClass(HashChainedEvent.class);
+        verify(auditLogWriter).append(eq(AuditTable.AUTHENTICATION), eq("user:" + userId), event.capture());
+        verify(auditLogWriter).append(eq(AuditTable.AUTHENTICATION), eq("name:bob"), any());
+        assertEquals(0, event.getValue().getTimestamp().getNano() % 1_000);
+    }
+
+    @Test
+    void verifyHashChain_acceptsLegacyAndShardedChains() {
+        List<AuditAuthenticationEventEntity> legacy = legacyChain("carol", "dave");
+        List<AuditAuthenticationEventEntity> rows = sharded("alice", "bob", "alice");
+        when(authRepository.findByChainKeyIsNullOrderByTimestampAsc()).thenReturn(new ArrayList<>(legacy));
+        when(authRepository.findByChainKeyIsNotNullOrderByChainKeyAscChainSeqAsc()).thenReturn(new ArrayList<>(rows));
+        when(checkpointService.verify(AuditTable.AUTHENTICATION)).thenReturn(true);
+
+        assertTrue(service.verifyHashChain("authentication"));
+    }
+
+    @Test
+    void verifyHashChain_detectsATamperedRow() {
+        List<AuditAuthenticationEventEntity> rows = sharded("alice", "alice", "alice");
+        rows.get(1).setPreviousEventHash(rows.get(0).getPreviousEventHash());
+        when(authRepository.findByChainKeyIsNullOrderByTimestampAsc()).thenReturn(List.of());
+        when(authRepository.findByChainKeyIsNotNullOrderByChainKeyAscChainSeqAsc()).thenReturn(new ArrayList<>(rows));
+
+        assertFalse(service.verifyHashChain("authentication"));
+        verifyNoInteractions(checkpointService);
+    }
+
+    @Test
+    void verifyHashChain_detectsADeletedRow() {
+        List<AuditAuthenticationEventEntity> rows = sharded("alice", "alice", "alice");
+        rows.remove(1);
+        when(authRepository.findByChainKeyIsNullOrderByTimestampAsc()).thenReturn(List.of());
+        when(authRepository.findByChainKeyIsNotNullOrderByChainKeyAscChainSeqAsc()).thenReturn(new ArrayList<>(rows));
+
+        assertFalse(service.verifyHashChain("authentication"));
+    }
+
+    @Test
+    void verifyHashChain_rejectsUnknownTables() {
+        assertFalse(service.verifyHashChain("users"));
+        verifyNoInteractions(authRepository, checkpointService);
+    }
+
+    @Test
+    void updateCollaborationEventHash_chainsEventsPerRunAndNode() {
+        UUID runA = UUID.randomUUID();
+        UUID runB = UUID.randomUUID();
+        CollaborationEventEntity a1 = new CollaborationEventEntity(runA, "u1", "GRAFT", "{}", T0);
+        CollaborationEventEntity b1 = new CollaborationEventEntity(runB, "u1", "GRAFT", "{}", T0);
+        CollaborationEventEntity a2 = new CollaborationEventEntity(runA, "u2", "PRUNE", "{}", T0.plusSeconds(1));
+
+        service.updateCollaborationEventHash(a1);
+        service.updateCollaborationEventHash(b1);
+        service.updateCollaborationEventHash(a2);
+
+        assertEquals("run:" + runA + "@node-a", a2.getChainKey());
+        assertEquals(2L, a2.getChainSeq());
+        assertEquals(a1.getEventHash(), a2.getPreviousEventHash());
+        assertEquals(1L, b1.getChainSeq());
+        assertEquals(AuditHashChains.GENESIS_HASH, b1.getPreviousEventHash());
+        verify(collaborationRepository, times(1)).findTopByChainKeyOrderByChainSeqDesc("run:" + runA + "@node-a");
+    }
+
+    @Test
+    void updateCollaborationEventHash_holdsTheChainUntilTheTransactionCompletes() throws Exception {
+        UUID runId = UUID.randomUUID();
+        CollaborationEventEntity rolledBack = new CollaborationEventEntity(runId, "u1", "GRAFT", "{}", T0);
+        CollaborationEventEntity next = new CollaborationEventEntity(runId, "u2", "PRUNE", "{}", T0.plusSeconds(1));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.updateCollaborationEventHash(rolledBack);
+            CompletableFuture<Void> concurrent = CompletableFuture.runAsync(
+                    () -> service.updateCollaborationEventHash(next));
+            ExecutionException busy = assertThrows(ExecutionException.class, () -> concurrent.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, busy.getCause());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        service.updateCollaborationEventHash(next);
+
+        assertEquals(1L, next.getChainSeq(), "the rolled-back row's position is reused");
+        assertEquals(AuditHashChains.GENESIS_HASH, next.getPreviousEventHash());
+        verify(collaborationRepository, times(2)).findTopByChainKeyOrderByChainSeqDesc("run:" + runId + "@node-a");
+        assertTrue(chains.drainAdvanced(AuditTable.COLLABORATION_EVENTS).values().stream()
+                .allMatch(head -> head.hash().equals(next.getEventHash())));
+    }
+
+    @Test
+    void accessEvents_ofDifferentUsersDoNotShareAChain() {
+        when(accessRepository.findByChainKeyIsNullOrderByTimestampAsc()).thenReturn(List.of());
+        AuditAccessLogEntity alice = access("alice");
+        AuditAccessLogEntity bob = access("bob");
+        chains.store(List.of(new AuditHashChains.ChainRow(AuditTable.ACCESS_LOGS, "name:alice", alice),
+                new AuditHashChains.ChainRow(AuditTable.ACCESS_LOGS, "name:bob", bob)), () -> {});
+        when(accessRepository.findByChainKeyIsNotNullOrderByChainKeyAscChainSeqAsc())
+                .thenReturn(new ArrayList<>(List.of(alice, bob)));
+        when(checkpointService.verify(AuditTable.ACCESS_LOGS)).thenReturn(true);
+
+        assertEquals(AuditHashChains.GENESIS_HASH, bob.getPreviousEventHash());
+        assertTrue(service.verifyHashChain("access_logs"));
+    }
+
+    private static AuditAccessLogEntity access(String username) {
+        return new AuditAccessLogEntity(null, username, "RUN", "r1", "READ", "GET", "/api/runs/r1",
+                "127.0.0.1", "junit", 200, T0);
+    }
+
+    private static List<AuditAuthenticationEventEntity> legacyChain(String... usernames) {
+        List<AuditAuthenticationEventEntity> rows = new ArrayList<>();
+        String previous = AuditHashChains.GENESIS_HASH;
+        for (int i = 0; i < usernames.length; i++) {
+            AuditAuthenticationEventEntity row = new AuditAuthenticationEventEntity(
+                    null, usernames[i], "LOGIN", null, null, true, null, T0.plusSeconds(i));
+            row.setPreviousEventHash(previous);
+            previous = AuditHashChains.computeHash(row, previous);
+            row.setEventHash(previous);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /** Links rows through a throwaway chain cache and returns them in chain order, as the repository would. */
+    private List<AuditAuthenticationEventEntity> sharded(String... usernames) {
+        AuditHashChains linker = new AuditHashChains(mock(AuditAuthenticationEventRepository.class),
+                accessRepository, mutationRepository, adminRepository, collaborationRepository, 60, 1000);
+        List<AuditAuthenticationEventEntity> rows = new ArrayList<>();
+        for (int i = 0; i < usernames.length; i++) {
+            AuditAuthenticationEventEntity row = new AuditAuthenticationEventEntity(
+                    null, usernames[i], "LOGIN", null, null, true, null, T0.plusSeconds(i));
+            linker.store(List.of(new AuditHashChains.ChainRow(AuditTable.AUTHENTICATION, "name:" + usernames[i], row)),
+                    () -> {});
+            rows.add(row);
+        }
+        rows.sort((a, b) -> a.getChainKey().equals(b.getChainKey())
+                ? Long.compare(a.getChainSeq(), b.getChainSeq())
+                : a.getChainKey().compareTo(b.getChainKey()));
+        return rows;
+    }
+}
@@ -0,0 +1,73 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.config.ModelTierProperties;
+import com.atlasia.ai.service.observability.CorrelationIdHolder;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class BudgetTrackerTest {
+
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    private BudgetTracker tracker;
+    private ModelTierProperties.LegDefinition leg;
+    private final UUID runId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        tracker = new BudgetTracker(new ModelTierProperties(), metrics);
+        leg = new ModelTierProperties.LegDefinition();
+        leg.setCostPer1kInput(0.003);
+        leg.setCostPer1kCachedInput(0.0003);
+        leg.setCostPer1kOutput(0.015);
+        CorrelationIdHolder.setRunId(runId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        CorrelationIdHolder.clearAll();
+    }
+
+    @Test
+    void cacheWriteTokensArePricedAtTheWriteRate() {
+        // 1000 uncached + 2000 written + 1000 read; write rate defaults to 1.25 × input.
+        tracker.recordUsage(4000, 1000, 2000, 0, leg, "anthropic");
+
+        double expected = 1.0 * 0.003 + 2.0 * 0.00375 + 1.0 * 0.0003;
+        assertEquals(expected, tracker.snapshot().spentRunUsd(), 1e-9);
+    }
+
+    @Test
+    void explicitCacheWriteRateOverridesTheDefault() {
+        leg.setCostPer1kCacheWriteInput(0.01);
+
+        assertEquals(0.01, leg.estimateCostUsd(1000, 0, 1000, 0), 1e-9);
+        assertEquals(0.003, leg.estimateCostUsd(1000, 0, 0), 1e-9);
+    }
+
+    @Test
+    void releaseRun_dropsPerRunTalliesButKeepsDailySpend() {
+        tracker.recordUsage(2000, 1000, 0, 100, leg, "anthropic");
+        assertEquals(1000L, tracker.snapshot().cachedInputTokensRun());
+        double day = tracker.snapshot().spentDayUsd();
+
+        tracker.releaseRun(runId);
+
+        BudgetTracker.BudgetSnapshot after = tracker.snapshot();
+        assertEquals(0L, after.cachedInputTokensRun());
+        assertEquals(0L, after.uncachedInputTokensRun());
+        assertEquals(0.0, after.spentRunUsd());
+        assertEquals(day, after.spentDayUsd(), 1e-12);
+    }
+}
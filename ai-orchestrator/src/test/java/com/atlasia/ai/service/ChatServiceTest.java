@@ -17,6 +17,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -113,6 +114,22 @@ class ChatServiceTest {
         assertEquals("previous", sent.history().get(0).get("content"));
     }
 
+    @Test
+    void chatStream_forwardsTokensAndSavesFullReply() {
+        when(chatPersonaLoader.hasPersona("architect")).thenReturn(true);
+        when(chatPersonaLoader.getSystemPrompt("architect")).thenReturn("# Identity\nYou are an architect.");
+        when(memoryService.getContextWindow("user1", "architect")).thenReturn(List.of());
+        Consumer<String> onToken = token -> {};
+        when(aiProviderRouter.stream(eq("architect"), any(AiPrompt.class), eq(onToken)))
+                .thenReturn(new AiResponse("Streamed advice.", 0, 0, "test", "test", 0L));
+
+        var reply = chatService.chatStream("user1", "architect", "Design the auth module.", onToken);
+
+        assertEquals("Streamed advice.", reply);
+        verify(aiProviderRouter, never()).call(any(), any());
+        verify(memoryService).saveTurns("user1", "architect", "Design the auth module.", "Streamed advice.");
+    }
+
     @Test
     void chat_unknownPersona_throwsIllegalArgument() {
         when(chatPersonaLoader.hasPersona("unknown")).thenReturn(false);
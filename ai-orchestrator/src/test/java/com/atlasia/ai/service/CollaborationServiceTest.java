@@ -1,11 +1,14 @@
 package com.atlasia.ai.service;
 
 import com.atlasia.ai.model.CollaborationEventEntity;
+import com.atlasia.ai.model.PersistedCollaborationMessage;
 import com.atlasia.ai.model.RunEntity;
 import com.atlasia.ai.model.RunStatus;
 import com.atlasia.ai.persistence.CollaborationEventRepository;
 import com.atlasia.ai.persistence.PersistedCollaborationMessageRepository;
+import com.atlasia.ai.persistence.RunArtifactRepository;
 import com.atlasia.ai.persistence.RunRepository;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,12 +17,17 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.Instant;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -35,6 +43,9 @@ class CollaborationServiceTest {
     @Mock
     private RunRepository runRepository;
 
+    @Mock
+    private RunArtifactRepository artifactRepository;
+
     @Mock
     private SimpMessagingTemplate messagingTemplate;
 
@@ -56,6 +67,12 @@ class CollaborationServiceTest {
     @Mock
     private io.opentelemetry.api.trace.Tracer tracer;
 
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private CollaborationService collaborationService;
     private ObjectMapper objectMapper;
 
@@ -63,6 +80,7 @@ class CollaborationServiceTest {
     void setUp() {
         objectMapper = new ObjectMapper();
         lenient().when(messageRepository.findMaxSequenceNumberByRunId(any())).thenReturn(0L);
+        lenient().when(runRepository.save(any(RunEntity.class))).thenAnswer(inv -> inv.getArgument(0));
         lenient().when(crdtSyncService.getLocalRegion()).thenReturn("us-east-1");
         lenient().when(crdtDocumentManager.applyGraftMutation(any(), any(), any())).thenReturn(new byte[0]);
         lenient().when(crdtDocumentManager.applyPruneMutation(any(), any(), any())).thenReturn(new byte[0]);
@@ -78,9 +96,12 @@ class CollaborationServiceTest {
         lenient().when(mockSpan.makeCurrent()).thenReturn(mock(io.opentelemetry.context.Scope.class));
         
         collaborationService = new CollaborationService(
-                eventRepository, messageRepository, runRepository, 
+                eventRepository, messageRepository,
                 messagingTemplate, objectMapper, connectionMonitor, auditTrailService,
-                crdtDocumentManager, crdtSyncService, crdtSnapshotService, tracer);
+                crdtDocumentManager, crdtSyncService, crdtSnapshotService, tracer,
+                metrics, transactionManager,
+                new RunStateService(runRepository, artifactRepository, transactionManager, metrics),
+                1000, 200, 3, 200);
     }
 
     @Test
@@ -122,7 +143,7 @@ class CollaborationServiceTest {
         pruneData.put("isPruned", true);
 
         RunEntity run = new RunEntity(runId, "test/repo", 1, "code", RunStatus.RECEIVED, Instant.now());
-        when(runRepository.findWithLockById(runId)).thenReturn(Optional.of(run));
+        when(runRepository.findById(runId)).thenReturn(Optional.of(run));
 
         collaborationService.handlePruneMutation(runId, userId, pruneData);
 
@@ -181,7 +202,7 @@ class CollaborationServiceTest {
     void testConcurrentPruneMutations() {
         UUID runId = UUID.randomUUID();
         RunEntity run = new RunEntity(runId, "test/repo", 1, "code", RunStatus.RECEIVED, Instant.now());
-        when(runRepository.findWithLockById(runId)).thenReturn(Optional.of(run));
+        when(runRepository.findById(runId)).thenReturn(Optional.of(run));
 
         // User 1 prunes QUALIFIER
         Map<String, Object> prune1 = new HashMap<>();
@@ -190,7 +211,7 @@ class CollaborationServiceTest {
         collaborationService.handlePruneMutation(runId, "user1", prune1);
 
         // User 2 prunes WRITER
-        when(runRepository.findWithLockById(runId)).thenReturn(Optional.of(run));
+        when(runRepository.findById(runId)).thenReturn(Optional.of(run));
         Map<String, Object> prune2 = new HashMap<>();
         prune2.put("stepId", "WRITER");
         prune2.put("isPruned", true);
@@ -204,6 +225,26 @@ class CollaborationServiceTest {
         verify(crdtSyncService, times(2)).broadcastChanges(eq(runId), any(byte[].class));
     }
 
+    @Test
+    void prune_retriedOnVersionConflictAndMergedIntoTheFreshRow() {
+        UUID runId = UUID.randomUUID();
+        when(crdtDocumentManager.getState(runId)).thenReturn(new com.atlasia.ai.model.CrdtDocumentState(
+                new ArrayList<>(), new HashSet<>(Set.of("QUALIFIER")), new HashMap<>()));
+        RunEntity stale = new RunEntity(runId, "test/repo", 1, "code", RunStatus.RECEIVED, Instant.now());
+        RunEntity fresh = new RunEntity(runId, "test/repo", 1, "code", RunStatus.DEVELOPER, Instant.now());
+        fresh.setPrunedSteps("WRITER");
+        when(runRepository.findById(runId)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(runRepository.save(any(RunEntity.class)))
+                .thenThrow(new org.springframework.orm.ObjectOptimisticLockingFailureException(RunEntity.class, runId))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        collaborationService.handlePruneMutation(runId, "user1", Map.of("stepId", "QUALIFIER", "isPruned", true));
+
+        assertEquals(Set.of("QUALIFIER", "WRITER"), new HashSet<>(Arrays.asList(fresh.getPrunedSteps().split(","))));
+        assertEquals(RunStatus.DEVELOPER, fresh.getStatus(), "the engine's concurrent commit must survive");
+        verify(metrics).recordRunStateConflict();
+    }
+
     @Test
     void testGetRecentEvents() {
         UUID runId = UUID.randomUUID();
@@ -216,4 +257,102 @@ class CollaborationServiceTest {
         List<CollaborationEventEntity> events = collaborationService.getRecentEvents(runId, 50);
         assertEquals(2, events.size());
     }
+
+    @Test
+    void criticalMessages_savedDirectlyWithoutScanningTheRun() {
+        UUID runId = UUID.randomUUID();
+        Map<String, Object> flagData = new HashMap<>();
+        flagData.put("nodeId", "DEVELOPER");
+        flagData.put("flagType", "question");
+
+        collaborationService.handleFlagMutation(runId, "user1", flagData);
+
+        ArgumentCaptor<PersistedCollaborationMessage> captor = ArgumentCaptor.forClass(PersistedCollaborationMessage.class);
+        verify(messageRepository).save(captor.capture());
+        assertTrue(captor.getValue().getIsCritical());
+        verify(messageRepository, never()).findByRunIdOrderBySequenceNumberDesc(any());
+        verify(messageRepository, never()).deleteUpToSequence(any(), anyBoolean(), anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void presenceMessages_batchedAndDroppedWhenQueueFull() {
+        UUID runId = UUID.randomUUID();
+        for (int i = 0; i < 5; i++) {
+            collaborationService.handleCursorMove(runId, "user1", "node-" + i);
+        }
+
+        verify(messageRepository, never()).save(any(PersistedCollaborationMessage.class));
+        verify(metrics, times(2)).recordCollaborationMessagesDropped(1);
+
+        collaborationService.flushPendingMessages();
+
+        ArgumentCaptor<List<PersistedCollaborationMessage>> captor = ArgumentCaptor.forClass(List.class);
+        verify(messageRepository).saveAll(captor.capture());
+        assertEquals(List.of(1L, 2L, 3L), captor.getValue().stream()
+                .map(PersistedCollaborationMessage::getSequenceNumber).toList());
+        assertFalse(captor.getValue().get(0).getIsCritical());
+        verify(metrics).updateCollaborationRetentionLag(3L);
+    }
+
+    @Test
+    void persistedMessages_stopBelowPresenceStillWaitingForFlush() {
+        UUID runId = UUID.randomUUID();
+        lenient().when(runRepository.findById(runId)).thenReturn(Optional.empty());
+        collaborationService.handleUserJoin(runId, "user1");          // seq 1, queued
+        Map<String, Object> flagData = new HashMap<>();
+        flagData.put("nodeId", "DEVELOPER");
+        collaborationService.handleFlagMutation(runId, "user1", flagData); // seq 2, saved directly
+
+        PersistedCollaborationMessage flag = new PersistedCollaborationMessage(
+                runId, "user1", "FLAG", "{}", Instant.now(), 2L, true);
+        when(messageRepository.findByRunIdAfterSequence(runId, 0L)).thenReturn(List.of(flag));
+
+        // The join is not in the table yet; handing out seq 2 would make the poller skip it.
+        assertTrue(collaborationService.getPersistedMessages(runId, 0L).isEmpty());
+
+        collaborationService.flushPendingMessages();
+        PersistedCollaborationMessage join = new PersistedCollaborationMessage(
+                runId, "user1", "USER_JOIN", "{}", Instant.now(), 1L, false);
+        when(messageRepository.findByRunIdAfterSequence(runId, 0L)).thenReturn(List.of(join, flag));
+
+        assertEquals(List.of(1L, 2L), collaborationService.getPersistedMessages(runId, 0L).stream()
+                .map(PersistedCollaborationMessage::getSequenceNumber).toList());
+    }
+
+    @Test
+    void droppedPresence_doesNotHoldBackTheCursor() {
+        UUID runId = UUID.randomUUID();
+        for (int i = 0; i < 5; i++) {
+            collaborationService.handleCursorMove(runId, "user1", "node-" + i);  // 4 and 5 are dropped
+        }
+        collaborationService.flushPendingMessages();
+        PersistedCollaborationMessage last = new PersistedCollaborationMessage(
+                runId, "user1", "CURSOR_MOVE", "{}", Instant.now(), 3L, false);
+        when(messageRepository.findByRunIdAfterSequence(runId, 2L)).thenReturn(List.of(last));
+
+        assertEquals(1, collaborationService.getPersistedMessages(runId, 2L).size());
+    }
+
+    @Test
+    void trimRetainedMessages_deletesBelowCutoffOnlyForRunsWithNewWrites() {
+        UUID runId = UUID.randomUUID();
+        Map<String, Object> pruneData = new HashMap<>();
+        pruneData.put("stepId", "QUALIFIER");
+        lenient().when(runRepository.findById(runId)).thenReturn(Optional.empty());
+        collaborationService.handlePruneMutation(runId, "user1", pruneData);
+
+        when(messageRepository.findRetentionCutoff(runId, true, 1000)).thenReturn(42L);
+        when(messageRepository.findRetentionCutoff(runId, false, 200)).thenReturn(null);
+        when(messageRepository.deleteUpToSequence(runId, true, 42L)).thenReturn(7);
+
+        collaborationService.trimRetainedMessages();
+        collaborationService.trimRetainedMessages();
+
+        verify(messageRepository, times(1)).deleteUpToSequence(runId, true, 42L);
+        verify(messageRepository, times(2)).findRetentionCutoff(any(), anyBoolean(), anyInt());
+        verify(metrics).recordCollaborationMessagesTrimmed(7);
+        verify(metrics, times(2)).updateCollaborationRetentionLag(0L);
+        verify(messageRepository, never()).saveAll(anyList());
+    }
 }
@@ -0,0 +1,150 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.CrdtDocumentState;
+import com.atlasia.ai.service.crdt.CrdtBinaryCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrdtDocumentManagerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final UUID runId = UUID.randomUUID();
+
+    private CrdtDocumentManager east;
+    private CrdtDocumentManager west;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        east = new CrdtDocumentManager(mapper, "us-east-1/a", now::get);
+        west = new CrdtDocumentManager(mapper, "eu-west-1/b", now::get);
+    }
+
+    @Test
+    void deltas_convergeRegardlessOfDeliveryOrder() {
+        byte[] d1 = east.applyGraftMutation(runId, "alice", Map.of("after", "step-1", "agentName", "reviewer"));
+        byte[] d2 = east.applyPruneMutation(runId, "alice", Map.of("stepId", "step-2", "isPruned", true));
+        byte[] d3 = east.applyFlagMutation(runId, "alice", Map.of("key", "step-3", "value", "blocker"));
+        byte[] d4 = east.applyPruneMutation(runId, "alice", Map.of("stepId", "step-2", "isPruned", false));
+
+        west.applyChanges(runId, d4);
+        west.applyChanges(runId, d2);
+        west.applyChanges(runId, d3);
+        west.applyChanges(runId, d1);
+        west.applyChanges(runId, d2);
+
+        assertSameState(east.getState(runId), west.getState(runId));
+        assertTrue(west.getState(runId).getPrunedSteps().isEmpty(), "removal seen first must still cancel the add");
+        assertEquals(east.versionVector(runId), west.versionVector(runId));
+    }
+
+    @Test
+    void concurrentPruneAndUnprune_addWins() {
+        byte[] base = east.applyPruneMutation(runId, "alice", Map.of("stepId", "step-1", "isPruned", true));
+        west.applyChanges(runId, base);
+
+        byte[] unprune = east.applyPruneMutation(runId, "alice", Map.of("stepId", "step-1", "isPruned", false));
+        byte[] reprune = west.applyPruneMutation(runId, "bob", Map.of("stepId", "step-1", "isPruned", true));
+
+        east.applyChanges(runId, reprune);
+        west.applyChanges(runId, unprune);
+
+        assertEquals(Set.of("step-1"), east.getState(runId).getPrunedSteps());
+        assertEquals(Set.of("step-1"), west.getState(runId).getPrunedSteps());
+    }
+
+    @Test
+    void flags_lastWriterByHybridClockWins() {
+        byte[] first = east.applyFlagMutation(runId, "alice", Map.of("key", "step-1", "value", "low"));
+        // West's wall clock is behind, but having seen east's write its next write still orders later.
+        west.applyChanges(runId, first);
+        now.addAndGet(-5_000);
+        byte[] second = west.applyFlagMutation(runId, "bob", Map.of("key", "step-1", "value", "high"));
+
+        east.applyChanges(runId, second);
+        east.applyChanges(runId, first);
+
+        assertEquals("high", east.getState(runId).getFlags().get("step-1"));
+        assertEquals("high", west.getState(runId).getFlags().get("step-1"));
+    }
+
+    @Test
+    void flags_clearedWhenValueMissing() {
+        east.applyFlagMutation(runId, "alice", Map.of("nodeId", "step-1", "flagType", "question"));
+        assertEquals("question", east.getState(runId).getFlags().get("step-1"));
+
+        now.incrementAndGet();
+        east.applyFlagMutation(runId, "alice", Map.of("key", "step-1"));
+
+        assertFalse(east.getState(runId).getFlags().containsKey("step-1"));
+    }
+
+    @Test
+    void deltaSince_shipsOnlyWhatThePeerIsMissing() {
+        for (int i = 0; i < 20; i++) {
+            west.applyChanges(runId,
+                east.applyGraftMutation(runId, "alice", Map.of("after", "step-" + i, "agentName", "agent")));
+        }
+        east.applyPruneMutation(runId, "alice", Map.of("stepId", "step-3", "isPruned", true));
+        east.applyPruneMutation(runId, "alice", Map.of("stepId", "step-3", "isPruned", false));
+        east.applyGraftMutation(runId, "alice", Map.of("after", "step-20", "agentName", "agent"));
+
+        byte[] delta = east.deltaSince(runId, west.versionVector(runId));
+        assertTrue(delta.length > 0);
+        assertTrue(delta.length < east.getChanges(runId).length / 4,
+            "delta " + delta.length + " vs full " + east.getChanges(runId).length);
+
+        west.applyChanges(runId, delta);
+        assertSameState(east.getState(runId), west.getState(runId));
+        assertEquals(east.versionVector(runId), west.versionVector(runId));
+        assertEquals(0, east.deltaSince(runId, west.versionVector(runId)).length);
+    }
+
+    @Test
+    void codec_roundTripsFullState() {
+        east.applyGraftMutation(runId, "alice", Map.of("after", "step-1", "agentName", "reviewer"));
+        east.applyPruneMutation(runId, "alice", Map.of("stepId", "step-2", "isPruned", true));
+        east.applyFlagMutation(runId, "alice", Map.of("key", "step-3", "value", 42));
+
+        byte[] encoded = east.getChanges(runId);
+        assertArrayEquals(encoded, CrdtBinaryCodec.encode(CrdtBinaryCodec.decode(encoded)));
+
+        west.mergeDocuments(runId, encoded);
+        assertSameState(east.getState(runId), west.getState(runId));
+        assertEquals("42", west.getState(runId).getFlags().get("step-3"));
+    }
+
+    @Test
+    void applyChanges_ignoresGarbageAndJavaSerializedPayloads() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new HashMap<>(Map.of("grafts", List.of())));
+        }
+
+        east.applyChanges(runId, bytes.toByteArray());
+        east.applyChanges(runId, new byte[] {(byte) 0xC7, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF});
+
+        assertEquals(0, east.getChanges(runId).length);
+        assertThrows(IllegalArgumentException.class,
+            () -> CrdtBinaryCodec.decode(new byte[] {(byte) 0xC7, 1, 5}));
+    }
+
+    private static void assertSameState(CrdtDocumentState expected, CrdtDocumentState actual) {
+        assertEquals(Set.copyOf(expected.getGrafts().stream().map(g -> g.getId() + "@" + g.getAfter()).toList()),
+            Set.copyOf(actual.getGrafts().stream().map(g -> g.getId() + "@" + g.getAfter()).toList()));
+        assertEquals(expected.getPrunedSteps(), actual.getPrunedSteps());
+        assertEquals(expected.getFlags(), actual.getFlags());
+    }
+}
@@ -6,6 +6,7 @@ import com.atlasia.ai.model.RunEntity;
 import com.atlasia.ai.model.RunStatus;
 import com.atlasia.ai.model.TaskComplexity;
 import com.atlasia.ai.service.exception.AgentStepException;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -54,7 +55,8 @@ class DeveloperStepIntegrationTest {
     @BeforeEach
     void setUp() {
         developerStep = new DeveloperStep(
-                gitHubApiClient, llmService, complexityResolver, objectMapper, properties, agentContractLoader);
+                gitHubApiClient, llmService, complexityResolver, objectMapper, properties, agentContractLoader,
+                new GitCommitBuilder(gitHubApiClient, mock(OrchestratorMetrics.class), 0, 4));
 
         runEntity = new RunEntity(
                 UUID.randomUUID(),
@@ -107,7 +109,7 @@ class DeveloperStepIntegrationTest {
                 }
                 """;
 
-        when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+        when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                 .thenReturn(LlmResult.primary(llmResponse));
 
         var result = developerStep.execute(context);
@@ -129,7 +131,7 @@ class DeveloperStepIntegrationTest {
     void testLlmRetryMechanism() throws Exception {
         setupMocksForSuccessfulFlow();
 
-        when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+        when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                 .thenThrow(new RuntimeException("Temporary failure"))
                 .thenThrow(new RuntimeException("Temporary failure"))
                 .thenReturn(LlmResult.primary("""
@@ -151,20 +153,20 @@ class DeveloperStepIntegrationTest {
         var result = developerStep.execute(context);
 
         assertNotNull(result);
-        verify(llmService, times(3)).generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class));
+        verify(llmService, times(3)).generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class));
     }
 
     @Test
     void testFallbackWhenLlmCompletelyFails() throws Exception {
         setupMocksForSuccessfulFlow();
 
-        when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+        when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                 .thenThrow(new RuntimeException("LLM service down"));
 
         var result = developerStep.execute(context);
 
         assertNotNull(result);
-        verify(llmService, times(3)).generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class));
+        verify(llmService, times(3)).generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class));
         verify(gitHubApiClient).createBlob(eq("test-owner"), eq("test-repo"), contains("Implementation Plan"),
                 eq("utf-8"));
     }
@@ -189,7 +191,7 @@ class DeveloperStepIntegrationTest {
                 }
                 """;
 
-        when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+        when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                 .thenReturn(LlmResult.primary(llmResponse));
 
         assertThrows(AgentStepException.class, () -> {
@@ -217,7 +219,7 @@ class DeveloperStepIntegrationTest {
                 }
                 """;
 
-        when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+        when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                 .thenReturn(LlmResult.primary(llmResponse));
 
         assertThrows(AgentStepException.class, () -> {
@@ -271,7 +273,7 @@ class DeveloperStepIntegrationTest {
                 }
                 """;
 
-        when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+        when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                 .thenReturn(LlmResult.primary(llmResponse));
 
         developerStep.execute(context);
@@ -316,7 +318,7 @@ class DeveloperStepIntegrationTest {
                 }
                 """;
 
-        when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+        when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                 .thenReturn(LlmResult.primary(llmResponse));
 
         developerStep.execute(context);
@@ -4,6 +4,7 @@ import com.atlasia.ai.config.OrchestratorProperties;
 import com.atlasia.ai.model.RunEntity;
 import com.atlasia.ai.model.RunStatus;
 import com.atlasia.ai.model.TaskComplexity;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -56,7 +57,8 @@ class DeveloperStepTest {
                         complexityResolver,
                         objectMapper,
                         properties,
-                        agentContractLoader);
+                        agentContractLoader,
+                        new GitCommitBuilder(gitHubApiClient, mock(OrchestratorMetrics.class), 0, 4));
 
                 runEntity = new RunEntity(
                                 UUID.randomUUID(),
@@ -96,7 +98,7 @@ class DeveloperStepTest {
                 when(gitHubApiClient.getRepoTree("owner", "repo", "main-sha-123", true))
                                 .thenReturn(tree);
 
-                when(gitHubApiClient.getRepoContent(eq("owner"), eq("repo"), anyString()))
+                when(gitHubApiClient.getRepoContent(eq("owner"), eq("repo"), anyString(), eq("main-sha-123")))
                                 .thenReturn(Map.of("content",
                                                 Base64.getEncoder().encodeToString("file content".getBytes())));
 
@@ -116,7 +118,7 @@ class DeveloperStepTest {
                                     "implementationNotes": "Follows existing patterns"
                                 }
                                 """;
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 when(gitHubApiClient.createBlob(eq("owner"), eq("repo"), anyString(), eq("utf-8")))
@@ -146,7 +148,7 @@ class DeveloperStepTest {
                 assertEquals("https://github.com/owner/repo/pull/1", context.getPrUrl());
 
                 verify(gitHubApiClient).createBranch("owner", "repo", "ai/issue-123", "main-sha-123");
-                verify(llmService).generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class));
+                verify(llmService).generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class));
                 verify(gitHubApiClient).createBlob(eq("owner"), eq("repo"), anyString(), eq("utf-8"));
                 verify(gitHubApiClient).createTree(eq("owner"), eq("repo"), anyList(), eq("main-sha-123"));
                 verify(gitHubApiClient).createCommit(
@@ -175,20 +177,65 @@ class DeveloperStepTest {
                                 true))
                                 .thenReturn(Map.of("ref", "refs/heads/ai/issue-123"));
 
-                when(gitHubApiClient.createBranch("owner", "repo", "ai/issue-123", "main-sha-123"))
-                                .thenReturn(Map.of("ref", "refs/heads/ai/issue-123"));
-
                 setupSuccessfulExecution();
 
                 // Execute
                 String result = developerStep.execute(context);
 
-                // Verify conflict resolution
+                // Verify conflict resolution; the existing branch is reused, not created again
                 verify(gitHubApiClient).compareCommits("owner", "repo", "main-sha-123", "old-branch-sha");
                 verify(gitHubApiClient).updateReference("owner", "repo", "heads/ai/issue-123", "main-sha-123", true);
+                verify(gitHubApiClient, never()).createBranch(anyString(), anyString(), anyString(), anyString());
                 assertNotNull(result);
         }
 
+        @Test
+        void testExecute_retriedRunReusesBranchAndOpenPullRequest() throws Exception {
+                when(gitHubApiClient.getReference("owner", "repo", "heads/main"))
+                                .thenReturn(Map.of("object", Map.of("sha", "main-sha-123")));
+                // Earlier attempt left a commit on the branch and opened the PR before its lease expired.
+                when(gitHubApiClient.getReference("owner", "repo", "heads/ai/issue-123"))
+                                .thenReturn(Map.of("object", Map.of("sha", "stale-attempt-sha")));
+                when(gitHubApiClient.compareCommits("owner", "repo", "main-sha-123", "stale-attempt-sha"))
+                                .thenReturn(Map.of("ahead_by", 1, "behind_by", 0));
+                when(gitHubApiClient.listOpenPullRequestsForBranch("owner", "repo", "ai/issue-123"))
+                                .thenReturn(List.of(Map.of("html_url", "https://github.com/owner/repo/pull/7")));
+                setupSuccessfulExecution();
+
+                String result = developerStep.execute(context);
+
+                assertEquals("https://github.com/owner/repo/pull/7", result);
+                verify(gitHubApiClient).updateReference("owner", "repo", "heads/ai/issue-123", "main-sha-123", true);
+                verify(gitHubApiClient, never()).createBranch(anyString(), anyString(), anyString(), anyString());
+                verify(gitHubApiClient, never()).createPullRequest(anyString(), anyString(), anyString(),
+                                anyString(), anyString(), anyString());
+        }
+
+        @Test
+        void testExecute_shadowRunCommitsToShadowBranchWithoutPullRequest() throws Exception {
+                RunEntity shadowRun = new RunEntity(UUID.randomUUID(), "owner/repo", 123,
+                                ShadowModeService.SHADOW_MODE, RunStatus.DEVELOPER, Instant.now());
+                context = new RunContext(shadowRun, "owner", "repo");
+                context.setBranchName("shadow/ai/issue-123");
+                context.setIssueData(Map.of("title", "Add user authentication", "body", "Implement JWT"));
+
+                when(gitHubApiClient.getReference("owner", "repo", "heads/main"))
+                                .thenReturn(Map.of("object", Map.of("sha", "main-sha-123")));
+                when(gitHubApiClient.getReference("owner", "repo", "heads/shadow/ai/issue-123"))
+                                .thenThrow(new RuntimeException("Branch does not exist"));
+                setupSuccessfulExecution();
+
+                String result = developerStep.execute(context);
+
+                assertEquals("https://github.com/owner/repo/tree/shadow/ai/issue-123", result);
+                assertEquals(result, context.getPrUrl());
+                verify(gitHubApiClient).createBranch("owner", "repo", "shadow/ai/issue-123", "main-sha-123");
+                verify(gitHubApiClient).updateReference("owner", "repo", "heads/shadow/ai/issue-123",
+                                "commit-sha-123", false);
+                verify(gitHubApiClient, never()).createPullRequest(anyString(), anyString(), anyString(),
+                                anyString(), anyString(), anyString());
+        }
+
         @Test
         void testValidateCodeChanges_rejectsProtectedWorkflowFiles() {
                 lenient().when(properties.repoAllowlist()).thenReturn("src/,docs/,pom.xml,.github/workflows/");
@@ -436,7 +483,7 @@ class DeveloperStepTest {
                                 .thenReturn(Map.of("sha", "tree-sha", "tree", List.of()));
 
                 // LLM fails
-                lenient().when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                lenient().when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenThrow(new RuntimeException("LLM service unavailable"));
 
                 setupGitHubTreeMocks();
@@ -527,7 +574,7 @@ class DeveloperStepTest {
                                     "implementationNotes": "Following patterns"
                                 }
                                 """;
-                lenient().when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                lenient().when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 setupGitHubTreeMocks();
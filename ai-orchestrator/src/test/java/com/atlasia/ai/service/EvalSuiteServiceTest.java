@@ -0,0 +1,130 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.EvalScenarioResultEntity;
+import com.atlasia.ai.model.TaskComplexity;
+import com.atlasia.ai.persistence.EvalScenarioResultRepository;
+import com.atlasia.ai.persistence.RunRepository;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EvalSuiteServiceTest {
+
+    @Mock
+    private RunRepository runRepository;
+    @Mock
+    private JudgeService judgeService;
+    @Mock
+    private LlmService llmService;
+    @Mock
+    private OrchestratorMetrics metrics;
+    @Mock
+    private EvalScenarioResultRepository scenarioResultRepository;
+
+    private EvalSuiteService newService(int concurrency) {
+        return new EvalSuiteService(runRepository, judgeService, llmService, metrics, new ObjectMapper(),
+                scenarioResultRepository, concurrency);
+    }
+
+    @Test
+    void executeSuite_gradesConcurrentlyWithinLimitAndStoresEachResult() {
+        EvalSuiteService service = newService(3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(llmService.generateCompletionCached(isNull(), anyString(), eq(TaskComplexity.MEDIUM), isNull()))
+                .thenAnswer(inv -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(50);
+                    inFlight.decrementAndGet();
+                    return "{\"score\": 0.9}";
+                });
+        List<EvalSuiteService.EvalScenario> scenarios = IntStream.range(0, 8)
+                .mapToObj(i -> scenario("S-" + i)).toList();
+
+        EvalSuiteService.SuiteResult result = service.executeSuite(scenarios);
+
+        assertEquals(8, result.passCount());
+        assertEquals(List.of("S-0", "S-1", "S-2", "S-3", "S-4", "S-5", "S-6", "S-7"),
+                result.results().stream().map(EvalSuiteService.ScenarioResult::scenarioId).toList());
+        assertTrue(maxInFlight.get() > 1, "scenarios should overlap");
+        assertTrue(maxInFlight.get() <= 3, "concurrency limit exceeded: " + maxInFlight.get());
+        verify(scenarioResultRepository, times(8)).save(any(EvalScenarioResultEntity.class));
+        assertNull(service.getProgress(result.suiteRunId()), "finished suites are no longer tracked");
+    }
+
+    @Test
+    void executeSuite_resumeReusesStoredResultsAndGradesOnlyTheRest() {
+        EvalSuiteService service = newService(4);
+        UUID suiteRunId = UUID.randomUUID();
+        when(scenarioResultRepository.findBySuiteRunId(suiteRunId)).thenReturn(List.of(
+                new EvalScenarioResultEntity(suiteRunId, "done", false, false, false,
+                        0.2, 0.2, 0, 0, 10, true, Instant.now())));
+        when(llmService.generateCompletionCached(isNull(), contains("pending"), eq(TaskComplexity.MEDIUM), isNull()))
+                .thenReturn("{\"score\": 0.8}");
+
+        EvalSuiteService.SuiteResult result = service.executeSuite(suiteRunId,
+                List.of(scenario("done"), scenario("pending")));
+
+        assertFalse(result.results().get(0).pass());
+        assertTrue(result.results().get(1).pass());
+        assertEquals(1, result.passCount());
+        verify(llmService, never()).generateCompletionCached(isNull(), contains("done"), any(), any());
+        ArgumentCaptor<EvalScenarioResultEntity> saved = ArgumentCaptor.forClass(EvalScenarioResultEntity.class);
+        verify(scenarioResultRepository).save(saved.capture());
+        assertEquals("pending", saved.getValue().getScenarioId());
+        assertEquals(suiteRunId, saved.getValue().getSuiteRunId());
+    }
+
+    @Test
+    void startSuite_returnsBeforeGradingAndTracksProgressUntilDone() throws Exception {
+        EvalSuiteService service = newService(2);
+        CountDownLatch release = new CountDownLatch(1);
+        when(llmService.generateCompletionCached(isNull(), anyString(), eq(TaskComplexity.MEDIUM), isNull()))
+                .thenAnswer(inv -> {
+                    release.await();
+                    return "{\"score\": 0.9}";
+                });
+        UUID suiteRunId = UUID.randomUUID();
+
+        CompletableFuture<EvalSuiteService.SuiteResult> started =
+                service.startSuite(suiteRunId, List.of(scenario("S-0"), scenario("S-1")));
+
+        assertFalse(started.isDone());
+        assertEquals(2, service.getProgress(suiteRunId).totalScenarios);
+        assertThrows(IllegalStateException.class,
+                () -> service.startSuite(suiteRunId, List.of(scenario("S-0"))));
+
+        release.countDown();
+        assertEquals(2, started.get(5, TimeUnit.SECONDS).passCount());
+        assertNull(service.getProgress(suiteRunId));
+        service.shutdown();
+    }
+
+    private static EvalSuiteService.EvalScenario scenario(String id) {
+        return new EvalSuiteService.EvalScenario(id, "bugfix", "easy", "title " + id,
+                "description " + id, "fixed", 0, Set.of("correctness"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GitCommitBuilderTest {
+
+    @Mock
+    private GitHubApiClient gitHubApiClient;
+
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    @Test
+    void commit_inlinesSmallTextAndUploadsLargeFilesAsBlobs() {
+        GitCommitBuilder builder = new GitCommitBuilder(gitHubApiClient, metrics, 32, 4);
+        stubTreeCommit();
+        when(gitHubApiClient.createBlob(eq("owner"), eq("repo"), anyString(), eq("utf-8")))
+                .thenReturn(Map.of("sha", "blob-sha"));
+
+        GitCommitBuilder.CommitResult result = builder.commit("developer", request(List.of(
+                GitCommitBuilder.FileEntry.text("small.txt", "hello"),
+                GitCommitBuilder.FileEntry.base64("doc.md", Base64.getEncoder().encodeToString("# Doc".getBytes())),
+                GitCommitBuilder.FileEntry.text("big.txt", "x".repeat(100)),
+                GitCommitBuilder.FileEntry.deletion("old.txt")), false));
+
+        assertEquals("commit-sha", result.commitSha());
+        assertEquals(1, result.blobsUploaded());
+        assertEquals(2, result.inlined());
+        assertEquals(1, result.deleted());
+        assertEquals(List.of("blobs", "tree", "commit", "ref"), List.copyOf(result.phaseMillis().keySet()));
+        verify(gitHubApiClient, times(1)).createBlob(anyString(), anyString(), anyString(), anyString());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Map<String, Object>>> tree = ArgumentCaptor.forClass(List.class);
+        verify(gitHubApiClient).createTree(eq("owner"), eq("repo"), tree.capture(), eq("parent-sha"));
+        List<Map<String, Object>> entries = tree.getValue();
+        assertEquals(List.of("small.txt", "doc.md", "big.txt", "old.txt"),
+                entries.stream().map(e -> e.get("path")).toList());
+        assertEquals("hello", entries.get(0).get("content"));
+        assertEquals("# Doc", entries.get(1).get("content"));
+        assertEquals("blob-sha", entries.get(2).get("sha"));
+        assertTrue(entries.get(3).containsKey("sha"));
+        assertNull(entries.get(3).get("sha"));
+        verify(gitHubApiClient).updateReference("owner", "repo", "heads/feature", "commit-sha", false);
+    }
+
+    @Test
+    void commit_uploadsBlobsConcurrently() {
+        GitCommitBuilder builder = new GitCommitBuilder(gitHubApiClient, metrics, 0, 4);
+        stubTreeCommit();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(gitHubApiClient.createBlob(anyString(), anyString(), anyString(), anyString())).thenAnswer(inv -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            return Map.of("sha", "sha-" + inv.getArgument(2));
+        });
+
+        List<GitCommitBuilder.FileEntry> files = java.util.stream.IntStream.range(0, 12)
+                .mapToObj(i -> GitCommitBuilder.FileEntry.text("f" + i, "c" + i))
+                .toList();
+        GitCommitBuilder.CommitResult result = builder.commit("developer", request(files, false));
+
+        assertEquals(12, result.blobsUploaded());
+        assertTrue(maxInFlight.get() > 1, "blob uploads should overlap");
+        assertTrue(maxInFlight.get() <= 4, "blob uploads must respect the concurrency bound");
+    }
+
+    @Test
+    void commit_failedBlobAbortsUnlessSkipping() {
+        GitCommitBuilder builder = new GitCommitBuilder(gitHubApiClient, metrics, 0, 2);
+        when(gitHubApiClient.createBlob(anyString(), anyString(), eq("bad"), anyString()))
+                .thenThrow(new RuntimeException("boom"));
+        lenient().when(gitHubApiClient.createBlob(anyString(), anyString(), eq("good"), anyString()))
+                .thenReturn(Map.of("sha", "good-sha"));
+
+        GitCommitBuilder.FileUploadException failure = assertThrows(GitCommitBuilder.FileUploadException.class,
+                () -> builder.commit("tester", request(List.of(
+                        GitCommitBuilder.FileEntry.text("a", "good"),
+                        GitCommitBuilder.FileEntry.text("b", "bad")), false)));
+        assertEquals("b", failure.getPath());
+        verify(gitHubApiClient, never()).createTree(anyString(), anyString(), anyList(), anyString());
+
+        stubTreeCommit();
+        GitCommitBuilder.CommitResult result = builder.commit("writer", request(List.of(
+                GitCommitBuilder.FileEntry.text("a", "good"),
+                GitCommitBuilder.FileEntry.text("b", "bad")), true));
+        assertEquals(List.of("b"), result.failedPaths());
+        assertEquals("commit-sha", result.commitSha());
+    }
+
+    private void stubTreeCommit() {
+        when(gitHubApiClient.createTree(anyString(), anyString(), anyList(), anyString()))
+                .thenReturn(Map.of("sha", "tree-sha"));
+        when(gitHubApiClient.createCommit(anyString(), anyString(), anyString(), anyString(), anyList(), anyMap(),
+                anyMap())).thenReturn(Map.of("sha", "commit-sha"));
+    }
+
+    private GitCommitBuilder.CommitRequest request(List<GitCommitBuilder.FileEntry> files, boolean skipFailed) {
+        return new GitCommitBuilder.CommitRequest("owner", "repo", "feature", "parent-sha", "msg",
+                Map.of("name", "bot"), Map.of("name", "bot"), files, skipFailed);
+    }
+}
@@ -0,0 +1,83 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class GitHubConditionalRequestCacheTest {
+
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    @Test
+    void filter_revalidatesWithEtagAndServesCachedBodyOn304() {
+        GitHubConditionalRequestCache cache = new GitHubConditionalRequestCache(1, metrics);
+        List<ClientRequest> sent = new ArrayList<>();
+        ExchangeFunction github = request -> {
+            sent.add(request);
+            if (sent.size() == 1) {
+                return Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.ETAG, "\"v1\"")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("{\"state\":\"open\"}")
+                        .build());
+            }
+            return Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+        };
+        ExchangeFunction filtered = cache.filter().apply(github);
+
+        String first = filtered.exchange(get()).flatMap(r -> r.bodyToMono(String.class)).block();
+        ClientResponse second = filtered.exchange(get()).block();
+
+        assertEquals("{\"state\":\"open\"}", first);
+        assertNull(sent.get(0).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"v1\"", sent.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(HttpStatus.OK.value(), second.statusCode().value());
+        assertEquals("{\"state\":\"open\"}", second.bodyToMono(String.class).block());
+        verify(metrics).recordGitHubConditionalRequest("not_modified");
+    }
+
+    @Test
+    void filter_keysEntriesByCredential() {
+        GitHubConditionalRequestCache cache = new GitHubConditionalRequestCache(1, metrics);
+        List<ClientRequest> sent = new ArrayList<>();
+        ExchangeFunction github = request -> {
+            sent.add(request);
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.ETAG, "\"v1\"")
+                    .body("{}")
+                    .build());
+        };
+        ExchangeFunction filtered = cache.filter().apply(github);
+
+        filtered.exchange(get()).flatMap(r -> r.bodyToMono(String.class)).block();
+        ClientRequest otherToken = ClientRequest.from(get()).headers(h -> h.setBearerAuth("other")).build();
+        filtered.exchange(otherToken).flatMap(r -> r.bodyToMono(String.class)).block();
+
+        assertNull(sent.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    private ClientRequest get() {
+        return ClientRequest.create(HttpMethod.GET, URI.create("https://api.github.com/repos/o/r/pulls/1"))
+                .headers(h -> h.setBearerAuth("token-a"))
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class GitHubRateLimitGovernorTest {
+
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    private final Instant now = Instant.parse("2026-01-01T10:00:00Z");
+    private GitHubRateLimitGovernor governor;
+
+    @BeforeEach
+    void setUp() {
+        governor = new GitHubRateLimitGovernor(metrics, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void reserve_healthyBudgetDoesNotDelay() {
+        governor.observe("tok", rateLimitHeaders(4_000, now.plusSeconds(600)), 200);
+
+        assertEquals(Duration.ZERO, governor.reserve("tok", HttpMethod.GET));
+        verify(metrics).updateGitHubRateLimitRemaining("core", 4_000);
+    }
+
+    @Test
+    void reserve_lowBudgetPacesReadsButNotWrites() {
+        governor.observe("tok", rateLimitHeaders(300, now.plusSeconds(300)), 200);
+
+        assertEquals(Duration.ZERO, governor.reserve("tok", HttpMethod.GET));
+        assertEquals(Duration.ofSeconds(1), governor.reserve("tok", HttpMethod.GET));
+        assertEquals(Duration.ofSeconds(2), governor.reserve("tok", HttpMethod.GET));
+        assertEquals(Duration.ZERO, governor.reserve("tok", HttpMethod.POST));
+    }
+
+    @Test
+    void reserve_belowHardReserveDefersReadsUntilReset() {
+        governor.observe("tok", rateLimitHeaders(10, now.plusSeconds(30)), 200);
+
+        assertEquals(Duration.ofSeconds(30), governor.reserve("tok", HttpMethod.GET));
+        verify(metrics).recordGitHubRateLimitDeferral("reserve");
+    }
+
+    @Test
+    void reserve_secondaryLimitHoldsEveryCall() {
+        HttpHeaders headers = rateLimitHeaders(3_000, now.plusSeconds(600));
+        headers.set("Retry-After", "45");
+        governor.observe("tok", headers, 403);
+
+        assertEquals(Duration.ofSeconds(45), governor.reserve("tok", HttpMethod.POST));
+        assertEquals(Duration.ZERO, governor.reserve("other-token", HttpMethod.POST));
+    }
+
+    @Test
+    void reserve_capsWaitAtMaxDefer() {
+        governor.observe("tok", rateLimitHeaders(0, now.plusSeconds(3_000)), 403);
+
+        assertEquals(GitHubRateLimitGovernor.MAX_DEFER, governor.reserve("tok", HttpMethod.GET));
+    }
+
+    private HttpHeaders rateLimitHeaders(int remaining, Instant reset) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-RateLimit-Limit", "5000");
+        headers.set("X-RateLimit-Remaining", String.valueOf(remaining));
+        headers.set("X-RateLimit-Reset", String.valueOf(reset.getEpochSecond()));
+        return headers;
+    }
+}
@@ -0,0 +1,134 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InstallationTokenCacheTest {
+
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    private final Instant now = Instant.parse("2026-01-01T10:00:00Z");
+    private final Clock clock = Clock.fixed(now, ZoneOffset.UTC);
+    private final AtomicInteger mints = new AtomicInteger();
+
+    private List<Runnable> deferred;
+
+    @BeforeEach
+    void setUp() {
+        deferred = new ArrayList<>();
+    }
+
+    @Test
+    void get_servesCachedTokenUntilRefreshWindow() {
+        InstallationTokenCache cache = new InstallationTokenCache(
+                id -> new InstallationTokenCache.InstallationToken("tok-" + mints.incrementAndGet(), now.plusSeconds(3600)),
+                deferred::add, metrics, clock);
+
+        assertEquals("tok-1", cache.get("42"));
+        assertEquals("tok-1", cache.get("42"));
+        assertEquals("tok-1", cache.get("42"));
+
+        assertEquals(1, mints.get());
+        assertTrue(deferred.isEmpty());
+        verify(metrics).recordGitHubTokenCache("miss");
+        verify(metrics, times(2)).recordGitHubTokenCache("hit");
+    }
+
+    @Test
+    void get_nearExpiryReturnsCachedTokenAndRefreshesOnceInBackground() {
+        InstallationTokenCache cache = new InstallationTokenCache(
+                id -> new InstallationTokenCache.InstallationToken("tok-" + mints.incrementAndGet(),
+                        mints.get() == 1 ? now.plusSeconds(120) : now.plusSeconds(3600)),
+                deferred::add, metrics, clock);
+
+        assertEquals("tok-1", cache.get("42"));
+        assertEquals("tok-1", cache.get("42"));
+        assertEquals("tok-1", cache.get("42"));
+        assertEquals(1, deferred.size(), "only one background refresh may be in flight");
+
+        deferred.get(0).run();
+
+        assertEquals("tok-2", cache.get("42"));
+        verify(metrics).recordGitHubTokenCache("refresh");
+    }
+
+    @Test
+    void get_refreshRejectedOnShutdownDoesNotStrandLaterCallers() {
+        InstallationTokenCache cache = new InstallationTokenCache(
+                id -> new InstallationTokenCache.InstallationToken("tok-" + mints.incrementAndGet(),
+                        now.plusSeconds(120)),
+                task -> { throw new RejectedExecutionException("shut down"); }, metrics, clock);
+
+        assertEquals("tok-1", cache.get("42"));
+        assertEquals("tok-1", cache.get("42"));
+        cache.invalidate("42");
+
+        assertEquals("tok-2", assertTimeoutPreemptively(Duration.ofSeconds(5), () -> cache.get("42")));
+    }
+
+    @Test
+    void get_concurrentMissesShareSingleMint() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        InstallationTokenCache cache = new InstallationTokenCache(id -> {
+            mints.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new InstallationTokenCache.InstallationToken("tok", now.plusSeconds(3600));
+        }, Runnable::run, metrics, clock);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> cache.get("42")));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("tok", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, mints.get());
+    }
+
+    @Test
+    void invalidate_forcesRemint() {
+        InstallationTokenCache cache = new InstallationTokenCache(
+                id -> new InstallationTokenCache.InstallationToken("tok-" + mints.incrementAndGet(), now.plusSeconds(3600)),
+                deferred::add, metrics, clock);
+
+        cache.get("42");
+        cache.invalidate("42");
+
+        assertEquals("tok-2", cache.get("42"));
+    }
+}
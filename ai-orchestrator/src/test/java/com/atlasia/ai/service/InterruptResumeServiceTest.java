@@ -0,0 +1,94 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.PendingInterruptEntity;
+import com.atlasia.ai.model.RunQueueLane;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InterruptResumeServiceTest {
+
+    @Mock
+    private InterruptDecisionStore decisionStore;
+
+    @Mock
+    private HitlGateService hitlGateService;
+
+    @Mock
+    private RunQueueService runQueueService;
+
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    private InterruptResumeService service;
+    private final UUID runId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        service = new InterruptResumeService(decisionStore, hitlGateService, runQueueService, metrics, 15);
+    }
+
+    @Test
+    void submitDecision_recordsDecisionAndResumesOnWorker() {
+        when(decisionStore.complete(runId, "approve", "alice")).thenReturn(true);
+        when(hitlGateService.releaseInterrupt(runId)).thenReturn(true);
+
+        assertTrue(service.submitDecision(runId, "approve", "alice", "token"));
+
+        verify(runQueueService).enqueue(runId, RunQueueLane.INTERACTIVE, "token");
+        verify(metrics).recordInterruptResume("decision");
+    }
+
+    @Test
+    void resume_continuesWithTheTokenTheRunWasStartedWith() {
+        PendingInterruptEntity pending = new PendingInterruptEntity(runId, "DEVELOPER", "generate", "rule", "high", "msg");
+        pending.setGitHubToken("user-pat");
+        pending.setDecision(InterruptDecisionStore.DECISION_APPROVE);
+        when(decisionStore.findExpired(any())).thenReturn(List.of());
+        when(decisionStore.findDecided()).thenReturn(List.of(runId));
+        when(decisionStore.find(runId)).thenReturn(Optional.of(pending));
+        when(hitlGateService.releaseInterrupt(runId)).thenReturn(true);
+
+        service.sweep();
+
+        verify(runQueueService).enqueue(runId, RunQueueLane.INTERACTIVE, "user-pat");
+    }
+
+    @Test
+    void submitDecision_withoutPendingInterrupt_doesNotResume() {
+        when(decisionStore.complete(runId, "deny", "alice")).thenReturn(false);
+
+        assertFalse(service.submitDecision(runId, "deny", "alice", null));
+
+        verifyNoInteractions(hitlGateService, runQueueService);
+    }
+
+    @Test
+    void sweep_timesOutStaleInterruptsAndRedispatchesOnlyRunsStillParked() {
+        UUID stale = UUID.randomUUID();
+        UUID alreadyRunning = UUID.randomUUID();
+        when(decisionStore.findExpired(any())).thenReturn(List.of(stale));
+        when(decisionStore.complete(stale, InterruptDecisionStore.DECISION_TIMEOUT, "system")).thenReturn(true);
+        when(decisionStore.findDecided()).thenReturn(List.of(stale, alreadyRunning));
+        when(hitlGateService.releaseInterrupt(stale)).thenReturn(true, false);
+        when(hitlGateService.releaseInterrupt(alreadyRunning)).thenReturn(false);
+
+        service.sweep();
+
+        verify(runQueueService, times(1)).enqueue(stale, RunQueueLane.INTERACTIVE, null);
+        verify(runQueueService, never()).enqueue(alreadyRunning, RunQueueLane.INTERACTIVE, null);
+        verify(metrics).recordInterruptResume("timeout");
+    }
+}
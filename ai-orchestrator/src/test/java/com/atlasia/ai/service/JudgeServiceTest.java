@@ -0,0 +1,140 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.TaskComplexity;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JudgeServiceTest {
+
+    private static final String ALL_EXCELLENT = criteria("excellent");
+    private static final String ALL_FAILING = criteria("failing");
+
+    @Mock
+    private LlmService llmService;
+    @Mock
+    private BlackboardService blackboardService;
+    @Mock
+    private JsonSchemaValidator schemaValidator;
+    @Mock
+    private OrchestratorMetrics metrics;
+    @Mock
+    private RunEntity run;
+
+    private ExecutorService executor;
+    private JudgeService judge;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        judge = new JudgeService(llmService, blackboardService, schemaValidator, metrics, new ObjectMapper(),
+                executor, 1);
+        lenient().when(run.getId()).thenReturn(UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void majorityVoting_readsArtifactOnceAndStopsOnceMajorityIsDecided() {
+        when(blackboardService.read(run, "code_changes", "JUDGE")).thenReturn("diff");
+        stubVote(0.2, ALL_EXCELLENT);
+        stubVote(0.5, ALL_EXCELLENT);
+        lenient().when(llmService.generateCompletionCached(isNull(), anyString(), eq(TaskComplexity.MEDIUM), eq(0.8)))
+                .thenAnswer(inv -> {
+                    Thread.sleep(30_000);
+                    return ALL_FAILING;
+                });
+
+        long start = System.currentTimeMillis();
+        JudgeService.JudgeVerdict verdict = judge.evaluateWithMajorityVoting(run, "pre_merge", "code_changes");
+
+        assertTrue(System.currentTimeMillis() - start < 5_000, "must not wait for the slow voter");
+        assertEquals("pass", verdict.verdict());
+        assertEquals(2, verdict.votingMetadata().voterCount());
+        verify(blackboardService, times(1)).read(run, "code_changes", "JUDGE");
+        verify(metrics).recordJudgeVoting(eq("early"), eq(2), anyLong());
+    }
+
+    @Test
+    void majorityVoting_timeoutAggregatesAvailableQuorum() {
+        when(blackboardService.read(run, "code_changes", "JUDGE")).thenReturn("diff");
+        stubVote(0.2, ALL_EXCELLENT);
+        stubVote(0.5, ALL_FAILING);
+        lenient().when(llmService.generateCompletionCached(isNull(), anyString(), eq(TaskComplexity.MEDIUM), eq(0.8)))
+                .thenAnswer(inv -> {
+                    Thread.sleep(30_000);
+                    return ALL_EXCELLENT;
+                });
+
+        JudgeService.JudgeVerdict verdict = judge.evaluateWithMajorityVoting(run, "pre_merge", "code_changes");
+
+        assertEquals(2, verdict.votingMetadata().voterCount());
+        assertEquals("veto", verdict.verdict(), "tie between pass and veto resolves conservatively");
+        verify(metrics).recordJudgeVoting(eq("timeout"), eq(2), anyLong());
+    }
+
+    @Test
+    void majorityVoting_missingArtifactMakesNoLlmCalls() {
+        when(blackboardService.read(run, "code_changes", "JUDGE")).thenReturn(null);
+
+        JudgeService.JudgeVerdict verdict = judge.evaluateWithMajorityVoting(run, "pre_merge", "code_changes");
+
+        assertEquals("error", verdict.rubricName());
+        verifyNoInteractions(llmService);
+        verify(metrics, never()).recordJudgeVoting(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void isDecided_requiresLeadLargerThanOutstandingVotes() {
+        JudgeService.JudgeVerdict pass = vote("pass", 0.9);
+        JudgeService.JudgeVerdict veto = vote("veto", 0.9);
+
+        assertFalse(JudgeService.isDecided(List.of(pass), 2));
+        assertTrue(JudgeService.isDecided(List.of(pass, pass), 1));
+        assertFalse(JudgeService.isDecided(List.of(pass, veto), 1));
+        assertFalse(JudgeService.isDecided(List.of(vote("pass", 0.5), vote("pass", 0.5)), 1));
+    }
+
+    private void stubVote(double temperature, String response) {
+        when(llmService.generateCompletionCached(isNull(), anyString(), eq(TaskComplexity.MEDIUM), eq(temperature)))
+                .thenReturn(response);
+    }
+
+    private static JudgeService.JudgeVerdict vote(String verdict, double confidence) {
+        return new JudgeService.JudgeVerdict(null, "pre_merge", "code_changes", "code_quality",
+                0.5, verdict, confidence, Map.of(), List.of(), "", null, Instant.now());
+    }
+
+    private static String criteria(String level) {
+        return """
+                {"criteria": {"correctness": {"level": "%1$s"}, "security": {"level": "%1$s"},
+                 "maintainability": {"level": "%1$s"}, "performance": {"level": "%1$s"},
+                 "test_coverage": {"level": "%1$s"}}}
+                """.formatted(level);
+    }
+}
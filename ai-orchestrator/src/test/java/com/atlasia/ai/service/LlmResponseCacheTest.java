@@ -0,0 +1,179 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.LlmResponseCacheEntryEntity;
+import com.atlasia.ai.persistence.LlmResponseCacheRepository;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LlmResponseCacheTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T10:00:00Z");
+
+    @Mock
+    private LlmResponseCacheRepository repository;
+    @Mock
+    private BudgetTracker budgetTracker;
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    private LlmResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = newCache(false);
+    }
+
+    private LlmResponseCache newCache(boolean persistent) {
+        return new LlmResponseCache(repository, budgetTracker, metrics, Clock.fixed(NOW, ZoneOffset.UTC),
+                true, 1, Duration.ofMinutes(10), persistent, Duration.ofHours(1));
+    }
+
+    @Test
+    void getOrCompute_repeatCallIsServedFromCacheAndCreditsOriginalCost() {
+        AtomicInteger calls = new AtomicInteger();
+
+        LlmResult first = cache.getOrCompute("medium:gpt-4o", "sys", "judge this", null, 0.0, () -> {
+            calls.incrementAndGet();
+            LlmCallCostScope.add(0.012);
+            return new LlmResult("{\"score\":0.9}", LlmResultSource.PRIMARY);
+        });
+        LlmResult second = cache.getOrCompute("medium:gpt-4o", "sys", "judge this", null, 0.0, () -> {
+            calls.incrementAndGet();
+            return new LlmResult("other", LlmResultSource.PRIMARY);
+        });
+
+        assertEquals(1, calls.get());
+        assertEquals(first.content(), second.content());
+        assertEquals(LlmResultSource.CACHE, second.source());
+        verify(budgetTracker).recordResponseCacheSavings(0.012);
+        verify(metrics).recordLlmResponseCache("miss", "none");
+        verify(metrics).recordLlmResponseCache("hit", "memory");
+    }
+
+    @Test
+    void getOrCompute_nonZeroTemperatureAlwaysCallsThrough() {
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            cache.getOrCompute("medium:gpt-4o", null, "vote", null, 0.5, () -> {
+                calls.incrementAndGet();
+                return new LlmResult("v", LlmResultSource.PRIMARY);
+            });
+        }
+
+        assertEquals(2, calls.get());
+        verify(metrics, times(2)).recordLlmResponseCache("bypass", "none");
+        verifyNoInteractions(budgetTracker);
+    }
+
+    @Test
+    void getOrCompute_providerDefaultTemperatureIsNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            cache.getOrCompute("medium:gpt-4o", null, "judge", null, null, () -> {
+                calls.incrementAndGet();
+                return new LlmResult("v", LlmResultSource.PRIMARY);
+            });
+        }
+
+        assertEquals(2, calls.get());
+        verify(metrics, times(2)).recordLlmResponseCache("bypass", "none");
+    }
+
+    @Test
+    void getOrCompute_mockResultsAreNotStored() {
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            cache.getOrCompute("legacy:gpt-4o", null, "p", null, 0.0, () -> {
+                calls.incrementAndGet();
+                return new LlmResult("LLM unavailable", LlmResultSource.MOCK);
+            });
+        }
+
+        assertEquals(2, calls.get());
+        verify(budgetTracker, never()).recordResponseCacheSavings(anyDouble());
+    }
+
+    @Test
+    void key_ignoresLineEndingsAndTrailingWhitespace() {
+        assertEquals(
+                cache.key("m", "system", "line one\nline two", null, null),
+                cache.key("m", "system  ", "line one  \r\nline two\n", null, null));
+        assertNotEquals(
+                cache.key("m", "system", "line one", null, null),
+                cache.key("other", "system", "line one", null, null));
+        assertNotEquals(
+                cache.key("m", "system", "line one", null, null),
+                cache.key("m", "system", "line one", null, 0.0));
+    }
+
+    @Test
+    void key_schemaHashIsIndependentOfPropertyOrder() {
+        Map<String, Object> a = new LinkedHashMap<>();
+        a.put("type", "object");
+        a.put("required", java.util.List.of("score"));
+        Map<String, Object> b = new LinkedHashMap<>();
+        b.put("required", java.util.List.of("score"));
+        b.put("type", "object");
+
+        assertEquals(cache.key("m", "s", "u", a, null), cache.key("m", "s", "u", b, null));
+        assertNotEquals(cache.key("m", "s", "u", a, null), cache.key("m", "s", "u", null, null));
+    }
+
+    @Test
+    void getOrCompute_persistentTierAnswersAfterRestartAndStoresMisses() {
+        cache = newCache(true);
+        String key = cache.key("high:claude", null, "qualify", null, 0.0);
+        when(repository.findByCacheKeyAndExpiresAtAfter(key, NOW)).thenReturn(Optional.of(
+                new LlmResponseCacheEntryEntity(key, "high:claude", "{\"plan\":1}", 0.05, NOW, NOW.plusSeconds(60))));
+
+        LlmResult hit = cache.getOrCompute("high:claude", null, "qualify", null, 0.0,
+                () -> fail("persistent hit must not call the provider"));
+
+        assertEquals("{\"plan\":1}", hit.content());
+        verify(metrics).recordLlmResponseCache("hit", "db");
+        verify(budgetTracker).recordResponseCacheSavings(0.05);
+
+        when(repository.findByCacheKeyAndExpiresAtAfter(anyString(), eq(NOW))).thenReturn(Optional.empty());
+        cache.getOrCompute("high:claude", null, "another", null, 0.0,
+                () -> new LlmResult("fresh", LlmResultSource.PRIMARY));
+        verify(repository).save(any(LlmResponseCacheEntryEntity.class));
+    }
+
+    @Test
+    void costScope_nestedMeasurementsReportOnlyTheirOwnCalls() {
+        LlmCallCostScope.Measured<Double> outer = LlmCallCostScope.measure(() -> {
+            LlmCallCostScope.add(0.01);
+            LlmCallCostScope.Measured<String> inner = LlmCallCostScope.measure(() -> {
+                LlmCallCostScope.add(0.02);
+                return "x";
+            });
+            return inner.costUsd();
+        });
+
+        assertEquals(0.02, outer.value(), 1e-9);
+        assertEquals(0.03, outer.costUsd(), 1e-9);
+    }
+}
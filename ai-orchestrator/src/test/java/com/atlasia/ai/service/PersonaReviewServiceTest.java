@@ -11,9 +11,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -48,7 +51,8 @@ class PersonaReviewServiceTest {
         lenient().when(agentContractLoader.systemPromptPrefix(anyString())).thenReturn("");
         lenient().when(complexityResolver.forAgent(eq("review"))).thenReturn(TaskComplexity.MEDIUM);
         personaReviewService = new PersonaReviewService(
-                personaConfigLoader, llmService, complexityResolver, judgeService, objectMapper, agentContractLoader);
+                personaConfigLoader, llmService, complexityResolver, judgeService, objectMapper, agentContractLoader,
+                Runnable::run, 180, 60_000);
 
         RunEntity runEntity = new RunEntity(
                 UUID.randomUUID(),
@@ -107,7 +111,7 @@ class PersonaReviewServiceTest {
                 }
                 """;
 
-        when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+        when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                 .thenReturn(LlmResult.primary(llmResponse));
 
         PersonaReviewService.PersonaReviewReport report = personaReviewService.reviewCodeChanges(context, codeChanges);
@@ -125,7 +129,7 @@ class PersonaReviewServiceTest {
         assertTrue(issue.isMandatory());
 
         verify(llmService, times(1))
-                .generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class));
+                .generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class));
     }
 
     @Test
@@ -160,7 +164,7 @@ class PersonaReviewServiceTest {
                 }
                 """;
 
-        when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+        when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                 .thenReturn(LlmResult.primary(llmResponse));
 
         PersonaReviewService.PersonaReviewReport report = personaReviewService.reviewCodeChanges(context, codeChanges);
@@ -180,7 +184,7 @@ class PersonaReviewServiceTest {
 
         assertTrue(report.getMergedRecommendations().size() > 0);
         verify(llmService, times(1))
-                .generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class));
+                .generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class));
     }
 
     @Test
@@ -220,7 +224,7 @@ class PersonaReviewServiceTest {
                 }
                 """;
 
-        when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+        when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                 .thenReturn(LlmResult.primary(llmResponse));
 
         PersonaReviewService.PersonaReviewReport report = personaReviewService.reviewCodeChanges(context, codeChanges);
@@ -241,7 +245,7 @@ class PersonaReviewServiceTest {
                 .anyMatch(r -> r.contains("accessibility")));
 
         verify(llmService, times(1))
-                .generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class));
+                .generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class));
     }
 
     @Test
@@ -281,7 +285,7 @@ class PersonaReviewServiceTest {
                 }
                 """;
 
-        when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+        when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                 .thenReturn(LlmResult.primary(securityEngineerResponse), LlmResult.primary(codeQualityEngineerResponse));
 
         PersonaReviewService.PersonaReviewReport report = personaReviewService.reviewCodeChanges(context, codeChanges);
@@ -291,7 +295,7 @@ class PersonaReviewServiceTest {
         assertFalse(report.isSecurityFixesApplied());
 
         verify(llmService, times(2))
-                .generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class));
+                .generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class));
     }
 
     @Test
@@ -305,14 +309,14 @@ class PersonaReviewServiceTest {
         assertFalse(report.isSecurityFixesApplied());
 
         verify(llmService, never())
-                .generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class));
+                .generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class));
     }
 
     @Test
     void testReviewCodeChanges_withLlmFailure() throws Exception {
         PersonaConfig securityEngineerConfig = createSecurityEngineerPersonaConfig();
         when(personaConfigLoader.getPersonas()).thenReturn(List.of(securityEngineerConfig));
-        when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+        when(llmService.generateStructuredOutput(anyString(), anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                 .thenThrow(new RuntimeException("LLM service unavailable"));
 
         PersonaReviewService.PersonaReviewReport report = personaReviewService.reviewCodeChanges(context, codeChanges);
@@ -325,6 +329,132 @@ class PersonaReviewServiceTest {
         assertEquals(0, failedReview.getIssues().size());
     }
 
+    @Test
+    void testReviewCodeChanges_largeChangeSetIsShardedAndFindingsMerged() {
+        personaReviewService = new PersonaReviewService(
+                personaConfigLoader, llmService, complexityResolver, judgeService, objectMapper, agentContractLoader,
+                Runnable::run, 180, 60);
+        DeveloperStep.FileChange file2 = new DeveloperStep.FileChange();
+        file2.setPath("src/main/java/TokenStore.java");
+        file2.setOperation("create");
+        file2.setContent("public class TokenStore { /* implementation */ }");
+        file2.setExplanation("Token storage");
+        codeChanges.getFiles().add(file2);
+        when(personaConfigLoader.getPersonas()).thenReturn(List.of(createSreEngineerPersonaConfig()));
+        when(llmService.generateStructuredOutput(anyString(), contains("\"files\":[{\"path\":\"src/main/java/AuthService"),
+                anyString(), anyMap(), any(TaskComplexity.class)))
+                .thenReturn(LlmResult.primary(reviewWithIssue("src/main/java/AuthService.java")));
+        when(llmService.generateStructuredOutput(anyString(), contains("\"files\":[{\"path\":\"src/main/java/TokenStore"),
+                anyString(), anyMap(), any(TaskComplexity.class)))
+                .thenReturn(LlmResult.primary(reviewWithIssue("src/main/java/TokenStore.java")));
+
+        PersonaReviewService.PersonaReviewReport report = personaReviewService.reviewCodeChanges(context, codeChanges);
+
+        assertEquals(1, report.getFindings().size());
+        PersonaReviewService.PersonaReview merged = report.getFindings().get(0);
+        assertEquals("sre-engineer", merged.getPersonaName());
+        assertEquals(List.of("src/main/java/AuthService.java", "src/main/java/TokenStore.java"),
+                merged.getIssues().stream().map(PersonaReviewService.PersonaIssue::getFilePath).toList());
+        assertEquals(1, merged.getEnhancements().size(), "identical enhancements from shards are deduplicated");
+    }
+
+    @Test
+    void testReviewCodeChanges_slowPersonaTimesOutWithoutStallingOthers() {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            personaReviewService = new PersonaReviewService(
+                    personaConfigLoader, llmService, complexityResolver, judgeService, objectMapper,
+                    agentContractLoader, executor, 1, 60_000);
+            when(personaConfigLoader.getPersonas()).thenReturn(
+                    List.of(createSecurityEngineerPersonaConfig(), createSreEngineerPersonaConfig()));
+            when(llmService.generateStructuredOutput(contains("security-engineer"), anyString(), anyString(), anyMap(),
+                    any(TaskComplexity.class)))
+                    .thenAnswer(inv -> {
+                        Thread.sleep(30_000);
+                        return LlmResult.primary(reviewWithIssue("x"));
+                    });
+            when(llmService.generateStructuredOutput(contains("sre-engineer"), anyString(), anyString(), anyMap(),
+                    any(TaskComplexity.class)))
+                    .thenReturn(LlmResult.primary("{\"overallAssessment\": \"fine\", \"issues\": [], \"enhancements\": []}"));
+
+            long start = System.currentTimeMillis();
+            PersonaReviewService.PersonaReviewReport report = personaReviewService.reviewCodeChanges(context, codeChanges);
+
+            assertTrue(System.currentTimeMillis() - start < 10_000);
+            assertEquals(2, report.getFindings().size());
+            assertTrue(report.getFindings().get(0).getOverallAssessment().contains("did not finish"));
+            assertEquals("fine", report.getFindings().get(1).getOverallAssessment());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testReviewCodeChanges_saturatedExecutorDoesNotDelayTheDeadline() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("review-test-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(1);
+        executor.setTaskTerminationTimeout(100);
+        try {
+            personaReviewService = new PersonaReviewService(
+                    personaConfigLoader, llmService, complexityResolver, judgeService, objectMapper,
+                    agentContractLoader, executor, 1, 60_000);
+            when(personaConfigLoader.getPersonas()).thenReturn(
+                    List.of(createSecurityEngineerPersonaConfig(), createSreEngineerPersonaConfig()));
+            when(llmService.generateStructuredOutput(contains("security-engineer"), anyString(), anyString(), anyMap(),
+                    any(TaskComplexity.class)))
+                    .thenAnswer(inv -> {
+                        Thread.sleep(30_000);
+                        return LlmResult.primary(reviewWithIssue("x"));
+                    });
+
+            long start = System.currentTimeMillis();
+            PersonaReviewService.PersonaReviewReport report = personaReviewService.reviewCodeChanges(context, codeChanges);
+
+            assertTrue(System.currentTimeMillis() - start < 10_000);
+            assertEquals(2, report.getFindings().size());
+            assertTrue(report.getFindings().get(1).getOverallAssessment().contains("did not finish"),
+                    "a persona still waiting for a slot at the deadline times out");
+            verify(llmService, never()).generateStructuredOutput(contains("sre-engineer"), anyString(), anyString(), anyMap(),
+                    any(TaskComplexity.class));
+        } finally {
+            executor.close();
+        }
+    }
+
+    @Test
+    void shardFiles_groupsBySizeAndKeepsOversizedFilesAlone() {
+        List<DeveloperStep.FileChange> files = List.of(file("a", 30), file("b", 30), file("c", 100), file("d", 10));
+
+        List<List<DeveloperStep.FileChange>> shards = PersonaReviewService.shardFiles(files, 60);
+
+        assertEquals(List.of(List.of("a", "b"), List.of("c"), List.of("d")),
+                shards.stream().map(g -> g.stream().map(DeveloperStep.FileChange::getPath).toList()).toList());
+        assertEquals(1, PersonaReviewService.shardFiles(List.of(), 60).size());
+    }
+
+    private static DeveloperStep.FileChange file(String path, int chars) {
+        DeveloperStep.FileChange file = new DeveloperStep.FileChange();
+        file.setPath(path);
+        file.setContent("x".repeat(chars));
+        return file;
+    }
+
+    private static String reviewWithIssue(String filePath) {
+        return """
+                {
+                    "overallAssessment": "Review of %1$s",
+                    "issues": [
+                        {"severity": "medium", "filePath": "%1$s", "description": "No caching",
+                         "recommendation": "Add a cache", "mandatory": false}
+                    ],
+                    "enhancements": [
+                        {"category": "caching", "description": "Cache lookups", "benefit": "Lower latency"}
+                    ]
+                }
+                """.formatted(filePath);
+    }
+
     private PersonaConfig createSecurityEngineerPersonaConfig() {
         return new PersonaConfig(
                 "security-engineer",
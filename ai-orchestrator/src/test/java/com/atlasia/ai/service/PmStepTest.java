@@ -87,6 +87,22 @@ class PmStepTest {
         verify(gitHubApiClient).addLabelsToIssue(eq("owner"), eq("repo"), eq(123), anyList());
     }
 
+    @Test
+    void execute_ShadowRun_DoesNotLabelIssue() throws Exception {
+        context = new RunContext(new RunEntity(UUID.randomUUID(), "owner/repo", 123,
+                ShadowModeService.SHADOW_MODE, RunStatus.RECEIVED, Instant.now()), "owner", "repo");
+        when(gitHubApiClient.readIssue("owner", "repo", 123)).thenReturn(createIssueData());
+        when(gitHubApiClient.listIssueComments("owner", "repo", 123)).thenReturn(List.of());
+        TicketPlan plan = new TicketPlan(123, "Test Issue", "Summary", List.of("Criterion 1"),
+                List.of(), List.of(), List.of("bug"));
+        when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                .thenReturn(LlmResult.primary(objectMapper.writeValueAsString(plan)));
+
+        pmStep.execute(context);
+
+        verify(gitHubApiClient, never()).addLabelsToIssue(anyString(), anyString(), anyInt(), anyList());
+    }
+
     @Test
     void execute_WithLlmFailure_UsesFallbackStrategy() throws Exception {
         Map<String, Object> issueData = createIssueData();
@@ -0,0 +1,54 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.api.dto.AiWireTypes.AiPrompt;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptAssemblerTest {
+
+    private final PromptAssembler assembler = new PromptAssembler(true, 100);
+
+    @Test
+    void assemble_longStableContextBecomesCachedUserPrefix() {
+        String system = "s".repeat(120);
+        String stable = "## Repository Context\n" + "r".repeat(200);
+
+        AiPrompt prompt = assembler.assemble(system, stable, "Implement issue #7");
+
+        assertTrue(prompt.cache().cacheSystem());
+        assertEquals(stable, prompt.cache().userPrefix());
+        assertEquals("Implement issue #7", prompt.userMessage());
+        assertEquals(stable + "Implement issue #7", prompt.fullUserMessage());
+    }
+
+    @Test
+    void assemble_shortPrefixIsSentAsOneBlockWithoutHints() {
+        AiPrompt prompt = assembler.assemble("short system", "ctx ", "question");
+
+        assertFalse(prompt.cache().cacheSystem());
+        assertFalse(prompt.cache().hasUserPrefix());
+        assertEquals("ctx question", prompt.userMessage());
+    }
+
+    @Test
+    void assemble_systemAloneCanCloseTheCachedPrefix() {
+        AiPrompt prompt = assembler.assemble("s".repeat(150), null, "question");
+
+        assertTrue(prompt.cache().cacheSystem());
+        assertFalse(prompt.cache().hasUserPrefix());
+        assertEquals("question", prompt.fullUserMessage());
+    }
+
+    @Test
+    void assemble_disabledKeepsStableContextFirstButSetsNoHints() {
+        PromptAssembler disabled = new PromptAssembler(false, 100);
+
+        AiPrompt prompt = disabled.assemble("s".repeat(500), "r".repeat(500), "question");
+
+        assertFalse(prompt.cache().cacheSystem());
+        assertFalse(prompt.cache().hasUserPrefix());
+        assertTrue(prompt.userMessage().startsWith("rrr"));
+        assertTrue(prompt.userMessage().endsWith("question"));
+    }
+}
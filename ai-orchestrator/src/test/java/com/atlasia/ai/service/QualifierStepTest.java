@@ -75,7 +75,7 @@ class QualifierStepTest {
                 Map<String, Object> workPlan = createValidWorkPlan();
                 String llmResponse = objectMapper.writeValueAsString(workPlan);
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 String result = qualifierStep.execute(context);
@@ -88,11 +88,26 @@ class QualifierStepTest {
                 assertEquals("ai/issue-123", context.getBranchName());
         }
 
+        @Test
+        void execute_shadowRun_usesShadowBranchPrefix() throws Exception {
+                RunEntity shadowRun = new RunEntity(UUID.randomUUID(), "owner/repo", 123,
+                                ShadowModeService.SHADOW_MODE, RunStatus.QUALIFIER, Instant.now());
+                context = new RunContext(shadowRun, "owner", "repo");
+                context.setTicketPlan(createTicketPlanJson());
+
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                                .thenReturn(LlmResult.primary(objectMapper.writeValueAsString(createValidWorkPlan())));
+
+                qualifierStep.execute(context);
+
+                assertEquals("shadow/ai/issue-123", context.getBranchName());
+        }
+
         @Test
         void execute_withLlmFailure_usesFallback() throws Exception {
                 context.setTicketPlan(createTicketPlanJson());
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenThrow(new RuntimeException("LLM service unavailable"));
 
                 String result = qualifierStep.execute(context);
@@ -111,7 +126,7 @@ class QualifierStepTest {
                 Map<String, Object> workPlan = createValidWorkPlan();
                 String llmResponse = objectMapper.writeValueAsString(workPlan);
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 qualifierStep.execute(context);
@@ -126,7 +141,7 @@ class QualifierStepTest {
                 Map<String, Object> workPlan = createValidWorkPlan();
                 String llmResponse = objectMapper.writeValueAsString(workPlan);
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 qualifierStep.execute(context);
@@ -142,12 +157,12 @@ class QualifierStepTest {
                 Map<String, Object> workPlan = createValidWorkPlan();
                 String llmResponse = objectMapper.writeValueAsString(workPlan);
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 qualifierStep.execute(context);
 
-                verify(gitHubApiClient).getRepoContent(eq("owner"), eq("repo"), eq("AGENTS.md"));
+                verify(gitHubApiClient).getRepoContent(eq("owner"), eq("repo"), eq("AGENTS.md"), eq("main-sha"));
         }
 
         @Test
@@ -157,7 +172,7 @@ class QualifierStepTest {
                 Map<String, Object> workPlan = createValidWorkPlan();
                 String llmResponse = objectMapper.writeValueAsString(workPlan);
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 String result = qualifierStep.execute(context);
@@ -189,7 +204,7 @@ class QualifierStepTest {
 
                 String llmResponse = objectMapper.writeValueAsString(workPlan);
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 assertThrows(IllegalArgumentException.class, () -> qualifierStep.execute(context));
@@ -216,7 +231,7 @@ class QualifierStepTest {
 
                 String llmResponse = objectMapper.writeValueAsString(workPlan);
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 assertThrows(IllegalArgumentException.class, () -> qualifierStep.execute(context));
@@ -235,7 +250,7 @@ class QualifierStepTest {
 
                 context.setTicketPlan(objectMapper.writeValueAsString(ticketPlan));
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenThrow(new RuntimeException("LLM failed"));
 
                 String result = qualifierStep.execute(context);
@@ -259,7 +274,7 @@ class QualifierStepTest {
 
                 context.setTicketPlan(objectMapper.writeValueAsString(ticketPlan));
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenThrow(new RuntimeException("LLM failed"));
 
                 String result = qualifierStep.execute(context);
@@ -285,7 +300,7 @@ class QualifierStepTest {
 
                 String llmResponse = objectMapper.writeValueAsString(workPlan);
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 String result = qualifierStep.execute(context);
@@ -303,12 +318,12 @@ class QualifierStepTest {
                 Map<String, Object> workPlan = createValidWorkPlan();
                 String llmResponse = objectMapper.writeValueAsString(workPlan);
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 qualifierStep.execute(context);
 
-                verify(llmService).generateStructuredOutput(
+                verify(llmService).generateStructuredOutputCached(
                                 anyString(),
                                 contains("Backend files"),
                                 anyMap(),
@@ -325,7 +340,7 @@ class QualifierStepTest {
                                 - **Lint**: `cd frontend && npm run lint`
                                 """;
 
-                when(gitHubApiClient.getRepoContent(eq("owner"), eq("repo"), eq("AGENTS.md")))
+                when(gitHubApiClient.getRepoContent(eq("owner"), eq("repo"), eq("AGENTS.md"), eq("main-sha")))
                                 .thenReturn(Map.of("content",
                                                 Base64.getEncoder().encodeToString(agentsMdContent.getBytes())));
 
@@ -334,7 +349,7 @@ class QualifierStepTest {
                 Map<String, Object> workPlan = createValidWorkPlan();
                 String llmResponse = objectMapper.writeValueAsString(workPlan);
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 String result = qualifierStep.execute(context);
@@ -353,7 +368,7 @@ class QualifierStepTest {
                 Map<String, Object> workPlan = createValidWorkPlan();
                 String llmResponse = "```json\n" + objectMapper.writeValueAsString(workPlan) + "\n```";
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 assertDoesNotThrow(() -> qualifierStep.execute(context));
@@ -371,7 +386,7 @@ class QualifierStepTest {
 
                 String llmResponse = objectMapper.writeValueAsString(workPlan);
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 String result = qualifierStep.execute(context);
@@ -392,12 +407,12 @@ class QualifierStepTest {
                 Map<String, Object> workPlan = createValidWorkPlan();
                 String llmResponse = objectMapper.writeValueAsString(workPlan);
 
-                when(llmService.generateStructuredOutput(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
+                when(llmService.generateStructuredOutputCached(anyString(), anyString(), anyMap(), any(TaskComplexity.class)))
                                 .thenReturn(LlmResult.primary(llmResponse));
 
                 qualifierStep.execute(context);
 
-                verify(llmService).generateStructuredOutput(
+                verify(llmService).generateStructuredOutputCached(
                                 anyString(),
                                 contains("Repository Structure"),
                                 anyMap(),
@@ -432,7 +447,7 @@ class QualifierStepTest {
                                 - **Lint**: `cd frontend && npm run lint`
                                 """;
 
-                lenient().when(gitHubApiClient.getRepoContent(eq("owner"), eq("repo"), eq("AGENTS.md")))
+                lenient().when(gitHubApiClient.getRepoContent(eq("owner"), eq("repo"), eq("AGENTS.md"), eq("main-sha")))
                                 .thenReturn(Map.of("content",
                                                 Base64.getEncoder().encodeToString(agentsMdContent.getBytes())));
         }
@@ -0,0 +1,117 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RepoSnapshotCacheTest {
+
+    private static final String COMMIT = "0123456789abcdef0123456789abcdef01234567";
+    private static final String SCOPE = "installation:42";
+
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    @TempDir
+    Path diskDir;
+
+    @Test
+    void isImmutableRef_acceptsOnlyFullShas() {
+        assertTrue(RepoSnapshotCache.isImmutableRef(COMMIT));
+        assertFalse(RepoSnapshotCache.isImmutableRef("main"));
+        assertFalse(RepoSnapshotCache.isImmutableRef("heads/main"));
+        assertFalse(RepoSnapshotCache.isImmutableRef("0123456"));
+        assertFalse(RepoSnapshotCache.isImmutableRef(null));
+    }
+
+    @Test
+    void blobShaAt_resolvesPathFromCachedRecursiveTree() {
+        RepoSnapshotCache cache = new RepoSnapshotCache(16, "", 64, new ObjectMapper(), metrics);
+        cache.putTree(SCOPE, "Owner/Repo", COMMIT, true, Map.of("tree", List.of(
+                Map.of("path", "src", "type", "tree", "sha", "tree-sha"),
+                Map.of("path", "README.md", "type", "blob", "sha", "readme-blob"))));
+
+        assertEquals(Optional.of("readme-blob"), cache.blobShaAt(SCOPE, "owner/repo", COMMIT, "README.md"));
+        assertEquals(Optional.empty(), cache.blobShaAt(SCOPE, "owner/repo", COMMIT, "AGENTS.md"));
+        assertEquals(Optional.empty(), cache.blobShaAt(SCOPE, "other/repo", COMMIT, "README.md"));
+    }
+
+    @Test
+    void entriesAreOnlyServedToTheCredentialThatFetchedThem() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        RepoSnapshotCache cache = new RepoSnapshotCache(16, diskDir.toString(), 64, objectMapper, metrics);
+        cache.putTree(SCOPE, "owner/private", COMMIT, true, Map.of("tree", List.of(
+                Map.of("path", "README.md", "type", "blob", "sha", "readme-blob"))));
+        cache.putBlob(SCOPE, "owner/private", "readme-blob", Map.of("content", "c2VjcmV0"));
+        cache.indexPath(SCOPE, "owner/private", COMMIT, "AGENTS.md", "agents-blob");
+
+        String otherToken = "token:0123456789abcdef";
+        assertTrue(cache.getTree(otherToken, "owner/private", COMMIT, true).isEmpty());
+        assertTrue(cache.getBlob(otherToken, "owner/private", "readme-blob").isEmpty());
+        assertEquals(Optional.empty(), cache.blobShaAt(otherToken, "owner/private", COMMIT, "README.md"));
+        assertEquals(Optional.empty(), cache.blobShaAt(otherToken, "owner/private", COMMIT, "AGENTS.md"));
+        // Nor through the disk tier after a restart.
+        RepoSnapshotCache restarted = new RepoSnapshotCache(16, diskDir.toString(), 64, objectMapper, metrics);
+        assertTrue(restarted.getBlob(otherToken, "owner/private", "readme-blob").isEmpty());
+        assertTrue(restarted.getBlob(SCOPE, "owner/private", "readme-blob").isPresent());
+    }
+
+    @Test
+    void diskTier_servesEntriesAfterHeapIsGone() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        RepoSnapshotCache first = new RepoSnapshotCache(16, diskDir.toString(), 64, objectMapper, metrics);
+        first.putBlob(SCOPE, "owner/repo", "readme-blob", Map.of("content", "IyBSRUFETUU=", "encoding", "base64"));
+
+        RepoSnapshotCache restarted = new RepoSnapshotCache(16, diskDir.toString(), 64, objectMapper, metrics);
+        Optional<Map<String, Object>> blob = restarted.getBlob(SCOPE, "owner/repo", "readme-blob");
+
+        assertTrue(blob.isPresent());
+        assertEquals("IyBSRUFETUU=", blob.get().get("content"));
+        verify(metrics).recordRepoSnapshotCache("blob", "disk_hit");
+    }
+
+    @Test
+    void diskTier_evictsLeastRecentlyUsedFilesOverTheCap() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        RepoSnapshotCache probe = new RepoSnapshotCache(16, diskDir.toString(), objectMapper, metrics, Long.MAX_VALUE);
+        probe.putBlob(SCOPE, "owner/repo", "blob-a", Map.of("content", "aaaa"));
+        long fileSize;
+        try (var files = Files.list(diskDir)) {
+            fileSize = Files.size(files.findFirst().orElseThrow());
+        }
+
+        RepoSnapshotCache cache = new RepoSnapshotCache(16, diskDir.toString(), objectMapper, metrics,
+                fileSize * 5 / 2);
+        cache.putBlob(SCOPE, "owner/repo", "blob-b", Map.of("content", "bbbb"));
+        try (var files = Files.list(diskDir)) {
+            for (Path file : files.toList()) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+            }
+        }
+        // A disk hit marks blob-a as recently used, leaving blob-b the eviction candidate.
+        assertTrue(new RepoSnapshotCache(16, diskDir.toString(), objectMapper, metrics, Long.MAX_VALUE)
+                .getBlob(SCOPE, "owner/repo", "blob-a").isPresent());
+        cache.putBlob(SCOPE, "owner/repo", "blob-c", Map.of("content", "cccc"));
+
+        RepoSnapshotCache restarted = new RepoSnapshotCache(16, diskDir.toString(), objectMapper, metrics,
+                Long.MAX_VALUE);
+        assertTrue(restarted.getBlob(SCOPE, "owner/repo", "blob-a").isPresent());
+        assertTrue(restarted.getBlob(SCOPE, "owner/repo", "blob-b").isEmpty());
+        assertTrue(restarted.getBlob(SCOPE, "owner/repo", "blob-c").isPresent());
+    }
+}
@@ -0,0 +1,210 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.RunQueueAdmissionEntity;
+import com.atlasia.ai.model.RunQueueEntryEntity;
+import com.atlasia.ai.model.RunQueueLane;
+import com.atlasia.ai.model.RunStatus;
+import com.atlasia.ai.persistence.RunQueueAdmissionRepository;
+import com.atlasia.ai.persistence.RunQueueRepository;
+import com.atlasia.ai.persistence.RunRepository;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RunQueueServiceTest {
+
+    @Mock
+    private RunQueueRepository queueRepository;
+    @Mock
+    private RunQueueAdmissionRepository admissionRepository;
+    @Mock
+    private RunRepository runRepository;
+    @Mock
+    private WorkflowEngine workflowEngine;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    private final Instant now = Instant.parse("2026-01-01T10:00:00Z");
+    private final List<Runnable> submitted = new ArrayList<>();
+    private RunQueueService service;
+
+    @BeforeEach
+    void setUp() {
+        service = newService(true, 3, 1);
+    }
+
+    private RunQueueService newService(boolean enabled, int maxRuns, int maxPerRepo) {
+        return new RunQueueService(queueRepository, admissionRepository, runRepository, workflowEngine,
+                submitted::add, new TransactionTemplate(transactionManager), metrics,
+                Clock.fixed(now, ZoneOffset.UTC),
+                new RunQueueService.Settings(enabled, maxRuns, maxPerRepo, Duration.ofMinutes(3), 2),
+                "node-a");
+    }
+
+    @Test
+    void enqueue_disabledStartsRunDirectly() {
+        UUID runId = UUID.randomUUID();
+        service = newService(false, 3, 1);
+
+        service.enqueue(runId, "owner/repo", RunQueueLane.WEBHOOK, "token");
+
+        verify(workflowEngine).executeWorkflowAsync(runId, "token");
+        verifyNoInteractions(queueRepository, admissionRepository);
+    }
+
+    @Test
+    void enqueue_existingRowIsNotQueuedTwice() {
+        UUID runId = UUID.randomUUID();
+        when(queueRepository.existsById(runId)).thenReturn(true);
+
+        service.enqueue(runId, "owner/repo", RunQueueLane.INTERACTIVE, "token");
+
+        verify(queueRepository, never()).save(any());
+        verifyNoInteractions(admissionRepository);
+    }
+
+    @Test
+    void dispatch_skipsPassWhenAnotherNodeHoldsAdmission() {
+        when(admissionRepository.tryLock()).thenReturn(List.of());
+
+        assertEquals(0, service.dispatchAvailable());
+
+        verify(queueRepository, never()).findClaimable(any());
+        assertTrue(submitted.isEmpty());
+    }
+
+    @Test
+    void dispatch_respectsPerRepoAndGlobalLimits() {
+        RunQueueEntryEntity busyRepo = queued("owner/busy", RunQueueLane.INTERACTIVE);
+        RunQueueEntryEntity first = queued("owner/a", RunQueueLane.INTERACTIVE);
+        RunQueueEntryEntity sameRepo = queued("owner/a", RunQueueLane.WEBHOOK);
+        RunQueueEntryEntity second = queued("owner/b", RunQueueLane.WEBHOOK);
+        RunQueueEntryEntity overLimit = queued("owner/c", RunQueueLane.SHADOW);
+        stubAdmission(List.<Object[]>of(new Object[]{"owner/busy", 1L}),
+                List.of(busyRepo, first, sameRepo, second, overLimit));
+
+        assertEquals(2, service.dispatchAvailable());
+
+        assertEquals(RunQueueEntryEntity.STATUS_LEASED, first.getStatus());
+        assertEquals(RunQueueEntryEntity.STATUS_LEASED, second.getStatus());
+        assertEquals("node-a", first.getLeaseOwner());
+        assertEquals(now.plus(Duration.ofMinutes(3)), first.getLeaseExpiresAt());
+        assertEquals(RunQueueEntryEntity.STATUS_QUEUED, busyRepo.getStatus());
+        assertEquals(RunQueueEntryEntity.STATUS_QUEUED, sameRepo.getStatus());
+        assertEquals(RunQueueEntryEntity.STATUS_QUEUED, overLimit.getStatus());
+        assertEquals(2, submitted.size());
+        verify(metrics).updateRunQueueLeased(1);
+        verify(metrics, times(2)).recordRunQueueWait(any(), anyLong());
+    }
+
+    @Test
+    void admittedRun_executesWithPersistedTokenAndReleasesSlot() {
+        UUID runId = UUID.randomUUID();
+        when(queueRepository.existsById(runId)).thenReturn(false);
+        when(admissionRepository.tryLock()).thenReturn(List.of(), List.of(mock(RunQueueAdmissionEntity.class)), List.of());
+        when(queueRepository.findByStatusAndLeaseExpiresAtBefore(RunQueueEntryEntity.STATUS_LEASED, now))
+                .thenReturn(List.of());
+        when(queueRepository.countLeasedByRepo()).thenReturn(List.of());
+        when(queueRepository.countQueuedByLane()).thenReturn(List.of());
+
+        service.enqueue(runId, "owner/a", RunQueueLane.INTERACTIVE, "user-token");
+
+        ArgumentCaptor<RunQueueEntryEntity> saved = ArgumentCaptor.forClass(RunQueueEntryEntity.class);
+        verify(queueRepository).save(saved.capture());
+        assertEquals("user-token", saved.getValue().getGitHubToken());
+        // The token travels with the row, not with this node's memory.
+        RunQueueEntryEntity entry = new RunQueueEntryEntity(runId, "owner/a", RunQueueLane.INTERACTIVE, now);
+        entry.setGitHubToken(saved.getValue().getGitHubToken());
+        when(queueRepository.findClaimable(any())).thenReturn(List.of(entry));
+        service.poll();
+
+        assertEquals(1, submitted.size());
+        assertEquals(1, service.inFlightCount());
+        submitted.get(0).run();
+
+        verify(workflowEngine).runWorkflow(runId, "user-token");
+        verify(queueRepository).deleteById(runId);
+        assertEquals(0, service.inFlightCount());
+    }
+
+    @Test
+    void dispatch_requeuesExpiredLeaseAndFailsRunAfterMaxAttempts() {
+        RunQueueEntryEntity orphan = queued("owner/a", RunQueueLane.WEBHOOK);
+        orphan.lease("node-dead", now.minusSeconds(600), now.minusSeconds(1));
+        RunQueueEntryEntity exhausted = queued("owner/b", RunQueueLane.WEBHOOK);
+        exhausted.lease("node-dead", now.minusSeconds(900), now.minusSeconds(700));
+        exhausted.requeue();
+        exhausted.lease("node-dead", now.minusSeconds(600), now.minusSeconds(1));
+        RunEntity failedRun = new RunEntity(exhausted.getRunId(), "owner/b", 1, "code", RunStatus.DEVELOPER, now);
+
+        when(admissionRepository.tryLock()).thenReturn(List.of(mock(RunQueueAdmissionEntity.class)));
+        when(queueRepository.findByStatusAndLeaseExpiresAtBefore(RunQueueEntryEntity.STATUS_LEASED, now))
+                .thenReturn(List.of(orphan, exhausted));
+        when(runRepository.findById(exhausted.getRunId())).thenReturn(Optional.of(failedRun));
+        when(queueRepository.countLeasedByRepo()).thenReturn(List.of());
+        when(queueRepository.countQueuedByLane()).thenReturn(List.<Object[]>of(new Object[]{RunQueueLane.WEBHOOK, 1L}));
+        when(queueRepository.findClaimable(any())).thenReturn(List.of());
+
+        service.dispatchAvailable();
+
+        assertEquals(RunQueueEntryEntity.STATUS_QUEUED, orphan.getStatus());
+        assertNull(orphan.getLeaseOwner());
+        verify(queueRepository).save(orphan);
+        verify(queueRepository).delete(exhausted);
+        assertEquals(RunStatus.FAILED, failedRun.getStatus());
+        verify(metrics).recordRunQueueLeaseRecovery("requeued");
+        verify(metrics).recordRunQueueLeaseRecovery("abandoned");
+        verify(metrics).updateRunQueueDepth("WEBHOOK", 1);
+    }
+
+    @Test
+    void heartbeat_extendsLeasesOfRunsInFlight() {
+        RunQueueEntryEntity entry = queued("owner/a", RunQueueLane.INTERACTIVE);
+        stubAdmission(List.of(), List.of(entry));
+        service.dispatchAvailable();
+
+        service.heartbeat();
+
+        verify(queueRepository).extendLeases(eq(Set.of(entry.getRunId())), eq("node-a"),
+                eq(now.plus(Duration.ofMinutes(3))));
+    }
+
+    private void stubAdmission(List<Object[]> leasedByRepo, List<RunQueueEntryEntity> candidates) {
+        when(admissionRepository.tryLock()).thenReturn(List.of(mock(RunQueueAdmissionEntity.class)));
+        when(queueRepository.findByStatusAndLeaseExpiresAtBefore(RunQueueEntryEntity.STATUS_LEASED, now))
+                .thenReturn(List.of());
+        when(queueRepository.countLeasedByRepo()).thenReturn(leasedByRepo);
+        when(queueRepository.countQueuedByLane()).thenReturn(List.of());
+        when(queueRepository.findClaimable(any())).thenReturn(candidates);
+    }
+
+    private RunQueueEntryEntity queued(String repo, RunQueueLane lane) {
+        return new RunQueueEntryEntity(UUID.randomUUID(), repo, lane, now.minusSeconds(5));
+    }
+}
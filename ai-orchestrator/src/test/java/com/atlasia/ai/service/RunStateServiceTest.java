@@ -0,0 +1,93 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.RunStatus;
+import com.atlasia.ai.persistence.RunArtifactRepository;
+import com.atlasia.ai.persistence.RunRepository;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RunStateServiceTest {
+
+    @Mock
+    private RunRepository runRepository;
+
+    @Mock
+    private RunArtifactRepository artifactRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    private RunStateService runStateService;
+    private UUID runId;
+
+    @BeforeEach
+    void setUp() {
+        runStateService = new RunStateService(runRepository, artifactRepository, transactionManager, metrics);
+        runId = UUID.randomUUID();
+    }
+
+    @Test
+    void commit_appliesMutationToFreshRowAndRefreshesDetachedCopy() {
+        RunEntity detached = newRun();
+        RunEntity fresh = newRun();
+        fresh.setPrunedSteps("WRITER");
+        when(runRepository.findById(runId)).thenReturn(Optional.of(fresh));
+        when(runRepository.save(any(RunEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        runStateService.commit(detached, r -> r.setStatus(RunStatus.DEVELOPER));
+
+        assertEquals(RunStatus.DEVELOPER, fresh.getStatus());
+        assertEquals(RunStatus.DEVELOPER, detached.getStatus());
+        assertEquals("WRITER", detached.getPrunedSteps(), "concurrent prune must survive the engine commit");
+    }
+
+    @Test
+    void commit_retriesOnVersionConflict() {
+        RunEntity detached = newRun();
+        when(runRepository.findById(runId)).thenAnswer(inv -> Optional.of(newRun()));
+        when(runRepository.save(any(RunEntity.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(RunEntity.class, runId))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        runStateService.commit(detached, r -> r.setStatus(RunStatus.TESTER));
+
+        assertEquals(RunStatus.TESTER, detached.getStatus());
+        verify(runRepository, times(2)).save(any(RunEntity.class));
+        verify(metrics).recordRunStateConflict();
+    }
+
+    @Test
+    void commit_givesUpAfterMaxConflicts() {
+        RunEntity detached = newRun();
+        when(runRepository.findById(runId)).thenAnswer(inv -> Optional.of(newRun()));
+        when(runRepository.save(any(RunEntity.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(RunEntity.class, runId));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> runStateService.commit(detached, r -> r.setStatus(RunStatus.TESTER)));
+        verify(runRepository, times(RunStateService.MAX_CONFLICT_RETRIES)).save(any(RunEntity.class));
+    }
+
+    private RunEntity newRun() {
+        return new RunEntity(runId, "owner/repo", 1, "full", RunStatus.RECEIVED, Instant.now());
+    }
+}
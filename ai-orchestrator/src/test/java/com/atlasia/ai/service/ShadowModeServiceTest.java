@@ -0,0 +1,81 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.RunQueueLane;
+import com.atlasia.ai.model.RunStatus;
+import com.atlasia.ai.persistence.RunRepository;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShadowModeServiceTest {
+
+    @Mock
+    private RunRepository runRepository;
+    @Mock
+    private RunQueueService runQueueService;
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    private ShadowModeService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ShadowModeService(runRepository, runQueueService, metrics);
+    }
+
+    @Test
+    void startShadowRun_persistsTheRunAndQueuesItOnTheShadowLane() {
+        UUID runId = service.startShadowRun(7, "owner/repo");
+
+        assertNotNull(runId);
+        ArgumentCaptor<RunEntity> saved = ArgumentCaptor.forClass(RunEntity.class);
+        verify(runRepository).save(saved.capture());
+        assertEquals(runId, saved.getValue().getId());
+        assertEquals("shadow", saved.getValue().getMode());
+        verify(runQueueService).enqueue(runId, "owner/repo", RunQueueLane.SHADOW, null);
+        assertEquals(1, service.getActiveShadowRunCount());
+    }
+
+    @Test
+    void startShadowRun_refusesBeyondShadowCapacity() {
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(service.startShadowRun(i, "owner/repo"));
+        }
+
+        assertNull(service.startShadowRun(99, "owner/repo"));
+        verify(runQueueService, times(3)).enqueue(any(), any(), any(), any());
+    }
+
+    @Test
+    void collectFinishedRuns_recordsTerminalRunsAndFreesCapacity() {
+        UUID done = service.startShadowRun(1, "owner/repo");
+        UUID waiting = service.startShadowRun(2, "owner/repo");
+        when(runRepository.findById(done)).thenReturn(Optional.of(run(done, RunStatus.DONE)));
+        when(runRepository.findById(waiting)).thenReturn(Optional.of(run(waiting, RunStatus.WAITING_GATE)));
+
+        service.collectFinishedRuns();
+
+        assertEquals(1, service.getActiveShadowRunCount());
+        ShadowModeService.ReadinessReport report = service.generateReadinessReport();
+        assertEquals(1, report.totalRuns());
+        assertEquals(1, report.completedCount());
+    }
+
+    private static RunEntity run(UUID id, RunStatus status) {
+        return new RunEntity(id, "owner/repo", 1, "shadow", status, Instant.now());
+    }
+}
@@ -37,6 +37,7 @@ class TesterStepTest {
         private AgentContractLoader agentContractLoader;
 
         private ObjectMapper objectMapper;
+        private CheckRunCompletionRegistry completionRegistry;
         private TesterStep testerStep;
         private RunContext context;
         private RunEntity runEntity;
@@ -46,8 +47,10 @@ class TesterStepTest {
                 objectMapper = new ObjectMapper();
                 lenient().when(agentContractLoader.systemPromptPrefix(anyString())).thenReturn("");
                 lenient().when(complexityResolver.forAgent(anyString())).thenReturn(TaskComplexity.MEDIUM);
+                completionRegistry = new CheckRunCompletionRegistry();
                 testerStep = new TesterStep(
-                        gitHubApiClient, llmService, complexityResolver, objectMapper, metrics, agentContractLoader);
+                        gitHubApiClient, llmService, complexityResolver, objectMapper, metrics, agentContractLoader,
+                        completionRegistry, new GitCommitBuilder(gitHubApiClient, metrics, 0, 4));
 
                 runEntity = new RunEntity(
                                 UUID.randomUUID(),
@@ -266,6 +269,35 @@ class TesterStepTest {
                 verify(gitHubApiClient, atLeast(2)).listCheckRunsForRef(eq("owner"), eq("repo"), eq("commit-sha"));
         }
 
+        @Test
+        void execute_ciCompletionWebhookWakesPollWithoutWaitingForFallback() throws Exception {
+                Map<String, Object> branchRef = Map.of("object", Map.of("sha", "commit-sha"));
+                lenient().when(gitHubApiClient.getReference(eq("owner"), eq("repo"), eq("heads/ai/issue-123")))
+                                .thenReturn(branchRef);
+
+                List<Map<String, Object>> pendingRuns = List.of(
+                                createCheckRun(1L, "Tests", "in_progress", null, false));
+                List<Map<String, Object>> completedRuns = List.of(
+                                createCheckRun(1L, "Tests", "completed", "success", false));
+
+                completionRegistry.recordDelivery("owner/repo");
+                when(gitHubApiClient.listCheckRunsForRef(eq("owner"), eq("repo"), eq("commit-sha")))
+                                .thenAnswer(inv -> {
+                                        // completion webhook lands while the first poll is in flight
+                                        completionRegistry.signalCompletion("owner/repo", "commit-sha", "check_suite");
+                                        return Map.of("check_runs", pendingRuns);
+                                })
+                                .thenReturn(Map.of("check_runs", completedRuns));
+
+                long started = System.nanoTime();
+                String result = testerStep.execute(context);
+
+                assertNotNull(result);
+                assertTrue(System.nanoTime() - started < 30_000_000_000L, "should not wait for the sparse fallback poll");
+                verify(metrics).recordCiCompletionWakeup("webhook");
+                verify(gitHubApiClient, atLeast(2)).listCheckRunsForRef(eq("owner"), eq("repo"), eq("commit-sha"));
+        }
+
         @Test
         void execute_escalationIncludesOptions() throws Exception {
                 setupAlwaysFailingCheckRuns();
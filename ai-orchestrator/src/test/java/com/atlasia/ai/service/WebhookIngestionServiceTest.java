@@ -0,0 +1,227 @@
+package com.atlasia.ai.service;
+
+import com.atlasia.ai.model.RunEntity;
+import com.atlasia.ai.model.RunQueueLane;
+import com.atlasia.ai.model.WebhookEventEntity;
+import com.atlasia.ai.persistence.RunRepository;
+import com.atlasia.ai.persistence.WebhookEventRepository;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookIngestionServiceTest {
+
+    private static final String LABELED_PAYLOAD = """
+            {"action":"labeled","label":{"name":"ai:run"},
+             "issue":{"number":42,"title":"Fix it"},
+             "repository":{"full_name":"owner/repo"}}
+            """;
+
+    @Mock
+    private WebhookEventRepository webhookEventRepository;
+    @Mock
+    private RunRepository runRepository;
+    @Mock
+    private RunQueueService runQueueService;
+    @Mock
+    private CheckRunCompletionRegistry checkRunCompletionRegistry;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    private WebhookIngestionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = newService(100);
+    }
+
+    private WebhookIngestionService newService(int capacity) {
+        return newService(capacity, 100);
+    }
+
+    private WebhookIngestionService newService(int capacity, int unsignedCapacity) {
+        return new WebhookIngestionService(webhookEventRepository, runRepository, runQueueService,
+                checkRunCompletionRegistry, new ObjectMapper(), transactionManager, metrics,
+                capacity, unsignedCapacity, 50, 1_000, 24, 2, 120);
+    }
+
+    @Test
+    void accept_redeliveryOfSameIdIsDuplicate() {
+        assertEquals(WebhookIngestionService.Outcome.QUEUED, service.accept("d-1", "issues", "{}", true));
+        assertEquals(WebhookIngestionService.Outcome.DUPLICATE, service.accept("d-1", "issues", "{}", true));
+
+        assertEquals(1, service.backlog());
+        verify(metrics).recordWebhookDelivery("duplicate");
+    }
+
+    @Test
+    void accept_unsignedDeliveriesAreNotDedupedOrDispatched() {
+        service.accept("d-1", "issues", LABELED_PAYLOAD, false);
+        assertEquals(WebhookIngestionService.Outcome.QUEUED, service.accept("d-1", "issues", LABELED_PAYLOAD, true));
+        when(webhookEventRepository.findExistingDeliveryIds(any())).thenReturn(List.of());
+
+        service.drainBatch();
+
+        ArgumentCaptor<List<WebhookEventEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(webhookEventRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        // Signed deliveries are taken first; the unsigned one fills the rest of the batch.
+        assertEquals("d-1", saved.getValue().get(0).getDeliveryId());
+        assertNull(saved.getValue().get(1).getDeliveryId());
+        assertFalse(saved.getValue().get(1).isSignatureValid());
+        verify(runQueueService, times(1)).enqueue(any(), eq("owner/repo"), eq(RunQueueLane.WEBHOOK), isNull());
+    }
+
+    @Test
+    void drainBatch_persistsBatchOnceAndDispatchesLabeledIssue() {
+        service.accept("d-1", "issues", LABELED_PAYLOAD, true);
+        service.accept("d-2", "ping", "{}", true);
+        when(webhookEventRepository.findExistingDeliveryIds(any())).thenReturn(List.of());
+
+        assertEquals(2, service.drainBatch());
+
+        verify(webhookEventRepository, times(1)).saveAll(any());
+        ArgumentCaptor<RunEntity> run = ArgumentCaptor.forClass(RunEntity.class);
+        verify(runRepository).save(run.capture());
+        assertEquals("owner/repo", run.getValue().getRepo());
+        assertEquals(42, run.getValue().getIssueNumber());
+        verify(runQueueService).enqueue(run.getValue().getId(), "owner/repo", RunQueueLane.WEBHOOK, null);
+        verify(metrics).recordWebhookIngestBatch(eq(2), anyLong());
+    }
+
+    @Test
+    void drainBatch_dropsDeliveriesAlreadyRecorded() {
+        service.accept("d-old", "issues", LABELED_PAYLOAD, true);
+        when(webhookEventRepository.findExistingDeliveryIds(any())).thenReturn(List.of("d-old"));
+
+        service.drainBatch();
+
+        verify(webhookEventRepository, never()).saveAll(any());
+        verifyNoInteractions(runRepository, runQueueService);
+    }
+
+    @Test
+    void drainBatch_completedCheckRunSignalsRegistry() {
+        service.accept("d-ci", "check_run", """
+                {"action":"completed","check_run":{"head_sha":"abc123"},
+                 "repository":{"full_name":"owner/repo"}}
+                """, true);
+        when(webhookEventRepository.findExistingDeliveryIds(any())).thenReturn(List.of());
+
+        service.drainBatch();
+
+        verify(checkRunCompletionRegistry).recordDelivery("owner/repo");
+        verify(checkRunCompletionRegistry).signalCompletion("owner/repo", "abc123", "check_run");
+    }
+
+    @Test
+    void accept_fullQueueRejectsAndLetsRedeliveryThroughLater() {
+        service = newService(1);
+        service.accept("d-1", "ping", "{}", true);
+
+        assertEquals(WebhookIngestionService.Outcome.OVERLOADED, service.accept("d-2", "ping", "{}", true));
+        when(webhookEventRepository.findExistingDeliveryIds(any())).thenReturn(List.of());
+        service.drainBatch();
+
+        assertEquals(WebhookIngestionService.Outcome.QUEUED, service.accept("d-2", "ping", "{}", true));
+        verify(metrics).recordWebhookDelivery("overloaded");
+        verify(metrics, atLeastOnce()).updateWebhookIngestBacklog(anyInt());
+        verify(checkRunCompletionRegistry, never()).recordDelivery(anyString());
+    }
+
+    @Test
+    void accept_unsignedFloodDoesNotCrowdOutSignedDeliveries() {
+        service = newService(10, 2);
+        for (int i = 0; i < 5; i++) {
+            service.accept("forged-" + i, "issues", LABELED_PAYLOAD, false);
+        }
+
+        assertEquals(WebhookIngestionService.Outcome.QUEUED, service.accept("d-1", "issues", LABELED_PAYLOAD, true));
+        assertEquals(3, service.backlog());
+        verify(metrics, times(3)).recordWebhookDelivery("rejected_dropped");
+        verify(metrics, never()).recordWebhookDelivery("overloaded");
+    }
+
+    @Test
+    void drainBatch_failedWriteIsRequeuedAndRetried() {
+        service.accept("d-1", "issues", LABELED_PAYLOAD, true);
+        when(webhookEventRepository.findExistingDeliveryIds(any()))
+                .thenThrow(new org.springframework.dao.DataAccessResourceFailureException("db down"))
+                .thenReturn(List.of());
+
+        assertThrows(org.springframework.dao.DataAccessResourceFailureException.class, () -> service.drainBatch());
+        verifyNoInteractions(runQueueService);
+        assertEquals(1, service.backlog());
+        assertEquals(WebhookIngestionService.Outcome.DUPLICATE, service.accept("d-1", "issues", LABELED_PAYLOAD, true));
+
+        service.drainBatch();
+        verify(runQueueService).enqueue(any(), eq("owner/repo"), eq(RunQueueLane.WEBHOOK), isNull());
+        verify(webhookEventRepository).markDispatched(eq(List.of("d-1")), any());
+    }
+
+    @Test
+    void drainBatch_givesUpAfterMaxAttemptsAndLetsTheRedeliveryThrough() {
+        service.accept("d-1", "issues", LABELED_PAYLOAD, true);
+        when(webhookEventRepository.findExistingDeliveryIds(any()))
+                .thenThrow(new org.springframework.dao.DataAccessResourceFailureException("db down"));
+
+        assertThrows(RuntimeException.class, () -> service.drainBatch());
+        assertThrows(RuntimeException.class, () -> service.drainBatch());
+
+        assertEquals(0, service.backlog());
+        verify(metrics).recordWebhookDelivery("persist_failed");
+        assertEquals(WebhookIngestionService.Outcome.QUEUED, service.accept("d-1", "issues", LABELED_PAYLOAD, true));
+    }
+
+    @Test
+    void drainBatch_failedDispatchStaysInTheOutbox() {
+        service.accept("d-1", "issues", LABELED_PAYLOAD, true);
+        when(webhookEventRepository.findExistingDeliveryIds(any())).thenReturn(List.of());
+        when(runRepository.save(any())).thenThrow(new org.springframework.dao.DataAccessResourceFailureException("db down"));
+
+        service.drainBatch();
+
+        verify(webhookEventRepository, never()).markDispatched(any(), any());
+    }
+
+    @Test
+    void sweepUndispatched_dispatchesLeftoverRowsOnceAndMarksThem() {
+        WebhookEventEntity leftover = new WebhookEventEntity("d-9", "issues", LABELED_PAYLOAD, true,
+                java.time.Instant.now().minusSeconds(600));
+        when(webhookEventRepository.findUndispatched(any(), any(), any())).thenReturn(List.of(leftover));
+        RunEntity started = mock(RunEntity.class);
+        when(started.getStatus()).thenReturn(com.atlasia.ai.model.RunStatus.DEVELOPER);
+
+        service.sweepUndispatched();
+
+        ArgumentCaptor<RunEntity> run = ArgumentCaptor.forClass(RunEntity.class);
+        verify(runRepository).save(run.capture());
+        verify(runQueueService).enqueue(run.getValue().getId(), "owner/repo", RunQueueLane.WEBHOOK, null);
+        verify(webhookEventRepository).markDispatched(eq(List.of("d-9")), any());
+
+        // The in-process dispatch had in fact got through before the node died: no second run.
+        when(runRepository.findById(run.getValue().getId())).thenReturn(java.util.Optional.of(started));
+        service.sweepUndispatched();
+        verify(runRepository, times(1)).save(any());
+        verify(runQueueService, times(1)).enqueue(any(), anyString(), any(), any());
+    }
+}
@@ -39,6 +39,9 @@ class WorkflowEngineIntegrationTest {
         @Autowired
         private RunRepository runRepository;
 
+        @Autowired
+        private RunStateService runStateService;
+
         @MockBean
         private JsonSchemaValidator schemaValidator;
 
@@ -144,9 +147,8 @@ class WorkflowEngineIntegrationTest {
                         String entryKey = invocation.getArgument(1);
                         String agent = invocation.getArgument(2);
                         String payload = invocation.getArgument(3);
-                        re.addArtifact(new RunArtifactEntity(agent, entryKey, payload, Instant.now()));
-                        // Persist cascade so Hibernate never sees transient children on flush (orphanRemoval).
-                        runRepository.save(re);
+                        // Mirror BlackboardService: insert the artifact row without re-saving the detached run.
+                        runStateService.appendArtifact(re, new RunArtifactEntity(agent, entryKey, payload, Instant.now()));
                         return null;
                 }).when(blackboardService).write(any(), anyString(), anyString(), anyString());
         }
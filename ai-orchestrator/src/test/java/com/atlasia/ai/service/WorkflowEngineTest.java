@@ -90,6 +90,18 @@ class WorkflowEngineTest {
         @Mock
         private HitlGateService hitlGateService;
 
+        @Mock
+        private BudgetTracker budgetTracker;
+
+        @Mock
+        private InterruptDecisionStore interruptDecisionStore;
+
+        @Mock
+        private com.atlasia.ai.persistence.RunArtifactRepository runArtifactRepository;
+
+        @Mock
+        private org.springframework.transaction.PlatformTransactionManager transactionManager;
+
         private WorkflowEngine workflowEngine;
         private RunEntity runEntity;
 
@@ -118,7 +130,6 @@ class WorkflowEngineTest {
                 }).when(blackboardService).write(any(), anyString(), anyString(), anyString());
 
                 workflowEngine = new WorkflowEngine(
-                                runRepository,
                                 schemaValidator,
                                 developerStep,
                                 personaReviewService,
@@ -130,12 +141,14 @@ class WorkflowEngineTest {
                                 judgeService,
                                 agentStepFactory,
                                 agentBindingService,
-                                new com.atlasia.ai.service.InterruptDecisionStore(),
+                                interruptDecisionStore,
                                 new ObjectMapper(),
                                 graftExecutionService,
                                 tracer,
                                 new TaskLedgerBuilder(new ObjectMapper()),
-                                hitlGateService);
+                                hitlGateService,
+                                new RunStateService(runRepository, runArtifactRepository, transactionManager, metrics),
+                                budgetTracker);
                 ReflectionTestUtils.setField(workflowEngine, "self", workflowEngine);
 
                 // Wire the factory to return the appropriate step mocks
@@ -234,6 +247,7 @@ class WorkflowEngineTest {
 
                 verify(metrics).recordWorkflowExecution();
                 verify(metrics).recordWorkflowSuccess(anyLong());
+                verify(budgetTracker).releaseRun(runEntity.getId());
         }
 
         @Test
@@ -485,6 +499,76 @@ class WorkflowEngineTest {
                 verify(metrics).recordWorkflowEscalation(anyLong());
         }
 
+        @Test
+        void executeWorkflow_interruptRequiresApproval_suspendsRunWithoutBlocking() throws Exception {
+                lenient().when(pmStep.execute(any(RunContext.class))).thenReturn("{\"issueId\":123}");
+                lenient().when(qualifierStep.execute(any(RunContext.class))).thenReturn("{\"tasks\":[]}");
+                lenient().when(architectStep.execute(any(RunContext.class))).thenReturn("Architecture notes");
+                when(interruptService.evaluate(eq("DEVELOPER"), any(), eq("generate"), any(), any()))
+                                .thenReturn(DynamicInterruptService.InterruptDecision.pauseAndNotify(
+                                                "high", "large_code_changes", "Large change set"));
+
+                workflowEngine.executeWorkflow(runEntity.getId());
+
+                verify(interruptDecisionStore).park(eq(runEntity.getId()), eq("DEVELOPER"), eq("generate"),
+                                eq("large_code_changes"), eq("high"), eq("Large change set"),
+                                eq(new InterruptDecisionStore.ResumeState(null, null, 0, 0)));
+                verify(hitlGateService).suspendForInterrupt(any(RunEntity.class), eq("DEVELOPER"), eq("generate"),
+                                eq("Large change set"));
+                verify(developerStep, never()).generateCode(any(RunContext.class));
+                verify(metrics, never()).recordWorkflowEscalation(anyLong());
+                verify(metrics, never()).recordWorkflowFailure(anyLong());
+                verify(metrics, never()).recordAgentStepError(anyString(), anyString());
+        }
+
+        @Test
+        void executeWorkflow_resumeAtCommitCheckpoint_commitsPersistedChangesWithoutReReview() throws Exception {
+                runEntity.setWorkflowResumeFrom(HitlGateService.RESUME_AT_INTERRUPT_PREFIX
+                                + "DEVELOPER:commitAndCreatePullRequest");
+                com.atlasia.ai.model.PendingInterruptEntity pending = new com.atlasia.ai.model.PendingInterruptEntity(
+                                runEntity.getId(), "DEVELOPER", "commitAndCreatePullRequest",
+                                "pr_creation", "medium", "PR creation");
+                pending.setContinuationState("{\"summary\":\"Implemented feature\",\"files\":"
+                                + "[{\"path\":\"src/App.java\",\"operation\":\"modify\",\"content\":\"class App {}\"}]}");
+                pending.setDecision(InterruptDecisionStore.DECISION_APPROVE);
+                when(interruptDecisionStore.find(runEntity.getId())).thenReturn(Optional.of(pending));
+                when(interruptService.evaluate(eq("DEVELOPER"), any(), eq("commitAndCreatePullRequest"), any(), any()))
+                                .thenReturn(DynamicInterruptService.InterruptDecision.pauseAndNotify(
+                                                "medium", "pr_creation", "PR creation"));
+                when(interruptDecisionStore.consumeApproval(runEntity.getId(), "DEVELOPER", "commitAndCreatePullRequest"))
+                                .thenReturn(true);
+                when(developerStep.commitAndCreatePullRequest(any(), any()))
+                                .thenReturn("https://github.com/owner/repo/pull/1");
+                lenient().when(testerStep.execute(any(RunContext.class))).thenReturn("{\"ciStatus\":\"GREEN\"}");
+                lenient().when(writerStep.execute(any(RunContext.class))).thenReturn("Docs updated");
+
+                workflowEngine.executeWorkflow(runEntity.getId());
+
+                verify(pmStep, never()).execute(any(RunContext.class));
+                verify(developerStep, never()).generateCode(any(RunContext.class));
+                verify(personaReviewService, never()).reviewCodeChanges(any(), any());
+                verify(developerStep).commitAndCreatePullRequest(any(),
+                                argThat(changes -> "class App {}".equals(changes.getFiles().get(0).getContent())));
+                verify(interruptDecisionStore, never()).park(any(), any(), any(), any(), any(), any(), any());
+                assertEquals(RunStatus.DONE, runEntity.getStatus());
+        }
+
+        @Test
+        void executeWorkflow_resumeAfterDeniedInterrupt_escalatesWithoutRunningSteps() throws Exception {
+                runEntity.setWorkflowResumeFrom(HitlGateService.RESUME_AT_INTERRUPT_PREFIX + "WRITER:execute");
+                com.atlasia.ai.model.PendingInterruptEntity pending = new com.atlasia.ai.model.PendingInterruptEntity(
+                                runEntity.getId(), "WRITER", "execute", "file_writes_outside_scope", "critical", "Docs");
+                pending.setDecision(InterruptDecisionStore.DECISION_DENY);
+                when(interruptDecisionStore.find(runEntity.getId())).thenReturn(Optional.of(pending));
+
+                workflowEngine.executeWorkflow(runEntity.getId());
+
+                verify(interruptDecisionStore).cancel(runEntity.getId());
+                verify(writerStep, never()).execute(any(RunContext.class));
+                verify(judgeService, never()).evaluateWithMajorityVoting(any(), anyString(), anyString());
+                verify(runRepository, atLeastOnce()).save(argThat(run -> run.getStatus() == RunStatus.ESCALATED));
+        }
+
         @Test
         void executeWorkflow_majorityVotingVeto_setsEscalatedStatus() throws Exception {
                 lenient().when(pmStep.execute(any(RunContext.class))).thenReturn("{\"issueId\":123}");
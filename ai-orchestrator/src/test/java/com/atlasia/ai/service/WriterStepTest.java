@@ -3,6 +3,7 @@ package com.atlasia.ai.service;
 import com.atlasia.ai.model.RunEntity;
 import com.atlasia.ai.model.RunStatus;
 import com.atlasia.ai.model.TaskComplexity;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -42,7 +43,8 @@ class WriterStepTest {
         objectMapper = new ObjectMapper();
         lenient().when(agentContractLoader.systemPromptPrefix(anyString())).thenReturn("");
         lenient().when(complexityResolver.forAgent(anyString())).thenReturn(TaskComplexity.MEDIUM);
-        writerStep = new WriterStep(gitHubApiClient, llmService, complexityResolver, objectMapper, agentContractLoader);
+        writerStep = new WriterStep(gitHubApiClient, llmService, complexityResolver, objectMapper, agentContractLoader,
+                new GitCommitBuilder(gitHubApiClient, mock(OrchestratorMetrics.class), 0, 4));
 
         runEntity = new RunEntity(
                 UUID.randomUUID(),
@@ -320,7 +322,11 @@ class WriterStepTest {
         lenient().when(gitHubApiClient.getReference(eq("owner"), eq("repo"), eq("heads/ai/issue-123")))
                 .thenReturn(Map.of("object", Map.of("sha", "commit-sha")));
 
-        lenient().when(gitHubApiClient.getRepoContent(eq("owner"), eq("repo"), eq("README.md")))
+        lenient().when(gitHubApiClient.getDefaultBranch("owner", "repo")).thenReturn("main");
+        lenient().when(gitHubApiClient.getReference(eq("owner"), eq("repo"), eq("heads/main")))
+                .thenReturn(Map.of("object", Map.of("sha", "main-sha")));
+
+        lenient().when(gitHubApiClient.getRepoContent(eq("owner"), eq("repo"), eq("README.md"), eq("main-sha")))
                 .thenReturn(Map.of(
                         "content", Base64.getEncoder().encodeToString("# README\n\nExisting content".getBytes()),
                         "sha", "readme-sha"));
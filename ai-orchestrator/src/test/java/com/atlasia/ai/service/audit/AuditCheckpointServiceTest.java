@@ -0,0 +1,120 @@
+package com.atlasia.ai.service.audit;
+
+import com.atlasia.ai.model.AuditAuthenticationEventEntity;
+import com.atlasia.ai.model.AuditChainCheckpointEntity;
+import com.atlasia.ai.persistence.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditCheckpointServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T10:00:00Z");
+
+    @Mock
+    private AuditAuthenticationEventRepository authRepository;
+    @Mock
+    private AuditAccessLogRepository accessRepository;
+    @Mock
+    private AuditDataMutationRepository mutationRepository;
+    @Mock
+    private AuditAdminActionRepository adminRepository;
+    @Mock
+    private CollaborationEventRepository collaborationRepository;
+    @Mock
+    private AuditChainCheckpointRepository checkpointRepository;
+
+    private AuditHashChains chains;
+    private AuditCheckpointService service;
+
+    @BeforeEach
+    void setUp() {
+        chains = new AuditHashChains(authRepository, accessRepository, mutationRepository, adminRepository,
+                collaborationRepository, 60, 1000);
+        service = new AuditCheckpointService(chains, checkpointRepository, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void checkpoint_storesTheMerkleRootOfAdvancedHeads() {
+        chains.committed(AuditTable.AUTHENTICATION, "user:b", new AuditHashChains.ChainHead(3, "hb"));
+        chains.committed(AuditTable.AUTHENTICATION, "user:a", new AuditHashChains.ChainHead(1, "ha1"));
+        chains.committed(AuditTable.AUTHENTICATION, "user:a", new AuditHashChains.ChainHead(2, "ha2"));
+        chains.committed(AuditTable.AUTHENTICATION, "user:a", new AuditHashChains.ChainHead(1, "ha1"));
+        when(checkpointRepository.findTopByTableNameOrderByCreatedAtDesc("authentication"))
+                .thenReturn(Optional.of(checkpoint(List.of("user:z|1|hz"), null)));
+        when(checkpointRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        AuditChainCheckpointEntity saved = service.checkpoint(AuditTable.AUTHENTICATION).orElseThrow();
+
+        assertEquals("user:a|2|ha2\nuser:b|3|hb", saved.getChainHeads());
+        assertEquals(2, saved.getChainCount());
+        assertEquals(MerkleTree.root(List.of("user:a|2|ha2", "user:b|3|hb")), saved.getMerkleRoot());
+        assertEquals(MerkleTree.root(List.of("user:z|1|hz")), saved.getPreviousRoot());
+        assertEquals(NOW, saved.getCreatedAt());
+        assertTrue(service.checkpoint(AuditTable.AUTHENTICATION).isEmpty());
+    }
+
+    @Test
+    void checkpoint_keepsHeadsForTheNextRunWhenSavingFails() {
+        chains.committed(AuditTable.ACCESS_LOGS, "user:a", new AuditHashChains.ChainHead(1, "h"));
+        when(checkpointRepository.save(any())).thenThrow(new IllegalStateException("db down"));
+
+        assertThrows(IllegalStateException.class, () -> service.checkpoint(AuditTable.ACCESS_LOGS));
+
+        assertEquals(1, chains.drainAdvanced(AuditTable.ACCESS_LOGS).size());
+    }
+
+    @Test
+    void verify_checksRootsReferencesAndStoredRows() {
+        AuditAuthenticationEventEntity row = new AuditAuthenticationEventEntity(
+                null, "a|b", "LOGIN", null, null, true, null, NOW);
+        row.setEventHash("h2");
+        when(authRepository.findByChainKeyAndChainSeq("name:a|b", 2L)).thenReturn(Optional.of(row));
+        AuditChainCheckpointEntity first = checkpoint(List.of("name:a|b|2|h2"), null);
+        AuditChainCheckpointEntity second = checkpoint(List.of("name:a|b|2|h2"), first.getMerkleRoot());
+        when(checkpointRepository.findByTableNameOrderByCreatedAtAsc("authentication"))
+                .thenReturn(List.of(first, second));
+
+        assertTrue(service.verify(AuditTable.AUTHENTICATION));
+
+        row.setEventHash("rewritten");
+        assertFalse(service.verify(AuditTable.AUTHENTICATION));
+    }
+
+    @Test
+    void verify_rejectsACheckpointReferencingAnUnknownRoot() {
+        when(checkpointRepository.findByTableNameOrderByCreatedAtAsc("authentication"))
+                .thenReturn(List.of(checkpoint(List.of("user:a|1|h"), "deadbeef")));
+
+        assertFalse(service.verify(AuditTable.AUTHENTICATION));
+    }
+
+    @Test
+    void merkleRoot_dependsOnEveryLeafAndItsPosition() {
+        String root = MerkleTree.root(List.of("a", "b", "c"));
+
+        assertNotEquals(root, MerkleTree.root(List.of("b", "a", "c")));
+        assertNotEquals(root, MerkleTree.root(List.of("a", "b", "c", "c")));
+        assertNotEquals(root, MerkleTree.root(List.of("a", "b")));
+        assertEquals(root, MerkleTree.root(List.of("a", "b", "c")));
+        assertEquals(64, root.length());
+    }
+
+    private static AuditChainCheckpointEntity checkpoint(List<String> leaves, String previousRoot) {
+        return new AuditChainCheckpointEntity("authentication", NOW, leaves.size(), String.join("\n", leaves),
+                MerkleTree.root(leaves), previousRoot);
+    }
+}
@@ -0,0 +1,224 @@
+package com.atlasia.ai.service.audit;
+
+import com.atlasia.ai.model.AuditAccessLogEntity;
+import com.atlasia.ai.model.AuditAuthenticationEventEntity;
+import com.atlasia.ai.model.HashChainedEvent;
+import com.atlasia.ai.persistence.*;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogWriterTest {
+
+    private static final Instant T0 = Instant.parse("2026-03-01T10:00:00Z");
+
+    @Mock
+    private AuditAuthenticationEventRepository authRepository;
+    @Mock
+    private AuditAccessLogRepository accessRepository;
+    @Mock
+    private AuditDataMutationRepository mutationRepository;
+    @Mock
+    private AuditAdminActionRepository adminRepository;
+    @Mock
+    private CollaborationEventRepository collaborationRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    private AuditHashChains chains;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        chains = new AuditHashChains(authRepository, accessRepository, mutationRepository, adminRepository,
+                collaborationRepository, 60, 1000);
+    }
+
+    private AuditLogWriter writer(boolean writeBehind, int queueCapacity) {
+        return new AuditLogWriter(chains, transactionManager, metrics, writeBehind, 2, queueCapacity, 100, 0, 0);
+    }
+
+    @Test
+    void flush_linksEachChainInOrderAndWritesTablesInOneTransaction() {
+        AuditLogWriter writer = writer(true, 100);
+        AuditAuthenticationEventEntity a1 = auth("alice");
+        AuditAuthenticationEventEntity a2 = auth("alice");
+        AuditAuthenticationEventEntity b1 = auth("bob");
+        AuditAccessLogEntity access = access("alice");
+
+        writer.append(AuditTable.AUTHENTICATION, "user:alice", a1);
+        writer.append(AuditTable.AUTHENTICATION, "user:alice", a2);
+        writer.append(AuditTable.AUTHENTICATION, "user:bob", b1);
+        writer.append(AuditTable.ACCESS_LOGS, "user:alice", access);
+        verifyNoInteractions(authRepository, accessRepository);
+
+        assertEquals(4, writer.flush());
+
+        assertEquals(1L, a1.getChainSeq());
+        assertEquals(AuditHashChains.GENESIS_HASH, a1.getPreviousEventHash());
+        assertEquals(2L, a2.getChainSeq());
+        assertEquals(a1.getEventHash(), a2.getPreviousEventHash());
+        assertEquals(1L, b1.getChainSeq());
+        assertEquals(1L, access.getChainSeq());
+        assertEquals(AuditHashChains.computeHash(a2, a1.getEventHash()), a2.getEventHash());
+        verify(authRepository, atLeastOnce()).saveAll(anyList());
+        verify(accessRepository).saveAll(List.of(access));
+
+        Map<String, AuditHashChains.ChainHead> heads = chains.drainAdvanced(AuditTable.AUTHENTICATION);
+        assertEquals(2L, heads.get("user:alice").seq());
+        assertEquals(a2.getEventHash(), heads.get("user:alice").hash());
+        assertEquals(1L, heads.get("user:bob").seq());
+    }
+
+    @Test
+    void append_continuesAChainFromTheStoredHead() {
+        AuditAuthenticationEventEntity stored = auth("alice");
+        stored.setChainKey("user:alice");
+        stored.setChainSeq(7L);
+        stored.setEventHash("abc");
+        when(authRepository.findTopByChainKeyOrderByChainSeqDesc("user:alice")).thenReturn(Optional.of(stored));
+        AuditLogWriter writer = writer(false, 100);
+        AuditAuthenticationEventEntity next = auth("alice");
+        AuditAuthenticationEventEntity after = auth("alice");
+
+        writer.append(AuditTable.AUTHENTICATION, "user:alice", next);
+        writer.append(AuditTable.AUTHENTICATION, "user:alice", after);
+
+        assertEquals(8L, next.getChainSeq());
+        assertEquals("abc", next.getPreviousEventHash());
+        assertEquals(9L, after.getChainSeq());
+        // The head is cached after the first append.
+        verify(authRepository, times(1)).findTopByChainKeyOrderByChainSeqDesc("user:alice");
+    }
+
+    @Test
+    void flush_retriesRowByRowAndReloadsTheHeadOfAFailedChain() {
+        AuditLogWriter writer = writer(true, 100);
+        AuditAuthenticationEventEntity good = auth("bob");
+        AuditAuthenticationEventEntity bad = auth("alice");
+        List<List<HashChainedEvent>> saved = new ArrayList<>();
+        when(authRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<HashChainedEvent> rows = new ArrayList<>(inv.getArgument(0));
+            if (rows.contains(bad)) {
+                throw new IllegalStateException("constraint violation");
+            }
+            saved.add(rows);
+            return rows;
+        });
+
+        writer.append(AuditTable.AUTHENTICATION, "user:bob", good);
+        writer.append(AuditTable.AUTHENTICATION, "user:alice", bad);
+        writer.flush();
+
+        assertEquals(List.of(List.of(good)), saved);
+        assertEquals(1L, good.getChainSeq());
+        verify(metrics).recordAuditWrite("failed", 1);
+        Map<String, AuditHashChains.ChainHead> heads = chains.drainAdvanced(AuditTable.AUTHENTICATION);
+        assertEquals(List.of("user:bob"), List.copyOf(heads.keySet()));
+        // The failed batch dropped alice's head, so the retry read it again from the database.
+        verify(authRepository, times(2)).findTopByChainKeyOrderByChainSeqDesc("user:alice");
+    }
+
+    @Test
+    void append_relinksFromTheStoredHeadWhenAnotherNodeTookThePosition() {
+        AuditAuthenticationEventEntity remote = auth("alice");
+        remote.setChainKey("user:alice");
+        remote.setChainSeq(1L);
+        remote.setEventHash("remote");
+        when(authRepository.findTopByChainKeyOrderByChainSeqDesc("user:alice"))
+                .thenReturn(Optional.empty(), Optional.of(remote));
+        when(authRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("uq_audit_auth_chain"))
+                .thenAnswer(inv -> inv.getArgument(0));
+        AuditLogWriter writer = writer(false, 100);
+        AuditAuthenticationEventEntity local = auth("alice");
+
+        writer.append(AuditTable.AUTHENTICATION, "user:alice", local);
+
+        assertEquals(2L, local.getChainSeq());
+        assertEquals("remote", local.getPreviousEventHash());
+        verify(metrics).recordAuditWrite("relinked", 1);
+        assertEquals(2L, chains.drainAdvanced(AuditTable.AUTHENTICATION).get("user:alice").seq());
+    }
+
+    @Test
+    void append_neverLinksOntoARowThatIsStillBeingWritten() throws Exception {
+        CountDownLatch firstSaving = new CountDownLatch(1);
+        CountDownLatch failFirst = new CountDownLatch(1);
+        AuditAuthenticationEventEntity first = auth("alice");
+        AuditAuthenticationEventEntity second = auth("alice");
+        when(authRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<HashChainedEvent> rows = inv.getArgument(0);
+            if (rows.contains(first)) {
+                firstSaving.countDown();
+                failFirst.await();
+                throw new IllegalStateException("connection reset");
+            }
+            return rows;
+        });
+        AuditLogWriter writer = writer(false, 100);
+
+        CompletableFuture<Void> writing = CompletableFuture.runAsync(
+                () -> writer.append(AuditTable.AUTHENTICATION, "user:alice", first));
+        assertTrue(firstSaving.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(
+                () -> writer.append(AuditTable.AUTHENTICATION, "user:alice", second));
+        Thread.sleep(100);
+        assertNull(second.getChainSeq(), "the chain is held until the first write completes");
+        failFirst.countDown();
+        CompletableFuture.allOf(writing, waiting).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1L, second.getChainSeq());
+        assertEquals(AuditHashChains.GENESIS_HASH, second.getPreviousEventHash());
+    }
+
+    @Test
+    void append_writesInlineWhenTheLaneIsFull() {
+        AuditLogWriter writer = new AuditLogWriter(chains, transactionManager, metrics, true, 1, 1, 100, 0, 0);
+        AuditAuthenticationEventEntity queued = auth("alice");
+        AuditAuthenticationEventEntity overflow = auth("alice");
+
+        writer.append(AuditTable.AUTHENTICATION, "user:alice", queued);
+        writer.append(AuditTable.AUTHENTICATION, "user:alice", overflow);
+
+        verify(metrics).recordAuditWrite("inline", 1);
+        verify(authRepository).saveAll(List.of(overflow));
+        assertEquals(1L, overflow.getChainSeq());
+        assertNull(queued.getChainSeq());
+
+        writer.flush();
+        assertEquals(2L, queued.getChainSeq());
+        assertEquals(overflow.getEventHash(), queued.getPreviousEventHash());
+    }
+
+    private static AuditAuthenticationEventEntity auth(String username) {
+        return new AuditAuthenticationEventEntity(null, username, "LOGIN", "127.0.0.1", "junit", true, null, T0);
+    }
+
+    private static AuditAccessLogEntity access(String username) {
+        return new AuditAccessLogEntity(null, username, "run", "r1", "READ", "GET", "/api/runs/r1",
+                "127.0.0.1", "junit", 200, T0);
+    }
+}
@@ -0,0 +1,113 @@
+package com.atlasia.ai.service.auth;
+
+import com.atlasia.ai.config.JwtProperties;
+import com.atlasia.ai.model.RoleEntity;
+import com.atlasia.ai.model.UserEntity;
+import com.atlasia.ai.service.JwtService;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocalJwtBearerTokenResolverTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    private JwtService jwtService;
+    private AuthenticatedPrincipalCache principalCache;
+    private LocalJwtBearerTokenResolver resolver;
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecretKey("0123456789abcdef0123456789abcdef0123456789abcdef");
+        properties.setAccessTokenExpirationMinutes(15);
+        properties.setRefreshTokenExpirationDays(7);
+        properties.setIssuer("test");
+        jwtService = new JwtService(properties, metrics);
+        principalCache = new AuthenticatedPrincipalCache(60, 100);
+        resolver = new LocalJwtBearerTokenResolver(jwtService, userDetailsService, principalCache, false);
+
+        user = new UserEntity("alice", "alice@example.com", "hash");
+        ReflectionTestUtils.setField(user, "id", UUID.randomUUID());
+        user.addRole(new RoleEntity("USER"));
+        lenient().when(userDetailsService.loadUserByUsername("alice")).thenReturn(
+                User.withUsername("alice").password("hash").roles("USER").build());
+    }
+
+    @Test
+    void resolve_loadsTheUserOncePerToken() {
+        String token = jwtService.generateAccessToken(user);
+
+        Authentication first = resolver.resolve(token).orElseThrow();
+        Authentication second = resolver.resolve(token).orElseThrow();
+
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+        assertEquals(user.getId(), first.getDetails());
+        assertEquals(user.getId(), second.getDetails());
+        assertNotSame(first, second);
+        assertTrue(second.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_USER")));
+    }
+
+    @Test
+    void resolve_cachesPerTokenId() {
+        resolver.resolve(jwtService.generateAccessToken(user));
+        resolver.resolve(jwtService.generateAccessToken(user));
+
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+        assertEquals(2, principalCache.size());
+    }
+
+    @Test
+    void evictUser_forcesAReload() {
+        String token = jwtService.generateAccessToken(user);
+        resolver.resolve(token);
+
+        principalCache.evictUser(user.getId());
+        resolver.resolve(token);
+
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void evictUsername_forcesAReload() {
+        String token = jwtService.generateAccessToken(user);
+        resolver.resolve(token);
+
+        principalCache.evictUsername("bob");
+        resolver.resolve(token);
+        principalCache.evictUsername("alice");
+        resolver.resolve(token);
+
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void resolve_rejectsTamperedTokensWithoutTouchingTheCache() {
+        String token = jwtService.generateAccessToken(user);
+        resolver.resolve(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertEquals(Optional.empty(), resolver.resolve(tampered));
+        assertEquals(Optional.empty(), resolver.resolve("not-a-jwt"));
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+    }
+}
@@ -0,0 +1,79 @@
+package com.atlasia.ai.service.event;
+
+import com.atlasia.ai.service.observability.CorrelationIdHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LlmTokenRelayTest {
+
+    @Mock
+    private WorkflowEventBus eventBus;
+
+    private final UUID runId = UUID.randomUUID();
+
+    @AfterEach
+    void tearDown() {
+        CorrelationIdHolder.clear();
+    }
+
+    @Test
+    void forCurrentRun_nullWithoutRunOrSubscribers() {
+        assertNull(LlmTokenRelay.forCurrentRun(eventBus, "gpt"));
+
+        CorrelationIdHolder.setRunId(runId);
+        when(eventBus.hasSubscribers(runId)).thenReturn(false);
+        assertNull(LlmTokenRelay.forCurrentRun(eventBus, "gpt"));
+
+        when(eventBus.hasSubscribers(runId)).thenReturn(true);
+        assertNotNull(LlmTokenRelay.forCurrentRun(eventBus, "gpt"));
+    }
+
+    @Test
+    void accept_sendsFirstDeltaImmediatelyThenCoalesces() {
+        LlmTokenRelay relay = new LlmTokenRelay(eventBus, runId, "developer", "gpt");
+
+        relay.accept("Hel");
+        relay.accept("lo");
+        relay.accept(" world");
+        relay.flush();
+
+        ArgumentCaptor<WorkflowEvent> events = ArgumentCaptor.forClass(WorkflowEvent.class);
+        verify(eventBus, atLeast(2)).emit(eq(runId), events.capture());
+        List<WorkflowEvent> sent = events.getAllValues();
+        WorkflowEvent.LlmToken first = (WorkflowEvent.LlmToken) sent.get(0);
+        assertEquals("Hel", first.text());
+        assertEquals(0, first.sequence());
+        assertEquals("developer", first.agentName());
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < sent.size(); i++) {
+            WorkflowEvent.LlmToken token = (WorkflowEvent.LlmToken) sent.get(i);
+            assertEquals(i, token.sequence());
+            all.append(token.text());
+        }
+        assertEquals("Hello world", all.toString());
+        assertTrue(relay.timeToFirstTokenMillis() >= 0);
+    }
+
+    @Test
+    void flush_withNothingBufferedEmitsNothing() {
+        LlmTokenRelay relay = new LlmTokenRelay(eventBus, runId, "developer", "gpt");
+
+        relay.accept("");
+        relay.flush();
+
+        verifyNoInteractions(eventBus);
+        assertEquals(-1, relay.timeToFirstTokenMillis());
+    }
+}
@@ -0,0 +1,186 @@
+package com.atlasia.ai.service.event;
+
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowEventBusTest {
+
+    @Mock
+    private WorkflowEventTransport transport;
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    private final UUID runId = UUID.randomUUID();
+
+    private WorkflowEventBus newBus(Executor executor, int subscriberQueueCapacity) {
+        return new WorkflowEventBus(transport, metrics, executor, 100, subscriberQueueCapacity, 60_000, "node-a");
+    }
+
+    @Test
+    void reconnectWithLastEventIdReplaysOnlyMissedEventsBeforeLiveOnes() {
+        WorkflowEventBus bus = newBus(Runnable::run, 100);
+        RecordingEmitter first = new RecordingEmitter();
+        bus.subscribe(runId, first, null);
+
+        bus.emit(runId, step("PM"));
+        bus.emit(runId, step("QUALIFIER"));
+        bus.emit(runId, step("ARCHITECT"));
+        String secondId = first.ids().get(1);
+
+        RecordingEmitter reconnected = new RecordingEmitter();
+        bus.subscribe(runId, reconnected, secondId);
+        bus.emit(runId, step("DEVELOPER"));
+
+        assertEquals(List.of("ARCHITECT", "DEVELOPER"), reconnected.agents());
+        assertEquals(List.of("PM", "QUALIFIER", "ARCHITECT", "DEVELOPER"), first.agents());
+        assertTrue(Long.parseLong(first.ids().get(3)) > Long.parseLong(first.ids().get(2)));
+        verify(metrics).recordEventReplay(1);
+
+        RecordingEmitter fresh = new RecordingEmitter();
+        bus.subscribe(runId, fresh, null);
+        assertTrue(fresh.frames.isEmpty(), "clients without Last-Event-ID only see new events");
+    }
+
+    @Test
+    void tokensAreLiveOnlyAndSkippedWithoutSubscribers() {
+        WorkflowEventBus bus = newBus(Runnable::run, 100);
+
+        bus.emit(runId, token(0, "Hel"));
+        assertFalse(bus.hasSubscribers(runId));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        bus.subscribe(runId, emitter, "0");
+        bus.emit(runId, token(1, "lo"));
+
+        assertEquals(1, emitter.frames.size());
+        assertFalse(emitter.frames.get(0).contains("id:"), "tokens carry no replay id");
+        verify(transport, never()).publish(argThat(e -> "LLM_TOKEN".equals(e.eventType())));
+    }
+
+    @Test
+    void slowSubscriberIsDisconnectedWithoutBlockingTheEmitter() {
+        List<Runnable> pendingSends = new ArrayList<>();
+        WorkflowEventBus bus = newBus(pendingSends::add, 2);
+        RecordingEmitter slow = new RecordingEmitter();
+        bus.subscribe(runId, slow, null);
+
+        for (int i = 0; i < 5; i++) {
+            bus.emit(runId, step("AGENT-" + i));
+        }
+
+        verify(metrics).recordEventSubscriberDropped("slow_consumer");
+        assertFalse(bus.hasSubscribers(runId));
+        pendingSends.forEach(Runnable::run);
+        assertTrue(slow.completed);
+        assertTrue(slow.frames.isEmpty());
+    }
+
+    @Test
+    void eventsFromOtherNodesAreDeliveredAndBufferedAndCompletionPropagates() {
+        WorkflowEventBus bus = newBus(Runnable::run, 100);
+        RecordingEmitter local = new RecordingEmitter();
+        bus.subscribe(runId, local, null);
+
+        bus.receive(new EventEnvelope(EventEnvelope.EVENT, "node-b", runId, 42, "STEP_START", "{\"agentName\":\"REMOTE\"}"));
+        bus.receive(new EventEnvelope(EventEnvelope.EVENT, "node-b", runId, 42, "STEP_START", "{\"agentName\":\"REMOTE\"}"));
+        bus.receive(new EventEnvelope(EventEnvelope.EVENT, "node-a", runId, 43, "STEP_START", "{\"agentName\":\"SELF\"}"));
+
+        assertEquals(1, local.frames.size());
+        assertTrue(local.frames.get(0).contains("id:42"));
+
+        UUID otherRun = UUID.randomUUID();
+        bus.receive(new EventEnvelope(EventEnvelope.PRESENCE, "node-b", otherRun, 0, null, "1"));
+        assertTrue(bus.hasSubscribers(otherRun));
+
+        bus.completeEmitters(runId);
+        assertTrue(local.completed);
+        ArgumentCaptor<EventEnvelope> published = ArgumentCaptor.forClass(EventEnvelope.class);
+        verify(transport, atLeastOnce()).publish(published.capture());
+        assertTrue(published.getAllValues().stream()
+                .anyMatch(e -> EventEnvelope.COMPLETE.equals(e.kind()) && runId.equals(e.runId())));
+
+        RecordingEmitter late = new RecordingEmitter();
+        bus.subscribe(runId, late, "0");
+        assertEquals(1, late.frames.size());
+        assertTrue(late.completed, "a finished run replays and then closes the stream");
+    }
+
+    @Test
+    void restartedRunReopensItsChannelForNewSubscribers() {
+        WorkflowEventBus bus = newBus(Runnable::run, 100);
+        bus.emit(runId, step("PM"));
+        bus.completeEmitters(runId);
+
+        bus.emit(runId, step("DEVELOPER"));
+        RecordingEmitter reconnected = new RecordingEmitter();
+        bus.subscribe(runId, reconnected, "0");
+        bus.emit(runId, step("REVIEW"));
+
+        assertFalse(reconnected.completed, "a resumed run must not end new streams immediately");
+        assertEquals(List.of("DEVELOPER", "REVIEW"), reconnected.agents());
+        assertTrue(bus.hasSubscribers(runId));
+    }
+
+    @Test
+    void startRegistersReceiverWithTransport() {
+        newBus(Runnable::run, 10).start();
+
+        verify(transport).start(any());
+    }
+
+    private WorkflowEvent step(String agent) {
+        return new WorkflowEvent.StepStart(runId, Instant.now(), agent, "run");
+    }
+
+    private WorkflowEvent token(int sequence, String text) {
+        return new WorkflowEvent.LlmToken(runId, Instant.now(), "DEVELOPER", "gpt", sequence, text);
+    }
+
+    /** Captures the raw SSE frames instead of writing to a response. */
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> frames = new ArrayList<>();
+        volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            frames.add(builder.build().stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        List<String> ids() {
+            return frames.stream()
+                    .map(f -> f.lines().filter(l -> l.startsWith("id:")).findFirst().orElseThrow().substring(3))
+                    .toList();
+        }
+
+        List<String> agents() {
+            return frames.stream()
+                    .map(f -> f.replaceAll("(?s).*\"agentName\":\"([^\"]+)\".*", "$1"))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.atlasia.ai.service.trace;
+
+import com.atlasia.ai.model.TraceEventEntity;
+import com.atlasia.ai.persistence.TraceEventRepository;
+import com.atlasia.ai.service.event.WorkflowEvent;
+import com.atlasia.ai.service.observability.OrchestratorMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TraceEventServiceTest {
+
+    private static final Instant T0 = Instant.parse("2026-03-01T10:00:00Z");
+
+    @Mock
+    private TraceEventRepository repository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private OrchestratorMetrics metrics;
+
+    private final UUID runId = UUID.randomUUID();
+
+    private TraceEventService newService(int capacity) {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return new TraceEventService(repository, transactionManager, metrics, capacity, 100, 0, "drop", 0);
+    }
+
+    @Test
+    void spanOpenedAndClosedBetweenFlushesIsInsertedOnceAlreadyClosed() {
+        TraceEventService service = newService(100);
+
+        service.recordEvent(new WorkflowEvent.StepStart(runId, T0, "DEVELOPER", "implement"));
+        service.recordEvent(new WorkflowEvent.LlmCallStart(runId, T0.plusMillis(5), "DEVELOPER", "gpt-4o"));
+        service.recordEvent(new WorkflowEvent.LlmCallEnd(runId, T0.plusMillis(900), "DEVELOPER", "gpt-4o", 895, 1200));
+        service.recordEvent(new WorkflowEvent.StepComplete(runId, T0.plusSeconds(2), "DEVELOPER", 2000, "code_changes"));
+
+        assertEquals(4, service.drainBatch());
+
+        List<TraceEventEntity> inserted = captureSaveAll().get(0);
+        assertEquals(2, inserted.size());
+        TraceEventEntity step = inserted.get(0);
+        TraceEventEntity llm = inserted.get(1);
+        assertEquals(T0.plusSeconds(2), step.getEndTime());
+        assertEquals(step.getId(), llm.getParentEventId());
+        assertEquals(T0.plusMillis(900), llm.getEndTime());
+        assertEquals(1200, llm.getTokensUsed());
+        verify(repository, never()).findAllById(any());
+        verify(repository, never()).findByRunIdOrderByStartTimeAsc(any());
+        verify(metrics).recordTraceFlush(eq(4), anyLong(), anyLong());
+    }
+
+    @Test
+    void closeArrivingAfterFlushLoadsTheSpanByIdAndUpdatesIt() {
+        TraceEventService service = newService(100);
+        service.recordEvent(new WorkflowEvent.LlmCallStart(runId, T0, "QUALIFIER", "gpt-4o"));
+        service.drainBatch();
+        TraceEventEntity persisted = captureSaveAll().get(0).get(0);
+        when(repository.findAllById(any())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(0);
+            assertEquals(List.of(persisted.getId()), new ArrayList<>(ids));
+            return List.of(persisted);
+        });
+
+        service.recordEvent(new WorkflowEvent.LlmCallEnd(runId, T0.plusSeconds(3), "QUALIFIER", "gpt-4o", 3000, 500));
+        service.drainBatch();
+
+        assertEquals(T0.plusSeconds(3), persisted.getEndTime());
+        assertEquals(3000L, persisted.getDurationMs());
+        assertEquals(500, persisted.getTokensUsed());
+        verify(repository, never()).findByRunIdOrderByStartTimeAsc(any());
+    }
+
+    @Test
+    void nestedLlmCallsCloseInLastOpenedFirstClosedOrder() {
+        TraceEventService service = newService(100);
+        service.recordEvent(new WorkflowEvent.LlmCallStart(runId, T0, "JUDGE", "outer"));
+        service.recordEvent(new WorkflowEvent.LlmCallStart(runId, T0.plusMillis(1), "JUDGE", "inner"));
+        service.recordEvent(new WorkflowEvent.LlmCallEnd(runId, T0.plusMillis(10), "JUDGE", "inner", 9, 10));
+
+        service.drainBatch();
+
+        Map<String, TraceEventEntity> byLabel = captureSaveAll().get(0).stream()
+                .collect(Collectors.toMap(TraceEventEntity::getLabel, Function.identity()));
+        assertNotNull(byLabel.get("LLM call — inner").getEndTime());
+        assertNull(byLabel.get("LLM call — outer").getEndTime());
+    }
+
+    @Test
+    void fullQueueDropsTheSpanAndItsCloseWithoutFailingTheCaller() {
+        TraceEventService service = newService(1);
+
+        service.recordEvent(new WorkflowEvent.StepStart(runId, T0, "PM", "plan"));
+        service.recordEvent(new WorkflowEvent.LlmCallStart(runId, T0.plusMillis(1), "PM", "gpt-4o"));
+        service.recordEvent(new WorkflowEvent.LlmCallEnd(runId, T0.plusMillis(5), "PM", "gpt-4o", 4, 10));
+
+        verify(metrics).recordTraceWriteDropped("queue_full", 1);
+        assertEquals(1, service.drainBatch());
+        assertEquals(0, service.drainBatch());
+        verify(repository, never()).findAllById(any());
+    }
+
+    @Test
+    void failedBatchIsRetriedSpanBySpan() {
+        TraceEventService service = newService(100);
+        when(repository.saveAll(any())).thenAnswer(inv -> {
+            Collection<TraceEventEntity> spans = inv.getArgument(0);
+            if (spans.size() > 1 || spans.iterator().next().getLabel().contains("bad")) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return new ArrayList<>(spans);
+        });
+
+        service.recordEvent(new WorkflowEvent.LlmCallStart(runId, T0, "TESTER", "good"));
+        service.recordEvent(new WorkflowEvent.LlmCallStart(runId, T0, "TESTER", "bad"));
+        service.drainBatch();
+
+        verify(repository, times(3)).saveAll(any());
+        verify(metrics).recordTraceWriteDropped("flush_error", 1);
+        verify(metrics, never()).recordTraceWriteDropped(eq("queue_full"), anyInt());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<TraceEventEntity>> captureSaveAll() {
+        ArgumentCaptor<Collection<TraceEventEntity>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository, atLeastOnce()).saveAll(captor.capture());
+        return captor.getAllValues().stream().map(c -> (List<TraceEventEntity>) new ArrayList<>(c)).toList();
+    }
+}
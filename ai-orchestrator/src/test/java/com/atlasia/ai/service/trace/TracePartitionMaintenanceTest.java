@@ -0,0 +1,84 @@
+package com.atlasia.ai.service.trace;
+
+import com.atlasia.ai.persistence.TraceEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TracePartitionMaintenanceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TraceEventRepository repository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TracePartitionMaintenance maintenance(int retentionDays) {
+        Clock clock = Clock.fixed(TODAY.atTime(12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        return new TracePartitionMaintenance(jdbcTemplate, repository, transactionManager, retentionDays, 2, clock);
+    }
+
+    @Test
+    void maintain_deletesOldRowsWhenTheTableIsNotPartitioned() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(repository.deleteByStartTimeBefore(any())).thenReturn(4);
+
+        maintenance(30).maintain();
+
+        verify(repository).deleteByStartTimeBefore(Instant.parse("2026-02-08T00:00:00Z"));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void maintain_createsUpcomingPartitionsAndDropsOnlyExpiredDailyOnes() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("ai_trace_event"))).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("ai_trace_event"))).thenReturn(List.of(
+                "ai_trace_event_default", "ai_trace_event_p20260207", "ai_trace_event_p20260208",
+                "ai_trace_event_p20260310", "ai_trace_event_archive"));
+
+        maintenance(30).maintain();
+
+        verify(jdbcTemplate).execute(contains("ai_trace_event_p20260310 PARTITION OF ai_trace_event"));
+        verify(jdbcTemplate).execute(contains("ai_trace_event_p20260312 PARTITION OF ai_trace_event"));
+        verify(jdbcTemplate, never()).execute(contains("ai_trace_event_p20260313"));
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS ai_trace_event_p20260207");
+        verify(jdbcTemplate, times(1)).execute(startsWith("DROP TABLE"));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM ai_trace_event_default"), any(Object.class));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void maintain_keepsEverythingWhenRetentionIsDisabled() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        maintenance(0).maintain();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void partitionName_usesTheUtcDay() {
+        assertEquals("ai_trace_event_p20260310", TracePartitionMaintenance.partitionName(TODAY));
+    }
+}
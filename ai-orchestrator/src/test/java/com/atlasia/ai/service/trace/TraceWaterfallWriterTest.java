@@ -0,0 +1,121 @@
+package com.atlasia.ai.service.trace;
+
+import com.atlasia.ai.model.TraceEventEntity;
+import com.atlasia.ai.persistence.TraceEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TraceWaterfallWriterTest {
+
+    private static final Instant T0 = Instant.parse("2026-03-01T10:00:00Z");
+
+    @Mock
+    private TraceEventRepository repository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final UUID runId = UUID.randomUUID();
+    private final Map<UUID, TraceEventEntity> stored = new LinkedHashMap<>();
+    private final Set<UUID> deleted = new HashSet<>();
+
+    @Test
+    void write_nestsChildrenUnderTheirParentsInStartOrder() throws Exception {
+        TraceEventEntity root = span(null, "WORKFLOW", 0);
+        TraceEventEntity step = span(root.getId(), "AGENT_STEP", 1);
+        TraceEventEntity call = span(step.getId(), "LLM_CALL", 2);
+        TraceEventEntity second = span(root.getId(), "AGENT_STEP", 3);
+        TraceEventEntity other = span(null, "WORKFLOW", 4);
+
+        JsonNode json = write(2);
+
+        assertEquals(2, json.size());
+        JsonNode first = json.get(0);
+        assertEquals(root.getId().toString(), first.get("id").asText());
+        assertEquals(2, first.get("children").size());
+        JsonNode firstStep = first.get("children").get(0);
+        assertEquals(step.getId().toString(), firstStep.get("id").asText());
+        assertEquals(call.getId().toString(), firstStep.get("children").get(0).get("id").asText());
+        assertEquals(second.getId().toString(), first.get("children").get(1).get("id").asText());
+        assertEquals(other.getId().toString(), json.get(1).get("id").asText());
+        assertEquals(0, json.get(1).get("children").size());
+        assertEquals("{}", first.get("metadata").asText());
+        // Five spans in batches of two.
+        verify(repository, times(3)).findAllById(anyIterable());
+    }
+
+    @Test
+    void write_treatsSpansWithMissingParentsAsRoots() throws Exception {
+        TraceEventEntity orphan = span(UUID.randomUUID(), "LLM_CALL", 0);
+        TraceEventEntity child = span(orphan.getId(), "TOOL_CALL", 1);
+
+        JsonNode json = write(500);
+
+        assertEquals(1, json.size());
+        assertEquals(orphan.getId().toString(), json.get(0).get("id").asText());
+        assertEquals(child.getId().toString(), json.get(0).get("children").get(0).get("id").asText());
+    }
+
+    @Test
+    void write_skipsTheSubtreeOfASpanDeletedMidStream() throws Exception {
+        TraceEventEntity gone = span(null, "WORKFLOW", 0);
+        span(gone.getId(), "AGENT_STEP", 1);
+        TraceEventEntity kept = span(null, "WORKFLOW", 2);
+        deleted.add(gone.getId());
+
+        JsonNode json = write(500);
+
+        assertEquals(1, json.size());
+        assertEquals(kept.getId().toString(), json.get(0).get("id").asText());
+    }
+
+    @Test
+    void write_emitsAnEmptyArrayForARunWithoutSpans() throws Exception {
+        assertEquals(0, write(500).size());
+        verify(repository, never()).findAllById(anyIterable());
+    }
+
+    private JsonNode write(int batchSize) throws Exception {
+        List<TraceEventRepository.SpanLink> links = new ArrayList<>();
+        for (TraceEventEntity span : stored.values()) {
+            links.add(new TraceEventRepository.SpanLink() {
+                public UUID getId() { return span.getId(); }
+                public UUID getParentEventId() { return span.getParentEventId(); }
+            });
+        }
+        Map<UUID, TraceEventEntity> present = new LinkedHashMap<>(stored);
+        present.keySet().removeAll(deleted);
+        when(repository.findLinksByRunId(runId)).thenReturn(links);
+        lenient().when(repository.findAllById(anyIterable())).thenAnswer(inv -> {
+            List<TraceEventEntity> found = new ArrayList<>();
+            for (Object id : (Iterable<?>) inv.getArgument(0)) {
+                if (present.containsKey(id)) {
+                    found.add(present.get(id));
+                }
+            }
+            return found;
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new TraceWaterfallWriter(repository, objectMapper, batchSize).write(runId, out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private TraceEventEntity span(UUID parent, String type, int offsetSeconds) {
+        TraceEventEntity span = new TraceEventEntity(UUID.randomUUID(), runId, parent, type, "developer", type,
+                T0.plusSeconds(offsetSeconds));
+        stored.put(span.getId(), span);
+        return span;
+    }
+}
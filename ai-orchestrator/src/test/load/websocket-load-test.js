@@ -28,6 +28,10 @@ const reconnections = new Counter('ws_reconnections');
 // Configuration
 const BASE_URL = __ENV.BASE_URL || 'http://localhost:8088';
 const WS_URL = __ENV.WS_URL || 'ws://localhost:8088';
+// Comma-separated pod URLs; VUs are spread round-robin across them. With
+// WS_BROKER_MODE=relay all pods share rooms, so the per-node connection
+// ceiling is compared by running with one URL and then with several.
+const WS_URLS = (__ENV.WS_URLS || WS_URL).split(',').map(u => u.trim()).filter(u => u.length > 0);
 const AUTH_TOKEN = __ENV.AUTH_TOKEN || 'test-token-123';
 
 // Load test stages - WebSocket focused
@@ -138,7 +142,8 @@ function generatePresenceMessage(userId) {
 export default function() {
   const runId = getRunId();
   const userId = `user-${__VU}`;
-  const wsUrl = `${WS_URL}/ws/runs/${runId}/collaboration`;
+  const node = WS_URLS[(__VU - 1) % WS_URLS.length];
+  const wsUrl = `${node}/ws/runs/${runId}/collaboration`;
   
   const connectionStart = Date.now();
   let connectionEstablished = false;
@@ -152,7 +157,7 @@ export default function() {
         'Authorization': `Bearer ${AUTH_TOKEN}`,
         'X-User-Id': userId,
       },
-      tags: { protocol: 'websocket' },
+      tags: { protocol: 'websocket', node: node },
     },
     function(socket) {
       connectionEstablished = true;
@@ -271,7 +276,7 @@ export default function() {
 
 // Setup function
 export function setup() {
-  console.log(`🚀 Starting WebSocket load test against ${WS_URL}`);
+  console.log(`🚀 Starting WebSocket load test against ${WS_URLS.join(', ')}`);
   console.log(`🎯 Target: 50+ concurrent WebSocket connections`);
   console.log(`📊 Performance baselines:`);
   console.log(`   - Connection time p95: < 1s`);
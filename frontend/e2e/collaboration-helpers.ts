@@ -332,7 +332,7 @@ export class CollaborationPage {
       }
     });
 
-    await this.page.route('**/api/runs', async (route) => {
+    await this.page.route(/\/api\/runs(\?.*)?$/, async (route) => {
       await route.fulfill({
         status: 200,
         contentType: 'application/json',
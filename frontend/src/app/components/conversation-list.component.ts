@@ -82,7 +82,7 @@ export class ConversationListComponent implements OnInit {
 
   ngOnInit() {
     forkJoin({
-      runs: this.orchestratorService.getRuns(),
+      runs: this.orchestratorService.getRuns(50),
       personas: this.orchestratorService.getPersonas(),
     }).subscribe(({ runs, personas }) => {
       this.runs = runs;
@@ -167,6 +167,18 @@ import { ConnectionHealthComponent } from './connection-health.component';
                 \${{ b.spentDayUsd | number:'1.2-4' }} / \${{ b.maxDayUsd | number:'1.2-2' }}
               </span>
             </div>
+            <div class="info-row" *ngIf="b.cachedInputTokensRun > 0">
+              <span class="label">Cached prompt</span>
+              <span class="value mono">
+                {{ b.cachedInputTokensRun | number }} / {{ (b.cachedInputTokensRun + b.uncachedInputTokensRun) | number }} tokens
+              </span>
+            </div>
+            <div class="info-row" *ngIf="b.cacheSavedDayUsd > 0">
+              <span class="label">Saved by cache</span>
+              <span class="value mono">
+                \${{ b.cacheSavedRunUsd | number:'1.2-4' }} run / \${{ b.cacheSavedDayUsd | number:'1.2-4' }} today
+              </span>
+            </div>
             <p class="budget-hint">Downgrade near {{ (b.downgradeThreshold * 100) | number:'1.0-0' }}% of caps (see docs/LLM_ROUTING.md).</p>
           </div>
         </div>
@@ -10,6 +10,8 @@ import { RunResponse, RunRequest } from '../models/orchestrator.model';
 import { IntentPreviewModalComponent, IntentConfirmation } from './intent-preview-modal.component';
 
 const ACTIVE_STATUSES = new Set(['RECEIVED', 'PM', 'QUALIFIER', 'ARCHITECT', 'DEVELOPER', 'REVIEW', 'TESTER', 'WRITER', 'JUDGE']);
+/** Runs fetched per request; the backend caps pages at 200. */
+const RUN_PAGE_SIZE = 200;
 
 @Component({
   selector: 'app-run-list',
@@ -110,6 +112,9 @@ const ACTIVE_STATUSES = new Set(['RECEIVED', 'PM', 'QUALIFIER', 'ARCHITECT', 'DE
       <div class="footer-row">
         <span class="total-label">{{ filteredRuns().length }} runs</span>
         <div class="pagination">
+          <button *ngIf="olderCursor()" (click)="loadOlderRuns()" [disabled]="loadingOlder()" class="btn-pagination">
+            Load older runs
+          </button>
           <button (click)="previousPage()" [disabled]="currentPage() === 0" class="btn-pagination">
             ‹ Prev
           </button>
@@ -308,7 +313,17 @@ export class RunListComponent implements OnInit, OnDestroy {
   private settingsService = inject(SettingsService);
   private router = inject(Router);
 
-  private allRuns = signal<RunResponse[]>([]);
+  /** Newest page, refreshed by the poll. */
+  private latestRuns = signal<RunResponse[]>([]);
+  /** Older pages loaded on demand; kept across polls. */
+  private olderRuns = signal<RunResponse[]>([]);
+  olderCursor = signal<string | null>(null);
+  loadingOlder = signal(false);
+  private allRuns = computed(() => {
+    const latest = this.latestRuns();
+    const seen = new Set(latest.map(r => r.id));
+    return [...latest, ...this.olderRuns().filter(r => !seen.has(r.id))];
+  });
   loading = signal(true);
   statusFilter = signal('');
   searchTerm = signal('');
@@ -342,7 +357,7 @@ export class RunListComponent implements OnInit, OnDestroy {
     this.pollSub = interval(5000).pipe(
       startWith(0),
       // catchError inside switchMap keeps the interval alive after any HTTP error
-      switchMap(() => this.orchestratorService.getRuns().pipe(
+      switchMap(() => this.orchestratorService.getRunsPage({ limit: RUN_PAGE_SIZE }).pipe(
         catchError(err => {
           this.loading.set(false);
           const status: number | undefined = err?.status;
@@ -356,9 +371,10 @@ export class RunListComponent implements OnInit, OnDestroy {
           return of(null); // keep polling alive
         })
       ))
-    ).subscribe(runs => {
-      if (runs !== null) {
-        this.allRuns.set(runs);
+    ).subscribe(page => {
+      if (page !== null) {
+        this.latestRuns.set(page.runs);
+        if (this.olderRuns().length === 0) this.olderCursor.set(page.nextCursor);
         this.loading.set(false);
         this.loadError.set(null);
         if (this.currentPage() >= this.totalPages()) this.currentPage.set(0);
@@ -402,6 +418,20 @@ export class RunListComponent implements OnInit, OnDestroy {
 
   viewRun(run: RunResponse) { this.router.navigate(['/runs', run.id]); }
   previousPage() { if (this.currentPage() > 0) this.currentPage.update(p => p - 1); }
+
+  loadOlderRuns() {
+    const cursor = this.olderCursor();
+    if (!cursor || this.loadingOlder()) return;
+    this.loadingOlder.set(true);
+    this.orchestratorService.getRunsPage({ limit: RUN_PAGE_SIZE, cursor }).subscribe({
+      next: page => {
+        this.olderRuns.update(runs => [...runs, ...page.runs]);
+        this.olderCursor.set(page.nextCursor);
+        this.loadingOlder.set(false);
+      },
+      error: () => this.loadingOlder.set(false),
+    });
+  }
   nextPage() { if (this.currentPage() < this.totalPages() - 1) this.currentPage.update(p => p + 1); }
 
   openNewBolt() {
@@ -81,6 +81,10 @@ export interface LlmBudgetSnapshot {
     maxDayUsd: number;
     downgradeThreshold: number;
     agentComplexityKeys: Record<string, string>;
+    cachedInputTokensRun: number;
+    uncachedInputTokensRun: number;
+    cacheSavedRunUsd: number;
+    cacheSavedDayUsd: number;
 }
 
 // A2A Protocol models (matching backend A2ADiscoveryService + AgentBindingService)
@@ -134,6 +138,7 @@ export type WorkflowEventType =
     | 'WORKFLOW_STATUS'
     | 'LLM_CALL_START'
     | 'LLM_CALL_END'
+    | 'LLM_TOKEN'
     | 'SCHEMA_VALIDATION'
     | 'WORKFLOW_ERROR'
     | 'ESCALATION_RAISED'
@@ -160,6 +165,9 @@ export interface WorkflowEvent {
     // LlmCall
     model?: string;
     tokensUsed?: number;
+    // LlmToken
+    sequence?: number;
+    text?: string;
     // SchemaValidation
     schemaName?: string;
     passed?: boolean;
@@ -45,8 +45,8 @@ export class EscalationService implements OnDestroy {
   }
 
   private fetchEscalated() {
-    this.orchestratorService.getRuns().subscribe({
-      next: (runs) => {
+    this.orchestratorService.getRunsPage({ status: 'ESCALATED', limit: 200 }).subscribe({
+      next: ({ runs }) => {
         const escalated = runs.filter(r => r.status === 'ESCALATED');
         setTimeout(() => {
           this.escalatedRuns.set(escalated);
@@ -1,6 +1,7 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
+import { map } from 'rxjs/operators';
 import { RunRequest, RunResponse, ArtifactResponse, Persona, ChatResponse, LlmBudgetSnapshot, AgentCard, AgentBinding, GraftExecution, CircuitBreakerStatus, PendingInterrupt, InterruptDecisionRequest, CurrentUserDto, UserRegistrationRequest, UserRegistrationResponse, GithubRepo, GithubUser } from '../models/orchestrator.model';
 import { CollaborationEventEntity } from '../models/collaboration.model';
 import { AuthService } from './auth.service';
@@ -19,6 +20,21 @@ export interface OversightConfigPayload {
   maxConcurrentRuns: number;
 }
 
+export interface RunListQuery {
+  repo?: string;
+  status?: string;
+  /** Opaque keyset cursor from the previous page's {@code nextCursor}. */
+  cursor?: string;
+  /** Page size; the backend caps it at 200. */
+  limit?: number;
+}
+
+export interface RunPage {
+  runs: RunResponse[];
+  /** Cursor for the next (older) page, or null on the last page. */
+  nextCursor: string | null;
+}
+
 @Injectable({
     providedIn: 'root'
 })
@@ -27,8 +43,19 @@ export class OrchestratorService {
 
     constructor(private http: HttpClient, private auth: AuthService, private settings: SettingsService) { }
 
-    getRuns(): Observable<RunResponse[]> {
-        return this.http.get<RunResponse[]>(this.apiUrl);
+    /** One keyset page of runs, newest first; pass {@code nextCursor} back to get older runs. */
+    getRunsPage(query: RunListQuery = {}): Observable<RunPage> {
+        let params = new HttpParams().set('limit', String(query.limit ?? 50));
+        if (query.repo) params = params.set('repo', query.repo);
+        if (query.status) params = params.set('status', query.status);
+        if (query.cursor) params = params.set('cursor', query.cursor);
+        return this.http.get<RunResponse[]>(this.apiUrl, { params, observe: 'response' }).pipe(
+            map(res => ({ runs: res.body ?? [], nextCursor: res.headers.get('X-Next-Cursor') })));
+    }
+
+    /** The newest {@code limit} runs (first page only). */
+    getRuns(limit = 200): Observable<RunResponse[]> {
+        return this.getRunsPage({ limit }).pipe(map(page => page.runs));
     }
 
     getRun(id: string): Observable<RunResponse> {
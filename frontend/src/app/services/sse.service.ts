@@ -27,7 +27,7 @@ export class SseService {
       // Listen to typed events matching backend event names
       const eventTypes = [
         'STEP_START', 'STEP_COMPLETE', 'TOOL_CALL_START', 'TOOL_CALL_END',
-        'WORKFLOW_STATUS', 'LLM_CALL_START', 'LLM_CALL_END',
+        'WORKFLOW_STATUS', 'LLM_CALL_START', 'LLM_CALL_END', 'LLM_TOKEN',
         'SCHEMA_VALIDATION', 'WORKFLOW_ERROR', 'ESCALATION_RAISED'
       ];
 